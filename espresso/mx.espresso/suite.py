@@ -241,6 +241,16 @@ suite = {
             "checkstyle": "com.oracle.truffle.espresso",
             "testProject" : True,
         },
+
+        "com.oracle.truffle.espresso.test": {
+            "subDir": "src",
+            "sourceDirs": ["src"],
+            "dependencies": [
+            ],
+            "javaCompliance": "1.8+",
+            "checkstyle": "com.oracle.truffle.espresso",
+            "testProject" : True,
+        },
     },
 
     # ------------- distributions
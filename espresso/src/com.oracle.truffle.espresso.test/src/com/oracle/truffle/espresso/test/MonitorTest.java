@@ -0,0 +1,271 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.espresso.test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Guest program that exercises object monitors: thin locks, their inflation when another thread
+ * contends for them, and {@link Object#wait() wait} and {@link Object#notify() notify} on objects
+ * that were never inflated. Exits with a non-zero status if a check fails. Run it with
+ * {@code mx espresso-standalone -cp <classes of this project> com.oracle.truffle.espresso.test.MonitorTest}.
+ */
+public final class MonitorTest {
+
+    private static final int THREADS = 4;
+    private static final int ROUNDS = 200;
+    private static final int ITERATIONS = 1000;
+    private static final long TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    private MonitorTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        testHoldsLock();
+        testDeepRecursion();
+        testInflationUnderContention();
+        testRecursiveThinLockHandedToInflatedLock();
+        testNotifyOnThinLock();
+        testRecursiveWaitOnThinLock();
+        testWaitNotify();
+        testIllegalMonitorState();
+        System.out.println("OK");
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+
+    private static void awaitState(Thread thread, Thread.State state) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (thread.getState() != state) {
+            check(System.currentTimeMillis() < deadline, thread.getName() + " did not reach state " + state);
+            Thread.sleep(1);
+        }
+    }
+
+    private static void join(Thread thread) throws InterruptedException {
+        thread.join(TIMEOUT_MILLIS);
+        check(!thread.isAlive(), thread.getName() + " did not terminate");
+    }
+
+    private static Thread start(Runnable task) {
+        Thread thread = new Thread(task);
+        thread.start();
+        return thread;
+    }
+
+    static void testHoldsLock() {
+        Object lock = new Object();
+        check(!Thread.holdsLock(lock), "unlocked object is held");
+        synchronized (lock) {
+            check(Thread.holdsLock(lock), "thin lock is not held");
+            synchronized (lock) {
+                check(Thread.holdsLock(lock), "recursive thin lock is not held");
+            }
+            check(Thread.holdsLock(lock), "thin lock released by inner exit");
+        }
+        check(!Thread.holdsLock(lock), "thin lock not released");
+    }
+
+    /**
+     * Deep recursion inflates a thin lock, which must keep all holds of the owner.
+     */
+    static void testDeepRecursion() {
+        Object lock = new Object();
+        enterRecursively(lock, 2048);
+        check(!Thread.holdsLock(lock), "deeply recursive lock not released");
+    }
+
+    private static void enterRecursively(Object lock, int depth) {
+        synchronized (lock) {
+            if (depth > 1) {
+                enterRecursively(lock, depth - 1);
+            }
+            check(Thread.holdsLock(lock), "lock released at depth " + depth);
+        }
+    }
+
+    static final class Counter {
+        boolean inside;
+        int count;
+    }
+
+    /**
+     * Every round uses a fresh object, so that its thin lock is inflated while threads hold it.
+     */
+    static void testInflationUnderContention() throws InterruptedException {
+        for (int round = 0; round < ROUNDS; round++) {
+            Counter counter = new Counter();
+            Thread[] threads = new Thread[THREADS];
+            for (int t = 0; t < THREADS; t++) {
+                threads[t] = start(() -> {
+                    for (int i = 0; i < ITERATIONS; i++) {
+                        synchronized (counter) {
+                            check(!counter.inside, "two threads inside the monitor");
+                            counter.inside = true;
+                            if (i % 16 == 0) {
+                                synchronized (counter) {
+                                    counter.count++;
+                                }
+                            } else {
+                                counter.count++;
+                            }
+                            counter.inside = false;
+                        }
+                    }
+                });
+            }
+            for (Thread thread : threads) {
+                join(thread);
+            }
+            synchronized (counter) {
+                check(counter.count == THREADS * ITERATIONS, "lost updates: " + counter.count);
+            }
+        }
+    }
+
+    /**
+     * A thread that blocks on a recursively thin-locked monitor inflates it. The owner keeps all of
+     * its holds, and the monitor is only released by the outermost exit.
+     */
+    static void testRecursiveThinLockHandedToInflatedLock() throws InterruptedException {
+        Object lock = new Object();
+        AtomicBoolean acquired = new AtomicBoolean();
+        Thread contender;
+        synchronized (lock) {
+            synchronized (lock) {
+                synchronized (lock) {
+                    contender = start(() -> {
+                        synchronized (lock) {
+                            acquired.set(true);
+                        }
+                    });
+                    awaitState(contender, Thread.State.BLOCKED);
+                }
+                check(Thread.holdsLock(lock), "holds lost after the second exit");
+                check(!acquired.get(), "monitor acquired while held twice");
+            }
+            check(Thread.holdsLock(lock), "hold lost after the first exit");
+            Thread.sleep(10);
+            check(!acquired.get(), "monitor acquired while held once");
+            check(contender.getState() == Thread.State.BLOCKED, "contender is not blocked");
+        }
+        check(!Thread.holdsLock(lock), "monitor not released");
+        join(contender);
+        check(acquired.get(), "contender did not acquire the monitor");
+    }
+
+    static void testNotifyOnThinLock() {
+        Object lock = new Object();
+        synchronized (lock) {
+            lock.notify();
+            synchronized (lock) {
+                lock.notifyAll();
+            }
+            check(Thread.holdsLock(lock), "notify released the thin lock");
+        }
+        check(!Thread.holdsLock(lock), "monitor not released");
+    }
+
+    /**
+     * Waiting on a recursively thin-locked monitor releases all holds and restores them afterwards.
+     */
+    static void testRecursiveWaitOnThinLock() throws InterruptedException {
+        Object lock = new Object();
+        AtomicBoolean acquired = new AtomicBoolean();
+        synchronized (lock) {
+            synchronized (lock) {
+                Thread other = start(() -> {
+                    synchronized (lock) {
+                        acquired.set(true);
+                        lock.notifyAll();
+                    }
+                });
+                long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+                while (!acquired.get()) {
+                    check(System.currentTimeMillis() < deadline, "wait did not release the monitor");
+                    lock.wait(TIMEOUT_MILLIS);
+                }
+                check(Thread.holdsLock(lock), "wait did not restore the monitor");
+                join(other);
+            }
+            check(Thread.holdsLock(lock), "wait did not restore the recursive hold");
+        }
+        check(!Thread.holdsLock(lock), "monitor not released");
+        acquired.set(false);
+        join(start(() -> {
+            synchronized (lock) {
+                acquired.set(true);
+            }
+        }));
+        check(acquired.get(), "monitor not released after wait");
+    }
+
+    static final class Flag {
+        boolean set;
+    }
+
+    static void testWaitNotify() throws InterruptedException {
+        Flag flag = new Flag();
+        Thread waiter = start(() -> {
+            synchronized (flag) {
+                while (!flag.set) {
+                    try {
+                        flag.wait();
+                    } catch (InterruptedException e) {
+                        throw new AssertionError(e);
+                    }
+                }
+            }
+        });
+        awaitState(waiter, Thread.State.WAITING);
+        synchronized (flag) {
+            flag.set = true;
+            flag.notifyAll();
+        }
+        join(waiter);
+    }
+
+    static void testIllegalMonitorState() throws InterruptedException {
+        Object lock = new Object();
+        synchronized (lock) {
+            check(Thread.holdsLock(lock), "thin lock is not held");
+        }
+        try {
+            lock.notify();
+            throw new AssertionError("notify without holding the monitor");
+        } catch (IllegalMonitorStateException e) {
+            // expected
+        }
+        try {
+            lock.wait(1);
+            throw new AssertionError("wait without holding the monitor");
+        } catch (IllegalMonitorStateException e) {
+            // expected
+        }
+    }
+}
@@ -105,7 +105,7 @@ public interface EspressoLock extends Lock {
      */
     @TruffleBoundary // ReentrantLock.<init> blacklisted by SVM
     static EspressoLock create() {
-        return new EspressoLockImpl();
+        return new EspressoLockImpl(null);
     }
 
     /**
@@ -116,12 +116,78 @@ public interface EspressoLock extends Lock {
     int getEntryCount();
 }
 
+/**
+ * Inflated monitor of a {@link StaticObject}. A lock inflated by a thread that contends for a thin
+ * lock starts with a {@link #thinOwner}: that thread still holds the monitor as a thin lock, and
+ * other threads must wait until it has transferred its ownership to this lock, see
+ * {@link #inflateThinLock(int)}.
+ */
 final class EspressoLockImpl extends ReentrantLock implements EspressoLock {
 
     private static final long serialVersionUID = -2776792497346642438L;
 
     @Stable private volatile Condition waitCondition;
 
+    private volatile Thread thinOwner;
+    private final Condition thinLockReleased;
+
+    EspressoLockImpl(Thread thinOwner) {
+        this.thinOwner = thinOwner;
+        this.thinLockReleased = thinOwner == null ? null : super.newCondition();
+    }
+
+    Thread getThinOwner() {
+        return thinOwner;
+    }
+
+    /**
+     * Called by the {@link #thinOwner} to turn its thin lock, held {@code holds} times, into holds
+     * of this lock.
+     */
+    void inflateThinLock(int holds) {
+        assert thinOwner == Thread.currentThread();
+        for (int i = 0; i < holds; i++) {
+            super.lock();
+        }
+        thinOwner = null;
+        thinLockReleased.signalAll();
+    }
+
+    private void awaitThinLockReleased() {
+        assert thinOwner != Thread.currentThread() : "thin owner must inflate before locking";
+        while (thinOwner != null) {
+            thinLockReleased.awaitUninterruptibly();
+        }
+    }
+
+    @Override
+    public void lock() {
+        super.lock();
+        if (thinOwner != null) {
+            awaitThinLockReleased();
+        }
+    }
+
+    @Override
+    public void lockInterruptibly() throws InterruptedException {
+        super.lockInterruptibly();
+        if (thinOwner != null) {
+            awaitThinLockReleased();
+        }
+    }
+
+    @Override
+    public boolean tryLock() {
+        if (!super.tryLock()) {
+            return false;
+        }
+        if (thinOwner != null) {
+            super.unlock();
+            return false;
+        }
+        return true;
+    }
+
     @SuppressFBWarnings(value = "JLM_JSR166_LOCK_MONITORENTER", justification = "Espresso runtime method.")
     private Condition getWaitCondition() {
         Condition cond = waitCondition;
@@ -163,7 +229,8 @@ final class EspressoLockImpl extends ReentrantLock implements EspressoLock {
     @Override
     @TruffleBoundary // ReentrantLock.getOwner blacklisted by SVM
     public Thread getOwnerThread() {
-        return getOwner();
+        Thread owner = thinOwner;
+        return owner != null ? owner : getOwner();
     }
 
     @Override
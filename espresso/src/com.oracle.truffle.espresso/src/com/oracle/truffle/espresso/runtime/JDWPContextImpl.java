@@ -601,8 +601,7 @@ public final class JDWPContextImpl implements JDWPContext {
     @Override
     public Object getMonitorOwnerThread(Object object) {
         if (object instanceof StaticObject) {
-            EspressoLock lock = ((StaticObject) object).getLock();
-            return asGuestThread(lock.getOwnerThread());
+            return asGuestThread(((StaticObject) object).getMonitorOwnerThread());
         }
         return null;
     }
@@ -610,8 +609,7 @@ public final class JDWPContextImpl implements JDWPContext {
     @Override
     public int getMonitorEntryCount(Object monitor) {
         if (monitor instanceof StaticObject) {
-            EspressoLock lock = ((StaticObject) monitor).getLock();
-            return lock.getEntryCount();
+            return ((StaticObject) monitor).getMonitorEntryCount();
         }
         return -1;
     }
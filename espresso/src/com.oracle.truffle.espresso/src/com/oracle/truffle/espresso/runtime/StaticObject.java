@@ -79,6 +79,7 @@ import com.oracle.truffle.espresso.nodes.BytecodeNode;
 import com.oracle.truffle.espresso.nodes.interop.InvokeEspressoNode;
 import com.oracle.truffle.espresso.nodes.interop.LookupVirtualMethodNode;
 import com.oracle.truffle.espresso.substitutions.Host;
+import com.oracle.truffle.espresso.vm.InterpreterToVM;
 import com.oracle.truffle.espresso.vm.UnsafeAccess;
 import com.oracle.truffle.espresso.vm.VM;
 
@@ -116,12 +117,41 @@ public final class StaticObject implements TruffleObject {
      */
     private final byte[] primitiveFields;
 
-    private volatile EspressoLock lock;
+    /**
+     * Monitor of this object: {@code null} while unlocked, the owning host {@link Thread} while
+     * thin-locked, and an {@link EspressoLockImpl} once inflated. Objects are inflated on
+     * contention or when the monitor is needed as an {@link EspressoLock}, e.g. for
+     * {@link Object#wait() wait}, and stay inflated.
+     */
+    private volatile Object lockWord;
+
+    /**
+     * Number of recursive entries of a thin lock. Only modified by the thread owning the thin lock,
+     * with {@link #setThinLockCount ordered writes} so that other threads can observe it, see
+     * {@link #getMonitorEntryCount()}.
+     */
+    private int thinLockCount;
+
+    /**
+     * A thin lock is inflated when it would be entered recursively more often than this. This
+     * bounds the holds handed over to the inflated lock, {@code thinLockCount + 1}, so that they
+     * cannot overflow.
+     */
+    private static final int MAX_THIN_LOCK_COUNT = 1 << 10;
+
+    private static final long LOCK_WORD_OFFSET;
+    private static final long THIN_LOCK_COUNT_OFFSET;
 
     static {
         // Assert a byte array has the same representation as a boolean array.
         assert (Unsafe.ARRAY_BYTE_BASE_OFFSET == Unsafe.ARRAY_BOOLEAN_BASE_OFFSET &&
                         Unsafe.ARRAY_BYTE_INDEX_SCALE == Unsafe.ARRAY_BOOLEAN_INDEX_SCALE);
+        try {
+            LOCK_WORD_OFFSET = UNSAFE.objectFieldOffset(StaticObject.class.getDeclaredField("lockWord"));
+            THIN_LOCK_COUNT_OFFSET = UNSAFE.objectFieldOffset(StaticObject.class.getDeclaredField("thinLockCount"));
+        } catch (NoSuchFieldException e) {
+            throw EspressoError.shouldNotReachHere(e);
+        }
     }
 
     // region Constructors
@@ -1594,7 +1624,9 @@ public final class StaticObject implements TruffleObject {
      *
      * <p>
      * The {@link EspressoLock} instance will be unique and cached. Calling this method on
-     * {@link StaticObject#NULL} is an invalid operation.
+     * {@link StaticObject#NULL} is an invalid operation. Calling this method inflates the monitor
+     * of this object; use {@link #tryMonitorEnter()} and {@link #tryMonitorExit()} for plain
+     * {@code monitorenter} and {@code monitorexit}.
      *
      * <p>
      * The returned {@link EspressoLock} instance supports the same usages as do the {@link Object}
@@ -1607,16 +1639,159 @@ public final class StaticObject implements TruffleObject {
             CompilerDirectives.transferToInterpreter();
             throw EspressoError.shouldNotReachHere("StaticObject.NULL.getLock()");
         }
-        EspressoLock l = lock;
-        if (l == null) {
-            synchronized (this) {
-                l = lock;
-                if (l == null) {
-                    lock = l = EspressoLock.create();
+        Object word = lockWord;
+        if (word instanceof EspressoLockImpl && ((EspressoLockImpl) word).getThinOwner() == null) {
+            return (EspressoLockImpl) word;
+        }
+        return inflateLock();
+    }
+
+    @TruffleBoundary
+    private EspressoLock inflateLock() {
+        Thread current = Thread.currentThread();
+        while (true) {
+            Object word = lockWord;
+            if (word instanceof EspressoLockImpl) {
+                EspressoLockImpl l = (EspressoLockImpl) word;
+                if (l.getThinOwner() == current) {
+                    // Another thread inflated the monitor while we held the thin lock.
+                    l.inflateThinLock(thinLockCount + 1);
+                    setThinLockCount(0);
+                }
+                return l;
+            }
+            if (word == current) {
+                EspressoLockImpl l = new EspressoLockImpl(null);
+                assert thinLockCount <= MAX_THIN_LOCK_COUNT;
+                int holds = thinLockCount + 1;
+                for (int i = 0; i < holds; i++) {
+                    l.lock();
+                }
+                if (UNSAFE.compareAndSwapObject(this, LOCK_WORD_OFFSET, current, l)) {
+                    setThinLockCount(0);
+                    return l;
+                }
+            } else {
+                // Unlocked or thin-locked by another thread.
+                EspressoLockImpl l = new EspressoLockImpl((Thread) word);
+                if (UNSAFE.compareAndSwapObject(this, LOCK_WORD_OFFSET, word, l)) {
+                    return l;
+                }
+            }
+        }
+    }
+
+    /**
+     * Enters the monitor of this object if that is possible without blocking. Uncontended monitors
+     * are thin-locked and do not allocate an {@link EspressoLock}.
+     */
+    public boolean tryMonitorEnter() {
+        checkNotForeign();
+        assert notNull(this);
+        Thread current = Thread.currentThread();
+        Object word = lockWord;
+        if (word == null && UNSAFE.compareAndSwapObject(this, LOCK_WORD_OFFSET, null, current)) {
+            return true;
+        }
+        if (word == current && thinLockCount < MAX_THIN_LOCK_COUNT) {
+            setThinLockCount(thinLockCount + 1);
+            return true;
+        }
+        return InterpreterToVM.monitorTryLock(getLock());
+    }
+
+    /**
+     * Exits the monitor of this object if it is thin-locked by the current thread.
+     *
+     * @return {@code false} if the monitor is not thin-locked by the current thread, in which case
+     *         it must be exited through {@link #getLock()}
+     */
+    public boolean tryMonitorExit() {
+        checkNotForeign();
+        Thread current = Thread.currentThread();
+        if (lockWord != current) {
+            return false;
+        }
+        if (thinLockCount > 0) {
+            setThinLockCount(thinLockCount - 1);
+            return true;
+        }
+        // Fails if another thread inflated the monitor in the meantime.
+        return UNSAFE.compareAndSwapObject(this, LOCK_WORD_OFFSET, current, null);
+    }
+
+    /**
+     * Whether the current thread holds the monitor of this object, without inflating it.
+     */
+    public boolean isMonitorHeldByCurrentThread() {
+        checkNotForeign();
+        Thread current = Thread.currentThread();
+        Object word = lockWord;
+        if (word instanceof EspressoLockImpl) {
+            EspressoLockImpl l = (EspressoLockImpl) word;
+            return l.getThinOwner() == current || InterpreterToVM.holdsLock(l);
+        }
+        return word == current;
+    }
+
+    /**
+     * Whether the monitor of this object is thin-locked by the current thread, in which case no
+     * thread can be waiting on it.
+     */
+    public boolean isThinLockedByCurrentThread() {
+        return lockWord == Thread.currentThread();
+    }
+
+    /**
+     * Returns the host thread owning the monitor of this object, or {@code null}. This is a
+     * best-effort approximation when called by a thread that is not the owner.
+     */
+    public Thread getMonitorOwnerThread() {
+        checkNotForeign();
+        Object word = lockWord;
+        if (word instanceof EspressoLockImpl) {
+            return ((EspressoLockImpl) word).getOwnerThread();
+        }
+        return (Thread) word;
+    }
+
+    /**
+     * Returns how many times the owner entered the monitor of this object, see
+     * {@link #getMonitorOwnerThread()}.
+     */
+    public int getMonitorEntryCount() {
+        checkNotForeign();
+        while (true) {
+            Object word = lockWord;
+            if (word == null) {
+                return 0;
+            }
+            if (word instanceof EspressoLockImpl) {
+                EspressoLockImpl l = (EspressoLockImpl) word;
+                if (l.getThinOwner() == null) {
+                    return l.getEntryCount();
+                }
+                int count = UNSAFE.getIntVolatile(this, THIN_LOCK_COUNT_OFFSET);
+                if (l.getThinOwner() != null) {
+                    return count + 1;
+                }
+                // The owner handed its thin lock over to the inflated lock in the meantime.
+            } else {
+                int count = UNSAFE.getIntVolatile(this, THIN_LOCK_COUNT_OFFSET);
+                if (lockWord == word) {
+                    return count + 1;
                 }
+                // The monitor changed hands in the meantime.
             }
         }
-        return l;
+    }
+
+    /**
+     * Publishes the recursion count of a thin lock. An ordered write is enough, since only the
+     * owner modifies the count, and it keeps uncontended recursive entries free of fences.
+     */
+    private void setThinLockCount(int count) {
+        UNSAFE.putOrderedInt(this, THIN_LOCK_COUNT_OFFSET, count);
     }
 
     public static boolean notNull(StaticObject object) {
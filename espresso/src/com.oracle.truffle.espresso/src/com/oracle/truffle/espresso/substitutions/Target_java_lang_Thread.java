@@ -357,7 +357,7 @@ public final class Target_java_lang_Thread {
         if (StaticObject.isNull(object)) {
             throw meta.throwNullPointerException();
         }
-        return object.getLock().isHeldByCurrentThread();
+        return object.isMonitorHeldByCurrentThread();
     }
 
     @TruffleBoundary
@@ -1220,7 +1220,9 @@ public final class Target_sun_misc_Unsafe {
             profiler.profile(0);
             throw meta.throwNullPointerException();
         }
-        InterpreterToVM.monitorUnsafeEnter(object.getLock());
+        if (!object.tryMonitorEnter()) {
+            InterpreterToVM.monitorUnsafeEnter(object.getLock());
+        }
     }
 
     @Substitution(hasReceiver = true, nameProvider = Unsafe8.class)
@@ -1230,7 +1232,9 @@ public final class Target_sun_misc_Unsafe {
             profiler.profile(0);
             throw meta.throwNullPointerException();
         }
-        InterpreterToVM.monitorUnsafeExit(object.getLock());
+        if (!object.tryMonitorExit()) {
+            InterpreterToVM.monitorUnsafeExit(object.getLock());
+        }
     }
 
     @Substitution(hasReceiver = true)
@@ -1385,7 +1389,7 @@ public final class Target_sun_misc_Unsafe {
         if (StaticObject.isNull(object)) {
             throw meta.throwNullPointerException();
         }
-        return InterpreterToVM.monitorTryLock(object.getLock());
+        return object.tryMonitorEnter();
     }
 
     /**
@@ -357,9 +357,9 @@ public final class InterpreterToVM implements ContextAccess {
     // region Monitor enter/exit
 
     public static void monitorEnter(@Host(Object.class) StaticObject obj, Meta meta) {
-        final EspressoLock lock = obj.getLock();
-        EspressoContext context = meta.getContext();
-        if (!monitorTryLock(lock)) {
+        if (!obj.tryMonitorEnter()) {
+            final EspressoLock lock = obj.getLock();
+            EspressoContext context = meta.getContext();
             StaticObject thread = context.getCurrentThread();
             Target_java_lang_Thread.fromRunnable(thread, meta, Target_java_lang_Thread.State.BLOCKED);
             if (context.EnableManagement) {
@@ -379,13 +379,15 @@ public final class InterpreterToVM implements ContextAccess {
     }
 
     public static void monitorExit(@Host(Object.class) StaticObject obj, Meta meta) {
-        final EspressoLock lock = obj.getLock();
-        if (!holdsLock(lock)) {
+        if (obj.tryMonitorExit()) {
+            return;
+        }
+        if (!obj.isMonitorHeldByCurrentThread()) {
             // No owner checks in SVM. This is a safeguard against unbalanced monitor accesses until
             // Espresso has its own monitor handling.
             throw Meta.throwException(meta.java_lang_IllegalMonitorStateException);
         }
-        monitorUnsafeExit(lock);
+        monitorUnsafeExit(obj.getLock());
     }
 
     // endregion
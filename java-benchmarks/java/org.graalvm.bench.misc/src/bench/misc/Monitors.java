@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package bench.misc;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Monitor enter and exit, without contention on a per-thread object and with contention on a
+ * shared object. On Espresso, uncontended monitors are thin locks that are only inflated when
+ * another thread contends for them or a thread waits on them.
+ */
+public class Monitors {
+    @State(Scope.Thread)
+    public static class Private {
+        final Object lock = new Object();
+        int counter;
+    }
+
+    @State(Scope.Benchmark)
+    public static class Shared {
+        final Object lock = new Object();
+        int counter;
+    }
+
+    @Benchmark
+    public int uncontended(Private state) {
+        synchronized (state.lock) {
+            return ++state.counter;
+        }
+    }
+
+    @Benchmark
+    public int uncontendedRecursive(Private state) {
+        synchronized (state.lock) {
+            synchronized (state.lock) {
+                return ++state.counter;
+            }
+        }
+    }
+
+    @Benchmark
+    public int uncontendedFresh(Private state) {
+        Object lock = new Object();
+        synchronized (lock) {
+            return ++state.counter;
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public int contended(Shared state) {
+        synchronized (state.lock) {
+            return ++state.counter;
+        }
+    }
+}
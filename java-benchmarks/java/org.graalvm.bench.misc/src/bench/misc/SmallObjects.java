@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package bench.misc;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Allocation and field access of small objects with few primitive fields, many primitive fields,
+ * and only reference fields. On Espresso, the primitive and reference fields of an object are
+ * stored in separate arrays. Run with an {@code espresso-minheap} VM configuration to compare the
+ * footprint.
+ */
+@State(Scope.Benchmark)
+public class SmallObjects {
+    @Param("10000")
+    static int count;
+
+    private Point[] points;
+    private Wide[] wides;
+
+    @Setup
+    public void init() {
+        points = new Point[count];
+        wides = new Wide[count];
+        for (int i = 0; i < count; i++) {
+            points[i] = new Point(i, -i);
+            wides[i] = new Wide(i);
+        }
+    }
+
+    @Benchmark
+    public Object allocateSmallPrimitives() {
+        Point[] result = new Point[count];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = new Point(i, i + 1);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public Object allocateWidePrimitives() {
+        Wide[] result = new Wide[count];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = new Wide(i);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public Object allocateReferencesOnly() {
+        Link head = null;
+        for (int i = 0; i < count; i++) {
+            head = new Link(head);
+        }
+        return head;
+    }
+
+    @Benchmark
+    public Object allocateBoxed() {
+        Integer[] result = new Integer[count];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = i + 1000;
+        }
+        return result;
+    }
+
+    @Benchmark
+    public long readSmallPrimitives() {
+        long sum = 0;
+        for (Point p : points) {
+            sum += p.x + p.y;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long readWidePrimitives() {
+        long sum = 0;
+        for (Wide w : wides) {
+            sum += w.a + w.d;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public void writeSmallPrimitives() {
+        for (Point p : points) {
+            p.x++;
+            p.y--;
+        }
+    }
+
+    static final class Point {
+        int x;
+        int y;
+
+        Point(int x, int y) {
+            this.x = x;
+            this.y = y;
+        }
+    }
+
+    static final class Wide {
+        long a;
+        long b;
+        long c;
+        long d;
+
+        Wide(long v) {
+            a = v;
+            b = v + 1;
+            c = v + 2;
+            d = v + 3;
+        }
+    }
+
+    static final class Link {
+        final Link next;
+
+        Link(Link next) {
+            this.next = next;
+        }
+    }
+}
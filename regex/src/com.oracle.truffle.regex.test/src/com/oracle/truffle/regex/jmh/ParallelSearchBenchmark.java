@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.regex.jmh;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Value;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.oracle.truffle.regex.tregex.test.TRegexTestDummyLanguage;
+
+/**
+ * Measures the scaling of parallel DFA searches on large inputs. The pattern does not match the
+ * input, so the whole input has to be scanned. The tregex benchmarks differ only in the
+ * parallelism of the common fork-join pool, {@code tregexParallelism1} is equivalent to a
+ * sequential search.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ParallelSearchBenchmark extends BenchmarkBase {
+
+    private static final String PARALLELISM = "-Djava.util.concurrent.ForkJoinPool.common.parallelism=";
+
+    @State(Scope.Benchmark)
+    public static class BenchState {
+        String regex = "[a-f]+[0-9]+x|foo(bar|baz)+qux";
+        String input = createInput(1 << 26);
+        Pattern javaPattern = Pattern.compile(regex);
+        Context context;
+        Value tregexPattern;
+
+        public BenchState() {
+            context = Context.newBuilder().build();
+            context.enter();
+            tregexPattern = context.eval(TRegexTestDummyLanguage.ID, "/" + regex + '/');
+        }
+
+        private static String createInput(int length) {
+            Random random = new Random(42);
+            StringBuilder sb = new StringBuilder(length);
+            for (int i = 0; i < length; i++) {
+                int c = random.nextInt(20);
+                sb.append(c < 10 ? (char) ('0' + c) : (char) ('a' + c - 10));
+            }
+            return sb.toString();
+        }
+
+        @TearDown
+        public void tearDown() {
+            context.leave();
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public boolean javaPattern(BenchState state) {
+        return state.javaPattern.matcher(state.input).find();
+    }
+
+    @Benchmark
+    @Fork(value = BenchmarkBase.Defaults.FORKS, jvmArgsAppend = PARALLELISM + 1)
+    public boolean tregexParallelism1(BenchState state) {
+        return tregex(state);
+    }
+
+    @Benchmark
+    @Fork(value = BenchmarkBase.Defaults.FORKS, jvmArgsAppend = PARALLELISM + 2)
+    public boolean tregexParallelism2(BenchState state) {
+        return tregex(state);
+    }
+
+    @Benchmark
+    @Fork(value = BenchmarkBase.Defaults.FORKS, jvmArgsAppend = PARALLELISM + 4)
+    public boolean tregexParallelism4(BenchState state) {
+        return tregex(state);
+    }
+
+    @Benchmark
+    @Fork(value = BenchmarkBase.Defaults.FORKS, jvmArgsAppend = PARALLELISM + 8)
+    public boolean tregexParallelism8(BenchState state) {
+        return tregex(state);
+    }
+
+    private static boolean tregex(BenchState state) {
+        return state.tregexPattern.invokeMember("exec", state.input, 0).getMember("isMatch").asBoolean();
+    }
+}
@@ -41,6 +41,7 @@
 package com.oracle.truffle.regex.tregex;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
@@ -75,6 +76,8 @@ public class RegexOptionsTest {
     public void testParseOptions() {
         assertTrue(parse(setBool(RegexOptions.ALWAYS_EAGER_NAME)).isAlwaysEager());
         assertTrue(parse(setBool(RegexOptions.DUMP_AUTOMATA_NAME)).isDumpAutomata());
+        assertTrue(parse("").isParallelSearch());
+        assertFalse(parse(setBool(RegexOptions.NO_PARALLEL_SEARCH_NAME)).isParallelSearch());
         assertTrue(parse(setBool(RegexOptions.REGRESSION_TEST_MODE_NAME)).isRegressionTestMode());
         assertTrue(parse(setBool(RegexOptions.STEP_EXECUTION_NAME)).isStepExecution());
         assertTrue(parse(setBool(RegexOptions.U180E_WHITESPACE_NAME)).isU180EWhitespace());
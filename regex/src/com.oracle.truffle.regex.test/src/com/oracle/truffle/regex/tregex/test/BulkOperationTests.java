@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.regex.tregex.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.graalvm.polyglot.Value;
+import org.junit.Test;
+
+public class BulkOperationTests extends RegexTestBase {
+
+    @Override
+    String getEngineOptions() {
+        return "";
+    }
+
+    @Test
+    public void findAll() {
+        testFindAll("a+", "", "xaaxaaaaaaaxxa", 0);
+        testFindAll("a+", "", "xaaxaaaaaaaxxa", 4);
+        testFindAll("(a)(b)?", "", "aabab", 0);
+        testFindAll("x*", "", "axxbxc", 0);
+        testFindAll("", "", "abcd", 0);
+        testFindAll("(?<=x)y", "", "yxyyxxyy", 0);
+        testFindAll("a", "y", "aaab", 0);
+        testFindAll("", "u", "a\ud83d\ude00b", 0);
+        testFindAll("[0-9]+", "", "no digits", 0);
+        testFindAll("(?:ab|b)+c", "", "xabbcxbcabababc", 0);
+        testFindAll("[a-c]+x|y", "", "aaxbbcxyyaby", 1);
+        testFindAll("^a|b$", "m", "ab\nab\nxb", 0);
+        testFindAll("(a|b)c", "", "acxbcac", 0);
+    }
+
+    @Test
+    public void split() {
+        testSplit(",", "", "a,b,,c", "a", "b", "", "c");
+        testSplit(",", "", "a,b,", "a", "b", "");
+        testSplit("", "", "abc", "a", "b", "c");
+        testSplit("x*", "", "axxbxc", "a", "b", "c");
+        testSplit("", "u", "a\ud83d\ude00b", "a", "\ud83d\ude00", "b");
+        testSplit(",", "", "", "");
+        testSplit("", "", "");
+        testSplit("\\s*;\\s*", "", "a ; b;c  ;", "a", "b", "c", "");
+    }
+
+    @Test
+    public void replace() {
+        testReplace("a", "", "banana", "o", "bonono");
+        testReplace("(\\w+)@(\\w+)", "", "x@y, foo@bar", "$2 at $1", "y at x, bar at foo");
+        testReplace("n", "", "banana", "[$&]", "ba[n]a[n]a");
+        testReplace("n", "", "banana", "$$", "ba$a$a");
+        testReplace("(a)|(b)", "", "ab", "<$2>", "<><b>");
+        testReplace("(a)", "", "a", "$3$0$", "$3$0$");
+        testReplace("x*", "", "abc", "-", "-a-b-c-");
+        testReplace("z", "", "abc", "-", "abc");
+        testReplace("(a)(b)(c)(d)(e)(f)(g)(h)(i)(j)(k)", "", "abcdefghijk", "$11$10$1", "kja");
+    }
+
+    private void testFindAll(String pattern, String flags, String input, int fromIndex) {
+        Value regex = compileRegex(pattern, flags);
+        int groupCount = regex.getMember("groupCount").asInt();
+        List<Integer> expected = new ArrayList<>();
+        int i = fromIndex;
+        while (i <= input.length()) {
+            Value result = execRegex(regex, input, i);
+            if (!result.getMember("isMatch").asBoolean()) {
+                break;
+            }
+            for (int group = 0; group < groupCount; group++) {
+                expected.add(result.invokeMember("getStart", group).asInt());
+                expected.add(result.invokeMember("getEnd", group).asInt());
+            }
+            int start = result.invokeMember("getStart", 0).asInt();
+            int end = result.invokeMember("getEnd", 0).asInt();
+            i = start == end ? end + (flags.contains("u") && end < input.length() ? Character.charCount(input.codePointAt(end)) : 1) : end;
+        }
+        Value actual = regex.getMember("findAll").execute(input, fromIndex);
+        assertArrayEquals("/" + pattern + "/" + flags, toIntArray(expected), toIntArray(actual));
+    }
+
+    private void testSplit(String pattern, String flags, String input, String... expected) {
+        Value actual = compileRegex(pattern, flags).getMember("split").execute(input);
+        String[] actualArray = new String[(int) actual.getArraySize()];
+        for (int i = 0; i < actualArray.length; i++) {
+            actualArray[i] = actual.getArrayElement(i).asString();
+        }
+        assertArrayEquals("/" + pattern + "/" + flags, expected, actualArray);
+    }
+
+    private void testReplace(String pattern, String flags, String input, String replacement, String expected) {
+        assertEquals("/" + pattern + "/" + flags, expected, compileRegex(pattern, flags).getMember("replace").execute(input, replacement).asString());
+    }
+
+    private static int[] toIntArray(List<Integer> list) {
+        int[] ret = new int[list.size()];
+        for (int i = 0; i < ret.length; i++) {
+            ret[i] = list.get(i);
+        }
+        return ret;
+    }
+
+    private static int[] toIntArray(Value array) {
+        int[] ret = new int[(int) array.getArraySize()];
+        for (int i = 0; i < ret.length; i++) {
+            ret[i] = array.getArrayElement(i).asInt();
+        }
+        return ret;
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.regex.tregex.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Value;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DFACacheTests {
+
+    private static final String[][] PATTERNS = {
+                    {"a+b", "", "xxaaabxx"},
+                    {"(a|ab)(c|bcd)(d*)", "", "xabcdx"},
+                    {"(?:a|b)*c", "", "ababcx"},
+                    {"x(a|b)y|x(b|c)z", "", "_xbz_"},
+                    {"[a-c]?xyz[0-9]+", "", "_axyz12_"},
+                    {"(\\w+)@(\\w+)\\.com", "", "mail: foo@bar.com."},
+                    {"(?=a(b))ab", "", "xxab"},
+                    {"^ab$", "m", "x\nab\ny"},
+                    {"\\u{1F600}+", "u", "ab\ud83d\ude00\ud83d\ude00c"},
+    };
+
+    private Path cacheDir;
+
+    @Before
+    public void setUp() throws IOException {
+        cacheDir = Files.createTempDirectory("tregex-dfa-cache");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(cacheDir)) {
+            files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Test
+    public void cachedResultsMatch() throws IOException {
+        int[][] expected = new int[PATTERNS.length][];
+        try (Context context = createContext()) {
+            for (int i = 0; i < PATTERNS.length; i++) {
+                expected[i] = exec(context, PATTERNS[i]);
+            }
+        }
+        long nEntries;
+        try (Stream<Path> files = Files.list(cacheDir)) {
+            nEntries = files.count();
+        }
+        assertTrue(nEntries > 0);
+        try (Context context = createContext()) {
+            for (int i = 0; i < PATTERNS.length; i++) {
+                assertArrayEquals(PATTERNS[i][0], expected[i], exec(context, PATTERNS[i]));
+            }
+        }
+        try (Stream<Path> files = Files.list(cacheDir)) {
+            assertEquals(nEntries, files.count());
+        }
+    }
+
+    @Test
+    public void corruptedEntriesAreIgnored() throws IOException {
+        int[][] expected = new int[PATTERNS.length][];
+        try (Context context = createContext()) {
+            for (int i = 0; i < PATTERNS.length; i++) {
+                expected[i] = exec(context, PATTERNS[i]);
+            }
+        }
+        try (Stream<Path> files = Files.list(cacheDir)) {
+            for (Path p : (Iterable<Path>) files::iterator) {
+                byte[] bytes = Files.readAllBytes(p);
+                Files.write(p, Arrays.copyOf(bytes, bytes.length / 2));
+            }
+        }
+        try (Context context = createContext()) {
+            for (int i = 0; i < PATTERNS.length; i++) {
+                assertArrayEquals(PATTERNS[i][0], expected[i], exec(context, PATTERNS[i]));
+            }
+        }
+    }
+
+    @Test
+    public void unreadableEntriesAreReplaced() throws IOException {
+        int[][] expected = new int[PATTERNS.length][];
+        try (Context context = createContext()) {
+            for (int i = 0; i < PATTERNS.length; i++) {
+                expected[i] = exec(context, PATTERNS[i]);
+            }
+        }
+        List<Path> entries;
+        try (Stream<Path> files = Files.list(cacheDir)) {
+            entries = files.collect(Collectors.toList());
+        }
+        for (Path p : entries) {
+            // keep the header, but claim an array of Integer.MAX_VALUE elements, which must be
+            // rejected before it is allocated
+            byte[] bytes = Files.readAllBytes(p);
+            int headerLength = 12 + ByteBuffer.wrap(bytes, 8, 4).getInt();
+            ByteBuffer buf = ByteBuffer.wrap(bytes, headerLength, 5);
+            buf.put((byte) 1).putInt(Integer.MAX_VALUE);
+            Files.write(p, bytes);
+        }
+        try (Context context = createContext()) {
+            for (int i = 0; i < PATTERNS.length; i++) {
+                assertArrayEquals(PATTERNS[i][0], expected[i], exec(context, PATTERNS[i]));
+            }
+        }
+        // broken entries are deleted on lookup and written again by the next compilation
+        try (Context context = createContext()) {
+            for (int i = 0; i < PATTERNS.length; i++) {
+                exec(context, PATTERNS[i]);
+            }
+        }
+        for (Path p : entries) {
+            byte[] bytes = Files.readAllBytes(p);
+            int headerLength = 12 + ByteBuffer.wrap(bytes, 8, 4).getInt();
+            assertFalse(p.toString(), bytes[headerLength] == 1 && ByteBuffer.wrap(bytes, headerLength + 1, 4).getInt() == Integer.MAX_VALUE);
+        }
+    }
+
+    @Test
+    public void longPattern() throws IOException {
+        // the cache key contains the pattern, make it longer than the 64 KB supported by
+        // DataOutputStream.writeUTF
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < 1 << 14; i++) {
+            sb.append("a-c\\u00e4");
+        }
+        sb.append("]+x");
+        String[] pattern = {sb.toString(), "", "_abc\u00e4x_"};
+        int[] expected;
+        try (Context context = createContext()) {
+            expected = exec(context, pattern);
+        }
+        try (Stream<Path> files = Files.list(cacheDir)) {
+            assertTrue(files.count() > 0);
+        }
+        try (Context context = createContext()) {
+            assertArrayEquals(expected, exec(context, pattern));
+        }
+    }
+
+    private Context createContext() {
+        return Context.newBuilder().allowIO(true).build();
+    }
+
+    private int[] exec(Context context, String[] pattern) {
+        Value regex = context.eval(TRegexTestDummyLanguage.ID, "RegressionTestMode=true,DFACacheDirectory=\"" + cacheDir + "\"/" + pattern[0] + '/' + pattern[1]);
+        Value result = regex.invokeMember("exec", pattern[2], 0);
+        if (!result.getMember("isMatch").asBoolean()) {
+            return new int[0];
+        }
+        int[] bounds = new int[regex.getMember("groupCount").asInt() * 2];
+        for (int i = 0; i < bounds.length / 2; i++) {
+            bounds[i * 2] = result.invokeMember("getStart", i).asInt();
+            bounds[i * 2 + 1] = result.invokeMember("getEnd", i).asInt();
+        }
+        return bounds;
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.regex.tregex.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Value;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+
+/**
+ * In regression test mode, every forward search is repeated as a parallel search over four tiny
+ * segments, and the results of both searches are compared. The inputs used here are chosen such
+ * that matches start in one segment and end in another. The tests are run with and without
+ * permission to create worker threads, so both the worker path and the inline fallback are
+ * covered. {@link #largeInput()} runs real parallel searches, which are done by default on inputs
+ * long enough to be split into segments, and compares them to a sequential search with the
+ * {@code NoParallelSearch} option.
+ */
+@RunWith(Parameterized.class)
+public class ParallelSearchTests {
+
+    @Parameters(name = "allowCreateThread={0}")
+    public static Collection<Object[]> data() {
+        return Arrays.asList(new Object[][]{{true}, {false}});
+    }
+
+    @Parameter public boolean allowCreateThread;
+
+    private Context context;
+
+    @Before
+    public void setUp() {
+        context = Context.newBuilder().allowCreateThread(allowCreateThread).build();
+        context.enter();
+    }
+
+    @After
+    public void tearDown() {
+        context.leave();
+        context.close();
+    }
+
+    @Test
+    public void literals() {
+        testSearch("abcdef", "xxxabcdefxx");
+        testSearch("abcdef", "abcdef");
+        testSearch("aaaa", "aaaaaaaa");
+        testSearch("abcdef", "xxabcdexx");
+    }
+
+    @Test
+    public void quantifiers() {
+        testSearch("a+b", "xaaaaaaaaaaaaab");
+        testSearch("[0-9]{4,}", "ab12c3456789xx");
+        testSearch("x[^y]*y", "aaxaaaaaaaaaaay");
+        testSearch("a.*b", "xxaxxxxxxxxbxxb");
+    }
+
+    @Test
+    public void alternation() {
+        testSearch("foobar|oba", "xxxxfoobaxxxxx");
+        testSearch("foobar|oba", "xxxxfoobarxxxx");
+        testSearch("(ab)+c|b", "xabababababc");
+    }
+
+    @Test
+    public void anchors() {
+        testSearch("\\bfoo\\b", "xfoo foox foo");
+        testSearch("a$", "aaaaaaaaa");
+        testSearch("^b|c$", "bbbbbbbbc");
+    }
+
+    @Test
+    public void largeInput() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("abc");
+        for (int i = 0; i < 5 << 20; i++) {
+            sb.append('x');
+        }
+        sb.append("abc");
+        for (int i = 0; i < 1 << 16; i++) {
+            sb.append('y');
+        }
+        sb.append("abbc");
+        testSearch("", "ab+c", sb.toString());
+        testSearch("NoParallelSearch=true", "ab+c", sb.toString());
+    }
+
+    private void testSearch(String pattern, String input) {
+        testSearch("RegressionTestMode=true", pattern, input);
+    }
+
+    private void testSearch(String options, String pattern, String input) {
+        Value regex = context.eval("regexDummyLang", options + "/" + pattern + "/");
+        int[] expected = findAll(Pattern.compile(pattern), input);
+        List<Integer> actual = new ArrayList<>();
+        int fromIndex = 0;
+        while (fromIndex <= input.length()) {
+            Value result = regex.invokeMember("exec", input, fromIndex);
+            if (!result.getMember("isMatch").asBoolean()) {
+                break;
+            }
+            int start = result.invokeMember("getStart", 0).asInt();
+            int end = result.invokeMember("getEnd", 0).asInt();
+            actual.add(start);
+            actual.add(end);
+            fromIndex = start == end ? end + 1 : end;
+        }
+        assertEquals("/" + pattern + "/ on \"" + (input.length() > 100 ? input.substring(0, 100) + "..." : input) + "\"", Arrays.toString(expected), actual.toString());
+    }
+
+    private static int[] findAll(Pattern pattern, String input) {
+        Matcher m = pattern.matcher(input);
+        List<Integer> ret = new ArrayList<>();
+        while (m.find()) {
+            ret.add(m.start());
+            ret.add(m.end());
+        }
+        return ret.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
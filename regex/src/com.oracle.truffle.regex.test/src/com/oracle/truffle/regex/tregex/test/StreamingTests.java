@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.regex.tregex.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Value;
+import org.junit.Test;
+
+public class StreamingTests extends RegexTestBase {
+
+    @Override
+    String getEngineOptions() {
+        return "";
+    }
+
+    private static final int[] CHUNK_SIZES = {1, 2, 3, 5, 8, 1000};
+
+    @Test
+    public void literals() {
+        testStream("abc", "", "xxabcxabcabcxxab");
+        testStream("aa", "", "aaaaaaa");
+    }
+
+    @Test
+    public void quantifiers() {
+        testStream("a+", "", "xaaxaaaaaaaxxa");
+        testStream("[0-9]+|x*", "", "ab12c3456x7xx");
+        testStream("a.*b", "", "aaxxbxxbaxx");
+    }
+
+    @Test
+    public void emptyMatches() {
+        testStream("", "", "abcd");
+        testStream("x*", "", "axxbxc");
+        testStream("(?=b)", "", "abab");
+    }
+
+    @Test
+    public void anchors() {
+        testStream("^a", "", "aaa");
+        testStream("a$", "", "aaa");
+        testStream("^a|b$", "m", "ab\nab\nxb\nab");
+        testStream("\\bfoo\\b", "", "foo foobar barfoo foo");
+        testStream("a", "y", "aaab");
+    }
+
+    @Test
+    public void lookAround() {
+        testStream("(?<=x)y", "", "yxyyxxyy");
+        testStream("(?<=ab)c", "", "abcabcacbc");
+        testStream("a(?=bc)", "", "abcabdabc");
+    }
+
+    @Test
+    public void surrogates() {
+        testStream("\\u{1F600}+", "u", "a\ud83d\ude00\ud83d\ude00b\ud83d\ude00");
+        testStream(".", "u", "a\ud83d\ude00b");
+    }
+
+    @Test
+    public void utf8() {
+        Value regex = compileRegex("Encoding=UTF-8", "\\u00e4+|\\u20ac", "");
+        byte[] input = "x\u00e4\u00e4y\u20acz\u00e4".getBytes(StandardCharsets.UTF_8);
+        long[] expected = {1, 5, 6, 9, 10, 12};
+        for (int chunkSize : CHUNK_SIZES) {
+            Value stream = regex.getMember("createStream").execute();
+            List<Long> actual = new ArrayList<>();
+            for (int i = 0; i < input.length; i += chunkSize) {
+                int n = Math.min(chunkSize, input.length - i);
+                addAll(actual, stream.invokeMember("feed", ByteBuffer.wrap(input, i, n)));
+            }
+            addAll(actual, stream.invokeMember("finish"));
+            assertArrayEquals("chunk size " + chunkSize, expected, toArray(actual));
+            assertEquals(input.length, stream.getMember("position").asLong());
+        }
+    }
+
+    @Test
+    public void history() {
+        StringBuilder sb = new StringBuilder("xa");
+        for (int i = 0; i < 1000; i++) {
+            sb.append('c');
+        }
+        String input = sb.append("bxab").toString();
+        Value stream = compileRegex("a[^x]*b", "").getMember("createStream").execute(64);
+        List<Long> actual = new ArrayList<>();
+        for (int i = 0; i < input.length(); i += 10) {
+            addAll(actual, stream.invokeMember("feed", input.substring(i, Math.min(i + 10, input.length()))));
+        }
+        addAll(actual, stream.invokeMember("finish"));
+        assertArrayEquals(new long[]{-1, 1003, 1004, 1006}, toArray(actual));
+    }
+
+    @Test
+    public void manyChunks() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            sb.append(i % 7 == 0 ? "foo" : "bar").append(i);
+        }
+        testStream("foo[0-9]+", "", sb.toString());
+        testStream("[^a]*foo", "", sb.toString());
+    }
+
+    private static Value compileRegex(String options, String pattern, String flags) {
+        return Context.getCurrent().eval("regexDummyLang", "RegressionTestMode=true," + options + '/' + pattern + '/' + flags);
+    }
+
+    private void testStream(String pattern, String flags, String input) {
+        Value regex = compileRegex(pattern, flags);
+        long[] expected = execAll(regex, input, flags.contains("u"));
+        for (int chunkSize : CHUNK_SIZES) {
+            Value stream = regex.getMember("createStream").execute();
+            List<Long> actual = new ArrayList<>();
+            for (int i = 0; i < input.length(); i += chunkSize) {
+                addAll(actual, stream.invokeMember("feed", input.substring(i, Math.min(i + chunkSize, input.length()))));
+            }
+            addAll(actual, stream.invokeMember("finish"));
+            assertArrayEquals("/" + pattern + "/" + flags + ", chunk size " + chunkSize, expected, toArray(actual));
+        }
+    }
+
+    private long[] execAll(Value regex, String input, boolean unicode) {
+        List<Long> ret = new ArrayList<>();
+        int fromIndex = 0;
+        while (fromIndex <= input.length()) {
+            Value result = execRegex(regex, input, fromIndex);
+            if (!result.getMember("isMatch").asBoolean()) {
+                break;
+            }
+            int start = result.invokeMember("getStart", 0).asInt();
+            int end = result.invokeMember("getEnd", 0).asInt();
+            ret.add((long) start);
+            ret.add((long) end);
+            fromIndex = start == end ? end + (unicode && end < input.length() ? Character.charCount(input.codePointAt(end)) : 1) : end;
+        }
+        return toArray(ret);
+    }
+
+    private static void addAll(List<Long> list, Value matches) {
+        for (int i = 0; i < matches.getArraySize(); i++) {
+            list.add(matches.getArrayElement(i).asLong());
+        }
+    }
+
+    private static long[] toArray(List<Long> list) {
+        long[] ret = new long[list.size()];
+        for (int i = 0; i < ret.length; i++) {
+            ret[i] = list.get(i);
+        }
+        return ret;
+    }
+}
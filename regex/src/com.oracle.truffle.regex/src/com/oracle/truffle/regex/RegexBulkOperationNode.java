@@ -0,0 +1,389 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.regex;
+
+import java.util.Arrays;
+
+import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.DirectCallNode;
+import com.oracle.truffle.regex.tregex.nodes.input.InputLengthNode;
+import com.oracle.truffle.regex.tregex.nodes.input.InputReadNode;
+import com.oracle.truffle.regex.util.TruffleReadOnlyIntArray;
+import com.oracle.truffle.regex.util.TruffleReadOnlyStringArray;
+
+/**
+ * Root of a bulk operation on a {@link RegexObject}, i.e. an operation that searches for all
+ * matches of the regular expression in an input string. The search loop runs inside the operation's
+ * call target, and every single search is a direct call to the regex's {@code exec} call target,
+ * which the compiler can inline. The searches use
+ * {@link RegexExecNode#executeBoundariesDirect(Object, int, int[])}, which stores the match
+ * boundaries in a buffer owned by this node instead of creating a
+ * {@link com.oracle.truffle.regex.result.RegexResult} per match. For regular expressions without
+ * capture groups, this also means that the start of a match is found directly by the backward DFA,
+ * instead of through a separate call target.
+ * <p>
+ * The loop is not moved into the executors themselves: the {@code exec} node decides per search
+ * which executor to run (NFA during warm-up, then lazy or eager DFA, depending on its profile), and
+ * the executors' {@link com.oracle.truffle.regex.tregex.nodes.TRegexExecutorLocals locals} are
+ * designed to be virtualized within a single search. Sharing them between searches would force
+ * them onto the heap.
+ * <p>
+ * Matches are found the same way as in a loop over {@code exec} with a global flag: after an empty
+ * match, the search continues one character (or, in unicode mode, one code point) behind it.
+ */
+public abstract class RegexBulkOperationNode extends RegexBodyNode {
+
+    public enum Kind {
+        FIND_ALL,
+        SPLIT,
+        REPLACE
+    }
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private final boolean advanceByCodePoint;
+    protected final int numberOfCaptureGroups;
+    @Child private DirectCallNode execCallNode;
+    @Child private InputLengthNode lengthNode = InputLengthNode.create();
+    @Child private InputReadNode charAtNode = InputReadNode.create();
+
+    RegexBulkOperationNode(RegexLanguage language, RegexSource source, CallTarget execCallTarget, int numberOfCaptureGroups, boolean advanceByCodePoint) {
+        super(language, source);
+        this.execCallNode = Truffle.getRuntime().createDirectCallNode(execCallTarget);
+        this.numberOfCaptureGroups = numberOfCaptureGroups;
+        this.advanceByCodePoint = advanceByCodePoint;
+    }
+
+    public static RegexBulkOperationNode create(RegexLanguage language, RegexSource source, Kind kind, CallTarget execCallTarget, int numberOfCaptureGroups, boolean advanceByCodePoint) {
+        switch (kind) {
+            case FIND_ALL:
+                return new FindAllNode(language, source, execCallTarget, numberOfCaptureGroups, advanceByCodePoint);
+            case SPLIT:
+                return new SplitNode(language, source, execCallTarget, numberOfCaptureGroups, advanceByCodePoint);
+            case REPLACE:
+                return new ReplaceNode(language, source, execCallTarget, numberOfCaptureGroups, advanceByCodePoint);
+            default:
+                throw new IllegalArgumentException(kind.toString());
+        }
+    }
+
+    @Override
+    public final Object execute(VirtualFrame frame) {
+        Object[] args = frame.getArguments();
+        assert args.length == 2;
+        return execute(args[0], args[1]);
+    }
+
+    protected abstract Object execute(Object input, Object arg);
+
+    /**
+     * Searches for the next match starting at {@code fromIndex} and stores the boundaries of the
+     * first {@code bounds.length / 2} capture groups in {@code bounds}. Returns {@code false} if
+     * there is no match.
+     */
+    protected final boolean exec(Object input, int fromIndex, int[] bounds) {
+        return (boolean) execCallNode.call(input, fromIndex, bounds);
+    }
+
+    protected final int inputLength(Object input) {
+        return lengthNode.execute(input);
+    }
+
+    /**
+     * Returns the index to continue searching from after a match of group 0 spanning
+     * {@code [start, end)}.
+     */
+    protected final int nextFromIndex(Object input, int length, int start, int end) {
+        if (start != end) {
+            return end;
+        }
+        if (advanceByCodePoint && end + 1 < length && Character.isHighSurrogate((char) charAtNode.execute(input, end)) &&
+                        Character.isLowSurrogate((char) charAtNode.execute(input, end + 1))) {
+            return end + 2;
+        }
+        return end + 1;
+    }
+
+    @TruffleBoundary
+    protected static StringBuilder createStringBuilder(int capacity) {
+        return new StringBuilder(capacity);
+    }
+
+    @TruffleBoundary
+    protected static void append(StringBuilder sb, String input, int start, int end) {
+        sb.append(input, start, end);
+    }
+
+    @TruffleBoundary
+    protected static String substring(String input, int start, int end) {
+        return input.substring(start, end);
+    }
+
+    @TruffleBoundary
+    protected static String stringBuilderToString(StringBuilder sb) {
+        return sb.toString();
+    }
+
+    /**
+     * Finds all matches starting at a given index and returns their capture group boundaries in a
+     * {@link TruffleReadOnlyIntArray}, packed as
+     * {@code [start(0), end(0), start(1), end(1), ..., start(n - 1), end(n - 1)]} per match, where
+     * {@code n} is the number of capture groups including group 0.
+     */
+    static final class FindAllNode extends RegexBulkOperationNode {
+
+        FindAllNode(RegexLanguage language, RegexSource source, CallTarget execCallTarget, int numberOfCaptureGroups, boolean advanceByCodePoint) {
+            super(language, source, execCallTarget, numberOfCaptureGroups, advanceByCodePoint);
+        }
+
+        @Override
+        protected Object execute(Object input, Object arg) {
+            int fromIndex = (int) arg;
+            int length = inputLength(input);
+            int stride = numberOfCaptureGroups * 2;
+            int[] bounds = new int[stride];
+            int[] offsets = new int[INITIAL_CAPACITY * stride];
+            int n = 0;
+            while (fromIndex <= length) {
+                if (!exec(input, fromIndex, bounds)) {
+                    break;
+                }
+                if (n + stride > offsets.length) {
+                    offsets = grow(offsets);
+                }
+                System.arraycopy(bounds, 0, offsets, n, stride);
+                fromIndex = nextFromIndex(input, length, bounds[0], bounds[1]);
+                n += stride;
+            }
+            return new TruffleReadOnlyIntArray(trim(offsets, n));
+        }
+
+        @TruffleBoundary
+        private static int[] grow(int[] offsets) {
+            return Arrays.copyOf(offsets, offsets.length * 2);
+        }
+
+        @TruffleBoundary
+        private static int[] trim(int[] offsets, int n) {
+            return n == offsets.length ? offsets : Arrays.copyOf(offsets, n);
+        }
+
+        @Override
+        protected String getEngineLabel() {
+            return "findAll";
+        }
+    }
+
+    /**
+     * Splits the input string around all matches, analogous to ECMAScript's
+     * {@code String.prototype.split}: empty matches at the start of the remaining input and
+     * matches at the very end of the input do not produce a split. The contents of capture groups
+     * are not included in the result.
+     */
+    static final class SplitNode extends RegexBulkOperationNode {
+
+        SplitNode(RegexLanguage language, RegexSource source, CallTarget execCallTarget, int numberOfCaptureGroups, boolean advanceByCodePoint) {
+            super(language, source, execCallTarget, numberOfCaptureGroups, advanceByCodePoint);
+        }
+
+        @Override
+        protected Object execute(Object input, Object arg) {
+            String str = (String) input;
+            int length = str.length();
+            // only the boundaries of group 0 are needed
+            int[] bounds = new int[2];
+            if (length == 0) {
+                return new TruffleReadOnlyStringArray(exec(str, 0, bounds) ? new String[0] : new String[]{""});
+            }
+            String[] parts = new String[INITIAL_CAPACITY];
+            int n = 0;
+            int lastEnd = 0;
+            int fromIndex = 0;
+            while (fromIndex < length) {
+                if (!exec(str, fromIndex, bounds)) {
+                    break;
+                }
+                int start = bounds[0];
+                int end = bounds[1];
+                if (start >= length) {
+                    break;
+                }
+                if (end == lastEnd) {
+                    fromIndex = nextFromIndex(str, length, start, end);
+                    continue;
+                }
+                if (n == parts.length) {
+                    parts = grow(parts);
+                }
+                parts[n++] = substring(str, lastEnd, start);
+                lastEnd = end;
+                fromIndex = end;
+            }
+            if (n == parts.length) {
+                parts = grow(parts);
+            }
+            parts[n++] = substring(str, lastEnd, length);
+            return new TruffleReadOnlyStringArray(trim(parts, n));
+        }
+
+        @TruffleBoundary
+        private static String[] grow(String[] parts) {
+            return Arrays.copyOf(parts, parts.length * 2);
+        }
+
+        @TruffleBoundary
+        private static String[] trim(String[] parts, int n) {
+            return n == parts.length ? parts : Arrays.copyOf(parts, n);
+        }
+
+        @Override
+        protected String getEngineLabel() {
+            return "split";
+        }
+    }
+
+    /**
+     * Replaces all matches in the input string with a replacement template. The template may
+     * contain the following patterns:
+     * <ul>
+     * <li>{@code $$}: a single {@code $}</li>
+     * <li>{@code $&}: the entire match</li>
+     * <li>{@code $n}, {@code $nn}: the contents of capture group {@code n}, or the empty string if
+     * the group did not participate in the match. Two-digit group numbers are used only if they
+     * denote an existing group.</li>
+     * </ul>
+     * Any other occurrence of {@code $} is copied literally.
+     */
+    static final class ReplaceNode extends RegexBulkOperationNode {
+
+        ReplaceNode(RegexLanguage language, RegexSource source, CallTarget execCallTarget, int numberOfCaptureGroups, boolean advanceByCodePoint) {
+            super(language, source, execCallTarget, numberOfCaptureGroups, advanceByCodePoint);
+        }
+
+        @Override
+        protected Object execute(Object input, Object arg) {
+            String str = (String) input;
+            String template = (String) arg;
+            int length = str.length();
+            int[] bounds = new int[numberOfCaptureGroups * 2];
+            StringBuilder sb = null;
+            int lastEnd = 0;
+            int fromIndex = 0;
+            while (fromIndex <= length) {
+                if (!exec(str, fromIndex, bounds)) {
+                    break;
+                }
+                if (sb == null) {
+                    sb = createStringBuilder(length + template.length());
+                }
+                int start = bounds[0];
+                int end = bounds[1];
+                append(sb, str, lastEnd, start);
+                appendReplacement(sb, str, template, bounds);
+                lastEnd = end;
+                fromIndex = nextFromIndex(str, length, start, end);
+            }
+            if (sb == null) {
+                return str;
+            }
+            append(sb, str, lastEnd, length);
+            return stringBuilderToString(sb);
+        }
+
+        private void appendReplacement(StringBuilder sb, String str, String template, int[] bounds) {
+            int literalStart = 0;
+            int i = 0;
+            while (i < template.length() - 1) {
+                if (template.charAt(i) != '$') {
+                    i++;
+                    continue;
+                }
+                char c = template.charAt(i + 1);
+                int group = -1;
+                int patternLength = 2;
+                if (c == '$') {
+                    append(sb, template, literalStart, i + 1);
+                    literalStart = i + 2;
+                    i += 2;
+                    continue;
+                } else if (c == '&') {
+                    group = 0;
+                } else if (isDigit(c)) {
+                    group = c - '0';
+                    if (i + 2 < template.length() && isDigit(template.charAt(i + 2))) {
+                        int twoDigitGroup = group * 10 + (template.charAt(i + 2) - '0');
+                        if (twoDigitGroup < numberOfCaptureGroups) {
+                            group = twoDigitGroup;
+                            patternLength = 3;
+                        }
+                    }
+                    if (group == 0 || group >= numberOfCaptureGroups) {
+                        group = -1;
+                    }
+                }
+                if (group < 0) {
+                    i++;
+                    continue;
+                }
+                append(sb, template, literalStart, i);
+                int groupStart = bounds[group * 2];
+                if (groupStart >= 0) {
+                    append(sb, str, groupStart, bounds[group * 2 + 1]);
+                }
+                i += patternLength;
+                literalStart = i;
+            }
+            append(sb, template, literalStart, template.length());
+        }
+
+        private static boolean isDigit(char c) {
+            return c >= '0' && c <= '9';
+        }
+
+        @Override
+        protected String getEngineLabel() {
+            return "replace";
+        }
+    }
+}
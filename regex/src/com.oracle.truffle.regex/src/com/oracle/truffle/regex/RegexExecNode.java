@@ -41,8 +41,12 @@
 package com.oracle.truffle.regex;
 
 import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.regex.result.NoMatchResult;
 import com.oracle.truffle.regex.result.RegexResult;
+import com.oracle.truffle.regex.result.RegexResultGetEndNode;
+import com.oracle.truffle.regex.result.RegexResultGetStartNode;
 import com.oracle.truffle.regex.tregex.nodes.input.InputLengthNode;
 import com.oracle.truffle.regex.tregex.nodes.input.InputReadNode;
 
@@ -51,15 +55,69 @@ public abstract class RegexExecNode extends RegexBodyNode {
     private final boolean mustCheckUnicodeSurrogates;
     private @Child InputLengthNode lengthNode;
     private @Child InputReadNode charAtNode;
+    private @Child RegexResultGetStartNode getStartNode;
+    private @Child RegexResultGetEndNode getEndNode;
+    private volatile long compilationTime;
 
     public RegexExecNode(RegexLanguage language, RegexSource source, boolean mustCheckUnicodeSurrogates) {
         super(language, source);
         this.mustCheckUnicodeSurrogates = mustCheckUnicodeSurrogates;
     }
 
+    /**
+     * Returns a short description of the kind of executor currently used by this node.
+     */
+    public String getExecutorName() {
+        return getEngineLabel();
+    }
+
+    /**
+     * Returns the reason why this regular expression can't be matched by a DFA, or {@code null} if
+     * there is none (yet).
+     */
+    public String getDFABailoutReason() {
+        return null;
+    }
+
+    /**
+     * Returns the number of states of the forward search DFA, or {@code -1} if there is none.
+     */
+    public int getDFASize() {
+        return -1;
+    }
+
+    /**
+     * Returns the total time spent compiling this regular expression, in nanoseconds.
+     */
+    public long getCompilationTime() {
+        return compilationTime;
+    }
+
+    @TruffleBoundary
+    public synchronized void addCompilationTime(long nanos) {
+        compilationTime += nanos;
+    }
+
+    @Override
+    public Object getNodeObject() {
+        return new RegexExecNodeObject(this);
+    }
+
+    public boolean isMustCheckUnicodeSurrogates() {
+        return mustCheckUnicodeSurrogates;
+    }
+
+    /**
+     * Called with {@code (input, fromIndex)}, this returns a {@link RegexResult}. Called with
+     * {@code (input, fromIndex, bounds)}, this returns a {@code boolean} and stores the boundaries
+     * of the match in {@code bounds}, see {@link #executeBoundariesDirect(Object, int, int[])}.
+     */
     @Override
-    public final RegexResult execute(VirtualFrame frame) {
+    public final Object execute(VirtualFrame frame) {
         Object[] args = frame.getArguments();
+        if (args.length == 3) {
+            return executeBoundariesDirect(args[0], (int) args[1], (int[]) args[2]);
+        }
         assert args.length == 2;
         return executeDirect(args[0], (int) args[1]);
     }
@@ -90,12 +148,49 @@ public abstract class RegexExecNode extends RegexBodyNode {
     }
 
     public RegexResult executeDirect(Object input, int fromIndex) {
+        checkFromIndex(input, fromIndex);
+        return execute(input, adjustFromIndex(fromIndex, input));
+    }
+
+    /**
+     * Searches for a match like {@link #executeDirect(Object, int)}, but instead of creating a
+     * {@link RegexResult}, stores the start and end of the first {@code bounds.length / 2} capture
+     * groups in {@code bounds}. Returns {@code false} if there is no match. This is used by
+     * {@link RegexBulkOperationNode bulk operations}, which would otherwise create a result object
+     * per match.
+     */
+    public boolean executeBoundariesDirect(Object input, int fromIndex, int[] bounds) {
+        checkFromIndex(input, fromIndex);
+        return executeBoundaries(input, adjustFromIndex(fromIndex, input), bounds);
+    }
+
+    private void checkFromIndex(Object input, int fromIndex) {
         if (fromIndex < 0 || fromIndex > inputLength(input)) {
             CompilerDirectives.transferToInterpreterAndInvalidate();
             throw new IllegalArgumentException(String.format("got illegal fromIndex value: %d. fromIndex must be >= 0 and <= input length (%d)", fromIndex, inputLength(input)));
         }
-        return execute(input, adjustFromIndex(fromIndex, input));
     }
 
     protected abstract RegexResult execute(Object input, int fromIndex);
+
+    /**
+     * Implementation of {@link #executeBoundariesDirect(Object, int, int[])}. Subclasses may
+     * override this if they can find match boundaries without creating a {@link RegexResult}.
+     */
+    protected boolean executeBoundaries(Object input, int fromIndex, int[] bounds) {
+        RegexResult result = execute(input, fromIndex);
+        if (result == NoMatchResult.getInstance()) {
+            return false;
+        }
+        if (getStartNode == null) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            getStartNode = insert(RegexResultGetStartNode.create());
+            getEndNode = insert(RegexResultGetEndNode.create());
+        }
+        for (int i = 0; i < bounds.length / 2; i++) {
+            bounds[i * 2] = getStartNode.execute(result, i);
+            bounds[i * 2 + 1] = getEndNode.execute(result, i);
+        }
+        return true;
+    }
 }
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.regex;
+
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.instrumentation.InstrumentableNode;
+import com.oracle.truffle.api.interop.InteropLibrary;
+import com.oracle.truffle.api.interop.UnknownIdentifierException;
+import com.oracle.truffle.api.library.ExportLibrary;
+import com.oracle.truffle.regex.util.TruffleNull;
+import com.oracle.truffle.regex.util.TruffleReadOnlyKeysArray;
+
+/**
+ * The {@link InstrumentableNode#getNodeObject() node object} of a {@link RegexExecNode}. It gives
+ * tools such as profilers access to the following properties of a compiled regular expression:
+ * <ol>
+ * <li>{@link String} {@code pattern}: the source of the regular expression</li>
+ * <li>{@link String} {@code flags}: the flags the regular expression was compiled with</li>
+ * <li>{@link String} {@code executor}: the kind of executor currently used for searching, e.g.
+ * {@code "TRegex lazy DFA"} or {@code "TRegex backtracker"}</li>
+ * <li>{@link String} {@code dfaBailoutReason}: the reason why no DFA could be generated for the
+ * expression, or {@code null}</li>
+ * <li>{@code int dfaSize}: the number of states of the forward search DFA, or {@code -1} if no DFA
+ * was generated (yet)</li>
+ * <li>{@code long compilationTime}: the time spent compiling the expression so far, in
+ * nanoseconds. This includes the lazy generation of DFAs.</li>
+ * </ol>
+ * All properties are read from the node on every access, so they reflect the current state of the
+ * compiled regular expression.
+ */
+@ExportLibrary(InteropLibrary.class)
+public final class RegexExecNodeObject extends AbstractConstantKeysObject {
+
+    private static final String PROP_PATTERN = "pattern";
+    private static final String PROP_FLAGS = "flags";
+    private static final String PROP_EXECUTOR = "executor";
+    private static final String PROP_DFA_BAILOUT_REASON = "dfaBailoutReason";
+    private static final String PROP_DFA_SIZE = "dfaSize";
+    private static final String PROP_COMPILATION_TIME = "compilationTime";
+    private static final TruffleReadOnlyKeysArray KEYS = new TruffleReadOnlyKeysArray(PROP_PATTERN, PROP_FLAGS, PROP_EXECUTOR, PROP_DFA_BAILOUT_REASON, PROP_DFA_SIZE, PROP_COMPILATION_TIME);
+
+    private final RegexExecNode execNode;
+
+    RegexExecNodeObject(RegexExecNode execNode) {
+        this.execNode = execNode;
+    }
+
+    @Override
+    public TruffleReadOnlyKeysArray getKeys() {
+        return KEYS;
+    }
+
+    @TruffleBoundary
+    @Override
+    public Object readMemberImpl(String symbol) throws UnknownIdentifierException {
+        switch (symbol) {
+            case PROP_PATTERN:
+                return execNode.getSource().getPattern();
+            case PROP_FLAGS:
+                return execNode.getSource().getFlags();
+            case PROP_EXECUTOR:
+                return execNode.getExecutorName();
+            case PROP_DFA_BAILOUT_REASON:
+                String reason = execNode.getDFABailoutReason();
+                return reason == null ? TruffleNull.INSTANCE : reason;
+            case PROP_DFA_SIZE:
+                return execNode.getDFASize();
+            case PROP_COMPILATION_TIME:
+                return execNode.getCompilationTime();
+            default:
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                throw UnknownIdentifierException.create(symbol);
+        }
+    }
+
+    @TruffleBoundary
+    @Override
+    public String toString() {
+        return "TRegexExecNodeObject{" + "execNode=" + execNode + '}';
+    }
+}
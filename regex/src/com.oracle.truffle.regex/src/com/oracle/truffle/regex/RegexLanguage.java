@@ -43,6 +43,7 @@ package com.oracle.truffle.regex;
 import com.oracle.truffle.api.CallTarget;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.TruffleLanguage;
 import com.oracle.truffle.api.exception.AbstractTruffleException;
@@ -53,6 +54,7 @@ import com.oracle.truffle.api.nodes.RootNode;
 import com.oracle.truffle.api.source.Source;
 import com.oracle.truffle.regex.tregex.TRegexCompiler;
 import com.oracle.truffle.regex.tregex.nfa.PureNFAIndex;
+import com.oracle.truffle.regex.tregex.nodes.dfa.TRegexParallelSearchWorkers;
 import com.oracle.truffle.regex.tregex.parser.RegexParserGlobals;
 import com.oracle.truffle.regex.tregex.parser.RegexValidator;
 import com.oracle.truffle.regex.tregex.parser.ast.GroupBoundaries;
@@ -224,9 +226,15 @@ public final class RegexLanguage extends TruffleLanguage<RegexLanguage.RegexCont
         return getCurrentContext(RegexLanguage.class);
     }
 
+    @Override
+    protected void finalizeContext(RegexContext context) {
+        context.shutdownParallelSearchWorkers();
+    }
+
     public static final class RegexContext {
 
         @CompilationFinal private Env env;
+        private TRegexParallelSearchWorkers parallelSearchWorkers;
 
         RegexContext(Env env) {
             this.env = env;
@@ -239,5 +247,27 @@ public final class RegexLanguage extends TruffleLanguage<RegexLanguage.RegexCont
         public Env getEnv() {
             return env;
         }
+
+        /**
+         * Returns the worker threads for parallel searches in this context, or {@code null} if
+         * the context does not allow creating threads.
+         */
+        @TruffleBoundary
+        public synchronized TRegexParallelSearchWorkers getParallelSearchWorkers() {
+            if (parallelSearchWorkers == null && env.isCreateThreadAllowed()) {
+                parallelSearchWorkers = new TRegexParallelSearchWorkers(this);
+            }
+            return parallelSearchWorkers;
+        }
+
+        void shutdownParallelSearchWorkers() {
+            TRegexParallelSearchWorkers workers;
+            synchronized (this) {
+                workers = parallelSearchWorkers;
+            }
+            if (workers != null) {
+                workers.shutdown();
+            }
+        }
     }
 }
@@ -44,6 +44,7 @@ import java.util.Map;
 
 import com.oracle.truffle.api.CallTarget;
 import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.TruffleLanguage;
@@ -65,12 +66,18 @@ import com.oracle.truffle.api.nodes.IndirectCallNode;
 import com.oracle.truffle.api.nodes.Node;
 import com.oracle.truffle.regex.result.NoMatchResult;
 import com.oracle.truffle.regex.result.RegexResult;
+import com.oracle.truffle.regex.runtime.nodes.DispatchNode;
 import com.oracle.truffle.regex.runtime.nodes.ExpectByteArrayHostObjectNode;
 import com.oracle.truffle.regex.runtime.nodes.ExpectStringOrTruffleObjectNode;
 import com.oracle.truffle.regex.runtime.nodes.ToLongNode;
+import com.oracle.truffle.regex.runtime.nodes.ToStringNode;
+import com.oracle.truffle.regex.tregex.TRegexCompiler;
+import com.oracle.truffle.regex.tregex.nodes.dfa.TRegexDFAStreamBuffer;
+import com.oracle.truffle.regex.tregex.nodes.dfa.TRegexStreamingSearchRootNode;
 import com.oracle.truffle.regex.tregex.parser.flavors.PythonFlags;
 import com.oracle.truffle.regex.tregex.parser.flavors.RubyFlags;
 import com.oracle.truffle.regex.util.TruffleNull;
+import com.oracle.truffle.regex.util.TruffleReadOnlyIntArray;
 import com.oracle.truffle.regex.util.TruffleReadOnlyKeysArray;
 import com.oracle.truffle.regex.util.TruffleReadOnlyMap;
 import com.oracle.truffle.regex.util.TruffleSmallReadOnlyStringToIntMap;
@@ -107,6 +114,23 @@ import com.oracle.truffle.regex.util.TruffleSmallReadOnlyStringToIntMap;
  * The return value is a {@link RegexResult}. The contents of the {@code exec} can be compiled
  * lazily and so its first invocation might involve a longer delay as the regular expression is
  * compiled on the fly.
+ * <li>{@link RegexObjectCreateStreamMethod} {@code createStream}: an executable method that
+ * creates a new {@link RegexStream} for searching the compiled regular expression in chunked
+ * input. The method accepts an optional {@link Number} {@code historySize} parameter, the number
+ * of code units the stream keeps in memory for finding the start of a match. The streaming search
+ * is compiled on the first invocation of this method. If the regular expression can't be compiled
+ * to a DFA, this method throws {@link UnsupportedMessageException}.</li>
+ * <li>{@link RegexObjectBulkOperationMethod} {@code findAll}: an executable method that finds all
+ * matches of the compiled regular expression in a string. It accepts the same parameters as
+ * {@code exec} and returns a read-only array of {@code int}s containing the start and end offsets
+ * of all capture groups of all matches, {@code 2 * groupCount} entries per match.</li>
+ * <li>{@link RegexObjectBulkOperationMethod} {@code split}: an executable method that splits a
+ * {@link String} {@code input} around all matches and returns a read-only array of
+ * {@link String}s.</li>
+ * <li>{@link RegexObjectBulkOperationMethod} {@code replace}: an executable method that replaces
+ * all matches in a {@link String} {@code input} with a {@link String} {@code replacement}
+ * template, which may refer to the entire match with {@code $&} and to capture groups with
+ * {@code $n}. See {@link RegexBulkOperationNode}.</li>
  * </ol>
  * <p>
  */
@@ -119,13 +143,23 @@ public final class RegexObject extends AbstractConstantKeysObject {
     private static final String PROP_FLAGS = "flags";
     private static final String PROP_GROUP_COUNT = "groupCount";
     private static final String PROP_GROUPS = "groups";
-    private static final TruffleReadOnlyKeysArray KEYS = new TruffleReadOnlyKeysArray(PROP_EXEC, PROP_PATTERN, PROP_FLAGS, PROP_GROUP_COUNT, PROP_GROUPS);
+    private static final String PROP_CREATE_STREAM = "createStream";
+    private static final String PROP_FIND_ALL = "findAll";
+    private static final String PROP_SPLIT = "split";
+    private static final String PROP_REPLACE = "replace";
+    private static final TruffleReadOnlyKeysArray KEYS = new TruffleReadOnlyKeysArray(PROP_EXEC, PROP_PATTERN, PROP_FLAGS, PROP_GROUP_COUNT, PROP_GROUPS, PROP_CREATE_STREAM, PROP_FIND_ALL,
+                    PROP_SPLIT, PROP_REPLACE);
 
     private final RegexSource source;
     private final AbstractRegexObject flags;
     private final int numberOfCaptureGroups;
     private final AbstractRegexObject namedCaptureGroups;
     private final CallTarget execCallTarget;
+    private final RegexLanguage language;
+    private TRegexStreamingSearchRootNode streamingSearchNode;
+    private CallTarget streamingSearchCallTarget;
+    private final boolean mustCheckUnicodeSurrogates;
+    @CompilationFinal(dimensions = 1) private final CallTarget[] bulkOperationCallTargets = new CallTarget[RegexBulkOperationNode.Kind.values().length];
 
     public RegexObject(RegexExecNode execNode, RegexSource source, AbstractRegexObject flags, int numberOfCaptureGroups, Map<String, Integer> namedCaptureGroups) {
         this.source = source;
@@ -133,6 +167,8 @@ public final class RegexObject extends AbstractConstantKeysObject {
         this.numberOfCaptureGroups = numberOfCaptureGroups;
         this.namedCaptureGroups = namedCaptureGroups != null ? createNamedCaptureGroupMap(namedCaptureGroups) : TruffleNull.INSTANCE;
         this.execCallTarget = Truffle.getRuntime().createCallTarget(new RegexRootNode(execNode.getRegexLanguage(), execNode));
+        this.language = execNode.getRegexLanguage();
+        this.mustCheckUnicodeSurrogates = execNode.isMustCheckUnicodeSurrogates();
     }
 
     @TruffleBoundary
@@ -168,6 +204,45 @@ public final class RegexObject extends AbstractConstantKeysObject {
         return new RegexObjectExecMethod(this);
     }
 
+    /**
+     * Creates a new {@link RegexStream}, compiling the streaming search on first use.
+     *
+     * @throws UnsupportedRegexException if the regular expression can't be searched in streaming
+     *             mode.
+     */
+    @TruffleBoundary
+    public synchronized RegexStream createStream(int historySize) {
+        if (streamingSearchCallTarget == null) {
+            streamingSearchNode = TRegexCompiler.compileStreamingSearch(language, source);
+            streamingSearchCallTarget = Truffle.getRuntime().createCallTarget(new RegexRootNode(language, streamingSearchNode));
+        }
+        return new RegexStream(streamingSearchCallTarget, streamingSearchNode, historySize);
+    }
+
+    /**
+     * Returns the call target of the given {@link RegexBulkOperationNode bulk operation}, creating
+     * it on first use.
+     */
+    public CallTarget getBulkOperationCallTarget(RegexBulkOperationNode.Kind kind) {
+        CallTarget callTarget = bulkOperationCallTargets[kind.ordinal()];
+        if (callTarget == null) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            callTarget = createBulkOperationCallTarget(kind);
+        }
+        return callTarget;
+    }
+
+    @TruffleBoundary
+    private synchronized CallTarget createBulkOperationCallTarget(RegexBulkOperationNode.Kind kind) {
+        CallTarget callTarget = bulkOperationCallTargets[kind.ordinal()];
+        if (callTarget == null) {
+            RegexBulkOperationNode node = RegexBulkOperationNode.create(language, source, kind, execCallTarget, numberOfCaptureGroups, mustCheckUnicodeSurrogates);
+            callTarget = Truffle.getRuntime().createCallTarget(new RegexRootNode(language, node));
+            bulkOperationCallTargets[kind.ordinal()] = callTarget;
+        }
+        return callTarget;
+    }
+
     public RegexObjectExecUTF8Method getExecUTF8Method() {
         // this allocation should get virtualized and optimized away by graal
         return new RegexObjectExecUTF8Method(this);
@@ -193,6 +268,14 @@ public final class RegexObject extends AbstractConstantKeysObject {
                 return getNumberOfCaptureGroups();
             case PROP_GROUPS:
                 return getNamedCaptureGroups();
+            case PROP_CREATE_STREAM:
+                return new RegexObjectCreateStreamMethod(this);
+            case PROP_FIND_ALL:
+                return new RegexObjectBulkOperationMethod(this, RegexBulkOperationNode.Kind.FIND_ALL);
+            case PROP_SPLIT:
+                return new RegexObjectBulkOperationMethod(this, RegexBulkOperationNode.Kind.SPLIT);
+            case PROP_REPLACE:
+                return new RegexObjectBulkOperationMethod(this, RegexBulkOperationNode.Kind.REPLACE);
             default:
                 CompilerDirectives.transferToInterpreterAndInvalidate();
                 throw UnknownIdentifierException.create(symbol);
@@ -399,6 +482,123 @@ public final class RegexObject extends AbstractConstantKeysObject {
         }
     }
 
+    @ExportLibrary(InteropLibrary.class)
+    public static final class RegexObjectCreateStreamMethod extends AbstractRegexObject {
+
+        private final RegexObject regex;
+
+        public RegexObjectCreateStreamMethod(RegexObject regex) {
+            this.regex = regex;
+        }
+
+        public RegexObject getRegexObject() {
+            return regex;
+        }
+
+        @SuppressWarnings("static-method")
+        @ExportMessage
+        boolean isExecutable() {
+            return true;
+        }
+
+        @ExportMessage
+        Object execute(Object[] args,
+                        @Cached ToLongNode toLongNode) throws ArityException, UnsupportedTypeException, UnsupportedMessageException {
+            if (args.length > 1) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                throw ArityException.create(1, args.length);
+            }
+            long historySize = args.length == 0 ? TRegexDFAStreamBuffer.DEFAULT_HISTORY_SIZE : toLongNode.execute(args[0]);
+            if (historySize < 0 || historySize > Integer.MAX_VALUE) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                throw UnsupportedTypeException.create(args);
+            }
+            try {
+                return getRegexObject().createStream((int) historySize);
+            } catch (UnsupportedRegexException e) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                throw UnsupportedMessageException.create();
+            }
+        }
+
+        @TruffleBoundary
+        @Override
+        public String toString() {
+            return "TRegexObjectCreateStreamMethod{" + "regex=" + regex + '}';
+        }
+    }
+
+    @ExportLibrary(InteropLibrary.class)
+    public static final class RegexObjectBulkOperationMethod extends AbstractRegexObject {
+
+        private final RegexObject regex;
+        private final RegexBulkOperationNode.Kind kind;
+
+        public RegexObjectBulkOperationMethod(RegexObject regex, RegexBulkOperationNode.Kind kind) {
+            this.regex = regex;
+            this.kind = kind;
+        }
+
+        public RegexObject getRegexObject() {
+            return regex;
+        }
+
+        public RegexBulkOperationNode.Kind getKind() {
+            return kind;
+        }
+
+        @SuppressWarnings("static-method")
+        @ExportMessage
+        boolean isExecutable() {
+            return true;
+        }
+
+        @ExportMessage
+        Object execute(Object[] args,
+                        @Cached ExpectStringOrTruffleObjectNode expectStringOrTruffleObjectNode,
+                        @Cached ToStringNode inputToStringNode,
+                        @Cached ToStringNode replacementToStringNode,
+                        @Cached ToLongNode toLongNode,
+                        @Cached DispatchNode dispatchNode) throws ArityException, UnsupportedTypeException {
+            switch (kind) {
+                case FIND_ALL: {
+                    if (args.length != 2) {
+                        CompilerDirectives.transferToInterpreterAndInvalidate();
+                        throw ArityException.create(2, args.length);
+                    }
+                    Object input = expectStringOrTruffleObjectNode.execute(args[0]);
+                    long fromIndex = toLongNode.execute(args[1]);
+                    if (fromIndex > Integer.MAX_VALUE) {
+                        return new TruffleReadOnlyIntArray(new int[0]);
+                    }
+                    return dispatchNode.execute(regex.getBulkOperationCallTarget(kind), new Object[]{input, (int) fromIndex});
+                }
+                case SPLIT: {
+                    if (args.length != 1) {
+                        CompilerDirectives.transferToInterpreterAndInvalidate();
+                        throw ArityException.create(1, args.length);
+                    }
+                    return dispatchNode.execute(regex.getBulkOperationCallTarget(kind), new Object[]{inputToStringNode.execute(args[0]), null});
+                }
+                case REPLACE: {
+                    if (args.length != 2) {
+                        CompilerDirectives.transferToInterpreterAndInvalidate();
+                        throw ArityException.create(2, args.length);
+                    }
+                    return dispatchNode.execute(regex.getBulkOperationCallTarget(kind), new Object[]{inputToStringNode.execute(args[0]), replacementToStringNode.execute(args[1])});
+                }
+                default:
+                    throw CompilerDirectives.shouldNotReachHere();
+            }
+        }
+
+        @TruffleBoundary
+        @Override
+        public String toString() {
+            return "TRegexObjectBulkOperationMethod{" + "regex=" + regex + ", kind=" + kind + '}';
+        }
+    }
+
     @ImportStatic(RegexObject.class)
     @GenerateUncached
     abstract static class ExecCompiledRegexNode extends Node {
@@ -88,8 +88,15 @@ import com.oracle.truffle.regex.tregex.string.Encodings;
  * generate debugging dumps of most relevant data structures in JSON, GraphViz and LaTex
  * format.</li>
  * <li><b>StepExecution</b>: dump tracing information about all DFA matcher runs.</li>
+ * <li><b>NoParallelSearch</b>: never split lazy DFA searches over very large inputs into segments
+ * that are searched in parallel on worker threads of the context. See
+ * {@link com.oracle.truffle.regex.tregex.nodes.dfa.TRegexDFAParallelSearchNode}.</li>
+ * <li><b>DFACacheDirectory</b>: a directory for caching generated DFAs across runs, enclosed in
+ * double quotes, e.g. {@code DFACacheDirectory="/tmp/tregex"}. See
+ * {@link com.oracle.truffle.regex.tregex.TRegexDFACache}.</li>
  * </ul>
- * All options except {@code Flavor} and {@code Encoding} are boolean and {@code false} by default.
+ * All options except {@code Flavor}, {@code Encoding} and {@code DFACacheDirectory} are boolean
+ * and {@code false} by default.
  */
 public final class RegexOptions {
 
@@ -107,6 +114,8 @@ public final class RegexOptions {
     public static final String UTF_16_EXPLODE_ASTRAL_SYMBOLS_NAME = "UTF16ExplodeAstralSymbols";
     private static final int VALIDATE = 1 << 6;
     public static final String VALIDATE_NAME = "Validate";
+    private static final int NO_PARALLEL_SEARCH = 1 << 7;
+    public static final String NO_PARALLEL_SEARCH_NAME = "NoParallelSearch";
 
     public static final String FLAVOR_NAME = "Flavor";
     public static final String FLAVOR_PYTHON = "Python";
@@ -118,16 +127,20 @@ public final class RegexOptions {
 
     public static final String ENCODING_NAME = "Encoding";
 
-    public static final RegexOptions DEFAULT = new RegexOptions(0, null, Encodings.UTF_16_RAW);
+    public static final String DFA_CACHE_DIRECTORY_NAME = "DFACacheDirectory";
+
+    public static final RegexOptions DEFAULT = new RegexOptions(0, null, Encodings.UTF_16_RAW, null);
 
     private final int options;
     private final RegexFlavor flavor;
     private final Encodings.Encoding encoding;
+    private final String dfaCacheDirectory;
 
-    private RegexOptions(int options, RegexFlavor flavor, Encodings.Encoding encoding) {
+    private RegexOptions(int options, RegexFlavor flavor, Encodings.Encoding encoding, String dfaCacheDirectory) {
         this.options = options;
         this.flavor = flavor;
         this.encoding = encoding;
+        this.dfaCacheDirectory = dfaCacheDirectory;
     }
 
     public static Builder builder(Source source, String sourceString) {
@@ -183,6 +196,14 @@ public final class RegexOptions {
         return isBitSet(VALIDATE);
     }
 
+    /**
+     * Search very large inputs in parallel. This is the default, unless {@code NoParallelSearch}
+     * is set.
+     */
+    public boolean isParallelSearch() {
+        return !isBitSet(NO_PARALLEL_SEARCH);
+    }
+
     public RegexFlavor getFlavor() {
         return flavor;
     }
@@ -191,8 +212,15 @@ public final class RegexOptions {
         return encoding;
     }
 
+    /**
+     * Directory of the persistent DFA cache, or {@code null} if DFAs should not be cached.
+     */
+    public String getDFACacheDirectory() {
+        return dfaCacheDirectory;
+    }
+
     public RegexOptions withEncoding(Encodings.Encoding newEnc) {
-        return newEnc == encoding ? this : new RegexOptions(options, flavor, newEnc);
+        return newEnc == encoding ? this : new RegexOptions(options, flavor, newEnc, dfaCacheDirectory);
     }
 
     @Override
@@ -201,6 +229,7 @@ public final class RegexOptions {
         int hash = options;
         hash = prime * hash + Objects.hashCode(flavor);
         hash = prime * hash + encoding.hashCode();
+        hash = prime * hash + Objects.hashCode(dfaCacheDirectory);
         return hash;
     }
 
@@ -213,7 +242,7 @@ public final class RegexOptions {
             return false;
         }
         RegexOptions other = (RegexOptions) obj;
-        return this.options == other.options && this.flavor == other.flavor && this.encoding == other.encoding;
+        return this.options == other.options && this.flavor == other.flavor && this.encoding == other.encoding && Objects.equals(this.dfaCacheDirectory, other.dfaCacheDirectory);
     }
 
     @Override
@@ -234,6 +263,9 @@ public final class RegexOptions {
         if (isAlwaysEager()) {
             sb.append(ALWAYS_EAGER_NAME + "=true,");
         }
+        if (!isParallelSearch()) {
+            sb.append(NO_PARALLEL_SEARCH_NAME + "=true,");
+        }
         if (flavor == PythonFlavor.STR_INSTANCE) {
             sb.append(FLAVOR_NAME + "=" + FLAVOR_PYTHON_STR + ",");
         } else if (flavor == PythonFlavor.BYTES_INSTANCE) {
@@ -251,6 +283,7 @@ public final class RegexOptions {
         private int options;
         private RegexFlavor flavor;
         private Encodings.Encoding encoding = Encodings.UTF_16_RAW;
+        private String dfaCacheDirectory = null;
 
         private Builder(Source source, String sourceString) {
             this.source = source;
@@ -268,7 +301,11 @@ public final class RegexOptions {
                         i = parseBooleanOption(i, ALWAYS_EAGER_NAME, ALWAYS_EAGER);
                         break;
                     case 'D':
-                        i = parseBooleanOption(i, DUMP_AUTOMATA_NAME, DUMP_AUTOMATA);
+                        if (i + 1 < src.length() && src.charAt(i + 1) == 'F') {
+                            i = parseDFACacheDirectory(i);
+                        } else {
+                            i = parseBooleanOption(i, DUMP_AUTOMATA_NAME, DUMP_AUTOMATA);
+                        }
                         break;
                     case 'E':
                         i = parseEncoding(i);
@@ -276,6 +313,9 @@ public final class RegexOptions {
                     case 'F':
                         i = parseFlavor(i);
                         break;
+                    case 'N':
+                        i = parseBooleanOption(i, NO_PARALLEL_SEARCH_NAME, NO_PARALLEL_SEARCH);
+                        break;
                     case 'R':
                         i = parseBooleanOption(i, REGRESSION_TEST_MODE_NAME, REGRESSION_TEST_MODE);
                         break;
@@ -403,6 +443,16 @@ public final class RegexOptions {
             }
         }
 
+        private int parseDFACacheDirectory(int i) throws RegexSyntaxException {
+            int iVal = expectOptionName(i, DFA_CACHE_DIRECTORY_NAME);
+            int end = iVal < src.length() && src.charAt(iVal) == '"' ? src.indexOf('"', iVal + 1) : -1;
+            if (end < 0) {
+                throw optionsSyntaxError("expected a double-quoted path as value of " + DFA_CACHE_DIRECTORY_NAME, iVal);
+            }
+            dfaCacheDirectory = src.substring(iVal + 1, end);
+            return end + 1;
+        }
+
         @TruffleBoundary
         private RegexSyntaxException optionsSyntaxErrorUnexpectedKey(int i) {
             int eqlPos = src.indexOf('=', i);
@@ -455,6 +505,11 @@ public final class RegexOptions {
             return this;
         }
 
+        public Builder parallelSearch(boolean enabled) {
+            updateOption(!enabled, NO_PARALLEL_SEARCH);
+            return this;
+        }
+
         public boolean isUtf16ExplodeAstralSymbols() {
             return isBitSet(UTF_16_EXPLODE_ASTRAL_SYMBOLS);
         }
@@ -477,8 +532,13 @@ public final class RegexOptions {
             return encoding;
         }
 
+        public Builder dfaCacheDirectory(@SuppressWarnings("hiding") String dfaCacheDirectory) {
+            this.dfaCacheDirectory = dfaCacheDirectory;
+            return this;
+        }
+
         public RegexOptions build() {
-            return new RegexOptions(this.options, this.flavor, this.encoding);
+            return new RegexOptions(this.options, this.flavor, this.encoding, this.dfaCacheDirectory);
         }
 
         private void updateOption(boolean enabled, int bitMask) {
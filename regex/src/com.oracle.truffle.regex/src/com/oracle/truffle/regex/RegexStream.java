@@ -0,0 +1,258 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.regex;
+
+import java.nio.ByteBuffer;
+
+import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.TruffleLanguage.Env;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.CachedContext;
+import com.oracle.truffle.api.dsl.GenerateUncached;
+import com.oracle.truffle.api.dsl.ReportPolymorphism;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.interop.ArityException;
+import com.oracle.truffle.api.interop.InteropLibrary;
+import com.oracle.truffle.api.interop.UnknownIdentifierException;
+import com.oracle.truffle.api.interop.UnsupportedMessageException;
+import com.oracle.truffle.api.interop.UnsupportedTypeException;
+import com.oracle.truffle.api.library.ExportLibrary;
+import com.oracle.truffle.api.library.ExportMessage;
+import com.oracle.truffle.api.nodes.DirectCallNode;
+import com.oracle.truffle.api.nodes.IndirectCallNode;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.regex.RegexLanguage.RegexContext;
+import com.oracle.truffle.regex.tregex.nodes.dfa.TRegexDFAStreamBuffer;
+import com.oracle.truffle.regex.tregex.nodes.dfa.TRegexStreamingSearchRootNode;
+import com.oracle.truffle.regex.util.TruffleReadOnlyKeysArray;
+import com.oracle.truffle.regex.util.TruffleReadOnlyLongArray;
+
+/**
+ * {@link RegexStream} searches a {@link RegexObject compiled regular expression} in an input that
+ * arrives in chunks, e.g. from a network socket or a file. It is created by
+ * {@link RegexObject}'s {@code createStream} method and exposes the following properties:
+ * <ol>
+ * <li>{@code feed(chunk)}: appends {@code chunk} to the stream and returns all matches completed by
+ * it. {@code chunk} may be a {@link String} or a host {@link CharSequence} if the regular
+ * expression's encoding is UTF-16, and a host {@link ByteBuffer} or {@code byte[]} if the encoding
+ * is UTF-8 or LATIN-1. Chunks may split encoded code points.</li>
+ * <li>{@code finish([chunk])}: appends the optional {@code chunk}, marks the end of the stream and
+ * returns all remaining matches. Afterwards, the stream cannot be fed anymore.</li>
+ * <li>{@code long position}: the total number of code units received so far.</li>
+ * </ol>
+ * Matches are returned as an array of {@code long} values, where every match is represented by a
+ * pair of absolute start and end offsets into the stream. Matches are found with the same
+ * semantics as repeated {@code exec} calls, where every call starts at the end of the previous
+ * match, or one code point after it in the case of an empty match. Capture groups are not
+ * reported. The stream keeps only {@code historySize} code units of input that has already been
+ * searched. If a match starts before this history, its start offset is reported as {@code -1}; if
+ * the expression contains look-around assertions, its end offset is reported as {@code -1} as well.
+ * <p>
+ * A {@link RegexStream} is not thread-safe.
+ */
+@ExportLibrary(InteropLibrary.class)
+public final class RegexStream extends AbstractConstantKeysObject {
+
+    static final String PROP_FEED = "feed";
+    static final String PROP_FINISH = "finish";
+    private static final String PROP_POSITION = "position";
+    private static final TruffleReadOnlyKeysArray KEYS = new TruffleReadOnlyKeysArray(PROP_FEED, PROP_FINISH, PROP_POSITION);
+
+    private final CallTarget searchCallTarget;
+    private final TRegexDFAStreamBuffer buffer;
+
+    RegexStream(CallTarget searchCallTarget, TRegexStreamingSearchRootNode searchNode, int historySize) {
+        this.searchCallTarget = searchCallTarget;
+        this.buffer = searchNode.createBuffer(historySize);
+    }
+
+    public long getPosition() {
+        return buffer.getPosition();
+    }
+
+    @Override
+    public TruffleReadOnlyKeysArray getKeys() {
+        return KEYS;
+    }
+
+    @Override
+    public Object readMemberImpl(String symbol) throws UnknownIdentifierException {
+        switch (symbol) {
+            case PROP_FEED:
+                return new RegexStreamMethod(this, false);
+            case PROP_FINISH:
+                return new RegexStreamMethod(this, true);
+            case PROP_POSITION:
+                return getPosition();
+            default:
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                throw UnknownIdentifierException.create(symbol);
+        }
+    }
+
+    @ExportMessage
+    @SuppressWarnings("static-method")
+    boolean isMemberInvocable(String symbol) {
+        return PROP_FEED.equals(symbol) || PROP_FINISH.equals(symbol);
+    }
+
+    @ExportMessage
+    Object invokeMember(String symbol, Object[] args,
+                    @CachedContext(RegexLanguage.class) RegexContext context,
+                    @Cached ExecStreamNode execNode) throws UnknownIdentifierException, ArityException, UnsupportedTypeException, UnsupportedMessageException {
+        switch (symbol) {
+            case PROP_FEED:
+                return run(args, false, context, execNode);
+            case PROP_FINISH:
+                return run(args, true, context, execNode);
+            default:
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                throw UnknownIdentifierException.create(symbol);
+        }
+    }
+
+    Object run(Object[] args, boolean finish, RegexContext context, ExecStreamNode execNode) throws ArityException, UnsupportedTypeException, UnsupportedMessageException {
+        if (finish ? args.length > 1 : args.length != 1) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            throw ArityException.create(finish ? 0 : 1, args.length);
+        }
+        if (buffer.isFinished()) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            throw UnsupportedMessageException.create();
+        }
+        if (args.length == 1) {
+            appendChunk(context.getEnv(), args[0]);
+        }
+        buffer.prepare(finish);
+        return new TruffleReadOnlyLongArray(execNode.execute(searchCallTarget, buffer));
+    }
+
+    @TruffleBoundary
+    private void appendChunk(Env env, Object chunk) throws UnsupportedTypeException {
+        if (buffer.isByteBased()) {
+            Object hostChunk = env.isHostObject(chunk) ? env.asHostObject(chunk) : chunk;
+            if (hostChunk instanceof ByteBuffer) {
+                buffer.append(((ByteBuffer) hostChunk).duplicate());
+                return;
+            } else if (hostChunk instanceof byte[]) {
+                buffer.append((byte[]) hostChunk);
+                return;
+            }
+        } else {
+            InteropLibrary interop = InteropLibrary.getFactory().getUncached();
+            if (chunk instanceof String) {
+                buffer.append((String) chunk);
+                return;
+            } else if (interop.isString(chunk)) {
+                try {
+                    buffer.append(interop.asString(chunk));
+                    return;
+                } catch (UnsupportedMessageException e) {
+                    throw UnsupportedTypeException.create(new Object[]{chunk});
+                }
+            } else if (env.isHostObject(chunk) && env.asHostObject(chunk) instanceof CharSequence) {
+                buffer.append((CharSequence) env.asHostObject(chunk));
+                return;
+            }
+        }
+        throw UnsupportedTypeException.create(new Object[]{chunk});
+    }
+
+    @ExportLibrary(InteropLibrary.class)
+    public static final class RegexStreamMethod extends AbstractRegexObject {
+
+        private final RegexStream stream;
+        private final boolean finish;
+
+        RegexStreamMethod(RegexStream stream, boolean finish) {
+            this.stream = stream;
+            this.finish = finish;
+        }
+
+        @SuppressWarnings("static-method")
+        @ExportMessage
+        boolean isExecutable() {
+            return true;
+        }
+
+        @ExportMessage
+        Object execute(Object[] args,
+                        @CachedContext(RegexLanguage.class) RegexContext context,
+                        @Cached ExecStreamNode execNode) throws ArityException, UnsupportedTypeException, UnsupportedMessageException {
+            return stream.run(args, finish, context, execNode);
+        }
+
+        @TruffleBoundary
+        @Override
+        public String toString() {
+            return "TRegexStreamMethod{" + (finish ? PROP_FINISH : PROP_FEED) + '}';
+        }
+    }
+
+    @GenerateUncached
+    abstract static class ExecStreamNode extends Node {
+
+        abstract long[] execute(CallTarget receiver, TRegexDFAStreamBuffer buffer);
+
+        @SuppressWarnings("unused")
+        @Specialization(guards = "receiver == cachedCallTarget", limit = "4")
+        static long[] executeDirectCall(CallTarget receiver, TRegexDFAStreamBuffer buffer,
+                        @Cached("receiver") CallTarget cachedCallTarget,
+                        @Cached("create(cachedCallTarget)") DirectCallNode directCallNode) {
+            return (long[]) directCallNode.call(buffer);
+        }
+
+        @ReportPolymorphism.Megamorphic
+        @Specialization(replaces = "executeDirectCall")
+        static long[] executeIndirectCall(CallTarget receiver, TRegexDFAStreamBuffer buffer,
+                        @Cached IndirectCallNode indirectCallNode) {
+            return (long[]) indirectCallNode.call(receiver, buffer);
+        }
+    }
+
+    @TruffleBoundary
+    @Override
+    public String toString() {
+        return "TRegexStream{position=" + buffer.getPosition() + '}';
+    }
+}
@@ -40,10 +40,15 @@
  */
 package com.oracle.truffle.regex.result;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.Arrays;
 
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.regex.tregex.TRegexOptions;
+import com.oracle.truffle.regex.tregex.dfa.DFATable;
 import com.oracle.truffle.regex.tregex.util.json.Json;
 import com.oracle.truffle.regex.tregex.util.json.JsonConvertible;
 import com.oracle.truffle.regex.tregex.util.json.JsonValue;
@@ -72,6 +77,26 @@ public final class PreCalculatedResultFactory implements JsonConvertible {
         return new PreCalculatedResultFactory(Arrays.copyOf(indices, indices.length), length);
     }
 
+    public void write(DataOutput out) throws IOException {
+        out.writeInt(indices.length);
+        for (int i : indices) {
+            out.writeInt(i);
+        }
+        out.writeInt(length);
+    }
+
+    public static PreCalculatedResultFactory read(DataInput in) throws IOException {
+        int[] indices = new int[DFATable.readLength(in, 4, 2 * TRegexOptions.TRegexMaxNumberOfCaptureGroups)];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = in.readInt();
+        }
+        int length = in.readInt();
+        if (indices.length % 2 != 0 || length < 0) {
+            throw new IOException("invalid pre-calculated result");
+        }
+        return new PreCalculatedResultFactory(indices, length);
+    }
+
     public int getStart(int groupNr) {
         return indices[groupNr * 2];
     }
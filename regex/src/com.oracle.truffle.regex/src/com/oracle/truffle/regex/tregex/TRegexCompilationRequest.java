@@ -57,6 +57,7 @@ import com.oracle.truffle.regex.literal.LiteralRegexExecNode;
 import com.oracle.truffle.regex.result.PreCalculatedResultFactory;
 import com.oracle.truffle.regex.tregex.buffer.CompilationBuffer;
 import com.oracle.truffle.regex.tregex.dfa.DFAGenerator;
+import com.oracle.truffle.regex.tregex.dfa.DFATable;
 import com.oracle.truffle.regex.tregex.nfa.NFA;
 import com.oracle.truffle.regex.tregex.nfa.NFAGenerator;
 import com.oracle.truffle.regex.tregex.nfa.NFATraceFinderGenerator;
@@ -67,6 +68,8 @@ import com.oracle.truffle.regex.tregex.nodes.TRegexExecNode;
 import com.oracle.truffle.regex.tregex.nodes.TRegexExecutorNode;
 import com.oracle.truffle.regex.tregex.nodes.dfa.TRegexDFAExecutorNode;
 import com.oracle.truffle.regex.tregex.nodes.dfa.TRegexDFAExecutorProperties;
+import com.oracle.truffle.regex.tregex.nodes.dfa.TRegexDFAStreamBuffer;
+import com.oracle.truffle.regex.tregex.nodes.dfa.TRegexStreamingSearchRootNode;
 import com.oracle.truffle.regex.tregex.nodes.nfa.TRegexBacktrackingNFAExecutorNode;
 import com.oracle.truffle.regex.tregex.nodes.nfa.TRegexLiteralLookAroundExecutorNode;
 import com.oracle.truffle.regex.tregex.nodes.nfa.TRegexNFAExecutorNode;
@@ -100,6 +103,7 @@ public final class TRegexCompilationRequest {
     private TRegexDFAExecutorNode executorNodeForward = null;
     private TRegexDFAExecutorNode executorNodeBackward = null;
     private TRegexDFAExecutorNode executorNodeCaptureGroups = null;
+    private DFATable lastDFATable = null;
     private final CompilationBuffer compilationBuffer;
 
     TRegexCompilationRequest(RegexLanguage language, RegexSource source) {
@@ -126,6 +130,14 @@ public final class TRegexCompilationRequest {
         return ast;
     }
 
+    /**
+     * Returns the {@link DFATable} of the DFA most recently generated by
+     * {@link #createDFAExecutor(NFA, TRegexDFAExecutorProperties, String)}.
+     */
+    public DFATable getLastDFATable() {
+        return lastDFATable;
+    }
+
     @TruffleBoundary
     RegexExecNode compile() {
         try {
@@ -159,18 +171,20 @@ public final class TRegexCompilationRequest {
         if (literal != null) {
             return literal;
         }
-        if (canTransformToDFA(ast)) {
+        String dfaBailoutReason = getDFABailoutReason(ast);
+        if (dfaBailoutReason == null) {
             try {
                 createNFA();
                 if (nfa.isDead()) {
                     return new DeadRegexExecNode(language, source);
                 }
-                return new TRegexExecNode(ast, new TRegexNFAExecutorNode(nfa));
+                return new TRegexExecNode(ast, new TRegexNFAExecutorNode(nfa), null);
             } catch (UnsupportedRegexException e) {
                 // fall back to backtracking executor
+                dfaBailoutReason = e.getReason();
             }
         }
-        return new TRegexExecNode(ast, compileBacktrackingExecutor());
+        return new TRegexExecNode(ast, compileBacktrackingExecutor(), dfaBailoutReason);
     }
 
     public TRegexBacktrackingNFAExecutorNode compileBacktrackingExecutor() {
@@ -195,6 +209,18 @@ public final class TRegexCompilationRequest {
         assert ast != null;
         assert nfa != null;
         this.root = rootNode;
+        TRegexDFACache dfaCache = TRegexDFACache.get(source);
+        if (dfaCache != null) {
+            TRegexDFACache.Entry cached = dfaCache.lookup(source, allowSimpleCG);
+            if (cached != null) {
+                phaseStart("DFA Cache");
+                executorNodeForward = cached.getForward().createExecutor(ast, rootNode, compilationBuffer);
+                executorNodeBackward = cached.getBackward() == null ? null : cached.getBackward().createExecutor(ast, rootNode, compilationBuffer);
+                executorNodeCaptureGroups = cached.getCaptureGroups() == null ? null : cached.getCaptureGroups().createExecutor(ast, rootNode, compilationBuffer);
+                phaseEnd("DFA Cache");
+                return createLazyDFASearchNode(rootNode, cached.getPreCalculatedResults());
+            }
+        }
         RegexProperties properties = ast.getProperties();
         PreCalculatedResultFactory[] preCalculatedResults = null;
         if (!(properties.hasAlternations() || properties.hasLookAroundAssertions()) && properties.isFixedCodePointWidth()) {
@@ -215,16 +241,29 @@ public final class TRegexCompilationRequest {
             }
         }
         executorNodeForward = createDFAExecutor(nfa, true, true, false, allowSimpleCG && preCalculatedResults == null && !(ast.getRoot().startsWithCaret() && !properties.hasCaptureGroups()));
+        DFATable forwardTable = lastDFATable;
+        DFATable backwardTable = null;
+        DFATable captureGroupsTable = null;
         final boolean createCaptureGroupTracker = !executorNodeForward.isSimpleCG() && (properties.hasCaptureGroups() || properties.hasLookAroundAssertions()) &&
                         preCalculatedResults == null;
         if (createCaptureGroupTracker) {
             executorNodeCaptureGroups = createDFAExecutor(nfa, true, false, true, false);
+            captureGroupsTable = lastDFATable;
         }
         if (preCalculatedResults != null && preCalculatedResults.length > 1) {
             executorNodeBackward = createDFAExecutor(traceFinderNFA, false, false, false, false);
+            backwardTable = lastDFATable;
         } else if (!executorNodeForward.isAnchored() && !executorNodeForward.isSimpleCG() && (preCalculatedResults == null || !nfa.hasReverseUnAnchoredEntry())) {
             executorNodeBackward = createDFAExecutor(nfa, false, false, false, allowSimpleCG && !(ast.getRoot().endsWithDollar() && !properties.hasCaptureGroups()));
+            backwardTable = lastDFATable;
+        }
+        if (dfaCache != null) {
+            dfaCache.store(source, allowSimpleCG, new TRegexDFACache.Entry(preCalculatedResults, forwardTable, backwardTable, captureGroupsTable));
         }
+        return createLazyDFASearchNode(rootNode, preCalculatedResults);
+    }
+
+    private TRegexExecNode.LazyCaptureGroupRegexSearchNode createLazyDFASearchNode(TRegexExecNode rootNode, PreCalculatedResultFactory[] preCalculatedResults) {
         logAutomatonSizes(rootNode);
         return new TRegexExecNode.LazyCaptureGroupRegexSearchNode(
                         language, source, ast.getFlags(), preCalculatedResults,
@@ -238,23 +277,87 @@ public final class TRegexCompilationRequest {
     TRegexDFAExecutorNode compileEagerDFAExecutor() {
         createAST();
         RegexProperties properties = ast.getProperties();
-        assert canTransformToDFA(ast);
+        assert getDFABailoutReason(ast) == null;
         assert properties.hasCaptureGroups() || properties.hasLookAroundAssertions();
         assert !ast.getRoot().isDead();
         createNFA();
         return createDFAExecutor(nfa, true, true, true, false);
     }
 
-    private static boolean canTransformToDFA(RegexAST ast) throws UnsupportedRegexException {
+    @TruffleBoundary
+    TRegexDFAExecutorNode compileParallelSearchDFAExecutor() {
+        createAST();
+        assert getDFABailoutReason(ast) == null;
+        assert !ast.getRoot().isDead();
+        createNFA();
+        return createStreamingDFAExecutor();
+    }
+
+    @TruffleBoundary
+    TRegexStreamingSearchRootNode compileStreamingSearch() {
+        try {
+            createAST();
+            if (!TRegexDFAStreamBuffer.isSupportedEncoding(ast.getEncoding())) {
+                throw new UnsupportedRegexException("streaming search is not supported in encoding " + ast.getEncoding().getName());
+            }
+            if (ast.getRoot().isDead()) {
+                return new TRegexStreamingSearchRootNode(language, source, ast.getFlags(), null, null, null, null);
+            }
+            if (getDFABailoutReason(ast) != null) {
+                throw new UnsupportedRegexException("streaming search requires a DFA");
+            }
+            createNFA();
+            if (nfa.isDead()) {
+                return new TRegexStreamingSearchRootNode(language, source, ast.getFlags(), null, null, null, null);
+            }
+            root = new TRegexExecNode(ast, new TRegexNFAExecutorNode(nfa), null);
+            executorNodeForward = createStreamingDFAExecutor();
+            if (!executorNodeForward.isAnchored() && !(ast.getFlags().isSticky() && executorNodeForward.getPrefixLength() == 0)) {
+                executorNodeBackward = createDFAExecutor(nfa, false, false, false, false);
+            }
+            if (ast.getProperties().hasLookAroundAssertions()) {
+                executorNodeCaptureGroups = createDFAExecutor(nfa, true, false, true, false);
+            }
+            logAutomatonSizes(null);
+            return new TRegexStreamingSearchRootNode(language, source, ast.getFlags(), root, executorNodeForward, executorNodeBackward, executorNodeCaptureGroups);
+        } catch (UnsupportedRegexException e) {
+            e.setReason("TRegex: " + e.getReason());
+            e.setRegex(source);
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the reason why the given expression can't be transformed to a DFA, or {@code null} if
+     * it can.
+     */
+    private static String getDFABailoutReason(RegexAST ast) throws UnsupportedRegexException {
         RegexProperties p = ast.getProperties();
-        return ast.getNumberOfNodes() <= TRegexOptions.TRegexMaxParseTreeSizeForDFA &&
-                        ast.getNumberOfCaptureGroups() <= TRegexOptions.TRegexMaxNumberOfCaptureGroupsForDFA &&
-                        !(ast.getRoot().hasBackReferences() ||
-                                        p.hasLargeCountedRepetitions() ||
-                                        p.hasNegativeLookAheadAssertions() ||
-                                        p.hasNonLiteralLookBehindAssertions() ||
-                                        p.hasNegativeLookBehindAssertions() ||
-                                        ast.getRoot().hasQuantifiers());
+        if (ast.getNumberOfNodes() > TRegexOptions.TRegexMaxParseTreeSizeForDFA) {
+            return "parser tree too big";
+        }
+        if (ast.getNumberOfCaptureGroups() > TRegexOptions.TRegexMaxNumberOfCaptureGroupsForDFA) {
+            return "too many capture groups";
+        }
+        if (ast.getRoot().hasBackReferences()) {
+            return "back-references";
+        }
+        if (p.hasLargeCountedRepetitions()) {
+            return "large counted repetitions";
+        }
+        if (p.hasNegativeLookAheadAssertions()) {
+            return "negative look-ahead assertions";
+        }
+        if (p.hasNonLiteralLookBehindAssertions()) {
+            return "non-literal look-behind assertions";
+        }
+        if (p.hasNegativeLookBehindAssertions()) {
+            return "negative look-behind assertions";
+        }
+        if (ast.getRoot().hasQuantifiers()) {
+            return "bounded quantifiers that could not be unrolled";
+        }
+        return null;
     }
 
     private void createAST() {
@@ -288,6 +391,11 @@ public final class TRegexCompilationRequest {
                         source.getOptions().isRegressionTestMode(), nfaArg.getAst().getRoot().getMinPath()), null);
     }
 
+    private TRegexDFAExecutorNode createStreamingDFAExecutor() {
+        return createDFAExecutor(nfa, new TRegexDFAExecutorProperties(true, true, false, false,
+                        source.getOptions().isRegressionTestMode(), true, nfa.getAst().getRoot().getMinPath()), "streaming");
+    }
+
     public TRegexDFAExecutorNode createDFAExecutor(NFA nfaArg, TRegexDFAExecutorProperties props, String debugDumpName) {
         DFAGenerator dfa = new DFAGenerator(this, nfaArg, props, compilationBuffer);
         phaseStart(dfa.getDebugDumpName(debugDumpName) + " DFA");
@@ -295,6 +403,7 @@ public final class TRegexCompilationRequest {
         try {
             dfa.calcDFA();
             executorNode = dfa.createDFAExecutor();
+            lastDFATable = dfa.getDFATable();
         } finally {
             phaseEnd(dfa.getDebugDumpName(debugDumpName) + " DFA");
         }
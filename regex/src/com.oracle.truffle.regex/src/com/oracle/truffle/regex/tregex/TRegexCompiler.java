@@ -53,6 +53,9 @@ import com.oracle.truffle.regex.tregex.nfa.NFA;
 import com.oracle.truffle.regex.tregex.nodes.TRegexExecNode;
 import com.oracle.truffle.regex.tregex.nodes.TRegexExecNode.LazyCaptureGroupRegexSearchNode;
 import com.oracle.truffle.regex.tregex.nodes.dfa.TRegexDFAExecutorNode;
+import com.oracle.truffle.regex.tregex.nodes.dfa.TRegexDFAExecutorProperties;
+import com.oracle.truffle.regex.tregex.nodes.dfa.TRegexDFAParallelSearchNode;
+import com.oracle.truffle.regex.tregex.nodes.dfa.TRegexStreamingSearchRootNode;
 import com.oracle.truffle.regex.tregex.nodes.nfa.TRegexBacktrackingNFAExecutorNode;
 import com.oracle.truffle.regex.tregex.parser.flavors.RegexFlavorProcessor;
 import com.oracle.truffle.regex.tregex.util.DebugUtil;
@@ -91,8 +94,11 @@ public final class TRegexCompiler {
         if (flavorProcessor != null) {
             ecmascriptSource = flavorProcessor.toECMAScriptRegex();
         }
+        long startTime = System.nanoTime();
         TRegexCompilationRequest compReq = new TRegexCompilationRequest(language, ecmascriptSource);
         RegexExecNode execNode = compReq.compile();
+        // DFAs generated eagerly in the constructor of the exec node have already been accounted for
+        execNode.addCompilationTime(System.nanoTime() - startTime - execNode.getCompilationTime());
         if (flavorProcessor == null) {
             return new RegexObject(execNode, source, compReq.getAst().getFlags(), compReq.getAst().getNumberOfCaptureGroups(), compReq.getAst().getNamedCaputureGroups());
         } else {
@@ -100,11 +106,37 @@ public final class TRegexCompiler {
         }
     }
 
+    /**
+     * Compile a streaming search for the regular expression described in {@code source}. See
+     * {@link TRegexStreamingSearchRootNode}.
+     *
+     * @throws UnsupportedRegexException if the regular expression cannot be matched by a DFA.
+     */
+    @TruffleBoundary
+    public static TRegexStreamingSearchRootNode compileStreamingSearch(RegexLanguage language, RegexSource source) throws RegexSyntaxException {
+        RegexSource ecmascriptSource = source;
+        RegexFlavorProcessor flavorProcessor = source.getOptions().getFlavor() == null ? null : source.getOptions().getFlavor().forRegex(source);
+        if (flavorProcessor != null) {
+            ecmascriptSource = flavorProcessor.toECMAScriptRegex();
+        }
+        return new TRegexCompilationRequest(language, ecmascriptSource).compileStreamingSearch();
+    }
+
     @TruffleBoundary
     public static TRegexDFAExecutorNode compileEagerDFAExecutor(RegexLanguage language, RegexSource source) {
         return new TRegexCompilationRequest(language, source).compileEagerDFAExecutor();
     }
 
+    /**
+     * Compile a {@link TRegexDFAExecutorProperties#isStreaming() streaming} forward search DFA for
+     * the regular expression described in {@code source}, to be used in a
+     * {@link TRegexDFAParallelSearchNode}.
+     */
+    @TruffleBoundary
+    public static TRegexDFAExecutorNode compileParallelSearchDFAExecutor(RegexLanguage language, RegexSource source) {
+        return new TRegexCompilationRequest(language, source).compileParallelSearchDFAExecutor();
+    }
+
     @TruffleBoundary
     public static LazyCaptureGroupRegexSearchNode compileLazyDFAExecutor(RegexLanguage language, NFA nfa, TRegexExecNode rootNode, boolean allowSimpleCG) {
         return new TRegexCompilationRequest(language, nfa).compileLazyDFAExecutor(rootNode, allowSimpleCG);
@@ -0,0 +1,349 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.regex.tregex;
+
+import java.io.ByteArrayInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardCopyOption;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import org.graalvm.home.Version;
+import org.graalvm.nativeimage.ImageInfo;
+import org.graalvm.nativeimage.ProcessProperties;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.TruffleFile;
+import com.oracle.truffle.api.TruffleLanguage.Env;
+import com.oracle.truffle.regex.RegexLanguage;
+import com.oracle.truffle.regex.RegexOptions;
+import com.oracle.truffle.regex.RegexSource;
+import com.oracle.truffle.regex.result.PreCalculatedResultFactory;
+import com.oracle.truffle.regex.tregex.dfa.DFATable;
+import com.oracle.truffle.regex.tregex.util.Loggers;
+
+/**
+ * Persistent cache of the lazy DFAs generated in
+ * {@link TRegexCompilationRequest#compileLazyDFAExecutor}, enabled by
+ * {@link RegexOptions#getDFACacheDirectory() DFACacheDirectory}. Every cache entry is stored in a separate file,
+ * named after a hash of the regular expression's pattern, flags and options and the engine build.
+ * The full key is stored in the file as well, to guard against hash collisions.
+ * <p>
+ * Since development builds of different revisions share the same {@link Version}, the key also
+ * contains a fingerprint of the binary the engine was loaded from, see {@link #getBuildId()}.
+ * <p>
+ * The cache is best-effort: any I/O error is logged and treated like a cache miss. Entries that
+ * cannot be read are deleted.
+ */
+public final class TRegexDFACache {
+
+    private static final int MAGIC = 0x54524446;
+    private static final int FORMAT_VERSION = 2;
+    private static final String FILE_SUFFIX = ".tregexdfa";
+    /**
+     * Entries larger than this are not read, they cannot have been written by this engine.
+     */
+    private static final long MAX_ENTRY_SIZE = 1 << 26;
+
+    private static volatile String buildId;
+
+    private final Env env;
+    private final TruffleFile directory;
+
+    private TRegexDFACache(Env env, TruffleFile directory) {
+        this.env = env;
+        this.directory = directory;
+    }
+
+    /**
+     * Returns the cache for the directory given in the options of {@code source}, or {@code null}
+     * if the regular expression should not be cached.
+     */
+    @TruffleBoundary
+    public static TRegexDFACache get(RegexSource source) {
+        RegexOptions options = source.getOptions();
+        if (options.getDFACacheDirectory() == null || options.isDumpAutomata() || options.isStepExecution()) {
+            return null;
+        }
+        if (getBuildId() == null) {
+            Loggers.LOG_DFA_CACHE.fine(() -> "DFA cache disabled: cannot determine the TRegex binary");
+            return null;
+        }
+        Env env = RegexLanguage.getCurrentContext().getEnv();
+        try {
+            return new TRegexDFACache(env, env.getPublicTruffleFile(options.getDFACacheDirectory()));
+        } catch (RuntimeException e) {
+            // RuntimeExceptions may be thrown by TruffleFile access checks and invalid paths
+            Loggers.LOG_DFA_CACHE.fine(() -> "invalid DFA cache directory " + options.getDFACacheDirectory() + ": " + e);
+            return null;
+        }
+    }
+
+    public static final class Entry {
+
+        private final PreCalculatedResultFactory[] preCalculatedResults;
+        private final DFATable forward;
+        private final DFATable backward;
+        private final DFATable captureGroups;
+
+        public Entry(PreCalculatedResultFactory[] preCalculatedResults, DFATable forward, DFATable backward, DFATable captureGroups) {
+            assert forward != null;
+            this.preCalculatedResults = preCalculatedResults;
+            this.forward = forward;
+            this.backward = backward;
+            this.captureGroups = captureGroups;
+        }
+
+        public PreCalculatedResultFactory[] getPreCalculatedResults() {
+            return preCalculatedResults;
+        }
+
+        public DFATable getForward() {
+            return forward;
+        }
+
+        public DFATable getBackward() {
+            return backward;
+        }
+
+        public DFATable getCaptureGroups() {
+            return captureGroups;
+        }
+
+        private void write(DataOutputStream out) throws IOException {
+            out.writeBoolean(preCalculatedResults != null);
+            if (preCalculatedResults != null) {
+                out.writeInt(preCalculatedResults.length);
+                for (PreCalculatedResultFactory r : preCalculatedResults) {
+                    r.write(out);
+                }
+            }
+            forward.write(out);
+            writeNullable(out, backward);
+            writeNullable(out, captureGroups);
+        }
+
+        private static Entry read(DataInputStream in, boolean regressionTestMode) throws IOException {
+            PreCalculatedResultFactory[] preCalculatedResults = null;
+            if (in.readBoolean()) {
+                preCalculatedResults = new PreCalculatedResultFactory[DFATable.readLength(in, 8, TRegexOptions.TRegexTraceFinderMaxNumberOfResults)];
+                for (int i = 0; i < preCalculatedResults.length; i++) {
+                    preCalculatedResults[i] = PreCalculatedResultFactory.read(in);
+                }
+            }
+            DFATable forward = DFATable.read(in, regressionTestMode);
+            DFATable backward = readNullable(in, regressionTestMode);
+            return new Entry(preCalculatedResults, forward, backward, readNullable(in, regressionTestMode));
+        }
+
+        private static void writeNullable(DataOutputStream out, DFATable table) throws IOException {
+            out.writeBoolean(table != null);
+            if (table != null) {
+                table.write(out);
+            }
+        }
+
+        private static DFATable readNullable(DataInputStream in, boolean regressionTestMode) throws IOException {
+            return in.readBoolean() ? DFATable.read(in, regressionTestMode) : null;
+        }
+    }
+
+    @TruffleBoundary
+    public boolean contains(RegexSource source, boolean allowSimpleCG) {
+        try {
+            return getFile(createKey(source, allowSimpleCG)).isReadable();
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns the cached DFAs of the given regular expression, or {@code null} if there is no
+     * matching cache entry.
+     */
+    @TruffleBoundary
+    public Entry lookup(RegexSource source, boolean allowSimpleCG) {
+        String key = createKey(source, allowSimpleCG);
+        try {
+            TruffleFile file = getFile(key);
+            if (!file.isReadable()) {
+                return null;
+            }
+            if (file.size() > MAX_ENTRY_SIZE) {
+                delete(file);
+                return null;
+            }
+            // read the whole entry up front, so that DFATable.readLength can check array lengths
+            // against the number of remaining bytes
+            byte[] bytes = file.readAllBytes();
+            try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+                if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                    delete(file);
+                    return null;
+                }
+                if (!key.equals(readKey(in))) {
+                    // hash collision, keep the other regular expression's entry
+                    return null;
+                }
+                return Entry.read(in, source.getOptions().isRegressionTestMode());
+            } catch (IOException | RuntimeException e) {
+                // corrupted entries are either detected while reading them, or cause runtime
+                // exceptions when the DFA is created from them
+                Loggers.LOG_DFA_CACHE.fine(() -> "failed to read DFA cache entry for " + source + ": " + e);
+                delete(file);
+                return null;
+            }
+        } catch (IOException | RuntimeException e) {
+            // RuntimeExceptions may be thrown by TruffleFile access checks
+            Loggers.LOG_DFA_CACHE.fine(() -> "failed to open DFA cache entry for " + source + ": " + e);
+            return null;
+        }
+    }
+
+    @TruffleBoundary
+    public void store(RegexSource source, boolean allowSimpleCG, Entry entry) {
+        String key = createKey(source, allowSimpleCG);
+        TruffleFile tmp = null;
+        try {
+            directory.createDirectories();
+            tmp = env.createTempFile(directory, null, FILE_SUFFIX);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(tmp.newOutputStream()))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                writeKey(out, key);
+                entry.write(out);
+            }
+            // concurrent writers of the same entry produce identical files, so it doesn't matter
+            // which one wins
+            tmp.move(getFile(key), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            tmp = null;
+        } catch (IOException | RuntimeException e) {
+            Loggers.LOG_DFA_CACHE.fine(() -> "failed to write DFA cache entry for " + source + ": " + e);
+        } finally {
+            if (tmp != null) {
+                delete(tmp);
+            }
+        }
+    }
+
+    /**
+     * Keys contain the whole pattern, so they can be longer than the 64 KB supported by
+     * {@link DataOutputStream#writeUTF(String)}.
+     */
+    private static void writeKey(DataOutputStream out, String key) throws IOException {
+        DFATable.writeByteArray(out, key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String readKey(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[DFATable.readLength(in, 1, Integer.MAX_VALUE)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void delete(TruffleFile file) {
+        try {
+            file.delete();
+        } catch (IOException | RuntimeException e) {
+            // ignore
+        }
+    }
+
+    private TruffleFile getFile(String key) {
+        return directory.resolve(sha256(key) + FILE_SUFFIX);
+    }
+
+    private static String createKey(RegexSource source, boolean allowSimpleCG) {
+        return Version.getCurrent() + "," + getBuildId() + ",format=" + FORMAT_VERSION + "," + source.getOptions() + source.getEncoding().getName() + ",allowSimpleCG=" + allowSimpleCG + "/" + source.getPattern() + "/" + source.getFlags();
+    }
+
+    /**
+     * Returns a fingerprint of the binary containing this class: the path, size and modification
+     * time of the native image executable or of the jar file TRegex was loaded from, or
+     * {@code null} if the binary cannot be determined. The result is computed lazily, so that it is
+     * never baked into a native image.
+     */
+    private static String getBuildId() {
+        String id = buildId;
+        if (id == null) {
+            id = computeBuildId();
+            buildId = id == null ? "" : id;
+        }
+        return id.isEmpty() ? null : id;
+    }
+
+    private static String computeBuildId() {
+        try {
+            File binary;
+            if (ImageInfo.inImageRuntimeCode()) {
+                binary = new File(ProcessProperties.getExecutableName());
+            } else {
+                CodeSource codeSource = TRegexDFACache.class.getProtectionDomain().getCodeSource();
+                if (codeSource == null || codeSource.getLocation() == null) {
+                    return null;
+                }
+                binary = new File(codeSource.getLocation().toURI());
+            }
+            return binary.getPath() + ":" + binary.length() + ":" + binary.lastModified();
+        } catch (URISyntaxException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static String sha256(String key) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                sb.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
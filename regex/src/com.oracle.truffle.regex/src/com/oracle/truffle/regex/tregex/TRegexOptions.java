@@ -47,6 +47,7 @@ import com.oracle.truffle.regex.tregex.nfa.NFAGenerator;
 import com.oracle.truffle.regex.tregex.nfa.NFATraceFinderGenerator;
 import com.oracle.truffle.regex.tregex.nodes.dfa.DFACaptureGroupPartialTransition;
 import com.oracle.truffle.regex.tregex.nodes.dfa.TRegexDFAExecutorNode;
+import com.oracle.truffle.regex.tregex.nodes.dfa.TRegexDFAParallelSearchNode;
 import com.oracle.truffle.regex.tregex.nodes.dfa.TraceFinderDFAStateNode;
 import com.oracle.truffle.regex.tregex.nodesplitter.DFANodeSplit;
 import com.oracle.truffle.regex.tregex.parser.RegexParser;
@@ -200,6 +201,29 @@ public class TRegexOptions {
      */
     public static final int TRegexMaxNumberOfNFAStatesInOneDFATransition = 255;
 
+    /**
+     * Minimum number of characters a lazy DFA search must be able to process before it is split
+     * into segments that are searched in parallel (see {@link TRegexDFAParallelSearchNode}).
+     */
+    public static final int TRegexParallelSearchThreshold = 1 << 22;
+
+    /**
+     * Minimum number of characters per segment of a parallel DFA search.
+     */
+    public static final int TRegexParallelSearchMinSegmentLength = 1 << 18;
+
+    /**
+     * Number of characters a {@link TRegexDFAParallelSearchNode} scans in front of a segment to
+     * guess the DFA state the search will be in when it reaches the segment.
+     */
+    public static final int TRegexParallelSearchWarmupLength = 256;
+
+    /**
+     * Number of characters a speculative segment search of a {@link TRegexDFAParallelSearchNode}
+     * processes between two checks whether the whole search has already finished.
+     */
+    public static final int TRegexParallelSearchCancellationCheckInterval = 1 << 16;
+
     static {
         assert TRegexTraceFinderMaxNumberOfResults <= 254;
         assert TRegexParserTreeMaxSize <= Integer.MAX_VALUE;
@@ -211,5 +235,6 @@ public class TRegexOptions {
         assert TRegexMaxNumberOfCaptureGroupsForDFA <= 127;
         assert TRegexMaxNumberOfNFAStatesInOneDFATransition <= 255;
         assert TRegexRangeToBitSetConversionThreshold > 1;
+        assert TRegexParallelSearchThreshold >= 2 * TRegexParallelSearchMinSegmentLength;
     }
 }
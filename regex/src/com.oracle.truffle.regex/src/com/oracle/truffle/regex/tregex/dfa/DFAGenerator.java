@@ -57,7 +57,6 @@ import com.oracle.truffle.regex.RegexOptions;
 import com.oracle.truffle.regex.UnsupportedRegexException;
 import com.oracle.truffle.regex.charset.CodePointSet;
 import com.oracle.truffle.regex.charset.CodePointSetAccumulator;
-import com.oracle.truffle.regex.charset.CompressedCodePointSet;
 import com.oracle.truffle.regex.charset.Constants;
 import com.oracle.truffle.regex.result.PreCalculatedResultFactory;
 import com.oracle.truffle.regex.tregex.TRegexCompilationRequest;
@@ -66,29 +65,20 @@ import com.oracle.truffle.regex.tregex.automaton.StateSet;
 import com.oracle.truffle.regex.tregex.automaton.TransitionBuilder;
 import com.oracle.truffle.regex.tregex.automaton.TransitionSet;
 import com.oracle.truffle.regex.tregex.buffer.CompilationBuffer;
-import com.oracle.truffle.regex.tregex.buffer.IntArrayBuffer;
 import com.oracle.truffle.regex.tregex.buffer.ObjectArrayBuffer;
-import com.oracle.truffle.regex.tregex.buffer.ShortArrayBuffer;
 import com.oracle.truffle.regex.tregex.nfa.NFA;
 import com.oracle.truffle.regex.tregex.nfa.NFAState;
 import com.oracle.truffle.regex.tregex.nfa.NFAStateTransition;
-import com.oracle.truffle.regex.tregex.nodes.dfa.AllTransitionsInOneTreeMatcher;
-import com.oracle.truffle.regex.tregex.nodes.dfa.BackwardDFAStateNode;
-import com.oracle.truffle.regex.tregex.nodes.dfa.CGTrackingDFAStateNode;
 import com.oracle.truffle.regex.tregex.nodes.dfa.DFAAbstractStateNode;
 import com.oracle.truffle.regex.tregex.nodes.dfa.DFACaptureGroupLazyTransition;
 import com.oracle.truffle.regex.tregex.nodes.dfa.DFACaptureGroupPartialTransition;
 import com.oracle.truffle.regex.tregex.nodes.dfa.DFACaptureGroupPartialTransition.IndexOperation;
-import com.oracle.truffle.regex.tregex.nodes.dfa.DFAFindInnerLiteralStateNode;
-import com.oracle.truffle.regex.tregex.nodes.dfa.DFAInitialStateNode;
 import com.oracle.truffle.regex.tregex.nodes.dfa.DFASimpleCG;
 import com.oracle.truffle.regex.tregex.nodes.dfa.DFASimpleCGTransition;
 import com.oracle.truffle.regex.tregex.nodes.dfa.DFAStateNode;
-import com.oracle.truffle.regex.tregex.nodes.dfa.Matchers;
 import com.oracle.truffle.regex.tregex.nodes.dfa.TRegexDFAExecutorDebugRecorder;
 import com.oracle.truffle.regex.tregex.nodes.dfa.TRegexDFAExecutorNode;
 import com.oracle.truffle.regex.tregex.nodes.dfa.TRegexDFAExecutorProperties;
-import com.oracle.truffle.regex.tregex.nodes.dfa.TraceFinderDFAStateNode;
 import com.oracle.truffle.regex.tregex.nodesplitter.DFANodeSplit;
 import com.oracle.truffle.regex.tregex.nodesplitter.DFANodeSplitBailoutException;
 import com.oracle.truffle.regex.tregex.parser.Counter;
@@ -100,11 +90,9 @@ import com.oracle.truffle.regex.tregex.parser.ast.RegexASTNode;
 import com.oracle.truffle.regex.tregex.parser.ast.Sequence;
 import com.oracle.truffle.regex.tregex.parser.ast.visitors.AddToSetVisitor;
 import com.oracle.truffle.regex.tregex.string.Encodings.Encoding;
-import com.oracle.truffle.regex.tregex.util.MathUtil;
 import com.oracle.truffle.regex.tregex.util.json.Json;
 import com.oracle.truffle.regex.tregex.util.json.JsonConvertible;
 import com.oracle.truffle.regex.tregex.util.json.JsonValue;
-import com.oracle.truffle.regex.util.BitSets;
 import com.oracle.truffle.regex.util.TBitSet;
 
 public final class DFAGenerator implements JsonConvertible {
@@ -140,9 +128,8 @@ public final class DFAGenerator implements JsonConvertible {
 
     private List<DFAStateTransitionBuilder[]> bfsTraversalCur;
     private List<DFAStateTransitionBuilder[]> bfsTraversalNext;
-    private EconomicMap<Integer, DFAAbstractStateNode> stateReplacements;
-
-    private final Matchers.Builder matchersBuilder;
+    private EconomicMap<Integer, DFATable.State> stateReplacements;
+    private DFATable dfaTable;
 
     public DFAGenerator(TRegexCompilationRequest compilationReqest, NFA nfa, TRegexDFAExecutorProperties executorProps, CompilationBuffer compilationBuffer) {
         this.compilationReqest = compilationReqest;
@@ -162,7 +149,6 @@ public final class DFAGenerator implements JsonConvertible {
         }
         assert !nfa.isDead();
         this.canonicalizer = new DFATransitionCanonicalizer(this);
-        this.matchersBuilder = nfa.getAst().getEncoding().createMatchersBuilder();
     }
 
     public NFA getNfa() {
@@ -303,6 +289,26 @@ public final class DFAGenerator implements JsonConvertible {
      */
     @TruffleBoundary
     public TRegexDFAExecutorNode createDFAExecutor() {
+        DFAAbstractStateNode[] states = getDFATable().createStateNodes(nfa.getAst(), compilationReqest.getRoot(), compilationBuffer);
+        if (TRegexOptions.TRegexEnableNodeSplitter) {
+            states = tryMakeReducible(states);
+        }
+        return new TRegexDFAExecutorNode(executorProps, maxNumberOfNfaStates, states, captureGroupTransitions, TRegexDFAExecutorDebugRecorder.create(getOptions(), this));
+    }
+
+    /**
+     * Transforms the generator's DFA representation to a {@link DFATable}. Make sure to calculate
+     * the DFA with {@link #calcDFA()} before calling this method!
+     */
+    @TruffleBoundary
+    public DFATable getDFATable() {
+        if (dfaTable == null) {
+            dfaTable = createDFATable();
+        }
+        return dfaTable;
+    }
+
+    private DFATable createDFATable() {
         if (isGenericCG()) {
             int maxNumberOfEntryStateSuccessors = 0;
             for (DFAStateNodeBuilder entryState : entryStates) {
@@ -321,8 +327,7 @@ public final class DFAGenerator implements JsonConvertible {
             registerCGTransition(emptyInitialTransition);
             initialCGTransition.setLazyTransition(emptyInitialTransition);
         }
-        DFAAbstractStateNode[] states = createDFAExecutorStates();
-        assert states[0] == null;
+        DFATable.State[] states = createDFATableStates();
         short[] entryStateIDs = new short[entryStates.length];
         for (int i = 0; i < entryStates.length; i++) {
             if (entryStates[i] == null) {
@@ -331,13 +336,9 @@ public final class DFAGenerator implements JsonConvertible {
                 entryStateIDs[i] = (short) entryStates[i].getId();
             }
         }
-        states[0] = new DFAInitialStateNode(entryStateIDs, isSearching(), isGenericCG());
-        if (TRegexOptions.TRegexEnableNodeSplitter) {
-            states = tryMakeReducible(states);
-        }
         executorProps.setSimpleCG(doSimpleCG);
         executorProps.setSimpleCGMustCopy(simpleCGMustCopy);
-        return new TRegexDFAExecutorNode(executorProps, maxNumberOfNfaStates, states, captureGroupTransitions, TRegexDFAExecutorDebugRecorder.create(getOptions(), this));
+        return new DFATable(executorProps, nfa.isTraceFinderNFA(), maxNumberOfNfaStates, entryStateIDs, captureGroupTransitions, states);
     }
 
     private void createInitialStatesForward() {
@@ -566,7 +567,7 @@ public final class DFAGenerator implements JsonConvertible {
                         (props.hasAlternations() || props.hasLookAroundAssertions());
 
         // inner-literal-optimization
-        if (isForward() && isSearching() && !isGenericCG() && !nfa.getAst().getFlags().isSticky() && props.hasInnerLiteral()) {
+        if (isForward() && isSearching() && !isGenericCG() && !executorProps.isStreaming() && !nfa.getAst().getFlags().isSticky() && props.hasInnerLiteral()) {
             int literalEnd = props.getInnerLiteralEnd();
             int literalStart = props.getInnerLiteralStart();
             Sequence rootSeq = nfa.getAst().getRoot().getFirstAlternative();
@@ -642,6 +643,7 @@ public final class DFAGenerator implements JsonConvertible {
             assert literalLastDFAState != null;
 
             TRegexDFAExecutorNode prefixMatcher = null;
+            DFATable prefixMatcherTable = null;
 
             if (literalStart > 0) {
                 /*
@@ -720,6 +722,7 @@ public final class DFAGenerator implements JsonConvertible {
                 nfa.getReverseUnAnchoredEntry().setSource(literalFirstState);
                 prefixMatcher = compilationReqest.createDFAExecutor(nfa, new TRegexDFAExecutorProperties(false, false, false, doSimpleCG, getOptions().isRegressionTestMode(),
                                 rootSeq.getTerms().get(literalStart - 1).getMinPath()), "innerLiteralPrefix");
+                prefixMatcherTable = compilationReqest.getLastDFATable();
                 prefixMatcher.setRoot(compilationReqest.getRoot());
                 prefixMatcher.getProperties().setSimpleCGMustCopy(false);
                 doSimpleCG = doSimpleCG && prefixMatcher.isSimpleCG();
@@ -728,8 +731,8 @@ public final class DFAGenerator implements JsonConvertible {
                 nfa.getReverseUnAnchoredEntry().setSource(reverseUnAnchoredInitialState);
             }
 
-            registerStateReplacement(unanchoredInitialState.getId(), new DFAFindInnerLiteralStateNode((short) unanchoredInitialState.getId(),
-                            new short[]{(short) literalLastDFAState.getId()}, nfa.getAst().extractInnerLiteral(), prefixMatcher));
+            registerStateReplacement(unanchoredInitialState.getId(), DFATable.State.createInnerLiteralState((short) unanchoredInitialState.getId(),
+                            (short) literalLastDFAState.getId(), prefixMatcherTable, prefixMatcher));
         }
     }
 
@@ -762,18 +765,18 @@ public final class DFAGenerator implements JsonConvertible {
         return true;
     }
 
-    private void registerStateReplacement(int id, DFAAbstractStateNode replacement) {
+    private void registerStateReplacement(int id, DFATable.State replacement) {
         if (stateReplacements == null) {
             stateReplacements = EconomicMap.create();
         }
         stateReplacements.put(id, replacement);
     }
 
-    private DFAAbstractStateNode getReplacement(int id) {
+    private DFATable.State getReplacement(int id) {
         return stateReplacements == null ? null : stateReplacements.get(id);
     }
 
-    private DFAAbstractStateNode[] createDFAExecutorStates() {
+    private DFATable.State[] createDFATableStates() {
         if (isGenericCG()) {
             for (DFAStateNodeBuilder s : stateMap.values()) {
                 if (s.isInitialState()) {
@@ -785,35 +788,27 @@ public final class DFAGenerator implements JsonConvertible {
             }
         }
         boolean utf16MustDecode = false;
-        DFAAbstractStateNode[] ret = new DFAAbstractStateNode[stateMap.values().size() + 1];
+        DFATable.State[] ret = new DFATable.State[stateMap.values().size() + 1];
         for (DFAStateNodeBuilder s : stateMap.values()) {
-            matchersBuilder.reset(s.getSuccessors().length);
             assert s.getId() <= Short.MAX_VALUE;
             short id = (short) s.getId();
-            DFAAbstractStateNode replacement = getReplacement(id);
+            DFATable.State replacement = getReplacement(id);
             if (replacement != null) {
                 ret[id] = replacement;
                 continue;
             }
             DFASimpleCGTransition[] simpleCGTransitions = doSimpleCG ? new DFASimpleCGTransition[s.getSuccessors().length] : null;
-            int nRanges = 0;
-            int estimatedTransitionsCost = 0;
+            CodePointSet[] transitionSets = new CodePointSet[s.getSuccessors().length];
+            short noMatchSuccessor = -1;
             boolean coversCharSpace = s.coversFullCharSpace(compilationBuffer);
             for (int i = 0; i < s.getSuccessors().length; i++) {
                 DFAStateTransitionBuilder t = s.getSuccessors()[i];
                 CodePointSet cps = t.getCodePointSet();
+                transitionSets[i] = cps;
                 utf16MustDecode |= Constants.ASTRAL_SYMBOLS_AND_LONE_SURROGATES.intersects(cps);
                 if (i == s.getSuccessors().length - 1 && (coversCharSpace || (pruneUnambiguousPaths && !s.isFinalStateSuccessor()))) {
-                    // replace the last matcher with an AnyMatcher, since it must always cover the
-                    // remaining input space
-                    matchersBuilder.setNoMatchSuccessor((short) i);
-                } else {
-                    nRanges += cps.size();
-                    getEncoding().createMatcher(matchersBuilder, i, cps, compilationBuffer);
-
+                    noMatchSuccessor = (short) i;
                 }
-                estimatedTransitionsCost += matchersBuilder.estimatedCost(i);
-
                 if (doSimpleCG) {
                     assert t.getTransitionSet().size() <= 2;
                     assert t.getTransitionSet().size() == 1 || t.getTransitionSet().getTransition(0) != nfa.getInitialLoopBackTransition();
@@ -821,26 +816,9 @@ public final class DFAGenerator implements JsonConvertible {
                 }
             }
 
-            Matchers matchers = null;
-            // Very conservative heuristic for whether we should use AllTransitionsInOneTreeMatcher.
-            // TODO: Potential benefits of this should be further explored.
-            AllTransitionsInOneTreeMatcher allTransitionsInOneTreeMatcher = null;
-            boolean useTreeTransitionMatcher = nRanges > 1 && MathUtil.log2ceil(nRanges + 2) * 8 < estimatedTransitionsCost;
-            if (useTreeTransitionMatcher) {
-                if (getOptions().isRegressionTestMode()) {
-                    // in regression test mode, we compare results of regular matchers and
-                    // AllTransitionsInOneTreeMatcher
-                    matchers = getEncoding().toMatchers(matchersBuilder);
-                }
-                allTransitionsInOneTreeMatcher = createAllTransitionsInOneTreeMatcher(s, coversCharSpace);
-            } else {
-                matchers = getEncoding().toMatchers(matchersBuilder);
-            }
-
             short[] successors = s.getNumberOfSuccessors() > 0 ? new short[s.getNumberOfSuccessors()] : EMPTY_SHORT_ARRAY;
             short[] cgTransitions = null;
             short[] cgPrecedingTransitions = null;
-            DFAStateNode.LoopOptimizationNode loopOptimizationNode = null;
             if (isGenericCG()) {
                 cgTransitions = new short[s.getSuccessors().length];
                 DFAStateTransitionBuilder[] precedingTransitions = s.getPredecessors();
@@ -850,16 +828,8 @@ public final class DFAGenerator implements JsonConvertible {
                     cgPrecedingTransitions[i] = ((DFACaptureGroupTransitionBuilder) precedingTransitions[i]).toLazyTransition(compilationBuffer).getId();
                 }
             }
-            short loopToSelf = -1;
             for (int i = 0; i < successors.length - (s.hasBackwardPrefixState() ? 1 : 0); i++) {
                 successors[i] = (short) s.getSuccessors()[i].getTarget().getId();
-                if (successors[i] == id) {
-                    loopToSelf = (short) i;
-                    CodePointSet loopMB = s.getSuccessors()[i].getCodePointSet();
-                    if (coversCharSpace && !loopMB.matchesEverything(getEncoding()) && loopMB.inverseValueCount(getEncoding()) <= 4) {
-                        loopOptimizationNode = getEncoding().extractLoopOptNode(loopMB);
-                    }
-                }
                 assert successors[i] >= 0 && successors[i] < ret.length;
                 if (isGenericCG()) {
                     final DFACaptureGroupLazyTransition transition = ((DFACaptureGroupTransitionBuilder) s.getSuccessors()[i]).toLazyTransition(compilationBuffer);
@@ -877,20 +847,14 @@ public final class DFAGenerator implements JsonConvertible {
                                 createSimpleCGTransition(s.getUnAnchoredFinalStateTransition()),
                                 createSimpleCGTransition(s.getAnchoredFinalStateTransition()));
             }
-            DFAStateNode stateNode;
+            DFACaptureGroupPartialTransition anchoredFinalCGTransition = null;
+            DFACaptureGroupPartialTransition unAnchoredFinalCGTransition = null;
             if (isGenericCG()) {
-                stateNode = new CGTrackingDFAStateNode(id, flags, loopToSelf, loopOptimizationNode, successors, matchers, allTransitionsInOneTreeMatcher, cgTransitions, cgPrecedingTransitions,
-                                createCGFinalTransition(s.getAnchoredFinalStateTransition()),
-                                createCGFinalTransition(s.getUnAnchoredFinalStateTransition()));
-            } else if (nfa.isTraceFinderNFA()) {
-                stateNode = new TraceFinderDFAStateNode(id, flags, loopToSelf, loopOptimizationNode, successors, matchers,
-                                allTransitionsInOneTreeMatcher, s.getPreCalculatedUnAnchoredResult(), s.getPreCalculatedAnchoredResult());
-            } else if (isForward()) {
-                stateNode = new DFAStateNode(id, flags, loopToSelf, loopOptimizationNode, successors, matchers, simpleCG, allTransitionsInOneTreeMatcher);
-            } else {
-                stateNode = new BackwardDFAStateNode(id, flags, loopToSelf, loopOptimizationNode, successors, matchers, simpleCG, allTransitionsInOneTreeMatcher);
+                anchoredFinalCGTransition = createCGFinalTransition(s.getAnchoredFinalStateTransition());
+                unAnchoredFinalCGTransition = createCGFinalTransition(s.getUnAnchoredFinalStateTransition());
             }
-            ret[id] = stateNode;
+            ret[id] = DFATable.State.create(id, flags, successors, transitionSets, noMatchSuccessor, coversCharSpace, simpleCG, cgTransitions, cgPrecedingTransitions,
+                            anchoredFinalCGTransition, unAnchoredFinalCGTransition, s.getPreCalculatedUnAnchoredResult(), s.getPreCalculatedAnchoredResult());
         }
         return ret;
     }
@@ -899,115 +863,6 @@ public final class DFAGenerator implements JsonConvertible {
         return DFASimpleCGTransition.create(nfaTransition, isForward() && nfaTransition != null && nfaTransition.getSource() == nfa.getInitialLoopBackTransition().getSource());
     }
 
-    /**
-     * Generate a new {@link AllTransitionsInOneTreeMatcher} from a given {@code state}.
-     */
-    private AllTransitionsInOneTreeMatcher createAllTransitionsInOneTreeMatcher(DFAStateNodeBuilder state, boolean coversCharSpace) {
-        DFAStateTransitionBuilder[] transitions = state.getSuccessors();
-        // convert all transition matchers to CompressedCodePointSets
-        CompressedCodePointSet[] ccpss = new CompressedCodePointSet[coversCharSpace ? transitions.length - 1 : transitions.length];
-        for (int i = 0; i < ccpss.length; i++) {
-            ccpss[i] = CompressedCodePointSet.create(transitions[i].getCodePointSet(), compilationBuffer);
-        }
-        IntArrayBuffer ranges = compilationBuffer.getIntRangesBuffer1();
-        IntArrayBuffer iterators = compilationBuffer.getIntRangesBuffer2().asFixedSizeArray(ccpss.length, 0);
-        IntArrayBuffer byteRanges = compilationBuffer.getIntRangesBuffer3();
-        ShortArrayBuffer successors = compilationBuffer.getShortArrayBuffer1();
-        ShortArrayBuffer byteSuccessors = compilationBuffer.getShortArrayBuffer2();
-        ObjectArrayBuffer<long[]> byteBitSets = compilationBuffer.getObjectBuffer1();
-        ObjectArrayBuffer<AllTransitionsInOneTreeMatcher.AllTransitionsInOneTreeLeafMatcher> byteMatchers = compilationBuffer.getObjectBuffer2();
-        short noMatchSuccessor = (short) (coversCharSpace ? transitions.length - 1 : -1);
-        int lastHi = 0;
-        // iterate all compressed code point sets in parallel, using the temporary "iterators" array
-        while (true) {
-            int minLo = Integer.MAX_VALUE;
-            int minCPS = -1;
-            // find the next lowest range of all code point sets
-            for (int i = 0; i < ccpss.length; i++) {
-                if (iterators.get(i) < ccpss[i].size() && ccpss[i].getLo(iterators.get(i)) < minLo) {
-                    minLo = ccpss[i].getLo(iterators.get(i));
-                    minCPS = i;
-                }
-            }
-            if (minCPS == -1) {
-                // all code point sets are exhausted, finish
-                break;
-            }
-            if (minLo != lastHi) {
-                // there is a gap between the last and current processed range, add a no-match
-                // successor
-                successors.add(noMatchSuccessor);
-                ranges.add(minLo);
-            }
-            lastHi = ccpss[minCPS].getHi(iterators.get(minCPS)) + 1;
-
-            if (ccpss[minCPS].hasBitSet(iterators.get(minCPS))) {
-                // the current range is subdivided into a bit set, generate a corresponding
-                // AllTransitionsInOneTreeLeafMatcher
-                byteRanges.clear();
-                byteSuccessors.clear();
-                byteBitSets.clear();
-                // find all bit-set ranges that intersect with the current range, and extend the
-                // current range to fit all of these interleaved bit sets.
-                for (int i = 0; i < ccpss.length; i++) {
-                    if (iterators.get(i) < ccpss[i].size() && ccpss[i].hasBitSet(iterators.get(i)) && BitSets.highByte(ccpss[i].getLo(iterators.get(i))) == BitSets.highByte(lastHi - 1)) {
-                        byteBitSets.add(ccpss[i].getBitSet(iterators.get(i)));
-                        lastHi = Math.max(lastHi, ccpss[i].getHi(iterators.get(i)) + 1);
-                        iterators.inc(i);
-                        byteSuccessors.add((short) i);
-                    }
-                }
-                int byteLastHi = minLo;
-                // find all regular ranges that are contained in the current bit-set range, and add
-                // them to the AllTransitionsInOneTreeLeafMatcher as well
-                while (true) {
-                    int byteMinLo = lastHi;
-                    int byteMinCPS = -1;
-                    for (int i = 0; i < ccpss.length; i++) {
-                        if (iterators.get(i) < ccpss[i].size() && ccpss[i].getLo(iterators.get(i)) < byteMinLo) {
-                            assert !ccpss[i].hasBitSet(iterators.get(i));
-                            assert ccpss[i].getHi(iterators.get(i)) < lastHi;
-                            byteMinLo = ccpss[i].getLo(iterators.get(i));
-                            byteMinCPS = i;
-                        }
-                    }
-                    if (byteMinCPS == -1) {
-                        break;
-                    }
-                    if (byteMinLo != byteLastHi) {
-                        // there is a gap between the last and current processed range, add a
-                        // no-match successor
-                        byteSuccessors.add(noMatchSuccessor);
-                        byteRanges.add(byteMinLo);
-                    }
-                    byteSuccessors.add((short) byteMinCPS);
-                    byteLastHi = ccpss[byteMinCPS].getHi(iterators.get(byteMinCPS)) + 1;
-                    if (byteLastHi < lastHi) {
-                        byteRanges.add(byteLastHi);
-                    }
-                    iterators.inc(byteMinCPS);
-                }
-                if (byteLastHi != lastHi) {
-                    byteSuccessors.add(noMatchSuccessor);
-                }
-                successors.add((short) ((byteMatchers.length() + 2) * -1));
-                byteMatchers.add(new AllTransitionsInOneTreeMatcher.AllTransitionsInOneTreeLeafMatcher(
-                                byteBitSets.toArray(new long[byteBitSets.length()][]), byteSuccessors.toArray(), byteRanges.toArray()));
-            } else {
-                successors.add((short) minCPS);
-                iterators.inc(minCPS);
-            }
-            if (lastHi <= getEncoding().getMaxValue()) {
-                ranges.add(lastHi);
-            }
-        }
-        if (lastHi != getEncoding().getMaxValue() + 1) {
-            successors.add(noMatchSuccessor);
-        }
-        return new AllTransitionsInOneTreeMatcher(ranges.toArray(), successors.toArray(),
-                        byteMatchers.toArray(new AllTransitionsInOneTreeMatcher.AllTransitionsInOneTreeLeafMatcher[byteMatchers.length()]));
-    }
-
     private void registerCGTransition(DFACaptureGroupLazyTransition cgTransition) {
         assert captureGroupTransitions[cgTransition.getId()] == null;
         captureGroupTransitions[cgTransition.getId()] = cgTransition;
@@ -0,0 +1,603 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.regex.tregex.dfa;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.oracle.truffle.regex.charset.CodePointSet;
+import com.oracle.truffle.regex.charset.CompressedCodePointSet;
+import com.oracle.truffle.regex.tregex.buffer.CompilationBuffer;
+import com.oracle.truffle.regex.tregex.buffer.IntArrayBuffer;
+import com.oracle.truffle.regex.tregex.buffer.ObjectArrayBuffer;
+import com.oracle.truffle.regex.tregex.buffer.ShortArrayBuffer;
+import com.oracle.truffle.regex.tregex.nodes.TRegexExecNode;
+import com.oracle.truffle.regex.tregex.nodes.dfa.AllTransitionsInOneTreeMatcher;
+import com.oracle.truffle.regex.tregex.nodes.dfa.BackwardDFAStateNode;
+import com.oracle.truffle.regex.tregex.nodes.dfa.CGTrackingDFAStateNode;
+import com.oracle.truffle.regex.tregex.nodes.dfa.DFAAbstractStateNode;
+import com.oracle.truffle.regex.tregex.nodes.dfa.DFACaptureGroupLazyTransition;
+import com.oracle.truffle.regex.tregex.nodes.dfa.DFACaptureGroupPartialTransition;
+import com.oracle.truffle.regex.tregex.nodes.dfa.DFAFindInnerLiteralStateNode;
+import com.oracle.truffle.regex.tregex.nodes.dfa.DFAInitialStateNode;
+import com.oracle.truffle.regex.tregex.nodes.dfa.DFASimpleCG;
+import com.oracle.truffle.regex.tregex.nodes.dfa.DFASimpleCGTransition;
+import com.oracle.truffle.regex.tregex.nodes.dfa.DFAStateNode;
+import com.oracle.truffle.regex.tregex.nodes.dfa.Matchers;
+import com.oracle.truffle.regex.tregex.nodes.dfa.TRegexDFAExecutorNode;
+import com.oracle.truffle.regex.tregex.nodes.dfa.TRegexDFAExecutorProperties;
+import com.oracle.truffle.regex.tregex.nodes.dfa.TraceFinderDFAStateNode;
+import com.oracle.truffle.regex.tregex.parser.ast.RegexAST;
+import com.oracle.truffle.regex.tregex.string.Encodings.Encoding;
+import com.oracle.truffle.regex.tregex.util.MathUtil;
+import com.oracle.truffle.regex.util.BitSets;
+
+/**
+ * Flat representation of a DFA generated by {@link DFAGenerator}, containing everything needed to
+ * create the DFA's {@link TRegexDFAExecutorNode}. Transitions are stored as plain
+ * {@link CodePointSet}s, the concrete matchers are created in {@link #createStateNodes}.
+ * <p>
+ * A {@link DFATable} does not reference the NFA or any other compilation data structure, so it can
+ * be written to a byte stream with {@link #write(DataOutput)} and read back with
+ * {@link #read(DataInput, boolean)}. This is used by
+ * {@link com.oracle.truffle.regex.tregex.TRegexDFACache} to skip DFA generation for regular
+ * expressions that have been compiled before.
+ */
+public final class DFATable {
+
+    private static final byte KIND_STATE = 0;
+    private static final byte KIND_INNER_LITERAL = 1;
+
+    /**
+     * Upper bound for the length of the serialized byte arrays, which only contain capture group
+     * indices and operations on them.
+     */
+    private static final int MAX_BYTE_ARRAY_LENGTH = 1 << 16;
+
+    private final TRegexDFAExecutorProperties props;
+    private final boolean traceFinder;
+    private final int maxNumberOfNfaStates;
+    private final short[] entryStateIDs;
+    private final DFACaptureGroupLazyTransition[] cgTransitions;
+    private final State[] states;
+
+    DFATable(TRegexDFAExecutorProperties props, boolean traceFinder, int maxNumberOfNfaStates, short[] entryStateIDs, DFACaptureGroupLazyTransition[] cgTransitions, State[] states) {
+        assert states[0] == null;
+        this.props = props;
+        this.traceFinder = traceFinder;
+        this.maxNumberOfNfaStates = maxNumberOfNfaStates;
+        this.entryStateIDs = entryStateIDs;
+        this.cgTransitions = cgTransitions;
+        this.states = states;
+    }
+
+    public TRegexDFAExecutorProperties getProperties() {
+        return props;
+    }
+
+    public int getMaxNumberOfNfaStates() {
+        return maxNumberOfNfaStates;
+    }
+
+    public DFACaptureGroupLazyTransition[] getCGTransitions() {
+        return cgTransitions;
+    }
+
+    /**
+     * Creates a new {@link TRegexDFAExecutorNode} from this table.
+     *
+     * @param ast the AST of the regular expression this DFA was generated from.
+     * @param root the root node the executor will belong to.
+     */
+    public TRegexDFAExecutorNode createExecutor(RegexAST ast, TRegexExecNode root, CompilationBuffer compilationBuffer) {
+        return new TRegexDFAExecutorNode(props, maxNumberOfNfaStates, createStateNodes(ast, root, compilationBuffer), cgTransitions);
+    }
+
+    /**
+     * Creates the state nodes of the executor described by this table. The resulting array is
+     * indexed by state ID, the {@link DFAInitialStateNode} is always at index {@code 0}.
+     */
+    public DFAAbstractStateNode[] createStateNodes(RegexAST ast, TRegexExecNode root, CompilationBuffer compilationBuffer) {
+        Encoding encoding = ast.getEncoding();
+        Matchers.Builder matchersBuilder = encoding.createMatchersBuilder();
+        DFAAbstractStateNode[] ret = new DFAAbstractStateNode[states.length];
+        ret[0] = new DFAInitialStateNode(entryStateIDs, props.isSearching(), props.isGenericCG());
+        for (int i = 1; i < states.length; i++) {
+            State s = states[i];
+            if (s != null) {
+                ret[i] = s.kind == KIND_INNER_LITERAL ? s.createInnerLiteralStateNode(ast, root, compilationBuffer) : createStateNode(s, encoding, matchersBuilder, compilationBuffer);
+            }
+        }
+        return ret;
+    }
+
+    private DFAStateNode createStateNode(State s, Encoding encoding, Matchers.Builder matchersBuilder, CompilationBuffer compilationBuffer) {
+        matchersBuilder.reset(s.transitionSets.length);
+        int nRanges = 0;
+        int estimatedTransitionsCost = 0;
+        for (int i = 0; i < s.transitionSets.length; i++) {
+            if (i == s.noMatchSuccessor) {
+                // replace the last matcher with an AnyMatcher, since it must always cover the
+                // remaining input space
+                matchersBuilder.setNoMatchSuccessor((short) i);
+            } else {
+                nRanges += s.transitionSets[i].size();
+                encoding.createMatcher(matchersBuilder, i, s.transitionSets[i], compilationBuffer);
+            }
+            estimatedTransitionsCost += matchersBuilder.estimatedCost(i);
+        }
+
+        Matchers matchers = null;
+        // Very conservative heuristic for whether we should use AllTransitionsInOneTreeMatcher.
+        // TODO: Potential benefits of this should be further explored.
+        AllTransitionsInOneTreeMatcher allTransitionsInOneTreeMatcher = null;
+        boolean useTreeTransitionMatcher = nRanges > 1 && MathUtil.log2ceil(nRanges + 2) * 8 < estimatedTransitionsCost;
+        if (useTreeTransitionMatcher) {
+            if (props.isRegressionTestMode()) {
+                // in regression test mode, we compare results of regular matchers and
+                // AllTransitionsInOneTreeMatcher
+                matchers = encoding.toMatchers(matchersBuilder);
+            }
+            allTransitionsInOneTreeMatcher = createAllTransitionsInOneTreeMatcher(s.transitionSets, s.coversCharSpace, encoding, compilationBuffer);
+        } else {
+            matchers = encoding.toMatchers(matchersBuilder);
+        }
+
+        short loopToSelf = -1;
+        DFAStateNode.LoopOptimizationNode loopOptimizationNode = null;
+        for (int i = 0; i < s.transitionSets.length; i++) {
+            if (s.successors[i] == s.id) {
+                loopToSelf = (short) i;
+                CodePointSet loopMB = s.transitionSets[i];
+                if (s.coversCharSpace && !loopMB.matchesEverything(encoding) && loopMB.inverseValueCount(encoding) <= 4) {
+                    loopOptimizationNode = encoding.extractLoopOptNode(loopMB);
+                }
+            }
+        }
+        if (props.isGenericCG()) {
+            return new CGTrackingDFAStateNode(s.id, s.flags, loopToSelf, loopOptimizationNode, s.successors, matchers, allTransitionsInOneTreeMatcher, s.cgTransitions, s.cgPrecedingTransitions,
+                            s.anchoredFinalCGTransition, s.unAnchoredFinalCGTransition);
+        } else if (traceFinder) {
+            return new TraceFinderDFAStateNode(s.id, s.flags, loopToSelf, loopOptimizationNode, s.successors, matchers,
+                            allTransitionsInOneTreeMatcher, s.preCalculatedUnAnchoredResult, s.preCalculatedAnchoredResult);
+        } else if (props.isForward()) {
+            return new DFAStateNode(s.id, s.flags, loopToSelf, loopOptimizationNode, s.successors, matchers, s.simpleCG, allTransitionsInOneTreeMatcher);
+        } else {
+            return new BackwardDFAStateNode(s.id, s.flags, loopToSelf, loopOptimizationNode, s.successors, matchers, s.simpleCG, allTransitionsInOneTreeMatcher);
+        }
+    }
+
+    /**
+     * Generate a new {@link AllTransitionsInOneTreeMatcher} from a given state's transitions.
+     */
+    private static AllTransitionsInOneTreeMatcher createAllTransitionsInOneTreeMatcher(CodePointSet[] transitions, boolean coversCharSpace, Encoding encoding,
+                    CompilationBuffer compilationBuffer) {
+        // convert all transition matchers to CompressedCodePointSets
+        CompressedCodePointSet[] ccpss = new CompressedCodePointSet[coversCharSpace ? transitions.length - 1 : transitions.length];
+        for (int i = 0; i < ccpss.length; i++) {
+            ccpss[i] = CompressedCodePointSet.create(transitions[i], compilationBuffer);
+        }
+        IntArrayBuffer ranges = compilationBuffer.getIntRangesBuffer1();
+        IntArrayBuffer iterators = compilationBuffer.getIntRangesBuffer2().asFixedSizeArray(ccpss.length, 0);
+        IntArrayBuffer byteRanges = compilationBuffer.getIntRangesBuffer3();
+        ShortArrayBuffer successors = compilationBuffer.getShortArrayBuffer1();
+        ShortArrayBuffer byteSuccessors = compilationBuffer.getShortArrayBuffer2();
+        ObjectArrayBuffer<long[]> byteBitSets = compilationBuffer.getObjectBuffer1();
+        ObjectArrayBuffer<AllTransitionsInOneTreeMatcher.AllTransitionsInOneTreeLeafMatcher> byteMatchers = compilationBuffer.getObjectBuffer2();
+        short noMatchSuccessor = (short) (coversCharSpace ? transitions.length - 1 : -1);
+        int lastHi = 0;
+        // iterate all compressed code point sets in parallel, using the temporary "iterators" array
+        while (true) {
+            int minLo = Integer.MAX_VALUE;
+            int minCPS = -1;
+            // find the next lowest range of all code point sets
+            for (int i = 0; i < ccpss.length; i++) {
+                if (iterators.get(i) < ccpss[i].size() && ccpss[i].getLo(iterators.get(i)) < minLo) {
+                    minLo = ccpss[i].getLo(iterators.get(i));
+                    minCPS = i;
+                }
+            }
+            if (minCPS == -1) {
+                // all code point sets are exhausted, finish
+                break;
+            }
+            if (minLo != lastHi) {
+                // there is a gap between the last and current processed range, add a no-match
+                // successor
+                successors.add(noMatchSuccessor);
+                ranges.add(minLo);
+            }
+            lastHi = ccpss[minCPS].getHi(iterators.get(minCPS)) + 1;
+
+            if (ccpss[minCPS].hasBitSet(iterators.get(minCPS))) {
+                // the current range is subdivided into a bit set, generate a corresponding
+                // AllTransitionsInOneTreeLeafMatcher
+                byteRanges.clear();
+                byteSuccessors.clear();
+                byteBitSets.clear();
+                // find all bit-set ranges that intersect with the current range, and extend the
+                // current range to fit all of these interleaved bit sets.
+                for (int i = 0; i < ccpss.length; i++) {
+                    if (iterators.get(i) < ccpss[i].size() && ccpss[i].hasBitSet(iterators.get(i)) && BitSets.highByte(ccpss[i].getLo(iterators.get(i))) == BitSets.highByte(lastHi - 1)) {
+                        byteBitSets.add(ccpss[i].getBitSet(iterators.get(i)));
+                        lastHi = Math.max(lastHi, ccpss[i].getHi(iterators.get(i)) + 1);
+                        iterators.inc(i);
+                        byteSuccessors.add((short) i);
+                    }
+                }
+                int byteLastHi = minLo;
+                // find all regular ranges that are contained in the current bit-set range, and add
+                // them to the AllTransitionsInOneTreeLeafMatcher as well
+                while (true) {
+                    int byteMinLo = lastHi;
+                    int byteMinCPS = -1;
+                    for (int i = 0; i < ccpss.length; i++) {
+                        if (iterators.get(i) < ccpss[i].size() && ccpss[i].getLo(iterators.get(i)) < byteMinLo) {
+                            assert !ccpss[i].hasBitSet(iterators.get(i));
+                            assert ccpss[i].getHi(iterators.get(i)) < lastHi;
+                            byteMinLo = ccpss[i].getLo(iterators.get(i));
+                            byteMinCPS = i;
+                        }
+                    }
+                    if (byteMinCPS == -1) {
+                        break;
+                    }
+                    if (byteMinLo != byteLastHi) {
+                        // there is a gap between the last and current processed range, add a
+                        // no-match successor
+                        byteSuccessors.add(noMatchSuccessor);
+                        byteRanges.add(byteMinLo);
+                    }
+                    byteSuccessors.add((short) byteMinCPS);
+                    byteLastHi = ccpss[byteMinCPS].getHi(iterators.get(byteMinCPS)) + 1;
+                    if (byteLastHi < lastHi) {
+                        byteRanges.add(byteLastHi);
+                    }
+                    iterators.inc(byteMinCPS);
+                }
+                if (byteLastHi != lastHi) {
+                    byteSuccessors.add(noMatchSuccessor);
+                }
+                successors.add((short) ((byteMatchers.length() + 2) * -1));
+                byteMatchers.add(new AllTransitionsInOneTreeMatcher.AllTransitionsInOneTreeLeafMatcher(
+                                byteBitSets.toArray(new long[byteBitSets.length()][]), byteSuccessors.toArray(), byteRanges.toArray()));
+            } else {
+                successors.add((short) minCPS);
+                iterators.inc(minCPS);
+            }
+            if (lastHi <= encoding.getMaxValue()) {
+                ranges.add(lastHi);
+            }
+        }
+        if (lastHi != encoding.getMaxValue() + 1) {
+            successors.add(noMatchSuccessor);
+        }
+        return new AllTransitionsInOneTreeMatcher(ranges.toArray(), successors.toArray(),
+                        byteMatchers.toArray(new AllTransitionsInOneTreeMatcher.AllTransitionsInOneTreeLeafMatcher[byteMatchers.length()]));
+    }
+
+    public void write(DataOutput out) throws IOException {
+        out.writeBoolean(props.isForward());
+        out.writeBoolean(props.isSearching());
+        out.writeBoolean(props.isGenericCG());
+        out.writeBoolean(props.isAllowSimpleCG());
+        out.writeBoolean(props.isStreaming());
+        out.writeInt(props.getMinResultLength());
+        out.writeBoolean(props.isSimpleCG());
+        out.writeBoolean(props.isSimpleCGMustCopy());
+        out.writeBoolean(traceFinder);
+        out.writeInt(maxNumberOfNfaStates);
+        writeShortArray(out, entryStateIDs);
+        out.writeBoolean(cgTransitions != null);
+        if (cgTransitions != null) {
+            out.writeInt(cgTransitions.length);
+            for (DFACaptureGroupLazyTransition t : cgTransitions) {
+                t.write(out);
+            }
+        }
+        out.writeInt(states.length);
+        for (int i = 1; i < states.length; i++) {
+            out.writeBoolean(states[i] != null);
+            if (states[i] != null) {
+                states[i].write(out, props);
+            }
+        }
+    }
+
+    /**
+     * Reads a table written by {@link #write(DataOutput)}.
+     *
+     * @param regressionTestMode value of {@link TRegexDFAExecutorProperties#isRegressionTestMode()}
+     *            for the resulting table. This property is not serialized, since it only depends
+     *            on the options of the current compilation request.
+     */
+    public static DFATable read(DataInput in, boolean regressionTestMode) throws IOException {
+        boolean forward = in.readBoolean();
+        boolean searching = in.readBoolean();
+        boolean genericCG = in.readBoolean();
+        boolean allowSimpleCG = in.readBoolean();
+        boolean streaming = in.readBoolean();
+        int minResultLength = in.readInt();
+        TRegexDFAExecutorProperties props = new TRegexDFAExecutorProperties(forward, searching, genericCG, allowSimpleCG, regressionTestMode, streaming, minResultLength);
+        props.setSimpleCG(in.readBoolean());
+        props.setSimpleCGMustCopy(in.readBoolean());
+        boolean traceFinder = in.readBoolean();
+        int maxNumberOfNfaStates = in.readInt();
+        short[] entryStateIDs = readShortArray(in);
+        DFACaptureGroupLazyTransition[] cgTransitions = null;
+        if (in.readBoolean()) {
+            cgTransitions = new DFACaptureGroupLazyTransition[readLength(in, 4, Short.MAX_VALUE)];
+            for (int i = 0; i < cgTransitions.length; i++) {
+                cgTransitions[i] = DFACaptureGroupLazyTransition.read(in);
+            }
+        }
+        State[] states = new State[readLength(in, 1, Short.MAX_VALUE)];
+        for (int i = 1; i < states.length; i++) {
+            if (in.readBoolean()) {
+                states[i] = State.read(in, props, regressionTestMode);
+            }
+        }
+        return new DFATable(props, traceFinder, maxNumberOfNfaStates, entryStateIDs, cgTransitions, states);
+    }
+
+    /**
+     * Reads the length of an array written by {@link #write(DataOutput)}, and checks that it is
+     * not larger than {@code maxLength}. If {@code in} is an {@link InputStream}, also checks that
+     * the array's elements, which take at least {@code minElementSize} bytes each, fit into the
+     * rest of the stream. This way, corrupted input cannot cause huge allocations.
+     *
+     * @throws IOException if the length is invalid
+     */
+    public static int readLength(DataInput in, int minElementSize, int maxLength) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > maxLength || in instanceof InputStream && (long) length * minElementSize > ((InputStream) in).available()) {
+            throw new IOException("invalid array length " + length);
+        }
+        return length;
+    }
+
+    public static void writeByteArray(DataOutput out, byte[] array) throws IOException {
+        out.writeInt(array.length);
+        out.write(array);
+    }
+
+    public static byte[] readByteArray(DataInput in) throws IOException {
+        byte[] array = new byte[readLength(in, 1, MAX_BYTE_ARRAY_LENGTH)];
+        in.readFully(array);
+        return array;
+    }
+
+    private static void writeShortArray(DataOutput out, short[] array) throws IOException {
+        out.writeInt(array.length);
+        for (short s : array) {
+            out.writeShort(s);
+        }
+    }
+
+    private static short[] readShortArray(DataInput in) throws IOException {
+        short[] array = new short[readLength(in, 2, Short.MAX_VALUE)];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = in.readShort();
+        }
+        return array;
+    }
+
+    private static void writeCodePointSet(DataOutput out, CodePointSet cps) throws IOException {
+        int[] ranges = cps.getRanges();
+        out.writeInt(ranges.length);
+        for (int r : ranges) {
+            out.writeInt(r);
+        }
+    }
+
+    private static CodePointSet readCodePointSet(DataInput in) throws IOException {
+        int[] ranges = new int[readLength(in, 4, 2 * (Character.MAX_CODE_POINT + 1))];
+        for (int i = 0; i < ranges.length; i++) {
+            ranges[i] = in.readInt();
+        }
+        return CodePointSet.create(ranges);
+    }
+
+    /**
+     * Table entry of a single DFA state.
+     */
+    static final class State {
+
+        private final byte kind;
+        private final short id;
+        private final byte flags;
+        private final short[] successors;
+        private final CodePointSet[] transitionSets;
+        private final short noMatchSuccessor;
+        private final boolean coversCharSpace;
+        private final DFASimpleCG simpleCG;
+        private final short[] cgTransitions;
+        private final short[] cgPrecedingTransitions;
+        private final DFACaptureGroupPartialTransition anchoredFinalCGTransition;
+        private final DFACaptureGroupPartialTransition unAnchoredFinalCGTransition;
+        private final byte preCalculatedUnAnchoredResult;
+        private final byte preCalculatedAnchoredResult;
+        private final DFATable prefixMatcherTable;
+        /**
+         * Prefix matcher created by the {@link DFAGenerator}, re-used instead of creating a new
+         * executor from {@link #prefixMatcherTable}. Not serialized.
+         */
+        private TRegexDFAExecutorNode prefixMatcher;
+
+        private State(byte kind, short id, byte flags, short[] successors, CodePointSet[] transitionSets, short noMatchSuccessor, boolean coversCharSpace, DFASimpleCG simpleCG,
+                        short[] cgTransitions, short[] cgPrecedingTransitions, DFACaptureGroupPartialTransition anchoredFinalCGTransition,
+                        DFACaptureGroupPartialTransition unAnchoredFinalCGTransition, byte preCalculatedUnAnchoredResult, byte preCalculatedAnchoredResult,
+                        DFATable prefixMatcherTable, TRegexDFAExecutorNode prefixMatcher) {
+            this.kind = kind;
+            this.id = id;
+            this.flags = flags;
+            this.successors = successors;
+            this.transitionSets = transitionSets;
+            this.noMatchSuccessor = noMatchSuccessor;
+            this.coversCharSpace = coversCharSpace;
+            this.simpleCG = simpleCG;
+            this.cgTransitions = cgTransitions;
+            this.cgPrecedingTransitions = cgPrecedingTransitions;
+            this.anchoredFinalCGTransition = anchoredFinalCGTransition;
+            this.unAnchoredFinalCGTransition = unAnchoredFinalCGTransition;
+            this.preCalculatedUnAnchoredResult = preCalculatedUnAnchoredResult;
+            this.preCalculatedAnchoredResult = preCalculatedAnchoredResult;
+            this.prefixMatcherTable = prefixMatcherTable;
+            this.prefixMatcher = prefixMatcher;
+        }
+
+        /**
+         * @param transitionSets the code point sets of all transitions, in the same order as
+         *            {@code successors}. If {@code successors} contains a backward prefix state, it
+         *            must be the last element and have no corresponding transition set.
+         * @param noMatchSuccessor index of the transition that is matched by an AnyMatcher, since
+         *            it covers the remaining input space, or {@code -1}.
+         */
+        static State create(short id, byte flags, short[] successors, CodePointSet[] transitionSets, short noMatchSuccessor, boolean coversCharSpace, DFASimpleCG simpleCG,
+                        short[] cgTransitions, short[] cgPrecedingTransitions, DFACaptureGroupPartialTransition anchoredFinalCGTransition,
+                        DFACaptureGroupPartialTransition unAnchoredFinalCGTransition, byte preCalculatedUnAnchoredResult, byte preCalculatedAnchoredResult) {
+            return new State(KIND_STATE, id, flags, successors, transitionSets, noMatchSuccessor, coversCharSpace, simpleCG, cgTransitions, cgPrecedingTransitions,
+                            anchoredFinalCGTransition, unAnchoredFinalCGTransition, preCalculatedUnAnchoredResult, preCalculatedAnchoredResult, null, null);
+        }
+
+        /**
+         * Creates an entry for a {@link DFAFindInnerLiteralStateNode}. The inner literal itself is
+         * not stored, since it can be re-extracted from the regex AST cheaply.
+         */
+        static State createInnerLiteralState(short id, short successor, DFATable prefixMatcherTable, TRegexDFAExecutorNode prefixMatcher) {
+            return new State(KIND_INNER_LITERAL, id, (byte) 0, new short[]{successor}, null, (short) -1, false, null, null, null, null, null, (byte) 0, (byte) 0,
+                            prefixMatcherTable, prefixMatcher);
+        }
+
+        private DFAFindInnerLiteralStateNode createInnerLiteralStateNode(RegexAST ast, TRegexExecNode root, CompilationBuffer compilationBuffer) {
+            if (prefixMatcher == null && prefixMatcherTable != null) {
+                prefixMatcher = prefixMatcherTable.createExecutor(ast, root, compilationBuffer);
+                prefixMatcher.setRoot(root);
+            }
+            return new DFAFindInnerLiteralStateNode(id, successors, ast.extractInnerLiteral(), prefixMatcher);
+        }
+
+        void write(DataOutput out, TRegexDFAExecutorProperties props) throws IOException {
+            out.writeByte(kind);
+            out.writeShort(id);
+            writeShortArray(out, successors);
+            if (kind == KIND_INNER_LITERAL) {
+                out.writeBoolean(prefixMatcherTable != null);
+                if (prefixMatcherTable != null) {
+                    prefixMatcherTable.write(out);
+                }
+                return;
+            }
+            out.writeByte(flags);
+            out.writeInt(transitionSets.length);
+            for (CodePointSet cps : transitionSets) {
+                writeCodePointSet(out, cps);
+            }
+            out.writeShort(noMatchSuccessor);
+            out.writeBoolean(coversCharSpace);
+            out.writeBoolean(simpleCG != null);
+            if (simpleCG != null) {
+                out.writeInt(simpleCG.getTransitions().length);
+                for (DFASimpleCGTransition t : simpleCG.getTransitions()) {
+                    t.write(out);
+                }
+                simpleCG.getTransitionToFinalState().write(out);
+                simpleCG.getTransitionToAnchoredFinalState().write(out);
+            }
+            if (props.isGenericCG()) {
+                writeShortArray(out, cgTransitions);
+                writeShortArray(out, cgPrecedingTransitions);
+                DFACaptureGroupPartialTransition.writeNullable(out, anchoredFinalCGTransition);
+                DFACaptureGroupPartialTransition.writeNullable(out, unAnchoredFinalCGTransition);
+            }
+            out.writeByte(preCalculatedUnAnchoredResult);
+            out.writeByte(preCalculatedAnchoredResult);
+        }
+
+        static State read(DataInput in, TRegexDFAExecutorProperties props, boolean regressionTestMode) throws IOException {
+            byte kind = in.readByte();
+            short id = in.readShort();
+            short[] successors = readShortArray(in);
+            if (kind == KIND_INNER_LITERAL) {
+                if (successors.length == 0) {
+                    throw new IOException("inner literal state without successor");
+                }
+                DFATable prefixMatcherTable = in.readBoolean() ? DFATable.read(in, regressionTestMode) : null;
+                return createInnerLiteralState(id, successors[0], prefixMatcherTable, null);
+            }
+            if (kind != KIND_STATE) {
+                throw new IOException("invalid DFA state kind " + kind);
+            }
+            byte flags = in.readByte();
+            CodePointSet[] transitionSets = new CodePointSet[readLength(in, 4, Short.MAX_VALUE)];
+            for (int i = 0; i < transitionSets.length; i++) {
+                transitionSets[i] = readCodePointSet(in);
+            }
+            short noMatchSuccessor = in.readShort();
+            boolean coversCharSpace = in.readBoolean();
+            DFASimpleCG simpleCG = null;
+            if (in.readBoolean()) {
+                DFASimpleCGTransition[] simpleCGTransitions = new DFASimpleCGTransition[readLength(in, 1, Short.MAX_VALUE)];
+                for (int i = 0; i < simpleCGTransitions.length; i++) {
+                    simpleCGTransitions[i] = DFASimpleCGTransition.read(in);
+                }
+                DFASimpleCGTransition transitionToFinalState = DFASimpleCGTransition.read(in);
+                simpleCG = DFASimpleCG.create(simpleCGTransitions, transitionToFinalState, DFASimpleCGTransition.read(in));
+            }
+            short[] cgTransitions = null;
+            short[] cgPrecedingTransitions = null;
+            DFACaptureGroupPartialTransition anchoredFinalCGTransition = null;
+            DFACaptureGroupPartialTransition unAnchoredFinalCGTransition = null;
+            if (props.isGenericCG()) {
+                cgTransitions = readShortArray(in);
+                cgPrecedingTransitions = readShortArray(in);
+                anchoredFinalCGTransition = DFACaptureGroupPartialTransition.readNullable(in);
+                unAnchoredFinalCGTransition = DFACaptureGroupPartialTransition.readNullable(in);
+            }
+            byte preCalculatedUnAnchoredResult = in.readByte();
+            byte preCalculatedAnchoredResult = in.readByte();
+            return create(id, flags, successors, transitionSets, noMatchSuccessor, coversCharSpace, simpleCG, cgTransitions, cgPrecedingTransitions,
+                            anchoredFinalCGTransition, unAnchoredFinalCGTransition, preCalculatedUnAnchoredResult, preCalculatedAnchoredResult);
+        }
+    }
+}
@@ -40,9 +40,12 @@
  */
 package com.oracle.truffle.regex.tregex.nodes;
 
+import java.util.Arrays;
+
 import com.oracle.truffle.api.CallTarget;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.nodes.Node;
 import com.oracle.truffle.api.profiles.ConditionProfile;
@@ -63,9 +66,13 @@ import com.oracle.truffle.regex.result.SingleResult;
 import com.oracle.truffle.regex.result.SingleResultLazyStart;
 import com.oracle.truffle.regex.result.TraceFinderResult;
 import com.oracle.truffle.regex.tregex.TRegexCompiler;
+import com.oracle.truffle.regex.tregex.TRegexDFACache;
+import com.oracle.truffle.regex.tregex.TRegexOptions;
 import com.oracle.truffle.regex.tregex.nodes.dfa.TRegexDFAExecutorNode;
+import com.oracle.truffle.regex.tregex.nodes.dfa.TRegexDFAParallelSearchNode;
 import com.oracle.truffle.regex.tregex.nodes.dfa.TRegexLazyCaptureGroupsRootNode;
 import com.oracle.truffle.regex.tregex.nodes.dfa.TRegexLazyFindStartRootNode;
+import com.oracle.truffle.regex.tregex.nodes.dfa.TRegexParallelSearchWorkers;
 import com.oracle.truffle.regex.tregex.nodes.nfa.TRegexBacktrackingNFAExecutorNode;
 import com.oracle.truffle.regex.tregex.nodes.nfa.TRegexNFAExecutorNode;
 import com.oracle.truffle.regex.tregex.parser.ast.RegexAST;
@@ -87,12 +94,14 @@ public class TRegexExecNode extends RegexExecNode implements RegexProfile.Tracks
     private final int numberOfCaptureGroups;
     private final boolean regressionTestMode;
     private final boolean backtrackingMode;
+    private volatile String dfaBailoutReason;
     private final ConditionProfile inputProfile = ConditionProfile.createBinaryProfile();
 
     @Child private RunRegexSearchNode runnerNode;
 
-    public TRegexExecNode(RegexAST ast, TRegexExecutorNode nfaExecutor) {
+    public TRegexExecNode(RegexAST ast, TRegexExecutorNode nfaExecutor, String dfaBailoutReason) {
         super(ast.getLanguage(), ast.getSource(), ast.getFlags().isUnicode());
+        this.dfaBailoutReason = dfaBailoutReason;
         this.encoding = ast.getEncoding();
         this.numberOfCaptureGroups = ast.getNumberOfCaptureGroups();
         this.nfaNode = new NFARegexSearchNode(createEntryNode(nfaExecutor));
@@ -103,9 +112,17 @@ public class TRegexExecNode extends RegexExecNode implements RegexProfile.Tracks
             regressTestBacktrackingNode = new NFARegexSearchNode(
                             createEntryNode(TRegexCompiler.compileBacktrackingExecutor(getRegexLanguage(), ((TRegexNFAExecutorNode) nfaNode.getExecutor()).getNFA())));
             switchToLazyDFA();
+        } else if (!backtrackingMode && isLazyDFACached()) {
+            // loading the lazy DFA from the persistent cache is cheap, so we skip the NFA warm-up
+            switchToLazyDFA();
         }
     }
 
+    private boolean isLazyDFACached() {
+        TRegexDFACache dfaCache = TRegexDFACache.get(getSource());
+        return dfaCache != null && dfaCache.contains(getSource(), true);
+    }
+
     @Override
     public final RegexResult execute(Object input, int fromIndex) {
         final int inputLength = inputLength(input);
@@ -150,6 +167,18 @@ public class TRegexExecNode extends RegexExecNode implements RegexProfile.Tracks
         return result;
     }
 
+    @Override
+    protected boolean executeBoundaries(Object input, int fromIndex, int[] bounds) {
+        if (runnerNode instanceof LazyCaptureGroupRegexSearchNode && ((LazyCaptureGroupRegexSearchNode) runnerNode).canFindBoundariesDirectly()) {
+            // the lazy DFA is never replaced by an eager DFA in this case, so there is no profile
+            // to update
+            final boolean isMatch = ((LazyCaptureGroupRegexSearchNode) runnerNode).findBoundaries(input, fromIndex, inputLength(input), bounds);
+            assert !regressionTestMode || boundariesMatchResult(input, fromIndex, isMatch, bounds);
+            return isMatch;
+        }
+        return super.executeBoundaries(input, fromIndex, bounds);
+    }
+
     public Encoding getEncoding() {
         return encoding;
     }
@@ -188,6 +217,24 @@ public class TRegexExecNode extends RegexExecNode implements RegexProfile.Tracks
         return true;
     }
 
+    private boolean boundariesMatchResult(Object input, int fromIndex, boolean isMatch, int[] bounds) {
+        RegexResult result = execute(input, fromIndex);
+        boolean equal = isMatch == (result != NoMatchResult.getInstance());
+        if (equal && isMatch) {
+            if (result instanceof LazyResult) {
+                ((LazyResult) result).debugForceEvaluation();
+            }
+            for (int i = 0; i < bounds.length / 2; i++) {
+                equal &= bounds[i * 2] == result.getStart(i) && bounds[i * 2 + 1] == result.getEnd(i);
+            }
+        }
+        if (!equal) {
+            Loggers.LOG_INTERNAL_ERRORS.severe(() -> String.format("Regex: %s\nInput: %s\nfromIndex: %d\nBoundaries: %s\nResult:     %s", getSource().toStringEscaped(), input, fromIndex,
+                            isMatch ? Arrays.toString(bounds) : "NO_MATCH", result));
+        }
+        return equal;
+    }
+
     private boolean backtrackerProducesSameResult(Object input, int fromIndex, RegexResult result) {
         RegexResult btResult = regressTestBacktrackingNode.run(input, fromIndex, inputLength(input));
         if (resultsEqual(result, btResult, getNumberOfCaptureGroups())) {
@@ -301,11 +348,15 @@ public class TRegexExecNode extends RegexExecNode implements RegexProfile.Tracks
     }
 
     private LazyCaptureGroupRegexSearchNode compileLazyDFA(boolean allowSimpleCG) {
+        long startTime = System.nanoTime();
         try {
             return TRegexCompiler.compileLazyDFAExecutor(getRegexLanguage(), ((TRegexNFAExecutorNode) nfaNode.getExecutor()).getNFA(), this, allowSimpleCG);
         } catch (UnsupportedRegexException e) {
             Loggers.LOG_BAILOUT_MESSAGES.fine(() -> e.getReason() + ": " + source);
+            dfaBailoutReason = e.getReason();
             return LAZY_DFA_BAILED_OUT;
+        } finally {
+            addCompilationTime(System.nanoTime() - startTime);
         }
     }
 
@@ -323,12 +374,15 @@ public class TRegexExecNode extends RegexExecNode implements RegexProfile.Tracks
 
     private void compileEagerDFA() {
         if (eagerDFANode == null) {
+            long startTime = System.nanoTime();
             try {
                 TRegexDFAExecutorNode executorNode = TRegexCompiler.compileEagerDFAExecutor(getRegexLanguage(), getSource());
                 eagerDFANode = new EagerCaptureGroupRegexSearchNode(createEntryNode(executorNode));
             } catch (UnsupportedRegexException e) {
                 Loggers.LOG_BAILOUT_MESSAGES.fine(() -> e.getReason() + ": " + source);
                 eagerDFANode = EAGER_DFA_BAILED_OUT;
+            } finally {
+                addCompilationTime(System.nanoTime() - startTime);
             }
         }
     }
@@ -349,6 +403,34 @@ public class TRegexExecNode extends RegexExecNode implements RegexProfile.Tracks
         return "TRegex fwd";
     }
 
+    @Override
+    public String getExecutorName() {
+        RunRegexSearchNode runner = runnerNode;
+        if (backtrackingMode) {
+            return "TRegex backtracker";
+        } else if (runner == eagerDFANode) {
+            return "TRegex eager DFA";
+        } else if (runner == lazyDFANode) {
+            return "TRegex lazy DFA";
+        } else {
+            return "TRegex NFA";
+        }
+    }
+
+    @Override
+    public String getDFABailoutReason() {
+        return dfaBailoutReason;
+    }
+
+    @Override
+    public int getDFASize() {
+        LazyCaptureGroupRegexSearchNode lazyDFA = lazyDFANode;
+        if (lazyDFA == null || lazyDFA == LAZY_DFA_BAILED_OUT) {
+            return -1;
+        }
+        return lazyDFA.getForwardExecutor().getNumberOfStates();
+    }
+
     abstract static class RunRegexSearchNode extends Node {
 
         abstract RegexResult run(Object input, int fromIndexArg, int inputLength);
@@ -356,8 +438,13 @@ public class TRegexExecNode extends RegexExecNode implements RegexProfile.Tracks
 
     public static final class LazyCaptureGroupRegexSearchNode extends RunRegexSearchNode {
 
+        private static final int PARALLEL_SEARCH_NOT_APPLICABLE = Integer.MIN_VALUE;
+
+        private final RegexLanguage language;
+        private final RegexSource source;
         private final RegexFlags flags;
         @CompilationFinal(dimensions = 1) private final PreCalculatedResultFactory[] preCalculatedResults;
+        private final TRegexExecNode rootNode;
 
         @Child private TRegexExecutorEntryNode forwardEntryNode;
         @Child private TRegexExecutorEntryNode backwardEntryNode;
@@ -366,6 +453,9 @@ public class TRegexExecNode extends RegexExecNode implements RegexProfile.Tracks
         private final CallTarget backwardCallTarget;
         private final CallTarget captureGroupCallTarget;
 
+        @Child private TRegexDFAParallelSearchNode parallelSearchNode;
+        private boolean parallelSearchBailedOut = false;
+
         public LazyCaptureGroupRegexSearchNode(RegexLanguage language,
                         RegexSource source,
                         RegexFlags flags,
@@ -375,7 +465,10 @@ public class TRegexExecNode extends RegexExecNode implements RegexProfile.Tracks
                         TRegexExecutorEntryNode captureGroupNode,
                         TRegexExecNode rootNode) {
             this.forwardEntryNode = forwardNode;
+            this.language = language;
+            this.source = source;
             this.flags = flags;
+            this.rootNode = rootNode;
             this.preCalculatedResults = preCalculatedResults;
             this.backwardEntryNode = backwardNode;
             if (forwardNode == null) {
@@ -426,7 +519,8 @@ public class TRegexExecNode extends RegexExecNode implements RegexProfile.Tracks
                 int[] result = (int[]) forwardEntryNode.execute(input, fromIndexArg, fromIndexArg, inputLength);
                 return result == null ? NoMatchResult.getInstance() : new SingleIndexArrayResult(result);
             }
-            final int end = (int) forwardEntryNode.execute(input, fromIndexArg, fromIndexArg, inputLength);
+            final int end = executeForwardSearch(input, fromIndexArg, inputLength);
+            assert !source.getOptions().isRegressionTestMode() || parallelSearchProducesSameResult(input, fromIndexArg, inputLength, end);
             if (end == TRegexDFAExecutorNode.NO_MATCH) {
                 return NoMatchResult.getInstance();
             }
@@ -453,6 +547,77 @@ public class TRegexExecNode extends RegexExecNode implements RegexProfile.Tracks
             }
         }
 
+        private int executeForwardSearch(Object input, int fromIndex, int inputLength) {
+            if (source.getOptions().isParallelSearch() && inputLength - fromIndex >= TRegexOptions.TRegexParallelSearchThreshold && canSearchInParallel(input)) {
+                int end = executeParallelSearch(input, fromIndex, inputLength);
+                if (end != PARALLEL_SEARCH_NOT_APPLICABLE) {
+                    return end;
+                }
+            }
+            return (int) forwardEntryNode.execute(input, fromIndex, fromIndex, inputLength);
+        }
+
+        private boolean canSearchInParallel(Object input) {
+            return !getForwardExecutor().isAnchored() && !flags.isSticky() && TRegexDFAParallelSearchNode.isSupportedInput(input);
+        }
+
+        @TruffleBoundary
+        private int executeParallelSearch(Object input, int fromIndex, int inputLength) {
+            int nSegments = TRegexDFAParallelSearchNode.getNumberOfSegments(fromIndex, inputLength);
+            if (nSegments < 2) {
+                return PARALLEL_SEARCH_NOT_APPLICABLE;
+            }
+            TRegexParallelSearchWorkers workers = RegexLanguage.getCurrentContext().getParallelSearchWorkers();
+            if (workers == null || !workers.isAvailable()) {
+                return PARALLEL_SEARCH_NOT_APPLICABLE;
+            }
+            TRegexDFAParallelSearchNode parallelSearch = getParallelSearchNode();
+            if (parallelSearch == null) {
+                return PARALLEL_SEARCH_NOT_APPLICABLE;
+            }
+            return parallelSearch.execute(input, isCompactString(input), fromIndex, inputLength, nSegments, TRegexOptions.TRegexParallelSearchWarmupLength, workers);
+        }
+
+        private synchronized TRegexDFAParallelSearchNode getParallelSearchNode() {
+            if (parallelSearchNode == null && !parallelSearchBailedOut) {
+                try {
+                    TRegexDFAExecutorNode executor = TRegexCompiler.compileParallelSearchDFAExecutor(language, source);
+                    executor.setRoot(rootNode);
+                    parallelSearchNode = insert(new TRegexDFAParallelSearchNode(language, source, executor));
+                } catch (UnsupportedRegexException e) {
+                    Loggers.LOG_BAILOUT_MESSAGES.fine(() -> e.getReason() + ": " + source);
+                    parallelSearchBailedOut = true;
+                }
+            }
+            return parallelSearchNode;
+        }
+
+        private static boolean isCompactString(Object input) {
+            return input instanceof String && TRegexExecutorEntryNode.isCompactString((String) input);
+        }
+
+        /**
+         * In regression test mode, every forward search is repeated as a parallel search with tiny
+         * segments. The warm-up is kept short as well, to make sure that wrong guesses of the
+         * segments' initial states are exercised. If the context does not allow creating worker
+         * threads, the segments are searched on the current thread.
+         */
+        @TruffleBoundary
+        private boolean parallelSearchProducesSameResult(Object input, int fromIndex, int inputLength, int end) {
+            int nSegments = Math.min(4, inputLength - fromIndex);
+            TRegexDFAParallelSearchNode parallelSearch = canSearchInParallel(input) && nSegments > 1 ? getParallelSearchNode() : null;
+            if (parallelSearch == null) {
+                return true;
+            }
+            int parallelEnd = parallelSearch.execute(input, isCompactString(input), fromIndex, inputLength, nSegments, 2, RegexLanguage.getCurrentContext().getParallelSearchWorkers());
+            if (parallelEnd == end) {
+                return true;
+            }
+            Loggers.LOG_INTERNAL_ERRORS.severe(() -> String.format("Regex: %s\nInput: %s\nfromIndex: %d\nParallel search end: %d\nDFA search end:      %d",
+                            source.toStringEscaped(), input, fromIndex, parallelEnd, end));
+            return false;
+        }
+
         private RegexResult executeBackwardAnchored(Object input, int fromIndexArg, int inputLength) {
             if (getBackwardExecutor().isSimpleCG()) {
                 int[] result = (int[]) backwardEntryNode.execute(input, fromIndexArg, inputLength, inputLength);
@@ -487,6 +652,48 @@ public class TRegexExecNode extends RegexExecNode implements RegexProfile.Tracks
             return new SingleResult(start, inputLength);
         }
 
+        /**
+         * Returns {@code true} if this node's results consist of nothing but the boundaries found
+         * by the forward and backward DFA, so that
+         * {@link #findBoundaries(Object, int, int, int[])} can be used instead of
+         * {@link #run(Object, int, int)}.
+         */
+        boolean canFindBoundariesDirectly() {
+            return !(backwardEntryNode != null && getBackwardExecutor().isAnchored()) && preCalculatedResults == null && captureGroupEntryNode == null;
+        }
+
+        /**
+         * Equivalent to {@link #run(Object, int, int)}, but stores the result in {@code bounds}.
+         * The start of the match is searched immediately, instead of creating a
+         * {@link SingleResultLazyStart} and calling the find-start call target later.
+         */
+        boolean findBoundaries(Object input, int fromIndexArg, int inputLength, int[] bounds) {
+            assert canFindBoundariesDirectly();
+            if (getForwardExecutor().isSimpleCG()) {
+                int[] result = (int[]) forwardEntryNode.execute(input, fromIndexArg, fromIndexArg, inputLength);
+                if (result == null) {
+                    return false;
+                }
+                System.arraycopy(result, 0, bounds, 0, bounds.length);
+                return true;
+            }
+            final int end = executeForwardSearch(input, fromIndexArg, inputLength);
+            assert !source.getOptions().isRegressionTestMode() || parallelSearchProducesSameResult(input, fromIndexArg, inputLength, end);
+            if (end == TRegexDFAExecutorNode.NO_MATCH) {
+                return false;
+            }
+            if (end == fromIndexArg || getForwardExecutor().isAnchored() || flags.isSticky()) {
+                bounds[0] = end == fromIndexArg ? end : fromIndexArg;
+            } else {
+                bounds[0] = (int) backwardEntryNode.execute(input, fromIndexArg, end, end);
+            }
+            bounds[1] = end;
+            for (int i = 2; i < bounds.length; i++) {
+                bounds[i] = -1;
+            }
+            return true;
+        }
+
         private boolean singlePreCalcResult() {
             return preCalculatedResults != null && preCalculatedResults.length == 1;
         }
@@ -40,6 +40,9 @@
  */
 package com.oracle.truffle.regex.tregex.nodes.dfa;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.Arrays;
 
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
@@ -82,6 +85,26 @@ public final class DFACaptureGroupLazyTransition implements JsonConvertible {
         return transitionToAnchoredFinalState;
     }
 
+    public void write(DataOutput out) throws IOException {
+        out.writeShort(id);
+        out.writeShort(partialTransitions.length);
+        for (DFACaptureGroupPartialTransition t : partialTransitions) {
+            t.write(out);
+        }
+        DFACaptureGroupPartialTransition.writeNullable(out, transitionToFinalState);
+        DFACaptureGroupPartialTransition.writeNullable(out, transitionToAnchoredFinalState);
+    }
+
+    public static DFACaptureGroupLazyTransition read(DataInput in) throws IOException {
+        short id = in.readShort();
+        DFACaptureGroupPartialTransition[] partialTransitions = new DFACaptureGroupPartialTransition[in.readUnsignedShort()];
+        for (int i = 0; i < partialTransitions.length; i++) {
+            partialTransitions[i] = DFACaptureGroupPartialTransition.read(in);
+        }
+        DFACaptureGroupPartialTransition transitionToFinalState = DFACaptureGroupPartialTransition.readNullable(in);
+        return new DFACaptureGroupLazyTransition(id, partialTransitions, transitionToFinalState, DFACaptureGroupPartialTransition.readNullable(in));
+    }
+
     @TruffleBoundary
     @Override
     public JsonValue toJson() {
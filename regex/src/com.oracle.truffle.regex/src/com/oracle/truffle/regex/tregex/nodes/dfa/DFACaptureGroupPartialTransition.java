@@ -40,6 +40,9 @@
  */
 package com.oracle.truffle.regex.tregex.nodes.dfa;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.Arrays;
 
 import com.oracle.truffle.api.CompilerAsserts;
@@ -47,6 +50,7 @@ import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.nodes.ExplodeLoop;
 import com.oracle.truffle.regex.tregex.dfa.DFAGenerator;
+import com.oracle.truffle.regex.tregex.dfa.DFATable;
 import com.oracle.truffle.regex.tregex.util.json.Json;
 import com.oracle.truffle.regex.tregex.util.json.JsonArray;
 import com.oracle.truffle.regex.tregex.util.json.JsonConvertible;
@@ -183,6 +187,49 @@ public final class DFACaptureGroupPartialTransition implements JsonConvertible {
         return id;
     }
 
+    public void write(DataOutput out) throws IOException {
+        out.writeInt(id);
+        if (this != EMPTY_INSTANCE) {
+            DFATable.writeByteArray(out, reorderSwaps);
+            DFATable.writeByteArray(out, arrayCopies);
+            IndexOperation.writeArray(out, indexUpdates);
+            IndexOperation.writeArray(out, indexClears);
+            out.writeByte(preReorderFinalStateResultIndex);
+        }
+    }
+
+    /**
+     * Reads a partial transition written by {@link #write(DataOutput)}. The static empty instance
+     * is always serialized with ID {@code 0}, so its identity is preserved.
+     */
+    public static DFACaptureGroupPartialTransition read(DataInput in) throws IOException {
+        int id = in.readInt();
+        if (id == 0) {
+            return getEmptyInstance();
+        }
+        byte[] reorderSwaps = DFATable.readByteArray(in);
+        byte[] arrayCopies = DFATable.readByteArray(in);
+        IndexOperation[] indexUpdates = IndexOperation.readArray(in);
+        IndexOperation[] indexClears = IndexOperation.readArray(in);
+        return new DFACaptureGroupPartialTransition(id,
+                        reorderSwaps.length == 0 ? EMPTY_REORDER_SWAPS : reorderSwaps,
+                        arrayCopies.length == 0 ? EMPTY_ARRAY_COPIES : arrayCopies,
+                        indexUpdates.length == 0 ? EMPTY_INDEX_UPDATES : indexUpdates,
+                        indexClears.length == 0 ? EMPTY_INDEX_CLEARS : indexClears,
+                        in.readByte());
+    }
+
+    public static void writeNullable(DataOutput out, DFACaptureGroupPartialTransition t) throws IOException {
+        out.writeBoolean(t != null);
+        if (t != null) {
+            t.write(out);
+        }
+    }
+
+    public static DFACaptureGroupPartialTransition readNullable(DataInput in) throws IOException {
+        return in.readBoolean() ? read(in) : null;
+    }
+
     public boolean doesReorderResults() {
         return reorderSwaps.length > 0;
     }
@@ -392,6 +439,23 @@ public final class DFACaptureGroupPartialTransition implements JsonConvertible {
             return Byte.toUnsignedInt(indices[i]);
         }
 
+        static void writeArray(DataOutput out, IndexOperation[] operations) throws IOException {
+            out.writeShort(operations.length);
+            for (IndexOperation op : operations) {
+                out.writeByte(op.targetArray);
+                DFATable.writeByteArray(out, op.indices);
+            }
+        }
+
+        static IndexOperation[] readArray(DataInput in) throws IOException {
+            IndexOperation[] operations = new IndexOperation[in.readUnsignedShort()];
+            for (int i = 0; i < operations.length; i++) {
+                int targetArray = in.readUnsignedByte();
+                operations[i] = new IndexOperation(targetArray, DFATable.readByteArray(in));
+            }
+            return operations;
+        }
+
         @TruffleBoundary
         @Override
         public JsonValue toJson() {
@@ -40,12 +40,16 @@
  */
 package com.oracle.truffle.regex.tregex.nodes.dfa;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.Arrays;
 
 import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.nodes.ExplodeLoop;
+import com.oracle.truffle.regex.tregex.dfa.DFATable;
 import com.oracle.truffle.regex.tregex.nfa.NFAStateTransition;
 import com.oracle.truffle.regex.tregex.util.json.Json;
 import com.oracle.truffle.regex.tregex.util.json.JsonConvertible;
@@ -79,6 +83,26 @@ public final class DFASimpleCGTransition implements JsonConvertible {
         return EMPTY_INSTANCE;
     }
 
+    public void write(DataOutput out) throws IOException {
+        out.writeBoolean(this == EMPTY_INSTANCE);
+        if (this != EMPTY_INSTANCE) {
+            DFATable.writeByteArray(out, indexUpdates);
+            out.writeBoolean(indexClears == FULL_CLEAR_ARRAY);
+            if (indexClears != FULL_CLEAR_ARRAY) {
+                DFATable.writeByteArray(out, indexClears);
+            }
+        }
+    }
+
+    public static DFASimpleCGTransition read(DataInput in) throws IOException {
+        if (in.readBoolean()) {
+            return getEmptyInstance();
+        }
+        byte[] indexUpdates = DFATable.readByteArray(in);
+        byte[] indexClears = in.readBoolean() ? FULL_CLEAR_ARRAY : DFATable.readByteArray(in);
+        return new DFASimpleCGTransition(indexUpdates.length == 0 ? EMPTY_ARRAY : indexUpdates, indexClears);
+    }
+
     public void apply(int[] result, int currentIndex) {
         CompilerAsserts.partialEvaluationConstant(this);
         if (indexClears == FULL_CLEAR_ARRAY) {
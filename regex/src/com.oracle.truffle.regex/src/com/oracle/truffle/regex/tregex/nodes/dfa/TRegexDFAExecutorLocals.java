@@ -53,6 +53,8 @@ public final class TRegexDFAExecutorLocals extends TRegexExecutorLocals {
     private short lastTransition;
     private int lastIndex;
     private final DFACaptureGroupTrackingData cgData;
+    private short streamState = -1;
+    private boolean streamEnd;
 
     public TRegexDFAExecutorLocals(Object input, int fromIndex, int index, int maxIndex, DFACaptureGroupTrackingData cgData) {
         super(input, fromIndex, maxIndex, index);
@@ -103,6 +105,33 @@ public final class TRegexDFAExecutorLocals extends TRegexExecutorLocals {
         this.result = result;
     }
 
+    /**
+     * Used by {@link TRegexDFAExecutorProperties#isStreaming() streaming} executors only. Before
+     * execution, this is the ID of the DFA state to resume matching in, or {@code -1} if matching
+     * should start in the initial state. After execution, this is the ID of the DFA state the
+     * executor was suspended in because it reached the end of the current chunk, or {@code -1} if
+     * the DFA terminated.
+     */
+    public short getStreamState() {
+        return streamState;
+    }
+
+    public void setStreamState(short streamState) {
+        this.streamState = streamState;
+    }
+
+    /**
+     * Used by {@link TRegexDFAExecutorProperties#isStreaming() streaming} executors only. True if
+     * the current chunk is the last one, i.e. the end of the chunk is the end of the input.
+     */
+    public boolean isStreamEnd() {
+        return streamEnd;
+    }
+
+    public void setStreamEnd(boolean streamEnd) {
+        this.streamEnd = streamEnd;
+    }
+
     public DFACaptureGroupTrackingData getCGData() {
         return cgData;
     }
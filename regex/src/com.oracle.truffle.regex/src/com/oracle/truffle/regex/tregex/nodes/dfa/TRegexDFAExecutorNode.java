@@ -183,7 +183,7 @@ public final class TRegexDFAExecutorNode extends TRegexExecutorNode {
             Arrays.fill(locals.getCGData().results, -1);
         }
         // check if input is long enough for a match
-        if (props.getMinResultLength() > 0 &&
+        if (!props.isStreaming() && props.getMinResultLength() > 0 &&
                         (isForward() ? locals.getMaxIndex() - locals.getIndex() : locals.getIndex() - Math.max(0, locals.getFromIndex() - getPrefixLength())) < props.getMinResultLength()) {
             // no match possible, break immediately
             return isGenericCG() || isSimpleCG() ? null : TRegexDFAExecutorNode.NO_MATCH;
@@ -210,6 +210,33 @@ public final class TRegexDFAExecutorNode extends TRegexExecutorNode {
             CompilerAsserts.partialEvaluationConstant(successors);
             CompilerAsserts.partialEvaluationConstant(successors.length);
             if (curState instanceof DFAInitialStateNode) {
+                if (props.isStreaming() && locals.getStreamState() > 0) {
+                    /*
+                     * We are resuming a streaming search that was suspended at the end of the
+                     * previous chunk - jump directly to the DFA state we were suspended in.
+                     */
+                    final short resumeState = locals.getStreamState();
+                    assert resumeState < states.length && states[resumeState].getId() == resumeState;
+                    locals.setStreamState((short) -1);
+                    initNextIndex(locals);
+                    if (CompilerDirectives.inInterpreter()) {
+                        ip = resumeState;
+                        continue outer;
+                    }
+                    /*
+                     * In compiled code, ip must be a partial evaluation constant. States are
+                     * indexed by their ID, so this is a comparison chain on the resume state's
+                     * index; the last state is the only one left if all comparisons fail.
+                     */
+                    for (int i = 1; i < states.length - 1; i++) {
+                        if (i == resumeState) {
+                            ip = i;
+                            continue outer;
+                        }
+                    }
+                    ip = states.length - 1;
+                    continue outer;
+                }
                 /*
                  * initial state selection
                  */
@@ -299,6 +326,15 @@ public final class TRegexDFAExecutorNode extends TRegexExecutorNode {
                         }
                     }
                     if (!inputHasNext(locals)) {
+                        if (props.isStreaming() && !locals.isStreamEnd()) {
+                            /*
+                             * We have reached the end of the current chunk, but more input will
+                             * follow. Suspend the search in the current state, the caller will
+                             * resume it when the next chunk arrives.
+                             */
+                            locals.setStreamState(state.getId());
+                            break;
+                        }
                         state.atEnd(locals, this);
                         if (isBackward() && state.hasBackwardPrefixState() && locals.getIndex() > 0) {
                             assert locals.getIndex() == locals.getFromIndex();
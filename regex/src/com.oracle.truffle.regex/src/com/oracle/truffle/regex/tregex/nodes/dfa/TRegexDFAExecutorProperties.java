@@ -51,6 +51,7 @@ public final class TRegexDFAExecutorProperties {
     @CompilationFinal private boolean simpleCG;
     @CompilationFinal private boolean simpleCGMustCopy;
     private final boolean regressionTestMode;
+    private final boolean streaming;
     private final int minResultLength;
 
     public TRegexDFAExecutorProperties(
@@ -60,11 +61,23 @@ public final class TRegexDFAExecutorProperties {
                     boolean allowSimpleCG,
                     boolean regressionTestMode,
                     int minResultLength) {
+        this(forward, searching, genericCG, allowSimpleCG, regressionTestMode, false, minResultLength);
+    }
+
+    public TRegexDFAExecutorProperties(
+                    boolean forward,
+                    boolean searching,
+                    boolean genericCG,
+                    boolean allowSimpleCG,
+                    boolean regressionTestMode,
+                    boolean streaming,
+                    int minResultLength) {
         this.forward = forward;
         this.searching = searching;
         this.genericCG = genericCG;
         this.allowSimpleCG = allowSimpleCG;
         this.regressionTestMode = regressionTestMode;
+        this.streaming = streaming;
         this.minResultLength = minResultLength;
     }
 
@@ -119,6 +132,14 @@ public final class TRegexDFAExecutorProperties {
         return regressionTestMode;
     }
 
+    /**
+     * True if the DFA executor may be suspended when it reaches the end of the current input chunk,
+     * and resumed in the same state on the next chunk. See {@link TRegexDFAStreamBuffer}.
+     */
+    public boolean isStreaming() {
+        return streaming;
+    }
+
     public int getMinResultLength() {
         return minResultLength;
     }
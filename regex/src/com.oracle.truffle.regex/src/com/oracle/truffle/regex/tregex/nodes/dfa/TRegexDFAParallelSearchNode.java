@@ -0,0 +1,238 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.regex.tregex.nodes.dfa;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.regex.RegexInterruptedException;
+import com.oracle.truffle.regex.RegexLanguage;
+import com.oracle.truffle.regex.RegexRootNode;
+import com.oracle.truffle.regex.RegexSource;
+import com.oracle.truffle.regex.tregex.TRegexOptions;
+import com.oracle.truffle.regex.tregex.string.Encodings;
+
+/**
+ * Searches for the end of the first match of a forward searching DFA by splitting the input into
+ * segments that are processed in parallel by {@link TRegexParallelSearchWorkers}.
+ * <p>
+ * The DFA is {@link TRegexDFAExecutorProperties#isStreaming() streaming}, so it can be suspended at
+ * the end of a segment and resumed in the same state at the beginning of the next one. Since the
+ * state the search will be in when it reaches a given segment is not known in advance, every
+ * segment except the first one is searched speculatively: a worker guesses the state by running a
+ * fresh search over a few characters in front of the segment
+ * ({@link TRegexOptions#TRegexParallelSearchWarmupLength} by default), and then runs the segment
+ * starting in the guessed state. In unanchored searches, the DFA usually synchronizes to the same
+ * state quickly, so the guess is almost always correct. The segment results are then stitched
+ * together in order: if the state the search actually reached at the start of a segment matches
+ * the guess, the speculative result is used, otherwise the segment is searched again from the
+ * correct state. The search stops at the first segment in which the DFA terminates. At that point,
+ * the speculative searches of all later segments are cancelled: those that did not start yet are
+ * skipped, and those that are running give up at their next cancellation check.
+ * <p>
+ * Parallel searches are done by default on inputs of at least
+ * {@link com.oracle.truffle.regex.tregex.TRegexOptions#TRegexParallelSearchThreshold} characters.
+ * They can be turned off with the {@code NoParallelSearch} option, since they use worker threads
+ * of the context and, if the first match is close to the start of the search, spend CPU time on
+ * segments whose results are thrown away.
+ * <p>
+ * All segment searches run through the call target of a {@link TRegexParallelSearchSegmentNode}.
+ * Only {@link String} and {@code byte[]} inputs are supported, since reading other inputs may
+ * require interop calls.
+ */
+public final class TRegexDFAParallelSearchNode extends Node {
+
+    private static final int NO_END = TRegexDFAExecutorNode.NO_MATCH;
+
+    private final CallTarget segmentCallTarget;
+    private final Encodings.Encoding encoding;
+
+    public TRegexDFAParallelSearchNode(RegexLanguage language, RegexSource source, TRegexDFAExecutorNode executor) {
+        assert executor.getProperties().isStreaming() && executor.isForward() && executor.isSearching() && !executor.isSimpleCG() && !executor.isGenericCG();
+        this.segmentCallTarget = Truffle.getRuntime().createCallTarget(new RegexRootNode(language, new TRegexParallelSearchSegmentNode(language, source, executor)));
+        this.encoding = executor.getEncoding();
+    }
+
+    public static boolean isSupportedInput(Object input) {
+        return input instanceof String || input instanceof byte[];
+    }
+
+    /**
+     * Returns the number of segments a search from {@code fromIndex} to {@code maxIndex} should be
+     * split into, or {@code 1} if a parallel search is not worth it.
+     */
+    public static int getNumberOfSegments(int fromIndex, int maxIndex) {
+        if (maxIndex - fromIndex < TRegexOptions.TRegexParallelSearchThreshold) {
+            return 1;
+        }
+        int parallelism = TRegexParallelSearchWorkers.getParallelism();
+        if (parallelism < 2) {
+            return 1;
+        }
+        // use more segments than workers, to balance the load and to keep the amount of work
+        // wasted on speculation after the first match small.
+        return Math.min(parallelism * 4, (maxIndex - fromIndex) / TRegexOptions.TRegexParallelSearchMinSegmentLength);
+    }
+
+    /**
+     * Searches for the end of the first match in {@code input}, from {@code fromIndex} to
+     * {@code maxIndex}, in {@code nSegments} segments. The state at the start of every segment is
+     * guessed by scanning {@code warmupLength} characters in front of it. The speculative searches
+     * are handed to {@code workers}; if {@code workers} is {@code null} or does not accept them,
+     * they are run on the current thread. Returns the same result as the forward search DFA, i.e.
+     * the end of the match or {@link TRegexDFAExecutorNode#NO_MATCH}.
+     */
+    @TruffleBoundary
+    public int execute(Object input, boolean compactString, int fromIndex, int maxIndex, int nSegments, int warmupLength, TRegexParallelSearchWorkers workers) {
+        assert isSupportedInput(input) && nSegments > 1;
+        final int[] bounds = new int[nSegments + 1];
+        final long length = maxIndex - fromIndex;
+        bounds[0] = fromIndex;
+        for (int i = 1; i < nSegments; i++) {
+            bounds[i] = Math.max(bounds[i - 1], alignToCodePoint(input, encoding, (int) (fromIndex + length * i / nSegments), maxIndex));
+        }
+        bounds[nSegments] = maxIndex;
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        final FutureTask<SegmentResult>[] tasks = new FutureTask[nSegments];
+        final AtomicBoolean cancelled = new AtomicBoolean();
+        for (int i = 1; i < nSegments; i++) {
+            final int segment = i;
+            tasks[i] = new FutureTask<>(() -> searchSpeculative(input, compactString, fromIndex, bounds, segment, warmupLength, cancelled));
+            if (workers == null || !workers.submit(tasks[i])) {
+                tasks[i].run();
+            }
+        }
+        try {
+            short state = -1;
+            int pendingEnd = NO_END;
+            for (int i = 0; i < nSegments; i++) {
+                SegmentResult result = i == 0 ? null : getResult(tasks[i]);
+                if (result == null || result.initialState != state) {
+                    result = searchSegment(input, compactString, fromIndex, bounds, i, state, -1, null);
+                }
+                if (result.terminated) {
+                    return result.end == NO_END ? pendingEnd : result.end;
+                }
+                if (result.end != NO_END) {
+                    pendingEnd = result.end;
+                }
+                state = result.state;
+            }
+            throw new IllegalStateException("search did not terminate in the last segment");
+        } finally {
+            cancelled.set(true);
+            for (int i = 1; i < nSegments; i++) {
+                tasks[i].cancel(false);
+            }
+        }
+    }
+
+    /**
+     * Returns the result of a speculative segment search, or {@code null} if the search failed. In
+     * that case, the caller searches the segment again from the correct state.
+     */
+    private static SegmentResult getResult(FutureTask<SegmentResult> task) {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RegexInterruptedException();
+        } catch (ExecutionException | CancellationException e) {
+            return null;
+        }
+    }
+
+    private SegmentResult searchSpeculative(Object input, boolean compactString, int fromIndex, int[] bounds, int segment, int warmupLength, AtomicBoolean cancelled) {
+        final int segmentStart = bounds[segment];
+        final int warmupStart = alignToCodePoint(input, encoding, Math.max(fromIndex, segmentStart - warmupLength), segmentStart);
+        return searchSegment(input, compactString, fromIndex, bounds, segment, (short) -1, warmupStart, cancelled);
+    }
+
+    private SegmentResult searchSegment(Object input, boolean compactString, int fromIndex, int[] bounds, int segment, short initialState, int warmupStart, AtomicBoolean cancelled) {
+        assert (segment == 0) == (initialState < 0 && warmupStart < 0);
+        return (SegmentResult) segmentCallTarget.call(input, compactString, fromIndex, bounds[segment], bounds[segment + 1], segment == bounds.length - 2, initialState, warmupStart, cancelled);
+    }
+
+    /**
+     * Moves {@code index} forward to the next code point boundary, so no segment starts in the
+     * middle of an encoded code point.
+     */
+    static int alignToCodePoint(Object input, Encodings.Encoding encoding, int index, int maxIndex) {
+        int i = index;
+        if (input instanceof String && encoding == Encodings.UTF_16) {
+            String str = (String) input;
+            if (i > 0 && i < maxIndex && Character.isHighSurrogate(str.charAt(i - 1)) && Character.isLowSurrogate(str.charAt(i))) {
+                i++;
+            }
+        } else if (input instanceof byte[] && encoding == Encodings.UTF_8) {
+            byte[] bytes = (byte[]) input;
+            while (i < maxIndex && (bytes[i] & 0xc0) == 0x80) {
+                i++;
+            }
+        }
+        return i;
+    }
+
+    static final class SegmentResult {
+
+        private final short initialState;
+        /**
+         * The state the DFA was suspended in at the end of the segment, or {@code -1} if the DFA
+         * terminated in this segment.
+         */
+        private final short state;
+        private final boolean terminated;
+        private final int end;
+
+        SegmentResult(short initialState, short state, int end) {
+            this.initialState = initialState;
+            this.state = state;
+            this.terminated = state < 0;
+            this.end = end;
+        }
+    }
+}
@@ -0,0 +1,331 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.regex.tregex.nodes.dfa;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.regex.tregex.string.Encodings;
+import com.oracle.truffle.regex.tregex.string.Encodings.Encoding;
+
+/**
+ * Sliding input window of a streaming regex search, see {@link TRegexStreamingSearchRootNode}.
+ * <p>
+ * Input chunks are appended to a single growable buffer, which is handed to the DFA executors as a
+ * {@code byte[]} or {@code char[]} input. Chunks may end in the middle of an encoded code point;
+ * such incomplete trailing code units are held back until the next chunk arrives. When the buffer
+ * runs out of space, all data that is no longer needed is dropped from its beginning. In addition
+ * to the data required to finish the current search, the buffer always keeps at least
+ * {@link #getHistorySize()} code units of preceding input, which are needed by look-behind assertions and
+ * to find the start of a match. All offsets stored in this class are absolute offsets into the
+ * whole stream, offsets relative to the current window are named {@code rel*}.
+ * <p>
+ * Instances of this class are not thread-safe.
+ */
+public final class TRegexDFAStreamBuffer {
+
+    public static final int DEFAULT_HISTORY_SIZE = 1 << 16;
+    public static final int MIN_HISTORY_SIZE = 64;
+
+    private final Encoding encoding;
+    private final boolean unicode;
+    private final int historySize;
+    private byte[] bytes;
+    private char[] chars;
+    private int length = 0;
+    private long base = 0;
+
+    private Object input;
+    private int limit;
+    private boolean finished = false;
+
+    private long searchStart = 0;
+    private long scanned = 0;
+    private short dfaState = -1;
+    private long pendingEnd = -1;
+    private boolean mustAdvance = false;
+    private boolean exhausted = false;
+
+    public TRegexDFAStreamBuffer(Encoding encoding, boolean unicode, int prefixLength, int historySize) {
+        assert isSupportedEncoding(encoding);
+        this.encoding = encoding;
+        this.unicode = unicode;
+        this.historySize = Math.max(historySize, Math.max(MIN_HISTORY_SIZE, (prefixLength + 1) * 4));
+        if (isByteBased()) {
+            bytes = new byte[64];
+        } else {
+            chars = new char[64];
+        }
+    }
+
+    public static boolean isSupportedEncoding(Encoding encoding) {
+        return encoding == Encodings.UTF_8 || encoding == Encodings.LATIN_1 || encoding == Encodings.UTF_16 || encoding == Encodings.UTF_16_RAW;
+    }
+
+    public boolean isByteBased() {
+        return encoding == Encodings.UTF_8 || encoding == Encodings.LATIN_1;
+    }
+
+    public int getHistorySize() {
+        return historySize;
+    }
+
+    /**
+     * Absolute offset of the first code unit in the current window.
+     */
+    public long getBase() {
+        return base;
+    }
+
+    /**
+     * Total number of code units received so far.
+     */
+    public long getPosition() {
+        return base + length;
+    }
+
+    /**
+     * The executor input created by the last call to {@link #prepare(boolean)}.
+     */
+    public Object getInput() {
+        return input;
+    }
+
+    /**
+     * Relative index of the end of the data that may be consumed by the forward executor, i.e. the
+     * end of the window minus any incomplete trailing code point.
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    public long getSearchStart() {
+        return searchStart;
+    }
+
+    public void setSearchStart(long searchStart) {
+        this.searchStart = searchStart;
+    }
+
+    /**
+     * Absolute offset up to which the forward executor has consumed the input while in
+     * {@link #getDFAState()}.
+     */
+    public long getScanned() {
+        return scanned;
+    }
+
+    /**
+     * The DFA state the forward executor was suspended in, or {@code -1} if the next search must
+     * start in the initial state.
+     */
+    public short getDFAState() {
+        return dfaState;
+    }
+
+    public void suspend(short state, long scannedOffset) {
+        this.dfaState = state;
+        this.scanned = scannedOffset;
+    }
+
+    public void clearDFAState() {
+        this.dfaState = -1;
+    }
+
+    /**
+     * Absolute end offset of the last match candidate found by a suspended forward executor, or
+     * {@code -1}.
+     */
+    public long getPendingEnd() {
+        return pendingEnd;
+    }
+
+    public void setPendingEnd(long pendingEnd) {
+        this.pendingEnd = pendingEnd;
+    }
+
+    /**
+     * True if the last match was empty and the next search must start one code point after
+     * {@link #getSearchStart()}.
+     */
+    public boolean isMustAdvance() {
+        return mustAdvance;
+    }
+
+    public void setMustAdvance(boolean mustAdvance) {
+        this.mustAdvance = mustAdvance;
+    }
+
+    /**
+     * True if no further matches are possible, regardless of any input that may follow.
+     */
+    public boolean isExhausted() {
+        return exhausted;
+    }
+
+    public void setExhausted() {
+        this.exhausted = true;
+    }
+
+    @TruffleBoundary
+    public void append(ByteBuffer chunk) {
+        assert isByteBased();
+        int n = chunk.remaining();
+        ensureCapacity(n);
+        chunk.get(bytes, length, n);
+        length += n;
+    }
+
+    @TruffleBoundary
+    public void append(byte[] chunk) {
+        assert isByteBased();
+        ensureCapacity(chunk.length);
+        System.arraycopy(chunk, 0, bytes, length, chunk.length);
+        length += chunk.length;
+    }
+
+    @TruffleBoundary
+    public void append(CharSequence chunk) {
+        assert !isByteBased();
+        int n = chunk.length();
+        ensureCapacity(n);
+        if (chunk instanceof String) {
+            ((String) chunk).getChars(0, n, chars, length);
+        } else {
+            for (int i = 0; i < n; i++) {
+                chars[length + i] = chunk.charAt(i);
+            }
+        }
+        length += n;
+    }
+
+    /**
+     * Prepares the executor input for the data received so far. If {@code finish} is true, the
+     * end of the current window is treated as the end of the input.
+     */
+    @TruffleBoundary
+    public void prepare(boolean finish) {
+        finished = finish;
+        limit = finish ? length : completeLength();
+        // the executors never read past limit, so we can avoid copying the buffer unless the
+        // input's length is significant for end-of-input assertions.
+        if (isByteBased()) {
+            input = finish ? Arrays.copyOf(bytes, length) : bytes;
+        } else {
+            input = finish ? Arrays.copyOf(chars, length) : chars;
+        }
+    }
+
+    /**
+     * Returns the number of code units occupied by the code point starting at relative index
+     * {@code relIndex}.
+     */
+    @TruffleBoundary
+    public int codePointLength(int relIndex) {
+        assert relIndex < limit;
+        if (encoding == Encodings.UTF_8) {
+            int c = Byte.toUnsignedInt(bytes[relIndex]);
+            return c < 0x80 ? 1 : Math.max(1, Integer.numberOfLeadingZeros(~(c << 24)));
+        } else if (encoding == Encodings.UTF_16 && unicode && Character.isHighSurrogate(chars[relIndex]) && relIndex + 1 < limit && Character.isLowSurrogate(chars[relIndex + 1])) {
+            return 2;
+        }
+        return 1;
+    }
+
+    private int completeLength() {
+        if (encoding == Encodings.UTF_8) {
+            for (int i = length - 1; i >= Math.max(0, length - 4); i--) {
+                int c = Byte.toUnsignedInt(bytes[i]);
+                if (c >> 6 != 2) {
+                    int n = c < 0x80 ? 1 : Integer.numberOfLeadingZeros(~(c << 24));
+                    return i + n > length ? i : length;
+                }
+            }
+            return length;
+        } else if (encoding == Encodings.UTF_16) {
+            return length > 0 && Character.isHighSurrogate(chars[length - 1]) ? length - 1 : length;
+        }
+        return length;
+    }
+
+    /**
+     * Absolute offset of the first code unit that must be kept in the window.
+     */
+    private long retainFrom() {
+        long keep;
+        if (dfaState < 0) {
+            keep = searchStart;
+        } else {
+            keep = pendingEnd < 0 ? scanned : Math.min(scanned, pendingEnd);
+        }
+        return Math.max(base, keep - historySize);
+    }
+
+    private void ensureCapacity(int n) {
+        int capacity = isByteBased() ? bytes.length : chars.length;
+        if (length + n <= capacity) {
+            return;
+        }
+        int drop = (int) (retainFrom() - base);
+        if (drop > 0) {
+            if (isByteBased()) {
+                System.arraycopy(bytes, drop, bytes, 0, length - drop);
+            } else {
+                System.arraycopy(chars, drop, chars, 0, length - drop);
+            }
+            length -= drop;
+            base += drop;
+        }
+        if (length + n > capacity) {
+            int newCapacity = Math.max(capacity * 2, length + n);
+            if (isByteBased()) {
+                bytes = Arrays.copyOf(bytes, newCapacity);
+            } else {
+                chars = Arrays.copyOf(chars, newCapacity);
+            }
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.regex.tregex.nodes.dfa;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.profiles.ConditionProfile;
+import com.oracle.truffle.regex.RegexBodyNode;
+import com.oracle.truffle.regex.RegexLanguage;
+import com.oracle.truffle.regex.RegexSource;
+import com.oracle.truffle.regex.tregex.TRegexOptions;
+import com.oracle.truffle.regex.tregex.nodes.dfa.TRegexDFAParallelSearchNode.SegmentResult;
+
+/**
+ * Searches a single segment of a {@link TRegexDFAParallelSearchNode parallel search}. This node is
+ * called on the thread that started the search as well as on
+ * {@link TRegexParallelSearchWorkers worker threads}.
+ * <p>
+ * Arguments: the input, whether the input is a compact string, the {@code fromIndex} of the whole
+ * search, the bounds of the segment, whether this is the last segment, the DFA state to resume in
+ * at the start of the segment, and the index to start a warm-up search at. If the warm-up index is
+ * not negative, the initial state is guessed by running a fresh search from the warm-up index to
+ * the start of the segment; if that search terminates, the guess fails and {@code null} is
+ * returned. Otherwise, the segment is searched starting in the initial state, which is {@code -1}
+ * in the first segment.
+ * <p>
+ * The last argument is the cancellation flag of a speculative search, or {@code null}. The segment
+ * is searched in chunks of {@link TRegexOptions#TRegexParallelSearchCancellationCheckInterval}
+ * characters, and the search gives up and returns {@code null} as soon as the flag is set between
+ * two chunks.
+ */
+public final class TRegexParallelSearchSegmentNode extends RegexBodyNode {
+
+    @Child private TRegexDFAExecutorNode executor;
+    private final ConditionProfile compactStringProfile = ConditionProfile.createBinaryProfile();
+
+    TRegexParallelSearchSegmentNode(RegexLanguage language, RegexSource source, TRegexDFAExecutorNode executor) {
+        super(language, source);
+        this.executor = executor;
+    }
+
+    @Override
+    public Object execute(VirtualFrame frame) {
+        final Object[] args = frame.getArguments();
+        assert args.length == 9;
+        final Object input = args[0];
+        final boolean compactString = (boolean) args[1];
+        final int fromIndex = (int) args[2];
+        final int segmentStart = (int) args[3];
+        final int segmentEnd = (int) args[4];
+        final boolean lastSegment = (boolean) args[5];
+        final int warmupStart = (int) args[7];
+        final AtomicBoolean cancelled = (AtomicBoolean) args[8];
+        short initialState = (short) args[6];
+        if (warmupStart >= 0) {
+            TRegexDFAExecutorLocals warmup = (TRegexDFAExecutorLocals) executor.createLocals(input, warmupStart, warmupStart, segmentStart);
+            warmup.setStreamEnd(false);
+            run(warmup, compactString);
+            if (warmup.getStreamState() < 0) {
+                // the warm-up search terminated, we cannot guess the state.
+                return null;
+            }
+            initialState = warmup.getStreamState();
+        }
+        short state = initialState;
+        int end = TRegexDFAExecutorNode.NO_MATCH;
+        int chunkStart = segmentStart;
+        do {
+            if (cancelled != null && cancelled.get()) {
+                return null;
+            }
+            final int chunkEnd = segmentEnd - chunkStart > TRegexOptions.TRegexParallelSearchCancellationCheckInterval
+                            ? TRegexDFAParallelSearchNode.alignToCodePoint(input, executor.getEncoding(), chunkStart + TRegexOptions.TRegexParallelSearchCancellationCheckInterval, segmentEnd)
+                            : segmentEnd;
+            final TRegexDFAExecutorLocals locals = (TRegexDFAExecutorLocals) executor.createLocals(input, fromIndex, chunkStart, chunkEnd);
+            locals.setStreamState(state);
+            locals.setStreamEnd(lastSegment && chunkEnd == segmentEnd);
+            final int chunkResult = run(locals, compactString);
+            if (chunkResult != TRegexDFAExecutorNode.NO_MATCH) {
+                end = chunkResult;
+            }
+            state = locals.getStreamState();
+            chunkStart = chunkEnd;
+        } while (state >= 0 && chunkStart < segmentEnd);
+        return new SegmentResult(initialState, state, end);
+    }
+
+    private int run(TRegexDFAExecutorLocals locals, boolean compactString) {
+        if (compactStringProfile.profile(compactString)) {
+            return (int) executor.execute(locals, true);
+        } else {
+            return (int) executor.execute(locals, false);
+        }
+    }
+
+    @Override
+    public String getEngineLabel() {
+        return "TRegex parallel search segment";
+    }
+}
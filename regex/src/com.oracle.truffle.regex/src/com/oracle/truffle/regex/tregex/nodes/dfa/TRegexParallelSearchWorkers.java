@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.regex.tregex.nodes.dfa;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import com.oracle.truffle.api.TruffleLanguage.Env;
+import com.oracle.truffle.regex.RegexLanguage.RegexContext;
+
+/**
+ * Worker threads of a {@link RegexContext} that run the speculative segment searches of
+ * {@link TRegexDFAParallelSearchNode}s.
+ * <p>
+ * Workers are polyglot threads created with {@link Env#createThread(Runnable)}, so they are
+ * entered in the context while they run, and the embedder decides whether they may exist at all.
+ * They are started on demand and stop after being idle for {@link #KEEP_ALIVE_MILLIS}, so a
+ * context does not stay multi-threaded after its last parallel search. All workers are stopped and
+ * joined by {@link #shutdown()} when the context is finalized.
+ */
+public final class TRegexParallelSearchWorkers {
+
+    private static final long KEEP_ALIVE_MILLIS = 1000;
+
+    private final RegexContext context;
+    private final int maxWorkers;
+    private final BlockingQueue<FutureTask<?>> queue = new LinkedBlockingQueue<>();
+    private final List<Thread> threads = new ArrayList<>();
+    private int liveWorkers = 0;
+    private boolean disabled = false;
+    private volatile boolean shutdown = false;
+
+    public TRegexParallelSearchWorkers(RegexContext context) {
+        this.context = context;
+        this.maxWorkers = Math.max(1, getParallelism() - 1);
+    }
+
+    /**
+     * The number of threads a parallel search can run on, including the thread that started it.
+     */
+    public static int getParallelism() {
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Returns {@code false} if {@link #submit(FutureTask) submitted} tasks will not be run by
+     * worker threads, because the context does not allow creating them or is being finalized.
+     */
+    public synchronized boolean isAvailable() {
+        return !disabled && !shutdown;
+    }
+
+    /**
+     * Schedules {@code task} to be run by a worker thread. Returns {@code false} if no worker is
+     * available, the caller must run the task itself in that case.
+     */
+    public synchronized boolean submit(FutureTask<?> task) {
+        if (!isAvailable()) {
+            return false;
+        }
+        threads.removeIf(t -> !t.isAlive());
+        while (liveWorkers < maxWorkers) {
+            Thread thread;
+            try {
+                thread = context.getEnv().createThread(this::work);
+            } catch (IllegalStateException e) {
+                // the context does not allow (multi-threaded) thread creation
+                disabled = true;
+                break;
+            }
+            threads.add(thread);
+            liveWorkers++;
+            thread.start();
+        }
+        if (liveWorkers == 0) {
+            return false;
+        }
+        queue.add(task);
+        return true;
+    }
+
+    private void work() {
+        try {
+            while (!shutdown) {
+                FutureTask<?> task = queue.poll(KEEP_ALIVE_MILLIS, TimeUnit.MILLISECONDS);
+                if (task != null) {
+                    task.run();
+                } else if (stopIfIdle()) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            // shutdown() interrupts idle workers
+        }
+        synchronized (this) {
+            liveWorkers--;
+        }
+    }
+
+    private synchronized boolean stopIfIdle() {
+        if (queue.isEmpty()) {
+            liveWorkers--;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Stops and joins all workers. Tasks that have not been started yet are cancelled.
+     */
+    public void shutdown() {
+        List<Thread> toJoin;
+        synchronized (this) {
+            shutdown = true;
+            toJoin = new ArrayList<>(threads);
+            threads.clear();
+            List<FutureTask<?>> pending = new ArrayList<>();
+            queue.drainTo(pending);
+            for (FutureTask<?> task : pending) {
+                task.cancel(false);
+            }
+        }
+        boolean interrupted = false;
+        for (int i = 0; i < toJoin.size();) {
+            Thread thread = toJoin.get(i);
+            try {
+                thread.interrupt();
+                thread.join();
+                i++;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
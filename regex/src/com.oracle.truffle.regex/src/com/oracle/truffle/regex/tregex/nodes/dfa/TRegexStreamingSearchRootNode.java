@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.regex.tregex.nodes.dfa;
+
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.regex.RegexBodyNode;
+import com.oracle.truffle.regex.RegexFlags;
+import com.oracle.truffle.regex.RegexLanguage;
+import com.oracle.truffle.regex.RegexSource;
+import com.oracle.truffle.regex.tregex.buffer.LongArrayBuffer;
+import com.oracle.truffle.regex.tregex.nodes.TRegexExecNode;
+import com.oracle.truffle.regex.tregex.nodes.TRegexExecutorEntryNode;
+
+/**
+ * Finds all matches of a regular expression in a stream of input chunks. The forward search DFA is
+ * {@link TRegexDFAExecutorProperties#isStreaming() streaming}, i.e. it is suspended at the end of
+ * every chunk and resumed in the same state when the next chunk arrives, so every code unit of the
+ * stream is read by the forward DFA only once. The start of every match is found by running the
+ * backward DFA on the {@link TRegexDFAStreamBuffer input window}, just like in
+ * {@link TRegexLazyFindStartRootNode}. If the expression contains look-around assertions, the
+ * bounds found by the forward and backward DFA include the look-around context, so the actual
+ * bounds are calculated with the capture group DFA, like in
+ * {@link TRegexLazyCaptureGroupsRootNode}.
+ * <p>
+ * This node expects a single argument, the {@link TRegexDFAStreamBuffer} prepared with
+ * {@link TRegexDFAStreamBuffer#prepare(boolean)}. It returns a {@code long[]} of absolute
+ * {@code [start, end]} offset pairs of all matches that were completed by the current chunk. If a
+ * match starts further back than the buffer's history, its start offset is reported as {@code -1}.
+ * If the expression contains look-around assertions, the end offset of such a match is unknown as
+ * well and also reported as {@code -1}. Capture groups are not reported.
+ */
+public final class TRegexStreamingSearchRootNode extends RegexBodyNode {
+
+    private static final long[] NO_MATCHES = {};
+
+    @Child private TRegexExecNode root;
+    @Child private TRegexExecutorEntryNode forwardEntryNode;
+    @Child private TRegexExecutorEntryNode backwardEntryNode;
+    @Child private TRegexExecutorEntryNode captureGroupEntryNode;
+    private final RegexFlags flags;
+
+    public TRegexStreamingSearchRootNode(RegexLanguage language, RegexSource source, RegexFlags flags, TRegexExecNode root, TRegexDFAExecutorNode forwardExecutor,
+                    TRegexDFAExecutorNode backwardExecutor, TRegexDFAExecutorNode captureGroupExecutor) {
+        super(language, source);
+        assert forwardExecutor == null || forwardExecutor.getProperties().isStreaming();
+        this.root = root;
+        this.forwardEntryNode = root == null ? null : root.createEntryNode(forwardExecutor);
+        this.backwardEntryNode = root == null ? null : root.createEntryNode(backwardExecutor);
+        this.captureGroupEntryNode = root == null ? null : root.createEntryNode(captureGroupExecutor);
+        this.flags = flags;
+    }
+
+    /**
+     * Creates a new input buffer suitable for this regular expression.
+     */
+    public TRegexDFAStreamBuffer createBuffer(int historySize) {
+        int prefixLength = forwardEntryNode == null ? 0 : getForwardExecutor().getPrefixLength();
+        return new TRegexDFAStreamBuffer(source.getEncoding(), flags.isUnicode(), prefixLength, historySize);
+    }
+
+    private TRegexDFAExecutorNode getForwardExecutor() {
+        return (TRegexDFAExecutorNode) forwardEntryNode.getExecutor();
+    }
+
+    private TRegexDFAExecutorNode getBackwardExecutor() {
+        return (TRegexDFAExecutorNode) backwardEntryNode.getExecutor();
+    }
+
+    @Override
+    public Object execute(VirtualFrame frame) {
+        final Object[] args = frame.getArguments();
+        assert args.length == 1;
+        final TRegexDFAStreamBuffer buffer = (TRegexDFAStreamBuffer) args[0];
+        if (forwardEntryNode == null) {
+            // dead regular expression
+            buffer.setExhausted();
+            return NO_MATCHES;
+        }
+        final TRegexDFAExecutorNode forward = getForwardExecutor();
+        final Object input = buffer.getInput();
+        final long base = buffer.getBase();
+        final int limit = buffer.getLimit();
+        LongArrayBuffer results = null;
+        while (!buffer.isExhausted()) {
+            if (buffer.isMustAdvance()) {
+                int searchStartRel = (int) (buffer.getSearchStart() - base);
+                if (searchStartRel >= limit) {
+                    // the next code point has not been received yet
+                    if (buffer.isFinished()) {
+                        buffer.setExhausted();
+                    }
+                    break;
+                }
+                buffer.setSearchStart(buffer.getSearchStart() + buffer.codePointLength(searchStartRel));
+                buffer.setMustAdvance(false);
+            }
+            final long searchStart = buffer.getSearchStart();
+            final boolean resume = buffer.getDFAState() >= 0;
+            final int fromIndexRel = (int) Math.max(0, searchStart - base);
+            final int indexRel = resume ? (int) (buffer.getScanned() - base) : fromIndexRel;
+            final TRegexDFAExecutorLocals locals = (TRegexDFAExecutorLocals) forward.createLocals(input, fromIndexRel, indexRel, limit);
+            locals.setStreamState(buffer.getDFAState());
+            locals.setStreamEnd(buffer.isFinished());
+            final int endRel = (int) forward.execute(locals, false);
+            if (locals.getStreamState() >= 0) {
+                // reached the end of the current chunk
+                buffer.suspend(locals.getStreamState(), base + limit);
+                if (endRel >= 0) {
+                    buffer.setPendingEnd(base + endRel);
+                }
+                break;
+            }
+            buffer.clearDFAState();
+            final long end = endRel >= 0 ? base + endRel : buffer.getPendingEnd();
+            buffer.setPendingEnd(-1);
+            if (end < 0) {
+                // the DFA died without finding a match, this can only happen in anchored and sticky
+                // expressions, so there cannot be any further matches.
+                buffer.setExhausted();
+                break;
+            }
+            long start = findStart(buffer, input, searchStart, end);
+            long matchEnd = end;
+            if (captureGroupEntryNode != null && end != searchStart) {
+                if (start < 0) {
+                    matchEnd = -1;
+                } else {
+                    final TRegexDFAExecutorNode captureGroups = (TRegexDFAExecutorNode) captureGroupEntryNode.getExecutor();
+                    final int[] bounds = (int[]) captureGroups.execute(captureGroups.createLocals(input, fromIndexRel, (int) (start - base), (int) (end - base)), false);
+                    start = base + bounds[0];
+                    matchEnd = base + bounds[1];
+                }
+            }
+            if (results == null) {
+                results = new LongArrayBuffer(8);
+            }
+            results.add(start);
+            results.add(matchEnd);
+            final long nextSearchStart = matchEnd < 0 ? end : matchEnd;
+            buffer.setSearchStart(nextSearchStart);
+            buffer.setMustAdvance(nextSearchStart == searchStart || nextSearchStart == start);
+        }
+        return results == null ? NO_MATCHES : results.toArray();
+    }
+
+    private long findStart(TRegexDFAStreamBuffer buffer, Object input, long searchStart, long end) {
+        if (backwardEntryNode == null) {
+            return searchStart;
+        }
+        if (end == searchStart) {
+            return end;
+        }
+        final long base = buffer.getBase();
+        final int fromIndexRel = (int) Math.max(0, searchStart - base);
+        final int endRel = (int) (end - base);
+        final TRegexDFAExecutorNode backward = getBackwardExecutor();
+        final TRegexDFAExecutorLocals locals = (TRegexDFAExecutorLocals) backward.createLocals(input, fromIndexRel, endRel, endRel);
+        final int startRel = (int) backward.execute(locals, false);
+        if (startRel < 0 || (searchStart < base && locals.getIndex() == 0)) {
+            // the backward DFA reached the beginning of the retained history, the match may start
+            // further back.
+            return -1;
+        }
+        return base + startRel;
+    }
+
+    @Override
+    public String getEngineLabel() {
+        return "TRegex stream";
+    }
+}
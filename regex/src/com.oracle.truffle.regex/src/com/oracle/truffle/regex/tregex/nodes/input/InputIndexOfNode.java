@@ -64,6 +64,11 @@ public abstract class InputIndexOfNode extends Node {
         return ArrayUtils.indexOf(input, fromIndex, maxIndex, chars);
     }
 
+    @Specialization
+    public int doCharArrayChars(char[] input, int fromIndex, int maxIndex, char[] chars) {
+        return ArrayUtils.indexOf(input, fromIndex, maxIndex, chars);
+    }
+
     @Specialization
     public int doTruffleObjBytes(TruffleObject input, int fromIndex, int maxIndex, byte[] bytes,
                     @Cached InputReadNode charAtNode) {
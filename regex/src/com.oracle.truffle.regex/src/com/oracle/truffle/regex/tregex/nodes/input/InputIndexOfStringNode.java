@@ -77,6 +77,16 @@ public abstract class InputIndexOfStringNode extends Node {
         return ArrayUtils.indexOfWithOrMask(input, fromIndex, maxIndex - fromIndex, match, mask);
     }
 
+    @Specialization(guards = "mask == null")
+    public int doChars(char[] input, int fromIndex, int maxIndex, String match, @SuppressWarnings("unused") Object mask) {
+        return indexOfChars(input, fromIndex, maxIndex, match, null);
+    }
+
+    @Specialization(guards = "mask != null")
+    public int doCharsMask(char[] input, int fromIndex, int maxIndex, String match, String mask) {
+        return indexOfChars(input, fromIndex, maxIndex, match, mask);
+    }
+
     @Specialization
     public int doTruffleObjBytes(TruffleObject input, int fromIndex, int maxIndex, byte[] match, Object mask,
                     @Cached InputLengthNode lengthNode,
@@ -118,4 +128,20 @@ public abstract class InputIndexOfStringNode extends Node {
         }
         return -1;
     }
+
+    private static int indexOfChars(char[] input, int fromIndex, int maxIndex, String match, String mask) {
+        assert mask == null || mask.length() == match.length();
+        outer: for (int i = fromIndex; i <= maxIndex - match.length(); i++) {
+            if (CompilerDirectives.inInterpreter()) {
+                RegexRootNode.checkThreadInterrupted();
+            }
+            for (int j = 0; j < match.length(); j++) {
+                if ((mask == null ? input[i + j] : input[i + j] | mask.charAt(j)) != match.charAt(j)) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
 }
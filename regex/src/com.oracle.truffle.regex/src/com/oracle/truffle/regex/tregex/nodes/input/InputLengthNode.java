@@ -67,6 +67,11 @@ public abstract class InputLengthNode extends Node {
         return input.length();
     }
 
+    @Specialization
+    static int doChars(char[] input) {
+        return input.length;
+    }
+
     @Specialization(guards = "inputs.hasArrayElements(input)", limit = "2")
     static int doTruffleObj(Object input,
                     @CachedLibrary("input") InteropLibrary inputs) {
@@ -73,6 +73,11 @@ public abstract class InputReadNode extends Node {
         return input.charAt(index);
     }
 
+    @Specialization
+    static int doChars(char[] input, int index) {
+        return input[index];
+    }
+
     @Specialization(guards = "inputs.hasArrayElements(input)", limit = "2")
     static int doBoxedCharArray(Object input, int index,
                     @CachedLibrary("input") InteropLibrary inputs,
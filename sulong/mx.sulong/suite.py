@@ -165,6 +165,7 @@ suite = {
       "sourceDirs" : ["src"],
       "dependencies" : [
         "com.oracle.truffle.llvm",
+        "com.oracle.truffle.llvm.nativemode",
         "com.oracle.truffle.llvm.tests.pipe",
         "truffle:TRUFFLE_TCK",
         "mx:JUNIT",
@@ -187,6 +188,24 @@ suite = {
       # TODO Remove deprecated ReferenceLibrary. [GR-24632]
       "javac.lint.overrides" : "-deprecation",
     },
+    "com.oracle.truffle.llvm.tests.benchmark" : {
+      "subDir" : "tests",
+      "sourceDirs" : ["src"],
+      "dependencies" : [
+        "com.oracle.truffle.llvm.nativemode",
+        "mx:JMH_1_21",
+      ],
+      "checkstyle" : "com.oracle.truffle.llvm.runtime",
+      "annotationProcessors" : ["mx:JMH_1_21"],
+      "javaCompliance" : "1.8+",
+      "javaProperties" : {
+        "sulongbench.kernels" : "<path:SULONG_BENCHMARK_KERNELS>",
+      },
+      "workingSets" : "Truffle, LLVM",
+      "license" : "BSD-new",
+      "testProject" : True,
+      "jacoco" : "exclude",
+    },
     "com.oracle.truffle.llvm.tests.native" : {
       "subDir" : "tests",
       "native" : True,
@@ -837,6 +856,22 @@ suite = {
       "testProject" : True,
       "defaultBuild" : False,
     },
+    "com.oracle.truffle.llvm.tests.benchmark.native" : {
+      "subDir" : "tests",
+      "class" : "SulongTestSuite",
+      "variants" : ["O1"],
+      "buildRef" : False,
+      "buildEnv" : {
+        "SUITE_CFLAGS" : "-pthread -fno-builtin",
+        "SUITE_LDFLAGS" : "-pthread",
+        "OS" : "<os>",
+      },
+      "dependencies" : [
+        "SULONG_TEST",
+      ],
+      "testProject" : True,
+      "defaultBuild" : False,
+    },
     "com.oracle.truffle.llvm.tests.sulong.native" : {
       "subDir" : "tests",
       "class" : "SulongTestSuite",
@@ -1493,10 +1528,12 @@ suite = {
         "com.oracle.truffle.llvm.tests",
         "com.oracle.truffle.llvm.tests.types",
         "com.oracle.truffle.llvm.tests.pipe",
-        "com.oracle.truffle.llvm.tests.tck"
+        "com.oracle.truffle.llvm.tests.tck",
+        "com.oracle.truffle.llvm.tests.benchmark",
       ],
       "exclude" : [
-       "mx:JUNIT"
+       "mx:JUNIT",
+       "mx:JMH_1_21",
       ],
       "distDependencies" : [
         "truffle:TRUFFLE_API",
@@ -1601,6 +1638,19 @@ suite = {
       "testDistribution" : True,
       "defaultBuild" : False,
     },
+    "SULONG_BENCHMARK_KERNELS" : {
+      "native" : True,
+      "relpath" : True,
+      "platformDependent" : True,
+      "layout" : {
+        "./" : [
+          "dependency:com.oracle.truffle.llvm.tests.benchmark.native/*",
+        ],
+      },
+      "license" : "BSD-new",
+      "testDistribution" : True,
+      "defaultBuild" : False,
+    },
     "SULONG_TEST_SUITES" : {
       "native" : True,
       "relpath" : True,
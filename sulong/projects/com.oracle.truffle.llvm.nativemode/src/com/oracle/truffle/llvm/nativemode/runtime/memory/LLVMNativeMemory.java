@@ -30,13 +30,15 @@
 package com.oracle.truffle.llvm.nativemode.runtime.memory;
 
 import java.lang.reflect.Field;
-import java.util.ArrayDeque;
 import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.IntBinaryOperator;
 import java.util.function.LongBinaryOperator;
 
 import com.oracle.truffle.llvm.runtime.memory.LLVMHandleMemoryBase;
-import org.graalvm.collections.EconomicMap;
 
 import com.oracle.truffle.api.Assumption;
 import com.oracle.truffle.api.CompilerAsserts;
@@ -82,6 +84,8 @@ public final class LLVMNativeMemory extends LLVMHandleMemoryBase {
         }
     }
 
+    private static final LLVMNativeSlabAllocator slabAllocator = new LLVMNativeSlabAllocator(unsafe);
+
     private static final LLVMNativeMemory INSTANCE = new LLVMNativeMemory();
 
     /**
@@ -138,6 +142,19 @@ public final class LLVMNativeMemory extends LLVMHandleMemoryBase {
         copyMemoryBoundary(sourceAddress, targetAddress, length);
     }
 
+    /**
+     * Reads the slab cache of the current thread. This is a context thread local, so compiled code
+     * can pop and push blocks without a boundary call.
+     */
+    private static LLVMNativeSlabAllocator.ThreadCache getThreadCache() {
+        return (LLVMNativeSlabAllocator.ThreadCache) LLVMLanguage.getLanguage().getMemoryThreadState().get();
+    }
+
+    @Override
+    public ThreadState createThreadState() {
+        return new LLVMNativeSlabAllocator.ThreadCache();
+    }
+
     @TruffleBoundary
     private static void freeBoundary(long address) {
         unsafe.freeMemory(address);
@@ -146,7 +163,12 @@ public final class LLVMNativeMemory extends LLVMHandleMemoryBase {
     @Override
     public void free(Node location, long address) {
         try {
-            freeBoundary(address);
+            if (!slabAllocator.free(getThreadCache(), address)) {
+                freeBoundary(address);
+            }
+        } catch (IllegalStateException e) {
+            CompilerDirectives.transferToInterpreter();
+            throw new LLVMMemoryException(location, e);
         } catch (Throwable e) {
             // this avoids unnecessary exception edges in the compiled code
             CompilerDirectives.transferToInterpreter();
@@ -162,6 +184,9 @@ public final class LLVMNativeMemory extends LLVMHandleMemoryBase {
     @Override
     public LLVMNativePointer allocateMemory(Node location, long size) {
         try {
+            if (size > 0 && size <= LLVMNativeSlabAllocator.MAX_POOLED_SIZE) {
+                return LLVMNativePointer.create(slabAllocator.allocate(getThreadCache(), size));
+            }
             return LLVMNativePointer.create(allocateMemoryBoundary(size));
         } catch (Throwable e) {
             // this avoids unnecessary exception edges in the compiled code
@@ -171,8 +196,37 @@ public final class LLVMNativeMemory extends LLVMHandleMemoryBase {
     }
 
     @TruffleBoundary
-    private static long reallocateMemoryBoundary(long addr, long size) {
-        return unsafe.reallocateMemory(addr, size);
+    private static long allocateSystemMemoryBoundary(long size) {
+        return unsafe.allocateMemory(size);
+    }
+
+    @Override
+    public LLVMNativePointer allocateSystemMemory(Node location, long size) {
+        try {
+            return LLVMNativePointer.create(allocateSystemMemoryBoundary(size));
+        } catch (Throwable e) {
+            // this avoids unnecessary exception edges in the compiled code
+            CompilerDirectives.transferToInterpreter();
+            throw e;
+        }
+    }
+
+    @TruffleBoundary
+    private static long reallocateMemoryBoundary(Node location, LLVMNativeSlabAllocator.ThreadCache cache, long addr, long size) {
+        long oldSize = slabAllocator.blockSize(addr);
+        if (oldSize < 0) {
+            return unsafe.reallocateMemory(addr, size);
+        }
+        // move pooled blocks to the system allocator, like allocateSystemMemory
+        long newAddr = unsafe.allocateMemory(size);
+        unsafe.copyMemory(addr, newAddr, Math.min(oldSize, size));
+        try {
+            slabAllocator.free(cache, addr);
+        } catch (IllegalStateException e) {
+            unsafe.freeMemory(newAddr);
+            throw new LLVMMemoryException(location, e);
+        }
+        return newAddr;
     }
 
     @Override
@@ -181,7 +235,7 @@ public final class LLVMNativeMemory extends LLVMHandleMemoryBase {
     public LLVMNativePointer reallocateMemory(Node location, LLVMNativePointer addr, long size) {
         // a null pointer is a valid argument
         try {
-            return LLVMNativePointer.create(reallocateMemoryBoundary(addr.asNative(), size));
+            return LLVMNativePointer.create(reallocateMemoryBoundary(location, getThreadCache(), addr.asNative(), size));
         } catch (Throwable e) {
             // this avoids unnecessary exception edges in the compiled code
             CompilerDirectives.transferToInterpreter();
@@ -189,6 +243,12 @@ public final class LLVMNativeMemory extends LLVMHandleMemoryBase {
         }
     }
 
+    @Override
+    @TruffleBoundary
+    public void disposeThreadState(ThreadState state) {
+        slabAllocator.disposeThreadCache((LLVMNativeSlabAllocator.ThreadCache) state);
+    }
+
     @Override
     public boolean getI1(Node location, long ptr) {
         assert checkPointer(ptr);
@@ -552,13 +612,27 @@ public final class LLVMNativeMemory extends LLVMHandleMemoryBase {
         return deref ? new DerefHandleContainer(noHandleAssumption) : new CommonHandleContainer(noHandleAssumption);
     }
 
+    /**
+     * Handle table that can be used concurrently by multiple threads without a global lock. The
+     * managed objects are mapped to their handles with a concurrent map, and the handles are found
+     * from their addresses in a table of fixed-size chunks, which is only locked when it needs to
+     * grow. Freed handle addresses are first cached in a free list of the freeing thread, and only
+     * moved to a shared queue in batches. The free list of a thread is moved to the shared queue
+     * when the thread is {@link #disposeThread disposed}.
+     */
     private abstract static class AbstractHandleContainer extends HandleContainer {
 
+        private static final int CHUNK_BITS = 10;
+        private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+        private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
         private final Assumption noHandleAssumption;
-        private final ArrayDeque<Long> freeList = new ArrayDeque<>();
-        private final EconomicMap<Object, Handle> handleFromManaged = EconomicMap.create();
-        private Handle[] handleFromPointer = new Handle[1024];
-        private long top = getStart(); // address of the next handle
+        private final ConcurrentHashMap<Object, Handle> handleFromManaged = new ConcurrentHashMap<>();
+        private final ConcurrentLinkedQueue<long[]> freeBatches = new ConcurrentLinkedQueue<>();
+        private final ConcurrentHashMap<Thread, FreeList> threadFreeLists = new ConcurrentHashMap<>();
+        private final ThreadLocal<FreeList> freeList = ThreadLocal.withInitial(this::createFreeList);
+        private final AtomicLong top = new AtomicLong(getStart()); // address of the next handle
+        private volatile Handle[][] handleFromPointer = new Handle[][]{new Handle[CHUNK_SIZE]};
 
         AbstractHandleContainer(Assumption noHandleAssumption) {
             this.noHandleAssumption = noHandleAssumption;
@@ -572,38 +646,113 @@ public final class LLVMNativeMemory extends LLVMHandleMemoryBase {
             return (int) (((address - getStart()) >> HANDLE_OBJECT_SIZE_BITS));
         }
 
+        private Handle getHandle(int index) {
+            Handle[][] chunks = handleFromPointer;
+            int chunk = index >> CHUNK_BITS;
+            return index >= 0 && chunk < chunks.length ? chunks[chunk][index & CHUNK_MASK] : null;
+        }
+
+        private void setHandle(int index, Handle handle) {
+            Handle[][] chunks = handleFromPointer;
+            int chunk = index >> CHUNK_BITS;
+            if (chunk >= chunks.length) {
+                chunks = growTable(chunk);
+            }
+            chunks[chunk][index & CHUNK_MASK] = handle;
+        }
+
+        private synchronized Handle[][] growTable(int chunk) {
+            Handle[][] chunks = handleFromPointer;
+            if (chunk >= chunks.length) {
+                int oldLength = chunks.length;
+                chunks = Arrays.copyOf(chunks, Math.max(oldLength * 2, chunk + 1));
+                for (int i = oldLength; i < chunks.length; i++) {
+                    chunks[i] = new Handle[CHUNK_SIZE];
+                }
+                handleFromPointer = chunks;
+            }
+            return chunks;
+        }
+
+        private FreeList createFreeList() {
+            FreeList list = new FreeList();
+            threadFreeLists.put(Thread.currentThread(), list);
+            return list;
+        }
+
         @Override
         @TruffleBoundary
-        public synchronized LLVMNativePointer allocate(Node location, Object value) {
-            Handle handle = handleFromManaged.get(value);
-            if (handle == null) {
-                Long free = freeList.pollFirst();
-                long address;
-                if (free != null) {
-                    address = free;
-                } else {
-                    noHandleAssumption.invalidate();
-                    if (top >= getEnd()) {
-                        throw new LLVMMemoryException(location, new OutOfMemoryError("handle space exhausted"));
+        public void disposeThread(Thread thread) {
+            FreeList list = threadFreeLists.remove(thread);
+            if (list != null && !list.isEmpty()) {
+                freeBatches.add(list.takeBatch());
+            }
+            if (thread == Thread.currentThread()) {
+                freeList.remove();
+            }
+        }
+
+        private long allocateAddress(Node location) {
+            FreeList local = freeList.get();
+            if (local.isEmpty()) {
+                long[] batch = freeBatches.poll();
+                if (batch != null) {
+                    local.refill(batch);
+                }
+            }
+            if (!local.isEmpty()) {
+                return local.pop();
+            }
+            noHandleAssumption.invalidate();
+            long address;
+            do {
+                address = top.get();
+                if (address >= getEnd()) {
+                    throw new LLVMMemoryException(location, new OutOfMemoryError("handle space exhausted"));
+                }
+            } while (!top.compareAndSet(address, address + HANDLE_OBJECT_SIZE));
+            return address;
+        }
+
+        private void freeAddress(long address) {
+            FreeList local = freeList.get();
+            if (local.isFull()) {
+                freeBatches.add(local.takeBatch());
+            }
+            local.push(address);
+        }
+
+        @Override
+        @TruffleBoundary
+        public LLVMNativePointer allocate(Node location, Object value) {
+            while (true) {
+                Handle handle = handleFromManaged.get(value);
+                if (handle == null) {
+                    long address = allocateAddress(location);
+                    int index = indexFromPointer(address);
+                    handle = new Handle(LLVMNativePointer.create(address), value);
+                    // publish in the table first, so that the handle can be resolved as soon as
+                    // another thread finds it in the map
+                    setHandle(index, handle);
+                    Handle existing = handleFromManaged.putIfAbsent(value, handle);
+                    if (existing == null) {
+                        return handle.pointer;
                     }
-                    address = top;
-                    top += HANDLE_OBJECT_SIZE;
+                    setHandle(index, null);
+                    freeAddress(address);
+                    handle = existing;
                 }
-                handle = new Handle(LLVMNativePointer.create(address), value);
-                int index = indexFromPointer(address);
-                if (handleFromPointer.length <= index) {
-                    handleFromPointer = Arrays.copyOf(handleFromPointer, handleFromPointer.length * 2);
+                if (handle.retain()) {
+                    return handle.pointer;
                 }
-                handleFromPointer[index] = handle;
-                handleFromManaged.put(value, handle);
+                // the handle is concurrently being freed, wait until it is removed from the map
+                Thread.yield();
             }
-            handle.refcnt++;
-            return handle.pointer;
         }
 
         @Override
         @TruffleBoundary
-        public synchronized void free(Node location, long address) {
+        public void free(Node location, long address) {
             if ((address & HANDLE_OFFSET_MASK) != 0) {
                 throw new LLVMMemoryException(location, new UnsupportedOperationException("Cannot resolve invalid native handle: " + address));
             }
@@ -611,17 +760,18 @@ public final class LLVMNativeMemory extends LLVMHandleMemoryBase {
                 throw new LLVMMemoryException(location, new UnsupportedOperationException("Cannot resolve invalid native handle: " + address));
             }
             int index = indexFromPointer(address);
-            if (index < 0 || index >= handleFromPointer.length) {
+            if (index < 0 || index >> CHUNK_BITS >= handleFromPointer.length) {
                 throw new LLVMMemoryException(location, new UnsupportedOperationException("Cannot resolve native handle: " + address));
             }
-            Handle handle = handleFromPointer[index];
-            if (handle == null) {
+            Handle handle = getHandle(index);
+            int refcnt = handle == null ? -1 : handle.release();
+            if (refcnt < 0) {
                 throw new LLVMMemoryException(location, new UnsupportedOperationException("Cannot resolve native handle (double-free?): " + address));
             }
-            if (--handle.refcnt == 0) {
-                handleFromPointer[index] = null;
-                handleFromManaged.removeKey(handle.managed);
-                freeList.addLast(address);
+            if (refcnt == 0) {
+                handleFromManaged.remove(handle.managed, handle);
+                setHandle(index, null);
+                freeAddress(address);
             }
         }
 
@@ -630,28 +780,101 @@ public final class LLVMNativeMemory extends LLVMHandleMemoryBase {
             if ((address & HANDLE_HEADER_MASK) != getStart()) {
                 return false;
             }
-            int index = indexFromPointer(address);
-            Handle[] array = handleFromPointer;
-            return index >= 0 && index < array.length && array[index] != null;
+            return getHandle(indexFromPointer(address)) != null;
         }
 
         @Override
         public LLVMManagedPointer getValue(Node location, long address) {
-            return LLVMManagedPointer.create(handleFromPointer[indexFromPointer(address)].managed, address & HANDLE_OFFSET_MASK);
+            return LLVMManagedPointer.create(getHandle(indexFromPointer(address)).managed, address & HANDLE_OFFSET_MASK);
         }
     }
 
     private static final class Handle {
 
-        private int refcnt;
+        private static final AtomicIntegerFieldUpdater<Handle> REFCNT_UPDATER = AtomicIntegerFieldUpdater.newUpdater(Handle.class, "refcnt");
+
+        private volatile int refcnt;
         private final LLVMNativePointer pointer;
         private final Object managed;
 
         private Handle(LLVMNativePointer pointer, Object managed) {
-            this.refcnt = 0;
+            this.refcnt = 1;
             this.pointer = pointer;
             this.managed = managed;
         }
+
+        /**
+         * Increments the reference count, unless it already dropped to zero.
+         */
+        boolean retain() {
+            int count;
+            do {
+                count = refcnt;
+                if (count == 0) {
+                    return false;
+                }
+            } while (!REFCNT_UPDATER.compareAndSet(this, count, count + 1));
+            return true;
+        }
+
+        /**
+         * Decrements the reference count, unless it already dropped to zero.
+         *
+         * @return the new reference count, or -1 if the handle was already dead
+         */
+        int release() {
+            int count;
+            do {
+                count = refcnt;
+                if (count == 0) {
+                    return -1;
+                }
+            } while (!REFCNT_UPDATER.compareAndSet(this, count, count - 1));
+            return count - 1;
+        }
+    }
+
+    /**
+     * Thread-local stack of free handle addresses.
+     */
+    private static final class FreeList {
+
+        private static final int CAPACITY = 64;
+
+        private long[] addresses = new long[CAPACITY];
+        private int size;
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        boolean isFull() {
+            return size == addresses.length;
+        }
+
+        long pop() {
+            return addresses[--size];
+        }
+
+        void push(long address) {
+            addresses[size++] = address;
+        }
+
+        void refill(long[] batch) {
+            addresses = batch;
+            size = batch.length;
+        }
+
+        /**
+         * Removes all addresses from this list, and returns them in an array that is exactly as
+         * long as the number of addresses.
+         */
+        long[] takeBatch() {
+            long[] batch = size == addresses.length ? addresses : Arrays.copyOf(addresses, size);
+            addresses = new long[CAPACITY];
+            size = 0;
+            return batch;
+        }
     }
 
     private static final class CommonHandleContainer extends AbstractHandleContainer {
@@ -0,0 +1,432 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided
+ * with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE
+ * GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.oracle.truffle.llvm.nativemode.runtime.memory;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.llvm.runtime.memory.LLVMMemory;
+
+import sun.misc.Unsafe;
+
+/**
+ * Size-class allocator for small native blocks. Blocks are carved out of {@link #SLAB_SIZE}
+ * aligned slabs, each of which serves a single size class, so the size of a block can be found
+ * from its address alone and blocks do not need a header. Every thread keeps a small cache of free
+ * blocks per size class, which is refilled from and flushed to a shared free list in batches. The
+ * caches are {@link ThreadCache thread states} of the memory, which the language holds in a context
+ * thread local, so that allocating from and freeing to a cache compiles without a boundary call.
+ *
+ * Each slab records which of its blocks are allocated, so that invalid and double frees are
+ * detected. A slab whose blocks are all back in the shared free list is returned to the system
+ * once the size class has enough other free blocks. The cache of a thread is flushed when the
+ * thread is disposed, see {@link #disposeThreadCache}.
+ *
+ * Addresses that are not inside a slab belong to the system allocator, see {@link #free}.
+ */
+final class LLVMNativeSlabAllocator {
+
+    private static final int MIN_BLOCK_SHIFT = 4;
+    private static final int MAX_BLOCK_SHIFT = 10;
+    private static final int SIZE_CLASSES = MAX_BLOCK_SHIFT - MIN_BLOCK_SHIFT + 1;
+
+    /**
+     * Largest block that is served from the slabs. Larger requests should go to the system
+     * allocator.
+     */
+    static final long MAX_POOLED_SIZE = 1L << MAX_BLOCK_SHIFT;
+
+    private static final int SLAB_SHIFT = 16;
+    private static final long SLAB_SIZE = 1L << SLAB_SHIFT;
+    private static final long SLAB_MASK = ~(SLAB_SIZE - 1);
+
+    private static final int THREAD_CACHE_CAPACITY = 64;
+    private static final int BATCH_SIZE = THREAD_CACHE_CAPACITY / 2;
+
+    /**
+     * Number of slabs worth of free blocks that a size class keeps before it returns empty slabs to
+     * the system.
+     */
+    private static final int RETAINED_SLABS = 2;
+
+    private final Unsafe unsafe;
+    private final SizeClass[] sizeClasses = new SizeClass[SIZE_CLASSES];
+
+    /**
+     * Copy-on-write, so that lookups do not need to synchronize. Modified while holding the lock of
+     * this allocator.
+     */
+    private volatile SlabTable slabTable = new SlabTable(16);
+
+    LLVMNativeSlabAllocator(Unsafe unsafe) {
+        this.unsafe = unsafe;
+        for (int i = 0; i < SIZE_CLASSES; i++) {
+            sizeClasses[i] = new SizeClass(1L << (MIN_BLOCK_SHIFT + i));
+        }
+    }
+
+    /**
+     * The free blocks that a thread caches per size class. A cache must only be used by its own
+     * thread, except for {@link LLVMNativeSlabAllocator#disposeThreadCache disposing} it.
+     */
+    static final class ThreadCache extends LLVMMemory.ThreadState {
+
+        private final BlockStack[] blocks = new BlockStack[SIZE_CLASSES];
+
+        ThreadCache() {
+            for (int i = 0; i < SIZE_CLASSES; i++) {
+                blocks[i] = new BlockStack(THREAD_CACHE_CAPACITY);
+            }
+        }
+    }
+
+    private static int sizeClassIndex(long size) {
+        assert 0 < size && size <= MAX_POOLED_SIZE;
+        if (size <= 1L << MIN_BLOCK_SHIFT) {
+            return 0;
+        }
+        return Long.SIZE - Long.numberOfLeadingZeros(size - 1) - MIN_BLOCK_SHIFT;
+    }
+
+    /**
+     * Allocates a block of at least {@code size} bytes, where {@code 0 < size <= MAX_POOLED_SIZE}.
+     * The block is aligned to 16 bytes and not initialized.
+     */
+    long allocate(ThreadCache cache, long size) {
+        int index = sizeClassIndex(size);
+        BlockStack blocks = cache.blocks[index];
+        if (blocks.isEmpty()) {
+            sizeClasses[index].refill(blocks);
+        }
+        long block = blocks.pop();
+        slabTable.get(block).markAllocated(block);
+        return block;
+    }
+
+    /**
+     * Returns the usable size of a block returned by {@link #allocate}, or {@code -1} if the
+     * address was not allocated by this allocator.
+     */
+    long blockSize(long address) {
+        Slab slab = slabTable.get(address);
+        return slab == null ? -1 : slab.sizeClass.blockSize;
+    }
+
+    /**
+     * Releases a block returned by {@link #allocate}.
+     *
+     * @return {@code false} if the address was not allocated by this allocator, in which case
+     *         nothing happens
+     * @throws IllegalStateException if the address is inside a slab but not an allocated block,
+     *             e.g., because it was freed already
+     */
+    boolean free(ThreadCache cache, long address) {
+        Slab slab = slabTable.get(address);
+        if (slab == null) {
+            return false;
+        }
+        if (!slab.markFree(address)) {
+            CompilerDirectives.transferToInterpreter();
+            throw new IllegalStateException("Invalid free of native memory (double-free?): 0x" + Long.toHexString(address));
+        }
+        SizeClass sizeClass = slab.sizeClass;
+        BlockStack blocks = cache.blocks[sizeClass.index];
+        if (blocks.isFull()) {
+            sizeClass.flush(blocks, BATCH_SIZE);
+        }
+        blocks.push(address);
+        return true;
+    }
+
+    /**
+     * Returns the cached blocks of a disposed thread to the shared free lists. This may be called
+     * from a different thread. The cache stays usable, in case the thread still frees blocks.
+     */
+    void disposeThreadCache(ThreadCache cache) {
+        for (int i = 0; i < SIZE_CLASSES; i++) {
+            BlockStack blocks = cache.blocks[i];
+            if (!blocks.isEmpty()) {
+                sizeClasses[i].flush(blocks, blocks.size);
+            }
+        }
+    }
+
+    private synchronized Slab allocateSlab(SizeClass sizeClass) {
+        // over-allocate by one slab so that the slab can be aligned; the untouched pages at either
+        // end are never accessed
+        long memory = unsafe.allocateMemory(2 * SLAB_SIZE);
+        Slab slab = new Slab(sizeClass, memory, (memory + SLAB_SIZE - 1) & SLAB_MASK);
+        slabTable = slabTable.with(slab);
+        return slab;
+    }
+
+    private synchronized void releaseSlab(Slab slab) {
+        slabTable = slabTable.without(slab);
+        unsafe.freeMemory(slab.memory);
+    }
+
+    private final class SizeClass {
+
+        final int index;
+        final long blockSize;
+        final int blocksPerSlab;
+
+        // guarded by this
+        private final BlockStack freeBlocks = new BlockStack(THREAD_CACHE_CAPACITY);
+        private Slab bumpSlab;
+        private long bumpPointer;
+        private long bumpLimit;
+
+        SizeClass(long blockSize) {
+            this.index = sizeClassIndex(blockSize);
+            this.blockSize = blockSize;
+            this.blocksPerSlab = (int) (SLAB_SIZE / blockSize);
+        }
+
+        @TruffleBoundary
+        synchronized void refill(BlockStack cache) {
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                if (!freeBlocks.isEmpty()) {
+                    long block = freeBlocks.pop();
+                    slabTable.get(block).sharedFreeBlocks--;
+                    cache.push(block);
+                } else {
+                    if (bumpPointer == bumpLimit) {
+                        bumpSlab = allocateSlab(this);
+                        bumpPointer = bumpSlab.address;
+                        bumpLimit = bumpPointer + SLAB_SIZE;
+                    }
+                    cache.push(bumpPointer);
+                    bumpPointer += blockSize;
+                }
+            }
+        }
+
+        @TruffleBoundary
+        synchronized void flush(BlockStack cache, int count) {
+            SlabTable table = slabTable;
+            for (int i = 0; i < count; i++) {
+                long block = cache.pop();
+                Slab slab = table.get(block);
+                freeBlocks.pushGrowing(block);
+                if (++slab.sharedFreeBlocks == blocksPerSlab && slab != bumpSlab && freeBlocks.size >= (RETAINED_SLABS + 1) * blocksPerSlab) {
+                    freeBlocks.removeRange(slab.address, slab.address + SLAB_SIZE);
+                    releaseSlab(slab);
+                    table = slabTable;
+                }
+            }
+        }
+    }
+
+    private static final class Slab {
+
+        final SizeClass sizeClass;
+        /** The allocation that contains the slab. */
+        final long memory;
+        final long address;
+        /** One bit per block, set while the block is allocated. */
+        private final AtomicLongArray allocated;
+
+        /** Number of blocks in the shared free list of the size class, guarded by it. */
+        int sharedFreeBlocks;
+
+        Slab(SizeClass sizeClass, long memory, long address) {
+            this.sizeClass = sizeClass;
+            this.memory = memory;
+            this.address = address;
+            this.allocated = new AtomicLongArray((sizeClass.blocksPerSlab + Long.SIZE - 1) / Long.SIZE);
+        }
+
+        void markAllocated(long block) {
+            int blockIndex = (int) ((block - address) / sizeClass.blockSize);
+            int word = blockIndex / Long.SIZE;
+            long mask = 1L << blockIndex;
+            long bits;
+            do {
+                bits = allocated.get(word);
+                assert (bits & mask) == 0 : "block handed out twice";
+            } while (!allocated.compareAndSet(word, bits, bits | mask));
+        }
+
+        /**
+         * @return {@code false} if {@code block} is not the start of an allocated block
+         */
+        boolean markFree(long block) {
+            long offset = block - address;
+            if (offset % sizeClass.blockSize != 0) {
+                return false;
+            }
+            int blockIndex = (int) (offset / sizeClass.blockSize);
+            int word = blockIndex / Long.SIZE;
+            long mask = 1L << blockIndex;
+            long bits;
+            do {
+                bits = allocated.get(word);
+                if ((bits & mask) == 0) {
+                    return false;
+                }
+            } while (!allocated.compareAndSet(word, bits, bits & ~mask));
+            return true;
+        }
+    }
+
+    /**
+     * Open-addressing hash table from slab numbers ({@code address >>> SLAB_SHIFT}) to slabs, which
+     * avoids boxing the keys on every lookup. Instances are immutable.
+     */
+    private static final class SlabTable {
+
+        private final long[] keys;
+        private final Slab[] slabs;
+        private final int count;
+
+        SlabTable(int capacity) {
+            assert Integer.bitCount(capacity) == 1;
+            this.keys = new long[capacity];
+            this.slabs = new Slab[capacity];
+            this.count = 0;
+        }
+
+        private SlabTable(int capacity, Slab[] entries, int count) {
+            this.keys = new long[capacity];
+            this.slabs = new Slab[capacity];
+            this.count = count;
+            for (Slab slab : entries) {
+                if (slab != null) {
+                    insert(slab);
+                }
+            }
+        }
+
+        private int slot(long key) {
+            // Fibonacci hashing, slab numbers are mostly consecutive
+            return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & (keys.length - 1);
+        }
+
+        private void insert(Slab slab) {
+            long key = slab.address >>> SLAB_SHIFT;
+            int i = slot(key);
+            while (keys[i] != 0) {
+                i = (i + 1) & (keys.length - 1);
+            }
+            keys[i] = key;
+            slabs[i] = slab;
+        }
+
+        /**
+         * Returns the slab that contains {@code address}, or {@code null}.
+         */
+        Slab get(long address) {
+            // slab number 0 cannot be allocated, so 0 marks empty slots
+            long key = address >>> SLAB_SHIFT;
+            int i = slot(key);
+            while (true) {
+                long k = keys[i];
+                if (k == key) {
+                    return slabs[i];
+                } else if (k == 0) {
+                    return null;
+                }
+                i = (i + 1) & (keys.length - 1);
+            }
+        }
+
+        SlabTable with(Slab slab) {
+            // keep the load factor at or below 1/2
+            int capacity = keys.length;
+            if (2 * (count + 1) > capacity) {
+                capacity *= 2;
+            }
+            SlabTable table = new SlabTable(capacity, slabs, count + 1);
+            table.insert(slab);
+            return table;
+        }
+
+        SlabTable without(Slab slab) {
+            Slab[] entries = slabs.clone();
+            for (int i = 0; i < entries.length; i++) {
+                if (entries[i] == slab) {
+                    entries[i] = null;
+                }
+            }
+            return new SlabTable(keys.length, entries, count - 1);
+        }
+    }
+
+    private static final class BlockStack {
+
+        private long[] blocks;
+        private int size;
+
+        BlockStack(int capacity) {
+            this.blocks = new long[capacity];
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        boolean isFull() {
+            return size == blocks.length;
+        }
+
+        long pop() {
+            return blocks[--size];
+        }
+
+        void push(long block) {
+            blocks[size++] = block;
+        }
+
+        void pushGrowing(long block) {
+            if (isFull()) {
+                long[] newBlocks = new long[blocks.length * 2];
+                System.arraycopy(blocks, 0, newBlocks, 0, size);
+                blocks = newBlocks;
+            }
+            push(block);
+        }
+
+        /**
+         * Removes all blocks in {@code [start, end)}.
+         */
+        void removeRange(long start, long end) {
+            int newSize = 0;
+            for (int i = 0; i < size; i++) {
+                long block = blocks[i];
+                if (block < start || block >= end) {
+                    blocks[newSize++] = block;
+                }
+            }
+            size = newSize;
+        }
+    }
+}
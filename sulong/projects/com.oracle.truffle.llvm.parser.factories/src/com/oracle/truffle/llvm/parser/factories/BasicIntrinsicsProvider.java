@@ -89,6 +89,11 @@ import com.oracle.truffle.llvm.runtime.nodes.intrinsics.c.LLVMExitNodeGen;
 import com.oracle.truffle.llvm.runtime.nodes.intrinsics.c.LLVMMemIntrinsicFactory.LLVMLibcMemMoveNodeGen;
 import com.oracle.truffle.llvm.runtime.nodes.intrinsics.c.LLVMMemIntrinsicFactory.LLVMLibcMemsetNodeGen;
 import com.oracle.truffle.llvm.runtime.nodes.intrinsics.c.LLVMSignalNodeGen;
+import com.oracle.truffle.llvm.runtime.nodes.intrinsics.c.LLVMStringIntrinsicsFactory.LLVMMemchrNodeGen;
+import com.oracle.truffle.llvm.runtime.nodes.intrinsics.c.LLVMStringIntrinsicsFactory.LLVMMemcmpNodeGen;
+import com.oracle.truffle.llvm.runtime.nodes.intrinsics.c.LLVMStringIntrinsicsFactory.LLVMStrchrNodeGen;
+import com.oracle.truffle.llvm.runtime.nodes.intrinsics.c.LLVMStringIntrinsicsFactory.LLVMStrcmpNodeGen;
+import com.oracle.truffle.llvm.runtime.nodes.intrinsics.c.LLVMStringIntrinsicsFactory.LLVMStrlenNodeGen;
 import com.oracle.truffle.llvm.runtime.nodes.intrinsics.c.LLVMSyscall;
 import com.oracle.truffle.llvm.runtime.nodes.intrinsics.handles.GraalVMCreateDerefHandleNodeGen;
 import com.oracle.truffle.llvm.runtime.nodes.intrinsics.handles.GraalVMCreateHandleNodeGen;
@@ -344,6 +349,7 @@ public class BasicIntrinsicsProvider implements LLVMIntrinsicProvider {
         registerExceptionIntrinsics();
         registerComplexNumberIntrinsics();
         registerCTypeIntrinsics();
+        registerStringFunctionIntrinsics();
         registerManagedAllocationIntrinsics();
         registerPThreadIntrinsics();
     }
@@ -526,6 +532,15 @@ public class BasicIntrinsicsProvider implements LLVMIntrinsicProvider {
         add("isupper", (args, nodeFactory) -> LLVMIsupperNodeGen.create(args.get(1)));
     }
 
+    private static void registerStringFunctionIntrinsics() {
+        add("strlen", (args, nodeFactory) -> LLVMStrlenNodeGen.create(args.get(1)));
+        add("strcmp", (args, nodeFactory) -> LLVMStrcmpNodeGen.create(args.get(1), args.get(2)));
+        add("strchr", (args, nodeFactory) -> LLVMStrchrNodeGen.create(args.get(1), args.get(2)));
+        add("memchr", (args, nodeFactory) -> LLVMMemchrNodeGen.create(args.get(1), args.get(2), args.get(3)));
+        // LLVM turns memcmp calls whose result is only compared against zero into bcmp calls
+        add("memcmp", "bcmp", (args, nodeFactory) -> LLVMMemcmpNodeGen.create(args.get(1), args.get(2), args.get(3)));
+    }
+
     private static void registerMemoryFunctionIntrinsics() {
         add("malloc", (args, nodeFactory) -> LLVMMallocNodeGen.create(args.get(1)));
         add("calloc", (args, nodeFactory) -> LLVMCallocNodeGen.create(nodeFactory.createMemSet(), args.get(1), args.get(2)));
@@ -46,12 +46,14 @@ import com.oracle.truffle.llvm.runtime.LLVMFunctionCode.LazyLLVMIRFunction;
 import com.oracle.truffle.llvm.runtime.LLVMLanguage;
 import com.oracle.truffle.llvm.runtime.LLVMSymbol;
 import com.oracle.truffle.llvm.runtime.datalayout.DataLayout;
+import com.oracle.truffle.llvm.runtime.debug.scope.LLVMSourceSymbol;
 import com.oracle.truffle.llvm.runtime.except.LLVMLinkerException;
 import com.oracle.truffle.llvm.runtime.global.LLVMGlobal;
 import com.oracle.truffle.llvm.runtime.options.SulongEngineOption;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Supplier;
 
 public final class LLVMParser {
     private final Source source;
@@ -68,19 +70,19 @@ public final class LLVMParser {
         List<FunctionSymbol> externalFunctions = new ArrayList<>();
         List<FunctionSymbol> definedFunctions = new ArrayList<>();
 
-        defineGlobals(module.getGlobalVariables(), definedGlobals, externalGlobals);
+        defineGlobals(module, definedGlobals, externalGlobals);
         defineFunctions(module, definedFunctions, externalFunctions, targetDataLayout);
         defineAliases(module.getAliases());
 
         return new LLVMParserResult(runtime, definedFunctions, externalFunctions, definedGlobals, externalGlobals, targetDataLayout, module.getTargetInformation(TargetTriple.class));
     }
 
-    private void defineGlobals(List<GlobalVariable> globals, List<GlobalVariable> definedGlobals, List<GlobalVariable> externalGlobals) {
-        for (GlobalVariable global : globals) {
+    private void defineGlobals(ModelModule model, List<GlobalVariable> definedGlobals, List<GlobalVariable> externalGlobals) {
+        for (GlobalVariable global : model.getGlobalVariables()) {
             if (global.isExternal()) {
                 externalGlobals.add(global);
             } else {
-                defineGlobal(global);
+                defineGlobal(global, model);
                 definedGlobals.add(global);
             }
         }
@@ -108,10 +110,14 @@ public final class LLVMParser {
         }
     }
 
-    private void defineGlobal(GlobalVariable global) {
+    private void defineGlobal(GlobalVariable global, ModelModule model) {
         assert !global.isExternal();
-        // handle the file scope
-        LLVMGlobal globalSymbol = LLVMGlobal.create(global.getName(), global.getType(), global.getSourceSymbol(), global.isReadOnly(), global.getIndex(), runtime.getBitcodeID(), global.isExported(),
+        // handle the file scope, the source symbol is only needed once the debug info is parsed
+        Supplier<LLVMSourceSymbol> sourceSymbol = () -> {
+            model.parseDebugInfo();
+            return global.getSourceSymbol();
+        };
+        LLVMGlobal globalSymbol = LLVMGlobal.create(global.getName(), global.getType(), sourceSymbol, global.isReadOnly(), global.getIndex(), runtime.getBitcodeID(), global.isExported(),
                         global.isExternalWeak());
         runtime.getFileScope().register(globalSymbol);
     }
@@ -120,8 +126,7 @@ public final class LLVMParser {
         assert !functionSymbol.isExternal();
         // handle the file scope
         FunctionDefinition functionDefinition = (FunctionDefinition) functionSymbol;
-        LazyToTruffleConverterImpl lazyConverter = new LazyToTruffleConverterImpl(runtime, functionDefinition, source, model.getFunctionParser(functionDefinition),
-                        model.getFunctionProcessor(), dataLayout);
+        LazyToTruffleConverterImpl lazyConverter = new LazyToTruffleConverterImpl(runtime, functionDefinition, source, model.getFunctionParser(functionDefinition), dataLayout);
         Function function = new LazyLLVMIRFunction(lazyConverter);
         LLVMFunction llvmFunction = LLVMFunction.create(functionSymbol.getName(), function, functionSymbol.getType(), runtime.getBitcodeID(), functionSymbol.getIndex(),
                         functionDefinition.isExported(), runtime.getFile().getPath(), functionDefinition.isExternalWeak());
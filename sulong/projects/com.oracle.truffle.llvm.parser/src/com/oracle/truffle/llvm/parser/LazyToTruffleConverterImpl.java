@@ -41,7 +41,6 @@ import com.oracle.truffle.api.nodes.RootNode;
 import com.oracle.truffle.api.source.Source;
 import com.oracle.truffle.llvm.parser.LLVMLivenessAnalysis.LLVMLivenessAnalysisResult;
 import com.oracle.truffle.llvm.parser.LLVMPhiManager.Phi;
-import com.oracle.truffle.llvm.parser.metadata.debuginfo.DebugInfoFunctionProcessor;
 import com.oracle.truffle.llvm.parser.metadata.debuginfo.SourceVariable;
 import com.oracle.truffle.llvm.parser.model.SymbolImpl;
 import com.oracle.truffle.llvm.parser.model.attributes.Attribute;
@@ -107,19 +106,16 @@ public class LazyToTruffleConverterImpl implements LazyToTruffleConverter {
     private final FunctionDefinition method;
     private final Source source;
     private final LazyFunctionParser parser;
-    private final DebugInfoFunctionProcessor diProcessor;
     private final DataLayout dataLayout;
 
     private RootCallTarget resolved;
     private LLVMFunction rootFunction;
 
-    LazyToTruffleConverterImpl(LLVMParserRuntime runtime, FunctionDefinition method, Source source, LazyFunctionParser parser,
-                    DebugInfoFunctionProcessor diProcessor, DataLayout dataLayout) {
+    LazyToTruffleConverterImpl(LLVMParserRuntime runtime, FunctionDefinition method, Source source, LazyFunctionParser parser, DataLayout dataLayout) {
         this.runtime = runtime;
         this.method = method;
         this.source = source;
         this.parser = parser;
-        this.diProcessor = diProcessor;
         this.resolved = null;
         this.dataLayout = dataLayout;
     }
@@ -159,7 +155,7 @@ public class LazyToTruffleConverterImpl implements LazyToTruffleConverter {
         }
 
         // parse the function block
-        parser.parse(diProcessor, source, runtime, LLVMLanguage.getContext());
+        parser.parse(source, runtime, LLVMLanguage.getContext());
 
         // prepare the phis
         final Map<InstructionBlock, List<Phi>> phis = LLVMPhiManager.getPhis(method);
@@ -170,7 +166,9 @@ public class LazyToTruffleConverterImpl implements LazyToTruffleConverter {
         FrameDescriptor frame = new FrameDescriptor();
         UniquesRegion uniquesRegion = new UniquesRegion();
         GetStackSpaceFactory getStackSpaceFactory = GetStackSpaceFactory.createGetUniqueStackSpaceFactory(uniquesRegion, frame);
-        LLVMSymbolReadResolver symbols = new LLVMSymbolReadResolver(runtime, frame, getStackSpaceFactory, dataLayout, options.get(SulongEngineOption.LL_DEBUG));
+        boolean llDebug = options.get(SulongEngineOption.LL_DEBUG);
+        LLVMSymbolReadResolver symbols = new LLVMSymbolReadResolver(runtime, frame, getStackSpaceFactory, dataLayout, llDebug,
+                        !llDebug && options.get(SulongEngineOption.SCALARIZE_VECTOR_SLOTS));
 
         frame.addFrameSlot(LLVMUserException.FRAME_SLOT_ID, null, FrameSlotKind.Object);
 
@@ -500,7 +498,7 @@ public class LazyToTruffleConverterImpl implements LazyToTruffleConverter {
                 copyStructArgumentsToFrame(formalParamInits, nodeFactory, slot, argIndex++, pointerType, pointeeType, indices);
             } else {
                 LLVMExpressionNode parameterNode = nodeFactory.createFunctionArgNode(argIndex++, parameter.getType());
-                formalParamInits.add(nodeFactory.createFrameWrite(parameter.getType(), parameterNode, slot));
+                formalParamInits.add(symbols.createFrameWrite(parameter.getType(), parameterNode, parameter));
             }
         }
 
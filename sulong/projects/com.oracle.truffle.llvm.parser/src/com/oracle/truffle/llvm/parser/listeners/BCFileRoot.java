@@ -48,6 +48,7 @@ public final class BCFileRoot implements ParserListener {
     private final StringTable stringTable;
     private final IRScope scope;
     private final LLSourceBuilder llSource;
+    private Module moduleParser;
 
     public BCFileRoot(ModelModule module, Source bcSource) {
         this.module = module;
@@ -60,7 +61,8 @@ public final class BCFileRoot implements ParserListener {
     public ParserListener enter(Block block) {
         switch (block) {
             case MODULE:
-                return new Module(module, stringTable, scope, llSource);
+                moduleParser = new Module(module, stringTable, scope, llSource);
+                return moduleParser;
 
             case STRTAB:
                 return stringTable;
@@ -75,7 +77,16 @@ public final class BCFileRoot implements ParserListener {
         int globalIndex = setMissingNames(module.getGlobalVariables(), 0);
         setMissingNames(module.getAliases(), globalIndex);
         SymbolNameMangling.demangleGlobals(module);
-        DebugInfoModuleProcessor.processModule(module, scope.getMetadata());
+        module.setDebugInfoParser(this::parseDebugInfo);
+    }
+
+    private void parseDebugInfo() {
+        synchronized (scope) {
+            if (moduleParser != null) {
+                moduleParser.parseMetadata();
+            }
+            DebugInfoModuleProcessor.processModule(module, scope.getMetadata());
+        }
     }
 
     private static int setMissingNames(List<? extends GlobalValueSymbol> globals, int startIndex) {
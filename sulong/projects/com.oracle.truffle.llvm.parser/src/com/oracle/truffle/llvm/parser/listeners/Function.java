@@ -38,9 +38,12 @@ import com.oracle.truffle.llvm.parser.metadata.MDKind;
 import com.oracle.truffle.llvm.parser.metadata.MDLocation;
 import com.oracle.truffle.llvm.parser.metadata.MDSubprogram;
 import com.oracle.truffle.llvm.parser.metadata.MDValue;
+import com.oracle.truffle.llvm.parser.metadata.debuginfo.DebugInfoFunctionProcessor;
 import com.oracle.truffle.llvm.parser.model.IRScope;
+import com.oracle.truffle.llvm.parser.model.SymbolImpl;
 import com.oracle.truffle.llvm.parser.model.attributes.AttributesCodeEntry;
 import com.oracle.truffle.llvm.parser.model.blocks.InstructionBlock;
+import com.oracle.truffle.llvm.parser.model.functions.FunctionDeclaration;
 import com.oracle.truffle.llvm.parser.model.functions.FunctionDefinition;
 import com.oracle.truffle.llvm.parser.model.symbols.instructions.AllocateInstruction;
 import com.oracle.truffle.llvm.parser.model.symbols.instructions.BinaryOperationInstruction;
@@ -77,6 +80,7 @@ import com.oracle.truffle.llvm.parser.model.symbols.instructions.VoidCallInstruc
 import com.oracle.truffle.llvm.parser.model.symbols.instructions.VoidInstruction;
 import com.oracle.truffle.llvm.parser.model.symbols.instructions.VoidInvokeInstruction;
 import com.oracle.truffle.llvm.parser.scanner.Block;
+import com.oracle.truffle.llvm.parser.scanner.LLVMScanner;
 import com.oracle.truffle.llvm.parser.scanner.RecordBuffer;
 import com.oracle.truffle.llvm.runtime.except.LLVMParserException;
 import com.oracle.truffle.llvm.runtime.types.AggregateType;
@@ -158,12 +162,19 @@ public final class Function implements ParserListener {
 
     private final IRScope scope;
 
-    public Function(IRScope scope, Types types, FunctionDefinition function, int mode, ParameterAttributes paramAttributes) {
+    /**
+     * Whether the function-local metadata and debug locations are parsed. They refer to the
+     * module-level metadata, which then has to be parsed first.
+     */
+    private final boolean debugInfo;
+
+    public Function(IRScope scope, Types types, FunctionDefinition function, int mode, ParameterAttributes paramAttributes, boolean debugInfo) {
         this.scope = scope;
         this.types = types;
         this.function = function;
         this.mode = mode;
         this.paramAttributes = paramAttributes;
+        this.debugInfo = debugInfo;
     }
 
     public void setupScope() {
@@ -194,6 +205,22 @@ public final class Function implements ParserListener {
         }
     }
 
+    /**
+     * Without debug information, the metadata blocks of the function are skipped without being
+     * scanned.
+     */
+    @Override
+    public boolean defer(Block block) {
+        return !debugInfo && (block == Block.METADATA || block == Block.METADATA_ATTACHMENT || block == Block.METADATA_KIND);
+    }
+
+    @Override
+    public void skip(Block block, LLVMScanner.LazyScanner lazyScanner) {
+        if (!defer(block)) {
+            ParserListener.super.skip(block, lazyScanner);
+        }
+    }
+
     @Override
     public void exit() {
         if (function.hasAttachedMetadata()) {
@@ -214,10 +241,15 @@ public final class Function implements ParserListener {
         // replace the old block
         switch (opCode) {
             case INSTRUCTION_DEBUG_LOC:
-                parseDebugLocation(buffer); // intentional fallthrough
+                if (debugInfo) {
+                    parseDebugLocation(buffer);
+                }
+                // intentional fallthrough
 
             case INSTRUCTION_DEBUG_LOC_AGAIN:
-                applyDebugLocation();
+                if (debugInfo) {
+                    applyDebugLocation();
+                }
                 return;
 
             case INSTRUCTION_DECLAREBLOCKS:
@@ -502,6 +534,10 @@ public final class Function implements ParserListener {
         }
 
         int callee = readIndex(buffer);
+        if (!debugInfo && isDebugIntrinsic(callee)) {
+            // the arguments of the call are metadata, which is not parsed
+            return;
+        }
         Type calleeType = readValueType(buffer, callee);
 
         if (functionType == null) {
@@ -681,6 +717,11 @@ public final class Function implements ParserListener {
         return StructureType.createUnnamed(true, elementType, PrimitiveType.I1);
     }
 
+    private boolean isDebugIntrinsic(int index) {
+        final SymbolImpl callee = scope.getSymbols().getOrNull(index);
+        return callee instanceof FunctionDeclaration && DebugInfoFunctionProcessor.isDebugIntrinsic(((FunctionDeclaration) callee).getName());
+    }
+
     private void parseDebugLocation(RecordBuffer buffer) {
         // if e.g. the previous instruction was @llvm.debug.declare this will be the location of the
         // declaration of the variable in the source file
@@ -30,6 +30,7 @@
 package com.oracle.truffle.llvm.parser.listeners;
 
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import com.oracle.truffle.llvm.parser.model.IRScope;
@@ -74,6 +75,8 @@ public final class Module implements ParserListener {
 
     private final AtomicInteger index;
 
+    private final ArrayList<LLVMScanner.LazyScanner> metadataBlocks;
+
     Module(ModelModule module, StringTable stringTable, IRScope scope, LLSourceBuilder llSource) {
         this.module = module;
         this.stringTable = stringTable;
@@ -83,6 +86,7 @@ public final class Module implements ParserListener {
         this.paramAttributes = new ParameterAttributes(types);
         functionQueue = new ArrayDeque<>();
         index = new AtomicInteger(0);
+        metadataBlocks = new ArrayList<>();
     }
 
     // private static final int STRTAB_RECORD_OFFSET = 2;
@@ -255,6 +259,15 @@ public final class Module implements ParserListener {
         }
     }
 
+    /**
+     * The module-level metadata mostly consists of debug information, it is only parsed once it is
+     * needed (see {@link #parseMetadata()}).
+     */
+    @Override
+    public boolean defer(Block block) {
+        return block == Block.METADATA;
+    }
+
     @Override
     public void skip(Block block, LLVMScanner.LazyScanner lazyScanner) {
         if (block == Block.FUNCTION) {
@@ -262,13 +275,27 @@ public final class Module implements ParserListener {
                 throw new LLVMParserException("Missing Function Prototype in Bitcode File!");
             }
             final FunctionDefinition definition = functionQueue.removeFirst();
-            module.addFunctionParser(definition, new LazyFunctionParser(lazyScanner, scope, types, definition, mode, paramAttributes, llSource));
+            module.addFunctionParser(definition, new LazyFunctionParser(lazyScanner, scope, types, definition, mode, paramAttributes, llSource, module));
+
+        } else if (block == Block.METADATA) {
+            metadataBlocks.add(lazyScanner);
 
         } else {
             ParserListener.super.skip(block, lazyScanner);
         }
     }
 
+    /**
+     * Parses the module-level metadata blocks that were skipped while scanning the module. Must be
+     * called in the global scope, before any function is parsed.
+     */
+    void parseMetadata() {
+        for (LLVMScanner.LazyScanner metadataBlock : metadataBlocks) {
+            metadataBlock.scanBlock(new Metadata(types, scope));
+        }
+        metadataBlocks.clear();
+    }
+
     private static final int MODULE_VERSION = 1;
     private static final int MODULE_TARGET_TRIPLE = 2;
     private static final int MODULE_TARGET_DATALAYOUT = 3;
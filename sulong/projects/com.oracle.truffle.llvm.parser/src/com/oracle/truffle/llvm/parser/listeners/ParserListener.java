@@ -40,6 +40,14 @@ public interface ParserListener {
         return this;
     }
 
+    /**
+     * Returns whether the given sub-block should not be scanned immediately, but be passed to
+     * {@link #skip} so that it can be scanned on demand.
+     */
+    default boolean defer(@SuppressWarnings("unused") Block block) {
+        return false;
+    }
+
     default void skip(Block block, @SuppressWarnings("unused") LLVMScanner.LazyScanner lazyScanner) {
         throw new LLVMParserException("Block not supported for lazy parsing: " + block);
     }
@@ -115,6 +115,45 @@ public final class DebugInfoFunctionProcessor {
         cache.endLocalScope();
     }
 
+    /**
+     * Prepares a function that was parsed without the debug information of its module. The calls
+     * to the {@code llvm.dbg.*} intrinsics were already dropped by the parser (see
+     * {@link #isDebugIntrinsic(String)}), the function only gets a bitcode-level source location.
+     */
+    public static void processWithoutDebugInfo(FunctionDefinition function, Source bitcodeSource) {
+        function.setSourceFunction(new SourceFunction(createBitcodeLocation(function, bitcodeSource), null));
+
+        for (InstructionBlock block : function.getBlocks()) {
+            List<Instruction> instructions = block.getInstructions();
+            for (int i = 0; i < instructions.size(); i++) {
+                Instruction instruction = instructions.get(i);
+                if (instruction instanceof VoidCallInstruction && isDebugTrap((VoidCallInstruction) instruction)) {
+                    instructions.set(i, DebugTrapInstruction.create((VoidCallInstruction) instruction));
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns whether a call to the intrinsic with the given name only carries debug information
+     * and can be dropped if the debug information is not used.
+     */
+    public static boolean isDebugIntrinsic(String name) {
+        return LLVM_DBG_DECLARE_NAME.equals(name) || LLVM_DBG_ADDR_NAME.equals(name) || LLVM_DBG_VALUE_NAME.equals(name);
+    }
+
+    private static boolean isDebugTrap(VoidCallInstruction call) {
+        final SymbolImpl callTarget = call.getCallTarget();
+        return callTarget instanceof FunctionDeclaration && LLVM_DEBUGTRAP_NAME.equals(((FunctionDeclaration) callTarget).getName());
+    }
+
+    private static LLVMSourceLocation createBitcodeLocation(FunctionDefinition function, Source bitcodeSource) {
+        final String sourceText = String.format("%s:%s", bitcodeSource.getName(), function.getName());
+        final Source irSource = Source.newBuilder("llvm", sourceText, sourceText).mimeType(DIScopeBuilder.getMimeType(null)).build();
+        final SourceSection simpleSection = irSource.createSection(1);
+        return LLVMSourceLocation.createBitcodeFunction(function.getName(), simpleSection);
+    }
+
     private void initSourceFunction(FunctionDefinition function, Source bitcodeSource) {
         final MDBaseNode debugInfo = getDebugInfo(function);
         LLVMSourceLocation scope = null;
@@ -128,10 +167,7 @@ public final class DebugInfoFunctionProcessor {
         }
 
         if (scope == null) {
-            final String sourceText = String.format("%s:%s", bitcodeSource.getName(), function.getName());
-            final Source irSource = Source.newBuilder("llvm", sourceText, sourceText).mimeType(DIScopeBuilder.getMimeType(null)).build();
-            final SourceSection simpleSection = irSource.createSection(1);
-            scope = LLVMSourceLocation.createBitcodeFunction(function.getName(), simpleSection);
+            scope = createBitcodeLocation(function, bitcodeSource);
         }
 
         final SourceFunction sourceFunction = new SourceFunction(scope, type);
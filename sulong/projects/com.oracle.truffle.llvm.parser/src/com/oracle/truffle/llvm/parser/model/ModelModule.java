@@ -65,6 +65,9 @@ public final class ModelModule {
     private TargetDataLayout targetDataLayout = defaultLayout;
     private DebugInfoFunctionProcessor functionProcessor = null;
     private final ArrayList<LLVMSourceFileReference> sourceFiles = new ArrayList<>();
+    private Runnable debugInfoParser = null;
+    private final ArrayList<Runnable> debugInfoListeners = new ArrayList<>();
+    private volatile boolean debugInfoParsed = true;
 
     public ModelModule() {
     }
@@ -134,6 +137,7 @@ public final class ModelModule {
     }
 
     public DebugInfoFunctionProcessor getFunctionProcessor() {
+        parseDebugInfo();
         return functionProcessor;
     }
 
@@ -141,6 +145,52 @@ public final class ModelModule {
         this.functionProcessor = functionProcessor;
     }
 
+    /**
+     * Defers parsing the module-level metadata and debug information until it is first needed (see
+     * {@link #parseDebugInfo()}).
+     */
+    public void setDebugInfoParser(Runnable parser) {
+        synchronized (this) {
+            debugInfoParser = parser;
+            debugInfoParsed = false;
+        }
+    }
+
+    /**
+     * Parses the module-level metadata and debug information if this has not happened yet. This is
+     * required before any function of this module is parsed with its debug information.
+     */
+    public void parseDebugInfo() {
+        if (!debugInfoParsed) {
+            synchronized (this) {
+                Runnable parser = debugInfoParser;
+                if (parser != null) {
+                    // the parser itself queries the module, this must not parse again
+                    debugInfoParser = null;
+                    parser.run();
+                    for (Runnable listener : debugInfoListeners) {
+                        listener.run();
+                    }
+                    debugInfoListeners.clear();
+                    debugInfoParsed = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs the given action once the debug information of this module is available.
+     */
+    public void onDebugInfoParsed(Runnable listener) {
+        synchronized (this) {
+            if (debugInfoParser == null) {
+                listener.run();
+            } else {
+                debugInfoListeners.add(listener);
+            }
+        }
+    }
+
     @Override
     public String toString() {
         return String.format("Model (%d defines, %d declares, %d global variables, %d aliases, %d types)", defines.size(), declares.size(), globalVariables.size(), aliases.size(), types.size());
@@ -151,6 +201,7 @@ public final class ModelModule {
     }
 
     public ArrayList<LLVMSourceFileReference> getSourceFileReferences() {
+        parseDebugInfo();
         return sourceFiles;
     }
 
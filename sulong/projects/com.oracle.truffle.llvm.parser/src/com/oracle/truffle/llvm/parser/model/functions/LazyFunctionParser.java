@@ -38,6 +38,7 @@ import com.oracle.truffle.llvm.parser.listeners.ParameterAttributes;
 import com.oracle.truffle.llvm.parser.listeners.Types;
 import com.oracle.truffle.llvm.parser.metadata.debuginfo.DebugInfoFunctionProcessor;
 import com.oracle.truffle.llvm.parser.model.IRScope;
+import com.oracle.truffle.llvm.parser.model.ModelModule;
 import com.oracle.truffle.llvm.parser.scanner.LLVMScanner;
 import com.oracle.truffle.llvm.parser.text.LLSourceBuilder;
 import com.oracle.truffle.llvm.runtime.LLVMContext;
@@ -52,10 +53,12 @@ public final class LazyFunctionParser {
     private final int mode;
     private final ParameterAttributes paramAttributes;
     private final LLSourceBuilder llSource;
+    private final ModelModule module;
 
-    private boolean isParsed;
+    private volatile boolean isParsed;
 
-    public LazyFunctionParser(LLVMScanner.LazyScanner scanner, IRScope scope, Types types, FunctionDefinition function, int mode, ParameterAttributes paramAttributes, LLSourceBuilder llSource) {
+    public LazyFunctionParser(LLVMScanner.LazyScanner scanner, IRScope scope, Types types, FunctionDefinition function, int mode, ParameterAttributes paramAttributes, LLSourceBuilder llSource,
+                    ModelModule module) {
         this.scanner = scanner;
         this.scope = scope;
         this.types = types;
@@ -63,16 +66,28 @@ public final class LazyFunctionParser {
         this.mode = mode;
         this.paramAttributes = paramAttributes;
         this.llSource = llSource;
+        this.module = module;
         this.isParsed = false;
     }
 
-    public void parse(DebugInfoFunctionProcessor diProcessor, Source bitcodeSource, LLVMParserRuntime runtime, LLVMContext context) {
+    public void parse(Source bitcodeSource, LLVMParserRuntime runtime, LLVMContext context) {
         if (!isParsed) {
+            final boolean debugInfo = context.getEnv().getOptions().get(SulongEngineOption.DEBUG_INFO);
+            // the debug information of function blocks refers to the module-level metadata
+            DebugInfoFunctionProcessor diProcessor = debugInfo ? module.getFunctionProcessor() : null;
             synchronized (scope) {
-                Function parser = new Function(scope, types, function, mode, paramAttributes);
+                if (isParsed) {
+                    // another thread parsed the function while this one was waiting
+                    return;
+                }
+                Function parser = new Function(scope, types, function, mode, paramAttributes, debugInfo);
                 parser.setupScope();
                 scanner.scanBlock(parser);
-                diProcessor.process(parser.getFunction(), parser.getScope(), bitcodeSource);
+                if (diProcessor != null) {
+                    diProcessor.process(parser.getFunction(), parser.getScope(), bitcodeSource);
+                } else {
+                    DebugInfoFunctionProcessor.processWithoutDebugInfo(parser.getFunction(), bitcodeSource);
+                }
                 if (context.getEnv().getOptions().get(SulongEngineOption.LL_DEBUG)) {
                     llSource.applySourceLocations(parser.getFunction(), runtime, context);
                 }
@@ -82,6 +97,7 @@ public final class LazyFunctionParser {
     }
 
     public void parseLinkageName(LLVMParserRuntime runtime) {
+        module.parseDebugInfo();
         synchronized (scope) {
             FunctionMDOnly parser = new FunctionMDOnly(scope, types, function);
             try {
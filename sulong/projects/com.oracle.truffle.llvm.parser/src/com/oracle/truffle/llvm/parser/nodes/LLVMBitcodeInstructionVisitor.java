@@ -218,7 +218,7 @@ public final class LLVMBitcodeInstructionVisitor implements SymbolVisitor {
                 assert node instanceof LLVMStatementNode;
             } else {
                 assert node instanceof LLVMExpressionNode;
-                instructionNodes.set(i, nodeFactory.createFrameWrite(target.getType(), (LLVMExpressionNode) node, symbols.findOrAddFrameSlot(frame, target)));
+                instructionNodes.set(i, symbols.createFrameWrite(target.getType(), (LLVMExpressionNode) node, target));
             }
         }
         return instructionNodes.toArray(LLVMStatementNode.NO_STATEMENTS);
@@ -673,7 +673,7 @@ public final class LLVMBitcodeInstructionVisitor implements SymbolVisitor {
 
         // Builtins are not AST-inlined for Invokes, instead a generic LLVMDispatchNode is used.
         LLVMExpressionNode function = symbols.resolve(target);
-        LLVMControlFlowNode result = nodeFactory.createFunctionInvoke(nodeFactory.createFrameWrite(targetType, null, symbols.findOrAddFrameSlot(frame, call)), function, argNodes,
+        LLVMControlFlowNode result = nodeFactory.createFunctionInvoke(symbols.createFrameWrite(targetType, null, call), function, argNodes,
                         new FunctionType(targetType, argTypes, false),
                         regularIndex, unwindIndex, normalPhi, unwindPhi);
 
@@ -1060,7 +1060,7 @@ public final class LLVMBitcodeInstructionVisitor implements SymbolVisitor {
         }
         if (phis.size() == 1) {
             Phi phi = phis.get(0);
-            return nodeFactory.createFrameWrite(phi.getValue().getType(), symbols.resolve(phi.getValue()), symbols.findOrAddFrameSlot(frame, phi.getPhiValue()));
+            return symbols.createFrameWrite(phi.getValue().getType(), symbols.resolve(phi.getValue()), phi.getPhiValue());
         }
 
         HashMap<PhiInstruction, Phi> pendingPhis = new HashMap<>();
@@ -1096,13 +1096,13 @@ public final class LLVMBitcodeInstructionVisitor implements SymbolVisitor {
         for (int i = 0; i < cycles.size(); i++) {
             Phi phi = cycles.get(i);
             cycleFrom[i] = symbols.resolve(phi.getValue());
-            cycleWrites[i] = nodeFactory.createFrameWrite(phi.getValue().getType(), null, symbols.findOrAddFrameSlot(frame, phi.getPhiValue()));
+            cycleWrites[i] = symbols.createFrameWrite(phi.getValue().getType(), null, phi.getPhiValue());
         }
         for (int i = 0; i < ordinary.size(); i++) {
             // the order of the moves is reversed, since the least conflicting ones are added to the
             // list first
             Phi phi = ordinary.get(ordinary.size() - 1 - i);
-            ordinaryWrites[i] = nodeFactory.createFrameWrite(phi.getValue().getType(), symbols.resolve(phi.getValue()), symbols.findOrAddFrameSlot(frame, phi.getPhiValue()));
+            ordinaryWrites[i] = symbols.createFrameWrite(phi.getValue().getType(), symbols.resolve(phi.getValue()), phi.getPhiValue());
         }
 
         return nodeFactory.createPhi(cycleFrom, cycleWrites, ordinaryWrites);
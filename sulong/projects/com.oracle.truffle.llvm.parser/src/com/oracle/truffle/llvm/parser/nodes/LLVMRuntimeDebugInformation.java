@@ -51,6 +51,7 @@ import com.oracle.truffle.llvm.runtime.nodes.api.LLVMExpressionNode;
 import com.oracle.truffle.llvm.runtime.nodes.base.LLVMBasicBlockNode;
 import com.oracle.truffle.llvm.runtime.nodes.intrinsics.llvm.debug.LLVMDebugAggregateObjectBuilder;
 import com.oracle.truffle.llvm.runtime.nodes.intrinsics.llvm.debug.LLVMDebugSimpleObjectBuilder;
+import com.oracle.truffle.llvm.runtime.nodes.vars.LLVMVectorLanes;
 import com.oracle.truffle.llvm.runtime.types.symbols.LocalVariableDebugInfo;
 
 /**
@@ -110,7 +111,12 @@ public final class LLVMRuntimeDebugInformation implements LocalVariableDebugInfo
             if (valueFrameIdentifier != -1) {
                 FrameSlot slot = frame.getFrameDescriptor().findFrameSlot(valueFrameIdentifier);
                 if (slot != null) {
-                    return frame.getValue(slot);
+                    Object result = frame.getValue(slot);
+                    if (result == null) {
+                        // small vectors are stored lane by lane
+                        result = LLVMVectorLanes.read(frame, valueFrameIdentifier);
+                    }
+                    return result;
                 }
             } else if (value != null) {
                 if (value instanceof LLVMExpressionNode) {
@@ -43,21 +43,27 @@ import com.oracle.truffle.llvm.runtime.NodeFactory;
 import com.oracle.truffle.llvm.runtime.datalayout.DataLayout;
 import com.oracle.truffle.llvm.runtime.except.LLVMParserException;
 import com.oracle.truffle.llvm.runtime.nodes.api.LLVMExpressionNode;
+import com.oracle.truffle.llvm.runtime.nodes.vars.LLVMVectorLanes;
+import com.oracle.truffle.llvm.runtime.nodes.vars.LLVMWriteNode;
 import com.oracle.truffle.llvm.runtime.types.Type;
+import com.oracle.truffle.llvm.runtime.types.VectorType;
 import com.oracle.truffle.llvm.runtime.types.symbols.SSAValue;
 
 public final class LLVMSymbolReadResolver {
 
     private final boolean storeSSAValueInSlot;
+    private final boolean scalarizeVectors;
     private final LLVMParserRuntime runtime;
     private final NodeFactory nodeFactory;
     private final FrameDescriptor frame;
     private final GetStackSpaceFactory getStackSpaceFactory;
     private final DataLayout dataLayout;
 
-    public LLVMSymbolReadResolver(LLVMParserRuntime runtime, FrameDescriptor frame, GetStackSpaceFactory getStackSpaceFactory, DataLayout dataLayout, boolean storeSSAValueInSlot) {
+    public LLVMSymbolReadResolver(LLVMParserRuntime runtime, FrameDescriptor frame, GetStackSpaceFactory getStackSpaceFactory, DataLayout dataLayout, boolean storeSSAValueInSlot,
+                    boolean scalarizeVectors) {
         this.runtime = runtime;
         this.storeSSAValueInSlot = storeSSAValueInSlot;
+        this.scalarizeVectors = scalarizeVectors;
         this.nodeFactory = runtime.getNodeFactory();
         this.frame = frame;
         this.getStackSpaceFactory = getStackSpaceFactory;
@@ -74,6 +80,26 @@ public final class LLVMSymbolReadResolver {
         return slot;
     }
 
+    /**
+     * Returns the slots that hold the lanes of a vector value, or {@code null} if the value is
+     * stored as a vector object (see {@link LLVMVectorLanes}).
+     */
+    public FrameSlot[] findOrAddVectorLaneSlots(FrameDescriptor descriptor, SSAValue value) {
+        if (scalarizeVectors && LLVMVectorLanes.canScalarize(value.getType())) {
+            return LLVMVectorLanes.findOrAddLaneSlots(descriptor, value.getFrameIdentifier(), (VectorType) value.getType());
+        }
+        return null;
+    }
+
+    public LLVMWriteNode createFrameWrite(Type type, LLVMExpressionNode result, SSAValue target) {
+        FrameSlot slot = findOrAddFrameSlot(frame, target);
+        FrameSlot[] laneSlots = findOrAddVectorLaneSlots(frame, target);
+        if (laneSlots != null) {
+            return CommonNodeFactory.createVectorLanesWrite((VectorType) type, result, slot, laneSlots);
+        }
+        return nodeFactory.createFrameWrite(type, result, slot);
+    }
+
     public static Integer evaluateIntegerConstant(SymbolImpl constant) {
         if (constant instanceof IntegerConstant) {
             assert ((IntegerConstant) constant).getValue() == (int) ((IntegerConstant) constant).getValue();
@@ -140,6 +166,10 @@ public final class LLVMSymbolReadResolver {
             if (slot == null) {
                 slot = findOrAddFrameSlot(frame, value);
             }
+            FrameSlot[] laneSlots = findOrAddVectorLaneSlots(frame, value);
+            if (laneSlots != null) {
+                return CommonNodeFactory.createVectorLanesRead((VectorType) value.getType(), laneSlots);
+            }
             return CommonNodeFactory.createFrameRead(value.getType(), slot);
         } else {
             throw new LLVMParserException("Cannot resolve symbol: " + symbol);
@@ -351,7 +351,7 @@ public final class LLVMScanner {
         if (subBlock == null || subBlock.skip()) {
             offset = endingOffset;
 
-        } else if (subBlock.parseLazily()) {
+        } else if (subBlock.parseLazily() || parser.defer(subBlock)) {
             final LazyScanner lazyScanner = new LazyScanner(bitstream, new HashMap<>(defaultAbbreviations), offset, endingOffset, (int) newIdSize, subBlock);
             offset = endingOffset;
             parser.skip(subBlock, lazyScanner);
@@ -233,6 +233,12 @@ import com.oracle.truffle.llvm.runtime.nodes.vars.LLVMReadNodeFactory.LLVMI32Rea
 import com.oracle.truffle.llvm.runtime.nodes.vars.LLVMReadNodeFactory.LLVMI64ReadNodeGen;
 import com.oracle.truffle.llvm.runtime.nodes.vars.LLVMReadNodeFactory.LLVMI8ReadNodeGen;
 import com.oracle.truffle.llvm.runtime.nodes.vars.LLVMReadNodeFactory.LLVMIReadVarBitNodeGen;
+import com.oracle.truffle.llvm.runtime.nodes.vars.LLVMReadVectorLanesNodeFactory.LLVMDoubleVectorLanesReadNodeGen;
+import com.oracle.truffle.llvm.runtime.nodes.vars.LLVMReadVectorLanesNodeFactory.LLVMFloatVectorLanesReadNodeGen;
+import com.oracle.truffle.llvm.runtime.nodes.vars.LLVMReadVectorLanesNodeFactory.LLVMI16VectorLanesReadNodeGen;
+import com.oracle.truffle.llvm.runtime.nodes.vars.LLVMReadVectorLanesNodeFactory.LLVMI1VectorLanesReadNodeGen;
+import com.oracle.truffle.llvm.runtime.nodes.vars.LLVMReadVectorLanesNodeFactory.LLVMI32VectorLanesReadNodeGen;
+import com.oracle.truffle.llvm.runtime.nodes.vars.LLVMReadVectorLanesNodeFactory.LLVMI8VectorLanesReadNodeGen;
 import com.oracle.truffle.llvm.runtime.nodes.vars.LLVMReadVectorNodeFactory.LLVMDoubleVectorReadNodeGen;
 import com.oracle.truffle.llvm.runtime.nodes.vars.LLVMReadVectorNodeFactory.LLVMFloatVectorReadNodeGen;
 import com.oracle.truffle.llvm.runtime.nodes.vars.LLVMReadVectorNodeFactory.LLVMI16VectorReadNodeGen;
@@ -240,6 +246,14 @@ import com.oracle.truffle.llvm.runtime.nodes.vars.LLVMReadVectorNodeFactory.LLVM
 import com.oracle.truffle.llvm.runtime.nodes.vars.LLVMReadVectorNodeFactory.LLVMI32VectorReadNodeGen;
 import com.oracle.truffle.llvm.runtime.nodes.vars.LLVMReadVectorNodeFactory.LLVMI64VectorReadNodeGen;
 import com.oracle.truffle.llvm.runtime.nodes.vars.LLVMReadVectorNodeFactory.LLVMI8VectorReadNodeGen;
+import com.oracle.truffle.llvm.runtime.nodes.vars.LLVMVectorLanes;
+import com.oracle.truffle.llvm.runtime.nodes.vars.LLVMWriteNode;
+import com.oracle.truffle.llvm.runtime.nodes.vars.LLVMWriteVectorLanesNodeFactory.LLVMWriteDoubleVectorLanesNodeGen;
+import com.oracle.truffle.llvm.runtime.nodes.vars.LLVMWriteVectorLanesNodeFactory.LLVMWriteFloatVectorLanesNodeGen;
+import com.oracle.truffle.llvm.runtime.nodes.vars.LLVMWriteVectorLanesNodeFactory.LLVMWriteI16VectorLanesNodeGen;
+import com.oracle.truffle.llvm.runtime.nodes.vars.LLVMWriteVectorLanesNodeFactory.LLVMWriteI1VectorLanesNodeGen;
+import com.oracle.truffle.llvm.runtime.nodes.vars.LLVMWriteVectorLanesNodeFactory.LLVMWriteI32VectorLanesNodeGen;
+import com.oracle.truffle.llvm.runtime.nodes.vars.LLVMWriteVectorLanesNodeFactory.LLVMWriteI8VectorLanesNodeGen;
 import com.oracle.truffle.llvm.runtime.pointer.LLVMManagedPointer;
 import com.oracle.truffle.llvm.runtime.pointer.LLVMNativePointer;
 import com.oracle.truffle.llvm.runtime.types.AggregateType;
@@ -637,6 +651,50 @@ public class CommonNodeFactory {
         throw new AssertionError(llvmType + " for " + frameSlot.getIdentifier());
     }
 
+    /**
+     * Reads a vector value whose lanes are stored in separate frame slots (see
+     * {@link LLVMVectorLanes}).
+     */
+    public static LLVMExpressionNode createVectorLanesRead(VectorType vectorType, FrameSlot[] laneSlots) {
+        assert LLVMVectorLanes.canScalarize(vectorType);
+        switch (((PrimitiveType) vectorType.getElementType()).getPrimitiveKind()) {
+            case I1:
+                return LLVMI1VectorLanesReadNodeGen.create(laneSlots);
+            case I8:
+                return LLVMI8VectorLanesReadNodeGen.create(laneSlots);
+            case I16:
+                return LLVMI16VectorLanesReadNodeGen.create(laneSlots);
+            case I32:
+                return LLVMI32VectorLanesReadNodeGen.create(laneSlots);
+            case FLOAT:
+                return LLVMFloatVectorLanesReadNodeGen.create(laneSlots);
+            case DOUBLE:
+                return LLVMDoubleVectorLanesReadNodeGen.create(laneSlots);
+            default:
+                throw new AssertionError(vectorType);
+        }
+    }
+
+    public static LLVMWriteNode createVectorLanesWrite(VectorType vectorType, LLVMExpressionNode result, FrameSlot slot, FrameSlot[] laneSlots) {
+        assert LLVMVectorLanes.canScalarize(vectorType);
+        switch (((PrimitiveType) vectorType.getElementType()).getPrimitiveKind()) {
+            case I1:
+                return LLVMWriteI1VectorLanesNodeGen.create(slot, laneSlots, result);
+            case I8:
+                return LLVMWriteI8VectorLanesNodeGen.create(slot, laneSlots, result);
+            case I16:
+                return LLVMWriteI16VectorLanesNodeGen.create(slot, laneSlots, result);
+            case I32:
+                return LLVMWriteI32VectorLanesNodeGen.create(slot, laneSlots, result);
+            case FLOAT:
+                return LLVMWriteFloatVectorLanesNodeGen.create(slot, laneSlots, result);
+            case DOUBLE:
+                return LLVMWriteDoubleVectorLanesNodeGen.create(slot, laneSlots, result);
+            default:
+                throw new AssertionError(vectorType);
+        }
+    }
+
     public static LLVMLoadNode createLoad(Type resolvedResultType, LLVMExpressionNode loadTarget) {
         if (resolvedResultType instanceof VectorType) {
             return createLoadVector((VectorType) resolvedResultType, loadTarget, ((VectorType) resolvedResultType).getNumberOfElementsInt());
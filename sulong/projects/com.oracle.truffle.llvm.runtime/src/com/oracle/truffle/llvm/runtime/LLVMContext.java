@@ -739,6 +739,11 @@ public final class LLVMContext {
         tls.put(Thread.currentThread(), value);
     }
 
+    @TruffleBoundary
+    public void clearThreadLocalStorage() {
+        tls.remove(Thread.currentThread());
+    }
+
     @TruffleBoundary
     public LLVMFunctionDescriptor getFunctionDescriptor(LLVMNativePointer handle) {
         return functionPointerRegistry.getDescriptor(handle);
@@ -34,6 +34,7 @@ import com.oracle.truffle.api.CallTarget;
 import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.ContextThreadLocal;
 import com.oracle.truffle.api.RootCallTarget;
 import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.TruffleLanguage;
@@ -63,6 +64,7 @@ import com.oracle.truffle.llvm.runtime.memory.LLVMMemory;
 import com.oracle.truffle.llvm.runtime.memory.LLVMMemoryOpNode;
 import com.oracle.truffle.llvm.runtime.nodes.api.LLVMStatementNode;
 import com.oracle.truffle.llvm.runtime.pointer.LLVMPointer;
+import com.oracle.truffle.llvm.runtime.pthread.LLVMPThreadContext;
 import com.oracle.truffle.llvm.runtime.target.TargetTriple;
 import com.oracle.truffle.llvm.toolchain.config.LLVMConfig;
 import org.graalvm.collections.EconomicMap;
@@ -146,6 +148,9 @@ public class LLVMLanguage extends TruffleLanguage<LLVMContext> {
 
     private final ConcurrentHashMap<Class<?>, RootCallTarget> cachedCallTargets = new ConcurrentHashMap<>();
 
+    private final ContextThreadLocal<LLVMPThreadContext.ThreadKeyValues> pThreadKeyValues = createContextThreadLocal((context, thread) -> new LLVMPThreadContext.ThreadKeyValues());
+    private final ContextThreadLocal<LLVMMemory.ThreadState> memoryThreadState = createContextThreadLocal((context, thread) -> getLLVMMemory().createThreadState());
+
     private DataLayout defaultDataLayout;
     private TargetTriple defaultTargetTriple;
 
@@ -237,6 +242,14 @@ public class LLVMLanguage extends TruffleLanguage<LLVMContext> {
         throw new IllegalStateException("No context, please create the context before accessing the configuration.");
     }
 
+    public ContextThreadLocal<LLVMPThreadContext.ThreadKeyValues> getPThreadKeyValues() {
+        return pThreadKeyValues;
+    }
+
+    public ContextThreadLocal<LLVMMemory.ThreadState> getMemoryThreadState() {
+        return memoryThreadState;
+    }
+
     public LLVMMemory getLLVMMemory() {
         assert cachedLLVMMemory != null;
         return cachedLLVMMemory;
@@ -552,6 +565,9 @@ public class LLVMLanguage extends TruffleLanguage<LLVMContext> {
         if (context.isInitialized()) {
             context.getThreadingStack().freeStack(getLLVMMemory(), thread);
         }
+        getLLVMMemory().disposeThreadState(memoryThreadState.get(thread));
+        context.getHandleContainer().disposeThread(thread);
+        context.getDerefHandleContainer().disposeThread(thread);
     }
 
     @Override
@@ -29,8 +29,11 @@
  */
 package com.oracle.truffle.llvm.runtime.global;
 
+import java.util.function.Supplier;
+
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.llvm.runtime.LLVMContext;
 import com.oracle.truffle.llvm.runtime.LLVMFunction;
 import com.oracle.truffle.llvm.runtime.LLVMSymbol;
@@ -42,7 +45,9 @@ import com.oracle.truffle.llvm.runtime.types.Type;
 
 public final class LLVMGlobal extends LLVMSymbol {
 
-    private final LLVMSourceSymbol sourceSymbol;
+    private static final Supplier<LLVMSourceSymbol> NO_SOURCE_SYMBOL = () -> null;
+
+    private final Supplier<LLVMSourceSymbol> sourceSymbol;
     private final boolean readOnly;
     public static final LLVMGlobal[] EMPTY = {};
 
@@ -51,7 +56,11 @@ public final class LLVMGlobal extends LLVMSymbol {
     @CompilationFinal private boolean interopTypeCached;
     @CompilationFinal private LLVMInteropType interopType;
 
-    public static LLVMGlobal create(String name, PointerType type, LLVMSourceSymbol sourceSymbol, boolean readOnly, int index, int id, boolean exported, boolean externalWeak) {
+    /**
+     * @param sourceSymbol supplies the source-level symbol of this global, which is only requested
+     *            by interop and the debugger
+     */
+    public static LLVMGlobal create(String name, PointerType type, Supplier<LLVMSourceSymbol> sourceSymbol, boolean readOnly, int index, int id, boolean exported, boolean externalWeak) {
         if (index < 0) {
             throw new AssertionError("Invalid index for LLVM global: " + index);
         }
@@ -62,10 +71,10 @@ public final class LLVMGlobal extends LLVMSymbol {
     }
 
     public static LLVMGlobal createUnavailable(String name) {
-        return new LLVMGlobal(name + " (unavailable)", PointerType.VOID, null, true, -1, -1, false, false);
+        return new LLVMGlobal(name + " (unavailable)", PointerType.VOID, NO_SOURCE_SYMBOL, true, -1, -1, false, false);
     }
 
-    private LLVMGlobal(String name, PointerType type, LLVMSourceSymbol sourceSymbol, boolean readOnly, int globalIndex, int moduleId, boolean exported, boolean externalWeak) {
+    private LLVMGlobal(String name, PointerType type, Supplier<LLVMSourceSymbol> sourceSymbol, boolean readOnly, int globalIndex, int moduleId, boolean exported, boolean externalWeak) {
         super(name, moduleId, globalIndex, exported, externalWeak);
         this.name = name;
         this.type = type;
@@ -84,15 +93,18 @@ public final class LLVMGlobal extends LLVMSymbol {
     public LLVMInteropType getInteropType(LLVMContext context) {
         if (!interopTypeCached) {
             CompilerDirectives.transferToInterpreterAndInvalidate();
-            LLVMSourceType sourceType = sourceSymbol != null ? sourceSymbol.getType() : null;
+            LLVMSourceSymbol symbol = sourceSymbol.get();
+            LLVMSourceType sourceType = symbol != null ? symbol.getType() : null;
             interopType = context.getLanguage().getInteropType(sourceType);
             interopTypeCached = true;
         }
         return interopType;
     }
 
+    @TruffleBoundary
     public String getSourceName() {
-        return sourceSymbol != null ? sourceSymbol.getName() : name;
+        LLVMSourceSymbol symbol = sourceSymbol.get();
+        return symbol != null ? symbol.getName() : name;
     }
 
     public Type getPointeeType() {
@@ -57,8 +57,42 @@ public abstract class LLVMMemory implements LLVMCapability {
 
     public abstract void free(Node location, long address);
 
+    /**
+     * Allocates a block of native memory. Small blocks may be served from a pool, so they must be
+     * released with {@link #free} and not by native code.
+     */
     public abstract LLVMNativePointer allocateMemory(Node location, long size);
 
+    /**
+     * State that this memory keeps per thread, e.g., cached free blocks. The language holds it in a
+     * context thread local, see
+     * {@link com.oracle.truffle.llvm.runtime.LLVMLanguage#getMemoryThreadState()}, so that it can be
+     * read in compiled code.
+     */
+    public static class ThreadState {
+    }
+
+    /**
+     * Creates the state of a new thread. All states of a memory must have the same exact type.
+     */
+    public ThreadState createThreadState() {
+        return new ThreadState();
+    }
+
+    /**
+     * Releases the resources that a disposed thread holds in its {@code state}. The thread may
+     * still allocate afterwards, and this method may be called from a different thread.
+     */
+    public void disposeThreadState(@SuppressWarnings("unused") ThreadState state) {
+    }
+
+    /**
+     * Allocates a block of native memory directly from the system allocator. Use this for memory
+     * that is handed out to guest code (e.g. by {@code malloc}), which may pass it to a native
+     * library that releases it with {@code free}.
+     */
+    public abstract LLVMNativePointer allocateSystemMemory(Node location, long size);
+
     /**
      * Use a realloc node instead.
      */
@@ -251,6 +285,13 @@ public abstract class LLVMMemory implements LLVMCapability {
 
         public abstract boolean isHandle(long address);
 
+        /**
+         * Releases the resources that {@code thread} holds in this container. The thread must not
+         * use the container afterwards, but this method may be called from a different thread.
+         */
+        public void disposeThread(@SuppressWarnings("unused") Thread thread) {
+        }
+
     }
 
     public abstract HandleContainer createHandleContainer(boolean deref, Assumption noHandleAssumption);
@@ -29,7 +29,10 @@
  */
 package com.oracle.truffle.llvm.runtime.nodes.asm.syscall;
 
+import com.oracle.truffle.api.dsl.CachedContext;
 import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.llvm.runtime.LLVMContext;
+import com.oracle.truffle.llvm.runtime.LLVMLanguage;
 import com.oracle.truffle.llvm.runtime.memory.LLVMSyscallOperationNode;
 
 public abstract class LLVMAMD64SyscallSetTidAddressNode extends LLVMSyscallOperationNode {
@@ -40,8 +43,10 @@ public abstract class LLVMAMD64SyscallSetTidAddressNode extends LLVMSyscallOpera
     }
 
     @Specialization
-    protected long doOp(@SuppressWarnings("unused") Object tidptr) {
-        return Thread.currentThread().getId();
+    protected long doOp(@SuppressWarnings("unused") Object tidptr,
+                    @CachedContext(LLVMLanguage.class) LLVMContext context) {
+        // the same id as pthread_self, which differs from the Java thread id for pooled threads
+        return context.getpThreadContext().getCurrentThreadId();
     }
 
 }
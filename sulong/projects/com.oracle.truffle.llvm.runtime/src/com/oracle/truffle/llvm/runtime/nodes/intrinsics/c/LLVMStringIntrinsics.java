@@ -0,0 +1,325 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided
+ * with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE
+ * GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.oracle.truffle.llvm.runtime.nodes.intrinsics.c;
+
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.CachedLanguage;
+import com.oracle.truffle.api.dsl.NodeChild;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.llvm.runtime.LLVMLanguage;
+import com.oracle.truffle.llvm.runtime.memory.LLVMMemory;
+import com.oracle.truffle.llvm.runtime.nodes.api.LLVMExpressionNode;
+import com.oracle.truffle.llvm.runtime.nodes.intrinsics.llvm.LLVMIntrinsic;
+import com.oracle.truffle.llvm.runtime.nodes.memory.load.LLVMI8LoadNode.LLVMI8OffsetLoadNode;
+import com.oracle.truffle.llvm.runtime.pointer.LLVMNativePointer;
+import com.oracle.truffle.llvm.runtime.pointer.LLVMPointer;
+
+/**
+ * Intrinsics for the libc string and memory functions. On native memory, they process eight bytes
+ * at a time. The word-wise loops rely on little-endian byte order, which is the only byte order
+ * Sulong supports. Reads beyond the end of a string are aligned words, so they never cross a page
+ * boundary. Managed memory and deref handles are read byte by byte. Sizes are {@code size_t}
+ * values, i.e., unsigned, so they are only compared with {@link Long#compareUnsigned} or counted
+ * down to zero.
+ */
+public abstract class LLVMStringIntrinsics extends LLVMIntrinsic {
+
+    /**
+     * Smallest page size of the supported platforms.
+     */
+    private static final long PAGE_SIZE = 4096;
+
+    private static final long LOW_BITS = 0x0101010101010101L;
+    private static final long HIGH_BITS = 0x8080808080808080L;
+
+    /**
+     * Returns a word that has the high bit set in the first zero byte of {@code word}, and zero if
+     * there is no zero byte. Bytes after the first zero byte may be marked spuriously.
+     */
+    private static long zeroBytes(long word) {
+        return (word - LOW_BITS) & ~word & HIGH_BITS;
+    }
+
+    /**
+     * Returns the index of the first byte marked in the result of {@link #zeroBytes}.
+     */
+    private static int firstMarkedByte(long marks) {
+        return Long.numberOfTrailingZeros(marks) >>> 3;
+    }
+
+    private static boolean isAligned(long ptr) {
+        return (ptr & (Long.BYTES - 1)) == 0;
+    }
+
+    private static int compareBytes(byte a, byte b) {
+        return Byte.toUnsignedInt(a) - Byte.toUnsignedInt(b);
+    }
+
+    public static long strlen(LLVMMemory memory, Node location, long s) {
+        long ptr = s;
+        while (!isAligned(ptr)) {
+            if (memory.getI8(location, ptr) == 0) {
+                return ptr - s;
+            }
+            ptr++;
+        }
+        while (true) {
+            long zeros = zeroBytes(memory.getI64(location, ptr));
+            if (zeros != 0) {
+                return ptr - s + firstMarkedByte(zeros);
+            }
+            ptr += Long.BYTES;
+        }
+    }
+
+    /**
+     * Returns the address of the first occurrence of {@code c} in the first {@code n} bytes at
+     * {@code s}, or zero if there is none.
+     */
+    public static long memchr(LLVMMemory memory, Node location, long s, byte c, long n) {
+        long ptr = s;
+        long remaining = n;
+        while (remaining != 0 && !isAligned(ptr)) {
+            if (memory.getI8(location, ptr) == c) {
+                return ptr;
+            }
+            ptr++;
+            remaining--;
+        }
+        long pattern = Byte.toUnsignedLong(c) * LOW_BITS;
+        while (Long.compareUnsigned(remaining, Long.BYTES) >= 0) {
+            long matches = zeroBytes(memory.getI64(location, ptr) ^ pattern);
+            if (matches != 0) {
+                return ptr + firstMarkedByte(matches);
+            }
+            ptr += Long.BYTES;
+            remaining -= Long.BYTES;
+        }
+        while (remaining != 0) {
+            if (memory.getI8(location, ptr) == c) {
+                return ptr;
+            }
+            ptr++;
+            remaining--;
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the address of the first occurrence of {@code c} in the string at {@code s}, which
+     * is the address of the terminator if {@code c} is zero, or zero if there is none.
+     */
+    public static long strchr(LLVMMemory memory, Node location, long s, byte c) {
+        long ptr = s;
+        while (!isAligned(ptr)) {
+            byte b = memory.getI8(location, ptr);
+            if (b == c) {
+                return ptr;
+            } else if (b == 0) {
+                return 0;
+            }
+            ptr++;
+        }
+        long pattern = Byte.toUnsignedLong(c) * LOW_BITS;
+        while (true) {
+            long word = memory.getI64(location, ptr);
+            long marks = zeroBytes(word) | zeroBytes(word ^ pattern);
+            if (marks != 0) {
+                int index = firstMarkedByte(marks);
+                return (byte) (word >>> (index * Byte.SIZE)) == c ? ptr + index : 0;
+            }
+            ptr += Long.BYTES;
+        }
+    }
+
+    public static int memcmp(LLVMMemory memory, Node location, long a, long b, long n) {
+        long i = 0;
+        long remaining = n;
+        for (; Long.compareUnsigned(remaining, Long.BYTES) >= 0; i += Long.BYTES, remaining -= Long.BYTES) {
+            long wordA = memory.getI64(location, a + i);
+            long wordB = memory.getI64(location, b + i);
+            if (wordA != wordB) {
+                int shift = Long.numberOfTrailingZeros(wordA ^ wordB) & ~(Byte.SIZE - 1);
+                return compareBytes((byte) (wordA >>> shift), (byte) (wordB >>> shift));
+            }
+        }
+        for (; remaining != 0; i++, remaining--) {
+            int result = compareBytes(memory.getI8(location, a + i), memory.getI8(location, b + i));
+            if (result != 0) {
+                return result;
+            }
+        }
+        return 0;
+    }
+
+    public static int strcmp(LLVMMemory memory, Node location, long a, long b) {
+        long ptrA = a;
+        long ptrB = b;
+        while (true) {
+            /*
+             * Compare byte-wise until ptrA is aligned, and wherever a word of ptrB would cross a
+             * page boundary. Words that differ or contain the terminator are compared byte-wise,
+             * too, which always finds the result within the word.
+             */
+            if (isAligned(ptrA) && (ptrB & (PAGE_SIZE - 1)) <= PAGE_SIZE - Long.BYTES) {
+                long wordA = memory.getI64(location, ptrA);
+                if (wordA == memory.getI64(location, ptrB) && zeroBytes(wordA) == 0) {
+                    ptrA += Long.BYTES;
+                    ptrB += Long.BYTES;
+                    continue;
+                }
+            }
+            do {
+                byte byteA = memory.getI8(location, ptrA);
+                byte byteB = memory.getI8(location, ptrB);
+                if (byteA != byteB || byteA == 0) {
+                    return compareBytes(byteA, byteB);
+                }
+                ptrA++;
+                ptrB++;
+            } while (!isAligned(ptrA));
+        }
+    }
+
+    @NodeChild(value = "s", type = LLVMExpressionNode.class)
+    public abstract static class LLVMStrlen extends LLVMStringIntrinsics {
+
+        @Specialization(guards = "!isAutoDerefHandle(language, s)")
+        protected long doNative(LLVMNativePointer s,
+                        @CachedLanguage LLVMLanguage language) {
+            return strlen(language.getLLVMMemory(), this, s.asNative());
+        }
+
+        @Specialization
+        protected long doGeneric(LLVMPointer s,
+                        @Cached LLVMI8OffsetLoadNode read) {
+            long length = 0;
+            while (read.executeWithTarget(s, length) != 0) {
+                length++;
+            }
+            return length;
+        }
+    }
+
+    @NodeChild(value = "s", type = LLVMExpressionNode.class)
+    @NodeChild(value = "c", type = LLVMExpressionNode.class)
+    @NodeChild(value = "n", type = LLVMExpressionNode.class)
+    public abstract static class LLVMMemchr extends LLVMStringIntrinsics {
+
+        @Specialization(guards = "!isAutoDerefHandle(language, s)")
+        protected LLVMPointer doNative(LLVMNativePointer s, int c, long n,
+                        @CachedLanguage LLVMLanguage language) {
+            return LLVMNativePointer.create(memchr(language.getLLVMMemory(), this, s.asNative(), (byte) c, n));
+        }
+
+        @Specialization
+        protected LLVMPointer doGeneric(LLVMPointer s, int c, long n,
+                        @Cached LLVMI8OffsetLoadNode read) {
+            for (long i = 0; Long.compareUnsigned(i, n) < 0; i++) {
+                if (read.executeWithTarget(s, i) == (byte) c) {
+                    return s.increment(i);
+                }
+            }
+            return LLVMNativePointer.createNull();
+        }
+    }
+
+    @NodeChild(value = "s", type = LLVMExpressionNode.class)
+    @NodeChild(value = "c", type = LLVMExpressionNode.class)
+    public abstract static class LLVMStrchr extends LLVMStringIntrinsics {
+
+        @Specialization(guards = "!isAutoDerefHandle(language, s)")
+        protected LLVMPointer doNative(LLVMNativePointer s, int c,
+                        @CachedLanguage LLVMLanguage language) {
+            return LLVMNativePointer.create(strchr(language.getLLVMMemory(), this, s.asNative(), (byte) c));
+        }
+
+        @Specialization
+        protected LLVMPointer doGeneric(LLVMPointer s, int c,
+                        @Cached LLVMI8OffsetLoadNode read) {
+            for (long i = 0;; i++) {
+                byte b = read.executeWithTarget(s, i);
+                if (b == (byte) c) {
+                    return s.increment(i);
+                } else if (b == 0) {
+                    return LLVMNativePointer.createNull();
+                }
+            }
+        }
+    }
+
+    @NodeChild(value = "a", type = LLVMExpressionNode.class)
+    @NodeChild(value = "b", type = LLVMExpressionNode.class)
+    @NodeChild(value = "n", type = LLVMExpressionNode.class)
+    public abstract static class LLVMMemcmp extends LLVMStringIntrinsics {
+
+        @Specialization(guards = {"!isAutoDerefHandle(language, a)", "!isAutoDerefHandle(language, b)"})
+        protected int doNative(LLVMNativePointer a, LLVMNativePointer b, long n,
+                        @CachedLanguage LLVMLanguage language) {
+            return memcmp(language.getLLVMMemory(), this, a.asNative(), b.asNative(), n);
+        }
+
+        @Specialization
+        protected int doGeneric(LLVMPointer a, LLVMPointer b, long n,
+                        @Cached LLVMI8OffsetLoadNode read) {
+            for (long i = 0; Long.compareUnsigned(i, n) < 0; i++) {
+                int result = compareBytes(read.executeWithTarget(a, i), read.executeWithTarget(b, i));
+                if (result != 0) {
+                    return result;
+                }
+            }
+            return 0;
+        }
+    }
+
+    @NodeChild(value = "a", type = LLVMExpressionNode.class)
+    @NodeChild(value = "b", type = LLVMExpressionNode.class)
+    public abstract static class LLVMStrcmp extends LLVMStringIntrinsics {
+
+        @Specialization(guards = {"!isAutoDerefHandle(language, a)", "!isAutoDerefHandle(language, b)"})
+        protected int doNative(LLVMNativePointer a, LLVMNativePointer b,
+                        @CachedLanguage LLVMLanguage language) {
+            return strcmp(language.getLLVMMemory(), this, a.asNative(), b.asNative());
+        }
+
+        @Specialization
+        protected int doGeneric(LLVMPointer a, LLVMPointer b,
+                        @Cached LLVMI8OffsetLoadNode read) {
+            for (long i = 0;; i++) {
+                byte byteA = read.executeWithTarget(a, i);
+                byte byteB = read.executeWithTarget(b, i);
+                if (byteA != byteB || byteA == 0) {
+                    return compareBytes(byteA, byteB);
+                }
+            }
+        }
+    }
+}
@@ -49,7 +49,7 @@ public abstract class LLVMMemoryIntrinsic extends LLVMExpressionNode {
         protected LLVMNativePointer doVoid(int size,
                         @CachedLanguage LLVMLanguage language) {
             try {
-                return language.getLLVMMemory().allocateMemory(this, size);
+                return language.getLLVMMemory().allocateSystemMemory(this, size);
             } catch (OutOfMemoryError e) {
                 CompilerDirectives.transferToInterpreter();
                 return LLVMNativePointer.createNull();
@@ -60,7 +60,7 @@ public abstract class LLVMMemoryIntrinsic extends LLVMExpressionNode {
         protected LLVMNativePointer doVoid(long size,
                         @CachedLanguage LLVMLanguage language) {
             try {
-                return language.getLLVMMemory().allocateMemory(this, size);
+                return language.getLLVMMemory().allocateSystemMemory(this, size);
             } catch (OutOfMemoryError e) {
                 CompilerDirectives.transferToInterpreter();
                 return LLVMNativePointer.createNull();
@@ -82,7 +82,7 @@ public abstract class LLVMMemoryIntrinsic extends LLVMExpressionNode {
                         @CachedLanguage LLVMLanguage language) {
             try {
                 long length = Math.multiplyExact(n, size);
-                LLVMNativePointer address = language.getLLVMMemory().allocateMemory(this, length);
+                LLVMNativePointer address = language.getLLVMMemory().allocateSystemMemory(this, length);
                 memSet.executeWithTarget(address, (byte) 0, length);
                 return address;
             } catch (OutOfMemoryError | ArithmeticException e) {
@@ -96,7 +96,7 @@ public abstract class LLVMMemoryIntrinsic extends LLVMExpressionNode {
                         @CachedLanguage LLVMLanguage language) {
             try {
                 long length = Math.multiplyExact(n, size);
-                LLVMNativePointer address = language.getLLVMMemory().allocateMemory(this, length);
+                LLVMNativePointer address = language.getLLVMMemory().allocateSystemMemory(this, length);
                 memSet.executeWithTarget(address, (byte) 0, length);
                 return address;
             } catch (OutOfMemoryError | ArithmeticException e) {
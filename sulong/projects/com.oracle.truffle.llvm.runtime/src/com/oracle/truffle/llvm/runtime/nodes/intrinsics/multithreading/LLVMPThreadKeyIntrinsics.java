@@ -48,8 +48,7 @@ public final class LLVMPThreadKeyIntrinsics {
         @Specialization
         protected int doIntrinsic(LLVMPointer destructor,
                         @CachedContext(LLVMLanguage.class) LLVMContext context) {
-            // add new key-value to key-storage, which is a
-            // hashmap(key-value->hashmap(thread-id->specific-value))
+            // register the destructor of the new key, the values are stored per thread
             return context.getpThreadContext().createPThreadKey(destructor);
         }
     }
@@ -76,13 +76,13 @@ public final class LLVMPThreadStart {
                 if (returnValue == null) {
                     returnValue = LLVMNativePointer.createNull();
                 }
-                pThreadContext.setThreadReturnValue(Thread.currentThread().getId(), returnValue);
+                pThreadContext.setThreadReturnValue(pThreadContext.getCurrentThreadId(), returnValue);
             } catch (PThreadExitException e) {
                 // return value is written to retval storage in exit function before it throws this
                 // exception
             } catch (Throwable t) {
                 // unclean exit, set return value to NULL and rethrow
-                pThreadContext.setThreadReturnValue(Thread.currentThread().getId(), LLVMNativePointer.createNull());
+                pThreadContext.setThreadReturnValue(pThreadContext.getCurrentThreadId(), LLVMNativePointer.createNull());
                 throw t;
             } finally {
                 // call destructors from key create
@@ -97,6 +97,9 @@ public final class LLVMPThreadStart {
                             }
                         }
                     }
+                    // a pooled thread must not pass its thread state on to the next pthread
+                    pThreadContext.clearSpecific();
+                    context.clearThreadLocalStorage();
                     pThreadContext.clearThreadId();
                 }
             }
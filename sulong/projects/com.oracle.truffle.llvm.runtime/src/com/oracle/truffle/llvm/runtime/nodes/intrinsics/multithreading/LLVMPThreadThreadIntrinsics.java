@@ -61,12 +61,9 @@ public final class LLVMPThreadThreadIntrinsics {
                         @Cached LLVMI64StoreNode store,
                         @CachedContext(LLVMLanguage.class) LLVMContext context) {
             LLVMPThreadStart.LLVMPThreadRunnable init = new LLVMPThreadStart.LLVMPThreadRunnable(startRoutine, arg, context, true);
-            final Thread t = context.getpThreadContext().createThread(init);
-            if (t == null) {
+            if (!context.getpThreadContext().startThread(init, id -> store.executeWithTarget(thread, id))) {
                 return LLVMAMD64Error.EAGAIN;
             }
-            store.executeWithTarget(thread, t.getId());
-            t.start();
             return 0;
         }
     }
@@ -83,7 +80,8 @@ public final class LLVMPThreadThreadIntrinsics {
 
         @TruffleBoundary
         private static void setThreadReturnValue(Object returnValue, LLVMContext context) {
-            context.getpThreadContext().setThreadReturnValue(Thread.currentThread().getId(), returnValue);
+            LLVMPThreadContext pThreadContext = context.getpThreadContext();
+            pThreadContext.setThreadReturnValue(pThreadContext.getCurrentThreadId(), returnValue);
         }
     }
 
@@ -94,14 +92,11 @@ public final class LLVMPThreadThreadIntrinsics {
         @TruffleBoundary
         protected Object doIntrinsic(long threadId,
                         @CachedContext(LLVMLanguage.class) LLVMContext context) {
-            final Thread thread = context.getpThreadContext().getThread(threadId);
-            if (thread != null) {
-                try {
-                    thread.join();
-                } catch (InterruptedException e) {
-                    CompilerDirectives.transferToInterpreter();
-                    throw new LLVMThreadException(this, "Failed to join thread", e);
-                }
+            try {
+                context.getpThreadContext().joinThread(threadId);
+            } catch (InterruptedException e) {
+                CompilerDirectives.transferToInterpreter();
+                throw new LLVMThreadException(this, "Failed to join thread", e);
             }
 
             return context.getpThreadContext().getThreadReturnValue(threadId);
@@ -111,13 +106,8 @@ public final class LLVMPThreadThreadIntrinsics {
     public abstract static class LLVMPThreadSelf extends LLVMBuiltin {
 
         @Specialization
-        protected long doIntrinsic() {
-            return getThreadId();
-        }
-
-        @TruffleBoundary
-        private static long getThreadId() {
-            return Thread.currentThread().getId();
+        protected long doIntrinsic(@CachedContext(LLVMLanguage.class) LLVMContext context) {
+            return context.getpThreadContext().getCurrentThreadId();
         }
     }
 
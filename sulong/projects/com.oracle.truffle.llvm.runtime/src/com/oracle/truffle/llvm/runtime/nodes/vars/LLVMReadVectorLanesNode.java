@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided
+ * with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE
+ * GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.oracle.truffle.llvm.runtime.nodes.vars;
+
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.FrameSlot;
+import com.oracle.truffle.api.frame.FrameUtil;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.ExplodeLoop;
+import com.oracle.truffle.llvm.runtime.nodes.api.LLVMExpressionNode;
+import com.oracle.truffle.llvm.runtime.vector.LLVMDoubleVector;
+import com.oracle.truffle.llvm.runtime.vector.LLVMFloatVector;
+import com.oracle.truffle.llvm.runtime.vector.LLVMI16Vector;
+import com.oracle.truffle.llvm.runtime.vector.LLVMI1Vector;
+import com.oracle.truffle.llvm.runtime.vector.LLVMI32Vector;
+import com.oracle.truffle.llvm.runtime.vector.LLVMI8Vector;
+
+/**
+ * Reads a vector value whose lanes are stored in separate frame slots (see
+ * {@link LLVMVectorLanes}).
+ */
+public abstract class LLVMReadVectorLanesNode extends LLVMExpressionNode {
+
+    @CompilationFinal(dimensions = 1) protected final FrameSlot[] laneSlots;
+
+    protected LLVMReadVectorLanesNode(FrameSlot[] laneSlots) {
+        assert laneSlots.length > 0;
+        this.laneSlots = laneSlots;
+    }
+
+    @Override
+    public String toString() {
+        return getShortString("laneSlots");
+    }
+
+    public abstract static class LLVMI1VectorLanesReadNode extends LLVMReadVectorLanesNode {
+        protected LLVMI1VectorLanesReadNode(FrameSlot[] laneSlots) {
+            super(laneSlots);
+        }
+
+        @Specialization
+        @ExplodeLoop
+        protected LLVMI1Vector readI1Vector(VirtualFrame frame) {
+            boolean[] vector = new boolean[laneSlots.length];
+            for (int i = 0; i < laneSlots.length; i++) {
+                vector[i] = FrameUtil.getBooleanSafe(frame, laneSlots[i]);
+            }
+            return LLVMI1Vector.create(vector);
+        }
+    }
+
+    public abstract static class LLVMI8VectorLanesReadNode extends LLVMReadVectorLanesNode {
+        protected LLVMI8VectorLanesReadNode(FrameSlot[] laneSlots) {
+            super(laneSlots);
+        }
+
+        @Specialization
+        @ExplodeLoop
+        protected LLVMI8Vector readI8Vector(VirtualFrame frame) {
+            byte[] vector = new byte[laneSlots.length];
+            for (int i = 0; i < laneSlots.length; i++) {
+                vector[i] = FrameUtil.getByteSafe(frame, laneSlots[i]);
+            }
+            return LLVMI8Vector.create(vector);
+        }
+    }
+
+    public abstract static class LLVMI16VectorLanesReadNode extends LLVMReadVectorLanesNode {
+        protected LLVMI16VectorLanesReadNode(FrameSlot[] laneSlots) {
+            super(laneSlots);
+        }
+
+        @Specialization
+        @ExplodeLoop
+        protected LLVMI16Vector readI16Vector(VirtualFrame frame) {
+            short[] vector = new short[laneSlots.length];
+            for (int i = 0; i < laneSlots.length; i++) {
+                vector[i] = (short) FrameUtil.getIntSafe(frame, laneSlots[i]);
+            }
+            return LLVMI16Vector.create(vector);
+        }
+    }
+
+    public abstract static class LLVMI32VectorLanesReadNode extends LLVMReadVectorLanesNode {
+        protected LLVMI32VectorLanesReadNode(FrameSlot[] laneSlots) {
+            super(laneSlots);
+        }
+
+        @Specialization
+        @ExplodeLoop
+        protected LLVMI32Vector readI32Vector(VirtualFrame frame) {
+            int[] vector = new int[laneSlots.length];
+            for (int i = 0; i < laneSlots.length; i++) {
+                vector[i] = FrameUtil.getIntSafe(frame, laneSlots[i]);
+            }
+            return LLVMI32Vector.create(vector);
+        }
+    }
+
+    public abstract static class LLVMFloatVectorLanesReadNode extends LLVMReadVectorLanesNode {
+        protected LLVMFloatVectorLanesReadNode(FrameSlot[] laneSlots) {
+            super(laneSlots);
+        }
+
+        @Specialization
+        @ExplodeLoop
+        protected LLVMFloatVector readFloatVector(VirtualFrame frame) {
+            float[] vector = new float[laneSlots.length];
+            for (int i = 0; i < laneSlots.length; i++) {
+                vector[i] = FrameUtil.getFloatSafe(frame, laneSlots[i]);
+            }
+            return LLVMFloatVector.create(vector);
+        }
+    }
+
+    public abstract static class LLVMDoubleVectorLanesReadNode extends LLVMReadVectorLanesNode {
+        protected LLVMDoubleVectorLanesReadNode(FrameSlot[] laneSlots) {
+            super(laneSlots);
+        }
+
+        @Specialization
+        @ExplodeLoop
+        protected LLVMDoubleVector readDoubleVector(VirtualFrame frame) {
+            double[] vector = new double[laneSlots.length];
+            for (int i = 0; i < laneSlots.length; i++) {
+                vector[i] = FrameUtil.getDoubleSafe(frame, laneSlots[i]);
+            }
+            return LLVMDoubleVector.create(vector);
+        }
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided
+ * with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE
+ * GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.oracle.truffle.llvm.runtime.nodes.vars;
+
+import java.util.Objects;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.frame.Frame;
+import com.oracle.truffle.api.frame.FrameDescriptor;
+import com.oracle.truffle.api.frame.FrameSlot;
+import com.oracle.truffle.llvm.runtime.types.PrimitiveType;
+import com.oracle.truffle.llvm.runtime.types.Type;
+import com.oracle.truffle.llvm.runtime.types.VectorType;
+import com.oracle.truffle.llvm.runtime.vector.LLVMDoubleVector;
+import com.oracle.truffle.llvm.runtime.vector.LLVMFloatVector;
+import com.oracle.truffle.llvm.runtime.vector.LLVMI16Vector;
+import com.oracle.truffle.llvm.runtime.vector.LLVMI1Vector;
+import com.oracle.truffle.llvm.runtime.vector.LLVMI32Vector;
+import com.oracle.truffle.llvm.runtime.vector.LLVMI8Vector;
+import com.oracle.truffle.llvm.runtime.vector.LLVMVector;
+
+/**
+ * Stores the lanes of small vector values in separate primitive frame slots. A vector object that
+ * is kept in a frame slot across a loop back-edge is usually materialized in every iteration of
+ * the loop. If every lane has its own slot, only primitive values are carried through the loop, and
+ * the vectors created by {@link LLVMReadVectorLanesNode} can be virtualized by escape analysis.
+ */
+public final class LLVMVectorLanes {
+
+    /**
+     * Vectors with more lanes are stored as objects, to keep the frames small.
+     */
+    public static final int MAX_LANES = 16;
+
+    private LLVMVectorLanes() {
+        // no instances
+    }
+
+    public static boolean canScalarize(Type type) {
+        if (type instanceof VectorType) {
+            VectorType vectorType = (VectorType) type;
+            if (vectorType.getElementType() instanceof PrimitiveType && vectorType.getNumberOfElements() <= MAX_LANES) {
+                switch (((PrimitiveType) vectorType.getElementType()).getPrimitiveKind()) {
+                    case I1:
+                    case I8:
+                    case I16:
+                    case I32:
+                    case FLOAT:
+                    case DOUBLE:
+                        return true;
+                    default:
+                        // i64 vectors may also contain pointers
+                        return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the lane slots of the value that is stored in the frame slot with the given
+     * identifier.
+     */
+    public static FrameSlot[] findOrAddLaneSlots(FrameDescriptor descriptor, Object identifier, VectorType type) {
+        assert canScalarize(type);
+        FrameSlot[] slots = new FrameSlot[type.getNumberOfElementsInt()];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = descriptor.findOrAddFrameSlot(new LaneIdentifier(identifier, i), type, Type.getFrameSlotKind(type.getElementType()));
+        }
+        return slots;
+    }
+
+    /**
+     * Reassembles a vector from its lane slots, e.g., for the debugger.
+     *
+     * @return the vector, or {@code null} if the value is not stored in lane slots or the lanes
+     *         are not initialized
+     */
+    @TruffleBoundary
+    public static LLVMVector read(Frame frame, Object identifier) {
+        FrameDescriptor descriptor = frame.getFrameDescriptor();
+        FrameSlot first = descriptor.findFrameSlot(new LaneIdentifier(identifier, 0));
+        if (first == null) {
+            return null;
+        }
+        VectorType type = (VectorType) first.getInfo();
+        PrimitiveType elementType = (PrimitiveType) type.getElementType();
+        Class<?> laneClass = frameValueClass(elementType);
+        Object[] lanes = new Object[type.getNumberOfElementsInt()];
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = frame.getValue(descriptor.findFrameSlot(new LaneIdentifier(identifier, i)));
+            if (!laneClass.isInstance(lanes[i])) {
+                // the lanes were not written yet
+                return null;
+            }
+        }
+        switch (elementType.getPrimitiveKind()) {
+            case I1: {
+                boolean[] values = new boolean[lanes.length];
+                for (int i = 0; i < lanes.length; i++) {
+                    values[i] = (boolean) lanes[i];
+                }
+                return LLVMI1Vector.create(values);
+            }
+            case I8: {
+                byte[] values = new byte[lanes.length];
+                for (int i = 0; i < lanes.length; i++) {
+                    values[i] = (byte) lanes[i];
+                }
+                return LLVMI8Vector.create(values);
+            }
+            case I16: {
+                short[] values = new short[lanes.length];
+                for (int i = 0; i < lanes.length; i++) {
+                    values[i] = (short) (int) lanes[i];
+                }
+                return LLVMI16Vector.create(values);
+            }
+            case I32: {
+                int[] values = new int[lanes.length];
+                for (int i = 0; i < lanes.length; i++) {
+                    values[i] = (int) lanes[i];
+                }
+                return LLVMI32Vector.create(values);
+            }
+            case FLOAT: {
+                float[] values = new float[lanes.length];
+                for (int i = 0; i < lanes.length; i++) {
+                    values[i] = (float) lanes[i];
+                }
+                return LLVMFloatVector.create(values);
+            }
+            case DOUBLE: {
+                double[] values = new double[lanes.length];
+                for (int i = 0; i < lanes.length; i++) {
+                    values[i] = (double) lanes[i];
+                }
+                return LLVMDoubleVector.create(values);
+            }
+            default:
+                throw new AssertionError(type);
+        }
+    }
+
+    private static Class<?> frameValueClass(PrimitiveType elementType) {
+        switch (elementType.getPrimitiveKind()) {
+            case I1:
+                return Boolean.class;
+            case I8:
+                return Byte.class;
+            case I16:
+            case I32:
+                return Integer.class;
+            case FLOAT:
+                return Float.class;
+            case DOUBLE:
+                return Double.class;
+            default:
+                throw new AssertionError(elementType);
+        }
+    }
+
+    private static final class LaneIdentifier {
+
+        private final Object identifier;
+        private final int lane;
+
+        LaneIdentifier(Object identifier, int lane) {
+            this.identifier = identifier;
+            this.lane = lane;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof LaneIdentifier)) {
+                return false;
+            }
+            LaneIdentifier other = (LaneIdentifier) obj;
+            return identifier.equals(other.identifier) && lane == other.lane;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(identifier, lane);
+        }
+
+        @Override
+        public String toString() {
+            return identifier + "[" + lane + "]";
+        }
+    }
+}
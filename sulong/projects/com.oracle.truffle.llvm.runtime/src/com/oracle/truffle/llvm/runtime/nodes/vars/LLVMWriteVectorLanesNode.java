@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided
+ * with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE
+ * GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.oracle.truffle.llvm.runtime.nodes.vars;
+
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.FrameSlot;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.ExplodeLoop;
+import com.oracle.truffle.llvm.runtime.vector.LLVMDoubleVector;
+import com.oracle.truffle.llvm.runtime.vector.LLVMFloatVector;
+import com.oracle.truffle.llvm.runtime.vector.LLVMI16Vector;
+import com.oracle.truffle.llvm.runtime.vector.LLVMI1Vector;
+import com.oracle.truffle.llvm.runtime.vector.LLVMI32Vector;
+import com.oracle.truffle.llvm.runtime.vector.LLVMI8Vector;
+
+/**
+ * Writes the lanes of a vector value into separate frame slots (see {@link LLVMVectorLanes}). The
+ * {@link #slot} of this node identifies the value, but is never written.
+ */
+public abstract class LLVMWriteVectorLanesNode extends LLVMWriteNode {
+
+    @CompilationFinal(dimensions = 1) protected final FrameSlot[] laneSlots;
+
+    protected LLVMWriteVectorLanesNode(FrameSlot slot, FrameSlot[] laneSlots) {
+        super(slot);
+        assert laneSlots.length > 0;
+        this.laneSlots = laneSlots;
+    }
+
+    public abstract static class LLVMWriteI1VectorLanesNode extends LLVMWriteVectorLanesNode {
+        protected LLVMWriteI1VectorLanesNode(FrameSlot slot, FrameSlot[] laneSlots) {
+            super(slot, laneSlots);
+        }
+
+        @Specialization
+        @ExplodeLoop
+        protected void writeI1Vector(VirtualFrame frame, LLVMI1Vector value) {
+            assert value.getLength() == laneSlots.length;
+            for (int i = 0; i < laneSlots.length; i++) {
+                frame.setBoolean(laneSlots[i], value.getValue(i));
+            }
+        }
+    }
+
+    public abstract static class LLVMWriteI8VectorLanesNode extends LLVMWriteVectorLanesNode {
+        protected LLVMWriteI8VectorLanesNode(FrameSlot slot, FrameSlot[] laneSlots) {
+            super(slot, laneSlots);
+        }
+
+        @Specialization
+        @ExplodeLoop
+        protected void writeI8Vector(VirtualFrame frame, LLVMI8Vector value) {
+            assert value.getLength() == laneSlots.length;
+            for (int i = 0; i < laneSlots.length; i++) {
+                frame.setByte(laneSlots[i], value.getValue(i));
+            }
+        }
+    }
+
+    public abstract static class LLVMWriteI16VectorLanesNode extends LLVMWriteVectorLanesNode {
+        protected LLVMWriteI16VectorLanesNode(FrameSlot slot, FrameSlot[] laneSlots) {
+            super(slot, laneSlots);
+        }
+
+        @Specialization
+        @ExplodeLoop
+        protected void writeI16Vector(VirtualFrame frame, LLVMI16Vector value) {
+            assert value.getLength() == laneSlots.length;
+            for (int i = 0; i < laneSlots.length; i++) {
+                frame.setInt(laneSlots[i], value.getValue(i));
+            }
+        }
+    }
+
+    public abstract static class LLVMWriteI32VectorLanesNode extends LLVMWriteVectorLanesNode {
+        protected LLVMWriteI32VectorLanesNode(FrameSlot slot, FrameSlot[] laneSlots) {
+            super(slot, laneSlots);
+        }
+
+        @Specialization
+        @ExplodeLoop
+        protected void writeI32Vector(VirtualFrame frame, LLVMI32Vector value) {
+            assert value.getLength() == laneSlots.length;
+            for (int i = 0; i < laneSlots.length; i++) {
+                frame.setInt(laneSlots[i], value.getValue(i));
+            }
+        }
+    }
+
+    public abstract static class LLVMWriteFloatVectorLanesNode extends LLVMWriteVectorLanesNode {
+        protected LLVMWriteFloatVectorLanesNode(FrameSlot slot, FrameSlot[] laneSlots) {
+            super(slot, laneSlots);
+        }
+
+        @Specialization
+        @ExplodeLoop
+        protected void writeFloatVector(VirtualFrame frame, LLVMFloatVector value) {
+            assert value.getLength() == laneSlots.length;
+            for (int i = 0; i < laneSlots.length; i++) {
+                frame.setFloat(laneSlots[i], value.getValue(i));
+            }
+        }
+    }
+
+    public abstract static class LLVMWriteDoubleVectorLanesNode extends LLVMWriteVectorLanesNode {
+        protected LLVMWriteDoubleVectorLanesNode(FrameSlot slot, FrameSlot[] laneSlots) {
+            super(slot, laneSlots);
+        }
+
+        @Specialization
+        @ExplodeLoop
+        protected void writeDoubleVector(VirtualFrame frame, LLVMDoubleVector value) {
+            assert value.getLength() == laneSlots.length;
+            for (int i = 0; i < laneSlots.length; i++) {
+                frame.setDouble(laneSlots[i], value.getValue(i));
+            }
+        }
+    }
+}
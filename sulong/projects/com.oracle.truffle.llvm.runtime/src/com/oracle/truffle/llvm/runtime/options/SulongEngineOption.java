@@ -108,6 +108,17 @@ public final class SulongEngineOption {
             help = "Enable fusing of instructions producing values with instructions consuming values.")
     public static final OptionKey<Boolean> OPTIMIZE_FRAME_SLOTS = new OptionKey<>(true);
 
+    @Option(name = "llvm.scalarizeVectorSlots",
+            category = OptionCategory.INTERNAL,
+            help = "Store the lanes of small vector values in separate frame slots to avoid allocating vector objects.")
+    public static final OptionKey<Boolean> SCALARIZE_VECTOR_SLOTS = new OptionKey<>(true);
+
+    @Option(name = "llvm.pthreadPoolSize",
+            category = OptionCategory.EXPERT,
+            help = "The number of idle threads that are kept to run further pthreads. " +
+                   "By default (0), a new thread is created for every pthread.")
+    public static final OptionKey<Integer> PTHREAD_POOL_SIZE = new OptionKey<>(0);
+
     @Option(name = "llvm.printAST",
             category = OptionCategory.INTERNAL,
             help = "Prints the Truffle AST of functions when it is created. " +
@@ -136,6 +147,13 @@ public final class SulongEngineOption {
             help = "Enable lazy parsing of LLVM bitcode files.")
     public static final OptionKey<Boolean> LAZY_PARSING = new OptionKey<>(true);
 
+    @Option(name = "llvm.debugInfo",
+            category = OptionCategory.EXPERT,
+            help = "Use the debug information of bitcode files for source locations, stack traces and local variable inspection. " +
+                   "If disabled, functions are parsed without the debug information of their module, which is then not parsed at all " +
+                   "unless it is needed for interop types or C++ interop. This speeds up loading large libraries compiled with -g.")
+    public static final OptionKey<Boolean> DEBUG_INFO = new OptionKey<>(true);
+
     @Option(name = "llvm.llDebug",
             category = OptionCategory.EXPERT,
             help = "Enable IR-level debugging of LLVM bitcode files.")
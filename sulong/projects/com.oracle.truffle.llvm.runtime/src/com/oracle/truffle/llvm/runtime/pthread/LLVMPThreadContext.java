@@ -31,15 +31,22 @@ package com.oracle.truffle.llvm.runtime.pthread;
 
 import com.oracle.truffle.api.CallTarget;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.ContextThreadLocal;
 import com.oracle.truffle.api.TruffleLanguage;
 import com.oracle.truffle.llvm.runtime.LLVMLanguage;
 import com.oracle.truffle.llvm.runtime.datalayout.DataLayout;
 import com.oracle.truffle.llvm.runtime.nodes.intrinsics.multithreading.LLVMPThreadStart;
+import com.oracle.truffle.llvm.runtime.options.SulongEngineOption;
 import com.oracle.truffle.llvm.runtime.pointer.LLVMPointer;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.LongConsumer;
 
 public final class LLVMPThreadContext {
 
@@ -52,10 +59,23 @@ public final class LLVMPThreadContext {
     private final ConcurrentMap<Long, Thread> threadStorage;
     private volatile boolean isCreateThreadAllowed;
 
+    /*
+     * Threads that finished a pthread are kept to run further pthreads. The ids of the pthreads
+     * they run are allocated above the range of Java thread ids, so they never collide with the
+     * ids of threads that are not pooled.
+     */
+    private static final long FIRST_POOLED_THREAD_ID = 1L << 32;
+    private final int threadPoolSize;
+    private long nextPooledThreadId;
+    private final ArrayDeque<PooledThread> idleThreads;
+    private final ArrayList<Thread> pooledThreads;
+    private final ConcurrentMap<Long, CountDownLatch> pooledThreadCompletion;
+
     private int pThreadKey;
     private final Object pThreadKeyLock;
-    private final ConcurrentMap<Integer, ConcurrentMap<Long, LLVMPointer>> pThreadKeyStorage;
-    private final ConcurrentMap<Integer, LLVMPointer> pThreadDestructorStorage;
+    // indexed by the key, a Java null marks an unused or deleted key
+    private volatile LLVMPointer[] pThreadDestructors;
+    private final ContextThreadLocal<ThreadKeyValues> pThreadKeyValues;
 
     private final CallTarget pthreadCallTarget;
 
@@ -66,10 +86,15 @@ public final class LLVMPThreadContext {
         this.threadLock = new Object();
         this.threadReturnValueStorage = new ConcurrentHashMap<>();
         this.threadStorage = new ConcurrentHashMap<>();
+        this.threadPoolSize = env.getOptions().get(SulongEngineOption.PTHREAD_POOL_SIZE);
+        this.nextPooledThreadId = FIRST_POOLED_THREAD_ID;
+        this.idleThreads = new ArrayDeque<>();
+        this.pooledThreads = new ArrayList<>();
+        this.pooledThreadCompletion = new ConcurrentHashMap<>();
         this.pThreadKey = 0;
         this.pThreadKeyLock = new Object();
-        this.pThreadKeyStorage = new ConcurrentHashMap<>();
-        this.pThreadDestructorStorage = new ConcurrentHashMap<>();
+        this.pThreadDestructors = new LLVMPointer[1];
+        this.pThreadKeyValues = language.getPThreadKeyValues();
 
         this.pthreadCallTarget = language.createCachedCallTarget(LLVMPThreadStart.LLVMPThreadFunctionRootNode.class,
                         l -> LLVMPThreadStart.LLVMPThreadFunctionRootNode.create(l, l.getActiveConfiguration().createNodeFactory(l, dataLayout)));
@@ -79,9 +104,15 @@ public final class LLVMPThreadContext {
     @TruffleBoundary
     public void joinAllThreads() {
         final Collection<Thread> threadsToJoin;
+        final ArrayList<Thread> pooledThreadsToJoin;
         synchronized (threadLock) {
             this.isCreateThreadAllowed = false;
             threadsToJoin = threadStorage.values();
+            pooledThreadsToJoin = new ArrayList<>(pooledThreads);
+            for (PooledThread idle : idleThreads) {
+                idle.shutdown();
+            }
+            idleThreads.clear();
         }
         for (Thread createdThread : threadsToJoin) {
             try {
@@ -90,28 +121,37 @@ public final class LLVMPThreadContext {
                 // ignored
             }
         }
+        for (Thread pooledThread : pooledThreadsToJoin) {
+            try {
+                pooledThread.join();
+            } catch (InterruptedException e) {
+                // ignored
+            }
+        }
     }
 
+    @TruffleBoundary
     public int createPThreadKey(LLVMPointer destructor) {
         synchronized (pThreadKeyLock) {
             // create new key
             pThreadKey++;
 
-            // register the key
-            registerPThreadKey(pThreadKey, destructor);
+            // register destructor with new key, keys are never reused
+            LLVMPointer[] destructors = Arrays.copyOf(pThreadDestructors, pThreadKey + 1);
+            destructors[pThreadKey] = destructor;
+            pThreadDestructors = destructors;
 
             // return the created key
             return pThreadKey;
         }
     }
 
-    @TruffleBoundary
-    private void registerPThreadKey(int key, LLVMPointer destructor) {
-        // register destructor with new key
-        pThreadDestructorStorage.put(key, destructor);
-
-        // register key storage
-        pThreadKeyStorage.put(key, new ConcurrentHashMap<>());
+    /**
+     * Resets the values of all keys of the current thread, so that a pooled thread starts the next
+     * pthread without values.
+     */
+    public void clearSpecific() {
+        pThreadKeyValues.get().clear();
     }
 
     public int getNumberOfPthreadKeys() {
@@ -121,26 +161,29 @@ public final class LLVMPThreadContext {
     @TruffleBoundary
     public void deletePThreadKey(int keyId) {
         synchronized (pThreadKeyLock) {
-            pThreadKeyStorage.remove(keyId);
-            pThreadDestructorStorage.remove(keyId);
+            if (isValidKey(keyId)) {
+                LLVMPointer[] destructors = pThreadDestructors.clone();
+                destructors[keyId] = null;
+                pThreadDestructors = destructors;
+            }
         }
     }
 
-    @TruffleBoundary
+    private boolean isValidKey(int keyId) {
+        final LLVMPointer[] destructors = pThreadDestructors;
+        return keyId > 0 && keyId < destructors.length && destructors[keyId] != null;
+    }
+
     public LLVMPointer getSpecific(int keyId) {
-        final ConcurrentMap<Long, LLVMPointer> value = pThreadKeyStorage.get(keyId);
-        if (value != null) {
-            final long threadId = Thread.currentThread().getId();
-            return value.get(threadId);
+        if (isValidKey(keyId)) {
+            return pThreadKeyValues.get().get(keyId);
         }
         return null;
     }
 
-    @TruffleBoundary
     public boolean setSpecific(int keyId, LLVMPointer value) {
-        final ConcurrentMap<Long, LLVMPointer> specificStore = pThreadKeyStorage.get(keyId);
-        if (specificStore != null) {
-            specificStore.put(Thread.currentThread().getId(), value);
+        if (isValidKey(keyId)) {
+            pThreadKeyValues.get().set(keyId, value);
             return true;
         }
         return false;
@@ -148,12 +191,11 @@ public final class LLVMPThreadContext {
 
     @TruffleBoundary
     public LLVMPointer getAndRemoveSpecificUnlessNull(int keyId) {
-        final ConcurrentMap<Long, LLVMPointer> value = pThreadKeyStorage.get(keyId);
-        if (value != null) {
-            final long threadId = Thread.currentThread().getId();
-            final LLVMPointer keyMapping = value.get(threadId);
+        if (isValidKey(keyId)) {
+            final ThreadKeyValues values = pThreadKeyValues.get();
+            final LLVMPointer keyMapping = values.get(keyId);
             if (keyMapping != null && !keyMapping.isNull()) {
-                value.remove(threadId);
+                values.set(keyId, null);
                 return keyMapping;
             }
         }
@@ -162,22 +204,83 @@ public final class LLVMPThreadContext {
 
     @TruffleBoundary
     public LLVMPointer getDestructor(int keyId) {
-        return pThreadDestructorStorage.get(keyId);
+        return isValidKey(keyId) ? pThreadDestructors[keyId] : null;
     }
 
+    /**
+     * Runs {@code runnable} as a new pthread, either on an idle pooled thread or on a new thread.
+     * The id of the pthread is passed to {@code publishId} before the pthread starts.
+     *
+     * @return false if no more threads may be created
+     */
     @TruffleBoundary
-    public Thread createThread(Runnable runnable) {
-        synchronized (threadLock) {
-            if (isCreateThreadAllowed) {
-                final Thread thread = env.createThread(runnable);
+    public boolean startThread(Runnable runnable, LongConsumer publishId) {
+        if (threadPoolSize <= 0) {
+            final Thread thread;
+            synchronized (threadLock) {
+                if (!isCreateThreadAllowed) {
+                    return false;
+                }
+                thread = env.createThread(runnable);
                 threadStorage.put(thread.getId(), thread);
-                return thread;
+            }
+            publishId.accept(thread.getId());
+            thread.start();
+            return true;
+        }
+
+        final PooledThread pooledThread;
+        final long threadId;
+        final boolean isNew;
+        synchronized (threadLock) {
+            if (!isCreateThreadAllowed) {
+                return false;
+            }
+            threadId = nextPooledThreadId++;
+            PooledThread idle = idleThreads.pollLast();
+            isNew = idle == null;
+            if (isNew) {
+                pooledThread = new PooledThread();
+                pooledThread.thread = env.createThread(pooledThread);
+                pooledThreads.add(pooledThread.thread);
             } else {
-                return null;
+                pooledThread = idle;
+            }
+            threadStorage.put(threadId, pooledThread.thread);
+            pooledThreadCompletion.put(threadId, new CountDownLatch(1));
+        }
+        publishId.accept(threadId);
+        pooledThread.execute(threadId, runnable);
+        if (isNew) {
+            pooledThread.thread.start();
+        }
+        return true;
+    }
+
+    /**
+     * Waits until the pthread with the given id has finished.
+     */
+    @TruffleBoundary
+    public void joinThread(long threadId) throws InterruptedException {
+        CountDownLatch completion = pooledThreadCompletion.get(threadId);
+        if (completion != null) {
+            completion.await();
+        } else {
+            Thread thread = threadStorage.get(threadId);
+            if (thread != null) {
+                thread.join();
             }
         }
     }
 
+    /**
+     * Returns the id of the pthread that runs on the current thread.
+     */
+    public long getCurrentThreadId() {
+        long pooledThreadId = pThreadKeyValues.get().pooledThreadId;
+        return pooledThreadId != 0 ? pooledThreadId : Thread.currentThread().getId();
+    }
+
     @TruffleBoundary
     public Thread getThread(long threadID) {
         return threadStorage.get(threadID);
@@ -185,7 +288,7 @@ public final class LLVMPThreadContext {
 
     @TruffleBoundary
     public void clearThreadId() {
-        threadStorage.remove(Thread.currentThread().getId());
+        threadStorage.remove(getCurrentThreadId());
     }
 
     @TruffleBoundary
@@ -201,4 +304,119 @@ public final class LLVMPThreadContext {
     public CallTarget getPthreadCallTarget() {
         return pthreadCallTarget;
     }
+
+    private void finishPooledThread(long threadId) {
+        CountDownLatch completion = pooledThreadCompletion.remove(threadId);
+        completion.countDown();
+    }
+
+    private boolean makeIdle(PooledThread pooledThread) {
+        synchronized (threadLock) {
+            if (isCreateThreadAllowed && idleThreads.size() < threadPoolSize) {
+                idleThreads.add(pooledThread);
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * A thread that runs pthreads one after the other. It keeps its stack and its thread state in
+     * the context between the pthreads.
+     */
+    private final class PooledThread implements Runnable {
+
+        Thread thread;
+
+        // guarded by this
+        private Runnable task;
+        private long taskThreadId;
+        private boolean isShutdown;
+
+        synchronized void execute(long threadId, Runnable runnable) {
+            assert task == null;
+            taskThreadId = threadId;
+            task = runnable;
+            notifyAll();
+        }
+
+        synchronized void shutdown() {
+            isShutdown = true;
+            notifyAll();
+        }
+
+        private synchronized Runnable awaitTask() throws InterruptedException {
+            while (task == null && !isShutdown) {
+                wait();
+            }
+            return task;
+        }
+
+        @Override
+        public void run() {
+            final String name = thread.getName();
+            try {
+                while (true) {
+                    final Runnable runnable = awaitTask();
+                    if (runnable == null) {
+                        return;
+                    }
+                    final long threadId;
+                    synchronized (this) {
+                        threadId = taskThreadId;
+                        task = null;
+                    }
+                    final ThreadKeyValues threadState = pThreadKeyValues.get();
+                    threadState.pooledThreadId = threadId;
+                    try {
+                        runnable.run();
+                    } finally {
+                        threadState.pooledThreadId = 0;
+                        finishPooledThread(threadId);
+                    }
+                    // the name may have been changed by pthread_setname_np
+                    thread.setName(name);
+                    if (!makeIdle(this)) {
+                        return;
+                    }
+                }
+            } catch (InterruptedException e) {
+                // terminate the thread
+            }
+        }
+    }
+
+    /**
+     * The values of the pthread keys of one thread, indexed by the key, and the id of the pthread
+     * that runs on a pooled thread. Only accessed by the owning thread, so no synchronization is
+     * needed.
+     */
+    public static final class ThreadKeyValues {
+
+        private LLVMPointer[] values = new LLVMPointer[8];
+
+        // zero if the thread is not pooled, or does not run a pthread
+        private long pooledThreadId;
+
+        LLVMPointer get(int keyId) {
+            final LLVMPointer[] array = values;
+            return keyId < array.length ? array[keyId] : null;
+        }
+
+        void clear() {
+            Arrays.fill(values, null);
+        }
+
+        void set(int keyId, LLVMPointer value) {
+            if (keyId >= values.length) {
+                grow(keyId);
+            }
+            values[keyId] = value;
+        }
+
+        @TruffleBoundary
+        private void grow(int keyId) {
+            values = Arrays.copyOf(values, Math.max(values.length * 2, keyId + 1));
+        }
+    }
 }
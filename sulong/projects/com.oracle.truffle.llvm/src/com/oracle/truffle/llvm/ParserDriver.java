@@ -350,7 +350,8 @@ final class ParserDriver {
         LLVMParserRuntime runtime = new LLVMParserRuntime(fileScope, nodeFactory, bitcodeID, file, source.getName(), getSourceFilesWithChecksums(context.getEnv(), module));
         LLVMParser parser = new LLVMParser(source, runtime);
         LLVMParserResult result = parser.parse(module, targetDataLayout);
-        createDebugInfo(module, new LLVMSymbolReadResolver(runtime, new FrameDescriptor(), GetStackSpaceFactory.createAllocaFactory(), targetDataLayout, false));
+        LLVMSymbolReadResolver symbolResolver = new LLVMSymbolReadResolver(runtime, new FrameDescriptor(), GetStackSpaceFactory.createAllocaFactory(), targetDataLayout, false, false);
+        module.onDebugInfoParsed(() -> createDebugInfo(module, symbolResolver));
         return result;
     }
 
@@ -517,7 +518,7 @@ final class ParserDriver {
         for (GlobalVariable global : parserResult.getExternalGlobals()) {
             if (!fileScope.contains(global.getName())) {
                 fileScope.register(
-                                LLVMGlobal.create(global.getName(), global.getType(), global.getSourceSymbol(), global.isReadOnly(), global.getIndex(), parserResult.getRuntime().getBitcodeID(),
+                                LLVMGlobal.create(global.getName(), global.getType(), global::getSourceSymbol, global.isReadOnly(), global.getIndex(), parserResult.getRuntime().getBitcodeID(),
                                                 false, global.isExternalWeak()));
             }
         }
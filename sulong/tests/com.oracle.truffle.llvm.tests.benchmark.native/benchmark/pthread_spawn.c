@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided
+ * with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE
+ * GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+#include <pthread.h>
+#include <stdint.h>
+
+static void *work(void *arg) {
+    return (void *) ((uintptr_t) arg + 1);
+}
+
+/*
+ * Creates and joins n short-lived threads, at most batch of them at a time, and returns the sum of
+ * their results, or -1 if a thread cannot be created or joined.
+ */
+long spawn(int n, int batch) {
+    pthread_t threads[64];
+    long sum = 0;
+    if (batch > 64) {
+        batch = 64;
+    }
+    for (int i = 0; i < n; i += batch) {
+        int count = n - i < batch ? n - i : batch;
+        for (int j = 0; j < count; j++) {
+            if (pthread_create(&threads[j], NULL, work, (void *) (uintptr_t) j) != 0) {
+                return -1;
+            }
+        }
+        for (int j = 0; j < count; j++) {
+            void *result;
+            if (pthread_join(threads[j], &result) != 0) {
+                return -1;
+            }
+            sum += (uintptr_t) result;
+        }
+    }
+    return sum;
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided
+ * with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE
+ * GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+#include <stdlib.h>
+#include <string.h>
+
+/*
+ * Calls the string functions, which Sulong implements with word-wise intrinsics, and byte-wise
+ * loops that are executed like the bitcode of libc. The strings are equal, a is aligned and b is
+ * not. The project is compiled with -fno-builtin, so that the calls are not replaced.
+ */
+
+static char *a;
+static char *b;
+static size_t length;
+
+int setup(int n) {
+    length = n;
+    a = malloc(length + 1);
+    b = malloc(length + 4);
+    if (a == NULL || b == NULL) {
+        return 0;
+    }
+    b += 3;
+    for (size_t i = 0; i < length; i++) {
+        a[i] = b[i] = 'a' + i % 26;
+    }
+    a[length] = b[length] = '\0';
+    return 1;
+}
+
+__attribute__((noinline)) static size_t strlen_bytewise(const char *s) {
+    const char *p = s;
+    while (*p != '\0') {
+        p++;
+    }
+    return p - s;
+}
+
+__attribute__((noinline)) static int strcmp_bytewise(const char *x, const char *y) {
+    while (*x != '\0' && *x == *y) {
+        x++;
+        y++;
+    }
+    return (unsigned char) *x - (unsigned char) *y;
+}
+
+__attribute__((noinline)) static const void *memchr_bytewise(const void *s, int c, size_t n) {
+    const unsigned char *p = s;
+    for (size_t i = 0; i < n; i++) {
+        if (p[i] == (unsigned char) c) {
+            return p + i;
+        }
+    }
+    return NULL;
+}
+
+__attribute__((noinline)) static int memcmp_bytewise(const void *x, const void *y, size_t n) {
+    const unsigned char *p = x;
+    const unsigned char *q = y;
+    for (size_t i = 0; i < n; i++) {
+        if (p[i] != q[i]) {
+            return p[i] - q[i];
+        }
+    }
+    return 0;
+}
+
+size_t bench_strlen(int calls) {
+    size_t sum = 0;
+    for (int i = 0; i < calls; i++) {
+        sum += strlen(b);
+    }
+    return sum;
+}
+
+size_t bench_strlen_bytewise(int calls) {
+    size_t sum = 0;
+    for (int i = 0; i < calls; i++) {
+        sum += strlen_bytewise(b);
+    }
+    return sum;
+}
+
+int bench_strcmp(int calls) {
+    int sum = 0;
+    for (int i = 0; i < calls; i++) {
+        sum += strcmp(a, b);
+    }
+    return sum;
+}
+
+int bench_strcmp_bytewise(int calls) {
+    int sum = 0;
+    for (int i = 0; i < calls; i++) {
+        sum += strcmp_bytewise(a, b);
+    }
+    return sum;
+}
+
+int bench_strchr(int calls) {
+    int found = 0;
+    for (int i = 0; i < calls; i++) {
+        found += strchr(b, '#') != NULL;
+    }
+    return found;
+}
+
+int bench_memchr(int calls) {
+    int found = 0;
+    for (int i = 0; i < calls; i++) {
+        found += memchr(b, '\0', length + 1) != NULL;
+    }
+    return found;
+}
+
+int bench_memchr_bytewise(int calls) {
+    int found = 0;
+    for (int i = 0; i < calls; i++) {
+        found += memchr_bytewise(b, '\0', length + 1) != NULL;
+    }
+    return found;
+}
+
+int bench_memcmp(int calls) {
+    int sum = 0;
+    for (int i = 0; i < calls; i++) {
+        sum += memcmp(a, b, length);
+    }
+    return sum;
+}
+
+int bench_memcmp_bytewise(int calls) {
+    int sum = 0;
+    for (int i = 0; i < calls; i++) {
+        sum += memcmp_bytewise(a, b, length);
+    }
+    return sum;
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided
+ * with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE
+ * GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+typedef int V4SI __attribute__((vector_size(16)));
+typedef short V8HI __attribute__((vector_size(16)));
+typedef float V4SF __attribute__((vector_size(16)));
+typedef double V2DF __attribute__((vector_size(16)));
+
+#define LENGTH 1024
+
+static V4SF x[LENGTH];
+static V4SF y[LENGTH];
+static V8HI samples[LENGTH];
+
+void setup(void) {
+    for (int i = 0; i < LENGTH; i++) {
+        V4SF xi = { i, -i, 0.5f * i, 1.0f };
+        V4SF yi = { 1.0f, 2.0f, 3.0f, i };
+        V8HI si = { i, 1, -1, 2, -2, 3, -3, (short) (i >> 2) };
+        x[i] = xi;
+        y[i] = yi;
+        samples[i] = si;
+    }
+}
+
+/*
+ * y = a * x + y, with the vectors loaded from and stored to memory.
+ */
+float saxpy(float a) {
+    V4SF va = { a, a, a, a };
+    for (int i = 0; i < LENGTH; i++) {
+        y[i] = va * x[i] + y[i];
+    }
+    return y[LENGTH - 1][0];
+}
+
+/*
+ * Dot product with a vector accumulator that is carried across the loop back-edge.
+ */
+float dot(void) {
+    V4SF sum = { 0, 0, 0, 0 };
+    for (int i = 0; i < LENGTH; i++) {
+        sum += x[i] * y[i];
+    }
+    return sum[0] + sum[1] + sum[2] + sum[3];
+}
+
+/*
+ * Sum of absolute values of 16-bit samples, with integer and double accumulators.
+ */
+double abs_sum(void) {
+    V4SI lo = { 0, 0, 0, 0 };
+    V2DF scaled = { 0, 0 };
+    V8HI zero = { 0, 0, 0, 0, 0, 0, 0, 0 };
+    for (int i = 0; i < LENGTH; i++) {
+        V8HI s = samples[i];
+        V8HI a = s < zero ? -s : s;
+        V4SI wide = { a[0] + a[1], a[2] + a[3], a[4] + a[5], a[6] + a[7] };
+        lo += wide;
+        V2DF d = { lo[0], lo[1] };
+        scaled += d * 0.5;
+    }
+    return scaled[0] + scaled[1] + lo[2] + lo[3];
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided
+ * with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE
+ * GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.oracle.truffle.llvm.tests.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Source;
+import org.graalvm.polyglot.Value;
+
+import com.oracle.truffle.llvm.runtime.LLVMLanguage;
+
+/**
+ * Loads the C kernels of the benchmarks, which are compiled to bitcode into the
+ * {@code SULONG_BENCHMARK_KERNELS} distribution. Build it with
+ * {@code mx build --dependencies SULONG_BENCHMARK_KERNELS} before running the benchmarks.
+ */
+final class BenchmarkKernels {
+
+    private static final String VARIANT = "O1.bc";
+
+    private BenchmarkKernels() {
+    }
+
+    /**
+     * Returns a builder for a context that can run the kernels.
+     */
+    static Context.Builder newContext() {
+        return Context.newBuilder(LLVMLanguage.ID).allowNativeAccess(true).allowCreateThread(true);
+    }
+
+    /**
+     * Loads the kernel compiled from {@code benchmark/<name>} into {@code context}.
+     */
+    static Value load(Context context, String name) {
+        File file = file(name);
+        try {
+            return context.eval(Source.newBuilder(LLVMLanguage.ID, file).build());
+        } catch (IOException e) {
+            throw new IllegalStateException("cannot load benchmark kernel " + file, e);
+        }
+    }
+
+    /**
+     * Returns the bitcode file of the kernel compiled from {@code benchmark/<name>}.
+     */
+    static File file(String name) {
+        String kernels = System.getProperty("sulongbench.kernels");
+        if (kernels == null) {
+            throw new IllegalStateException("sulongbench.kernels is not set");
+        }
+        return new File(new File(new File(kernels, "benchmark"), name + ".dir"), VARIANT);
+    }
+}
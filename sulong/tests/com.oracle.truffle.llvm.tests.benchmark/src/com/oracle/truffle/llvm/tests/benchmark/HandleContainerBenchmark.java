@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided
+ * with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE
+ * GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.oracle.truffle.llvm.tests.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.llvm.nativemode.runtime.memory.LLVMNativeMemory;
+import com.oracle.truffle.llvm.runtime.memory.LLVMMemory.HandleContainer;
+
+/**
+ * Measures the throughput of creating, resolving and releasing native handles for managed objects
+ * when several threads use the same handle container.
+ */
+@Warmup(iterations = 10, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@Threads(4)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class HandleContainerBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Container {
+
+        @Param({"false", "true"}) boolean deref;
+
+        HandleContainer handles;
+        final Object shared = new Object();
+
+        @Setup
+        @SuppressWarnings("deprecation")
+        public void setup() {
+            handles = LLVMNativeMemory.getInstance().createHandleContainer(deref, Truffle.getRuntime().createAssumption());
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Objects {
+
+        @Param({"16"}) int count;
+
+        Object[] objects;
+        long[] addresses;
+
+        @Setup
+        public void setup() {
+            objects = new Object[count];
+            for (int i = 0; i < count; i++) {
+                objects[i] = new Object();
+            }
+            addresses = new long[count];
+        }
+    }
+
+    /**
+     * Every thread creates handles for its own objects, so the threads only share the container.
+     */
+    @Benchmark
+    public Object createResolveRelease(Container container, Objects objects) {
+        HandleContainer handles = container.handles;
+        Object result = null;
+        for (int i = 0; i < objects.count; i++) {
+            objects.addresses[i] = handles.allocate(null, objects.objects[i]).asNative();
+        }
+        for (int i = 0; i < objects.count; i++) {
+            result = handles.getValue(null, objects.addresses[i]).getObject();
+        }
+        for (int i = 0; i < objects.count; i++) {
+            handles.free(null, objects.addresses[i]);
+        }
+        return result;
+    }
+
+    /**
+     * All threads create handles for the same object, so they also share its reference count.
+     */
+    @Benchmark
+    public Object createResolveReleaseShared(Container container) {
+        HandleContainer handles = container.handles;
+        long address = handles.allocate(null, container.shared).asNative();
+        Object result = handles.getValue(null, address).getObject();
+        handles.free(null, address);
+        return result;
+    }
+}
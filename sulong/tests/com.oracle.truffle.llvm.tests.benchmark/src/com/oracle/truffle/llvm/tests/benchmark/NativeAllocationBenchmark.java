@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided
+ * with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE
+ * GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.oracle.truffle.llvm.tests.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.graalvm.polyglot.Context;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.oracle.truffle.llvm.nativemode.runtime.memory.LLVMNativeMemory;
+import com.oracle.truffle.llvm.runtime.LLVMLanguage;
+
+/**
+ * Measures the allocation throughput of the native memory, comparing pooled allocations with
+ * allocations that go to the system allocator. Every benchmark thread enters its own context, which
+ * holds the slab cache of the thread.
+ */
+@Warmup(iterations = 10, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class NativeAllocationBenchmark {
+
+    private static final int BATCH = 64;
+
+    @State(Scope.Thread)
+    public static class Allocations {
+
+        @Param({"16", "128", "1024", "4096"}) long size;
+
+        Context context;
+        LLVMNativeMemory memory;
+        final long[] blocks = new long[BATCH];
+
+        @Setup
+        @SuppressWarnings("deprecation")
+        public void setup() {
+            context = Context.newBuilder().allowAllAccess(true).build();
+            context.initialize(LLVMLanguage.ID);
+            context.enter();
+            memory = LLVMNativeMemory.getInstance();
+        }
+
+        @TearDown
+        public void tearDown() {
+            context.leave();
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public long allocateAndFree(Allocations a) {
+        long ptr = a.memory.allocateMemory(null, a.size).asNative();
+        a.memory.free(null, ptr);
+        return ptr;
+    }
+
+    @Benchmark
+    public long allocateAndFreeSystem(Allocations a) {
+        long ptr = a.memory.allocateSystemMemory(null, a.size).asNative();
+        a.memory.free(null, ptr);
+        return ptr;
+    }
+
+    @Benchmark
+    public long allocateBatch(Allocations a) {
+        for (int i = 0; i < BATCH; i++) {
+            a.blocks[i] = a.memory.allocateMemory(null, a.size).asNative();
+        }
+        for (int i = 0; i < BATCH; i++) {
+            a.memory.free(null, a.blocks[i]);
+        }
+        return a.blocks[0];
+    }
+
+    @Benchmark
+    public long allocateBatchSystem(Allocations a) {
+        for (int i = 0; i < BATCH; i++) {
+            a.blocks[i] = a.memory.allocateSystemMemory(null, a.size).asNative();
+        }
+        for (int i = 0; i < BATCH; i++) {
+            a.memory.free(null, a.blocks[i]);
+        }
+        return a.blocks[0];
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long allocateBatchContended(Allocations a) {
+        return allocateBatch(a);
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided
+ * with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE
+ * GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.oracle.truffle.llvm.tests.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Value;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the word-wise string intrinsics with byte-wise loops, which is how the bitcode versions
+ * of libc read native memory. Both are called in loops of compiled C code
+ * ({@code benchmark/string_functions.c}). The two strings are equal and start at different
+ * alignments. The results are per call.
+ */
+@Warmup(iterations = 10, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@OperationsPerInvocation(StringIntrinsicsBenchmark.CALLS)
+@State(Scope.Thread)
+public class StringIntrinsicsBenchmark {
+
+    static final int CALLS = 100;
+
+    @Param({"16", "256", "4096"}) int length;
+
+    private Context context;
+    private Value kernel;
+
+    @Setup
+    public void setup() {
+        context = BenchmarkKernels.newContext().build();
+        kernel = BenchmarkKernels.load(context, "string_functions.c");
+        if (kernel.getMember("setup").execute(length).asInt() == 0) {
+            throw new IllegalStateException("cannot allocate the strings");
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    private Value run(String function) {
+        return kernel.getMember(function).execute(CALLS);
+    }
+
+    @Benchmark
+    public long strlen() {
+        return run("bench_strlen").asLong();
+    }
+
+    @Benchmark
+    public long strlenBytewise() {
+        return run("bench_strlen_bytewise").asLong();
+    }
+
+    @Benchmark
+    public int strcmp() {
+        return run("bench_strcmp").asInt();
+    }
+
+    @Benchmark
+    public int strcmpBytewise() {
+        return run("bench_strcmp_bytewise").asInt();
+    }
+
+    @Benchmark
+    public int strchr() {
+        return run("bench_strchr").asInt();
+    }
+
+    @Benchmark
+    public int memchr() {
+        return run("bench_memchr").asInt();
+    }
+
+    @Benchmark
+    public int memchrBytewise() {
+        return run("bench_memchr_bytewise").asInt();
+    }
+
+    @Benchmark
+    public int memcmp() {
+        return run("bench_memcmp").asInt();
+    }
+
+    @Benchmark
+    public int memcmpBytewise() {
+        return run("bench_memcmp_bytewise").asInt();
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided
+ * with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE
+ * GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+#include <stdint.h>
+#include <stdlib.h>
+#include <string.h>
+
+/* the size is unsigned, so SIZE_MAX must not be treated as -1 */
+volatile size_t unbounded = SIZE_MAX;
+
+int main() {
+    char buf[64];
+    for (int i = 0; i < sizeof(buf); i++) {
+        buf[i] = 'a' + i % 16;
+    }
+    for (int start = 0; start < 16; start++) {
+        for (int pos = start; pos < sizeof(buf); pos++) {
+            char saved = buf[pos];
+            buf[pos] = '#';
+            if (memchr(buf + start, '#', unbounded) != buf + pos) {
+                exit(1);
+            }
+            buf[pos] = saved;
+        }
+    }
+    /* sizes with the high bit set, but not all bits */
+    buf[17] = '#';
+    if (memchr(buf + 3, '#', unbounded >> 1) != buf + 17) {
+        exit(2);
+    }
+    if (memchr(buf + 3, '#', (unbounded >> 1) + 1) != buf + 17) {
+        exit(3);
+    }
+    if (memchr(buf + 3, '#', unbounded - 7) != buf + 17) {
+        exit(4);
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided
+ * with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE
+ * GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+#include <stdint.h>
+#include <stdlib.h>
+#include <string.h>
+
+volatile size_t unbounded = SIZE_MAX;
+
+static int sign(int value) {
+    return (value > 0) - (value < 0);
+}
+
+int main() {
+    unsigned char a[80];
+    unsigned char b[80];
+    for (int i = 0; i < sizeof(a); i++) {
+        a[i] = b[i] = 'a' + i % 23;
+    }
+    /* all relative alignments of the two buffers, with differences in the word-wise part and in the tail */
+    for (int startA = 0; startA < 8; startA++) {
+        for (int startB = 0; startB < 8; startB++) {
+            memmove(b + startB, a + startA, sizeof(a) - 8);
+            for (int n = 0; n < sizeof(a) - 8; n++) {
+                if (memcmp(a + startA, b + startB, n) != 0) {
+                    exit(1);
+                }
+            }
+            for (int pos = 0; pos < sizeof(a) - 8; pos++) {
+                unsigned char saved = b[startB + pos];
+                b[startB + pos] = saved + 1;
+                if (sign(memcmp(a + startA, b + startB, sizeof(a) - 8)) != -1) {
+                    exit(2);
+                }
+                if (sign(memcmp(b + startB, a + startA, pos + 1)) != 1) {
+                    exit(3);
+                }
+                if (memcmp(a + startA, b + startB, pos) != 0) {
+                    exit(4);
+                }
+                /* the bytes are compared as unsigned char */
+                b[startB + pos] = 0xff;
+                if (sign(memcmp(a + startA, b + startB, sizeof(a) - 8)) != -1) {
+                    exit(5);
+                }
+                b[startB + pos] = saved;
+            }
+        }
+    }
+    /* the size is unsigned, so the comparison must stop at the first difference instead of returning 0 */
+    memcpy(b, a, sizeof(a));
+    b[13] = 0;
+    if (sign(memcmp(a, b, unbounded)) != 1) {
+        exit(6);
+    }
+    if (sign(memcmp(b + 1, a + 1, unbounded)) != -1) {
+        exit(7);
+    }
+    if (sign(memcmp(a + 5, b + 5, (unbounded >> 1) + 1)) != 1) {
+        exit(8);
+    }
+}
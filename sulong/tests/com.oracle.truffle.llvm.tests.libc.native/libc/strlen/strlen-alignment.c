@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided
+ * with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE
+ * GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+#include <stdlib.h>
+#include <string.h>
+
+char a[96];
+char b[96];
+
+int main() {
+    for (int i = 0; i < sizeof(a); i++) {
+        a[i] = b[i] = 'a' + i % 23;
+    }
+    /* all alignments of both strings and lengths that span several words */
+    for (int offsetA = 0; offsetA < 8; offsetA++) {
+        for (int offsetB = 0; offsetB < 8; offsetB++) {
+            for (int len = 0; len < 40; len++) {
+                char *s = a + offsetA;
+                char *t = b + offsetA;
+                char *u = b + offsetB;
+                s[len] = '\0';
+                t[len] = '\0';
+                if (strlen(s) != len) {
+                    exit(1);
+                }
+                if (strcmp(s, t) != 0 || memcmp(s, t, len + 1) != 0) {
+                    exit(2);
+                }
+                if (strchr(s, '\0') != s + len) {
+                    exit(3);
+                }
+                if (len > 0) {
+                    if (strchr(s, s[len - 1]) > s + len - 1 || strchr(s, '#') != NULL) {
+                        exit(4);
+                    }
+                    t[len - 1] = (char) 0xf0;
+                    if (strcmp(s, t) >= 0 || memcmp(t, s, len) <= 0) {
+                        exit(5);
+                    }
+                    t[len - 1] = s[len - 1];
+                }
+                if (offsetA != offsetB && strcmp(s, u) == 0 && memcmp(s, u, len) == 0 && len > 0) {
+                    exit(6);
+                }
+                s[len] = 'a' + (offsetA + len) % 23;
+                t[len] = 'a' + (offsetA + len) % 23;
+            }
+        }
+    }
+}
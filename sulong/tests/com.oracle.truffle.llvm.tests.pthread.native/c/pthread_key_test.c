@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided
+ * with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE
+ * GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+#include <stdio.h>
+#include <stdlib.h>
+#include <pthread.h>
+
+static pthread_key_t key;
+static pthread_key_t plain_key;
+
+void destructor(void *value) {
+    printf("destructor %d\n", *(int *) value);
+    free(value);
+}
+
+void *run(void *data) {
+    int id = *(int *) data;
+
+    if (pthread_getspecific(key) != NULL || pthread_getspecific(plain_key) != NULL) {
+        printf("thread %d: initial value is not NULL\n", id);
+    }
+
+    int *value = malloc(sizeof(int));
+    *value = id * 10;
+    pthread_setspecific(key, value);
+    pthread_setspecific(plain_key, data);
+
+    for (int i = 0; i < 1000; i++) {
+        int *current = pthread_getspecific(key);
+        *current += 1;
+    }
+
+    printf("thread %d: %d %d\n", id, *(int *) pthread_getspecific(key), *(int *) pthread_getspecific(plain_key));
+    return NULL;
+}
+
+int main() {
+    if (pthread_key_create(&key, &destructor) || pthread_key_create(&plain_key, NULL)) {
+        printf("Could not create key\n");
+        return 1;
+    }
+
+    int main_value = 42;
+    pthread_setspecific(key, &main_value);
+
+    int ids[] = { 1, 2 };
+    for (int i = 0; i < 2; i++) {
+        pthread_t thread;
+        if (pthread_create(&thread, NULL, &run, &ids[i])) {
+            printf("Could not create thread\n");
+            return 1;
+        }
+        if (pthread_join(thread, NULL)) {
+            printf("Could not join thread\n");
+            return 1;
+        }
+    }
+
+    printf("main: %d\n", *(int *) pthread_getspecific(key));
+    pthread_setspecific(key, NULL);
+
+    if (pthread_key_delete(key) || pthread_key_delete(plain_key)) {
+        printf("Could not delete key\n");
+        return 1;
+    }
+    return 0;
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided
+ * with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE
+ * GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+#include <stdio.h>
+#include <stdint.h>
+#include <pthread.h>
+
+#define ROUNDS 200
+#define THREADS 8
+
+static pthread_key_t key;
+static int destructed;
+static pthread_mutex_t mutex = PTHREAD_MUTEX_INITIALIZER;
+
+struct task {
+    int value;
+    pthread_t self;
+};
+
+void destructor(void *value) {
+    pthread_mutex_lock(&mutex);
+    destructed++;
+    pthread_mutex_unlock(&mutex);
+}
+
+void *run(void *data) {
+    struct task *task = data;
+    if (pthread_getspecific(key) != NULL) {
+        return NULL;
+    }
+    pthread_setspecific(key, task);
+    task->self = pthread_self();
+    if (task->value % 2 == 0) {
+        pthread_exit((void *) (intptr_t) (task->value * 2));
+    }
+    return (void *) (intptr_t) (task->value * 2);
+}
+
+/*
+ * Spawns many short-lived threads, so that threads are reused if they are pooled. Every thread must
+ * start without the key values of a previous thread, have its own id, and run the key destructors.
+ */
+int main() {
+    if (pthread_key_create(&key, &destructor)) {
+        printf("Could not create key\n");
+        return 1;
+    }
+    long sum = 0;
+    int errors = 0;
+    for (int round = 0; round < ROUNDS; round++) {
+        pthread_t threads[THREADS];
+        struct task tasks[THREADS];
+        for (int i = 0; i < THREADS; i++) {
+            tasks[i].value = round * THREADS + i;
+            if (pthread_create(&threads[i], NULL, &run, &tasks[i])) {
+                printf("Could not create thread\n");
+                return 1;
+            }
+        }
+        for (int i = 0; i < THREADS; i++) {
+            void *result;
+            if (pthread_join(threads[i], &result)) {
+                printf("Could not join thread\n");
+                return 1;
+            }
+            if ((intptr_t) result != tasks[i].value * 2 || !pthread_equal(threads[i], tasks[i].self)) {
+                errors++;
+            }
+            for (int j = 0; j < i; j++) {
+                if (pthread_equal(threads[i], threads[j])) {
+                    errors++;
+                }
+            }
+            sum += (intptr_t) result;
+        }
+    }
+    printf("sum: %ld, errors: %d, destructors: %d\n", sum, errors, destructed);
+    return 0;
+}
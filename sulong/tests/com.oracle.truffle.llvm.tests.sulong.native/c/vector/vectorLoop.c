@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided
+ * with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE
+ * GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+typedef int V4SI __attribute__((vector_size(16)));
+typedef short V8HI __attribute__((vector_size(16)));
+typedef float V4SF __attribute__((vector_size(16)));
+typedef double V2DF __attribute__((vector_size(16)));
+
+int main() {
+    V4SI isum = { 0, 0, 0, 0 };
+    V8HI ssum = { 0, 0, 0, 0, 0, 0, 0, 0 };
+    V4SF fsum = { 0, 0, 0, 0 };
+    V2DF dsum = { 0, 0 };
+    for (int i = 0; i < 100; i++) {
+        V4SI ivec = { i, -i, 2 * i, 3 };
+        V8HI svec = { 1, 2, 3, 4, 5, 6, 7, (short) i };
+        V4SF fvec = { 0.5f, 1.5f, i, -i };
+        V2DF dvec = { 0.25, i };
+        isum += ivec;
+        ssum += svec;
+        fsum += fvec;
+        dsum += dvec;
+    }
+    int result = isum[0] + isum[1] + isum[2] / 100 + isum[3];
+    result += ssum[7] / 50 + ssum[1];
+    result += (int) (fsum[0] + fsum[1] + fsum[2] + fsum[3]);
+    result += (int) (dsum[0] * 4 + dsum[1] / 1000);
+    return result % 256;
+}
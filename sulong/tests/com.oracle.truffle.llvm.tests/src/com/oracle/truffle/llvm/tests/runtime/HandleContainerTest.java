@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided
+ * with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE
+ * GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.oracle.truffle.llvm.tests.runtime;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.llvm.nativemode.runtime.memory.LLVMNativeMemory;
+import com.oracle.truffle.llvm.runtime.except.LLVMMemoryException;
+import com.oracle.truffle.llvm.runtime.memory.LLVMMemory.HandleContainer;
+
+/**
+ * Tests that the native handle containers can be used by several threads at the same time, and
+ * that the handles freed by a thread can be reused after the thread is disposed.
+ */
+@RunWith(Parameterized.class)
+public class HandleContainerTest {
+
+    private static final int THREADS = 8;
+    private static final int ITERATIONS = 2000;
+    private static final int HANDLES_PER_ITERATION = 16;
+
+    @Parameter public boolean deref;
+
+    @Parameters(name = "deref={0}")
+    public static Object[] data() {
+        return new Object[]{false, true};
+    }
+
+    @SuppressWarnings("deprecation")
+    private HandleContainer createContainer() {
+        return LLVMNativeMemory.getInstance().createHandleContainer(deref, Truffle.getRuntime().createAssumption());
+    }
+
+    private static void runConcurrently(Runnable task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CyclicBarrier start = new CyclicBarrier(THREADS);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.run();
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+            Assert.assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+        }
+    }
+
+    @Test
+    public void testOwnObjects() throws Exception {
+        HandleContainer handles = createContainer();
+        runConcurrently(() -> {
+            Object[] objects = new Object[HANDLES_PER_ITERATION];
+            long[] addresses = new long[HANDLES_PER_ITERATION];
+            for (int iteration = 0; iteration < ITERATIONS; iteration++) {
+                for (int i = 0; i < objects.length; i++) {
+                    objects[i] = new Object();
+                    addresses[i] = handles.allocate(null, objects[i]).asNative();
+                }
+                for (int i = 0; i < objects.length; i++) {
+                    Assert.assertTrue(handles.isHandle(addresses[i]));
+                    Assert.assertSame(objects[i], handles.getValue(null, addresses[i]).getObject());
+                }
+                for (int i = 0; i < objects.length; i++) {
+                    handles.free(null, addresses[i]);
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testSharedObject() throws Exception {
+        HandleContainer handles = createContainer();
+        Object shared = new Object();
+        long address = handles.allocate(null, shared).asNative();
+        runConcurrently(() -> {
+            for (int iteration = 0; iteration < ITERATIONS; iteration++) {
+                // the container holds a reference, so all threads get the same handle
+                Assert.assertEquals(address, handles.allocate(null, shared).asNative());
+                Assert.assertSame(shared, handles.getValue(null, address).getObject());
+                handles.free(null, address);
+            }
+        });
+        // the reference counts of all threads were balanced, so only the first reference is left
+        Assert.assertSame(shared, handles.getValue(null, address).getObject());
+        handles.free(null, address);
+        Assert.assertFalse(handles.isHandle(address));
+        try {
+            handles.free(null, address);
+            Assert.fail("double free was not detected");
+        } catch (LLVMMemoryException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testSharedObjectWithoutReference() throws Exception {
+        HandleContainer handles = createContainer();
+        Object shared = new Object();
+        runConcurrently(() -> {
+            for (int iteration = 0; iteration < ITERATIONS; iteration++) {
+                // the handle may be freed and recreated by other threads in between
+                long address = handles.allocate(null, shared).asNative();
+                Assert.assertSame(shared, handles.getValue(null, address).getObject());
+                handles.free(null, address);
+            }
+        });
+        long address = handles.allocate(null, shared).asNative();
+        handles.free(null, address);
+        Assert.assertFalse(handles.isHandle(address));
+    }
+
+    @Test
+    public void testDisposeThread() throws Exception {
+        HandleContainer handles = createContainer();
+        Set<Long> freed = new HashSet<>();
+        Thread thread = new Thread(() -> {
+            long[] addresses = new long[HANDLES_PER_ITERATION];
+            for (int i = 0; i < addresses.length; i++) {
+                addresses[i] = handles.allocate(null, new Object()).asNative();
+            }
+            for (int i = 0; i < addresses.length; i++) {
+                handles.free(null, addresses[i]);
+                synchronized (freed) {
+                    freed.add(addresses[i]);
+                }
+            }
+        });
+        thread.start();
+        thread.join();
+        // the addresses are cached by the thread until it is disposed
+        long address = handles.allocate(null, new Object()).asNative();
+        Assert.assertFalse(freed.contains(address));
+        handles.free(null, address);
+
+        handles.disposeThread(thread);
+        Set<Long> reused = new HashSet<>();
+        // one more, because the address freed by this thread is reused first
+        for (int i = 0; i <= HANDLES_PER_ITERATION; i++) {
+            reused.add(handles.allocate(null, new Object()).asNative());
+        }
+        Assert.assertTrue(reused.containsAll(freed));
+    }
+}
@@ -0,0 +1,294 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided
+ * with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE
+ * GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.oracle.truffle.llvm.tests.runtime;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.graalvm.polyglot.Context;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.oracle.truffle.llvm.nativemode.runtime.memory.LLVMNativeMemory;
+import com.oracle.truffle.llvm.runtime.LLVMLanguage;
+import com.oracle.truffle.llvm.runtime.except.LLVMMemoryException;
+import com.oracle.truffle.llvm.runtime.memory.LLVMMemory;
+import com.oracle.truffle.llvm.runtime.pointer.LLVMNativePointer;
+import com.oracle.truffle.llvm.tests.services.TestEngineConfig;
+
+/**
+ * Tests the pooled allocation of small native blocks: concurrent use, blocks that are freed by a
+ * different thread than the one that allocated them, reallocation, invalid frees, and the reuse of
+ * the blocks cached by a disposed thread. The thread caches are context thread locals, so every
+ * thread enters a context while it uses the memory.
+ */
+public class NativeAllocatorTest {
+
+    private static final int THREADS = 8;
+    private static final int ITERATIONS = 500;
+    private static final int BLOCKS_PER_ITERATION = 64;
+    private static final long[] SIZES = {1, 16, 24, 100, 256, 1000, 1024};
+
+    private static Context context;
+    private static LLVMMemory memory;
+
+    private static Context createContext() {
+        Context ctx = Context.newBuilder().allowAllAccess(true).options(TestEngineConfig.getInstance().getContextOptions()).build();
+        ctx.initialize(LLVMLanguage.ID);
+        return ctx;
+    }
+
+    @BeforeClass
+    public static void setup() {
+        context = createContext();
+        context.enter();
+        try {
+            memory = LLVMLanguage.getLanguage().getLLVMMemory();
+        } finally {
+            context.leave();
+        }
+        Assume.assumeTrue(memory instanceof LLVMNativeMemory);
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        context.close();
+    }
+
+    private static void runConcurrently(Task task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CyclicBarrier start = new CyclicBarrier(THREADS);
+            AtomicInteger nextIndex = new AtomicInteger();
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    int index = nextIndex.getAndIncrement();
+                    start.await();
+                    context.enter();
+                    try {
+                        task.run(index);
+                    } finally {
+                        context.leave();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+            Assert.assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+        }
+    }
+
+    private interface Task {
+        void run(int index) throws Exception;
+    }
+
+    private static long allocate(long size, long pattern) {
+        long address = memory.allocateMemory(null, size).asNative();
+        Assert.assertEquals(0, address & 15);
+        for (long offset = 0; offset + Long.BYTES <= size - 1; offset += Long.BYTES) {
+            memory.putI64(null, address + offset, pattern + offset);
+        }
+        memory.putI8(null, address + size - 1, (byte) pattern);
+        return address;
+    }
+
+    private static void verifyAndFree(long address, long size, long pattern) {
+        for (long offset = 0; offset + Long.BYTES <= size - 1; offset += Long.BYTES) {
+            Assert.assertEquals(pattern + offset, memory.getI64(null, address + offset));
+        }
+        Assert.assertEquals((byte) pattern, memory.getI8(null, address + size - 1));
+        memory.free(null, address);
+    }
+
+    @Test
+    public void testConcurrentAllocateFree() throws Exception {
+        runConcurrently(index -> {
+            long[] addresses = new long[BLOCKS_PER_ITERATION];
+            for (int iteration = 0; iteration < ITERATIONS; iteration++) {
+                for (int i = 0; i < addresses.length; i++) {
+                    addresses[i] = allocate(SIZES[i % SIZES.length], ((long) index << 32) + i);
+                }
+                for (int i = 0; i < addresses.length; i++) {
+                    verifyAndFree(addresses[i], SIZES[i % SIZES.length], ((long) index << 32) + i);
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testCrossThreadFree() throws Exception {
+        AtomicLongArray addresses = new AtomicLongArray(THREADS * BLOCKS_PER_ITERATION);
+        CyclicBarrier allocated = new CyclicBarrier(THREADS);
+        CyclicBarrier freed = new CyclicBarrier(THREADS);
+        runConcurrently(index -> {
+            // every thread frees the blocks of its neighbor
+            int own = index * BLOCKS_PER_ITERATION;
+            int neighbor = (index + 1) % THREADS * BLOCKS_PER_ITERATION;
+            for (int iteration = 0; iteration < ITERATIONS; iteration++) {
+                for (int i = 0; i < BLOCKS_PER_ITERATION; i++) {
+                    addresses.set(own + i, allocate(SIZES[i % SIZES.length], own + i));
+                }
+                allocated.await();
+                for (int i = 0; i < BLOCKS_PER_ITERATION; i++) {
+                    verifyAndFree(addresses.get(neighbor + i), SIZES[i % SIZES.length], neighbor + i);
+                }
+                freed.await();
+            }
+        });
+    }
+
+    @Test
+    public void testReallocatePooledBlock() {
+        context.enter();
+        try {
+            reallocatePooledBlock();
+        } finally {
+            context.leave();
+        }
+    }
+
+    @SuppressWarnings("deprecation")
+    private static void reallocatePooledBlock() {
+        long address = allocate(100, 42);
+        // growing moves the block out of the pool
+        long grown = memory.reallocateMemory(null, LLVMNativePointer.create(address), 4096).asNative();
+        for (long offset = 0; offset + Long.BYTES <= 100 - 1; offset += Long.BYTES) {
+            Assert.assertEquals(42 + offset, memory.getI64(null, grown + offset));
+        }
+        try {
+            memory.free(null, address);
+            Assert.fail("the old block was not released");
+        } catch (LLVMMemoryException e) {
+            // expected
+        }
+        memory.free(null, grown);
+
+        address = allocate(1024, 7);
+        long shrunk = memory.reallocateMemory(null, LLVMNativePointer.create(address), 16).asNative();
+        Assert.assertEquals(7, memory.getI64(null, shrunk));
+        Assert.assertEquals(15, memory.getI64(null, shrunk + 8));
+        memory.free(null, shrunk);
+    }
+
+    @Test
+    public void testInvalidFree() {
+        context.enter();
+        try {
+            invalidFree();
+        } finally {
+            context.leave();
+        }
+    }
+
+    private static void invalidFree() {
+        long address = allocate(64, 0);
+        try {
+            memory.free(null, address + 16);
+            Assert.fail("free of an interior pointer was not detected");
+        } catch (LLVMMemoryException e) {
+            // expected
+        }
+        memory.free(null, address);
+        try {
+            memory.free(null, address);
+            Assert.fail("double free was not detected");
+        } catch (LLVMMemoryException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testDisposeThread() throws Exception {
+        // a size class that the other tests do not use
+        long size = 512;
+        Set<Long> freed = new HashSet<>();
+        // the thread is disposed when its context is closed
+        Context threadContext = createContext();
+        Thread thread = new Thread(() -> {
+            threadContext.enter();
+            try {
+                allocateAndFree(size, freed);
+            } finally {
+                threadContext.leave();
+            }
+        });
+        thread.start();
+        thread.join();
+        threadContext.close();
+
+        context.enter();
+        try {
+            // the blocks of the disposed thread are handed out once the cache of this thread is
+            // empty
+            long[] addresses = new long[4 * BLOCKS_PER_ITERATION];
+            Set<Long> reused = new HashSet<>();
+            for (int i = 0; i < addresses.length; i++) {
+                addresses[i] = allocate(size, i);
+                reused.add(addresses[i]);
+            }
+            Assert.assertTrue(reused.containsAll(freed));
+            for (int i = 0; i < addresses.length; i++) {
+                verifyAndFree(addresses[i], size, i);
+            }
+        } finally {
+            context.leave();
+        }
+    }
+
+    private static void allocateAndFree(long size, Set<Long> freed) {
+        long[] addresses = new long[BLOCKS_PER_ITERATION / 4];
+        for (int i = 0; i < addresses.length; i++) {
+            addresses[i] = allocate(size, i);
+        }
+        for (int i = 0; i < addresses.length; i++) {
+            verifyAndFree(addresses[i], size, i);
+            synchronized (freed) {
+                freed.add(addresses[i]);
+            }
+        }
+    }
+}
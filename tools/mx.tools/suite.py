@@ -28,6 +28,13 @@ suite = {
                 {"url" : "https://curio.ssw.jku.at/nexus/content/repositories/snapshots", "kind" : "binary"},
               ]
             },
+            {
+              "name" : "regex",
+              "subdir" : True,
+              "urls" : [
+                {"url" : "https://curio.ssw.jku.at/nexus/content/repositories/snapshots", "kind" : "binary"},
+              ]
+            },
         ]
     },
 
@@ -145,6 +152,7 @@ suite = {
             "dependencies" : [
                 "com.oracle.truffle.tools.profiler",
                 "truffle:TRUFFLE_TEST",
+                "regex:TREGEX",
                 "mx:JUNIT"
             ],
             "annotationProcessors" : ["truffle:TRUFFLE_DSL_PROCESSOR"],
@@ -471,6 +479,7 @@ suite = {
             ],
             "distDependencies" : [
                 "truffle:TRUFFLE_TEST",
+                "regex:TREGEX",
                 "TRUFFLE_PROFILER",
             ],
             "description" : "Tests for the truffle profiler.",
@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.tools.profiler.test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Value;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.TruffleLanguage;
+import com.oracle.truffle.api.source.Source;
+import com.oracle.truffle.tools.profiler.RegexProfiler;
+
+public class RegexProfilerTest {
+
+    private Context context;
+    private RegexProfiler profiler;
+
+    @Before
+    public void setup() {
+        context = Context.newBuilder().allowCreateThread(true).build();
+        profiler = RegexProfiler.find(context.getEngine());
+        Assert.assertNotNull(profiler);
+    }
+
+    @After
+    public void after() {
+        context.close();
+    }
+
+    private Value compile(String regex) {
+        return context.eval(RegexTestLanguage.ID, regex);
+    }
+
+    @Test
+    public void testCollecting() {
+        Assert.assertFalse(profiler.isCollecting());
+        profiler.setCollecting(true);
+        Assert.assertTrue(profiler.isCollecting());
+        Assert.assertEquals(0, profiler.getPayloads().size());
+
+        compile("/a+/").invokeMember("exec", "xaa", 0);
+        Assert.assertEquals(1, profiler.getPayloads().size());
+
+        profiler.setCollecting(false);
+        Assert.assertFalse(profiler.isCollecting());
+        profiler.clearData();
+        Assert.assertEquals(0, profiler.getPayloads().size());
+    }
+
+    @Test
+    public void testCounters() {
+        profiler.setCollecting(true);
+        Value regex = compile("/a+/");
+        regex.invokeMember("exec", "xaax", 0);
+        regex.invokeMember("exec", "xaax", 3);
+        regex.invokeMember("exec", "bbbbb", 1);
+
+        RegexProfiler.Payload payload = getPayload("/a+/");
+        Assert.assertEquals(3, payload.getCalls());
+        Assert.assertEquals(1, payload.getMatches());
+        Assert.assertEquals(4 + 1 + 4, payload.getSearchRangeCharacters());
+        Assert.assertTrue(payload.getTime() > 0);
+        Assert.assertNotNull(payload.getExecutor());
+        Assert.assertTrue(payload.getCompilationTime() >= 0);
+    }
+
+    @Test
+    public void testBulkOperation() {
+        profiler.setCollecting(true);
+        Value offsets = compile("/b/").getMember("findAll").execute("abcabcab", 0);
+        Assert.assertEquals(6, offsets.getArraySize());
+
+        RegexProfiler.Payload payload = getPayload("/b/");
+        // three searches finding a match, and a final one that doesn't
+        Assert.assertEquals(4, payload.getCalls());
+        Assert.assertEquals(3, payload.getMatches());
+    }
+
+    @Test
+    public void testConcurrentSearches() throws InterruptedException {
+        profiler.setCollecting(true);
+        Value regex = compile("/[0-9]+/");
+        final int nThreads = 4;
+        final int nSearches = 2000;
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < nThreads; i++) {
+            threads.add(new Thread(() -> {
+                for (int j = 0; j < nSearches; j++) {
+                    regex.invokeMember("exec", j % 2 == 0 ? "ab12" : "abcd", 0);
+                }
+            }));
+        }
+        for (Thread t : threads) {
+            t.start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+
+        RegexProfiler.Payload payload = getPayload("/[0-9]+/");
+        Assert.assertEquals(nThreads * nSearches, payload.getCalls());
+        Assert.assertEquals(nThreads * nSearches / 2, payload.getMatches());
+        Assert.assertEquals(nThreads * nSearches * 4L, payload.getSearchRangeCharacters());
+    }
+
+    private RegexProfiler.Payload getPayload(String regex) {
+        Collection<RegexProfiler.Payload> payloads = profiler.getPayloads();
+        for (RegexProfiler.Payload payload : payloads) {
+            if (payload.getRegex().equals(regex)) {
+                return payload;
+            }
+        }
+        Assert.fail("no payload for " + regex);
+        return null;
+    }
+
+    /**
+     * Evaluates regular expressions of the form {@code /pattern/flags} with TRegex.
+     */
+    @TruffleLanguage.Registration(id = RegexTestLanguage.ID, name = RegexTestLanguage.ID, dependentLanguages = "regex")
+    public static final class RegexTestLanguage extends TruffleLanguage<TruffleLanguage.Env> {
+
+        static final String ID = "regexProfilerTestLanguage";
+
+        @Override
+        protected Env createContext(Env env) {
+            return env;
+        }
+
+        @Override
+        protected CallTarget parse(ParsingRequest request) {
+            return getCurrentContext(RegexTestLanguage.class).parseInternal(Source.newBuilder("regex", request.getSource().getCharacters(), request.getSource().getName()).internal(true).build());
+        }
+
+        @Override
+        protected boolean isThreadAccessAllowed(Thread thread, boolean singleThreaded) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,490 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.tools.profiler;
+
+import java.io.Closeable;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Engine;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.instrumentation.EventBinding;
+import com.oracle.truffle.api.instrumentation.EventContext;
+import com.oracle.truffle.api.instrumentation.ExecutionEventNode;
+import com.oracle.truffle.api.instrumentation.ExecutionEventNodeFactory;
+import com.oracle.truffle.api.instrumentation.SourceSectionFilter;
+import com.oracle.truffle.api.instrumentation.StandardTags.RootTag;
+import com.oracle.truffle.api.instrumentation.TruffleInstrument;
+import com.oracle.truffle.api.instrumentation.TruffleInstrument.Env;
+import com.oracle.truffle.api.interop.InteropException;
+import com.oracle.truffle.api.interop.InteropLibrary;
+import com.oracle.truffle.api.nodes.NodeCost;
+import com.oracle.truffle.api.source.Source;
+import com.oracle.truffle.api.source.SourceSection;
+import com.oracle.truffle.tools.profiler.impl.ProfilerToolFactory;
+import com.oracle.truffle.tools.profiler.impl.RegexProfilerInstrument;
+
+/**
+ * Implementation of a profiler for the regular expressions executed by TRegex, the regular
+ * expression engine used by {@linkplain com.oracle.truffle.api.TruffleLanguage Truffle languages},
+ * built on top of the {@linkplain TruffleInstrument Truffle instrumentation framework}.
+ * <p>
+ * For every regular expression, the profiler counts how many searches were executed, how many of
+ * them found a match, how many characters they had to consider and how much time was spent in
+ * them, including the lazy computation of capture group boundaries. It also reports which kind of
+ * executor TRegex uses for the expression, why no DFA could be generated for it, how big the DFA
+ * is and how long it took to compile the expression. Regular expressions are identified by their
+ * pattern and flags, so all compiled instances of the same expression are reported together.
+ * <p>
+ * Usage example: {@codesnippet RegexProfilerSnippets#example}
+ *
+ * @since 21.1
+ */
+public final class RegexProfiler implements Closeable {
+
+    private static final String REGEX_MIME_TYPE = "application/js-regex";
+
+    private static final SourceSectionFilter FILTER = SourceSectionFilter.newBuilder().tagIs(RootTag.class).sourceIs(new SourceSectionFilter.SourcePredicate() {
+        @Override
+        public boolean test(Source source) {
+            return REGEX_MIME_TYPE.equals(source.getMimeType());
+        }
+    }).build();
+
+    RegexProfiler(Env env) {
+        this.env = env;
+    }
+
+    private final Env env;
+
+    private boolean closed = false;
+
+    private boolean collecting = false;
+
+    private EventBinding<?> activeBinding;
+
+    private final Map<SourceSection, Payload> payloadMap = new ConcurrentHashMap<>();
+
+    /**
+     * Regex root nodes may call each other, e.g. when all matches of an expression are searched in
+     * a single call. Time is only measured in the outermost regex root node on the stack.
+     */
+    private final ThreadLocal<long[]> timerState = new ThreadLocal<long[]>() {
+        @Override
+        protected long[] initialValue() {
+            // depth, start time
+            return new long[2];
+        }
+    };
+
+    /**
+     * Finds {@link RegexProfiler} associated with given engine.
+     *
+     * @param engine the engine to find the profiler for
+     * @return an instance of associated {@link RegexProfiler}
+     * @since 21.1
+     */
+    public static RegexProfiler find(Engine engine) {
+        return RegexProfilerInstrument.getProfiler(engine);
+    }
+
+    /**
+     * Controls whether the profiler is collecting data or not.
+     *
+     * @param collecting the new state of the profiler.
+     * @since 21.1
+     */
+    public synchronized void setCollecting(boolean collecting) {
+        if (closed) {
+            throw new ProfilerException("RegexProfiler is already closed.");
+        }
+        if (this.collecting != collecting) {
+            this.collecting = collecting;
+            resetProfiler();
+        }
+    }
+
+    /**
+     * @return whether or not the profiler is currently collecting data.
+     * @since 21.1
+     */
+    public synchronized boolean isCollecting() {
+        return collecting;
+    }
+
+    /**
+     * @return All the payloads the profiler has gathered as an unmodifiable collection
+     * @since 21.1
+     */
+    public Collection<Payload> getPayloads() {
+        return Collections.unmodifiableCollection(payloadMap.values());
+    }
+
+    /**
+     * Erases all the data gathered by the profiler.
+     *
+     * @since 21.1
+     */
+    public void clearData() {
+        payloadMap.clear();
+    }
+
+    private Payload getPayload(EventContext context) {
+        SourceSection sourceSection = context.getInstrumentedSourceSection();
+        return payloadMap.computeIfAbsent(sourceSection, new Function<SourceSection, Payload>() {
+            @Override
+            public Payload apply(SourceSection section) {
+                return new Payload(section);
+            }
+        });
+    }
+
+    private synchronized void resetProfiler() {
+        assert Thread.holdsLock(this);
+        if (activeBinding != null) {
+            activeBinding.dispose();
+            activeBinding = null;
+        }
+        if (!collecting || closed) {
+            return;
+        }
+        this.activeBinding = env.getInstrumenter().attachExecutionEventFactory(FILTER, new ExecutionEventNodeFactory() {
+            @Override
+            public ExecutionEventNode create(EventContext context) {
+                Payload payload = getPayload(context);
+                Object nodeObject = context.getNodeObject();
+                if (nodeObject != null && InteropLibrary.getUncached().isMemberReadable(nodeObject, Payload.PROP_EXECUTOR)) {
+                    payload.nodeObject = nodeObject;
+                    return new SearchNode(RegexProfiler.this, payload);
+                }
+                return new TimerNode(RegexProfiler.this, payload);
+            }
+        });
+    }
+
+    @TruffleBoundary
+    void enter() {
+        long[] state = timerState.get();
+        if (state[0]++ == 0) {
+            state[1] = System.nanoTime();
+        }
+    }
+
+    @TruffleBoundary
+    void exit(Payload payload) {
+        long[] state = timerState.get();
+        if (--state[0] == 0) {
+            payload.time.add(System.nanoTime() - state[1]);
+        }
+    }
+
+    /**
+     * Closes the profiler for further use, deleting all the gathered data.
+     *
+     * @since 21.1
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        clearData();
+    }
+
+    /**
+     * Holds the data gathered for one regular expression.
+     *
+     * @since 21.1
+     */
+    public static final class Payload {
+
+        static final String PROP_EXECUTOR = "executor";
+        private static final String PROP_DFA_BAILOUT_REASON = "dfaBailoutReason";
+        private static final String PROP_DFA_SIZE = "dfaSize";
+        private static final String PROP_COMPILATION_TIME = "compilationTime";
+
+        private final SourceSection sourceSection;
+        private volatile Object nodeObject;
+
+        // searches of the same regular expression may run on several threads at once
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder matches = new LongAdder();
+        private final LongAdder searchRangeCharacters = new LongAdder();
+        private final LongAdder time = new LongAdder();
+
+        Payload(SourceSection sourceSection) {
+            this.sourceSection = sourceSection;
+        }
+
+        /**
+         * @return The regular expression in the form {@code /pattern/flags}.
+         * @since 21.1
+         */
+        public String getRegex() {
+            return sourceSection.getCharacters().toString();
+        }
+
+        /**
+         * @return The source section of the regular expression.
+         * @since 21.1
+         */
+        public SourceSection getSourceSection() {
+            return sourceSection;
+        }
+
+        /**
+         * @return The kind of executor TRegex currently uses for searching the regular expression,
+         *         e.g. {@code "TRegex lazy DFA"} or {@code "TRegex backtracker"}, or {@code null}
+         *         if the expression was not searched for yet.
+         * @since 21.1
+         */
+        public String getExecutor() {
+            Object value = readNodeObject(PROP_EXECUTOR);
+            return value instanceof String ? (String) value : null;
+        }
+
+        /**
+         * @return The reason why TRegex could not generate a DFA for the regular expression, or
+         *         {@code null} if there is none.
+         * @since 21.1
+         */
+        public String getDFABailoutReason() {
+            Object value = readNodeObject(PROP_DFA_BAILOUT_REASON);
+            return value instanceof String ? (String) value : null;
+        }
+
+        /**
+         * @return The number of states of the regular expression's forward search DFA, or
+         *         {@code -1} if no DFA was generated.
+         * @since 21.1
+         */
+        public int getDFASize() {
+            Object value = readNodeObject(PROP_DFA_SIZE);
+            return value instanceof Number ? ((Number) value).intValue() : -1;
+        }
+
+        /**
+         * @return The time spent compiling the regular expression, in nanoseconds, or {@code -1}
+         *         if unknown.
+         * @since 21.1
+         */
+        public long getCompilationTime() {
+            Object value = readNodeObject(PROP_COMPILATION_TIME);
+            return value instanceof Number ? ((Number) value).longValue() : -1;
+        }
+
+        /**
+         * @return The number of searches executed for the regular expression.
+         * @since 21.1
+         */
+        public long getCalls() {
+            return calls.sum();
+        }
+
+        /**
+         * @return The number of searches that found a match.
+         * @since 21.1
+         */
+        public long getMatches() {
+            return matches.sum();
+        }
+
+        /**
+         * @return The total number of characters between the start index and the end of the input
+         *         of all searches. This is an upper bound of the number of characters the searches
+         *         actually read: searches stop at the end of the first match, and the index at
+         *         which a search stops is not known without computing the match's capture groups,
+         *         which the profiler must not trigger.
+         * @since 21.1
+         */
+        public long getSearchRangeCharacters() {
+            return searchRangeCharacters.sum();
+        }
+
+        /**
+         * @return The time spent executing the regular expression, in nanoseconds.
+         * @since 21.1
+         */
+        public long getTime() {
+            return time.sum();
+        }
+
+        @TruffleBoundary
+        void addCall(long characters) {
+            calls.increment();
+            if (characters > 0) {
+                searchRangeCharacters.add(characters);
+            }
+        }
+
+        @TruffleBoundary
+        void addMatch() {
+            matches.increment();
+        }
+
+        private Object readNodeObject(String member) {
+            Object obj = nodeObject;
+            if (obj == null) {
+                return null;
+            }
+            InteropLibrary interop = InteropLibrary.getUncached();
+            try {
+                Object value = interop.readMember(obj, member);
+                if (interop.isString(value)) {
+                    return interop.asString(value);
+                } else if (interop.fitsInLong(value)) {
+                    return interop.asLong(value);
+                }
+                return null;
+            } catch (InteropException e) {
+                return null;
+            }
+        }
+    }
+
+    private static class TimerNode extends ExecutionEventNode {
+
+        protected final RegexProfiler profiler;
+        protected final Payload payload;
+
+        TimerNode(RegexProfiler profiler, Payload payload) {
+            this.profiler = profiler;
+            this.payload = payload;
+        }
+
+        @Override
+        protected void onEnter(VirtualFrame frame) {
+            profiler.enter();
+        }
+
+        @Override
+        protected void onReturnValue(VirtualFrame frame, Object result) {
+            profiler.exit(payload);
+        }
+
+        @Override
+        protected void onReturnExceptional(VirtualFrame frame, Throwable exception) {
+            profiler.exit(payload);
+        }
+
+        @Override
+        public NodeCost getCost() {
+            return NodeCost.NONE;
+        }
+    }
+
+    /**
+     * Instruments the root of a regex search, which is called with the arguments
+     * {@code (input, fromIndex)} and returns a result object with an {@code isMatch} member. Bulk
+     * operations call it with an additional buffer argument, and it returns a boolean instead.
+     */
+    private static final class SearchNode extends TimerNode {
+
+        private static final String PROP_IS_MATCH = "isMatch";
+
+        @Child private InteropLibrary inputs = InteropLibrary.getFactory().createDispatched(3);
+        @Child private InteropLibrary results = InteropLibrary.getFactory().createDispatched(3);
+
+        SearchNode(RegexProfiler profiler, Payload payload) {
+            super(profiler, payload);
+        }
+
+        @Override
+        protected void onEnter(VirtualFrame frame) {
+            super.onEnter(frame);
+            Object[] args = frame.getArguments();
+            long characters = 0;
+            if (args.length >= 2 && args[1] instanceof Integer) {
+                long inputLength = inputLength(args[0]);
+                if (inputLength >= 0) {
+                    characters = inputLength - (int) args[1];
+                }
+            }
+            payload.addCall(characters);
+        }
+
+        private long inputLength(Object input) {
+            if (input instanceof String) {
+                return ((String) input).length();
+            } else if (input instanceof byte[]) {
+                return ((byte[]) input).length;
+            }
+            try {
+                return inputs.getArraySize(input);
+            } catch (InteropException e) {
+                return -1;
+            }
+        }
+
+        @Override
+        protected void onReturnValue(VirtualFrame frame, Object result) {
+            super.onReturnValue(frame, result);
+            try {
+                if (result instanceof Boolean ? (boolean) result : results.asBoolean(results.readMember(result, PROP_IS_MATCH))) {
+                    payload.addMatch();
+                }
+            } catch (InteropException e) {
+                // not a regex result, ignore
+            }
+        }
+    }
+
+    static {
+        RegexProfilerInstrument.setFactory(new ProfilerToolFactory<RegexProfiler>() {
+            @Override
+            public RegexProfiler create(Env env) {
+                return new RegexProfiler(env);
+            }
+        });
+    }
+}
+
+class RegexProfilerSnippets {
+
+    @SuppressWarnings("unused")
+    public void example() {
+        // @formatter:off
+        // BEGIN: RegexProfilerSnippets#example
+        Context context = Context.create();
+        RegexProfiler profiler = RegexProfiler.find(context.getEngine());
+        profiler.setCollecting(true);
+        context.eval("...", "...");
+        profiler.setCollecting(false);
+        // Read information about the executed regular expressions.
+        for (RegexProfiler.Payload p : profiler.getPayloads()) {
+            final String regex = p.getRegex();
+            final String executor = p.getExecutor();
+            final long time = p.getTime();
+        }
+        profiler.close();
+        // END: RegexProfilerSnippets#example
+        // @formatter:on
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.tools.profiler.impl;
+
+import com.oracle.truffle.api.Option;
+import com.oracle.truffle.api.instrumentation.TruffleInstrument;
+import com.oracle.truffle.tools.profiler.RegexProfiler;
+import com.oracle.truffle.tools.utils.json.JSONArray;
+import com.oracle.truffle.tools.utils.json.JSONObject;
+import org.graalvm.options.OptionCategory;
+import org.graalvm.options.OptionKey;
+import org.graalvm.options.OptionStability;
+import org.graalvm.options.OptionType;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+@Option.Group(RegexProfilerInstrument.ID)
+class RegexProfilerCLI extends ProfilerCLI {
+
+    enum Output {
+        HISTOGRAM,
+        JSON,
+    }
+
+    static final OptionType<Output> CLI_OUTPUT_TYPE = new OptionType<>("Output",
+                    new Function<String, Output>() {
+                        @Override
+                        public Output apply(String s) {
+                            try {
+                                return Output.valueOf(s.toUpperCase());
+                            } catch (IllegalArgumentException e) {
+                                throw new IllegalArgumentException("Output can be: histogram or json");
+                            }
+                        }
+                    });
+
+    @Option(name = "", help = "Enable the regex profiler (default: false).", category = OptionCategory.USER, stability = OptionStability.EXPERIMENTAL) //
+    static final OptionKey<Boolean> ENABLED = new OptionKey<>(false);
+
+    @Option(name = "Output", help = "Print a 'histogram' or 'json' as output (default:HISTOGRAM).", category = OptionCategory.USER, stability = OptionStability.EXPERIMENTAL) //
+    static final OptionKey<Output> OUTPUT = new OptionKey<>(Output.HISTOGRAM, CLI_OUTPUT_TYPE);
+
+    @Option(name = "OutputFile", help = "Save output to the given file. Output is printed to output stream by default.", category = OptionCategory.USER, stability = OptionStability.EXPERIMENTAL) //
+    static final OptionKey<String> OUTPUT_FILE = new OptionKey<>("");
+
+    public static void handleOutput(TruffleInstrument.Env env, RegexProfiler profiler) {
+        try (PrintStream out = chooseOutputStream(env, OUTPUT_FILE)) {
+            switch (env.getOptions().get(OUTPUT)) {
+                case HISTOGRAM:
+                    printProfilerHistogram(out, profiler);
+                    break;
+                case JSON:
+                    printProfilerJson(out, profiler);
+                    break;
+            }
+        }
+    }
+
+    private static List<RegexProfiler.Payload> sortedPayloads(RegexProfiler profiler) {
+        List<RegexProfiler.Payload> payloads = new ArrayList<>(profiler.getPayloads());
+        payloads.sort(new Comparator<RegexProfiler.Payload>() {
+            @Override
+            public int compare(RegexProfiler.Payload o1, RegexProfiler.Payload o2) {
+                return Long.compare(o2.getTime(), o1.getTime());
+            }
+        });
+        return payloads;
+    }
+
+    private static void printProfilerJson(PrintStream out, RegexProfiler profiler) {
+        JSONObject output = new JSONObject();
+        output.put("tool", RegexProfilerInstrument.ID);
+        output.put("version", RegexProfilerInstrument.VERSION);
+        JSONArray profile = new JSONArray();
+        for (RegexProfiler.Payload payload : sortedPayloads(profiler)) {
+            JSONObject entry = new JSONObject();
+            entry.put("regex", payload.getRegex());
+            entry.put("executor", payload.getExecutor());
+            entry.put("dfa_bailout_reason", payload.getDFABailoutReason());
+            entry.put("dfa_size", payload.getDFASize());
+            entry.put("compilation_time", payload.getCompilationTime());
+            entry.put("calls", payload.getCalls());
+            entry.put("matches", payload.getMatches());
+            entry.put("search_range_characters", payload.getSearchRangeCharacters());
+            entry.put("time", payload.getTime());
+            profile.put(entry);
+        }
+        output.put("profile", profile);
+        out.println(output.toString());
+    }
+
+    static void printProfilerHistogram(PrintStream out, RegexProfiler profiler) {
+        List<RegexProfiler.Payload> payloads = sortedPayloads(profiler);
+        int length = computeNameLength(payloads, 50);
+        String format = " %-" + length + "s | %18s | %16s | %16s | %18s | %10s | %10s | %-20s | %s";
+        String title = String.format(format, "Regex", "Time", "Calls", "Matches", "Search Range", "Compile", "DFA Size", "Executor", "DFA Bailout Reason");
+        String sep = repeat("-", title.length());
+        long totalTime = 0;
+        for (RegexProfiler.Payload payload : payloads) {
+            totalTime += payload.getTime();
+        }
+
+        out.println(sep);
+        out.println(String.format("Regex Histogram. Recorded a total of %d ms in %d regular expressions.", totalTime / 1_000_000, payloads.size()));
+        out.println("  Time: Time spent searching and extracting capture groups, and percentage of total time.");
+        out.println("  Calls: Number of searches.");
+        out.println("  Matches: Number of searches that found a match and percentage of searches.");
+        out.println("  Searched Chars: Characters between the start index and the end of the input, summed over all searches.");
+        out.println("  Compile: Time spent compiling the expression in ms, including lazily generated DFAs.");
+        out.println("  DFA Size: Number of states of the forward search DFA.");
+        out.println("  Executor: Kind of executor currently used for searching.");
+        out.println(sep);
+
+        out.println(title);
+        out.println(sep);
+        for (RegexProfiler.Payload payload : payloads) {
+            String time = String.format("%dms %5.1f%%", payload.getTime() / 1_000_000, totalTime == 0 ? 0.0 : (double) payload.getTime() * 100 / totalTime);
+            String matches = String.format("%d %5.1f%%", payload.getMatches(), payload.getCalls() == 0 ? 0.0 : (double) payload.getMatches() * 100 / payload.getCalls());
+            String compile = payload.getCompilationTime() < 0 ? "-" : String.format("%dms", payload.getCompilationTime() / 1_000_000);
+            String dfaSize = payload.getDFASize() < 0 ? "-" : Integer.toString(payload.getDFASize());
+            String executor = payload.getExecutor() == null ? "-" : payload.getExecutor();
+            String bailoutReason = payload.getDFABailoutReason() == null ? "" : payload.getDFABailoutReason();
+            out.println(String.format(format, truncate(payload.getRegex(), length), time, payload.getCalls(), matches, payload.getSearchRangeCharacters(), compile, dfaSize, executor, bailoutReason));
+        }
+        out.println(sep);
+    }
+
+    private static String truncate(String s, int length) {
+        return s.length() <= length ? s : s.substring(0, length - 3) + "...";
+    }
+
+    private static int computeNameLength(Collection<RegexProfiler.Payload> payloads, int limit) {
+        int maxLength = 6;
+        for (RegexProfiler.Payload payload : payloads) {
+            maxLength = Math.max(payload.getRegex().length() + 2, maxLength);
+            maxLength = Math.min(maxLength, limit);
+        }
+        return maxLength;
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.tools.profiler.impl;
+
+import org.graalvm.options.OptionDescriptors;
+import org.graalvm.polyglot.Engine;
+import org.graalvm.polyglot.Instrument;
+
+import com.oracle.truffle.api.instrumentation.TruffleInstrument;
+import com.oracle.truffle.tools.profiler.RegexProfiler;
+
+/**
+ * The {@linkplain TruffleInstrument instrument} for the regex profiler.
+ *
+ * @since 21.1
+ */
+@TruffleInstrument.Registration(id = RegexProfilerInstrument.ID, name = "Regex Profiler", version = RegexProfilerInstrument.VERSION, services = {RegexProfiler.class})
+public class RegexProfilerInstrument extends TruffleInstrument {
+
+    /**
+     * Default constructor.
+     *
+     * @since 21.1
+     */
+    public RegexProfilerInstrument() {
+    }
+
+    /**
+     * A string used to identify the profiler, i.e. as the name of the tool.
+     *
+     * @since 21.1
+     */
+    public static final String ID = "regexprofiler";
+
+    static final String VERSION = "0.1.0";
+    private boolean enabled;
+    private RegexProfiler profiler;
+    private static ProfilerToolFactory<RegexProfiler> factory;
+
+    /**
+     * Sets the factory which instantiates the {@link RegexProfiler}.
+     *
+     * @param factory the factory which instantiates the {@link RegexProfiler}.
+     * @since 21.1
+     */
+    public static void setFactory(ProfilerToolFactory<RegexProfiler> factory) {
+        if (factory == null || !factory.getClass().getName().startsWith("com.oracle.truffle.tools.profiler")) {
+            throw new IllegalArgumentException("Wrong factory: " + factory);
+        }
+        RegexProfilerInstrument.factory = factory;
+    }
+
+    static {
+        // Be sure that the factory is initialized:
+        try {
+            Class.forName(RegexProfiler.class.getName(), true, RegexProfiler.class.getClassLoader());
+        } catch (ClassNotFoundException ex) {
+            // Can not happen
+            throw new AssertionError();
+        }
+    }
+
+    /**
+     * Does a lookup in the runtime instruments of the engine and returns an instance of the
+     * {@link RegexProfiler}.
+     *
+     * @since 21.1
+     */
+    public static RegexProfiler getProfiler(Engine engine) {
+        Instrument instrument = engine.getInstruments().get(ID);
+        if (instrument == null) {
+            throw new IllegalStateException("Regex profiler is not installed.");
+        }
+        return instrument.lookup(RegexProfiler.class);
+    }
+
+    /**
+     * Called to create the Instrument.
+     *
+     * @param env environment information for the instrument
+     * @since 21.1
+     */
+    @Override
+    protected void onCreate(Env env) {
+        profiler = factory.create(env);
+        enabled = env.getOptions().get(RegexProfilerCLI.ENABLED);
+        if (enabled) {
+            profiler.setCollecting(true);
+        }
+        env.registerService(profiler);
+    }
+
+    /**
+     * @return A list of the options provided by the {@link RegexProfiler}.
+     * @since 21.1
+     */
+    @Override
+    protected OptionDescriptors getOptionDescriptors() {
+        return new RegexProfilerCLIOptionDescriptors();
+    }
+
+    /**
+     * Called when the Instrument is to be disposed.
+     *
+     * @param env environment information for the instrument
+     * @since 21.1
+     */
+    @Override
+    protected void onDispose(Env env) {
+        if (enabled) {
+            RegexProfilerCLI.handleOutput(env, profiler);
+            profiler.close();
+        }
+    }
+}
@@ -45,6 +45,7 @@ import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import com.oracle.truffle.api.TruffleFile;
@@ -53,6 +54,7 @@ import com.oracle.truffle.api.test.OSUtils;
 import com.oracle.truffle.api.test.polyglot.TruffleFileTest.DuplicateMimeTypeLanguage1.Language1Detector;
 import com.oracle.truffle.api.test.polyglot.TruffleFileTest.DuplicateMimeTypeLanguage2.Language2Detector;
 import com.oracle.truffle.api.test.polyglot.FileSystemsTest.ForwardingFileSystem;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.Array;
@@ -64,6 +66,11 @@ import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.lang.reflect.TypeVariable;
 import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
 import java.nio.channels.SeekableByteChannel;
 import java.nio.charset.Charset;
 import java.nio.file.AccessMode;
@@ -78,6 +85,7 @@ import java.nio.file.NoSuchFileException;
 import java.nio.file.OpenOption;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.nio.file.attribute.FileAttribute;
 import java.nio.file.attribute.FileTime;
@@ -618,6 +626,67 @@ public class TruffleFileTest extends AbstractPolyglotTest {
         assertEquals(res.getName(), new String(res.readAllBytes()).trim());
     }
 
+    @Test
+    public void testNewByteChannelFileChannel() throws IOException {
+        setupEnv(Context.newBuilder().allowIO(true).build());
+        Path tmp = Files.createTempFile(TruffleFileTest.class.getSimpleName(), "");
+        try {
+            TruffleFile file = languageEnv.getPublicTruffleFile(tmp.toString());
+            try (SeekableByteChannel channel = file.newByteChannel(new HashSet<>(Arrays.asList(StandardOpenOption.READ, StandardOpenOption.WRITE)))) {
+                assertTrue(channel instanceof FileChannel);
+                FileChannel fileChannel = (FileChannel) channel;
+                ByteBuffer[] sources = {ByteBuffer.wrap("abc".getBytes(UTF_8)), ByteBuffer.wrap("defg".getBytes(UTF_8))};
+                assertEquals(7, fileChannel.write(sources, 0, sources.length));
+                assertEquals(7, fileChannel.size());
+                assertSame(fileChannel, fileChannel.position(1));
+
+                ByteBuffer[] targets = {ByteBuffer.allocate(2), ByteBuffer.allocate(10)};
+                assertEquals(6, fileChannel.read(targets, 0, targets.length));
+                assertEquals("bc", new String(targets[0].array(), 0, 2, UTF_8));
+                assertEquals("defg", new String(targets[1].array(), 0, 4, UTF_8));
+
+                MappedByteBuffer mapping = fileChannel.map(FileChannel.MapMode.READ_ONLY, 2, 3);
+                byte[] mapped = new byte[3];
+                mapping.get(mapped);
+                assertEquals("cde", new String(mapped, UTF_8));
+
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                assertEquals(4, fileChannel.transferTo(3, 4, Channels.newChannel(out)));
+                assertEquals("defg", new String(out.toByteArray(), UTF_8));
+
+                try (FileLock lock = fileChannel.lock()) {
+                    assertSame(fileChannel, lock.channel());
+                    assertFalse(lock.isShared());
+                    assertTrue(lock.isValid());
+                    lock.release();
+                    assertFalse(lock.isValid());
+                }
+                try (FileLock lock = fileChannel.tryLock(0, 4, false)) {
+                    assertSame(fileChannel, lock.channel());
+                    assertEquals(4, lock.size());
+                }
+
+                assertSame(fileChannel, fileChannel.truncate(3));
+                assertEquals(3, fileChannel.size());
+            }
+            assertEquals("abc", new String(Files.readAllBytes(tmp), UTF_8));
+        } finally {
+            Files.delete(tmp);
+        }
+    }
+
+    @Test
+    public void testNewByteChannelCustomFileSystem() throws IOException {
+        setupEnv(Context.newBuilder().allowIO(true).fileSystem(new MemoryFileSystem()).build());
+        TruffleFile file = languageEnv.getPublicTruffleFile("/file");
+        try (SeekableByteChannel channel = file.newByteChannel(new HashSet<>(Arrays.asList(StandardOpenOption.CREATE, StandardOpenOption.WRITE)))) {
+            // A channel that the file system does not open as a FileChannel is not exposed as one.
+            assertFalse(channel instanceof FileChannel);
+            assertEquals(3, channel.write(ByteBuffer.wrap("abc".getBytes(UTF_8))));
+        }
+        assertEquals("abc", new String(file.readAllBytes(), UTF_8));
+    }
+
     private static void delete(Path path) throws IOException {
         if (Files.isDirectory(path)) {
             try (DirectoryStream<Path> dir = Files.newDirectoryStream(path)) {
@@ -50,8 +50,13 @@ import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.net.URI;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.AccessMode;
@@ -778,6 +783,9 @@ public final class TruffleFile {
 
     /**
      * Opens or creates a file returning a {@link SeekableByteChannel} to access the file content.
+     * If the {@link FileSystem} opens the file as a {@link FileChannel}, the returned channel is a
+     * {@link FileChannel} too, which supports scattering and gathering transfers and memory
+     * mapping.
      *
      * @param options the options specifying how the file should be opened
      * @param attributes the optional attributes to set atomically when creating the new file
@@ -2233,10 +2241,130 @@ public final class TruffleFile {
 
         static SeekableByteChannel create(final SeekableByteChannel delegate) {
             Objects.requireNonNull(delegate, "Delegate must be non null.");
+            if (delegate instanceof FileChannel) {
+                return new FileChannelDecorator((FileChannel) delegate);
+            }
             return new ByteChannelDecorator(delegate);
         }
     }
 
+    private static final class FileChannelDecorator extends FileChannel {
+
+        private final FileChannel delegate;
+
+        FileChannelDecorator(final FileChannel delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            return delegate.read(dst);
+        }
+
+        @Override
+        public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+            return delegate.read(dsts, offset, length);
+        }
+
+        @Override
+        public int read(ByteBuffer dst, long position) throws IOException {
+            return delegate.read(dst, position);
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            return delegate.write(src);
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+            return delegate.write(srcs, offset, length);
+        }
+
+        @Override
+        public int write(ByteBuffer src, long position) throws IOException {
+            return delegate.write(src, position);
+        }
+
+        @Override
+        public long position() throws IOException {
+            return delegate.position();
+        }
+
+        @Override
+        public FileChannel position(long newPosition) throws IOException {
+            delegate.position(newPosition);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return delegate.size();
+        }
+
+        @Override
+        public FileChannel truncate(long size) throws IOException {
+            delegate.truncate(size);
+            return this;
+        }
+
+        @Override
+        public void force(boolean metaData) throws IOException {
+            delegate.force(metaData);
+        }
+
+        @Override
+        public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+            return delegate.transferTo(position, count, target);
+        }
+
+        @Override
+        public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+            return delegate.transferFrom(src, position, count);
+        }
+
+        @Override
+        public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+            return delegate.map(mode, position, size);
+        }
+
+        @Override
+        public FileLock lock(long position, long size, boolean shared) throws IOException {
+            return new FileLockDecorator(this, delegate.lock(position, size, shared));
+        }
+
+        @Override
+        public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+            FileLock lock = delegate.tryLock(position, size, shared);
+            return lock == null ? null : new FileLockDecorator(this, lock);
+        }
+
+        @Override
+        protected void implCloseChannel() throws IOException {
+            delegate.close();
+        }
+    }
+
+    private static final class FileLockDecorator extends FileLock {
+
+        private final FileLock delegate;
+
+        FileLockDecorator(final FileChannelDecorator channel, final FileLock delegate) {
+            super(channel, delegate.position(), delegate.size(), delegate.isShared());
+            this.delegate = delegate;
+        }
+
+        @Override
+        public boolean isValid() {
+            return delegate.isValid();
+        }
+
+        @Override
+        public void release() throws IOException {
+            delegate.release();
+        }
+    }
+
     private static final class TruffleFileDirectoryStream implements DirectoryStream<TruffleFile> {
 
         private final TruffleFile directory;
@@ -396,7 +396,8 @@ class EmscriptenBuildTask(GraalWasmBuildTask):
                 elif filename.endswith(".wat"):
                     # Step 1: compile the .wat file to .wasm.
                     wat2wasm_cmd = os.path.join(wabt_dir, "wat2wasm")
-                    build_cmd_line = [wat2wasm_cmd, "-o", output_wasm_path, source_path]
+                    # The benchmarks may use the SIMD and threads proposals.
+                    build_cmd_line = [wat2wasm_cmd, "--enable-simd", "--enable-threads", "-o", output_wasm_path, source_path]
                     if mx.run(build_cmd_line, nonZeroIsFatal=False) != 0:
                         mx.abort("Could not translate " + filename + " to binary format.")
                 elif filename.endswith(".wasm"):
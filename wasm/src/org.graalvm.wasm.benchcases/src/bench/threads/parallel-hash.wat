@@ -0,0 +1,98 @@
+;;
+;; Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+;; DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+;;
+;; The Universal Permissive License (UPL), Version 1.0
+;;
+;; Subject to the condition set forth below, permission is hereby granted to any
+;; person obtaining a copy of this software, associated documentation and/or
+;; data (collectively the "Software"), free of charge and under any and all
+;; copyright rights in the Software, and any and all patent rights owned or
+;; freely licensable by each licensor hereunder covering either (i) the
+;; unmodified Software as contributed to or provided by such licensor, or (ii)
+;; the Larger Works (as defined below), to deal in both
+;;
+;; (a) the Software, and
+;;
+;; (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+;; one is included with the Software each a "Larger Work" to which the Software
+;; is contributed by such licensors),
+;;
+;; without restriction, including without limitation the rights to copy, create
+;; derivative works of, display, perform, and distribute the Software and make,
+;; use, sell, offer for sale, import, export, have made, and have sold the
+;; Software and the Larger Work(s), and to sublicense the foregoing rights on
+;; either these or other terms.
+;;
+;; This license is subject to the following condition:
+;;
+;; The above copyright notice and either this complete permission notice or at a
+;; minimum a reference to the UPL must be included in all copies or substantial
+;; portions of the Software.
+;;
+;; THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+;; IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+;; FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+;; AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+;; LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+;; OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+;; SOFTWARE.
+;;
+;; Counts the odd hashes of the integers below 2^22, where each worker hashes every
+;; `workers`-th integer and adds its count to a shared counter.
+(module
+  (type $t0 (func))
+  (type $t1 (func (param i32)))
+  (type $t2 (func (result i32)))
+  (type $t3 (func (param i32 i32)))
+  (memory $memory (export "memory") 1 1 shared)
+  (func $benchmarkSetupOnce (export "benchmarkSetupOnce") (type $t0))
+  (func $benchmarkSetupEach (export "benchmarkSetupEach") (type $t0)
+    i32.const 0
+    i32.const 0
+    i32.atomic.store)
+  (func $benchmarkTeardownEach (export "benchmarkTeardownEach") (type $t1) (param $p0 i32))
+  (func $benchmarkWorker (export "benchmarkWorker") (type $t3) (param $worker i32) (param $workers i32)
+    (local $i i32) (local $x i32) (local $count i32)
+    local.get $worker
+    local.set $i
+    block $B0
+      loop $L1
+        local.get $i
+        i32.const 4194304
+        i32.ge_u
+        br_if $B0
+        local.get $i
+        i32.const 0x9E3779B1
+        i32.mul
+        local.tee $x
+        local.get $x
+        i32.const 15
+        i32.shr_u
+        i32.xor
+        i32.const 0x85EBCA77
+        i32.mul
+        local.tee $x
+        local.get $x
+        i32.const 13
+        i32.shr_u
+        i32.xor
+        i32.const 1
+        i32.and
+        local.get $count
+        i32.add
+        local.set $count
+        local.get $i
+        local.get $workers
+        i32.add
+        local.set $i
+        br $L1
+      end
+    end
+    i32.const 0
+    local.get $count
+    i32.atomic.rmw.add
+    drop)
+  (func $benchmarkRun (export "benchmarkRun") (type $t2) (result i32)
+    i32.const 0
+    i32.atomic.load))
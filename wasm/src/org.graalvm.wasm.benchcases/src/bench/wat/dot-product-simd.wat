@@ -0,0 +1,129 @@
+;;
+;; Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+;; DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+;;
+;; The Universal Permissive License (UPL), Version 1.0
+;;
+;; Subject to the condition set forth below, permission is hereby granted to any
+;; person obtaining a copy of this software, associated documentation and/or
+;; data (collectively the "Software"), free of charge and under any and all
+;; copyright rights in the Software, and any and all patent rights owned or
+;; freely licensable by each licensor hereunder covering either (i) the
+;; unmodified Software as contributed to or provided by such licensor, or (ii)
+;; the Larger Works (as defined below), to deal in both
+;;
+;; (a) the Software, and
+;;
+;; (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+;; one is included with the Software each a "Larger Work" to which the Software
+;; is contributed by such licensors),
+;;
+;; without restriction, including without limitation the rights to copy, create
+;; derivative works of, display, perform, and distribute the Software and make,
+;; use, sell, offer for sale, import, export, have made, and have sold the
+;; Software and the Larger Work(s), and to sublicense the foregoing rights on
+;; either these or other terms.
+;;
+;; This license is subject to the following condition:
+;;
+;; The above copyright notice and either this complete permission notice or at a
+;; minimum a reference to the UPL must be included in all copies or substantial
+;; portions of the Software.
+;;
+;; THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+;; IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+;; FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+;; AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+;; LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+;; OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+;; SOFTWARE.
+;;
+;; Dot product of two i16 arrays, computed eight elements at a time with i32x4.dot_i16x8_s. The
+;; result is the same as the one of dot-product-scalar.wat.
+(module
+  (type $t0 (func))
+  (type $t1 (func (param i32)))
+  (type $t2 (func (result i32)))
+  (memory $memory (export "memory") 1)
+  (func $benchmarkSetupOnce (export "benchmarkSetupOnce") (type $t0))
+  (func $benchmarkSetupEach (export "benchmarkSetupEach") (type $t0)
+    (local $i i32)
+    ;; Fill two arrays of 16384 i16 values, the first one at address 0 and the second one at
+    ;; address 32768.
+    loop $L0
+      local.get $i
+      i32.const 1
+      i32.shl
+      local.get $i
+      i32.const 7
+      i32.mul
+      i32.const 255
+      i32.and
+      i32.const 128
+      i32.sub
+      i32.store16
+      local.get $i
+      i32.const 1
+      i32.shl
+      local.get $i
+      i32.const 3
+      i32.mul
+      i32.const 127
+      i32.and
+      i32.store16 offset=32768
+      local.get $i
+      i32.const 1
+      i32.add
+      local.tee $i
+      i32.const 16384
+      i32.lt_u
+      br_if $L0
+    end)
+  (func $benchmarkTeardownEach (export "benchmarkTeardownEach") (type $t1) (param $p0 i32))
+  (func $dot (result i32)
+    (local $i i32) (local $acc v128)
+    loop $L0
+      local.get $acc
+      local.get $i
+      v128.load
+      local.get $i
+      v128.load offset=32768
+      i32x4.dot_i16x8_s
+      i32x4.add
+      local.set $acc
+      local.get $i
+      i32.const 16
+      i32.add
+      local.tee $i
+      i32.const 32768
+      i32.lt_u
+      br_if $L0
+    end
+    ;; Add the four lanes of the accumulator.
+    local.get $acc
+    i32x4.extract_lane 0
+    local.get $acc
+    i32x4.extract_lane 1
+    i32.add
+    local.get $acc
+    i32x4.extract_lane 2
+    i32.add
+    local.get $acc
+    i32x4.extract_lane 3
+    i32.add)
+  (func $benchmarkRun (export "benchmarkRun") (type $t2) (result i32)
+    (local $n i32) (local $sum i32)
+    loop $L0
+      local.get $sum
+      call $dot
+      i32.add
+      local.set $sum
+      local.get $n
+      i32.const 1
+      i32.add
+      local.tee $n
+      i32.const 64
+      i32.lt_u
+      br_if $L0
+    end
+    local.get $sum))
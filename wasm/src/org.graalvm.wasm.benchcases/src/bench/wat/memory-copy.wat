@@ -0,0 +1,94 @@
+;;
+;; Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+;; DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+;;
+;; The Universal Permissive License (UPL), Version 1.0
+;;
+;; Subject to the condition set forth below, permission is hereby granted to any
+;; person obtaining a copy of this software, associated documentation and/or
+;; data (collectively the "Software"), free of charge and under any and all
+;; copyright rights in the Software, and any and all patent rights owned or
+;; freely licensable by each licensor hereunder covering either (i) the
+;; unmodified Software as contributed to or provided by such licensor, or (ii)
+;; the Larger Works (as defined below), to deal in both
+;;
+;; (a) the Software, and
+;;
+;; (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+;; one is included with the Software each a "Larger Work" to which the Software
+;; is contributed by such licensors),
+;;
+;; without restriction, including without limitation the rights to copy, create
+;; derivative works of, display, perform, and distribute the Software and make,
+;; use, sell, offer for sale, import, export, have made, and have sold the
+;; Software and the Larger Work(s), and to sublicense the foregoing rights on
+;; either these or other terms.
+;;
+;; This license is subject to the following condition:
+;;
+;; The above copyright notice and either this complete permission notice or at a
+;; minimum a reference to the UPL must be included in all copies or substantial
+;; portions of the Software.
+;;
+;; THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+;; IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+;; FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+;; AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+;; LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+;; OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+;; SOFTWARE.
+;;
+(module
+  (type $t0 (func))
+  (type $t1 (func (param i32)))
+  (type $t2 (func (result i32)))
+  (memory $memory (export "memory") 16)
+  (data $pattern "\01\02\03\04\05\06\07\08")
+  (func $benchmarkSetupOnce (export "benchmarkSetupOnce") (type $t0))
+  (func $benchmarkSetupEach (export "benchmarkSetupEach") (type $t0)
+    i32.const 0
+    i32.const 0
+    i32.const 1048576
+    memory.fill)
+  (func $benchmarkTeardownEach (export "benchmarkTeardownEach") (type $t1) (param $p0 i32))
+  (func $benchmarkRun (export "benchmarkRun") (type $t2) (result i32)
+    (local $i i32) (local $sum i32)
+    loop $L0
+      ;; Fill the lower half of the memory, and copy it to the upper half.
+      i32.const 0
+      local.get $i
+      i32.const 524288
+      memory.fill
+      i32.const 524288
+      i32.const 0
+      i32.const 524288
+      memory.copy
+      local.get $sum
+      local.get $i
+      i32.const 524288
+      i32.add
+      i32.load8_u
+      i32.add
+      local.set $sum
+      ;; Shift the lower half of the memory by one byte, with overlapping regions.
+      i32.const 1
+      i32.const 0
+      i32.const 524287
+      memory.copy
+      local.get $i
+      i32.const 1
+      i32.add
+      local.tee $i
+      i32.const 64
+      i32.lt_u
+      br_if $L0
+    end
+    ;; Initialize a small region from the passive data segment.
+    i32.const 1048568
+    i32.const 0
+    i32.const 8
+    memory.init $pattern
+    local.get $sum
+    i32.const 1048575
+    i32.load8_u
+    i32.add))
@@ -0,0 +1,143 @@
+;;
+;; Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+;; DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+;;
+;; The Universal Permissive License (UPL), Version 1.0
+;;
+;; Subject to the condition set forth below, permission is hereby granted to any
+;; person obtaining a copy of this software, associated documentation and/or
+;; data (collectively the "Software"), free of charge and under any and all
+;; copyright rights in the Software, and any and all patent rights owned or
+;; freely licensable by each licensor hereunder covering either (i) the
+;; unmodified Software as contributed to or provided by such licensor, or (ii)
+;; the Larger Works (as defined below), to deal in both
+;;
+;; (a) the Software, and
+;;
+;; (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+;; one is included with the Software each a "Larger Work" to which the Software
+;; is contributed by such licensors),
+;;
+;; without restriction, including without limitation the rights to copy, create
+;; derivative works of, display, perform, and distribute the Software and make,
+;; use, sell, offer for sale, import, export, have made, and have sold the
+;; Software and the Larger Work(s), and to sublicense the foregoing rights on
+;; either these or other terms.
+;;
+;; This license is subject to the following condition:
+;;
+;; The above copyright notice and either this complete permission notice or at a
+;; minimum a reference to the UPL must be included in all copies or substantial
+;; portions of the Software.
+;;
+;; THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+;; IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+;; FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+;; AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+;; LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+;; OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+;; SOFTWARE.
+(module
+  (type $t0 (func))
+  (type $t1 (func (param i32)))
+  (type $t2 (func (result i32)))
+  (type $t3 (func (param i32 i32 i32 i32 i32 i64 i64 i32 i32) (result i32)))
+  (type $t4 (func (param i32 i32 i32 i32) (result i32)))
+  (type $t5 (func (param i32 i64 i32 i32) (result i32)))
+  (type $t6 (func (param i32) (result i32)))
+  (import "wasi_snapshot_preview1" "path_open" (func $path_open (type $t3)))
+  (import "wasi_snapshot_preview1" "fd_write" (func $fd_write (type $t4)))
+  (import "wasi_snapshot_preview1" "fd_read" (func $fd_read (type $t4)))
+  (import "wasi_snapshot_preview1" "fd_seek" (func $fd_seek (type $t5)))
+  (import "wasi_snapshot_preview1" "fd_close" (func $fd_close (type $t6)))
+  ;; Page 0 holds the file name, the iovecs and the results of the Wasi calls. Pages 1 to 16
+  ;; hold the 1 MiB buffer that is written and read.
+  (memory $memory (export "memory") 17)
+  (data (i32.const 0) "io.bin")
+  ;; Four iovecs of 256 KiB that cover the buffer.
+  (data (i32.const 16) "\00\00\01\00\00\00\04\00\00\00\05\00\00\00\04\00\00\00\09\00\00\00\04\00\00\00\0d\00\00\00\04\00")
+  (func $benchmarkSetupOnce (export "benchmarkSetupOnce") (type $t0)
+    (local $address i32)
+    ;; Fill the buffer with a non-zero pattern.
+    i32.const 65536
+    local.set $address
+    loop $L0
+      local.get $address
+      local.get $address
+      i32.store
+      local.get $address
+      i32.const 4
+      i32.add
+      local.tee $address
+      i32.const 1114112
+      i32.lt_u
+      br_if $L0
+    end)
+  (func $benchmarkSetupEach (export "benchmarkSetupEach") (type $t0))
+  (func $benchmarkTeardownEach (export "benchmarkTeardownEach") (type $t1) (param $p0 i32))
+  (func $check (type $t1) (param $errno i32)
+    local.get $errno
+    if
+      unreachable
+    end)
+  (func $benchmarkRun (export "benchmarkRun") (type $t2) (result i32)
+    (local $fd i32) (local $i i32) (local $total i32)
+    ;; Open io.bin in the pre-opened directory 3 with the rights to read, write and seek, creating
+    ;; or truncating it.
+    i32.const 3
+    i32.const 0
+    i32.const 0
+    i32.const 6
+    i32.const 9
+    i64.const 0x46
+    i64.const 0
+    i32.const 0
+    i32.const 64
+    call $path_open
+    call $check
+    i32.const 64
+    i32.load
+    local.set $fd
+    ;; Write the buffer 16 times.
+    loop $L0
+      local.get $fd
+      i32.const 16
+      i32.const 4
+      i32.const 72
+      call $fd_write
+      call $check
+      local.get $i
+      i32.const 1
+      i32.add
+      local.tee $i
+      i32.const 16
+      i32.lt_u
+      br_if $L0
+    end
+    local.get $fd
+    i64.const 0
+    i32.const 0
+    i32.const 80
+    call $fd_seek
+    call $check
+    ;; Read the file back into the buffer until the end of the file.
+    loop $L1
+      local.get $fd
+      i32.const 16
+      i32.const 4
+      i32.const 72
+      call $fd_read
+      call $check
+      local.get $total
+      i32.const 72
+      i32.load
+      i32.add
+      local.set $total
+      i32.const 72
+      i32.load
+      br_if $L1
+    end
+    local.get $fd
+    call $fd_close
+    call $check
+    local.get $total))
@@ -41,6 +41,7 @@
 package org.graalvm.wasm.benchmark;
 
 import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Engine;
 import org.graalvm.wasm.utils.WasmResource;
 import org.graalvm.wasm.utils.cases.WasmCase;
 
@@ -83,6 +84,12 @@ import static org.graalvm.wasm.utils.cases.WasmCase.collectFileCase;
  * </pre>
  *
  * <p>
+ * With {@code --shared-engine} after the iteration counts, all the contexts are created from the
+ * same engine, so the iterations after the first one only measure the per-context state of the
+ * modules, and not their parsed code, which the engine shares.
+ * </p>
+ *
+ * <p>
  * This class is used by the <code>memory</code> mx benchmark suite, runnable with
  * <code>mx --dy /compiler benchmark memory -- --jvm=server --jvm-config=graal-core</code>. The
  * suite is defined in <code>MemoryBenchmarkSuite</code> in <code>mx_benchmark.py</code>.
@@ -101,17 +108,23 @@ public class MemoryFootprintBenchmarkRunner {
         }
 
         if (args.length < 5 || !args[0].equals("--warmup-iterations") || !args[2].equals("--result-iterations")) {
-            System.err.println("Usage: --warmup-iterations <n> --result-iterations <n> <case_spec>...");
+            System.err.println("Usage: --warmup-iterations <n> --result-iterations <n> [--shared-engine] <case_spec>...");
         }
 
         final int warmup_iterations = Integer.parseInt(args[1]);
         final int result_iterations = Integer.parseInt(args[3]);
+        final boolean sharedEngine = args[4].equals("--shared-engine");
+        final int firstCaseSpec = sharedEngine ? 5 : 4;
 
-        for (final String caseSpec : Arrays.copyOfRange(args, 4, args.length)) {
+        for (final String caseSpec : Arrays.copyOfRange(args, firstCaseSpec, args.length)) {
             final WasmCase benchmarkCase = collectFileCase(BENCHCASES_TYPE, BENCHCASES_RESOURCE, caseSpec);
             assert benchmarkCase != null : String.format("Test case %s/%s not found.", BENCHCASES_RESOURCE, caseSpec);
 
+            final Engine engine = sharedEngine ? Engine.create() : null;
             final Context.Builder contextBuilder = Context.newBuilder("wasm");
+            if (engine != null) {
+                contextBuilder.engine(engine);
+            }
 
             final List<Double> results = new ArrayList<>();
 
@@ -135,6 +148,10 @@ public class MemoryFootprintBenchmarkRunner {
                 context.close();
             }
 
+            if (engine != null) {
+                engine.close();
+            }
+
             Collections.sort(results);
 
             System.out.format("%s: median: %.3f MB%n", caseSpec, median(results));
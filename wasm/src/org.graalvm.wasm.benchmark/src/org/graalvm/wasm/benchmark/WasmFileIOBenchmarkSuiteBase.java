@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.graalvm.wasm.benchmark;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Value;
+import org.graalvm.wasm.utils.cases.WasmCase;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * This benchmark base class measures the run function of the given test case with a temporary
+ * directory pre-opened as Wasi file descriptor 3, with the byte array-based and the unsafe memory
+ * (see `wasm.UseUnsafeMemory`), and with and without memory-mapped reads (see
+ * `wasm.WasiMappedReadThreshold`). It is meant for test cases that write and read files through
+ * Wasi.
+ */
+@Warmup(iterations = 4)
+@Measurement(iterations = 8)
+@Fork(1)
+@State(Scope.Benchmark)
+public abstract class WasmFileIOBenchmarkSuiteBase {
+    public abstract static class WasmFileIOBenchmarkState {
+        @Param({"false", "true"}) public boolean useUnsafeMemory;
+        @Param({"0", "65536"}) public int mappedReadThreshold;
+
+        private Path directory;
+        private Context context;
+        private WasmCase benchmarkCase;
+        private Value benchmarkRun;
+
+        abstract protected String benchmarkResource();
+
+        @Setup(Level.Trial)
+        public void setup() throws IOException, InterruptedException {
+            directory = Files.createTempDirectory("wasm-file-io");
+            final Context.Builder contextBuilder = Context.newBuilder("wasm");
+            contextBuilder.option("wasm.Builtins", "testutil,env:emscripten,wasi_snapshot_preview1");
+            contextBuilder.option("wasm.WasiMapDirs", directory.toString());
+            contextBuilder.allowExperimentalOptions(true);
+            contextBuilder.option("wasm.UseUnsafeMemory", String.valueOf(useUnsafeMemory));
+            contextBuilder.option("wasm.WasiMappedReadThreshold", String.valueOf(mappedReadThreshold));
+            contextBuilder.allowIO(true);
+            context = contextBuilder.build();
+            benchmarkCase = WasmCase.loadBenchmarkCase(benchmarkResource());
+            benchmarkCase.getSources().forEach(context::eval);
+            // See WasmBenchmarkSuiteBase for why the module is called main.
+            final Value benchmarkModule = context.getBindings("wasm").getMember("main");
+            benchmarkModule.getMember("benchmarkSetupOnce").execute();
+            benchmarkRun = benchmarkModule.getMember("benchmarkRun");
+        }
+
+        @TearDown(Level.Trial)
+        public void teardown() {
+            context.close();
+            context = null;
+            final File[] files = directory.toFile().listFiles();
+            if (files != null) {
+                for (File file : files) {
+                    file.delete();
+                }
+            }
+            directory.toFile().delete();
+        }
+
+        public void run() {
+            final Value result = benchmarkRun.execute();
+            WasmCase.validateResult(benchmarkCase.data().resultValidator(), result, new ByteArrayOutputStream());
+        }
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.graalvm.wasm.benchmark;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Value;
+import org.graalvm.wasm.utils.Assert;
+import org.graalvm.wasm.utils.cases.WasmCase;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * This benchmark base class measures how the given test case scales with the number of threads
+ * that execute it in the same context. Besides the usual benchmark functions, the test case must
+ * export a {@code benchmarkWorker(worker, workers)} function, which does the part of the work of
+ * one worker, and communicates with the other workers through a shared memory. The result of
+ * {@code benchmarkRun} is validated after all the workers are done.
+ */
+@Warmup(iterations = 6)
+@Measurement(iterations = 8)
+@Fork(1)
+@State(Scope.Benchmark)
+public abstract class WasmThreadsBenchmarkSuiteBase {
+    public abstract static class WasmThreadsBenchmarkState {
+        @Param({"1", "2", "4", "8"}) public int threads;
+
+        private WasmCase benchmarkCase;
+        private Context context;
+        private ExecutorService executor;
+        private Value benchmarkSetupEach;
+        private Value benchmarkTeardownEach;
+        private Value benchmarkWorker;
+        private Value benchmarkRun;
+        private Value result;
+
+        /**
+         * Benchmarks must not be validated via their standard out, unlike tests.
+         */
+        private ByteArrayOutputStream dummyStdout = new ByteArrayOutputStream();
+
+        abstract protected String benchmarkResource();
+
+        @Setup(Level.Trial)
+        public void setup() throws IOException, InterruptedException {
+            final Context.Builder contextBuilder = Context.newBuilder("wasm");
+            contextBuilder.option("wasm.Builtins", "testutil,env:emscripten,wasi_snapshot_preview1");
+            contextBuilder.allowExperimentalOptions(true);
+            contextBuilder.option("wasm.Threads", "true");
+            context = contextBuilder.build();
+            benchmarkCase = WasmCase.loadBenchmarkCase(benchmarkResource());
+            System.out.println("...::: Benchmark " + benchmarkCase.name() + " :::...");
+            benchmarkCase.getSources().forEach(context::eval);
+
+            Value benchmarkModule = context.getBindings("wasm").getMember("main");
+            Value benchmarkSetupOnce = benchmarkModule.getMember("benchmarkSetupOnce");
+            benchmarkSetupEach = benchmarkModule.getMember("benchmarkSetupEach");
+            benchmarkTeardownEach = benchmarkModule.getMember("benchmarkTeardownEach");
+            benchmarkWorker = benchmarkModule.getMember("benchmarkWorker");
+            benchmarkRun = benchmarkModule.getMember("benchmarkRun");
+            Assert.assertNotNull(String.format("No benchmarkWorker method in %s.", benchmarkCase.name()), benchmarkWorker);
+            Assert.assertNotNull(String.format("No benchmarkRun method in %s.", benchmarkCase.name()), benchmarkRun);
+
+            if (benchmarkSetupOnce != null) {
+                benchmarkSetupOnce.execute();
+            }
+            executor = Executors.newFixedThreadPool(threads);
+        }
+
+        @TearDown(Level.Trial)
+        public void teardown() {
+            executor.shutdown();
+            context.close();
+        }
+
+        @Setup(Level.Iteration)
+        public void setupIteration() {
+            // Reset result.
+            result = null;
+        }
+
+        @TearDown(Level.Iteration)
+        public void teardownIteration() {
+            // Validate result.
+            WasmCase.validateResult(benchmarkCase.data().resultValidator(), result, dummyStdout);
+        }
+
+        @Setup(Level.Invocation)
+        public void setupInvocation() {
+            benchmarkSetupEach.execute();
+        }
+
+        @TearDown(Level.Invocation)
+        public void teardownInvocation() {
+            benchmarkTeardownEach.execute(0);
+        }
+
+        public void run() throws InterruptedException, ExecutionException {
+            final List<Callable<Value>> workers = new ArrayList<>(threads);
+            for (int i = 0; i < threads; i++) {
+                final int worker = i;
+                workers.add(() -> benchmarkWorker.execute(worker, threads));
+            }
+            for (Future<Value> future : executor.invokeAll(workers)) {
+                future.get();
+            }
+            this.result = benchmarkRun.execute();
+        }
+    }
+}
@@ -289,6 +289,12 @@ public abstract class WasmFileSuite extends AbstractWasmSuite {
             }
 
             contextBuilder.option("wasm.Builtins", includedExternalModules());
+            for (String name : testCase.options().stringPropertyNames()) {
+                // Options such as wasm.Threads are passed to the context.
+                if (name.startsWith("wasm.")) {
+                    contextBuilder.option(name, testCase.options().getProperty(name));
+                }
+            }
             final String commandLineArgs = testCase.options().getProperty("command-line-args");
             if (commandLineArgs != null) {
                 // The first argument is the program name. We set it to the empty string in tests.
@@ -79,8 +79,10 @@ public class WasmLateLinkingSuite {
         final ByteSequence binaryMain = ByteSequence.create(compileWat("file1", textWithImportFunExportFun));
         final Source sourceAux = Source.newBuilder("wasm", binaryAux, "m1").build();
         final Source sourceMain = Source.newBuilder("wasm", binaryMain, "m2").build();
-        context.parse(sourceMain); // main
-        context.parse(sourceAux); // m1
+        // Parsed modules are shared by the contexts of an engine, and only evaluating a module
+        // instantiates it in the context.
+        context.eval(sourceMain); // main
+        context.eval(sourceAux); // m1
         final Value g = context.getBindings("wasm").getMember("main").getMember("g");
         Assert.assertEquals(42, g.execute().asInt());
     }
@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.graalvm.wasm.test;
+
+import static org.graalvm.wasm.utils.WasmBinaryTools.compileWat;
+
+import java.io.IOException;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Engine;
+import org.graalvm.polyglot.PolyglotException;
+import org.graalvm.polyglot.Source;
+import org.graalvm.polyglot.Value;
+import org.graalvm.polyglot.io.ByteSequence;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class WasmLazyFunctionParsingSuite {
+    private static final String CALLS_TEXT = "(func $fib (export \"fib\") (param i32) (result i32)" +
+                    "  (if (result i32) (i32.lt_s (local.get 0) (i32.const 2))" +
+                    "    (then (local.get 0))" +
+                    "    (else (i32.add (call $fib (i32.sub (local.get 0) (i32.const 1))) (call $fib (i32.sub (local.get 0) (i32.const 2)))))))" +
+                    "(func $isEven (export \"isEven\") (param i32) (result i32)" +
+                    "  (if (result i32) (i32.eqz (local.get 0)) (then (i32.const 1)) (else (call $isOdd (i32.sub (local.get 0) (i32.const 1))))))" +
+                    "(func $isOdd (param i32) (result i32)" +
+                    "  (if (result i32) (i32.eqz (local.get 0)) (then (i32.const 0)) (else (call $isEven (i32.sub (local.get 0) (i32.const 1))))))" +
+                    "(func (export \"sum\") (param i32) (result i32) (local i32)" +
+                    "  (block $done (loop $next" +
+                    "    (br_if $done (i32.eqz (local.get 0)))" +
+                    "    (local.set 1 (i32.add (local.get 1) (local.get 0)))" +
+                    "    (local.set 0 (i32.sub (local.get 0) (i32.const 1)))" +
+                    "    (br $next)))" +
+                    "  (local.get 1))";
+
+    private static final String INDIRECT_CALLS_TEXT = "(type $unary (func (param i32) (result i32)))" +
+                    "(table 2 funcref)" +
+                    "(elem (i32.const 0) $double $square)" +
+                    "(func $double (param i32) (result i32) (i32.mul (local.get 0) (i32.const 2)))" +
+                    "(func $square (param i32) (result i32) (i32.mul (local.get 0) (local.get 0)))" +
+                    "(func (export \"apply\") (param i32 i32) (result i32) (call_indirect (type $unary) (local.get 1) (local.get 0)))";
+
+    // The body of "invalid" leaves an i64 on the stack of a function that returns an i32.
+    private static final String INVALID_BODY_TEXT = "(func (export \"valid\") (result i32) (i32.const 42))" +
+                    "(func (export \"invalid\") (result i32) (i64.const 1))" +
+                    "(func (export \"callsInvalid\") (result i32) (i32.add (i32.const 1) (call 1)))";
+    private static final String INVALID_BODY_MESSAGE = "Expected type i32 but got i64";
+
+    @Test
+    public void testResultsMatchEagerParsing() throws IOException, InterruptedException {
+        final Source source = source("calls", CALLS_TEXT);
+        for (boolean lazy : new boolean[]{false, true}) {
+            try (Context context = contextBuilder(lazy).build()) {
+                final Value instance = context.eval(source);
+                Assert.assertEquals("lazy = " + lazy, 55, instance.getMember("fib").execute(10).asInt());
+                Assert.assertEquals("lazy = " + lazy, 1, instance.getMember("isEven").execute(10).asInt());
+                Assert.assertEquals("lazy = " + lazy, 0, instance.getMember("isEven").execute(7).asInt());
+                Assert.assertEquals("lazy = " + lazy, 5050, instance.getMember("sum").execute(100).asInt());
+            }
+        }
+    }
+
+    @Test
+    public void testIndirectCalls() throws IOException, InterruptedException {
+        final Source source = source("indirect", INDIRECT_CALLS_TEXT);
+        for (boolean lazy : new boolean[]{false, true}) {
+            try (Context context = contextBuilder(lazy).build()) {
+                final Value apply = context.eval(source).getMember("apply");
+                Assert.assertEquals("lazy = " + lazy, 14, apply.execute(0, 7).asInt());
+                Assert.assertEquals("lazy = " + lazy, 49, apply.execute(1, 7).asInt());
+            }
+        }
+    }
+
+    @Test
+    public void testInvalidBodyFailsInstantiationWithEagerParsing() throws IOException, InterruptedException {
+        final Source source = source("invalid", INVALID_BODY_TEXT);
+        try (Context context = contextBuilder(false).build()) {
+            try {
+                context.eval(source).getMember("valid").execute();
+                Assert.fail("Should have failed - the body of 'invalid' does not validate.");
+            } catch (PolyglotException e) {
+                Assert.assertFalse(e.getMessage(), e.isInternalError());
+                Assert.assertTrue(e.getMessage(), e.getMessage().contains(INVALID_BODY_MESSAGE));
+            }
+        }
+    }
+
+    @Test
+    public void testInvalidBodyFailsOnFirstCall() throws IOException, InterruptedException {
+        final Source source = source("invalid", INVALID_BODY_TEXT);
+        try (Context context = contextBuilder(true).build()) {
+            final Value instance = context.eval(source);
+            Assert.assertEquals(42, instance.getMember("valid").execute().asInt());
+            final String message = assertFails(instance.getMember("invalid"));
+            // The body stays undecoded, so that every call reports the same error.
+            Assert.assertEquals(message, assertFails(instance.getMember("invalid")));
+            Assert.assertEquals(message, assertFails(instance.getMember("callsInvalid")));
+            Assert.assertEquals(42, instance.getMember("valid").execute().asInt());
+        }
+    }
+
+    @Test
+    public void testSharedEngine() throws IOException, InterruptedException {
+        final Source source = source("calls", CALLS_TEXT);
+        try (Engine engine = Engine.newBuilder().allowExperimentalOptions(true).option("wasm.LazyFunctionParsing", "true").build()) {
+            try (Context first = Context.newBuilder("wasm").engine(engine).build(); Context second = Context.newBuilder("wasm").engine(engine).build()) {
+                // The body of "fib" is decoded in the first context and reused by the second one.
+                Assert.assertEquals(55, first.eval(source).getMember("fib").execute(10).asInt());
+                final Value secondInstance = second.eval(source);
+                Assert.assertEquals(55, secondInstance.getMember("fib").execute(10).asInt());
+                Assert.assertEquals(5050, secondInstance.getMember("sum").execute(100).asInt());
+            }
+        }
+    }
+
+    private static String assertFails(Value function) {
+        try {
+            function.execute();
+            Assert.fail("Should have failed - the body of 'invalid' does not validate.");
+            return null;
+        } catch (PolyglotException e) {
+            Assert.assertFalse(e.getMessage(), e.isInternalError());
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains(INVALID_BODY_MESSAGE));
+            return e.getMessage();
+        }
+    }
+
+    private static Context.Builder contextBuilder(boolean lazyFunctionParsing) {
+        return Context.newBuilder("wasm").allowExperimentalOptions(true).option("wasm.LazyFunctionParsing", String.valueOf(lazyFunctionParsing));
+    }
+
+    private static Source source(String name, String text) throws IOException, InterruptedException {
+        return Source.newBuilder("wasm", ByteSequence.create(compileWat(name, text)), name).build();
+    }
+}
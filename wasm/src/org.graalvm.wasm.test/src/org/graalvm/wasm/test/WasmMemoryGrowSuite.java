@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.graalvm.wasm.test;
+
+import static org.graalvm.wasm.utils.WasmBinaryTools.compileWat;
+
+import java.io.IOException;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Engine;
+import org.graalvm.polyglot.Source;
+import org.graalvm.polyglot.Value;
+import org.graalvm.polyglot.io.ByteSequence;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class WasmMemoryGrowSuite {
+    private static final int MAX_PAGES = 512;
+
+    // "grow" grows the memory one page at a time, and counts the pages that are not preserved or
+    // not zeroed after each step.
+    private static final String GROW_TEXT = "(memory (export \"memory\") 1 " + MAX_PAGES + ")" +
+                    "(func (export \"grow\") (param $n i32) (result i32) (local $page i32) (local $errors i32)" +
+                    "  (i32.store (i32.const 4) (i32.const 0x12345678))" +
+                    "  (block $done (loop $next" +
+                    "    (br_if $done (i32.eqz (local.get $n)))" +
+                    "    (local.set $page (memory.grow (i32.const 1)))" +
+                    "    (br_if $done (i32.eq (local.get $page) (i32.const -1)))" +
+                    "    (if (i32.load (i32.shl (local.get $page) (i32.const 16)))" +
+                    "      (then (local.set $errors (i32.add (local.get $errors) (i32.const 1)))))" +
+                    "    (i32.store (i32.shl (local.get $page) (i32.const 16)) (local.get $page))" +
+                    "    (if (i32.ne (i32.load (i32.shl (i32.sub (local.get $page) (i32.const 1)) (i32.const 16))) (i32.sub (local.get $page) (i32.const 1)))" +
+                    "      (then (local.set $errors (i32.add (local.get $errors) (i32.const 1)))))" +
+                    "    (if (i32.ne (i32.load (i32.const 4)) (i32.const 0x12345678))" +
+                    "      (then (local.set $errors (i32.add (local.get $errors) (i32.const 1)))))" +
+                    "    (local.set $n (i32.sub (local.get $n) (i32.const 1)))" +
+                    "    (br $next)))" +
+                    "  (local.get $errors))" +
+                    "(func (export \"size\") (result i32) (memory.size))";
+
+    @Test
+    public void testGrowInLoop() throws IOException, InterruptedException {
+        testGrowInLoop(false);
+        testGrowInLoop(true);
+    }
+
+    @Test
+    public void testGrowBetweenCalls() throws IOException, InterruptedException {
+        testGrowBetweenCalls(false);
+        testGrowBetweenCalls(true);
+    }
+
+    @Test
+    public void testFullReservation() throws IOException, InterruptedException {
+        // A reservation of the maximum size, which the memory never leaves.
+        try (Engine engine = engine(true, 0); Context context = Context.newBuilder("wasm").engine(engine).build()) {
+            final Value instance = context.eval(source());
+            Assert.assertEquals(0, instance.getMember("grow").execute(MAX_PAGES).asInt());
+            Assert.assertEquals(MAX_PAGES, instance.getMember("size").execute().asInt());
+        }
+    }
+
+    private static void testGrowInLoop(boolean useUnsafeMemory) throws IOException, InterruptedException {
+        final Source source = source();
+        try (Engine engine = engine(useUnsafeMemory)) {
+            // Every context starts with a new memory, which the code compiled for the previous
+            // contexts moves while it grows.
+            for (int i = 0; i < 8; i++) {
+                try (Context context = Context.newBuilder("wasm").engine(engine).build()) {
+                    final Value instance = context.eval(source);
+                    Assert.assertEquals(0, instance.getMember("grow").execute(MAX_PAGES).asInt());
+                    Assert.assertEquals(MAX_PAGES, instance.getMember("size").execute().asInt());
+                }
+            }
+        }
+    }
+
+    private static void testGrowBetweenCalls(boolean useUnsafeMemory) throws IOException, InterruptedException {
+        try (Engine engine = engine(useUnsafeMemory); Context context = Context.newBuilder("wasm").engine(engine).build()) {
+            final Value instance = context.eval(source());
+            final Value grow = instance.getMember("grow");
+            for (int i = 1; i < MAX_PAGES; i++) {
+                Assert.assertEquals(0, grow.execute(1).asInt());
+                Assert.assertEquals(i + 1, instance.getMember("size").execute().asInt());
+            }
+            Assert.assertEquals(0, grow.execute(1).asInt());
+            Assert.assertEquals(MAX_PAGES, instance.getMember("size").execute().asInt());
+        }
+    }
+
+    private static Engine engine(boolean useUnsafeMemory) {
+        // Reserve a single page, so that an unsafe memory is moved repeatedly while it grows.
+        return engine(useUnsafeMemory, 1);
+    }
+
+    private static Engine engine(boolean useUnsafeMemory, int reservationSize) {
+        return Engine.newBuilder().allowExperimentalOptions(true).option("wasm.UseUnsafeMemory", String.valueOf(useUnsafeMemory)).option("wasm.UnsafeMemoryReservationSize",
+                        String.valueOf(reservationSize)).build();
+    }
+
+    private static Source source() throws IOException, InterruptedException {
+        return Source.newBuilder("wasm", ByteSequence.create(compileWat("grow", GROW_TEXT)), "grow").build();
+    }
+}
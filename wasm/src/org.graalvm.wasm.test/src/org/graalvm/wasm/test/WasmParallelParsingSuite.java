@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.graalvm.wasm.test;
+
+import static org.graalvm.wasm.utils.WasmBinaryTools.compileWat;
+
+import java.io.IOException;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.PolyglotException;
+import org.graalvm.polyglot.Source;
+import org.graalvm.polyglot.Value;
+import org.graalvm.polyglot.io.ByteSequence;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class WasmParallelParsingSuite {
+    private static final int NUM_FUNCTIONS = 64;
+    private static final String[] PARSING_THREADS = {"1", "2", "4", "0"};
+
+    /**
+     * Function {@code f<i>} returns {@code i} plus the result of {@code f<i-1>}, so that every entry
+     * has a direct call to an entry that may be decoded by another thread.
+     */
+    private static String chainText(int invalidEntry1, int invalidEntry2) {
+        StringBuilder text = new StringBuilder();
+        text.append("(func $f0 (result i32) (i32.const 0))");
+        for (int i = 1; i < NUM_FUNCTIONS; i++) {
+            if (i == invalidEntry1) {
+                text.append("(func $f").append(i).append(" (result i32) (i64.const 1))");
+            } else if (i == invalidEntry2) {
+                text.append("(func $f").append(i).append(" (result i32) (f32.const 1))");
+            } else {
+                text.append("(func $f").append(i).append(" (result i32) (i32.add (i32.const ").append(i).append(") (call $f").append(i - 1).append(")))");
+            }
+        }
+        text.append("(export \"last\" (func $f").append(NUM_FUNCTIONS - 1).append("))");
+        return text.toString();
+    }
+
+    @Test
+    public void testResultsMatchSequentialParsing() throws IOException, InterruptedException {
+        final Source source = source("chain", chainText(-1, -1));
+        for (String parsingThreads : PARSING_THREADS) {
+            try (Context context = contextBuilder(parsingThreads).build()) {
+                final Value last = context.eval(source).getMember("last");
+                Assert.assertEquals("parsing threads = " + parsingThreads, NUM_FUNCTIONS * (NUM_FUNCTIONS - 1) / 2, last.execute().asInt());
+            }
+        }
+    }
+
+    @Test
+    public void testFirstInvalidEntryIsReported() throws IOException, InterruptedException {
+        final Source source = source("invalid", chainText(NUM_FUNCTIONS / 2, NUM_FUNCTIONS / 4));
+        for (String parsingThreads : PARSING_THREADS) {
+            try (Context context = contextBuilder(parsingThreads).build()) {
+                context.eval(source).getMember("last").execute();
+                Assert.fail("Should have failed - two function bodies do not validate.");
+            } catch (PolyglotException e) {
+                Assert.assertFalse(e.getMessage(), e.isInternalError());
+                // The original exception is rethrown, and the entry that comes first in the code
+                // section wins.
+                Assert.assertTrue("parsing threads = " + parsingThreads + ": " + e.getMessage(), e.getMessage().contains("Expected type i32 but got f32"));
+            }
+        }
+    }
+
+    @Test
+    public void testParsingPoolIsReused() throws IOException, InterruptedException {
+        final Source source = source("chain", chainText(-1, -1));
+        try (Context context = contextBuilder("4").build()) {
+            for (int i = 0; i < 20; i++) {
+                final Source copy = Source.newBuilder("wasm", source.getBytes(), "chain" + i).build();
+                context.eval(copy);
+            }
+            long workers = Thread.getAllStackTraces().keySet().stream().filter(t -> t.getName().startsWith("wasm-parsing-worker")).count();
+            Assert.assertTrue("Too many parsing workers: " + workers, workers <= Runtime.getRuntime().availableProcessors());
+        }
+    }
+
+    private static Context.Builder contextBuilder(String parsingThreads) {
+        return Context.newBuilder("wasm").allowExperimentalOptions(true).option("wasm.ParsingThreads", parsingThreads);
+    }
+
+    private static Source source(String name, String text) throws IOException, InterruptedException {
+        return Source.newBuilder("wasm", ByteSequence.create(compileWat(name, text)), name).build();
+    }
+}
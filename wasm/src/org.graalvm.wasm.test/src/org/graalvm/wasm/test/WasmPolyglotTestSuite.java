@@ -42,16 +42,24 @@ package org.graalvm.wasm.test;
 
 import com.oracle.truffle.api.TruffleLanguage;
 import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Engine;
 import org.graalvm.polyglot.PolyglotException;
 import org.graalvm.polyglot.Source;
 import org.graalvm.polyglot.Value;
 import org.graalvm.polyglot.io.ByteSequence;
 import org.graalvm.wasm.WasmContext;
+import org.graalvm.wasm.WasmInstance;
 import org.graalvm.wasm.memory.UnsafeWasmMemory;
 import org.graalvm.wasm.utils.Assert;
 import org.junit.Test;
 
+import java.io.DataInputStream;
 import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 
 import static org.graalvm.wasm.test.WasmTestUtils.hexStringToByteArray;
 import static org.graalvm.wasm.utils.WasmBinaryTools.compileWat;
@@ -115,6 +123,132 @@ public class WasmPolyglotTestSuite {
         Assert.assertEquals("Should be equal: ", 11, result.asInt());
     }
 
+    @Test
+    public void sharedEngine() throws IOException {
+        final Source source = Source.newBuilder("wasm", ByteSequence.create(binaryIncrementGlobal), "inc").build();
+        try (Engine engine = Engine.create();
+                        Context context1 = Context.newBuilder("wasm").engine(engine).build();
+                        Context context2 = Context.newBuilder("wasm").engine(engine).build()) {
+            context1.eval(source);
+            context2.eval(source);
+            final Value increment1 = context1.getBindings("wasm").getMember("main").getMember("inc");
+            final Value increment2 = context2.getBindings("wasm").getMember("main").getMember("inc");
+            Assert.assertEquals("Should be equal: ", 1, increment1.execute().asInt());
+            Assert.assertEquals("Should be equal: ", 2, increment1.execute().asInt());
+            // The contexts share the code of the module, but not its globals.
+            Assert.assertEquals("Should be equal: ", 1, increment2.execute().asInt());
+        }
+    }
+
+    @Test
+    public void sharedEngineMainModule() throws IOException {
+        final Source incSource = Source.newBuilder("wasm", ByteSequence.create(binaryIncrementGlobal), "inc").build();
+        final Source constSource = Source.newBuilder("wasm", ByteSequence.create(binaryReturnConst), "const").build();
+        try (Engine engine = Engine.create();
+                        Context context1 = Context.newBuilder("wasm").engine(engine).build();
+                        Context context2 = Context.newBuilder("wasm").engine(engine).build()) {
+            context1.eval(incSource);
+            context1.eval(constSource);
+            context2.eval(constSource);
+            context2.eval(incSource);
+            // The first module evaluated in each context is its "main" module.
+            Assert.assertEquals("Should be equal: ", 1, context1.getBindings("wasm").getMember("main").getMember("inc").execute().asInt());
+            Assert.assertEquals("Should be equal: ", 42, context1.getBindings("wasm").getMember("const").getMember("main").execute().asInt());
+            Assert.assertEquals("Should be equal: ", 42, context2.getBindings("wasm").getMember("main").getMember("main").execute().asInt());
+            Assert.assertEquals("Should be equal: ", 1, context2.getBindings("wasm").getMember("inc").getMember("inc").execute().asInt());
+        }
+    }
+
+    @Test
+    public void instanceSnapshot() throws IOException {
+        final Source source = Source.newBuilder("wasm", ByteSequence.create(binaryStartFunction), "main").build();
+        try (Engine engine = Engine.create()) {
+            for (int i = 0; i < 2; i++) {
+                try (Context context = Context.newBuilder("wasm").engine(engine).allowExperimentalOptions(true).option("wasm.InstanceSnapshots", "true").build()) {
+                    context.enter();
+                    context.eval(source);
+                    final Value mainModule = context.getBindings("wasm").getMember("main");
+                    Assert.assertEquals("Should be equal: ", 12353, mainModule.getMember("get").execute().asInt());
+                    // The first instance runs the start function, and the second one is
+                    // initialized from the snapshot that was taken after it.
+                    final WasmInstance instance = WasmContext.getCurrent().moduleInstances().get("main");
+                    Assert.assertEquals("Snapshot usage: ", i != 0, instance.snapshot() != null);
+                    context.leave();
+                }
+            }
+        }
+    }
+
+    @Test
+    public void instanceSnapshotReactor() throws IOException, InterruptedException {
+        final Source source = Source.newBuilder("wasm", ByteSequence.create(compileWat("reactor", textReactor)), "main").build();
+        try (Engine engine = Engine.create()) {
+            for (int i = 0; i < 2; i++) {
+                try (Context context = Context.newBuilder("wasm").engine(engine).allowExperimentalOptions(true).option("wasm.InstanceSnapshots", "true").build()) {
+                    context.enter();
+                    context.eval(source);
+                    final Value mainModule = context.getBindings("wasm").getMember("main");
+                    // The _initialize function ran exactly once during instantiation, either
+                    // directly or in the instance from which the snapshot was taken.
+                    Assert.assertEquals("Should be equal: ", 41, mainModule.getMember("get").execute().asInt());
+                    final WasmInstance instance = WasmContext.getCurrent().moduleInstances().get("main");
+                    Assert.assertEquals("Snapshot usage: ", i != 0, instance.snapshot() != null);
+                    context.leave();
+                }
+            }
+        }
+    }
+
+    @Test
+    public void instanceSnapshotWithImports() throws IOException, InterruptedException {
+        final Source provider = Source.newBuilder("wasm", ByteSequence.create(compileWat("provider", textProvider)), "main").build();
+        final Source importer = Source.newBuilder("wasm", ByteSequence.create(compileWat("importer", textImporter)), "importer").build();
+        try (Engine engine = Engine.create()) {
+            for (int i = 0; i < 2; i++) {
+                try (Context context = Context.newBuilder("wasm").engine(engine).allowExperimentalOptions(true).option("wasm.InstanceSnapshots", "true").build()) {
+                    context.enter();
+                    context.eval(provider);
+                    context.eval(importer);
+                    final Value importerModule = context.getBindings("wasm").getMember("importer");
+                    Assert.assertEquals("Should be equal: ", 8, importerModule.getMember("get").execute().asInt());
+                    // The state of the importer depends on its imports, so it is never
+                    // initialized from a snapshot.
+                    final WasmInstance instance = WasmContext.getCurrent().moduleInstances().get("importer");
+                    Assert.assertTrue("Snapshot usage: ", instance.snapshot() == null && instance.module().snapshot() == null);
+                    context.leave();
+                }
+            }
+        }
+    }
+
+    @Test
+    public void pollSockets() throws IOException {
+        final int port;
+        try (ServerSocket freePort = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            port = freePort.getLocalPort();
+        }
+        final Source source = Source.newBuilder("wasm", ByteSequence.create(binaryPollSockets), "main").build();
+        try (Context context = Context.newBuilder("wasm").option("wasm.Builtins", "wasi_snapshot_preview1").allowExperimentalOptions(true).option("wasm.WasiTcpListen",
+                        "127.0.0.1:" + port).build()) {
+            context.eval(source);
+            final Value mainModule = context.getBindings("wasm").getMember("main");
+            // Without a pending connection, the clock subscription expires first.
+            Assert.assertEquals("Events: ", 1002, mainModule.getMember("pollTimeout").execute().asInt());
+            // The same instance serves several connections.
+            for (int i = 0; i < 2; i++) {
+                try (Socket client = new Socket(InetAddress.getLoopbackAddress(), port)) {
+                    Assert.assertEquals("Events: ", 1001, mainModule.getMember("pollTimeout").execute().asInt());
+                    final byte[] message = ("ping" + i).getBytes(StandardCharsets.UTF_8);
+                    client.getOutputStream().write(message);
+                    Assert.assertEquals("Echoed bytes: ", message.length, mainModule.getMember("echo").execute().asInt());
+                    final byte[] echo = new byte[message.length];
+                    new DataInputStream(client.getInputStream()).readFully(echo);
+                    Assert.assertTrue("Echo: ", Arrays.equals(message, echo));
+                }
+            }
+        }
+    }
+
     // (module
     // (type (;0;) (func))
     // (type (;1;) (func (result i32)))
@@ -140,6 +274,204 @@ public class WasmPolyglotTestSuite {
                     "74615f656e6403020a090202000b0400",
                     "412a0b");
 
+    // (module
+    // (type (;0;) (func (result i32)))
+    // (func (;0;) (type 0) (result i32)
+    // global.get 0
+    // i32.const 1
+    // i32.add
+    // global.set 0
+    // global.get 0)
+    // (func (;1;) (type 0) (result i32)
+    // call 0)
+    // (global (;0;) (mut i32) (i32.const 0))
+    // (export "inc" (func 1)))
+    private static final byte[] binaryIncrementGlobal = hexStringToByteArray(
+                    "0061736d010000000105016000017f03",
+                    "030200000606017f0141000b07070103",
+                    "696e6300010a12020b00230041016a24",
+                    "0023000b040010000b");
+
+    // (module
+    // (type (;0;) (func))
+    // (type (;1;) (func (result i32)))
+    // (func (;0;) (type 0)
+    // i32.const 100
+    // i32.const 12345
+    // i32.store
+    // global.get 0
+    // i32.const 7
+    // i32.add
+    // global.set 0)
+    // (func (;1;) (type 1) (result i32)
+    // i32.const 100
+    // i32.load
+    // global.get 0
+    // i32.add
+    // i32.const 104
+    // i32.load
+    // i32.add)
+    // (memory (;0;) 1)
+    // (global (;0;) (mut i32) (i32.const 0))
+    // (export "get" (func 1))
+    // (start 0)
+    // (data (;0;) (i32.const 104) "\01\00\00\00"))
+    private static final byte[] binaryStartFunction = hexStringToByteArray(
+                    "0061736d010000000108026000006000",
+                    "017f030302000105030100010606017f",
+                    "0141000b070701036765740001080100",
+                    "0a2802130041e40041b9e00036020023",
+                    "0041076a24000b120041e40028020023",
+                    "006a41e8002802006a0b0b0b010041e8",
+                    "000b0401000000");
+
+    // (module
+    // (type (;0;) (func (param i32 i32 i32 i32) (result i32)))
+    // (type (;1;) (func (param i32 i32 i32) (result i32)))
+    // (type (;2;) (func (param i32) (result i32)))
+    // (type (;3;) (func (result i32)))
+    // (type (;4;) (func (param i32)))
+    // (import "wasi_snapshot_preview1" "poll_oneoff" (func (;0;) (type 0)))
+    // (import "wasi_snapshot_preview1" "sock_accept" (func (;1;) (type 1)))
+    // (import "wasi_snapshot_preview1" "fd_read" (func (;2;) (type 0)))
+    // (import "wasi_snapshot_preview1" "fd_write" (func (;3;) (type 0)))
+    // (import "wasi_snapshot_preview1" "fd_close" (func (;4;) (type 2)))
+    // (func (;5;) (type 4) (param i32)
+    // local.get 0
+    // if
+    // unreachable
+    // end)
+    // (func (;6;) (type 3) (result i32)
+    // ;; Subscribe to the listening socket 3 being readable (userdata 1) and to a relative
+    // ;; monotonic clock of 10 ms (userdata 2), and return 1000 * nevents + userdata of the
+    // ;; first event.
+    // i32.const 0
+    // i64.const 1
+    // i64.store
+    // i32.const 8
+    // i32.const 1
+    // i32.store8
+    // i32.const 16
+    // i32.const 3
+    // i32.store
+    // i32.const 48
+    // i64.const 2
+    // i64.store
+    // i32.const 56
+    // i32.const 0
+    // i32.store8
+    // i32.const 64
+    // i32.const 1
+    // i32.store
+    // i32.const 72
+    // i64.const 10000000
+    // i64.store
+    // i32.const 0
+    // i32.const 128
+    // i32.const 2
+    // i32.const 200
+    // call 0
+    // call 5
+    // i32.const 200
+    // i32.load
+    // i32.const 1000
+    // i32.mul
+    // i32.const 128
+    // i64.load
+    // i32.wrap_i64
+    // i32.add)
+    // (func (;7;) (type 3) (result i32)
+    // (local i32 i32)
+    // ;; Accept a connection, wait until it is readable, read up to 64 bytes and write them
+    // ;; back, close the connection and return the number of bytes.
+    // i32.const 3
+    // i32.const 0
+    // i32.const 204
+    // call 1
+    // call 5
+    // i32.const 204
+    // i32.load
+    // local.set 0
+    // i32.const 0
+    // i64.const 3
+    // i64.store
+    // i32.const 8
+    // i32.const 1
+    // i32.store8
+    // i32.const 16
+    // local.get 0
+    // i32.store
+    // i32.const 0
+    // i32.const 128
+    // i32.const 1
+    // i32.const 200
+    // call 0
+    // call 5
+    // i32.const 216
+    // i32.const 256
+    // i32.store
+    // i32.const 220
+    // i32.const 64
+    // i32.store
+    // local.get 0
+    // i32.const 216
+    // i32.const 1
+    // i32.const 208
+    // call 2
+    // call 5
+    // i32.const 208
+    // i32.load
+    // local.set 1
+    // i32.const 220
+    // local.get 1
+    // i32.store
+    // local.get 0
+    // i32.const 216
+    // i32.const 1
+    // i32.const 208
+    // call 3
+    // call 5
+    // local.get 0
+    // call 4
+    // call 5
+    // local.get 1)
+    // (memory (;0;) 1)
+    // (export "memory" (memory 0))
+    // (export "pollTimeout" (func 6))
+    // (export "echo" (func 7)))
+    private static final byte[] binaryPollSockets = hexStringToByteArray(
+                    "0061736d01000000011d0560047f7f7f",
+                    "7f017f60037f7f7f017f60017f017f60",
+                    "00017f60017f0002b001051677617369",
+                    "5f736e617073686f745f707265766965",
+                    "77310b706f6c6c5f6f6e656f66660000",
+                    "16776173695f736e617073686f745f70",
+                    "726576696577310b736f636b5f616363",
+                    "657074000116776173695f736e617073",
+                    "686f745f70726576696577310766645f",
+                    "72656164000016776173695f736e6170",
+                    "73686f745f7072657669657731086664",
+                    "5f7772697465000016776173695f736e",
+                    "617073686f745f707265766965773108",
+                    "66645f636c6f73650002030403040303",
+                    "0503010001071f03066d656d6f727902",
+                    "000b706f6c6c54696d656f7574000604",
+                    "6563686f00070ae50103080020000440",
+                    "000b0b58004100420137030041084101",
+                    "3a000041104103360200413042023703",
+                    "00413841003a000041c0004101360200",
+                    "41c8004280ade2043703004100418001",
+                    "410241c8011000100541c80128020041",
+                    "e8076c418001290300a76a0b80010102",
+                    "7f4103410041cc011001100541cc0128",
+                    "0200210041004203370300410841013a",
+                    "00004110200036020041004180014101",
+                    "41c8011000100541d801418002360200",
+                    "41dc0141c000360200200041d8014101",
+                    "41d0011002100541d001280200210141",
+                    "dc012001360200200041d801410141d0",
+                    "011003100520001004100520010b");
+
     private static final String textOverwriteElement = "(module" +
                     "  (table 10 funcref)\n" +
                     "  (type (func (result i32)))\n" +
@@ -157,4 +489,33 @@ public class WasmPolyglotTestSuite {
                     "  (elem (i32.const 5) $f)\n" +
                     "  (elem (i32.const 3) $g)\n" +
                     ")";
+
+    private static final String textReactor = "(module\n" +
+                    "  (global $g (mut i32) (i32.const 0))\n" +
+                    "  (func (export \"_initialize\")\n" +
+                    "    global.get $g\n" +
+                    "    i32.const 41\n" +
+                    "    i32.add\n" +
+                    "    global.set $g)\n" +
+                    "  (func (export \"get\") (result i32)\n" +
+                    "    global.get $g)\n" +
+                    ")";
+
+    private static final String textProvider = "(module\n" +
+                    "  (func (export \"seven\") (result i32)\n" +
+                    "    i32.const 7)\n" +
+                    ")";
+
+    private static final String textImporter = "(module\n" +
+                    "  (import \"main\" \"seven\" (func $seven (result i32)))\n" +
+                    "  (global $g (mut i32) (i32.const 1))\n" +
+                    "  (func $start\n" +
+                    "    call $seven\n" +
+                    "    global.get $g\n" +
+                    "    i32.add\n" +
+                    "    global.set $g)\n" +
+                    "  (func (export \"get\") (result i32)\n" +
+                    "    global.get $g)\n" +
+                    "  (start $start)\n" +
+                    ")";
 }
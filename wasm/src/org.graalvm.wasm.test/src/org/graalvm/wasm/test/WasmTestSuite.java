@@ -81,6 +81,10 @@ import org.junit.runners.Suite;
                 WasmJsApiSuite.class,
                 ValidationSuite.class,
                 WasmLateLinkingSuite.class,
+                WasmLazyFunctionParsingSuite.class,
+                WasmParallelParsingSuite.class,
+                WasmThreadsSuite.class,
+                WasmMemoryGrowSuite.class,
 })
 public class WasmTestSuite {
     @Test
@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.graalvm.wasm.test;
+
+import static org.graalvm.wasm.utils.WasmBinaryTools.compileWat;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.PolyglotException;
+import org.graalvm.polyglot.Source;
+import org.graalvm.polyglot.Value;
+import org.graalvm.polyglot.io.ByteSequence;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class WasmThreadsSuite {
+    private static final String SHARED_MEMORY_TEXT = "(memory (export \"memory\") 1 1 shared)" +
+                    "(func (export \"wait\") (param i32) (result i32) (memory.atomic.wait32 (local.get 0) (i32.const 0) (i64.const -1)))" +
+                    "(func (export \"notify\") (param i32) (result i32) (memory.atomic.notify (local.get 0) (i32.const 1)))" +
+                    "(func (export \"increment\") (param i32) (loop $next" +
+                    "  (drop (i32.atomic.rmw.add (i32.const 8) (i32.const 1)))" +
+                    "  (local.set 0 (i32.sub (local.get 0) (i32.const 1)))" +
+                    "  (br_if $next (local.get 0))))" +
+                    "(func (export \"counter\") (result i32) (i32.atomic.load (i32.const 8)))";
+
+    @Test
+    public void testWaitNotify() throws InterruptedException, ExecutionException, IOException {
+        try (Context context = contextBuilder(true).build()) {
+            final Value instance = context.eval(source("shared", SHARED_MEMORY_TEXT));
+            final ExecutorService executor = Executors.newSingleThreadExecutor();
+            try {
+                final Future<Integer> waiter = executor.submit(() -> instance.getMember("wait").execute(0).asInt());
+                // The waiter may not be waiting yet, so notify until one thread is woken up.
+                while (instance.getMember("notify").execute(0).asInt() == 0) {
+                    Assert.assertFalse("The waiter returned without being notified.", waiter.isDone());
+                    Thread.yield();
+                }
+                // 0 means "ok": the waiter was woken up by the notification.
+                Assert.assertEquals(0, (int) waiter.get());
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    @Test
+    public void testConcurrentIncrements() throws InterruptedException, ExecutionException, IOException {
+        final int numThreads = 4;
+        final int increments = 10_000;
+        try (Context context = contextBuilder(true).build()) {
+            final Value instance = context.eval(source("shared", SHARED_MEMORY_TEXT));
+            final ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+            try {
+                final List<Future<?>> futures = new ArrayList<>();
+                for (int i = 0; i < numThreads; i++) {
+                    futures.add(executor.submit(() -> instance.getMember("increment").execute(increments)));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+            Assert.assertEquals(numThreads * increments, instance.getMember("counter").execute().asInt());
+        }
+    }
+
+    @Test
+    public void testMultiThreadedAccessRequiresThreads() throws InterruptedException, IOException {
+        try (Context context = contextBuilder(false).build()) {
+            final Value instance = context.eval(source("unshared", "(func (export \"f\") (result i32) (i32.const 42))"));
+            context.enter();
+            try {
+                final Throwable[] failure = new Throwable[1];
+                final Thread thread = new Thread(() -> {
+                    try {
+                        instance.getMember("f").execute();
+                    } catch (Throwable t) {
+                        failure[0] = t;
+                    }
+                });
+                thread.start();
+                thread.join();
+                Assert.assertTrue(String.valueOf(failure[0]), failure[0] instanceof IllegalStateException);
+            } finally {
+                context.leave();
+            }
+        }
+    }
+
+    @Test
+    public void testSharedImportOfUnsharedMemory() throws IOException, InterruptedException {
+        assertIncompatibleImport("(memory (export \"memory\") 1 1)", "(import \"main\" \"memory\" (memory 1 1 shared))");
+    }
+
+    @Test
+    public void testUnsharedImportOfSharedMemory() throws IOException, InterruptedException {
+        assertIncompatibleImport("(memory (export \"memory\") 1 1 shared)", "(import \"main\" \"memory\" (memory 1 1))");
+    }
+
+    private static void assertIncompatibleImport(String exporterText, String importerText) throws IOException, InterruptedException {
+        try (Context context = contextBuilder(true).build()) {
+            context.eval(source("exporter", exporterText + "(func (export \"f\"))"));
+            final Value importer = context.eval(source("importer", importerText + "(func (export \"g\") (result i32) (i32.const 42))"));
+            try {
+                importer.getMember("g").execute();
+                Assert.fail("Should have failed - the shared flags of the memory and of its import differ.");
+            } catch (PolyglotException e) {
+                Assert.assertFalse(e.getMessage(), e.isInternalError());
+                Assert.assertTrue(e.getMessage(), e.getMessage().contains("incompatible import type"));
+            }
+        }
+    }
+
+    private static Context.Builder contextBuilder(boolean threads) {
+        return Context.newBuilder("wasm").allowExperimentalOptions(true).option("wasm.Threads", String.valueOf(threads));
+    }
+
+    private static Source source(String name, String text) throws IOException, InterruptedException {
+        return Source.newBuilder("wasm", ByteSequence.create(compileWat(name, text)), name).build();
+    }
+}
@@ -0,0 +1,136 @@
+;;
+;; Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+;; DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+;;
+;; The Universal Permissive License (UPL), Version 1.0
+;;
+;; Subject to the condition set forth below, permission is hereby granted to any
+;; person obtaining a copy of this software, associated documentation and/or
+;; data (collectively the "Software"), free of charge and under any and all
+;; copyright rights in the Software, and any and all patent rights owned or
+;; freely licensable by each licensor hereunder covering either (i) the
+;; unmodified Software as contributed to or provided by such licensor, or (ii)
+;; the Larger Works (as defined below), to deal in both
+;;
+;; (a) the Software, and
+;;
+;; (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+;; one is included with the Software each a "Larger Work" to which the Software
+;; is contributed by such licensors),
+;;
+;; without restriction, including without limitation the rights to copy, create
+;; derivative works of, display, perform, and distribute the Software and make,
+;; use, sell, offer for sale, import, export, have made, and have sold the
+;; Software and the Larger Work(s), and to sublicense the foregoing rights on
+;; either these or other terms.
+;;
+;; This license is subject to the following condition:
+;;
+;; The above copyright notice and either this complete permission notice or at a
+;; minimum a reference to the UPL must be included in all copies or substantial
+;; portions of the Software.
+;;
+;; THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+;; IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+;; FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+;; AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+;; LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+;; OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+;; SOFTWARE.
+;;
+
+(module
+    (import "wasi_snapshot_preview1" "path_open" (func $path_open (param i32 i32 i32 i32 i32 i64 i64 i32 i32) (result i32)))
+    (import "wasi_snapshot_preview1" "fd_write" (func $fd_write (param i32 i32 i32 i32) (result i32)))
+    (import "wasi_snapshot_preview1" "fd_read" (func $fd_read (param i32 i32 i32 i32) (result i32)))
+    (import "wasi_snapshot_preview1" "fd_seek" (func $fd_seek (param i32 i64 i32 i32) (result i32)))
+    (import "wasi_snapshot_preview1" "fd_close" (func $fd_close (param i32) (result i32)))
+    (memory 1)
+    (data (i32.const 0) "io.bin")
+    ;; Two iovecs that gather "Hello " and "Graal!".
+    (data (i32.const 16) "\40\00\00\00\06\00\00\00\46\00\00\00\06\00\00\00")
+    ;; Three iovecs that scatter 16 bytes to address 128.
+    (data (i32.const 32) "\80\00\00\00\04\00\00\00\84\00\00\00\04\00\00\00\88\00\00\00\08\00\00\00")
+    (data (i32.const 64) "Hello Graal!")
+    (export "memory" (memory 0))
+    (func $seek (param $offset i64) (result i32)
+        (call $fd_seek
+            (i32.load (i32.const 12)) ;; fd
+            (local.get $offset)       ;; offset
+            (i32.const 0)             ;; seek relative to start-of-file
+            (i32.const 56)            ;; address at which to write the new offset
+        )
+    )
+    (func (export "_main") (result i32) (local $ret i32)
+        ;; Create or truncate file "io.bin" in pre-opened directory 3
+        (local.set $ret
+            (call $path_open
+                (i32.const 3)         ;; pre-opened "test" directory fd
+                (i32.const 0)         ;; dirflags
+                (i32.const 0)         ;; pointer to path "io.bin"
+                (i32.const 6)         ;; path length
+                (i32.const 9)         ;; oflags (creat | trunc)
+                (i64.const 536870911) ;; rights base (all rights set)
+                (i64.const 536870911) ;; rights inherting (all rights set)
+                (i32.const 0)         ;; fdflags
+                (i32.const 12)        ;; fd address
+            )
+        )
+        (if (i32.ne (local.get $ret) (i32.const 0)) (then (return (local.get $ret))))
+
+        ;; Write "Hello Graal!" with a gathering write
+        (local.set $ret (call $fd_write (i32.load (i32.const 12)) (i32.const 16) (i32.const 2) (i32.const 8)))
+        (if (i32.ne (local.get $ret) (i32.const 0)) (then (return (local.get $ret))))
+        (if (i32.ne (i32.load (i32.const 8)) (i32.const 12)) (then (return (i32.const -1))))
+
+        ;; Read the file back with a scattering read that asks for more than the file contains
+        (local.set $ret (call $seek (i64.const 0)))
+        (if (i32.ne (local.get $ret) (i32.const 0)) (then (return (local.get $ret))))
+        (local.set $ret (call $fd_read (i32.load (i32.const 12)) (i32.const 32) (i32.const 3) (i32.const 8)))
+        (if (i32.ne (local.get $ret) (i32.const 0)) (then (return (local.get $ret))))
+        (if (i32.ne (i32.load (i32.const 8)) (i32.const 12)) (then (return (i32.const -2))))
+        (if (i64.ne (i64.load (i32.const 128)) (i64.load (i32.const 64))) (then (return (i32.const -3))))
+        (if (i32.ne (i32.load (i32.const 136)) (i32.load (i32.const 72))) (then (return (i32.const -4))))
+
+        ;; Append "Hello " at the current offset 12, and read "l!Hello " from offset 10, so that
+        ;; the read observes the new size of the file
+        (local.set $ret (call $fd_write (i32.load (i32.const 12)) (i32.const 16) (i32.const 1) (i32.const 8)))
+        (if (i32.ne (local.get $ret) (i32.const 0)) (then (return (local.get $ret))))
+        (local.set $ret (call $seek (i64.const 10)))
+        (if (i32.ne (local.get $ret) (i32.const 0)) (then (return (local.get $ret))))
+        (local.set $ret (call $fd_read (i32.load (i32.const 12)) (i32.const 32) (i32.const 3) (i32.const 8)))
+        (if (i32.ne (local.get $ret) (i32.const 0)) (then (return (local.get $ret))))
+        (if (i32.ne (i32.load (i32.const 8)) (i32.const 8)) (then (return (i32.const -5))))
+        (if (i32.ne (i32.load16_u (i32.const 128)) (i32.load16_u (i32.const 74))) (then (return (i32.const -6))))
+        (if (i32.ne (i32.load16_u (i32.const 130)) (i32.load16_u (i32.const 64))) (then (return (i32.const -7))))
+        (if (i32.ne (i32.load (i32.const 132)) (i32.load (i32.const 66))) (then (return (i32.const -8))))
+
+        ;; Overwrite the start of the file with "Graal!" without changing its size, and read it
+        (local.set $ret (call $seek (i64.const 0)))
+        (if (i32.ne (local.get $ret) (i32.const 0)) (then (return (local.get $ret))))
+        (local.set $ret (call $fd_write (i32.load (i32.const 12)) (i32.const 24) (i32.const 1) (i32.const 8)))
+        (if (i32.ne (local.get $ret) (i32.const 0)) (then (return (local.get $ret))))
+        (local.set $ret (call $seek (i64.const 0)))
+        (if (i32.ne (local.get $ret) (i32.const 0)) (then (return (local.get $ret))))
+        (local.set $ret (call $fd_read (i32.load (i32.const 12)) (i32.const 32) (i32.const 3) (i32.const 8)))
+        (if (i32.ne (local.get $ret) (i32.const 0)) (then (return (local.get $ret))))
+        (if (i32.ne (i32.load (i32.const 8)) (i32.const 16)) (then (return (i32.const -9))))
+        (if (i32.ne (i32.load (i32.const 128)) (i32.load (i32.const 70))) (then (return (i32.const -10))))
+        (if (i32.ne (i32.load (i32.const 134)) (i32.load (i32.const 70))) (then (return (i32.const -11))))
+
+        ;; An iovec array that does not fit in the memory is a fault (21)
+        (if (i32.ne (call $fd_read (i32.load (i32.const 12)) (i32.const 65532) (i32.const 2) (i32.const 8)) (i32.const 21)) (then (return (i32.const -12))))
+        (if (i32.ne (call $fd_write (i32.load (i32.const 12)) (i32.const 65532) (i32.const 2) (i32.const 8)) (i32.const 21)) (then (return (i32.const -13))))
+
+        ;; Free opened file
+        (local.set $ret (call $fd_close (i32.load (i32.const 12))))
+        (if (i32.ne (local.get $ret) (i32.const 0)) (then (return (local.get $ret))))
+
+        ;; Clear random fd number and the read data so that this test is deterministic
+        (i32.store (i32.const 12) (i32.const 0))
+        (i64.store (i32.const 128) (i64.const 0))
+        (i64.store (i32.const 136) (i64.const 0))
+        ;; Success
+        (i32.const 0)
+    )
+)
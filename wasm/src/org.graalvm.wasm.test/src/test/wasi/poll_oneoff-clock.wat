@@ -0,0 +1,113 @@
+;;
+;; Copyright (c) 2020, 2021, Oracle and/or its affiliates. All rights reserved.
+;; DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+;;
+;; The Universal Permissive License (UPL), Version 1.0
+;;
+;; Subject to the condition set forth below, permission is hereby granted to any
+;; person obtaining a copy of this software, associated documentation and/or
+;; data (collectively the "Software"), free of charge and under any and all
+;; copyright rights in the Software, and any and all patent rights owned or
+;; freely licensable by each licensor hereunder covering either (i) the
+;; unmodified Software as contributed to or provided by such licensor, or (ii)
+;; the Larger Works (as defined below), to deal in both
+;;
+;; (a) the Software, and
+;;
+;; (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+;; one is included with the Software each a "Larger Work" to which the Software
+;; is contributed by such licensors),
+;;
+;; without restriction, including without limitation the rights to copy, create
+;; derivative works of, display, perform, and distribute the Software and make,
+;; use, sell, offer for sale, import, export, have made, and have sold the
+;; Software and the Larger Work(s), and to sublicense the foregoing rights on
+;; either these or other terms.
+;;
+;; This license is subject to the following condition:
+;;
+;; The above copyright notice and either this complete permission notice or at a
+;; minimum a reference to the UPL must be included in all copies or substantial
+;; portions of the Software.
+;;
+;; THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+;; IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+;; FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+;; AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+;; LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+;; OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+;; SOFTWARE.
+;;
+
+(module
+  (type (;0;) (func (result i32)))
+  (type (;1;) (func (param i32 i32 i32 i32) (result i32)))
+  (type (;2;) (func (param i32 i64 i32) (result i32)))
+  (import "wasi_snapshot_preview1" "poll_oneoff" (func $wasi_poll_oneoff (type 1)))
+  (import "wasi_snapshot_preview1" "clock_time_get" (func $wasi_clock_time_get (type 2)))
+  (memory (;0;) 1)
+  (export "memory" (memory 0))
+  (global $subscriptions i32 (i32.const 0))
+  (global $events i32 (i32.const 256))
+  (global $eventCount i32 (i32.const 512))
+  (global $time i32 (i32.const 600))
+
+  ;; Writes a clock subscription.
+  (func $clock (param $address i32) (param $userdata i64) (param $id i32) (param $timeout i64) (param $flags i32)
+    (i64.store (local.get $address) (local.get $userdata))
+    (i32.store8 offset=8 (local.get $address) (i32.const 0))
+    (i32.store offset=16 (local.get $address) (local.get $id))
+    (i64.store offset=24 (local.get $address) (local.get $timeout))
+    (i64.store offset=32 (local.get $address) (i64.const 0))
+    (i32.store16 offset=40 (local.get $address) (local.get $flags))
+  )
+
+  ;; Writes an fd_write subscription.
+  (func $fdWrite (param $address i32) (param $userdata i64) (param $fd i32)
+    (i64.store (local.get $address) (local.get $userdata))
+    (i32.store8 offset=8 (local.get $address) (i32.const 2))
+    (i32.store offset=16 (local.get $address) (local.get $fd))
+  )
+
+  ;; Polls the first $count subscriptions, and returns the number of events, or -1 on error.
+  (func $poll (param $count i32) (result i32)
+    (if (call $wasi_poll_oneoff (global.get $subscriptions) (global.get $events) (local.get $count) (global.get $eventCount))
+      (then (return (i32.const -1))))
+    (i32.load (global.get $eventCount))
+  )
+
+  (func $monotonicNow (result i64)
+    (drop (call $wasi_clock_time_get (i32.const 1) (i64.const 0) (global.get $time)))
+    (i64.load (global.get $time))
+  )
+
+  (func (export "_main") (type 0) (local $start i64)
+    ;; A relative timeout of UINT64_MAX nanoseconds never expires, so only stdout is ready.
+    (call $clock (i32.const 0) (i64.const 1) (i32.const 1) (i64.const -1) (i32.const 0))
+    (call $fdWrite (i32.const 48) (i64.const 2) (i32.const 1))
+    (if (i32.ne (call $poll (i32.const 2)) (i32.const 1)) (then (return (i32.const -1))))
+    (if (i64.ne (i64.load (global.get $events)) (i64.const 2)) (then (return (i32.const -2))))
+
+    ;; The same for realtime clocks and an absolute deadline of UINT64_MAX.
+    (call $clock (i32.const 0) (i64.const 3) (i32.const 0) (i64.const -1) (i32.const 1))
+    (if (i32.ne (call $poll (i32.const 2)) (i32.const 1)) (then (return (i32.const -3))))
+    (if (i64.ne (i64.load (global.get $events)) (i64.const 2)) (then (return (i32.const -4))))
+    (call $clock (i32.const 0) (i64.const 4) (i32.const 0) (i64.const -1) (i32.const 0))
+    (if (i32.ne (call $poll (i32.const 2)) (i32.const 1)) (then (return (i32.const -5))))
+    (if (i64.ne (i64.load (global.get $events)) (i64.const 2)) (then (return (i32.const -6))))
+
+    ;; An absolute monotonic deadline is expressed in the time of clock_time_get.
+    (local.set $start (call $monotonicNow))
+    (call $clock (i32.const 0) (i64.const 5) (i32.const 1) (i64.add (local.get $start) (i64.const 2000000)) (i32.const 1))
+    (if (i32.ne (call $poll (i32.const 1)) (i32.const 1)) (then (return (i32.const -7))))
+    (if (i64.ne (i64.load (global.get $events)) (i64.const 5)) (then (return (i32.const -8))))
+    (if (i64.lt_u (call $monotonicNow) (i64.add (local.get $start) (i64.const 2000000))) (then (return (i32.const -9))))
+
+    ;; A deadline in the past is ready immediately.
+    (call $clock (i32.const 0) (i64.const 6) (i32.const 1) (local.get $start) (i32.const 1))
+    (if (i32.ne (call $poll (i32.const 1)) (i32.const 1)) (then (return (i32.const -10))))
+    (if (i64.ne (i64.load (global.get $events)) (i64.const 6)) (then (return (i32.const -11))))
+
+    (return (i32.const 0))
+  )
+)
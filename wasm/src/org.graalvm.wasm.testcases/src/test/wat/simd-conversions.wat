@@ -0,0 +1,151 @@
+;;
+;; Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+;; DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+;;
+;; The Universal Permissive License (UPL), Version 1.0
+;;
+;; Subject to the condition set forth below, permission is hereby granted to any
+;; person obtaining a copy of this software, associated documentation and/or
+;; data (collectively the "Software"), free of charge and under any and all
+;; copyright rights in the Software, and any and all patent rights owned or
+;; freely licensable by each licensor hereunder covering either (i) the
+;; unmodified Software as contributed to or provided by such licensor, or (ii)
+;; the Larger Works (as defined below), to deal in both
+;;
+;; (a) the Software, and
+;;
+;; (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+;; one is included with the Software each a "Larger Work" to which the Software
+;; is contributed by such licensors),
+;;
+;; without restriction, including without limitation the rights to copy, create
+;; derivative works of, display, perform, and distribute the Software and make,
+;; use, sell, offer for sale, import, export, have made, and have sold the
+;; Software and the Larger Work(s), and to sublicense the foregoing rights on
+;; either these or other terms.
+;;
+;; This license is subject to the following condition:
+;;
+;; The above copyright notice and either this complete permission notice or at a
+;; minimum a reference to the UPL must be included in all copies or substantial
+;; portions of the Software.
+;;
+;; THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+;; IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+;; FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+;; AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+;; LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+;; OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+;; SOFTWARE.
+;;
+(module
+    (func (export "_main") (result i32)
+        ;; The _zero conversions clear the high lanes.
+        v128.const f64x2 1.5 -2.25
+        f32x4.demote_f64x2_zero
+        f32x4.extract_lane 1
+        f32.const 4.0
+        f32.mul
+        i32.trunc_f32_s
+        v128.const f64x2 1.5 -2.25
+        f32x4.demote_f64x2_zero
+        i32x4.extract_lane 3
+        i32.add
+        v128.const f32x4 0.5 -3.25 7.0 8.0
+        f64x2.promote_low_f32x4
+        f64x2.extract_lane 1
+        f64.const 4.0
+        f64.mul
+        i32.trunc_f64_s
+        i32.add
+        v128.const i32x4 -5 7 100 100
+        f64x2.convert_low_i32x4_s
+        f64x2.extract_lane 0
+        i32.trunc_f64_s
+        i32.add
+        v128.const i32x4 -1 7 100 100
+        f64x2.convert_low_i32x4_u
+        f64x2.extract_lane 0
+        f64.const 4294967294.0
+        f64.sub
+        i32.trunc_f64_s
+        i32.add
+        v128.const f64x2 -1e10 3.9
+        i32x4.trunc_sat_f64x2_s_zero
+        i32x4.extract_lane 0
+        i32.const -2147483648
+        i32.eq
+        i32.add
+        v128.const f64x2 -1e10 3.9
+        i32x4.trunc_sat_f64x2_s_zero
+        i32x4.extract_lane 1
+        i32.add
+        v128.const f64x2 -1e10 3.9
+        i32x4.trunc_sat_f64x2_s_zero
+        i32x4.extract_lane 2
+        i32.add
+        v128.const f64x2 -3.5 5e9
+        i32x4.trunc_sat_f64x2_u_zero
+        i32x4.extract_lane 0
+        i32.add
+        v128.const f64x2 -3.5 5e9
+        i32x4.trunc_sat_f64x2_u_zero
+        i32x4.extract_lane 1
+        i32.add
+        v128.const f64x2 nan 2.5
+        i32x4.trunc_sat_f64x2_u_zero
+        i32x4.extract_lane 0
+        i32.add
+        v128.const f64x2 nan 2.5
+        i32x4.trunc_sat_f64x2_u_zero
+        i32x4.extract_lane 1
+        i32.add
+        ;; Rounding
+        v128.const f32x4 -1.5 1.5 2.5 -0.5
+        f32x4.ceil
+        i32x4.trunc_sat_f32x4_s
+        i32x4.extract_lane 2
+        i32.add
+        v128.const f32x4 -1.5 1.5 2.5 -0.5
+        f32x4.floor
+        i32x4.trunc_sat_f32x4_s
+        i32x4.extract_lane 0
+        i32.add
+        v128.const f32x4 -1.5 1.5 2.5 -0.5
+        f32x4.trunc
+        i32x4.trunc_sat_f32x4_s
+        i32x4.extract_lane 0
+        i32.add
+        v128.const f32x4 -1.5 1.5 2.5 -0.5
+        f32x4.nearest
+        i32x4.trunc_sat_f32x4_s
+        i32x4.extract_lane 2
+        i32.add
+        v128.const f32x4 -1.5 1.5 2.5 -0.5
+        f32x4.nearest
+        i32x4.extract_lane 3
+        i32.const 31
+        i32.shr_u
+        i32.add
+        v128.const f64x2 2.5 -2.5
+        f64x2.ceil
+        f64x2.extract_lane 1
+        i32.trunc_f64_s
+        i32.add
+        v128.const f64x2 2.5 -2.5
+        f64x2.floor
+        f64x2.extract_lane 1
+        i32.trunc_f64_s
+        i32.add
+        v128.const f64x2 2.5 -2.5
+        f64x2.trunc
+        f64x2.extract_lane 0
+        i32.trunc_f64_s
+        i32.add
+        v128.const f64x2 2.5 -2.5
+        f64x2.nearest
+        f64x2.extract_lane 1
+        i32.trunc_f64_s
+        i32.add
+    )
+)
@@ -0,0 +1,142 @@
+;;
+;; Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+;; DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+;;
+;; The Universal Permissive License (UPL), Version 1.0
+;;
+;; Subject to the condition set forth below, permission is hereby granted to any
+;; person obtaining a copy of this software, associated documentation and/or
+;; data (collectively the "Software"), free of charge and under any and all
+;; copyright rights in the Software, and any and all patent rights owned or
+;; freely licensable by each licensor hereunder covering either (i) the
+;; unmodified Software as contributed to or provided by such licensor, or (ii)
+;; the Larger Works (as defined below), to deal in both
+;;
+;; (a) the Software, and
+;;
+;; (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+;; one is included with the Software each a "Larger Work" to which the Software
+;; is contributed by such licensors),
+;;
+;; without restriction, including without limitation the rights to copy, create
+;; derivative works of, display, perform, and distribute the Software and make,
+;; use, sell, offer for sale, import, export, have made, and have sold the
+;; Software and the Larger Work(s), and to sublicense the foregoing rights on
+;; either these or other terms.
+;;
+;; This license is subject to the following condition:
+;;
+;; The above copyright notice and either this complete permission notice or at a
+;; minimum a reference to the UPL must be included in all copies or substantial
+;; portions of the Software.
+;;
+;; THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+;; IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+;; FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+;; AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+;; LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+;; OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+;; SOFTWARE.
+;;
+(module
+    (func (export "_main") (result i32)
+        v128.const i8x16 1 2 3 4 5 6 7 8 -1 -2 -3 -4 -5 -6 -7 -128
+        i32.const 3
+        i8x16.splat
+        i16x8.extmul_high_i8x16_s
+        i16x8.extract_lane_s 7
+        v128.const i8x16 1 2 3 4 5 6 7 8 -1 -2 -3 -4 -5 -6 -7 -128
+        i32.const 3
+        i8x16.splat
+        i16x8.extmul_high_i8x16_u
+        i16x8.extract_lane_u 7
+        i32.add
+        v128.const i8x16 1 2 3 4 5 6 7 8 -1 -2 -3 -4 -5 -6 -7 -128
+        i32.const 3
+        i8x16.splat
+        i16x8.extmul_high_i8x16_u
+        i16x8.extract_lane_u 0
+        i32.add
+        v128.const i8x16 1 2 3 4 5 6 7 8 -1 -2 -3 -4 -5 -6 -7 -128
+        i32.const 3
+        i8x16.splat
+        i16x8.extmul_low_i8x16_s
+        i16x8.extract_lane_s 1
+        i32.add
+        v128.const i16x8 -1 2 0 0 0 0 0 0
+        i32.const 2
+        i16x8.splat
+        i32x4.extmul_low_i16x8_u
+        i32x4.extract_lane 0
+        i32.add
+        v128.const i16x8 0 0 0 0 -5 6 7 8
+        v128.const i16x8 0 0 0 0 3 3 3 -2
+        i32x4.extmul_high_i16x8_s
+        i32x4.extract_lane 0
+        i32.add
+        v128.const i16x8 0 0 0 0 -5 6 7 8
+        v128.const i16x8 0 0 0 0 3 3 3 -2
+        i32x4.extmul_high_i16x8_s
+        i32x4.extract_lane 3
+        i32.add
+        v128.const i32x4 0 0 -1 2
+        v128.const i32x4 0 0 -1 3
+        i64x2.extmul_high_i32x4_u
+        i64x2.extract_lane 0
+        i64.const 32
+        i64.shr_u
+        i32.wrap_i64
+        i32.add
+        v128.const i32x4 0 0 -1 2
+        v128.const i32x4 0 0 -1 3
+        i64x2.extmul_high_i32x4_u
+        i64x2.extract_lane 1
+        i32.wrap_i64
+        i32.add
+        v128.const i32x4 -7 1 0 0
+        v128.const i32x4 3 3 0 0
+        i64x2.extmul_low_i32x4_s
+        i64x2.extract_lane 0
+        i32.wrap_i64
+        i32.add
+        ;; Pairwise additions
+        v128.const i8x16 -128 -128 127 127 0 0 0 0 0 0 0 0 0 0 0 0
+        i16x8.extadd_pairwise_i8x16_s
+        i16x8.extract_lane_s 0
+        i32.add
+        v128.const i8x16 -128 -128 127 127 0 0 0 0 0 0 0 0 0 0 0 0
+        i16x8.extadd_pairwise_i8x16_s
+        i16x8.extract_lane_s 1
+        i32.add
+        v128.const i8x16 0 0 0 0 0 0 0 0 0 0 0 0 0 0 -128 -128
+        i16x8.extadd_pairwise_i8x16_u
+        i16x8.extract_lane_u 7
+        i32.add
+        i32.const -1
+        i16x8.splat
+        i32x4.extadd_pairwise_i16x8_u
+        i32x4.extract_lane 3
+        i32.add
+        i32.const -1
+        i16x8.splat
+        i32x4.extadd_pairwise_i16x8_s
+        i32x4.extract_lane 0
+        i32.add
+        ;; Rounding, saturating Q15 multiplication
+        v128.const i16x8 -32768 16384 0 0 0 0 0 -3
+        v128.const i16x8 -32768 16384 0 0 0 0 0 16384
+        i16x8.q15mulr_sat_s
+        i16x8.extract_lane_s 0
+        i32.add
+        v128.const i16x8 -32768 16384 0 0 0 0 0 -3
+        v128.const i16x8 -32768 16384 0 0 0 0 0 16384
+        i16x8.q15mulr_sat_s
+        i16x8.extract_lane_s 1
+        i32.add
+        v128.const i16x8 -32768 16384 0 0 0 0 0 -3
+        v128.const i16x8 -32768 16384 0 0 0 0 0 16384
+        i16x8.q15mulr_sat_s
+        i16x8.extract_lane_s 7
+        i32.add
+    )
+)
@@ -0,0 +1,110 @@
+;;
+;; Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+;; DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+;;
+;; The Universal Permissive License (UPL), Version 1.0
+;;
+;; Subject to the condition set forth below, permission is hereby granted to any
+;; person obtaining a copy of this software, associated documentation and/or
+;; data (collectively the "Software"), free of charge and under any and all
+;; copyright rights in the Software, and any and all patent rights owned or
+;; freely licensable by each licensor hereunder covering either (i) the
+;; unmodified Software as contributed to or provided by such licensor, or (ii)
+;; the Larger Works (as defined below), to deal in both
+;;
+;; (a) the Software, and
+;;
+;; (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+;; one is included with the Software each a "Larger Work" to which the Software
+;; is contributed by such licensors),
+;;
+;; without restriction, including without limitation the rights to copy, create
+;; derivative works of, display, perform, and distribute the Software and make,
+;; use, sell, offer for sale, import, export, have made, and have sold the
+;; Software and the Larger Work(s), and to sublicense the foregoing rights on
+;; either these or other terms.
+;;
+;; This license is subject to the following condition:
+;;
+;; The above copyright notice and either this complete permission notice or at a
+;; minimum a reference to the UPL must be included in all copies or substantial
+;; portions of the Software.
+;;
+;; THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+;; IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+;; FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+;; AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+;; LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+;; OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+;; SOFTWARE.
+;;
+(module
+    (memory 1)
+    (data (i32.const 0) "\01\02\03\04\05\06\07\08\09\0a\0b\0c\0d\0e\0f\10\ff\fe")
+    (func (export "_main") (result i32)
+        (local $v v128)
+        ;; Lane loads into the high and the low half leave the other lanes unchanged.
+        i32.const 16
+        v128.const i64x2 0 0
+        v128.load8_lane 9
+        local.tee $v
+        i8x16.extract_lane_u 9
+        local.get $v
+        i8x16.extract_lane_u 8
+        i32.add
+        i32.const 0
+        v128.const i64x2 0 0
+        v128.load16_lane offset=1 2
+        i16x8.extract_lane_u 2
+        i32.add
+        i32.const 4
+        v128.const i32x4 0 0 0 0
+        v128.load32_lane 3
+        i32x4.extract_lane 3
+        i32.const 0x08070600
+        i32.sub
+        i32.add
+        i32.const 8
+        v128.const i64x2 -1 -1
+        v128.load64_lane 0
+        local.tee $v
+        i64x2.extract_lane 0
+        i64.const 0x100f0e0d0c0b0a00
+        i64.sub
+        i32.wrap_i64
+        i32.add
+        local.get $v
+        i64x2.extract_lane 1
+        i32.wrap_i64
+        i32.add
+        ;; Lane stores write only the width of the lane.
+        i32.const 200
+        v128.const i8x16 0 1 2 3 4 5 6 7 8 9 10 11 12 13 14 15
+        v128.store8_lane 13
+        i32.const 200
+        i32.load
+        i32.add
+        i32.const 204
+        v128.const i16x8 0 1 2 3 4 5 6 -7
+        v128.store16_lane 7
+        i32.const 204
+        i32.load16_s
+        i32.add
+        i32.const 206
+        i32.load8_u
+        i32.add
+        i32.const 208
+        v128.const i32x4 10 20 30 40
+        v128.store32_lane offset=4 1
+        i32.const 212
+        i32.load
+        i32.add
+        i32.const 216
+        v128.const i64x2 5 6
+        v128.store64_lane 1
+        i32.const 216
+        i64.load
+        i32.wrap_i64
+        i32.add
+    )
+)
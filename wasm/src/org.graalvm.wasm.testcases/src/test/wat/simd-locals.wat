@@ -0,0 +1,91 @@
+;;
+;; Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+;; DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+;;
+;; The Universal Permissive License (UPL), Version 1.0
+;;
+;; Subject to the condition set forth below, permission is hereby granted to any
+;; person obtaining a copy of this software, associated documentation and/or
+;; data (collectively the "Software"), free of charge and under any and all
+;; copyright rights in the Software, and any and all patent rights owned or
+;; freely licensable by each licensor hereunder covering either (i) the
+;; unmodified Software as contributed to or provided by such licensor, or (ii)
+;; the Larger Works (as defined below), to deal in both
+;;
+;; (a) the Software, and
+;;
+;; (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+;; one is included with the Software each a "Larger Work" to which the Software
+;; is contributed by such licensors),
+;;
+;; without restriction, including without limitation the rights to copy, create
+;; derivative works of, display, perform, and distribute the Software and make,
+;; use, sell, offer for sale, import, export, have made, and have sold the
+;; Software and the Larger Work(s), and to sublicense the foregoing rights on
+;; either these or other terms.
+;;
+;; This license is subject to the following condition:
+;;
+;; The above copyright notice and either this complete permission notice or at a
+;; minimum a reference to the UPL must be included in all copies or substantial
+;; portions of the Software.
+;;
+;; THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+;; IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+;; FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+;; AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+;; LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+;; OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+;; SOFTWARE.
+;;
+(module
+    (func $add (param $x v128) (param $y v128) (result v128)
+        (local $t v128)
+        local.get $x
+        local.set $t
+        local.get $y
+        local.get $t
+        i32x4.add
+    )
+    (func $zero (result i32)
+        (local $v v128)
+        ;; Vector locals are zero-initialized.
+        local.get $v
+        v128.any_true
+    )
+    (func (export "_main") (result i32)
+        (local $i i32)
+        (local $a v128)
+        (local $j i64)
+        (local $b v128)
+        (local $k i32)
+        i32.const 1000
+        local.set $i
+        i64.const 2000
+        local.set $j
+        i32.const 3000
+        local.set $k
+        v128.const i32x4 1 2 3 4
+        local.tee $a
+        v128.const i32x4 10 20 30 40
+        local.tee $b
+        call $add
+        i32x4.extract_lane 3
+        call $zero
+        i32.add
+        local.get $a
+        i32x4.extract_lane 1
+        i32.add
+        local.get $b
+        i32x4.extract_lane 0
+        i32.add
+        ;; Scalar locals interleaved with vector locals keep their values.
+        local.get $i
+        i32.add
+        local.get $j
+        i32.wrap_i64
+        i32.add
+        local.get $k
+        i32.add
+    )
+)
@@ -0,0 +1,81 @@
+;;
+;; Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+;; DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+;;
+;; The Universal Permissive License (UPL), Version 1.0
+;;
+;; Subject to the condition set forth below, permission is hereby granted to any
+;; person obtaining a copy of this software, associated documentation and/or
+;; data (collectively the "Software"), free of charge and under any and all
+;; copyright rights in the Software, and any and all patent rights owned or
+;; freely licensable by each licensor hereunder covering either (i) the
+;; unmodified Software as contributed to or provided by such licensor, or (ii)
+;; the Larger Works (as defined below), to deal in both
+;;
+;; (a) the Software, and
+;;
+;; (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+;; one is included with the Software each a "Larger Work" to which the Software
+;; is contributed by such licensors),
+;;
+;; without restriction, including without limitation the rights to copy, create
+;; derivative works of, display, perform, and distribute the Software and make,
+;; use, sell, offer for sale, import, export, have made, and have sold the
+;; Software and the Larger Work(s), and to sublicense the foregoing rights on
+;; either these or other terms.
+;;
+;; This license is subject to the following condition:
+;;
+;; The above copyright notice and either this complete permission notice or at a
+;; minimum a reference to the UPL must be included in all copies or substantial
+;; portions of the Software.
+;;
+;; THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+;; IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+;; FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+;; AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+;; LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+;; OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+;; SOFTWARE.
+;;
+(module
+    (func (export "_main") (result i32)
+        (local $a v128)
+        (local $b v128)
+        v128.const i32x4 1 2 3 4
+        local.set $a
+        v128.const i32x4 5 6 7 8
+        local.set $b
+        local.get $a
+        local.get $b
+        i32.const 0
+        select
+        i32x4.extract_lane 3
+        local.get $a
+        local.get $b
+        i32.const 1
+        select
+        i32x4.extract_lane 0
+        i32.add
+        ;; Takes the bits of the first operand where the mask is set.
+        local.get $a
+        local.get $b
+        v128.const i32x4 0xffffffff 0 0xffffffff 0
+        v128.bitselect
+        local.set $a
+        local.get $a
+        i32x4.extract_lane 1
+        i32.add
+        local.get $a
+        i32x4.extract_lane 2
+        i32.add
+        v128.const i32x4 0xff00ff00 0 0 0
+        v128.const i32x4 0x12345678 0 0 0
+        v128.const i32x4 0x0f0f0f0f 0 0 0
+        v128.bitselect
+        i32x4.extract_lane 0
+        i32.const 0x1f305f70
+        i32.eq
+        i32.add
+    )
+)
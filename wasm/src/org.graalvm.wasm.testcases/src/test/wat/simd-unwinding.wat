@@ -0,0 +1,117 @@
+;;
+;; Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+;; DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+;;
+;; The Universal Permissive License (UPL), Version 1.0
+;;
+;; Subject to the condition set forth below, permission is hereby granted to any
+;; person obtaining a copy of this software, associated documentation and/or
+;; data (collectively the "Software"), free of charge and under any and all
+;; copyright rights in the Software, and any and all patent rights owned or
+;; freely licensable by each licensor hereunder covering either (i) the
+;; unmodified Software as contributed to or provided by such licensor, or (ii)
+;; the Larger Works (as defined below), to deal in both
+;;
+;; (a) the Software, and
+;;
+;; (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+;; one is included with the Software each a "Larger Work" to which the Software
+;; is contributed by such licensors),
+;;
+;; without restriction, including without limitation the rights to copy, create
+;; derivative works of, display, perform, and distribute the Software and make,
+;; use, sell, offer for sale, import, export, have made, and have sold the
+;; Software and the Larger Work(s), and to sublicense the foregoing rights on
+;; either these or other terms.
+;;
+;; This license is subject to the following condition:
+;;
+;; The above copyright notice and either this complete permission notice or at a
+;; minimum a reference to the UPL must be included in all copies or substantial
+;; portions of the Software.
+;;
+;; THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+;; IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+;; FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+;; AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+;; LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+;; OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+;; SOFTWARE.
+;;
+(module
+    (func $pick (param $n i32) (result v128)
+        (block $b2 (result v128)
+            (block $b1 (result v128)
+                (block $b0 (result v128)
+                    ;; The branch carries the top vector and drops the values below it.
+                    i32.const 99
+                    v128.const i32x4 0 0 0 0
+                    v128.const i32x4 1 1 1 1
+                    local.get $n
+                    br_table $b0 $b1 $b2
+                )
+                v128.const i32x4 10 10 10 10
+                i32x4.add
+            )
+            v128.const i32x4 100 100 100 100
+            i32x4.add
+        )
+    )
+    (func $early (param $n i32) (result v128)
+        i64.const 7
+        (loop $l
+            local.get $n
+            i32.eqz
+            if
+                v128.const i32x4 5 6 7 8
+                return
+            end
+            local.get $n
+            i32.const 1
+            i32.sub
+            local.set $n
+            br $l
+        )
+        drop
+        v128.const i32x4 0 0 0 0
+    )
+    (func $brif (param $c i32) (result i32)
+        (block $b (result v128)
+            i32.const 42
+            v128.const i32x4 1 2 3 4
+            local.get $c
+            br_if $b
+            drop
+            drop
+            v128.const i32x4 5 6 7 8
+        )
+        i32x4.extract_lane 0
+    )
+    (func (export "_main") (result i32)
+        i32.const 0
+        call $pick
+        i32x4.extract_lane 0
+        i32.const 1
+        call $pick
+        i32x4.extract_lane 1
+        i32.add
+        i32.const 2
+        call $pick
+        i32x4.extract_lane 2
+        i32.add
+        i32.const 5
+        call $pick
+        i32x4.extract_lane 3
+        i32.add
+        i32.const 3
+        call $early
+        i32x4.extract_lane 3
+        i32.add
+        i32.const 1
+        call $brif
+        i32.add
+        i32.const 0
+        call $brif
+        i32.add
+    )
+)
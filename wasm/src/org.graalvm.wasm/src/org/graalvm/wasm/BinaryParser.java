@@ -47,18 +47,21 @@ import com.oracle.truffle.api.interop.ExceptionType;
 import com.oracle.truffle.api.nodes.LoopNode;
 import com.oracle.truffle.api.nodes.Node;
 import org.graalvm.wasm.collection.ByteArrayList;
+import org.graalvm.wasm.constants.AtomicInstructions;
 import org.graalvm.wasm.constants.CallIndirect;
+import org.graalvm.wasm.constants.DataSegmentMode;
 import org.graalvm.wasm.constants.ExportIdentifier;
 import org.graalvm.wasm.constants.GlobalModifier;
 import org.graalvm.wasm.constants.ImportIdentifier;
 import org.graalvm.wasm.constants.Instructions;
 import org.graalvm.wasm.constants.LimitsPrefix;
+import org.graalvm.wasm.constants.MiscInstructions;
 import org.graalvm.wasm.constants.Section;
+import org.graalvm.wasm.constants.VectorInstructions;
 import org.graalvm.wasm.exception.Failure;
 import org.graalvm.wasm.exception.WasmException;
 import org.graalvm.wasm.memory.WasmMemory;
 import org.graalvm.wasm.nodes.WasmBlockNode;
-import org.graalvm.wasm.nodes.WasmCallStubNode;
 import org.graalvm.wasm.nodes.WasmIfNode;
 import org.graalvm.wasm.nodes.WasmIndirectCallNode;
 import org.graalvm.wasm.nodes.WasmRootNode;
@@ -70,7 +73,11 @@ import java.nio.charset.CharsetDecoder;
 import java.nio.charset.CodingErrorAction;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.graalvm.wasm.Assert.assertByteEqual;
 import static org.graalvm.wasm.Assert.assertIntEqual;
@@ -83,6 +90,7 @@ import static org.graalvm.wasm.WasmType.F32_TYPE;
 import static org.graalvm.wasm.WasmType.F64_TYPE;
 import static org.graalvm.wasm.WasmType.I32_TYPE;
 import static org.graalvm.wasm.WasmType.I64_TYPE;
+import static org.graalvm.wasm.WasmType.V128_TYPE;
 import static org.graalvm.wasm.constants.Sizes.MAX_MEMORY_DECLARATION_SIZE;
 import static org.graalvm.wasm.constants.Sizes.MAX_TABLE_DECLARATION_SIZE;
 
@@ -128,20 +136,52 @@ public class BinaryParser extends BinaryStreamParser {
         readSymbolSections();
     }
 
+    /**
+     * Reads the code section of the module, if this is its first instantiation, and sets the call
+     * targets of the functions that the module defines in the given instance. The code of a module
+     * is shared by all its instances, which may belong to different contexts of the same engine.
+     */
     @CompilerDirectives.TruffleBoundary
     public void readInstance(WasmContext context, WasmInstance instance) {
-        int binarySize = instance.module().data().length;
+        synchronized (module) {
+            if (!module.codeEntriesRead()) {
+                runParsing(context, "wasm-parsing-thread(" + module.name() + ")", module.data().length, new Runnable() {
+                    @Override
+                    public void run() {
+                        readCodeEntries(context);
+                    }
+                });
+                module.setCodeEntriesRead();
+            }
+        }
+        for (int funcIndex = module.importedFunctions().size(); funcIndex != module.numFunctions(); ++funcIndex) {
+            // Call targets that are not created yet are set by the first lookup.
+            instance.setTarget(funcIndex, module.function(funcIndex).createdCallTarget());
+        }
+    }
+
+    /**
+     * Decodes the body of a function whose decoding was deferred by
+     * {@link WasmOptions#LazyFunctionParsing} until its first call.
+     */
+    @CompilerDirectives.TruffleBoundary
+    public void readPendingCodeEntry(WasmContext context, WasmRootNode rootNode, int bodyOffset, int bodySize) {
+        final int funcIndex = rootNode.codeEntry().functionIndex();
+        runParsing(context, "wasm-parsing-thread(" + module.name() + ":" + funcIndex + ")", bodySize, new Runnable() {
+            @Override
+            public void run() {
+                offset = bodyOffset;
+                readCodeEntry(funcIndex, rootNode);
+                assertIntEqual(offset - bodyOffset, bodySize, String.format("Code entry %d size is incorrect", funcIndex - module.importedFunctions().size()), Failure.UNSPECIFIED_MALFORMED);
+            }
+        });
+    }
+
+    private static void runParsing(WasmContext context, String name, int binarySize, Runnable parsing) {
         final int asyncParsingBinarySize = WasmOptions.AsyncParsingBinarySize.getValue(context.environment().getOptions());
         if (binarySize < asyncParsingBinarySize) {
-            readInstanceSynchronously(context, instance);
+            parsing.run();
         } else {
-            final Runnable parsing = new Runnable() {
-                @Override
-                public void run() {
-                    readInstanceSynchronously(context, instance);
-                }
-            };
-            final String name = "wasm-parsing-thread(" + instance.name() + ")";
             final int requestedSize = WasmOptions.AsyncParsingStackSize.getValue(context.environment().getOptions()) * 1000;
             final int defaultSize = Math.max(MIN_DEFAULT_STACK_SIZE, Math.min(2 * binarySize, MAX_DEFAULT_ASYNC_STACK_SIZE));
             final int stackSize = requestedSize != 0 ? requestedSize : defaultSize;
@@ -155,14 +195,15 @@ public class BinaryParser extends BinaryStreamParser {
                     throw WasmException.create(Failure.UNSPECIFIED_INVALID, "Asynchronous parsing failed.");
                 }
             } catch (InterruptedException e) {
-                throw WasmException.create(Failure.UNSPECIFIED_INVALID, "Asynchronous parsing interrupted.");
+                Thread.currentThread().interrupt();
+                throw WasmException.create(Failure.PARSING_INTERRUPTED, "Asynchronous parsing interrupted.");
             }
         }
     }
 
-    private void readInstanceSynchronously(WasmContext context, WasmInstance instance) {
+    private void readCodeEntries(WasmContext context) {
         if (tryJumpToSection(Section.CODE)) {
-            readCodeSection(context, instance);
+            readCodeSection(context);
         } else {
             final int expectedNumCodeEntries = module.numFunctions() - module.importedFunctions().size();
             assertIntEqual(0, expectedNumCodeEntries, Failure.FUNCTIONS_CODE_INCONSISTENT_LENGTHS);
@@ -180,7 +221,7 @@ public class BinaryParser extends BinaryStreamParser {
             final byte sectionID = read1();
 
             if (sectionID != Section.CUSTOM) {
-                if (sectionID > lastNonCustomSection) {
+                if (lastNonCustomSection == -1 || sectionOrder(sectionID) > sectionOrder(lastNonCustomSection)) {
                     lastNonCustomSection = sectionID;
                 } else if (lastNonCustomSection == sectionID) {
                     throw WasmException.create(Failure.DUPLICATED_SECTION, "Duplicated section " + sectionID);
@@ -228,11 +269,25 @@ public class BinaryParser extends BinaryStreamParser {
                 case Section.DATA:
                     readDataSection(null, null);
                     break;
+                case Section.DATA_COUNT:
+                    readDataCountSection();
+                    break;
                 default:
                     fail(Failure.MALFORMED_SECTION_ID, "invalid section ID: " + sectionID);
             }
             assertIntEqual(offset - startOffset, size, String.format("Declared section (0x%02X) size is incorrect", sectionID), Failure.SECTION_SIZE_MISMATCH);
         }
+        if (module.symbolTable().dataSegmentCount() > 0) {
+            assertIntEqual(lastNonCustomSection, Section.DATA, "Data count section without data section", Failure.DATA_COUNT_MISMATCH);
+        }
+    }
+
+    /**
+     * The data count section has the highest section ID, but must be placed before the code
+     * section.
+     */
+    private static int sectionOrder(int sectionID) {
+        return sectionID == Section.DATA_COUNT ? 2 * Section.CODE - 1 : 2 * sectionID;
     }
 
     private void readCustomSection(int size) {
@@ -356,8 +411,8 @@ public class BinaryParser extends BinaryStreamParser {
                     break;
                 }
                 case ImportIdentifier.MEMORY: {
-                    readMemoryLimits(limitsResult);
-                    module.symbolTable().importMemory(moduleName, memberName, limitsResult[0], limitsResult[1]);
+                    final boolean shared = readMemoryLimits(limitsResult);
+                    module.symbolTable().importMemory(moduleName, memberName, limitsResult[0], limitsResult[1], shared);
                     break;
                 }
                 case ImportIdentifier.GLOBAL: {
@@ -402,11 +457,17 @@ public class BinaryParser extends BinaryStreamParser {
         // module, this loop should be executed at most once. `SymbolTable#allocateMemory` fails if
         // it is not the case.
         for (int i = 0; i != numMemories; ++i) {
-            readMemoryLimits(limitsResult);
-            module.symbolTable().allocateMemory(limitsResult[0], limitsResult[1]);
+            final boolean shared = readMemoryLimits(limitsResult);
+            module.symbolTable().allocateMemory(limitsResult[0], limitsResult[1], shared);
         }
     }
 
+    private void readDataCountSection() {
+        final int dataSegmentCount = readLength();
+        module.limits().checkDataSegmentCount(dataSegmentCount);
+        module.symbolTable().setDataSegmentCount(dataSegmentCount);
+    }
+
     private void skipCodeSection() {
         final int numImportedFunctions = module.importedFunctions().size();
         final int numCodeEntries = readLength();
@@ -422,27 +483,117 @@ public class BinaryParser extends BinaryStreamParser {
         }
     }
 
-    private void readCodeSection(WasmContext context, WasmInstance instance) {
-        final int numImportedFunctions = instance.module().importedFunctions().size();
+    private void readCodeSection(WasmContext context) {
+        final int numImportedFunctions = module.importedFunctions().size();
         final int numCodeEntries = readLength();
         final int expectedNumCodeEntries = module.numFunctions() - numImportedFunctions;
         // Already checked in skipCodeSection
         assert numCodeEntries == expectedNumCodeEntries;
+        if (WasmOptions.LazyFunctionParsing.getValue(context.environment().getOptions())) {
+            for (int entryIndex = 0; entryIndex != numCodeEntries; ++entryIndex) {
+                final int codeEntrySize = readUnsignedInt32();
+                // The locals and the size of the body were already validated in skipCodeSection.
+                createPendingCodeEntry(numImportedFunctions + entryIndex, offset, codeEntrySize);
+                offset += codeEntrySize;
+            }
+            return;
+        }
+        final int parsingThreads = parsingThreads(context);
         final WasmRootNode[] rootNodes = new WasmRootNode[numCodeEntries];
         for (int entry = 0; entry != numCodeEntries; ++entry) {
-            rootNodes[entry] = createCodeEntry(instance, numImportedFunctions + entry);
+            rootNodes[entry] = createCodeEntry(numImportedFunctions + entry);
+        }
+        if (parsingThreads > 1 && numCodeEntries > 1) {
+            readCodeEntriesInParallel(rootNodes, parsingThreads);
+            return;
         }
         for (int entryIndex = 0; entryIndex != numCodeEntries; ++entryIndex) {
             final int codeEntrySize = readUnsignedInt32();
             final int startOffset = offset;
-            readCodeEntry(instance, numImportedFunctions + entryIndex, rootNodes[entryIndex]);
+            readCodeEntry(numImportedFunctions + entryIndex, rootNodes[entryIndex]);
             assertIntEqual(offset - startOffset, codeEntrySize, String.format("Code entry %d size is incorrect", entryIndex), Failure.UNSPECIFIED_MALFORMED);
-            final int currentEntryIndex = entryIndex;
-            context.linker().resolveCodeEntry(module, currentEntryIndex);
         }
     }
 
-    private WasmRootNode createCodeEntry(WasmInstance instance, int funcIndex) {
+    private static int parsingThreads(WasmContext context) {
+        final int parsingThreads = WasmOptions.ParsingThreads.getValue(context.environment().getOptions());
+        return parsingThreads != 0 ? parsingThreads : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Reads the code entries in parallel. The calling thread and up to {@code parsingThreads - 1}
+     * tasks on the {@linkplain WasmLanguage#parsingPool() parsing pool} of the engine take the
+     * entries in code-section order until none is left. The calling thread then waits only for the
+     * entries that are still being decoded, so it does not depend on the pool having free workers.
+     * The failures are reported in the order of the code section: if several entries are invalid,
+     * the error of the first one is rethrown. An entry whose decoding overflows the stack of a
+     * worker thread is decoded again on the current thread.
+     */
+    private void readCodeEntriesInParallel(WasmRootNode[] rootNodes, int parsingThreads) {
+        final int numImportedFunctions = module.importedFunctions().size();
+        final int numCodeEntries = rootNodes.length;
+        final int[] startOffsets = new int[numCodeEntries];
+        final int[] sizes = new int[numCodeEntries];
+        for (int entryIndex = 0; entryIndex != numCodeEntries; ++entryIndex) {
+            sizes[entryIndex] = readUnsignedInt32();
+            startOffsets[entryIndex] = offset;
+            offset += sizes[entryIndex];
+        }
+
+        final boolean[] decoded = new boolean[numCodeEntries];
+        final Throwable[] failures = new Throwable[numCodeEntries];
+        final AtomicInteger nextEntry = new AtomicInteger();
+        final CountDownLatch remainingEntries = new CountDownLatch(numCodeEntries);
+        final Runnable decodeEntries = () -> {
+            for (int entryIndex = nextEntry.getAndIncrement(); entryIndex < numCodeEntries; entryIndex = nextEntry.getAndIncrement()) {
+                try {
+                    readCodeEntryAt(numImportedFunctions + entryIndex, rootNodes[entryIndex], startOffsets[entryIndex], sizes[entryIndex]);
+                    decoded[entryIndex] = true;
+                } catch (StackOverflowError e) {
+                    // Retried below.
+                } catch (Throwable e) {
+                    failures[entryIndex] = e;
+                } finally {
+                    remainingEntries.countDown();
+                }
+            }
+        };
+        final ForkJoinPool pool = language.parsingPool();
+        for (int task = 1; task < Math.min(parsingThreads, numCodeEntries); task++) {
+            pool.execute(decodeEntries);
+        }
+        decodeEntries.run();
+        try {
+            remainingEntries.await();
+        } catch (InterruptedException e) {
+            // The entries that are still being decoded are discarded with the module.
+            Thread.currentThread().interrupt();
+            throw WasmException.create(Failure.PARSING_INTERRUPTED, "Parallel parsing interrupted.");
+        }
+
+        for (int entryIndex = 0; entryIndex != numCodeEntries; ++entryIndex) {
+            final Throwable failure = failures[entryIndex];
+            if (failure instanceof RuntimeException) {
+                throw (RuntimeException) failure;
+            } else if (failure instanceof Error) {
+                throw (Error) failure;
+            } else if (failure != null) {
+                throw new RuntimeException(failure);
+            }
+            if (!decoded[entryIndex]) {
+                readCodeEntryAt(numImportedFunctions + entryIndex, rootNodes[entryIndex], startOffsets[entryIndex], sizes[entryIndex]);
+            }
+        }
+    }
+
+    private void readCodeEntryAt(int funcIndex, WasmRootNode rootNode, int startOffset, int size) {
+        final BinaryParser reader = new BinaryParser(language, module);
+        reader.offset = startOffset;
+        reader.readCodeEntry(funcIndex, rootNode);
+        assertIntEqual(reader.offset - startOffset, size, String.format("Code entry %d size is incorrect", funcIndex - module.importedFunctions().size()), Failure.UNSPECIFIED_MALFORMED);
+    }
+
+    private WasmRootNode createCodeEntry(int funcIndex) {
         final WasmFunction function = module.symbolTable().function(funcIndex);
         WasmCodeEntry codeEntry = new WasmCodeEntry(function, data);
         function.setCodeEntry(codeEntry);
@@ -452,14 +603,25 @@ public class BinaryParser extends BinaryStreamParser {
          * done before reading the body block, because we need to be able to create direct call
          * nodes {@see TruffleRuntime#createDirectCallNode} during parsing.
          */
-        WasmRootNode rootNode = new WasmRootNode(language, instance, codeEntry);
+        WasmRootNode rootNode = new WasmRootNode(language, module, codeEntry);
         RootCallTarget callTarget = Truffle.getRuntime().createCallTarget(rootNode);
-        instance.setTarget(funcIndex, callTarget);
+        function.setCallTarget(callTarget);
 
         return rootNode;
     }
 
-    private void readCodeEntry(WasmInstance instance, int funcIndex, WasmRootNode rootNode) {
+    /**
+     * Creates the code entry of a function whose root node and call target are only created when
+     * the call target is first requested, e.g. by the first call, and whose body is only decoded
+     * when it is first executed.
+     */
+    private void createPendingCodeEntry(int funcIndex, int bodyOffset, int bodySize) {
+        final WasmFunction function = module.symbolTable().function(funcIndex);
+        function.setCodeEntry(new WasmCodeEntry(function, data));
+        function.setPendingCallTarget(language, bodyOffset, bodySize);
+    }
+
+    private void readCodeEntry(int funcIndex, WasmRootNode rootNode) {
         /*
          * Initialise the code entry local variables (which contain the parameters and the locals).
          */
@@ -470,7 +632,7 @@ public class BinaryParser extends BinaryStreamParser {
         final byte returnTypeId = function.returnType();
         final int returnTypeLength = function.returnTypeLength();
         ExecutionState state = new ExecutionState();
-        WasmBlockNode bodyBlock = readBlockBody(instance, rootNode.codeEntry(), state, returnTypeId, false);
+        WasmBlockNode bodyBlock = readBlockBody(rootNode.codeEntry(), state, returnTypeId, false);
         assertIntEqual(state.stackSize(), returnTypeLength,
                         "Stack size must match the return type length at the function end", Failure.TYPE_MISMATCH);
         rootNode.setBody(bodyBlock);
@@ -481,7 +643,7 @@ public class BinaryParser extends BinaryStreamParser {
             rootNode.codeEntry().setBranchTables(state.branchTables());
         }
         rootNode.codeEntry().setProfileCount(state.profileCount());
-        rootNode.codeEntry().initStackLocals(rootNode.getFrameDescriptor(), state.maxStackSize());
+        rootNode.codeEntry().initStackLocals(rootNode.getFrameDescriptor(), state.maxStackSize(), state.usesVectors());
     }
 
     private ByteArrayList readCodeEntryLocals() {
@@ -509,26 +671,26 @@ public class BinaryParser extends BinaryStreamParser {
         codeEntry.setLocalTypes(allLocalTypes);
     }
 
-    private WasmBlockNode readBlock(WasmInstance instance, WasmCodeEntry codeEntry, ExecutionState state) {
+    private WasmBlockNode readBlock(WasmCodeEntry codeEntry, ExecutionState state) {
         byte blockTypeId = readBlockType();
-        final WasmBlockNode block = readBlockBody(instance, codeEntry, state, blockTypeId, false);
+        final WasmBlockNode block = readBlockBody(codeEntry, state, blockTypeId, false);
         Assert.assertIntLessOrEqual(block.returnLength(), 1, "A block cannot return more than one value", Failure.INVALID_RESULT_ARITY);
         return block;
     }
 
-    private LoopNode readLoop(WasmInstance instance, WasmCodeEntry codeEntry, ExecutionState state) {
+    private LoopNode readLoop(WasmCodeEntry codeEntry, ExecutionState state) {
         byte blockTypeId = readBlockType();
-        return readLoop(instance, codeEntry, state, blockTypeId);
+        return readLoop(codeEntry, state, blockTypeId);
     }
 
-    private WasmBlockNode readBlockBody(WasmInstance instance, WasmCodeEntry codeEntry, ExecutionState state, byte returnTypeId, boolean isLoopBody) {
+    private WasmBlockNode readBlockBody(WasmCodeEntry codeEntry, ExecutionState state, byte returnTypeId, boolean isLoopBody) {
         ArrayList<Node> children = new ArrayList<>();
         int startStackSize = state.stackSize();
         int startOffset = offset();
         int startIntConstantOffset = state.intConstantOffset();
         int startBranchTableOffset = state.branchTableOffset();
         int startProfileCount = state.profileCount();
-        final WasmBlockNode currentBlock = new WasmBlockNode(instance, codeEntry, startOffset, returnTypeId, startStackSize, startIntConstantOffset,
+        final WasmBlockNode currentBlock = new WasmBlockNode(module, codeEntry, startOffset, returnTypeId, startStackSize, startIntConstantOffset,
                         startBranchTableOffset, startProfileCount);
 
         state.startBlock(currentBlock, isLoopBody);
@@ -546,7 +708,7 @@ public class BinaryParser extends BinaryStreamParser {
                 case Instructions.BLOCK: {
                     // Store the reachability of the current block, to restore it later.
                     boolean reachable = state.isReachable();
-                    WasmBlockNode nestedBlock = readBlock(instance, codeEntry, state);
+                    WasmBlockNode nestedBlock = readBlock(codeEntry, state);
                     children.add(nestedBlock);
                     state.setReachable(reachable);
                     break;
@@ -554,7 +716,7 @@ public class BinaryParser extends BinaryStreamParser {
                 case Instructions.LOOP: {
                     // Store the reachability of the current block, to restore it later.
                     boolean reachable = state.isReachable();
-                    LoopNode loopBlock = readLoop(instance, codeEntry, state);
+                    LoopNode loopBlock = readLoop(codeEntry, state);
                     children.add(loopBlock);
                     state.setReachable(reachable);
                     break;
@@ -564,7 +726,7 @@ public class BinaryParser extends BinaryStreamParser {
                     state.popChecked(I32_TYPE);
                     // Store the reachability of the current block, to restore it later.
                     boolean reachable = state.isReachable();
-                    WasmIfNode ifNode = readIf(instance, codeEntry, state);
+                    WasmIfNode ifNode = readIf(codeEntry, state);
                     children.add(ifNode);
                     state.setReachable(reachable);
                     break;
@@ -653,17 +815,15 @@ public class BinaryParser extends BinaryStreamParser {
                         state.push(function.returnType());
                     }
 
-                    // We deliberately do not create the call node during parsing,
-                    // because the call target is only created after the code entry is parsed.
-                    // The code entry might not be yet parsed when we encounter this call.
-                    //
-                    // Furthermore, if the call target is imported from another module,
-                    // then that other module might not have been parsed yet.
-                    // Therefore, the call node will be created lazily during linking,
-                    // after the call target from the other module exists.
-                    children.add(new WasmCallStubNode(function));
-                    final int stubIndex = children.size() - 1;
-                    module.addLinkAction((context, inst) -> context.linker().resolveCallsite(inst, currentBlock, stubIndex, function));
+                    // The call targets of the functions defined in this module are created before
+                    // their bodies are read, and are shared by all the instances of the module.
+                    // The call target of an imported function depends on the instance, so it is
+                    // looked up when the call is executed.
+                    if (function.isImported()) {
+                        children.add(WasmIndirectCallNode.create());
+                    } else {
+                        children.add(Truffle.getRuntime().createDirectCallNode(function.callTarget()));
+                    }
 
                     break;
                 }
@@ -1043,6 +1203,15 @@ public class BinaryParser extends BinaryStreamParser {
                     state.popChecked(I64_TYPE);
                     state.push(F64_TYPE);
                     break;
+                case Instructions.MISC:
+                    readMiscInstruction(state);
+                    break;
+                case Instructions.VECTOR:
+                    readVectorInstruction(state);
+                    break;
+                case Instructions.ATOMIC:
+                    readAtomicInstruction(state);
+                    break;
                 default:
                     fail(Failure.UNSPECIFIED_MALFORMED, "Unknown opcode: 0x%02x", opcode);
                     break;
@@ -1058,6 +1227,446 @@ public class BinaryParser extends BinaryStreamParser {
         return currentBlock;
     }
 
+    private void readMiscInstruction(ExecutionState state) {
+        final int miscOpcode = readUnsignedInt32();
+        switch (miscOpcode) {
+            case MiscInstructions.MEMORY_INIT: {
+                readDataSegmentIndex();
+                final int flag = read1();
+                assertIntEqual(flag, 0, Failure.ZERO_FLAG_EXPECTED);
+                checkMemoryIndex(0);
+                state.popChecked(I32_TYPE); // length
+                state.popChecked(I32_TYPE); // source offset
+                state.popChecked(I32_TYPE); // destination address
+                break;
+            }
+            case MiscInstructions.DATA_DROP:
+                readDataSegmentIndex();
+                break;
+            case MiscInstructions.MEMORY_COPY: {
+                final int destinationFlag = read1();
+                assertIntEqual(destinationFlag, 0, Failure.ZERO_FLAG_EXPECTED);
+                final int sourceFlag = read1();
+                assertIntEqual(sourceFlag, 0, Failure.ZERO_FLAG_EXPECTED);
+                checkMemoryIndex(0);
+                state.popChecked(I32_TYPE); // length
+                state.popChecked(I32_TYPE); // source address
+                state.popChecked(I32_TYPE); // destination address
+                break;
+            }
+            case MiscInstructions.MEMORY_FILL: {
+                final int flag = read1();
+                assertIntEqual(flag, 0, Failure.ZERO_FLAG_EXPECTED);
+                checkMemoryIndex(0);
+                state.popChecked(I32_TYPE); // length
+                state.popChecked(I32_TYPE); // value
+                state.popChecked(I32_TYPE); // destination address
+                break;
+            }
+            default:
+                fail(Failure.ILLEGAL_OPCODE, "Unknown opcode: 0x%02x 0x%02x", Instructions.MISC, miscOpcode);
+        }
+    }
+
+    private void readAtomicInstruction(ExecutionState state) {
+        final int atomicOpcode = readUnsignedInt32();
+        switch (atomicOpcode) {
+            case AtomicInstructions.MEMORY_ATOMIC_NOTIFY:
+                readAtomicMemoryArgument(4);
+                state.popChecked(I32_TYPE); // count
+                state.popChecked(I32_TYPE); // address
+                state.push(I32_TYPE);
+                break;
+            case AtomicInstructions.MEMORY_ATOMIC_WAIT32:
+                readAtomicMemoryArgument(4);
+                state.popChecked(I64_TYPE); // timeout
+                state.popChecked(I32_TYPE); // expected value
+                state.popChecked(I32_TYPE); // address
+                state.push(I32_TYPE);
+                break;
+            case AtomicInstructions.MEMORY_ATOMIC_WAIT64:
+                readAtomicMemoryArgument(8);
+                state.popChecked(I64_TYPE); // timeout
+                state.popChecked(I64_TYPE); // expected value
+                state.popChecked(I32_TYPE); // address
+                state.push(I32_TYPE);
+                break;
+            case AtomicInstructions.ATOMIC_FENCE: {
+                final int flag = read1();
+                assertIntEqual(flag, 0, Failure.ZERO_FLAG_EXPECTED);
+                break;
+            }
+            default: {
+                if (atomicOpcode < AtomicInstructions.I32_ATOMIC_LOAD || atomicOpcode > AtomicInstructions.I64_ATOMIC_RMW32_CMPXCHG_U) {
+                    fail(Failure.ILLEGAL_OPCODE, "Unknown opcode: 0x%02x 0x%02x", Instructions.ATOMIC, atomicOpcode);
+                }
+                readAtomicMemoryArgument(AtomicInstructions.accessWidth(atomicOpcode));
+                final byte type = AtomicInstructions.isI64Access(atomicOpcode) ? I64_TYPE : I32_TYPE;
+                if (atomicOpcode <= AtomicInstructions.I64_ATOMIC_LOAD32_U) {
+                    state.popChecked(I32_TYPE); // address
+                    state.push(type);
+                } else if (atomicOpcode <= AtomicInstructions.I64_ATOMIC_STORE32) {
+                    state.popChecked(type); // value to store
+                    state.popChecked(I32_TYPE); // address
+                } else if (atomicOpcode <= AtomicInstructions.I64_ATOMIC_RMW32_XCHG_U) {
+                    state.popChecked(type); // operand
+                    state.popChecked(I32_TYPE); // address
+                    state.push(type);
+                } else {
+                    state.popChecked(type); // replacement value
+                    state.popChecked(type); // expected value
+                    state.popChecked(I32_TYPE); // address
+                    state.push(type);
+                }
+                break;
+            }
+        }
+    }
+
+    private void readAtomicMemoryArgument(int width) {
+        assertTrue(module.symbolTable().memoryExists(), Failure.UNKNOWN_MEMORY);
+        // Unlike for other memory accesses, the alignment of atomic accesses must be exactly the
+        // natural alignment.
+        final int align = readUnsignedInt32();
+        assertIntEqual(align, Integer.numberOfTrailingZeros(width), Failure.ATOMIC_ALIGNMENT_NOT_NATURAL);
+        readUnsignedInt32(); // offset
+    }
+
+    private void readVectorInstruction(ExecutionState state) {
+        final int vectorOpcode = readUnsignedInt32();
+        switch (vectorOpcode) {
+            case VectorInstructions.V128_LOAD:
+                load(state, V128_TYPE, 128);
+                break;
+            case VectorInstructions.V128_LOAD8X8_S:
+            case VectorInstructions.V128_LOAD8X8_U:
+            case VectorInstructions.V128_LOAD16X4_S:
+            case VectorInstructions.V128_LOAD16X4_U:
+            case VectorInstructions.V128_LOAD32X2_S:
+            case VectorInstructions.V128_LOAD32X2_U:
+            case VectorInstructions.V128_LOAD64_SPLAT:
+            case VectorInstructions.V128_LOAD64_ZERO:
+                load(state, V128_TYPE, 64);
+                break;
+            case VectorInstructions.V128_LOAD8_SPLAT:
+                load(state, V128_TYPE, 8);
+                break;
+            case VectorInstructions.V128_LOAD16_SPLAT:
+                load(state, V128_TYPE, 16);
+                break;
+            case VectorInstructions.V128_LOAD32_SPLAT:
+            case VectorInstructions.V128_LOAD32_ZERO:
+                load(state, V128_TYPE, 32);
+                break;
+            case VectorInstructions.V128_STORE:
+                store(state, V128_TYPE, 128);
+                break;
+            case VectorInstructions.V128_LOAD8_LANE:
+                readLaneMemoryAccess(state, 8, true);
+                break;
+            case VectorInstructions.V128_LOAD16_LANE:
+                readLaneMemoryAccess(state, 16, true);
+                break;
+            case VectorInstructions.V128_LOAD32_LANE:
+                readLaneMemoryAccess(state, 32, true);
+                break;
+            case VectorInstructions.V128_LOAD64_LANE:
+                readLaneMemoryAccess(state, 64, true);
+                break;
+            case VectorInstructions.V128_STORE8_LANE:
+                readLaneMemoryAccess(state, 8, false);
+                break;
+            case VectorInstructions.V128_STORE16_LANE:
+                readLaneMemoryAccess(state, 16, false);
+                break;
+            case VectorInstructions.V128_STORE32_LANE:
+                readLaneMemoryAccess(state, 32, false);
+                break;
+            case VectorInstructions.V128_STORE64_LANE:
+                readLaneMemoryAccess(state, 64, false);
+                break;
+            case VectorInstructions.V128_CONST:
+                for (int i = 0; i < 16; i++) {
+                    read1();
+                }
+                state.push(V128_TYPE);
+                break;
+            case VectorInstructions.I8X16_SHUFFLE:
+                for (int i = 0; i < 16; i++) {
+                    readLaneIndex(32);
+                }
+                state.popChecked(V128_TYPE);
+                state.popChecked(V128_TYPE);
+                state.push(V128_TYPE);
+                break;
+            case VectorInstructions.I8X16_SPLAT:
+            case VectorInstructions.I16X8_SPLAT:
+            case VectorInstructions.I32X4_SPLAT:
+                state.popChecked(I32_TYPE);
+                state.push(V128_TYPE);
+                break;
+            case VectorInstructions.I64X2_SPLAT:
+                state.popChecked(I64_TYPE);
+                state.push(V128_TYPE);
+                break;
+            case VectorInstructions.F32X4_SPLAT:
+                state.popChecked(F32_TYPE);
+                state.push(V128_TYPE);
+                break;
+            case VectorInstructions.F64X2_SPLAT:
+                state.popChecked(F64_TYPE);
+                state.push(V128_TYPE);
+                break;
+            case VectorInstructions.I8X16_EXTRACT_LANE_S:
+            case VectorInstructions.I8X16_EXTRACT_LANE_U:
+                readExtractLane(state, 16, I32_TYPE);
+                break;
+            case VectorInstructions.I16X8_EXTRACT_LANE_S:
+            case VectorInstructions.I16X8_EXTRACT_LANE_U:
+                readExtractLane(state, 8, I32_TYPE);
+                break;
+            case VectorInstructions.I32X4_EXTRACT_LANE:
+                readExtractLane(state, 4, I32_TYPE);
+                break;
+            case VectorInstructions.I64X2_EXTRACT_LANE:
+                readExtractLane(state, 2, I64_TYPE);
+                break;
+            case VectorInstructions.F32X4_EXTRACT_LANE:
+                readExtractLane(state, 4, F32_TYPE);
+                break;
+            case VectorInstructions.F64X2_EXTRACT_LANE:
+                readExtractLane(state, 2, F64_TYPE);
+                break;
+            case VectorInstructions.I8X16_REPLACE_LANE:
+                readReplaceLane(state, 16, I32_TYPE);
+                break;
+            case VectorInstructions.I16X8_REPLACE_LANE:
+                readReplaceLane(state, 8, I32_TYPE);
+                break;
+            case VectorInstructions.I32X4_REPLACE_LANE:
+                readReplaceLane(state, 4, I32_TYPE);
+                break;
+            case VectorInstructions.I64X2_REPLACE_LANE:
+                readReplaceLane(state, 2, I64_TYPE);
+                break;
+            case VectorInstructions.F32X4_REPLACE_LANE:
+                readReplaceLane(state, 4, F32_TYPE);
+                break;
+            case VectorInstructions.F64X2_REPLACE_LANE:
+                readReplaceLane(state, 2, F64_TYPE);
+                break;
+            case VectorInstructions.V128_NOT:
+            case VectorInstructions.I8X16_ABS:
+            case VectorInstructions.I8X16_NEG:
+            case VectorInstructions.I8X16_POPCNT:
+            case VectorInstructions.I16X8_EXTADD_PAIRWISE_I8X16_S:
+            case VectorInstructions.I16X8_EXTADD_PAIRWISE_I8X16_U:
+            case VectorInstructions.I32X4_EXTADD_PAIRWISE_I16X8_S:
+            case VectorInstructions.I32X4_EXTADD_PAIRWISE_I16X8_U:
+            case VectorInstructions.I16X8_ABS:
+            case VectorInstructions.I16X8_NEG:
+            case VectorInstructions.I16X8_EXTEND_LOW_I8X16_S:
+            case VectorInstructions.I16X8_EXTEND_HIGH_I8X16_S:
+            case VectorInstructions.I16X8_EXTEND_LOW_I8X16_U:
+            case VectorInstructions.I16X8_EXTEND_HIGH_I8X16_U:
+            case VectorInstructions.I32X4_ABS:
+            case VectorInstructions.I32X4_NEG:
+            case VectorInstructions.I32X4_EXTEND_LOW_I16X8_S:
+            case VectorInstructions.I32X4_EXTEND_HIGH_I16X8_S:
+            case VectorInstructions.I32X4_EXTEND_LOW_I16X8_U:
+            case VectorInstructions.I32X4_EXTEND_HIGH_I16X8_U:
+            case VectorInstructions.I64X2_ABS:
+            case VectorInstructions.I64X2_NEG:
+            case VectorInstructions.I64X2_EXTEND_LOW_I32X4_S:
+            case VectorInstructions.I64X2_EXTEND_HIGH_I32X4_S:
+            case VectorInstructions.I64X2_EXTEND_LOW_I32X4_U:
+            case VectorInstructions.I64X2_EXTEND_HIGH_I32X4_U:
+            case VectorInstructions.F32X4_ABS:
+            case VectorInstructions.F32X4_NEG:
+            case VectorInstructions.F32X4_SQRT:
+            case VectorInstructions.F32X4_CEIL:
+            case VectorInstructions.F32X4_FLOOR:
+            case VectorInstructions.F32X4_TRUNC:
+            case VectorInstructions.F32X4_NEAREST:
+            case VectorInstructions.F64X2_ABS:
+            case VectorInstructions.F64X2_NEG:
+            case VectorInstructions.F64X2_SQRT:
+            case VectorInstructions.F64X2_CEIL:
+            case VectorInstructions.F64X2_FLOOR:
+            case VectorInstructions.F64X2_TRUNC:
+            case VectorInstructions.F64X2_NEAREST:
+            case VectorInstructions.I32X4_TRUNC_SAT_F32X4_S:
+            case VectorInstructions.I32X4_TRUNC_SAT_F32X4_U:
+            case VectorInstructions.F32X4_CONVERT_I32X4_S:
+            case VectorInstructions.F32X4_CONVERT_I32X4_U:
+            case VectorInstructions.I32X4_TRUNC_SAT_F64X2_S_ZERO:
+            case VectorInstructions.I32X4_TRUNC_SAT_F64X2_U_ZERO:
+            case VectorInstructions.F64X2_CONVERT_LOW_I32X4_S:
+            case VectorInstructions.F64X2_CONVERT_LOW_I32X4_U:
+            case VectorInstructions.F32X4_DEMOTE_F64X2_ZERO:
+            case VectorInstructions.F64X2_PROMOTE_LOW_F32X4:
+                state.popChecked(V128_TYPE);
+                state.push(V128_TYPE);
+                break;
+            case VectorInstructions.V128_ANY_TRUE:
+            case VectorInstructions.I8X16_ALL_TRUE:
+            case VectorInstructions.I8X16_BITMASK:
+            case VectorInstructions.I16X8_ALL_TRUE:
+            case VectorInstructions.I16X8_BITMASK:
+            case VectorInstructions.I32X4_ALL_TRUE:
+            case VectorInstructions.I32X4_BITMASK:
+            case VectorInstructions.I64X2_ALL_TRUE:
+            case VectorInstructions.I64X2_BITMASK:
+                state.popChecked(V128_TYPE);
+                state.push(I32_TYPE);
+                break;
+            case VectorInstructions.I8X16_SHL:
+            case VectorInstructions.I8X16_SHR_S:
+            case VectorInstructions.I8X16_SHR_U:
+            case VectorInstructions.I16X8_SHL:
+            case VectorInstructions.I16X8_SHR_S:
+            case VectorInstructions.I16X8_SHR_U:
+            case VectorInstructions.I32X4_SHL:
+            case VectorInstructions.I32X4_SHR_S:
+            case VectorInstructions.I32X4_SHR_U:
+            case VectorInstructions.I64X2_SHL:
+            case VectorInstructions.I64X2_SHR_S:
+            case VectorInstructions.I64X2_SHR_U:
+                state.popChecked(I32_TYPE); // shift count
+                state.popChecked(V128_TYPE);
+                state.push(V128_TYPE);
+                break;
+            case VectorInstructions.V128_BITSELECT:
+                state.popChecked(V128_TYPE); // mask
+                state.popChecked(V128_TYPE);
+                state.popChecked(V128_TYPE);
+                state.push(V128_TYPE);
+                break;
+            default:
+                if (!isVectorBinaryOperation(vectorOpcode)) {
+                    fail(Failure.ILLEGAL_OPCODE, "Unknown opcode: 0x%02x 0x%02x", Instructions.VECTOR, vectorOpcode);
+                }
+                state.popChecked(V128_TYPE);
+                state.popChecked(V128_TYPE);
+                state.push(V128_TYPE);
+                break;
+        }
+    }
+
+    private static boolean isVectorBinaryOperation(int vectorOpcode) {
+        switch (vectorOpcode) {
+            case VectorInstructions.I8X16_SWIZZLE:
+            case VectorInstructions.V128_AND:
+            case VectorInstructions.V128_ANDNOT:
+            case VectorInstructions.V128_OR:
+            case VectorInstructions.V128_XOR:
+            case VectorInstructions.I8X16_NARROW_I16X8_S:
+            case VectorInstructions.I8X16_NARROW_I16X8_U:
+            case VectorInstructions.I8X16_ADD:
+            case VectorInstructions.I8X16_ADD_SAT_S:
+            case VectorInstructions.I8X16_ADD_SAT_U:
+            case VectorInstructions.I8X16_SUB:
+            case VectorInstructions.I8X16_SUB_SAT_S:
+            case VectorInstructions.I8X16_SUB_SAT_U:
+            case VectorInstructions.I8X16_MIN_S:
+            case VectorInstructions.I8X16_MIN_U:
+            case VectorInstructions.I8X16_MAX_S:
+            case VectorInstructions.I8X16_MAX_U:
+            case VectorInstructions.I8X16_AVGR_U:
+            case VectorInstructions.I16X8_NARROW_I32X4_S:
+            case VectorInstructions.I16X8_NARROW_I32X4_U:
+            case VectorInstructions.I16X8_ADD:
+            case VectorInstructions.I16X8_ADD_SAT_S:
+            case VectorInstructions.I16X8_ADD_SAT_U:
+            case VectorInstructions.I16X8_SUB:
+            case VectorInstructions.I16X8_SUB_SAT_S:
+            case VectorInstructions.I16X8_SUB_SAT_U:
+            case VectorInstructions.I16X8_MUL:
+            case VectorInstructions.I16X8_MIN_S:
+            case VectorInstructions.I16X8_MIN_U:
+            case VectorInstructions.I16X8_MAX_S:
+            case VectorInstructions.I16X8_MAX_U:
+            case VectorInstructions.I16X8_AVGR_U:
+            case VectorInstructions.I16X8_Q15MULR_SAT_S:
+            case VectorInstructions.I16X8_EXTMUL_LOW_I8X16_S:
+            case VectorInstructions.I16X8_EXTMUL_HIGH_I8X16_S:
+            case VectorInstructions.I16X8_EXTMUL_LOW_I8X16_U:
+            case VectorInstructions.I16X8_EXTMUL_HIGH_I8X16_U:
+            case VectorInstructions.I32X4_ADD:
+            case VectorInstructions.I32X4_SUB:
+            case VectorInstructions.I32X4_MUL:
+            case VectorInstructions.I32X4_MIN_S:
+            case VectorInstructions.I32X4_MIN_U:
+            case VectorInstructions.I32X4_MAX_S:
+            case VectorInstructions.I32X4_MAX_U:
+            case VectorInstructions.I32X4_DOT_I16X8_S:
+            case VectorInstructions.I32X4_EXTMUL_LOW_I16X8_S:
+            case VectorInstructions.I32X4_EXTMUL_HIGH_I16X8_S:
+            case VectorInstructions.I32X4_EXTMUL_LOW_I16X8_U:
+            case VectorInstructions.I32X4_EXTMUL_HIGH_I16X8_U:
+            case VectorInstructions.I64X2_ADD:
+            case VectorInstructions.I64X2_SUB:
+            case VectorInstructions.I64X2_MUL:
+            case VectorInstructions.I64X2_EQ:
+            case VectorInstructions.I64X2_NE:
+            case VectorInstructions.I64X2_LT_S:
+            case VectorInstructions.I64X2_GT_S:
+            case VectorInstructions.I64X2_LE_S:
+            case VectorInstructions.I64X2_GE_S:
+            case VectorInstructions.I64X2_EXTMUL_LOW_I32X4_S:
+            case VectorInstructions.I64X2_EXTMUL_HIGH_I32X4_S:
+            case VectorInstructions.I64X2_EXTMUL_LOW_I32X4_U:
+            case VectorInstructions.I64X2_EXTMUL_HIGH_I32X4_U:
+            case VectorInstructions.F32X4_ADD:
+            case VectorInstructions.F32X4_SUB:
+            case VectorInstructions.F32X4_MUL:
+            case VectorInstructions.F32X4_DIV:
+            case VectorInstructions.F32X4_MIN:
+            case VectorInstructions.F32X4_MAX:
+            case VectorInstructions.F32X4_PMIN:
+            case VectorInstructions.F32X4_PMAX:
+            case VectorInstructions.F64X2_ADD:
+            case VectorInstructions.F64X2_SUB:
+            case VectorInstructions.F64X2_MUL:
+            case VectorInstructions.F64X2_DIV:
+            case VectorInstructions.F64X2_MIN:
+            case VectorInstructions.F64X2_MAX:
+            case VectorInstructions.F64X2_PMIN:
+            case VectorInstructions.F64X2_PMAX:
+                return true;
+            default:
+                // All lane comparisons, except for those of i64x2, have consecutive opcodes.
+                return vectorOpcode >= VectorInstructions.I8X16_EQ && vectorOpcode <= VectorInstructions.F64X2_GE;
+        }
+    }
+
+    private int readLaneIndex(int laneCount) {
+        final int lane = read1() & 0xFF;
+        assertUnsignedIntLess(lane, laneCount, Failure.INVALID_LANE_INDEX);
+        return lane;
+    }
+
+    private void readExtractLane(ExecutionState state, int laneCount, byte laneType) {
+        readLaneIndex(laneCount);
+        state.popChecked(V128_TYPE);
+        state.push(laneType);
+    }
+
+    private void readReplaceLane(ExecutionState state, int laneCount, byte laneType) {
+        readLaneIndex(laneCount);
+        state.popChecked(laneType); // lane value
+        state.popChecked(V128_TYPE);
+        state.push(V128_TYPE);
+    }
+
+    private int readDataSegmentIndex() {
+        final int dataSegmentCount = module.symbolTable().dataSegmentCount();
+        assertTrue(dataSegmentCount != -1, Failure.DATA_COUNT_SECTION_REQUIRED);
+        final int index = readUnsignedInt32();
+        assertUnsignedIntLess(index, dataSegmentCount, Failure.UNKNOWN_DATA_SEGMENT);
+        return index;
+    }
+
     private void store(ExecutionState state, byte type, int n) {
         assertTrue(module.symbolTable().memoryExists(), Failure.UNKNOWN_MEMORY);
 
@@ -1070,6 +1679,21 @@ public class BinaryParser extends BinaryStreamParser {
         state.popChecked(I32_TYPE); // base address
     }
 
+    private void readLaneMemoryAccess(ExecutionState state, int n, boolean isLoad) {
+        assertTrue(module.symbolTable().memoryExists(), Failure.UNKNOWN_MEMORY);
+
+        // The memory argument is followed by the lane index, which the execution reads
+        // after skipping the align hint and the offset.
+        readAlignHint(n); // align hint
+        readUnsignedInt32(); // offset
+        readLaneIndex(128 / n);
+        state.popChecked(V128_TYPE); // vector whose lane is loaded or stored
+        state.popChecked(I32_TYPE); // base address
+        if (isLoad) {
+            state.push(V128_TYPE);
+        }
+    }
+
     private void load(ExecutionState state, byte type, int n) {
         assertTrue(module.symbolTable().memoryExists(), Failure.UNKNOWN_MEMORY);
 
@@ -1089,20 +1713,20 @@ public class BinaryParser extends BinaryStreamParser {
         return list.toArray(new Node[list.size()]);
     }
 
-    private LoopNode readLoop(WasmInstance instance, WasmCodeEntry codeEntry, ExecutionState state, byte returnTypeId) {
-        WasmBlockNode loopBlock = readBlockBody(instance, codeEntry, state, returnTypeId, true);
+    private LoopNode readLoop(WasmCodeEntry codeEntry, ExecutionState state, byte returnTypeId) {
+        WasmBlockNode loopBlock = readBlockBody(codeEntry, state, returnTypeId, true);
         Assert.assertIntEqual(loopBlock.inputLength(), 0, "A loop should not have parameters", Failure.LOOP_INPUT);
         return Truffle.getRuntime().createLoopNode(loopBlock);
     }
 
-    private WasmIfNode readIf(WasmInstance instance, WasmCodeEntry codeEntry, ExecutionState state) {
+    private WasmIfNode readIf(WasmCodeEntry codeEntry, ExecutionState state) {
         byte blockTypeId = readBlockType();
         // Note: the condition value was already popped at this point.
         int stackSizeAfterCondition = state.stackSize();
 
         // Read true branch.
         int startOffset = offset();
-        WasmBlockNode trueBranchBlock = readBlockBody(instance, codeEntry, state, blockTypeId, false);
+        WasmBlockNode trueBranchBlock = readBlockBody(codeEntry, state, blockTypeId, false);
 
         // Discard values returned by the then branch if any.
         state.unwindStack(stackSizeAfterCondition);
@@ -1110,12 +1734,12 @@ public class BinaryParser extends BinaryStreamParser {
         // Read false branch, if it exists.
         WasmBlockNode falseBranchBlock = null;
         if (peek1(-1) == Instructions.ELSE) {
-            falseBranchBlock = readBlockBody(instance, codeEntry, state, blockTypeId, false);
+            falseBranchBlock = readBlockBody(codeEntry, state, blockTypeId, false);
         } else if (blockTypeId != WasmType.VOID_TYPE) {
             fail(Failure.TYPE_MISMATCH, "An if statement without an else branch block cannot return values.");
         }
         int stackSizeBeforeCondition = stackSizeAfterCondition + 1;
-        return new WasmIfNode(instance, codeEntry, trueBranchBlock, falseBranchBlock, offset() - startOffset, blockTypeId, stackSizeBeforeCondition);
+        return new WasmIfNode(module, codeEntry, trueBranchBlock, falseBranchBlock, offset() - startOffset, blockTypeId, stackSizeBeforeCondition);
     }
 
     private void readElementSection(WasmContext linkedContext, WasmInstance linkedInstance) {
@@ -1228,6 +1852,7 @@ public class BinaryParser extends BinaryStreamParser {
             // 0x00 means const, 0x01 means var
             final byte mutability = readMutability();
             long value = 0;
+            long valueHigh = 0;
             int existingIndex = -1;
             final byte instruction = read1();
             boolean isInitialized;
@@ -1254,6 +1879,13 @@ public class BinaryParser extends BinaryStreamParser {
                     value = readFloatAsInt64();
                     isInitialized = true;
                     break;
+                case Instructions.VECTOR:
+                    assertIntEqual(readUnsignedInt32(), VectorInstructions.V128_CONST, Failure.TYPE_MISMATCH);
+                    assertByteEqual(type, V128_TYPE, Failure.TYPE_MISMATCH);
+                    value = read8();
+                    valueHigh = read8();
+                    isInitialized = true;
+                    break;
                 case Instructions.GLOBAL_GET:
                     existingIndex = readGlobalIndex();
                     assertUnsignedIntLess(existingIndex, module.symbolTable().importedGlobals().size(), Failure.UNKNOWN_GLOBAL);
@@ -1269,11 +1901,15 @@ public class BinaryParser extends BinaryStreamParser {
             final int currentGlobalIndex = globalIndex;
             final int currentExistingIndex = existingIndex;
             final long currentValue = value;
+            final long currentValueHigh = valueHigh;
             module.addLinkAction((context, instance) -> {
                 final GlobalRegistry globals = context.globals();
                 final int address = instance.globalAddress(currentGlobalIndex);
                 if (isInitialized) {
                     globals.storeLong(address, currentValue);
+                    if (type == V128_TYPE) {
+                        globals.storeVectorHigh(address, currentValueHigh);
+                    }
                     context.linker().resolveGlobalInitialization(instance, currentGlobalIndex);
                 } else {
                     if (!module.symbolTable().importedGlobals().containsKey(currentExistingIndex)) {
@@ -1291,8 +1927,27 @@ public class BinaryParser extends BinaryStreamParser {
     private void readDataSection(WasmContext linkedContext, WasmInstance linkedInstance) {
         final int numDataSegments = readLength();
         module.limits().checkDataSegmentCount(numDataSegments);
+        final int declaredDataSegmentCount = module.symbolTable().dataSegmentCount();
+        if (declaredDataSegmentCount != -1) {
+            assertIntEqual(numDataSegments, declaredDataSegmentCount, Failure.DATA_COUNT_MISMATCH);
+        }
         for (int dataSegmentId = 0; dataSegmentId != numDataSegments; ++dataSegmentId) {
-            readMemoryIndex();
+            final int mode = readUnsignedInt32();
+            if (mode == DataSegmentMode.PASSIVE) {
+                final byte[] dataSegment = readDataSegmentBytes(readLength());
+                if (linkedInstance != null) {
+                    linkedInstance.setDataInstance(dataSegmentId, dataSegment);
+                } else {
+                    final int currentDataSegmentId = dataSegmentId;
+                    module.addLinkAction((context, instance) -> instance.setDataInstance(currentDataSegmentId, dataSegment));
+                }
+                continue;
+            } else if (mode == DataSegmentMode.ACTIVE_WITH_MEMORY_INDEX) {
+                readMemoryIndex();
+            } else {
+                assertIntEqual(mode, DataSegmentMode.ACTIVE, "Invalid data segment mode", Failure.UNSPECIFIED_MALFORMED);
+                checkMemoryIndex(0);
+            }
 
             // Data dataOffset expression must be a constant expression with result type i32.
             // https://webassembly.github.io/spec/core/syntax/modules.html#data-segments
@@ -1333,17 +1988,12 @@ public class BinaryParser extends BinaryStreamParser {
                 Assert.assertUnsignedIntLessOrEqual(offsetAddress, memory.byteSize(), Failure.DATA_SEGMENT_DOES_NOT_FIT);
                 Assert.assertUnsignedIntLessOrEqual(offsetAddress + byteLength, memory.byteSize(), Failure.DATA_SEGMENT_DOES_NOT_FIT);
 
-                for (int writeOffset = 0; writeOffset != byteLength; ++writeOffset) {
-                    final byte b = read1();
-                    memory.store_i32_8(null, offsetAddress + writeOffset, b);
-                }
+                assertUnsignedIntLessOrEqual(offset + byteLength, data.length, Failure.UNEXPECTED_END);
+                memory.initialize(null, data, offset, offsetAddress, byteLength);
+                offset += byteLength;
             } else {
                 // Reading of the data segment occurs during parsing, so add a linker action.
-                final byte[] dataSegment = new byte[byteLength];
-                for (int writeOffset = 0; writeOffset != byteLength; ++writeOffset) {
-                    byte b = read1();
-                    dataSegment[writeOffset] = b;
-                }
+                final byte[] dataSegment = readDataSegmentBytes(byteLength);
                 final int currentDataSegmentId = dataSegmentId;
                 final int currentOffsetAddress = offsetAddress;
                 final int currentOffsetGlobalIndex = offsetGlobalIndex;
@@ -1353,6 +2003,13 @@ public class BinaryParser extends BinaryStreamParser {
         }
     }
 
+    private byte[] readDataSegmentBytes(int byteLength) {
+        assertUnsignedIntLessOrEqual(offset + byteLength, data.length, Failure.UNEXPECTED_END);
+        final byte[] dataSegment = Arrays.copyOfRange(data, offset, offset + byteLength);
+        offset += byteLength;
+        return dataSegment;
+    }
+
     private void readFunctionType() {
         int paramsLength = readLength();
         int resultLength = value(peekUnsignedInt32AndLength(data, offset + paramsLength));
@@ -1460,33 +2117,48 @@ public class BinaryParser extends BinaryStreamParser {
     }
 
     private void readTableLimits(int[] out) {
-        readLimits(out, MAX_TABLE_DECLARATION_SIZE);
+        readLimits(out, MAX_TABLE_DECLARATION_SIZE, false);
         assertUnsignedIntLessOrEqual(out[0], out[1], Failure.LIMIT_MINIMUM_GREATER_THAN_MAXIMUM);
     }
 
-    private void readMemoryLimits(int[] out) {
-        readLimits(out, MAX_MEMORY_DECLARATION_SIZE);
+    /**
+     * Reads the limits of a memory into {@code out}, and returns whether the memory is shared.
+     */
+    private boolean readMemoryLimits(int[] out) {
+        final boolean shared = readLimits(out, MAX_MEMORY_DECLARATION_SIZE, true);
         assertUnsignedIntLessOrEqual(out[0], MAX_MEMORY_DECLARATION_SIZE, Failure.MEMORY_SIZE_LIMIT_EXCEEDED);
         assertUnsignedIntLessOrEqual(out[1], MAX_MEMORY_DECLARATION_SIZE, Failure.MEMORY_SIZE_LIMIT_EXCEEDED);
         assertUnsignedIntLessOrEqual(out[0], out[1], Failure.LIMIT_MINIMUM_GREATER_THAN_MAXIMUM);
+        return shared;
     }
 
-    private void readLimits(int[] out, int max) {
+    private boolean readLimits(int[] out, int max, boolean allowShared) {
         final byte limitsPrefix = readLimitsPrefix();
         switch (limitsPrefix) {
             case LimitsPrefix.NO_MAX: {
                 out[0] = readUnsignedInt32();
                 out[1] = max;
-                break;
+                return false;
             }
             case LimitsPrefix.WITH_MAX: {
                 out[0] = readUnsignedInt32();
                 out[1] = readUnsignedInt32();
-                break;
+                return false;
             }
-            default:
-                fail(Failure.UNSPECIFIED_MALFORMED, String.format("Invalid limits prefix (expected 0x00 or 0x01, got 0x%02X", limitsPrefix));
+            case LimitsPrefix.SHARED_NO_MAX:
+                if (allowShared) {
+                    throw fail(Failure.SHARED_MEMORY_WITHOUT_MAXIMUM, "Shared memories must declare a maximum size");
+                }
+                break;
+            case LimitsPrefix.SHARED_WITH_MAX:
+                if (allowShared) {
+                    out[0] = readUnsignedInt32();
+                    out[1] = readUnsignedInt32();
+                    return true;
+                }
+                break;
         }
+        throw fail(Failure.UNSPECIFIED_MALFORMED, String.format("Invalid limits prefix (expected 0x00 or 0x01, got 0x%02X", limitsPrefix));
     }
 
     private byte readLimitsPrefix() {
@@ -62,6 +62,11 @@ public class ExecutionState {
      */
     private int maxStackSize;
 
+    /**
+     * Whether a {@code v128} value was ever pushed on the stack during this execution.
+     */
+    private boolean usesVectors;
+
     /**
      * Stack size at the beginning of each parent block.
      */
@@ -108,6 +113,7 @@ public class ExecutionState {
     public void push(byte type) {
         stack.push(type);
         maxStackSize = Math.max(stack.size(), maxStackSize);
+        usesVectors |= type == WasmType.V128_TYPE;
     }
 
     public byte pop() {
@@ -211,6 +217,10 @@ public class ExecutionState {
         return maxStackSize;
     }
 
+    public boolean usesVectors() {
+        return usesVectors;
+    }
+
     public int intConstantOffset() {
         return intConstants.size();
     }
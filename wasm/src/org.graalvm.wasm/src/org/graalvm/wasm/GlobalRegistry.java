@@ -51,7 +51,8 @@ import org.graalvm.wasm.exception.WasmException;
 /**
  * The global registry holds the global values in the WebAssembly engine instance.
  *
- * Global values that are declared in some WebAssembly module are stored in an array of longs.
+ * Global values that are declared in some WebAssembly module are stored in an array of longs. A
+ * {@code v128} global takes two consecutive elements, the low 64 bits are stored at its address.
  * Global values can also be external objects that are accessed via Interop -- such globals are
  * stored inside an array of objects, and their addresses are negative.
  */
@@ -102,6 +103,15 @@ public class GlobalRegistry {
         return idx;
     }
 
+    /**
+     * Allocates a {@code v128} global, whose high 64 bits are stored after its low 64 bits.
+     */
+    public int allocateVectorGlobal() {
+        final int idx = allocateGlobal();
+        allocateGlobal();
+        return idx;
+    }
+
     public int allocateExternalGlobal(Object object) {
         ensureExternalGlobalCapacity();
         externalGlobals[externalGlobalCount] = object;
@@ -134,6 +144,15 @@ public class GlobalRegistry {
         return globals[address];
     }
 
+    /**
+     * Loads the high 64 bits of a {@code v128} global. The low 64 bits are loaded with
+     * {@link #loadAsLong}. External globals cannot have the type {@code v128}.
+     */
+    public long loadVectorHigh(int address) {
+        assert address >= 0 : "External v128 global at address " + address;
+        return globals[address + 1];
+    }
+
     public float loadAsFloat(int address) {
         if (address < 0) {
             final Object global = externalGlobals[-address - 1];
@@ -184,6 +203,11 @@ public class GlobalRegistry {
         }
     }
 
+    public void storeVectorHigh(int address, long value) {
+        assert address >= 0 : "External v128 global at address " + address;
+        globals[address + 1] = value;
+    }
+
     public void storeFloat(int address, float value) {
         if (address < 0) {
             final Object global = externalGlobals[-address - 1];
@@ -52,7 +52,6 @@ import org.graalvm.wasm.constants.GlobalModifier;
 import org.graalvm.wasm.exception.Failure;
 import org.graalvm.wasm.exception.WasmException;
 import org.graalvm.wasm.memory.WasmMemory;
-import org.graalvm.wasm.nodes.WasmBlockNode;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -64,8 +63,6 @@ import java.util.function.BiConsumer;
 import static org.graalvm.wasm.Assert.assertTrue;
 import static org.graalvm.wasm.Assert.assertUnsignedIntGreaterOrEqual;
 import static org.graalvm.wasm.Assert.assertUnsignedIntLessOrEqual;
-import static org.graalvm.wasm.Linker.ResolutionDag.CallsiteSym;
-import static org.graalvm.wasm.Linker.ResolutionDag.CodeEntrySym;
 import static org.graalvm.wasm.Linker.ResolutionDag.ElemSym;
 import static org.graalvm.wasm.Linker.ResolutionDag.ExportFunctionSym;
 import static org.graalvm.wasm.Linker.ResolutionDag.ExportGlobalSym;
@@ -102,18 +99,21 @@ public class Linker {
         if (instance.isLinkFailed()) {
             // If the linking of this module failed already, then throw.
             throw WasmException.format(Failure.UNSPECIFIED_UNLINKABLE, "Linking of module %s previously failed.", instance.module());
-        } else if (instance.isNonLinked()) {
-            // TODO: Once we support multi-threading, add adequate synchronization here.
+        } else if (!instance.isLinkCompleted()) {
+            // Another thread may be linking this instance, in which case we wait until it is done.
             tryLinkOutsidePartialEvaluation(instance);
             CompilerDirectives.transferToInterpreterAndInvalidate();
         }
     }
 
     @CompilerDirectives.TruffleBoundary
-    private void tryLinkOutsidePartialEvaluation(WasmInstance entryPointInstance) {
-        // Some Truffle configurations allow that the code gets compiled before executing the code.
+    private synchronized void tryLinkOutsidePartialEvaluation(WasmInstance entryPointInstance) {
+        // Some Truffle configurations allow that the code gets compiled before executing the code,
+        // and other threads may have linked the instance in the meantime.
         // We therefore check the link state again.
-        if (entryPointInstance.isNonLinked()) {
+        if (entryPointInstance.isLinkFailed()) {
+            throw WasmException.format(Failure.UNSPECIFIED_UNLINKABLE, "Linking of module %s previously failed.", entryPointInstance.module());
+        } else if (entryPointInstance.isNonLinked()) {
             final WasmContext context = WasmContext.getCurrent();
             Map<String, WasmInstance> instances = context.moduleInstances();
             ArrayList<Throwable> failures = new ArrayList<>();
@@ -125,7 +125,7 @@ public class Linker {
                     instance.module().setParsed();
                 }
             }
-            runStartFunctions(instances, failures);
+            runStartFunctions(context, instances, failures);
             checkFailures(failures);
         }
     }
@@ -156,21 +156,14 @@ public class Linker {
     }
 
     private static void assignTypeEquivalenceClasses() {
-        final Map<String, WasmInstance> instances = WasmContext.getCurrent().moduleInstances();
-        final Map<FunctionType, Integer> equivalenceClasses = new HashMap<>();
-        int nextEquivalenceClass = SymbolTable.FIRST_EQUIVALENCE_CLASS;
+        final WasmContext context = WasmContext.getCurrent();
+        final Map<String, WasmInstance> instances = context.moduleInstances();
         for (WasmInstance instance : instances.values()) {
             if (instance.isLinkInProgress() && !instance.module().isParsed()) {
                 final SymbolTable symtab = instance.symbolTable();
                 for (int index = 0; index < symtab.typeCount(); index++) {
                     FunctionType type = symtab.typeAt(index);
-                    Integer equivalenceClass = equivalenceClasses.get(type);
-                    if (equivalenceClass == null) {
-                        equivalenceClass = nextEquivalenceClass;
-                        equivalenceClasses.put(type, equivalenceClass);
-                        nextEquivalenceClass++;
-                    }
-                    symtab.setEquivalenceClass(index, equivalenceClass);
+                    symtab.setEquivalenceClass(index, context.language().equivalenceClass(type));
                 }
                 for (int index = 0; index < symtab.numFunctions(); index++) {
                     final WasmFunction function = symtab.function(index);
@@ -180,13 +173,26 @@ public class Linker {
         }
     }
 
-    private static void runStartFunctions(Map<String, WasmInstance> instances, ArrayList<Throwable> failures) {
+    private static void runStartFunctions(WasmContext context, Map<String, WasmInstance> instances, ArrayList<Throwable> failures) {
         for (WasmInstance instance : instances.values()) {
             if (instance.isLinkInProgress()) {
                 try {
-                    final WasmFunction start = instance.symbolTable().startFunction();
-                    if (start != null) {
-                        instance.target(start.index()).call();
+                    final WasmInstanceSnapshot snapshot = instance.snapshot();
+                    if (snapshot != null) {
+                        snapshot.restore(context, instance);
+                    } else if (WasmOptions.InstanceSnapshots.getValue(context.environment().getOptions()) && WasmInstanceSnapshot.canCapture(instance.module())) {
+                        // The initialization function of a WASI reactor is run here as well, so
+                        // that its effects are part of the snapshot.
+                        final WasmFunction initialize = WasmInstanceSnapshot.initializationFunction(instance.module());
+                        instance.target(initialize.index()).call();
+                        if (instance.module().snapshot() == null) {
+                            captureSnapshot(context, instance);
+                        }
+                    } else {
+                        final WasmFunction start = instance.symbolTable().startFunction();
+                        if (start != null) {
+                            instance.target(start.index()).call();
+                        }
                     }
                     instance.setLinkCompleted();
                 } catch (Throwable e) {
@@ -197,6 +203,14 @@ public class Linker {
         }
     }
 
+    private static void captureSnapshot(WasmContext context, WasmInstance instance) {
+        final WasmInstanceSnapshot snapshot = WasmInstanceSnapshot.capture(context, instance);
+        if (snapshot != null) {
+            instance.module().setSnapshot(snapshot);
+            snapshot.store(context, instance.module());
+        }
+    }
+
     private static void checkFailures(ArrayList<Throwable> failures) {
         if (!failures.isEmpty()) {
             final Throwable first = failures.get(0);
@@ -249,10 +263,10 @@ public class Linker {
         resolutionDag.resolveLater(new InitializeGlobalSym(instance.name(), globalIndex), new Sym[]{importGlobalSym}, NO_RESOLVE_ACTION);
     }
 
-    void resolveGlobalExport(WasmModule module, String globalName, int globalIndex) {
+    void resolveGlobalExport(WasmInstance instance, String globalName, int globalIndex) {
         final Sym[] dependencies;
-        dependencies = new Sym[]{new InitializeGlobalSym(module.name(), globalIndex)};
-        resolutionDag.resolveLater(new ExportGlobalSym(module.name(), globalName), dependencies, NO_RESOLVE_ACTION);
+        dependencies = new Sym[]{new InitializeGlobalSym(instance.name(), globalIndex)};
+        resolutionDag.resolveLater(new ExportGlobalSym(instance.name(), globalName), dependencies, NO_RESOLVE_ACTION);
     }
 
     void resolveGlobalInitialization(WasmInstance instance, int globalIndex) {
@@ -266,6 +280,9 @@ public class Linker {
             final long sourceValue = context.globals().loadAsLong(sourceAddress);
             final int address = instance.globalAddress(globalIndex);
             context.globals().storeLong(address, sourceValue);
+            if (instance.symbolTable().globalValueType(globalIndex) == WasmType.V128_TYPE) {
+                context.globals().storeVectorHigh(address, context.globals().loadVectorHigh(sourceAddress));
+            }
         };
         final Sym[] dependencies = new Sym[]{new InitializeGlobalSym(instance.name(), sourceGlobalIndex)};
         resolutionDag.resolveLater(new InitializeGlobalSym(instance.name(), globalIndex), dependencies, resolveAction);
@@ -296,24 +313,13 @@ public class Linker {
         resolutionDag.resolveLater(new ImportFunctionSym(instance.name(), function.importDescriptor(), function.index()), dependencies, resolveAction);
     }
 
-    void resolveFunctionExport(WasmModule module, int functionIndex, String exportedFunctionName) {
-        final ImportDescriptor importDescriptor = module.symbolTable().function(functionIndex).importDescriptor();
-        final Sym[] dependencies = (importDescriptor != null) ? new Sym[]{new ImportFunctionSym(module.name(), importDescriptor, functionIndex)} : ResolutionDag.NO_DEPENDENCIES;
-        resolutionDag.resolveLater(new ExportFunctionSym(module.name(), exportedFunctionName), dependencies, NO_RESOLVE_ACTION);
+    void resolveFunctionExport(WasmInstance instance, int functionIndex, String exportedFunctionName) {
+        final ImportDescriptor importDescriptor = instance.symbolTable().function(functionIndex).importDescriptor();
+        final Sym[] dependencies = (importDescriptor != null) ? new Sym[]{new ImportFunctionSym(instance.name(), importDescriptor, functionIndex)} : ResolutionDag.NO_DEPENDENCIES;
+        resolutionDag.resolveLater(new ExportFunctionSym(instance.name(), exportedFunctionName), dependencies, NO_RESOLVE_ACTION);
     }
 
-    void resolveCallsite(WasmInstance instance, WasmBlockNode block, int controlTableOffset, WasmFunction function) {
-        final Runnable resolveAction = () -> block.resolveCallNode(controlTableOffset);
-        final Sym[] dependencies = new Sym[]{
-                        function.isImported() ? new ImportFunctionSym(instance.name(), function.importDescriptor(), function.index()) : new CodeEntrySym(instance.name(), function.index())};
-        resolutionDag.resolveLater(new CallsiteSym(instance.name(), block.startOfset(), controlTableOffset), dependencies, resolveAction);
-    }
-
-    void resolveCodeEntry(WasmModule module, int functionIndex) {
-        resolutionDag.resolveLater(new CodeEntrySym(module.name(), functionIndex), ResolutionDag.NO_DEPENDENCIES, NO_RESOLVE_ACTION);
-    }
-
-    void resolveMemoryImport(WasmContext context, WasmInstance instance, ImportDescriptor importDescriptor, int declaredMinSize, int declaredMaxSize) {
+    void resolveMemoryImport(WasmContext context, WasmInstance instance, ImportDescriptor importDescriptor, int declaredMinSize, int declaredMaxSize, boolean shared) {
         final String importedModuleName = importDescriptor.moduleName;
         final String importedMemoryName = importDescriptor.memberName;
         final Runnable resolveAction = () -> {
@@ -339,16 +345,18 @@ public class Linker {
             // MAX_TABLE_DECLARATION_SIZE, so this condition will pass.
             assertUnsignedIntLessOrEqual(declaredMinSize, memory.declaredMinSize(), Failure.INCOMPATIBLE_IMPORT_TYPE);
             assertUnsignedIntGreaterOrEqual(declaredMaxSize, memory.declaredMaxSize(), Failure.INCOMPATIBLE_IMPORT_TYPE);
+            // Built-in modules such as WASI use the memory of the main module whether it is shared
+            // or not.
+            assertTrue(shared == memory.isShared() || instance.module().isBuiltin(), Failure.INCOMPATIBLE_IMPORT_TYPE);
             instance.setMemory(memory);
         };
         resolutionDag.resolveLater(new ImportMemorySym(instance.name(), importDescriptor), new Sym[]{new ExportMemorySym(importedModuleName, importedMemoryName)}, resolveAction);
     }
 
     void resolveMemoryExport(WasmInstance instance, String exportedMemoryName) {
-        WasmModule module = instance.module();
-        final ImportDescriptor importDescriptor = module.symbolTable().importedMemory();
-        final Sym[] dependencies = importDescriptor != null ? new Sym[]{new ImportMemorySym(module.name(), importDescriptor)} : ResolutionDag.NO_DEPENDENCIES;
-        resolutionDag.resolveLater(new ExportMemorySym(module.name(), exportedMemoryName), dependencies, () -> {
+        final ImportDescriptor importDescriptor = instance.symbolTable().importedMemory();
+        final Sym[] dependencies = importDescriptor != null ? new Sym[]{new ImportMemorySym(instance.name(), importDescriptor)} : ResolutionDag.NO_DEPENDENCIES;
+        resolutionDag.resolveLater(new ExportMemorySym(instance.name(), exportedMemoryName), dependencies, () -> {
         });
     }
 
@@ -371,9 +379,9 @@ public class Linker {
             Assert.assertUnsignedIntLessOrEqual(baseAddress, memory.byteSize(), Failure.DATA_SEGMENT_DOES_NOT_FIT);
             Assert.assertUnsignedIntLessOrEqual(baseAddress + byteLength, memory.byteSize(), Failure.DATA_SEGMENT_DOES_NOT_FIT);
 
-            for (int writeOffset = 0; writeOffset != byteLength; ++writeOffset) {
-                byte b = data[writeOffset];
-                memory.store_i32_8(null, baseAddress + writeOffset, b);
+            // The memory image of a snapshot already contains the data segments.
+            if (instance.snapshot() == null) {
+                memory.initialize(null, data, 0, baseAddress, byteLength);
             }
         };
         final ArrayList<Sym> dependencies = new ArrayList<>();
@@ -421,10 +429,10 @@ public class Linker {
         resolutionDag.resolveLater(new ImportTableSym(instance.name(), importDescriptor), dependencies, resolveAction);
     }
 
-    void resolveTableExport(WasmModule module, String exportedTableName) {
-        final ImportDescriptor importDescriptor = module.symbolTable().importedTable();
-        final Sym[] dependencies = importDescriptor != null ? new Sym[]{new ImportTableSym(module.name(), importDescriptor)} : ResolutionDag.NO_DEPENDENCIES;
-        resolutionDag.resolveLater(new ExportTableSym(module.name(), exportedTableName), dependencies, NO_RESOLVE_ACTION);
+    void resolveTableExport(WasmInstance instance, String exportedTableName) {
+        final ImportDescriptor importDescriptor = instance.symbolTable().importedTable();
+        final Sym[] dependencies = importDescriptor != null ? new Sym[]{new ImportTableSym(instance.name(), importDescriptor)} : ResolutionDag.NO_DEPENDENCIES;
+        resolutionDag.resolveLater(new ExportTableSym(instance.name(), exportedTableName), dependencies, NO_RESOLVE_ACTION);
     }
 
     void resolveElemSegment(WasmContext context, WasmInstance instance, int elemSegmentId, int offsetAddress, int offsetGlobalIndex, int[] functionsIndices) {
@@ -646,64 +654,6 @@ public class Linker {
             }
         }
 
-        static class CallsiteSym extends Sym {
-            final int instructionOffset;
-            final int controlTableOffset;
-
-            CallsiteSym(String moduleName, int instructionOffset, int controlTableOffset) {
-                super(moduleName);
-                this.instructionOffset = instructionOffset;
-                this.controlTableOffset = controlTableOffset;
-            }
-
-            @Override
-            public String toString() {
-                return String.format("(callsite at %d in %s)", instructionOffset, moduleName);
-            }
-
-            @Override
-            public int hashCode() {
-                return moduleName.hashCode() ^ instructionOffset ^ (controlTableOffset << 16);
-            }
-
-            @Override
-            public boolean equals(Object object) {
-                if (!(object instanceof CallsiteSym)) {
-                    return false;
-                }
-                final CallsiteSym that = (CallsiteSym) object;
-                return this.instructionOffset == that.instructionOffset && this.controlTableOffset == that.controlTableOffset && this.moduleName.equals(that.moduleName);
-            }
-        }
-
-        static class CodeEntrySym extends Sym {
-            final int functionIndex;
-
-            CodeEntrySym(String moduleName, int functionIndex) {
-                super(moduleName);
-                this.functionIndex = functionIndex;
-            }
-
-            @Override
-            public String toString() {
-                return String.format("(code entry at %d in %s)", functionIndex, moduleName);
-            }
-
-            @Override
-            public int hashCode() {
-                return moduleName.hashCode() ^ functionIndex;
-            }
-
-            @Override
-            public boolean equals(Object object) {
-                if (!(object instanceof CodeEntrySym)) {
-                    return false;
-                }
-                final CodeEntrySym that = (CodeEntrySym) object;
-                return this.functionIndex == that.functionIndex && this.moduleName.equals(that.moduleName);
-            }
-        }
-
         static class ImportMemorySym extends Sym {
             final ImportDescriptor importDescriptor;
 
@@ -45,6 +45,8 @@ import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import org.graalvm.wasm.memory.WasmMemory;
 
+import java.util.Arrays;
+
 /**
  * Represents the state of a WebAssembly module.
  */
@@ -87,7 +89,25 @@ public class RuntimeState {
      */
     @CompilationFinal private WasmMemory memory;
 
-    @CompilationFinal private Linker.LinkState linkState;
+    /**
+     * The contents of the passive data segments of this module, indexed by data segment index.
+     *
+     * Active data segments and dropped passive data segments are represented by {@code null},
+     * which behaves like an empty segment.
+     */
+    private byte[][] dataInstances;
+
+    /**
+     * The snapshot from which this instance is initialized when it is linked, instead of running
+     * the data segments and the start function, or {@code null}.
+     */
+    private WasmInstanceSnapshot snapshot;
+
+    /**
+     * Volatile, because threads that find this instance linked must also see the state that was
+     * written by the thread that linked it.
+     */
+    @CompilationFinal private volatile Linker.LinkState linkState;
 
     private void ensureGlobalsCapacity(int index) {
         while (index >= globalAddresses.length) {
@@ -173,7 +193,26 @@ public class RuntimeState {
     }
 
     public CallTarget target(int index) {
-        return targets[index];
+        final CallTarget target = targets[index];
+        if (target == null) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            return resolveTarget(index);
+        }
+        return target;
+    }
+
+    /**
+     * Sets the call target of a function of this module whose call target was not created when
+     * the module was instantiated (see {@link WasmOptions#LazyFunctionParsing}). All threads set
+     * the same call target.
+     */
+    @CompilerDirectives.TruffleBoundary
+    private CallTarget resolveTarget(int index) {
+        final CallTarget target = symbolTable().function(index).callTarget();
+        if (target != null) {
+            targets[index] = target;
+        }
+        return target;
     }
 
     public void setTarget(int index, CallTarget target) {
@@ -210,4 +249,36 @@ public class RuntimeState {
         checkNotLinked();
         this.memory = memory;
     }
+
+    public byte[] dataInstance(int index) {
+        return dataInstances == null ? null : dataInstances[index];
+    }
+
+    void setDataInstance(int index, byte[] data) {
+        if (dataInstances == null) {
+            dataInstances = new byte[symbolTable().dataSegmentCount() != -1 ? symbolTable().dataSegmentCount() : index + 1][];
+        } else if (index >= dataInstances.length) {
+            dataInstances = Arrays.copyOf(dataInstances, index + 1);
+        }
+        dataInstances[index] = data;
+    }
+
+    int dataInstanceCount() {
+        return dataInstances == null ? 0 : dataInstances.length;
+    }
+
+    public void dropDataInstance(int index) {
+        if (dataInstances != null) {
+            dataInstances[index] = null;
+        }
+    }
+
+    public WasmInstanceSnapshot snapshot() {
+        return snapshot;
+    }
+
+    void setSnapshot(WasmInstanceSnapshot snapshot) {
+        checkNotLinked();
+        this.snapshot = snapshot;
+    }
 }
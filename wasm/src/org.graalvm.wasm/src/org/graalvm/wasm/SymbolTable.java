@@ -162,9 +162,15 @@ public abstract class SymbolTable {
          */
         public final int maximumSize;
 
-        public MemoryInfo(int initialSize, int maximumSize) {
+        /**
+         * Whether the memory may be accessed by multiple threads at the same time.
+         */
+        public final boolean shared;
+
+        public MemoryInfo(int initialSize, int maximumSize, boolean shared) {
             this.initialSize = initialSize;
             this.maximumSize = maximumSize;
+            this.shared = shared;
         }
     }
 
@@ -311,6 +317,12 @@ public abstract class SymbolTable {
      */
     private final ArrayList<String> exportedMemoryNames;
 
+    /**
+     * The number of data segments declared in the data count section, or -1 if the module has no
+     * data count section.
+     */
+    @CompilationFinal private int dataSegmentCount;
+
     /**
      * List of all custom sections.
      */
@@ -341,6 +353,7 @@ public abstract class SymbolTable {
         this.memory = null;
         this.importedMemoryDescriptor = null;
         this.exportedMemoryNames = new ArrayList<>();
+        this.dataSegmentCount = -1;
         this.customSections = new ArrayList<>();
     }
 
@@ -596,7 +609,7 @@ public abstract class SymbolTable {
         exportSymbol(exportName);
         exportedFunctions.put(exportName, functions[functionIndex]);
         exportedFunctionsByIndex.put(functionIndex, exportName);
-        module().addLinkAction((context, instance) -> context.linker().resolveFunctionExport(module(), functionIndex, exportName));
+        module().addLinkAction((context, instance) -> context.linker().resolveFunctionExport(instance, functionIndex, exportName));
     }
 
     public Map<String, WasmFunction> exportedFunctions() {
@@ -670,6 +683,9 @@ public abstract class SymbolTable {
             final Object descriptor = lib.readMember(global, "descriptor");
             final byte valueType = ValueType.parse((String) lib.readMember(descriptor, "value")).byteValue();
             final byte mutability = (byte) ((boolean) lib.readMember(descriptor, "mutable") ? GlobalModifier.MUTABLE : GlobalModifier.CONSTANT);
+            if (valueType == WasmType.V128_TYPE) {
+                throw WasmException.create(Failure.EXTERNAL_VECTOR_GLOBAL_NOT_SUPPORTED);
+            }
             allocateGlobal(index, valueType, mutability);
             module().addLinkAction((context, instance) -> {
                 final GlobalRegistry globals = context.globals();
@@ -685,7 +701,7 @@ public abstract class SymbolTable {
         allocateGlobal(index, valueType, mutability);
         module().addLinkAction((context, instance) -> {
             final GlobalRegistry globals = context.globals();
-            final int address = globals.allocateGlobal();
+            final int address = valueType == WasmType.V128_TYPE ? globals.allocateVectorGlobal() : globals.allocateGlobal();
             instance.setGlobalAddress(index, address);
         });
     }
@@ -757,7 +773,7 @@ public abstract class SymbolTable {
         exportSymbol(name);
         globalTypes[index] |= GLOBAL_EXPORT_BIT;
         exportedGlobals.put(name, index);
-        module().addLinkAction((context, instance) -> context.linker().resolveGlobalExport(instance.module(), name, index));
+        module().addLinkAction((context, instance) -> context.linker().resolveGlobalExport(instance, name, index));
     }
 
     public void declareExportedExternalGlobal(String name, int index, Object global) {
@@ -824,7 +840,7 @@ public abstract class SymbolTable {
             throw WasmException.create(Failure.UNSPECIFIED_INVALID, "No table has been declared or imported, so a table cannot be exported.");
         }
         exportedTableNames.add(name);
-        module().addLinkAction((context, instance) -> context.linker().resolveTableExport(module(), name));
+        module().addLinkAction((context, instance) -> context.linker().resolveTableExport(instance, name));
     }
 
     int tableCount() {
@@ -840,17 +856,25 @@ public abstract class SymbolTable {
         return exportedTableNames;
     }
 
-    public void allocateMemory(int declaredMinSize, int declaredMaxSize) {
+    public void allocateMemory(int declaredMinSize, int declaredMaxSize, boolean shared) {
         checkNotParsed();
         validateSingleMemory();
-        memory = new MemoryInfo(declaredMinSize, declaredMaxSize);
+        memory = new MemoryInfo(declaredMinSize, declaredMaxSize, shared);
         module().addLinkAction((context, instance) -> {
             final int initialSize = declaredMinSize;
             final int maxAllowedSize = minUnsigned(declaredMaxSize, module().limits().memoryInstanceSizeLimit());
             assert compareUnsigned(initialSize, maxAllowedSize) <= 0; // Tested when reading limits
             final WasmMemory wasmMemory;
-            if (context.environment().getOptions().get(WasmOptions.UseUnsafeMemory)) {
-                wasmMemory = new UnsafeWasmMemory(declaredMinSize, declaredMaxSize, maxAllowedSize);
+            if (shared && !context.environment().getOptions().get(WasmOptions.Threads)) {
+                throw WasmException.create(Failure.UNSPECIFIED_INVALID, String.format("Module '%s' declares a shared memory, which requires the option wasm.Threads.", module().name()));
+            }
+            if (shared) {
+                // Shared memories must keep their address when they grow.
+                wasmMemory = new UnsafeWasmMemory(declaredMinSize, declaredMaxSize, maxAllowedSize, true);
+            } else if (context.environment().getOptions().get(WasmOptions.UseUnsafeMemory)) {
+                final int reservationSize = context.environment().getOptions().get(WasmOptions.UnsafeMemoryReservationSize);
+                final int reservedSize = reservationSize > 0 ? reservationSize : maxAllowedSize;
+                wasmMemory = new UnsafeWasmMemory(declaredMinSize, declaredMaxSize, maxAllowedSize, reservedSize, false);
             } else {
                 wasmMemory = new ByteArrayWasmMemory(declaredMinSize, declaredMaxSize, maxAllowedSize);
             }
@@ -863,7 +887,7 @@ public abstract class SymbolTable {
     public void allocateExternalMemory(WasmMemory externalMemory) {
         checkNotParsed();
         validateSingleMemory();
-        memory = new MemoryInfo(externalMemory.declaredMinSize(), externalMemory.declaredMaxSize());
+        memory = new MemoryInfo(externalMemory.declaredMinSize(), externalMemory.declaredMaxSize(), externalMemory.isShared());
         module().addLinkAction((context, instance) -> {
             final int memoryIndex = context.memories().registerExternal(externalMemory);
             final WasmMemory allocatedMemory = context.memories().memory(memoryIndex);
@@ -871,12 +895,12 @@ public abstract class SymbolTable {
         });
     }
 
-    public void importMemory(String moduleName, String memoryName, int initSize, int maxSize) {
+    public void importMemory(String moduleName, String memoryName, int initSize, int maxSize, boolean shared) {
         checkNotParsed();
         validateSingleMemory();
         importedMemoryDescriptor = new ImportDescriptor(moduleName, memoryName, ImportIdentifier.MEMORY);
         importSymbol(importedMemoryDescriptor);
-        module().addLinkAction((context, instance) -> context.linker().resolveMemoryImport(context, instance, importedMemoryDescriptor, initSize, maxSize));
+        module().addLinkAction((context, instance) -> context.linker().resolveMemoryImport(context, instance, importedMemoryDescriptor, initSize, maxSize, shared));
     }
 
     private void validateSingleMemory() {
@@ -920,6 +944,15 @@ public abstract class SymbolTable {
         return exportedMemoryNames;
     }
 
+    void setDataSegmentCount(int count) {
+        checkNotParsed();
+        dataSegmentCount = count;
+    }
+
+    public int dataSegmentCount() {
+        return dataSegmentCount;
+    }
+
     void allocateCustomSection(String name, int offset, int length) {
         customSections.add(new WasmCustomSection(name, offset, length));
     }
@@ -0,0 +1,814 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.graalvm.wasm;
+
+import static org.graalvm.wasm.constants.VectorInstructions.F32X4_ABS;
+import static org.graalvm.wasm.constants.VectorInstructions.F32X4_ADD;
+import static org.graalvm.wasm.constants.VectorInstructions.F32X4_CEIL;
+import static org.graalvm.wasm.constants.VectorInstructions.F32X4_CONVERT_I32X4_S;
+import static org.graalvm.wasm.constants.VectorInstructions.F32X4_CONVERT_I32X4_U;
+import static org.graalvm.wasm.constants.VectorInstructions.F32X4_DEMOTE_F64X2_ZERO;
+import static org.graalvm.wasm.constants.VectorInstructions.F32X4_DIV;
+import static org.graalvm.wasm.constants.VectorInstructions.F32X4_EQ;
+import static org.graalvm.wasm.constants.VectorInstructions.F32X4_FLOOR;
+import static org.graalvm.wasm.constants.VectorInstructions.F32X4_GE;
+import static org.graalvm.wasm.constants.VectorInstructions.F32X4_GT;
+import static org.graalvm.wasm.constants.VectorInstructions.F32X4_LE;
+import static org.graalvm.wasm.constants.VectorInstructions.F32X4_LT;
+import static org.graalvm.wasm.constants.VectorInstructions.F32X4_MAX;
+import static org.graalvm.wasm.constants.VectorInstructions.F32X4_MIN;
+import static org.graalvm.wasm.constants.VectorInstructions.F32X4_MUL;
+import static org.graalvm.wasm.constants.VectorInstructions.F32X4_NE;
+import static org.graalvm.wasm.constants.VectorInstructions.F32X4_NEAREST;
+import static org.graalvm.wasm.constants.VectorInstructions.F32X4_NEG;
+import static org.graalvm.wasm.constants.VectorInstructions.F32X4_PMAX;
+import static org.graalvm.wasm.constants.VectorInstructions.F32X4_PMIN;
+import static org.graalvm.wasm.constants.VectorInstructions.F32X4_SQRT;
+import static org.graalvm.wasm.constants.VectorInstructions.F32X4_SUB;
+import static org.graalvm.wasm.constants.VectorInstructions.F32X4_TRUNC;
+import static org.graalvm.wasm.constants.VectorInstructions.F64X2_ABS;
+import static org.graalvm.wasm.constants.VectorInstructions.F64X2_ADD;
+import static org.graalvm.wasm.constants.VectorInstructions.F64X2_CEIL;
+import static org.graalvm.wasm.constants.VectorInstructions.F64X2_CONVERT_LOW_I32X4_S;
+import static org.graalvm.wasm.constants.VectorInstructions.F64X2_CONVERT_LOW_I32X4_U;
+import static org.graalvm.wasm.constants.VectorInstructions.F64X2_DIV;
+import static org.graalvm.wasm.constants.VectorInstructions.F64X2_EQ;
+import static org.graalvm.wasm.constants.VectorInstructions.F64X2_FLOOR;
+import static org.graalvm.wasm.constants.VectorInstructions.F64X2_GE;
+import static org.graalvm.wasm.constants.VectorInstructions.F64X2_GT;
+import static org.graalvm.wasm.constants.VectorInstructions.F64X2_LE;
+import static org.graalvm.wasm.constants.VectorInstructions.F64X2_LT;
+import static org.graalvm.wasm.constants.VectorInstructions.F64X2_MAX;
+import static org.graalvm.wasm.constants.VectorInstructions.F64X2_MIN;
+import static org.graalvm.wasm.constants.VectorInstructions.F64X2_MUL;
+import static org.graalvm.wasm.constants.VectorInstructions.F64X2_NE;
+import static org.graalvm.wasm.constants.VectorInstructions.F64X2_NEAREST;
+import static org.graalvm.wasm.constants.VectorInstructions.F64X2_NEG;
+import static org.graalvm.wasm.constants.VectorInstructions.F64X2_PMAX;
+import static org.graalvm.wasm.constants.VectorInstructions.F64X2_PMIN;
+import static org.graalvm.wasm.constants.VectorInstructions.F64X2_PROMOTE_LOW_F32X4;
+import static org.graalvm.wasm.constants.VectorInstructions.F64X2_SQRT;
+import static org.graalvm.wasm.constants.VectorInstructions.F64X2_SUB;
+import static org.graalvm.wasm.constants.VectorInstructions.F64X2_TRUNC;
+import static org.graalvm.wasm.constants.VectorInstructions.I16X8_ABS;
+import static org.graalvm.wasm.constants.VectorInstructions.I16X8_EQ;
+import static org.graalvm.wasm.constants.VectorInstructions.I16X8_EXTADD_PAIRWISE_I8X16_S;
+import static org.graalvm.wasm.constants.VectorInstructions.I16X8_EXTADD_PAIRWISE_I8X16_U;
+import static org.graalvm.wasm.constants.VectorInstructions.I16X8_NARROW_I32X4_S;
+import static org.graalvm.wasm.constants.VectorInstructions.I16X8_Q15MULR_SAT_S;
+import static org.graalvm.wasm.constants.VectorInstructions.I32X4_ABS;
+import static org.graalvm.wasm.constants.VectorInstructions.I32X4_DOT_I16X8_S;
+import static org.graalvm.wasm.constants.VectorInstructions.I32X4_EQ;
+import static org.graalvm.wasm.constants.VectorInstructions.I32X4_EXTADD_PAIRWISE_I16X8_S;
+import static org.graalvm.wasm.constants.VectorInstructions.I32X4_EXTADD_PAIRWISE_I16X8_U;
+import static org.graalvm.wasm.constants.VectorInstructions.I32X4_TRUNC_SAT_F32X4_S;
+import static org.graalvm.wasm.constants.VectorInstructions.I32X4_TRUNC_SAT_F32X4_U;
+import static org.graalvm.wasm.constants.VectorInstructions.I32X4_TRUNC_SAT_F64X2_S_ZERO;
+import static org.graalvm.wasm.constants.VectorInstructions.I32X4_TRUNC_SAT_F64X2_U_ZERO;
+import static org.graalvm.wasm.constants.VectorInstructions.I64X2_ABS;
+import static org.graalvm.wasm.constants.VectorInstructions.I64X2_ADD;
+import static org.graalvm.wasm.constants.VectorInstructions.I64X2_EQ;
+import static org.graalvm.wasm.constants.VectorInstructions.I64X2_GE_S;
+import static org.graalvm.wasm.constants.VectorInstructions.I64X2_GT_S;
+import static org.graalvm.wasm.constants.VectorInstructions.I64X2_LE_S;
+import static org.graalvm.wasm.constants.VectorInstructions.I64X2_LT_S;
+import static org.graalvm.wasm.constants.VectorInstructions.I64X2_MUL;
+import static org.graalvm.wasm.constants.VectorInstructions.I64X2_NE;
+import static org.graalvm.wasm.constants.VectorInstructions.I64X2_NEG;
+import static org.graalvm.wasm.constants.VectorInstructions.I64X2_SHL;
+import static org.graalvm.wasm.constants.VectorInstructions.I64X2_SHR_S;
+import static org.graalvm.wasm.constants.VectorInstructions.I64X2_SUB;
+import static org.graalvm.wasm.constants.VectorInstructions.I8X16_EQ;
+import static org.graalvm.wasm.constants.VectorInstructions.I8X16_NARROW_I16X8_S;
+import static org.graalvm.wasm.constants.VectorInstructions.I8X16_NARROW_I16X8_U;
+import static org.graalvm.wasm.constants.VectorInstructions.I8X16_POPCNT;
+import static org.graalvm.wasm.constants.VectorInstructions.V128_AND;
+import static org.graalvm.wasm.constants.VectorInstructions.V128_ANDNOT;
+import static org.graalvm.wasm.constants.VectorInstructions.V128_NOT;
+import static org.graalvm.wasm.constants.VectorInstructions.V128_OR;
+import static org.graalvm.wasm.constants.VectorInstructions.V128_XOR;
+
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.ExactMath;
+import com.oracle.truffle.api.nodes.ExplodeLoop;
+
+/**
+ * The class {@code Vector128Ops} contains the lane operations of the {@code v128} instructions.
+ * <p>
+ * A {@code v128} value is kept as two {@code long} halves, the low half holding lanes
+ * {@code 0 .. n/2 - 1} of an {@code n}-lane shape and the high half holding the rest. Lane-wise
+ * operations therefore work on one half at a time and are applied to both halves by the caller.
+ * All methods operate on primitive values only, so that compiled code never allocates, and the
+ * opcode argument is a constant during partial evaluation, which folds the dispatch away.
+ */
+public final class Vector128Ops {
+
+    /*
+     * The integer lane operations of all shapes are laid out identically within their group of
+     * 0x20 opcodes, so that the operation is identified by the low bits of the opcode.
+     */
+    private static final int ABS = 0x00;
+    private static final int NEG = 0x01;
+    private static final int SHL = 0x0B;
+    private static final int SHR_S = 0x0C;
+    private static final int ADD = 0x0E;
+    private static final int ADD_SAT_S = 0x0F;
+    private static final int ADD_SAT_U = 0x10;
+    private static final int SUB = 0x11;
+    private static final int SUB_SAT_S = 0x12;
+    private static final int SUB_SAT_U = 0x13;
+    private static final int MUL = 0x15;
+    private static final int MIN_S = 0x16;
+    private static final int MIN_U = 0x17;
+    private static final int MAX_S = 0x18;
+    private static final int MAX_U = 0x19;
+    private static final int AVGR_U = 0x1B;
+
+    private static final int EXTEND_LOW_S = 0x07;
+    private static final int EXTEND_HIGH_S = 0x08;
+    private static final int EXTEND_HIGH_U = 0x0A;
+
+    /*
+     * The comparisons of all integer shapes come in the same order.
+     */
+    private static final int EQ = 0;
+    private static final int NE = 1;
+    private static final int LT_S = 2;
+    private static final int LT_U = 3;
+    private static final int GT_S = 4;
+    private static final int GT_U = 5;
+    private static final int LE_S = 6;
+    private static final int LE_U = 7;
+    private static final int GE_S = 8;
+
+    private static final float MAX_FLOAT_TRUNCATABLE_TO_U_INT = 4294967296f;
+    private static final double MAX_DOUBLE_TRUNCATABLE_TO_U_INT = 4294967296.0;
+
+    /**
+     * Don't let anyone instantiate this class.
+     */
+    private Vector128Ops() {
+    }
+
+    /**
+     * Returns the lane width in bits of an integer lane operation, comparison or conversion
+     * {@code opcode}.
+     */
+    public static int laneBits(int opcode) {
+        if (opcode < I16X8_EQ) {
+            return 8;
+        } else if (opcode < I32X4_EQ) {
+            return 16;
+        } else if (opcode < F32X4_EQ) {
+            return 32;
+        } else if (opcode < I16X8_ABS) {
+            return 8;
+        } else if (opcode < I32X4_ABS) {
+            return 16;
+        } else if (opcode < I64X2_ABS) {
+            return 32;
+        } else {
+            return 64;
+        }
+    }
+
+    /**
+     * Returns lane {@code index} of the given half, sign-extended from {@code bits} bits.
+     */
+    public static long lane(long half, int index, int bits) {
+        final int shift = 64 - bits;
+        return (half << (shift - index * bits)) >> shift;
+    }
+
+    /**
+     * Returns the given half, with lane {@code index} replaced by the low {@code bits} bits of
+     * {@code value}.
+     */
+    public static long withLane(long half, int index, int bits, long value) {
+        final long mask = bits == 64 ? -1L : (1L << bits) - 1;
+        final int shift = index * bits;
+        return (half & ~(mask << shift)) | ((value & mask) << shift);
+    }
+
+    /**
+     * Returns a half in which every lane holds the low {@code bits} bits of {@code value}.
+     */
+    public static long splat(long value, int bits) {
+        switch (bits) {
+            case 8:
+                return (value & 0xFFL) * 0x0101010101010101L;
+            case 16:
+                return (value & 0xFFFFL) * 0x0001000100010001L;
+            case 32:
+                return (value & 0xFFFFFFFFL) * 0x0000000100000001L;
+            default:
+                return value;
+        }
+    }
+
+    /**
+     * Reads the little-endian {@code long} stored at {@code offset} in the code of a function.
+     */
+    @ExplodeLoop
+    public static long bytes(byte[] data, int offset) {
+        long result = 0;
+        for (int i = 0; i < 8; i++) {
+            result |= (data[offset + i] & 0xFFL) << (i * 8);
+        }
+        return result;
+    }
+
+    /**
+     * Applies the lane-wise binary {@code opcode} to the corresponding halves of two vectors.
+     */
+    public static long binary(int opcode, long x, long y) {
+        switch (opcode) {
+            case V128_AND:
+                return x & y;
+            case V128_ANDNOT:
+                return x & ~y;
+            case V128_OR:
+                return x | y;
+            case V128_XOR:
+                return x ^ y;
+            case I64X2_ADD:
+                return x + y;
+            case I64X2_SUB:
+                return x - y;
+            case I64X2_MUL:
+                return x * y;
+            case I64X2_EQ:
+                return mask(x == y);
+            case I64X2_NE:
+                return mask(x != y);
+            case I64X2_LT_S:
+                return mask(x < y);
+            case I64X2_GT_S:
+                return mask(x > y);
+            case I64X2_LE_S:
+                return mask(x <= y);
+            case I64X2_GE_S:
+                return mask(x >= y);
+            case I32X4_DOT_I16X8_S:
+                return (dot(x, y, 0) & 0xFFFFFFFFL) | ((long) dot(x, y, 1) << 32);
+            case I16X8_Q15MULR_SAT_S: {
+                long result = 0;
+                for (int i = 0; i < 4; i++) {
+                    final long product = (lane(x, i, 16) * lane(y, i, 16) + 0x4000) >> 15;
+                    result = withLane(result, i, 16, saturate(product, Short.MIN_VALUE, Short.MAX_VALUE));
+                }
+                return result;
+            }
+        }
+        if (opcode >= F32X4_EQ && opcode <= F32X4_GE || opcode >= F32X4_ABS && opcode <= F32X4_PMAX) {
+            return (floatBinary(opcode, (int) x, (int) y) & 0xFFFFFFFFL) | ((long) floatBinary(opcode, (int) (x >>> 32), (int) (y >>> 32)) << 32);
+        }
+        if (opcode >= F64X2_EQ && opcode <= F64X2_GE || opcode >= F64X2_ABS && opcode <= F64X2_PMAX) {
+            return doubleBinary(opcode, x, y);
+        }
+        final int bits = laneBits(opcode);
+        if (opcode < F32X4_EQ) {
+            return compare(opcode - (bits == 8 ? I8X16_EQ : bits == 16 ? I16X8_EQ : I32X4_EQ), x, y, bits);
+        }
+        final int operation = opcode & 0x1F;
+        switch (operation) {
+            case ADD: {
+                // Add the lanes without their top bits, which cannot carry into the next lane,
+                // and then fix the top bits.
+                final long top = splat(1L << (bits - 1), bits);
+                return ((x & ~top) + (y & ~top)) ^ ((x ^ y) & top);
+            }
+            case SUB: {
+                final long top = splat(1L << (bits - 1), bits);
+                return ((x | top) - (y & ~top)) ^ ((x ^ ~y) & top);
+            }
+            default: {
+                long result = 0;
+                for (int i = 0; i < 64 / bits; i++) {
+                    result = withLane(result, i, bits, integerBinary(operation, lane(x, i, bits), lane(y, i, bits), bits));
+                }
+                return result;
+            }
+        }
+    }
+
+    /**
+     * Applies the lane-wise unary {@code opcode} to one half of a vector.
+     */
+    public static long unary(int opcode, long x) {
+        switch (opcode) {
+            case V128_NOT:
+                return ~x;
+            case I64X2_ABS:
+                return Math.abs(x);
+            case I64X2_NEG:
+                return -x;
+            case F32X4_ABS:
+                return x & 0x7FFFFFFF7FFFFFFFL;
+            case F32X4_NEG:
+                return x ^ 0x8000000080000000L;
+            case F64X2_ABS:
+                return x & 0x7FFFFFFFFFFFFFFFL;
+            case F64X2_NEG:
+                return x ^ 0x8000000000000000L;
+            case F64X2_SQRT:
+                return Double.doubleToRawLongBits(Math.sqrt(Double.longBitsToDouble(x)));
+            case F64X2_CEIL:
+                return Double.doubleToRawLongBits(Math.ceil(Double.longBitsToDouble(x)));
+            case F64X2_FLOOR:
+                return Double.doubleToRawLongBits(Math.floor(Double.longBitsToDouble(x)));
+            case F64X2_TRUNC:
+                return Double.doubleToRawLongBits(ExactMath.truncate(Double.longBitsToDouble(x)));
+            case F64X2_NEAREST:
+                return Double.doubleToRawLongBits(Math.rint(Double.longBitsToDouble(x)));
+            case I16X8_EXTADD_PAIRWISE_I8X16_S:
+            case I16X8_EXTADD_PAIRWISE_I8X16_U:
+            case I32X4_EXTADD_PAIRWISE_I16X8_S:
+            case I32X4_EXTADD_PAIRWISE_I16X8_U: {
+                // These opcodes lie in the i8x16 group, so laneBits does not apply to them.
+                final int bits = opcode <= I16X8_EXTADD_PAIRWISE_I8X16_U ? 16 : 32;
+                final int fromBits = bits / 2;
+                final boolean signed = (opcode & 1) == 0;
+                final long unsignedMask = (1L << fromBits) - 1;
+                long result = 0;
+                for (int i = 0; i < 64 / bits; i++) {
+                    final long a = lane(x, 2 * i, fromBits);
+                    final long b = lane(x, 2 * i + 1, fromBits);
+                    result = withLane(result, i, bits, signed ? a + b : (a & unsignedMask) + (b & unsignedMask));
+                }
+                return result;
+            }
+            case I8X16_POPCNT: {
+                long result = 0;
+                for (int i = 0; i < 8; i++) {
+                    result = withLane(result, i, 8, Long.bitCount((x >>> (i * 8)) & 0xFFL));
+                }
+                return result;
+            }
+            case F32X4_SQRT:
+            case F32X4_CEIL:
+            case F32X4_FLOOR:
+            case F32X4_TRUNC:
+            case F32X4_NEAREST:
+            case I32X4_TRUNC_SAT_F32X4_S:
+            case I32X4_TRUNC_SAT_F32X4_U:
+            case F32X4_CONVERT_I32X4_S:
+            case F32X4_CONVERT_I32X4_U:
+                return (floatUnary(opcode, (int) x) & 0xFFFFFFFFL) | ((long) floatUnary(opcode, (int) (x >>> 32)) << 32);
+            default: {
+                final int bits = laneBits(opcode);
+                final boolean abs = (opcode & 0x1F) == ABS;
+                long result = 0;
+                for (int i = 0; i < 64 / bits; i++) {
+                    final long value = lane(x, i, bits);
+                    result = withLane(result, i, bits, abs ? Math.abs(value) : -value);
+                }
+                return result;
+            }
+        }
+    }
+
+    /**
+     * Shifts every lane of one half of a vector by {@code count}, modulo the lane width.
+     */
+    public static long shift(int opcode, long x, int count) {
+        final int bits = laneBits(opcode);
+        final int operation = opcode & 0x1F;
+        if (bits == 64) {
+            return opcode == I64X2_SHL ? x << count : opcode == I64X2_SHR_S ? x >> count : x >>> count;
+        }
+        final int distance = count & (bits - 1);
+        long result = 0;
+        for (int i = 0; i < 64 / bits; i++) {
+            final long value = lane(x, i, bits);
+            final long shifted;
+            if (operation == SHL) {
+                shifted = value << distance;
+            } else if (operation == SHR_S) {
+                shifted = value >> distance;
+            } else {
+                shifted = (value & ((1L << bits) - 1)) >>> distance;
+            }
+            result = withLane(result, i, bits, shifted);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the {@code bitmask} of a vector, i.e. the sign bits of its lanes.
+     */
+    public static int bitmask(int opcode, long lo, long hi) {
+        final int bits = laneBits(opcode);
+        final int lanes = 64 / bits;
+        return signBits(lo, bits) | (signBits(hi, bits) << lanes);
+    }
+
+    /**
+     * Returns whether all lanes of a vector are non-zero.
+     */
+    public static boolean allTrue(int opcode, long lo, long hi) {
+        final int bits = laneBits(opcode);
+        for (int i = 0; i < 64 / bits; i++) {
+            if (lane(lo, i, bits) == 0 || lane(hi, i, bits) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Narrows the lanes of one half of a vector to half of their width, with saturation, and
+     * returns them packed into an {@code int}.
+     */
+    public static int narrow(int opcode, long x) {
+        final int bits = opcode == I8X16_NARROW_I16X8_S || opcode == I8X16_NARROW_I16X8_U ? 16 : 32;
+        final boolean signed = opcode == I8X16_NARROW_I16X8_S || opcode == I16X8_NARROW_I32X4_S;
+        final int narrowBits = bits / 2;
+        final long min = signed ? -(1L << (narrowBits - 1)) : 0;
+        final long max = signed ? (1L << (narrowBits - 1)) - 1 : (1L << narrowBits) - 1;
+        long result = 0;
+        for (int i = 0; i < 64 / bits; i++) {
+            result = withLane(result, i, narrowBits, saturate(lane(x, i, bits), min, max));
+        }
+        return (int) result;
+    }
+
+    /**
+     * Returns whether the lane extension {@code opcode} reads the high half of its operand.
+     */
+    public static boolean extendsHighHalf(int opcode) {
+        final int operation = opcode & 0x1F;
+        return operation == EXTEND_HIGH_S || operation == EXTEND_HIGH_U;
+    }
+
+    /**
+     * Widens the four {@code i8}, two {@code i16} or one {@code i32} lanes (as selected by the
+     * lane extension {@code opcode}) packed into {@code x} to twice their width.
+     */
+    public static long extend(int opcode, int x) {
+        final int operation = opcode & 0x1F;
+        return widen(x, laneBits(opcode) / 2, operation == EXTEND_LOW_S || operation == EXTEND_HIGH_S);
+    }
+
+    /**
+     * Widens the lanes of {@code fromBits} bits packed into {@code x} to twice their width.
+     */
+    public static long widen(int x, int fromBits, boolean signed) {
+        final long packed = x & 0xFFFFFFFFL;
+        long result = 0;
+        for (int i = 0; i < 32 / fromBits; i++) {
+            final long value = signed ? lane(packed, i, fromBits) : (packed >>> (i * fromBits)) & ((1L << fromBits) - 1);
+            result = withLane(result, i, fromBits * 2, value);
+        }
+        return result;
+    }
+
+    /**
+     * Returns whether the extended multiplication {@code opcode} reads the high halves of its
+     * operands.
+     */
+    public static boolean extmulReadsHighHalf(int opcode) {
+        return (opcode & 1) == 1;
+    }
+
+    /**
+     * Returns one half of the result of an extended multiplication {@code opcode}, whose operands
+     * {@code x} and {@code y} are the halves selected by {@link #extmulReadsHighHalf(int)}. The
+     * low half of the result is computed from the low 32 bits of the operands, the high half from
+     * the high 32 bits.
+     */
+    public static long extmul(int opcode, long x, long y, boolean highHalfOfResult) {
+        final int bits = laneBits(opcode);
+        final boolean signed = (opcode & 0x3) < 2;
+        final int shift = highHalfOfResult ? 32 : 0;
+        final long a = widen((int) (x >>> shift), bits / 2, signed);
+        final long b = widen((int) (y >>> shift), bits / 2, signed);
+        if (bits == 64) {
+            return a * b;
+        }
+        long result = 0;
+        for (int i = 0; i < 64 / bits; i++) {
+            result = withLane(result, i, bits, lane(a, i, bits) * lane(b, i, bits));
+        }
+        return result;
+    }
+
+    /**
+     * Converts the {@code f64} lane {@code x} to the {@code f32} or {@code i32} lane of the
+     * {@code _zero} conversion {@code opcode}, which stores its two result lanes in the low half.
+     */
+    public static int narrowDouble(int opcode, long xBits) {
+        final double x = Double.longBitsToDouble(xBits);
+        switch (opcode) {
+            case F32X4_DEMOTE_F64X2_ZERO:
+                return Float.floatToRawIntBits((float) x);
+            case I32X4_TRUNC_SAT_F64X2_S_ZERO:
+                // The Java conversion saturates and maps NaN to zero, as required.
+                return (int) x;
+            case I32X4_TRUNC_SAT_F64X2_U_ZERO:
+                if (Double.isNaN(x) || x <= -1.0) {
+                    return 0;
+                } else if (x >= MAX_DOUBLE_TRUNCATABLE_TO_U_INT) {
+                    return -1;
+                }
+                return (int) (long) x;
+            default:
+                throw CompilerDirectives.shouldNotReachHere();
+        }
+    }
+
+    /**
+     * Converts the {@code f32} or {@code i32} lane {@code x} to the {@code f64} lane of the
+     * {@code promote_low} or {@code convert_low} {@code opcode}, which reads the low half only.
+     */
+    public static long widenToDouble(int opcode, int x) {
+        switch (opcode) {
+            case F64X2_PROMOTE_LOW_F32X4:
+                return Double.doubleToRawLongBits(Float.intBitsToFloat(x));
+            case F64X2_CONVERT_LOW_I32X4_S:
+                return Double.doubleToRawLongBits(x);
+            case F64X2_CONVERT_LOW_I32X4_U:
+                return Double.doubleToRawLongBits(WasmMath.unsignedIntToDouble(x));
+            default:
+                throw CompilerDirectives.shouldNotReachHere();
+        }
+    }
+
+    /**
+     * Returns one half of the result of {@code i8x16.swizzle}, selecting bytes of the vector
+     * {@code (lo, hi)} with the byte indices in the corresponding half of the index vector.
+     */
+    public static long swizzle(long lo, long hi, long indices) {
+        long result = 0;
+        for (int i = 0; i < 8; i++) {
+            final int index = (int) (indices >>> (i * 8)) & 0xFF;
+            final long value;
+            if (index < 8) {
+                value = lo >>> (index * 8);
+            } else if (index < 16) {
+                value = hi >>> ((index - 8) * 8);
+            } else {
+                value = 0;
+            }
+            result = withLane(result, i, 8, value);
+        }
+        return result;
+    }
+
+    /**
+     * Returns one half of the result of {@code i8x16.shuffle}, selecting bytes of the
+     * concatenation of two vectors with the eight lane indices at {@code offset} in the code of a
+     * function.
+     */
+    @ExplodeLoop
+    public static long shuffle(long xLo, long xHi, long yLo, long yHi, byte[] data, int offset) {
+        long result = 0;
+        for (int i = 0; i < 8; i++) {
+            final int index = data[offset + i] & 0x1F;
+            final long half = index < 8 ? xLo : index < 16 ? xHi : index < 24 ? yLo : yHi;
+            result = withLane(result, i, 8, half >>> ((index & 0x7) * 8));
+        }
+        return result;
+    }
+
+    private static long mask(boolean condition) {
+        return condition ? -1L : 0L;
+    }
+
+    private static long saturate(long value, long min, long max) {
+        return value < min ? min : value > max ? max : value;
+    }
+
+    private static int signBits(long half, int bits) {
+        int result = 0;
+        for (int i = 0; i < 64 / bits; i++) {
+            result |= (int) ((half >>> ((i + 1) * bits - 1)) & 1) << i;
+        }
+        return result;
+    }
+
+    private static int dot(long x, long y, int index) {
+        return (int) (lane(x, 2 * index, 16) * lane(y, 2 * index, 16) + lane(x, 2 * index + 1, 16) * lane(y, 2 * index + 1, 16));
+    }
+
+    private static long compare(int comparison, long x, long y, int bits) {
+        final long unsignedMask = (1L << bits) - 1;
+        long result = 0;
+        for (int i = 0; i < 64 / bits; i++) {
+            final long a = lane(x, i, bits);
+            final long b = lane(y, i, bits);
+            final long ua = a & unsignedMask;
+            final long ub = b & unsignedMask;
+            final boolean value;
+            switch (comparison) {
+                case EQ:
+                    value = a == b;
+                    break;
+                case NE:
+                    value = a != b;
+                    break;
+                case LT_S:
+                    value = a < b;
+                    break;
+                case LT_U:
+                    value = ua < ub;
+                    break;
+                case GT_S:
+                    value = a > b;
+                    break;
+                case GT_U:
+                    value = ua > ub;
+                    break;
+                case LE_S:
+                    value = a <= b;
+                    break;
+                case LE_U:
+                    value = ua <= ub;
+                    break;
+                case GE_S:
+                    value = a >= b;
+                    break;
+                default:
+                    value = ua >= ub;
+                    break;
+            }
+            result = withLane(result, i, bits, mask(value));
+        }
+        return result;
+    }
+
+    private static long integerBinary(int operation, long a, long b, int bits) {
+        final long unsignedMask = (1L << bits) - 1;
+        final long ua = a & unsignedMask;
+        final long ub = b & unsignedMask;
+        switch (operation) {
+            case ADD_SAT_S:
+                return saturate(a + b, -(1L << (bits - 1)), (1L << (bits - 1)) - 1);
+            case ADD_SAT_U:
+                return saturate(ua + ub, 0, unsignedMask);
+            case SUB_SAT_S:
+                return saturate(a - b, -(1L << (bits - 1)), (1L << (bits - 1)) - 1);
+            case SUB_SAT_U:
+                return saturate(ua - ub, 0, unsignedMask);
+            case MUL:
+                return a * b;
+            case MIN_S:
+                return Math.min(a, b);
+            case MIN_U:
+                return Math.min(ua, ub);
+            case MAX_S:
+                return Math.max(a, b);
+            case MAX_U:
+                return Math.max(ua, ub);
+            case AVGR_U:
+                return (ua + ub + 1) >>> 1;
+            default:
+                throw CompilerDirectives.shouldNotReachHere();
+        }
+    }
+
+    private static int floatBinary(int opcode, int xBits, int yBits) {
+        final float x = Float.intBitsToFloat(xBits);
+        final float y = Float.intBitsToFloat(yBits);
+        switch (opcode) {
+            case F32X4_EQ:
+                return (int) mask(x == y);
+            case F32X4_NE:
+                return (int) mask(x != y);
+            case F32X4_LT:
+                return (int) mask(x < y);
+            case F32X4_GT:
+                return (int) mask(x > y);
+            case F32X4_LE:
+                return (int) mask(x <= y);
+            case F32X4_GE:
+                return (int) mask(x >= y);
+            case F32X4_ADD:
+                return Float.floatToRawIntBits(x + y);
+            case F32X4_SUB:
+                return Float.floatToRawIntBits(x - y);
+            case F32X4_MUL:
+                return Float.floatToRawIntBits(x * y);
+            case F32X4_DIV:
+                return Float.floatToRawIntBits(x / y);
+            case F32X4_MIN:
+                return Float.floatToRawIntBits(Math.min(x, y));
+            case F32X4_MAX:
+                return Float.floatToRawIntBits(Math.max(x, y));
+            case F32X4_PMIN:
+                return y < x ? yBits : xBits;
+            case F32X4_PMAX:
+                return x < y ? yBits : xBits;
+            default:
+                throw CompilerDirectives.shouldNotReachHere();
+        }
+    }
+
+    private static long doubleBinary(int opcode, long xBits, long yBits) {
+        final double x = Double.longBitsToDouble(xBits);
+        final double y = Double.longBitsToDouble(yBits);
+        switch (opcode) {
+            case F64X2_EQ:
+                return mask(x == y);
+            case F64X2_NE:
+                return mask(x != y);
+            case F64X2_LT:
+                return mask(x < y);
+            case F64X2_GT:
+                return mask(x > y);
+            case F64X2_LE:
+                return mask(x <= y);
+            case F64X2_GE:
+                return mask(x >= y);
+            case F64X2_ADD:
+                return Double.doubleToRawLongBits(x + y);
+            case F64X2_SUB:
+                return Double.doubleToRawLongBits(x - y);
+            case F64X2_MUL:
+                return Double.doubleToRawLongBits(x * y);
+            case F64X2_DIV:
+                return Double.doubleToRawLongBits(x / y);
+            case F64X2_MIN:
+                return Double.doubleToRawLongBits(Math.min(x, y));
+            case F64X2_MAX:
+                return Double.doubleToRawLongBits(Math.max(x, y));
+            case F64X2_PMIN:
+                return y < x ? yBits : xBits;
+            case F64X2_PMAX:
+                return x < y ? yBits : xBits;
+            default:
+                throw CompilerDirectives.shouldNotReachHere();
+        }
+    }
+
+    private static int floatUnary(int opcode, int xBits) {
+        switch (opcode) {
+            case F32X4_SQRT:
+                return Float.floatToRawIntBits((float) Math.sqrt(Float.intBitsToFloat(xBits)));
+            case F32X4_CEIL:
+                return Float.floatToRawIntBits((float) Math.ceil(Float.intBitsToFloat(xBits)));
+            case F32X4_FLOOR:
+                return Float.floatToRawIntBits((float) Math.floor(Float.intBitsToFloat(xBits)));
+            case F32X4_TRUNC:
+                return Float.floatToRawIntBits(ExactMath.truncate(Float.intBitsToFloat(xBits)));
+            case F32X4_NEAREST:
+                return Float.floatToRawIntBits((float) Math.rint(Float.intBitsToFloat(xBits)));
+            case I32X4_TRUNC_SAT_F32X4_S:
+                // The Java conversion saturates and maps NaN to zero, as required.
+                return (int) Float.intBitsToFloat(xBits);
+            case I32X4_TRUNC_SAT_F32X4_U: {
+                final float x = Float.intBitsToFloat(xBits);
+                if (Float.isNaN(x) || x <= -1f) {
+                    return 0;
+                } else if (x >= MAX_FLOAT_TRUNCATABLE_TO_U_INT) {
+                    return -1;
+                }
+                return (int) (long) x;
+            }
+            case F32X4_CONVERT_I32X4_S:
+                return Float.floatToRawIntBits((float) xBits);
+            case F32X4_CONVERT_I32X4_U:
+                return Float.floatToRawIntBits(WasmMath.unsignedIntToFloat(xBits));
+            default:
+                throw CompilerDirectives.shouldNotReachHere();
+        }
+    }
+}
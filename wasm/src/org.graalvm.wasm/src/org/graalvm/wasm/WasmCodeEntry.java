@@ -58,6 +58,7 @@ public final class WasmCodeEntry {
     @CompilationFinal(dimensions = 1) private int[] profileCounters;
     @CompilationFinal private FrameSlot stackLocalsSlot;
     @CompilationFinal private int maxStackSize;
+    @CompilationFinal private boolean usesVectors;
 
     public WasmCodeEntry(WasmFunction function, byte[] data) {
         this.function = function;
@@ -75,15 +76,43 @@ public final class WasmCodeEntry {
         return data;
     }
 
-    public void initStackLocals(FrameDescriptor frameDescriptor, int maximumStackSize) {
+    public void initStackLocals(FrameDescriptor frameDescriptor, int maximumStackSize, boolean hasVectors) {
         this.stackLocalsSlot = frameDescriptor.addFrameSlot(STACK_LOCALS_SLOT_INDEX, FrameSlotKind.Object);
         this.maxStackSize = maximumStackSize;
+        this.usesVectors = hasVectors;
+        for (byte type : localTypes) {
+            this.usesVectors |= type == WasmType.V128_TYPE;
+        }
     }
 
     public int maxStackSize() {
         return maxStackSize;
     }
 
+    /**
+     * Whether this function has {@code v128} locals or operands. The high halves of these values
+     * are stored in a second section of the stack-locals array, at {@link #vectorHighOffset()}
+     * slots after their low halves, so that all values keep occupying a single slot index.
+     */
+    public boolean usesVectors() {
+        return usesVectors;
+    }
+
+    /**
+     * The distance between the slot of the low half of a {@code v128} value in the stack-locals
+     * array and the slot of its high half.
+     */
+    public int vectorHighOffset() {
+        return localTypes.length + maxStackSize;
+    }
+
+    /**
+     * The length of the stack-locals array of this function.
+     */
+    public int stackLocalsLength() {
+        return usesVectors ? 2 * vectorHighOffset() : vectorHighOffset();
+    }
+
     public FrameSlot stackLocalsSlot() {
         return stackLocalsSlot;
     }
@@ -46,10 +46,13 @@ import org.graalvm.wasm.exception.WasmException;
 import org.graalvm.wasm.predefined.BuiltinModule;
 import org.graalvm.wasm.predefined.wasi.fd.FdManager;
 
+import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
 public final class WasmContext {
+    private static final int INITIAL_INSTANCES_SIZE = 8;
+
     private final Env env;
     private final WasmLanguage language;
     private final MemoryRegistry memoryRegistry;
@@ -57,9 +60,23 @@ public final class WasmContext {
     private final TableRegistry tableRegistry;
     private final Linker linker;
     private final Map<String, WasmInstance> moduleInstances;
+
+    /**
+     * The instances of the shared modules in this context, indexed by {@link WasmModule#id()}. The
+     * array is replaced when it grows, so that threads that look up instances without holding the
+     * lock of this context see either the old or the new array.
+     */
+    private volatile WasmInstance[] instancesByModuleId;
+    private boolean isFirstSourceInstance;
     private int moduleNameCount;
     private final FdManager filesManager;
 
+    /**
+     * The {@link System#nanoTime()} at which the WASI monotonic clock of this context reads zero,
+     * so that the clock never reads a negative time.
+     */
+    private final long monotonicClockOrigin;
+
     public static WasmContext getCurrent() {
         return WasmLanguage.getCurrentContext();
     }
@@ -71,9 +88,12 @@ public final class WasmContext {
         this.tableRegistry = new TableRegistry();
         this.memoryRegistry = new MemoryRegistry();
         this.moduleInstances = new LinkedHashMap<>();
+        this.instancesByModuleId = new WasmInstance[INITIAL_INSTANCES_SIZE];
+        this.isFirstSourceInstance = true;
         this.linker = new Linker();
         this.moduleNameCount = 0;
         filesManager = new FdManager(env);
+        this.monotonicClockOrigin = System.nanoTime();
         instantiateBuiltinInstances();
     }
 
@@ -110,6 +130,10 @@ public final class WasmContext {
         return filesManager;
     }
 
+    public long monotonicClockOrigin() {
+        return monotonicClockOrigin;
+    }
+
     /**
      * Returns the map with all the modules that have been parsed.
      */
@@ -117,11 +141,30 @@ public final class WasmContext {
         return moduleInstances;
     }
 
-    public void register(WasmInstance instance) {
+    public synchronized void register(WasmInstance instance) {
         if (moduleInstances.containsKey(instance.name())) {
             throw WasmException.create(Failure.UNSPECIFIED_INTERNAL, "Context already contains an instance named '" + instance.name() + "'.");
         }
         moduleInstances.put(instance.name(), instance);
+        final int moduleId = instance.module().id();
+        if (moduleId >= 0) {
+            final WasmInstance[] instances = Arrays.copyOf(instancesByModuleId, Math.max(moduleId + 1, instancesByModuleId.length));
+            instances[moduleId] = instance;
+            instancesByModuleId = instances;
+            instance.module().addInstance(instance);
+        }
+    }
+
+    /**
+     * Returns the instance of the given module in this context, or {@code null} if the module is
+     * not instantiated in this context. The code of a module is shared by all the contexts of an
+     * engine, so its nodes use this method to find the instance that they operate on.
+     */
+    public WasmInstance lookupModuleInstance(WasmModule module) {
+        final int moduleId = module.id();
+        assert moduleId >= 0 : "Builtin modules are not shared: " + module;
+        final WasmInstance[] instances = instancesByModuleId;
+        return moduleId < instances.length ? instances[moduleId] : null;
     }
 
     private void instantiateBuiltinInstances() {
@@ -151,23 +194,52 @@ public final class WasmContext {
     }
 
     public WasmModule readModule(String moduleName, byte[] data, ModuleLimits moduleLimits) {
-        final WasmModule module = new WasmModule(moduleName, data, moduleLimits);
+        final WasmModule module = new WasmModule(language.nextModuleId(), moduleName, data, moduleLimits);
         final BinaryParser reader = new BinaryParser(language, module);
         reader.readModule();
         return module;
     }
 
     public WasmInstance readInstance(WasmModule module) {
-        if (moduleInstances.containsKey(module.name())) {
-            throw WasmException.create(Failure.UNSPECIFIED_INVALID, null, "Module " + module.name() + " is already instantiated in this context.");
+        return readInstance(module, module.name());
+    }
+
+    /**
+     * Instantiates a module that was parsed from a source. The first such instance in this context
+     * is named "main", and the other ones are named after their modules.
+     */
+    public WasmInstance readSourceInstance(WasmModule module) {
+        final String name = isFirstSourceInstance ? "main" : module.name();
+        final WasmInstance instance = readInstance(module, name);
+        isFirstSourceInstance = false;
+        return instance;
+    }
+
+    private WasmInstance readInstance(WasmModule module, String name) {
+        if (moduleInstances.containsKey(name) || lookupModuleInstance(module) != null) {
+            throw WasmException.create(Failure.UNSPECIFIED_INVALID, null, "Module " + name + " is already instantiated in this context.");
         }
-        final WasmInstance instance = new WasmInstance(module);
+        final WasmInstance instance = new WasmInstance(module, name);
         final BinaryParser reader = new BinaryParser(language, module);
         reader.readInstance(this, instance);
+        if (WasmOptions.InstanceSnapshots.getValue(env.getOptions())) {
+            instance.setSnapshot(snapshot(module));
+        }
         this.register(instance);
         return instance;
     }
 
+    private WasmInstanceSnapshot snapshot(WasmModule module) {
+        WasmInstanceSnapshot snapshot = module.snapshot();
+        if (snapshot == null) {
+            snapshot = WasmInstanceSnapshot.load(this, module);
+            if (snapshot != null) {
+                module.setSnapshot(snapshot);
+            }
+        }
+        return snapshot;
+    }
+
     public void reinitInstance(WasmInstance instance, boolean reinitMemory) {
         // Note: this is not a complete and correct instantiation as defined in
         // https://webassembly.github.io/spec/core/exec/modules.html#instantiation
@@ -40,13 +40,20 @@
  */
 package org.graalvm.wasm;
 
+import com.oracle.truffle.api.CallTarget;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.Truffle;
+import org.graalvm.wasm.nodes.WasmRootNode;
 
 public class WasmFunction {
     private final SymbolTable symbolTable;
     private final int index;
     private ImportDescriptor importDescriptor;
     private WasmCodeEntry codeEntry;
+    private volatile CallTarget callTarget;
+    private WasmLanguage pendingLanguage;
+    private int pendingBodyOffset;
+    private int pendingBodySize;
     private final int typeIndex;
     private int typeEquivalenceClass;
     private String debugName;
@@ -122,6 +129,57 @@ public class WasmFunction {
         this.codeEntry = codeEntry;
     }
 
+    /**
+     * The call target of this function, which is shared by all the instances of its module. It is
+     * {@code null} for imported functions, whose call targets depend on the instance. With
+     * {@link WasmOptions#LazyFunctionParsing}, the root node and the call target are created by the
+     * first call of this method.
+     */
+    public CallTarget callTarget() {
+        final CallTarget target = callTarget;
+        if (target == null && pendingLanguage != null) {
+            return createPendingCallTarget();
+        }
+        return target;
+    }
+
+    /**
+     * The call target of this function if it was already created, or {@code null}.
+     */
+    CallTarget createdCallTarget() {
+        return callTarget;
+    }
+
+    /**
+     * Defers the creation of the call target until it is first requested, and the decoding of the
+     * body at the given offset of the module binary until the first call.
+     */
+    void setPendingCallTarget(WasmLanguage language, int bodyOffset, int bodySize) {
+        if (isImported()) {
+            throw new RuntimeException("Cannot set the call target for an imported function.");
+        }
+        this.pendingBodyOffset = bodyOffset;
+        this.pendingBodySize = bodySize;
+        this.pendingLanguage = language;
+    }
+
+    @TruffleBoundary
+    private synchronized CallTarget createPendingCallTarget() {
+        if (callTarget == null) {
+            final WasmRootNode rootNode = new WasmRootNode(pendingLanguage, symbolTable.module(), codeEntry);
+            rootNode.setPendingBody(pendingBodyOffset, pendingBodySize);
+            callTarget = Truffle.getRuntime().createCallTarget(rootNode);
+        }
+        return callTarget;
+    }
+
+    void setCallTarget(CallTarget callTarget) {
+        if (isImported()) {
+            throw new RuntimeException("Cannot set the call target for an imported function.");
+        }
+        this.callTarget = callTarget;
+    }
+
     public boolean isImported() {
         return importDescriptor != null;
     }
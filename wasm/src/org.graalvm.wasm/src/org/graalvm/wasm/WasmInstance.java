@@ -63,12 +63,23 @@ import static com.oracle.truffle.api.CompilerDirectives.transferToInterpreter;
 @SuppressWarnings("static-method")
 public final class WasmInstance extends RuntimeState implements TruffleObject {
 
+    private final String name;
+
     public WasmInstance(WasmModule module) {
+        this(module, module.name());
+    }
+
+    /**
+     * Creates an instance whose name differs from the name of its module. The modules are shared by
+     * the contexts of an engine, but the name of an instance is specific to its context.
+     */
+    public WasmInstance(WasmModule module, String name) {
         super(module);
+        this.name = name;
     }
 
     public String name() {
-        return module().name();
+        return name;
     }
 
     /**
@@ -192,6 +203,8 @@ public final class WasmInstance extends RuntimeState implements TruffleObject {
                 return globals.loadAsFloat(address);
             case WasmType.F64_TYPE:
                 return globals.loadAsDouble(address);
+            case WasmType.V128_TYPE:
+                return new Vector128(globals.loadAsLong(address), globals.loadVectorHigh(address));
             default:
                 throw new RuntimeException("Unknown type: " + type);
         }
@@ -0,0 +1,390 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.graalvm.wasm;
+
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.TruffleFile;
+import org.graalvm.home.Version;
+import org.graalvm.wasm.exception.Failure;
+import org.graalvm.wasm.exception.WasmException;
+import org.graalvm.wasm.memory.WasmMemory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import static org.graalvm.wasm.constants.Sizes.MEMORY_PAGE_SIZE;
+
+/**
+ * The state of a module instance right after it was linked: the contents of its memory, the values
+ * of its globals, the functions in its table and its dropped data segments. The later instances of
+ * the module are initialized from the snapshot, instead of running the data segments and the start
+ * function again (see {@link WasmOptions#InstanceSnapshots}).
+ * <p>
+ * Snapshots are only taken for modules that have an initialization function: a start function, or
+ * the {@code _initialize} function of a WASI reactor, which is then run while the instance is
+ * linked (see {@link #initializationFunction}). The instances of the other modules are initialized
+ * by copying their data segments anyway.
+ * <p>
+ * The initialization of a module that imports anything may depend on the imported functions, globals,
+ * memory or table, which can differ between instances, so no snapshot is taken for such modules. No
+ * snapshot is taken for modules that declare a shared memory either. The segments of other modules
+ * that initialize the memory or table of this module are overwritten by the snapshot. A snapshot is
+ * immutable, and each instance gets its own copy of the memory image.
+ */
+public final class WasmInstanceSnapshot {
+    private static final int MAGIC = 0x5741534e;
+    private static final int VERSION = 3;
+    private static final String REACTOR_INITIALIZATION_FUNCTION = "_initialize";
+    private static final String FILE_SUFFIX = ".snapshot";
+
+    /**
+     * The contents of the memory of the instance, or {@code null} if the module has no memory.
+     */
+    private final byte[] memory;
+
+    /**
+     * The values of the globals, two elements per global: the value, or the low 64 bits of a
+     * {@code v128} global, at {@code 2 * index}, and the high 64 bits of a {@code v128} global at
+     * {@code 2 * index + 1}.
+     */
+    private final long[] globals;
+
+    /**
+     * The indices of the functions in the table of the instance, where -1 denotes an empty element,
+     * or {@code null} if the module has no table.
+     */
+    private final int[] tableFunctions;
+
+    private final boolean[] droppedDataSegments;
+
+    private WasmInstanceSnapshot(byte[] memory, long[] globals, int[] tableFunctions, boolean[] droppedDataSegments) {
+        this.memory = memory;
+        this.globals = globals;
+        this.tableFunctions = tableFunctions;
+        this.droppedDataSegments = droppedDataSegments;
+    }
+
+    /**
+     * Returns the function that initializes the instances of the given module, whose effects a
+     * snapshot captures, or {@code null} if the module has none. This is the start function, or
+     * the {@code _initialize} function of a WASI reactor without a start function.
+     */
+    static WasmFunction initializationFunction(WasmModule module) {
+        if (module.startFunction() != null) {
+            return module.startFunction();
+        }
+        final WasmFunction initialize = module.exportedFunctions().get(REACTOR_INITIALIZATION_FUNCTION);
+        if (initialize != null && initialize.numArguments() == 0 && initialize.returnTypeLength() == 0) {
+            return initialize;
+        }
+        return null;
+    }
+
+    /**
+     * Whether the instances of the given module can be initialized from a snapshot.
+     */
+    static boolean canCapture(WasmModule module) {
+        return module.importedSymbols().isEmpty() && initializationFunction(module) != null;
+    }
+
+    /**
+     * Captures the state of the given linked instance, or returns {@code null} if the state of the
+     * instance cannot be restored in another instance.
+     */
+    @CompilerDirectives.TruffleBoundary
+    static WasmInstanceSnapshot capture(WasmContext context, WasmInstance instance) {
+        final WasmModule module = instance.module();
+        if (!canCapture(module)) {
+            return null;
+        }
+
+        byte[] memoryImage = null;
+        final WasmMemory instanceMemory = instance.memory();
+        if (instanceMemory != null) {
+            if (instanceMemory.isShared()) {
+                // Other threads may change a shared memory at any time.
+                return null;
+            }
+            memoryImage = new byte[instanceMemory.byteSize()];
+            instanceMemory.copyToBuffer(null, 0, memoryImage, 0, memoryImage.length);
+        }
+
+        final long[] globalValues = new long[2 * module.numGlobals()];
+        for (int index = 0; index < module.numGlobals(); index++) {
+            final int address = instance.globalAddress(index);
+            globalValues[2 * index] = context.globals().loadAsLong(address);
+            if (module.globalValueType(index) == WasmType.V128_TYPE) {
+                globalValues[2 * index + 1] = context.globals().loadVectorHigh(address);
+            }
+        }
+
+        int[] functions = null;
+        final WasmTable table = instance.table();
+        if (table != null) {
+            functions = new int[table.size()];
+            for (int index = 0; index < functions.length; index++) {
+                final Object element = table.get(index);
+                if (element == null) {
+                    functions[index] = -1;
+                } else if (element instanceof WasmFunctionInstance && isFunctionOf(module, ((WasmFunctionInstance) element).function())) {
+                    functions[index] = ((WasmFunctionInstance) element).function().index();
+                } else {
+                    // Elements that belong to other modules cannot be restored from the index.
+                    return null;
+                }
+            }
+        }
+
+        final boolean[] dropped = new boolean[instance.dataInstanceCount()];
+        for (int index = 0; index < dropped.length; index++) {
+            dropped[index] = instance.dataInstance(index) == null;
+        }
+        return new WasmInstanceSnapshot(memoryImage, globalValues, functions, dropped);
+    }
+
+    private static boolean isFunctionOf(WasmModule module, WasmFunction function) {
+        return function.index() < module.numFunctions() && module.function(function.index()) == function;
+    }
+
+    /**
+     * Sets the state of the given instance, which is being linked, to the state of this snapshot.
+     * The memory, globals and table of the instance are already allocated and initialized by the
+     * link actions of the module, except for the data segments.
+     */
+    @CompilerDirectives.TruffleBoundary
+    void restore(WasmContext context, WasmInstance instance) {
+        if (memory != null) {
+            final WasmMemory instanceMemory = instance.memory();
+            final int extraPages = memory.length / MEMORY_PAGE_SIZE - instanceMemory.size();
+            if (extraPages > 0 && !instanceMemory.grow(extraPages)) {
+                throw WasmException.format(Failure.MEMORY_INSTANCE_SIZE_LIMIT_EXCEEDED, "The memory of module %s cannot grow to the size of its snapshot.", instance.name());
+            }
+            instanceMemory.initialize(null, memory, 0, 0, memory.length);
+        }
+
+        final WasmModule module = instance.module();
+        for (int index = 0; index < module.numGlobals(); index++) {
+            final int address = instance.globalAddress(index);
+            context.globals().storeLong(address, globals[2 * index]);
+            if (module.globalValueType(index) == WasmType.V128_TYPE) {
+                context.globals().storeVectorHigh(address, globals[2 * index + 1]);
+            }
+        }
+
+        if (tableFunctions != null) {
+            final WasmTable table = instance.table();
+            if (tableFunctions.length > table.size()) {
+                table.grow(tableFunctions.length - table.size());
+            }
+            for (int index = 0; index < tableFunctions.length; index++) {
+                final int functionIndex = tableFunctions[index];
+                table.set(index, functionIndex == -1 ? null : new WasmFunctionInstance(module.function(functionIndex), instance.target(functionIndex)));
+            }
+        }
+
+        for (int index = 0; index < droppedDataSegments.length; index++) {
+            if (droppedDataSegments[index]) {
+                instance.dropDataInstance(index);
+            }
+        }
+    }
+
+    /**
+     * Whether this snapshot has the shape of the state of the instances of the given module. This
+     * is checked for the snapshots that are read from a file.
+     */
+    private boolean matches(WasmModule module) {
+        if ((memory != null) != module.memoryExists() || (memory != null && memory.length % MEMORY_PAGE_SIZE != 0)) {
+            return false;
+        }
+        if ((tableFunctions != null) != module.tableExists() || globals.length != 2 * module.numGlobals()) {
+            return false;
+        }
+        if (tableFunctions != null) {
+            for (int functionIndex : tableFunctions) {
+                if (functionIndex < -1 || functionIndex >= module.numFunctions()) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static TruffleFile snapshotFile(WasmContext context, WasmModule module) {
+        final String directory = WasmOptions.InstanceSnapshotDirectory.getValue(context.environment().getOptions());
+        if (directory.isEmpty()) {
+            return null;
+        }
+        return context.environment().getPublicTruffleFile(directory).resolve(snapshotKey(module) + FILE_SUFFIX);
+    }
+
+    /**
+     * The GraalWasm version that took a snapshot. Another version may lay out the globals, tables
+     * or data segments of the same binary differently, so it does not use the snapshot.
+     */
+    private static String engineVersion() {
+        return Version.getCurrent().toString();
+    }
+
+    /**
+     * Returns the hash of the module binary and of the GraalWasm version, which names the snapshot
+     * file of the module. The binary includes the names of the imports, and modules with imports
+     * are never captured, so the key does not depend on other modules.
+     */
+    private static String snapshotKey(WasmModule module) {
+        try {
+            final MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            messageDigest.update(engineVersion().getBytes(StandardCharsets.UTF_8));
+            messageDigest.update((byte) 0);
+            final byte[] digest = messageDigest.digest(module.data());
+            final StringBuilder builder = new StringBuilder(2 * digest.length);
+            for (byte b : digest) {
+                builder.append(String.format("%02x", b & 0xff));
+            }
+            return builder.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw CompilerDirectives.shouldNotReachHere(e);
+        }
+    }
+
+    /**
+     * Reads the snapshot of the given module from the snapshot directory, or returns {@code null}
+     * if there is no usable snapshot. A missing snapshot only costs the time of running the start
+     * function, so read errors are not reported.
+     */
+    @CompilerDirectives.TruffleBoundary
+    static WasmInstanceSnapshot load(WasmContext context, WasmModule module) {
+        if (!canCapture(module)) {
+            return null;
+        }
+        final TruffleFile file = snapshotFile(context, module);
+        if (file == null || !file.exists()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(file.newInputStream()))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || !in.readUTF().equals(engineVersion()) || in.readInt() != module.data().length) {
+                return null;
+            }
+            final int memoryLength = in.readInt();
+            byte[] memoryImage = null;
+            if (memoryLength >= 0) {
+                memoryImage = new byte[memoryLength];
+                in.readFully(memoryImage);
+            }
+            final long[] globalValues = new long[in.readInt()];
+            for (int index = 0; index < globalValues.length; index++) {
+                globalValues[index] = in.readLong();
+            }
+            final int tableLength = in.readInt();
+            int[] functions = null;
+            if (tableLength >= 0) {
+                functions = new int[tableLength];
+                for (int index = 0; index < tableLength; index++) {
+                    functions[index] = in.readInt();
+                }
+            }
+            final boolean[] dropped = new boolean[in.readInt()];
+            for (int index = 0; index < dropped.length; index++) {
+                dropped[index] = in.readBoolean();
+            }
+            final WasmInstanceSnapshot snapshot = new WasmInstanceSnapshot(memoryImage, globalValues, functions, dropped);
+            return snapshot.matches(module) ? snapshot : null;
+        } catch (IOException | SecurityException | NegativeArraySizeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Writes this snapshot of the given module to the snapshot directory, if one is configured. The
+     * file is written under a temporary name and then moved, so that concurrent processes never
+     * read a partially written snapshot.
+     */
+    @CompilerDirectives.TruffleBoundary
+    void store(WasmContext context, WasmModule module) {
+        final TruffleFile file = snapshotFile(context, module);
+        if (file == null || file.exists()) {
+            return;
+        }
+        try {
+            final TruffleFile directory = file.getParent();
+            directory.createDirectories();
+            final TruffleFile temporaryFile = context.environment().createTempFile(directory, file.getName(), ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(temporaryFile.newOutputStream()))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeUTF(engineVersion());
+                out.writeInt(module.data().length);
+                if (memory == null) {
+                    out.writeInt(-1);
+                } else {
+                    out.writeInt(memory.length);
+                    out.write(memory);
+                }
+                out.writeInt(globals.length);
+                for (long value : globals) {
+                    out.writeLong(value);
+                }
+                if (tableFunctions == null) {
+                    out.writeInt(-1);
+                } else {
+                    out.writeInt(tableFunctions.length);
+                    for (int functionIndex : tableFunctions) {
+                        out.writeInt(functionIndex);
+                    }
+                }
+                out.writeInt(droppedDataSegments.length);
+                for (boolean dropped : droppedDataSegments) {
+                    out.writeBoolean(dropped);
+                }
+            }
+            temporaryFile.move(file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | SecurityException e) {
+            // The snapshot is written again by the next process.
+        }
+    }
+}
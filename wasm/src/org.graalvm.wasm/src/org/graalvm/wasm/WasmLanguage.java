@@ -41,25 +41,43 @@
 package org.graalvm.wasm;
 
 import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.TruffleLanguage;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.nodes.RootNode;
 import org.graalvm.options.OptionDescriptors;
+import org.graalvm.options.OptionValues;
 import org.graalvm.wasm.api.WebAssembly;
 import org.graalvm.wasm.memory.UnsafeWasmMemory;
 import org.graalvm.wasm.memory.WasmMemory;
 
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
 
-@TruffleLanguage.Registration(id = "wasm", name = "WebAssembly", defaultMimeType = "application/wasm", byteMimeTypes = "application/wasm", contextPolicy = TruffleLanguage.ContextPolicy.EXCLUSIVE, fileTypeDetectors = WasmFileDetector.class, //
+/**
+ * The contexts of an engine share this language instance, and therefore the modules parsed from the
+ * same sources and their call targets. Each context instantiates the shared modules with its own
+ * memories, tables and globals.
+ */
+@TruffleLanguage.Registration(id = "wasm", name = "WebAssembly", defaultMimeType = "application/wasm", byteMimeTypes = "application/wasm", contextPolicy = TruffleLanguage.ContextPolicy.SHARED, fileTypeDetectors = WasmFileDetector.class, //
                 interactive = false)
 public final class WasmLanguage extends TruffleLanguage<WasmContext> {
-    private boolean isFirst = true;
+    private final AtomicInteger moduleCount = new AtomicInteger();
+    private final Map<SymbolTable.FunctionType, Integer> equivalenceClasses = new HashMap<>();
+    private int nextEquivalenceClass = SymbolTable.FIRST_EQUIVALENCE_CLASS;
+    private ForkJoinPool parsingPool;
+    private volatile boolean threads;
 
     @Override
     protected WasmContext createContext(Env env) {
         WasmContext context = new WasmContext(env, this);
+        // All the contexts that share this language agree on this option.
+        threads = WasmOptions.Threads.getValue(env.getOptions());
         if (env.isPolyglotBindingsAccessAllowed()) {
             env.exportSymbol("WebAssembly", new WebAssembly(context));
         }
@@ -69,19 +87,85 @@ public final class WasmLanguage extends TruffleLanguage<WasmContext> {
     @Override
     protected CallTarget parse(ParsingRequest request) {
         final WasmContext context = getCurrentContext();
-        final String moduleName = isFirst ? "main" : request.getSource().getName();
-        isFirst = false;
         final byte[] data = request.getSource().getBytes().toByteArray();
-        final WasmModule module = context.readModule(moduleName, data, null);
-        final WasmInstance instance = context.readInstance(module);
+        final WasmModule module = context.readModule(request.getSource().getName(), data, null);
+        // The parsed module is cached for the whole engine, so it is instantiated in each context
+        // that evaluates the source. The first instance in a context is named "main".
         return Truffle.getRuntime().createCallTarget(new RootNode(this) {
             @Override
             public WasmInstance execute(VirtualFrame frame) {
-                return instance;
+                return instantiate(module);
             }
         });
     }
 
+    @TruffleBoundary
+    private static WasmInstance instantiate(WasmModule module) {
+        final WasmContext context = getCurrentContext();
+        final WasmInstance instance = context.lookupModuleInstance(module);
+        if (instance != null) {
+            return instance;
+        }
+        return context.readSourceInstance(module);
+    }
+
+    int nextModuleId() {
+        return moduleCount.getAndIncrement();
+    }
+
+    /**
+     * Returns the type equivalence class of the given function type. The classes are assigned per
+     * engine, because the modules and their functions are shared by its contexts.
+     */
+    synchronized int equivalenceClass(SymbolTable.FunctionType type) {
+        Integer equivalenceClass = equivalenceClasses.get(type);
+        if (equivalenceClass == null) {
+            equivalenceClass = nextEquivalenceClass;
+            equivalenceClasses.put(type, equivalenceClass);
+            nextEquivalenceClass++;
+        }
+        return equivalenceClass;
+    }
+
+    /**
+     * Returns the pool that decodes function bodies in parallel (see
+     * {@link WasmOptions#ParsingThreads}). The pool is created on first use and shared by all the
+     * modules of the engine. Its workers are daemon threads that terminate when they stay idle.
+     */
+    synchronized ForkJoinPool parsingPool() {
+        if (parsingPool == null) {
+            parsingPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors(), pool -> {
+                final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                thread.setName("wasm-parsing-worker-" + thread.getPoolIndex());
+                return thread;
+            }, null, false);
+        }
+        return parsingPool;
+    }
+
+    /**
+     * Contexts share the parsed modules only if they decode the function bodies in the same way, and
+     * if they use the same instance snapshots.
+     */
+    @Override
+    protected boolean areOptionsCompatible(OptionValues firstOptions, OptionValues newOptions) {
+        return firstOptions.get(WasmOptions.LazyFunctionParsing).equals(newOptions.get(WasmOptions.LazyFunctionParsing)) &&
+                        firstOptions.get(WasmOptions.Threads).equals(newOptions.get(WasmOptions.Threads)) &&
+                        firstOptions.get(WasmOptions.InstanceSnapshots).equals(newOptions.get(WasmOptions.InstanceSnapshots)) &&
+                        firstOptions.get(WasmOptions.InstanceSnapshotDirectory).equals(newOptions.get(WasmOptions.InstanceSnapshotDirectory));
+    }
+
+    /**
+     * With {@link WasmOptions#Threads}, exported functions may be called from multiple threads at
+     * the same time. Such threads communicate through shared memories and atomic instructions, as
+     * in the threads proposal. Without it, a context cannot have a shared memory, and it is
+     * accessed by one thread at a time.
+     */
+    @Override
+    protected boolean isThreadAccessAllowed(Thread thread, boolean singleThreaded) {
+        return singleThreaded || threads;
+    }
+
     @Override
     protected Object getScope(WasmContext context) {
         return context.getScope();
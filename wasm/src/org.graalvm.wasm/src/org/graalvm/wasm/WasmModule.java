@@ -40,6 +40,9 @@
  */
 package org.graalvm.wasm;
 
+import com.oracle.truffle.api.Assumption;
+import com.oracle.truffle.api.Truffle;
+
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -49,17 +52,42 @@ import static com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 
 /**
  * Represents a parsed and validated WebAssembly module, which has not yet been instantiated.
+ * <p>
+ * A module that is parsed from a source is shared by all the contexts of an engine, and so are the
+ * call targets of its functions. Each context instantiates the module at most once (see
+ * {@link #instance(WasmContext)}).
  */
 @SuppressWarnings("static-method")
 public final class WasmModule extends SymbolTable {
+    /**
+     * The identifier of this module in its engine, or -1 for the builtin modules, which are created
+     * for each context and are not shared.
+     */
+    private final int id;
     private final String name;
     private final ArrayList<BiConsumer<WasmContext, WasmInstance>> linkActions;
     private final ModuleLimits limits;
     @CompilationFinal(dimensions = 1) private byte[] data;
     @CompilationFinal private boolean isParsed;
+    private boolean codeEntriesRead;
+
+    /**
+     * The first instance of this module in any context of the engine. While it is the only instance
+     * ({@link #singleInstance}), the shared nodes use it as a constant, instead of looking up the
+     * instance of the current context.
+     */
+    @CompilationFinal private WasmInstance firstInstance;
+    private final Assumption singleInstance = Truffle.getRuntime().createAssumption("WasmModule.singleInstance");
+
+    /**
+     * The state of the first instance of this module after its instantiation, from which the later
+     * instances are initialized (see {@link WasmOptions#InstanceSnapshots}).
+     */
+    private volatile WasmInstanceSnapshot snapshot;
 
-    public WasmModule(String name, byte[] data, ModuleLimits limits) {
+    public WasmModule(int id, String name, byte[] data, ModuleLimits limits) {
         super();
+        this.id = id;
         this.name = name;
         this.limits = limits == null ? ModuleLimits.DEFAULTS : limits;
         this.linkActions = new ArrayList<>();
@@ -68,7 +96,11 @@ public final class WasmModule extends SymbolTable {
     }
 
     public WasmModule(String name, byte[] data) {
-        this(name, data, null);
+        this(-1, name, data, null);
+    }
+
+    public int id() {
+        return id;
     }
 
     public ModuleLimits limits() {
@@ -88,6 +120,46 @@ public final class WasmModule extends SymbolTable {
         return isParsed;
     }
 
+    void setCodeEntriesRead() {
+        codeEntriesRead = true;
+    }
+
+    /**
+     * Whether the code section of this module was read, which is done by its first instantiation.
+     */
+    boolean codeEntriesRead() {
+        return codeEntriesRead;
+    }
+
+    /**
+     * Records a new instance of this module, which must already be registered in its context.
+     */
+    synchronized void addInstance(WasmInstance instance) {
+        if (firstInstance == null) {
+            firstInstance = instance;
+        } else {
+            singleInstance.invalidate();
+        }
+    }
+
+    /**
+     * Returns the instance of this module that code executing in the given context operates on.
+     */
+    public WasmInstance instance(WasmContext context) {
+        if (singleInstance.isValid()) {
+            return firstInstance;
+        }
+        return context.lookupModuleInstance(this);
+    }
+
+    public WasmInstanceSnapshot snapshot() {
+        return snapshot;
+    }
+
+    void setSnapshot(WasmInstanceSnapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+
     public SymbolTable symbolTable() {
         return this;
     }
@@ -96,6 +168,13 @@ public final class WasmModule extends SymbolTable {
         return name;
     }
 
+    /**
+     * Built-in modules, and the import modules of the JS API, have no binary.
+     */
+    public boolean isBuiltin() {
+        return data == null;
+    }
+
     public byte[] data() {
         return data;
     }
@@ -57,9 +57,28 @@ public class WasmOptions {
     @Option(help = "The stack size in kilobytes to use during async parsing, or zero to use defaults.", category = OptionCategory.USER, stability = OptionStability.STABLE)//
     public static final OptionKey<Integer> AsyncParsingStackSize = new OptionKey<>(0);
 
+    @Option(help = "Decode each function body on its first call instead of when the module is instantiated, and create the call target of each function when it is first looked up. Validation errors in function bodies are then reported on the first call.", category = OptionCategory.EXPERT, stability = OptionStability.EXPERIMENTAL)//
+    public static final OptionKey<Boolean> LazyFunctionParsing = new OptionKey<>(false);
+
+    @Option(help = "The number of threads used to decode the function bodies of a module, or zero to use all available processors.", category = OptionCategory.EXPERT, stability = OptionStability.EXPERIMENTAL)//
+    public static final OptionKey<Integer> ParsingThreads = new OptionKey<>(1);
+
+    @Option(help = "Run the data segments and the start function of a module only in its first instance in the engine, and initialize the later instances from a snapshot of the memory, globals and table that they produced. " +
+                    "The _initialize function of a WASI reactor is then run during instantiation as well, and must not be called again. Modules that import anything are always initialized normally.", category = OptionCategory.EXPERT, stability = OptionStability.EXPERIMENTAL)//
+    public static final OptionKey<Boolean> InstanceSnapshots = new OptionKey<>(false);
+
+    @Option(help = "A directory in which instance snapshots are kept across processes, keyed by the hash of the module binary and of the GraalWasm version. Only used with InstanceSnapshots.", category = OptionCategory.EXPERT, stability = OptionStability.EXPERIMENTAL)//
+    public static final OptionKey<String> InstanceSnapshotDirectory = new OptionKey<>("");
+
     @Option(help = "A comma-separated list of pre-opened Wasi directories: [<virtual-dir>:]<host-dir>.", category = OptionCategory.USER, stability = OptionStability.STABLE)//
     public static final OptionKey<String> WasiMapDirs = new OptionKey<>("");
 
+    @Option(help = "A comma-separated list of TCP addresses to listen on: <host>:<port>. Each listening socket is pre-opened as a Wasi file descriptor after the pre-opened directories, and connections are accepted with sock_accept.", category = OptionCategory.EXPERT, stability = OptionStability.EXPERIMENTAL)//
+    public static final OptionKey<String> WasiTcpListen = new OptionKey<>("");
+
+    @Option(help = "The minimal number of bytes that a single Wasi read from a regular file must request to copy them from a memory mapping of the file, or zero to never map files.", category = OptionCategory.EXPERT, stability = OptionStability.EXPERIMENTAL)//
+    public static final OptionKey<Integer> WasiMappedReadThreshold = new OptionKey<>(0);
+
     public enum ConstantsStorePolicy {
         ALL,
         LARGE_ONLY,
@@ -71,6 +90,13 @@ public class WasmOptions {
     @Option(help = "Whenever to store the constants in a pool or not. Deprecated: no longer has any effect.", category = OptionCategory.EXPERT, stability = OptionStability.EXPERIMENTAL, deprecated = true)//
     public static final OptionKey<ConstantsStorePolicy> StoreConstantsPolicy = new OptionKey<>(ConstantsStorePolicy.NONE, StoreConstantsPolicyOptionType);
 
+    @Option(help = "Enable the threads proposal: shared memories, and calls into the context from multiple threads at the same time.", category = OptionCategory.EXPERT, stability = OptionStability.EXPERIMENTAL)//
+    public static final OptionKey<Boolean> Threads = new OptionKey<>(false);
+
     @Option(help = "Use sun.misc.Unsafe-based memory.", category = OptionCategory.EXPERT, stability = OptionStability.EXPERIMENTAL)//
     public static final OptionKey<Boolean> UseUnsafeMemory = new OptionKey<>(false);
+
+    @Option(help = "The number of pages that a sun.misc.Unsafe-based memory reserves upfront, so that it grows without being moved, or zero to reserve its maximum size. " +
+                    "A memory that grows beyond its reservation is moved to a larger one.", category = OptionCategory.EXPERT, stability = OptionStability.EXPERIMENTAL)//
+    public static final OptionKey<Integer> UnsafeMemoryReservationSize = new OptionKey<>(1024);
 }
@@ -107,6 +107,8 @@ public class Global extends Dictionary {
                 }
                 this.value = value;
                 break;
+            default:
+                throw WasmJsApiException.format(WasmJsApiException.Kind.TypeError, "Globals of type %s cannot be created.", valueType);
         }
     }
 
@@ -101,6 +101,8 @@ public class ProxyGlobal extends Dictionary {
                 return globals.loadAsFloat(address);
             case f64:
                 return globals.loadAsDouble(address);
+            case v128:
+                throw WasmJsApiException.format(WasmJsApiException.Kind.TypeError, "The value of a v128 global cannot be read.");
             default:
                 throw WasmJsApiException.format(WasmJsApiException.Kind.TypeError, "Unknown value type: %s", valueType);
         }
@@ -49,7 +49,8 @@ public enum ValueType {
     i32(WasmType.I32_TYPE),
     i64(WasmType.I64_TYPE),
     f32(WasmType.F32_TYPE),
-    f64(WasmType.F64_TYPE);
+    f64(WasmType.F64_TYPE),
+    v128(WasmType.V128_TYPE);
 
     private final byte byteValue;
 
@@ -72,6 +73,8 @@ public enum ValueType {
                 return f32;
             case WasmType.F64_TYPE:
                 return f64;
+            case WasmType.V128_TYPE:
+                return v128;
             default:
                 throw WasmException.create(Failure.UNSPECIFIED_INTERNAL, null, "Unknown value type: 0x" + Integer.toHexString(value));
         }
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -38,19 +38,13 @@
  * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
  * SOFTWARE.
  */
-package org.graalvm.wasm.nodes;
+package org.graalvm.wasm.constants;
 
-import com.oracle.truffle.api.nodes.Node;
-import org.graalvm.wasm.WasmFunction;
+public final class DataSegmentMode {
+    public static final int ACTIVE = 0x00;
+    public static final int PASSIVE = 0x01;
+    public static final int ACTIVE_WITH_MEMORY_INDEX = 0x02;
 
-public final class WasmCallStubNode extends Node {
-    private WasmFunction function;
-
-    public WasmCallStubNode(WasmFunction function) {
-        this.function = function;
-    }
-
-    public WasmFunction function() {
-        return function;
+    private DataSegmentMode() {
     }
 }
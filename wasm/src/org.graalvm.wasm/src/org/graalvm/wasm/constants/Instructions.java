@@ -235,6 +235,21 @@ public final class Instructions {
     public static final int F32_REINTERPRET_I32 = 0xBE;
     public static final int F64_REINTERPRET_I64 = 0xBF;
 
+    /**
+     * Prefix of the instructions in {@link MiscInstructions}.
+     */
+    public static final int MISC = 0xFC;
+
+    /**
+     * Prefix of the instructions in {@link VectorInstructions}.
+     */
+    public static final int VECTOR = 0xFD;
+
+    /**
+     * Prefix of the instructions in {@link AtomicInstructions}.
+     */
+    public static final int ATOMIC = 0xFE;
+
     private static String[] decodingTable = new String[256];
 
     private Instructions() {
@@ -43,6 +43,8 @@ package org.graalvm.wasm.constants;
 public final class LimitsPrefix {
     public static final int NO_MAX = 0x00;
     public static final int WITH_MAX = 0x01;
+    public static final int SHARED_NO_MAX = 0x02;
+    public static final int SHARED_WITH_MAX = 0x03;
 
     private LimitsPrefix() {
     }
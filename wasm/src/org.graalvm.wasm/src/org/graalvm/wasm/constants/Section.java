@@ -53,6 +53,7 @@ public final class Section {
     public static final int ELEMENT = 0x09;
     public static final int CODE = 0x0A;
     public static final int DATA = 0x0B;
+    public static final int DATA_COUNT = 0x0C;
 
     private Section() {
     }
@@ -58,6 +58,9 @@ public enum Failure {
     MALFORMED_SECTION_ID(Type.MALFORMED, "malformed section id"),
     MALFORMED_MUTABILITY(Type.MALFORMED, "malformed mutability"),
     LENGTH_OUT_OF_BOUNDS(Type.MALFORMED, "length out of bounds"),
+    ILLEGAL_OPCODE(Type.MALFORMED, "illegal opcode"),
+    DATA_COUNT_SECTION_REQUIRED(Type.MALFORMED, "data count section required"),
+    DATA_COUNT_MISMATCH(Type.MALFORMED, "data count and data section have inconsistent lengths"),
     // GraalWasm-specific:
     DUPLICATED_SECTION(Type.MALFORMED, "duplicated section"),
     INVALID_SECTION_ORDER(Type.MALFORMED, "invalid section order"),
@@ -76,6 +79,7 @@ public enum Failure {
     UNKNOWN_LABEL(Type.INVALID, "unknown label"),
     UNKNOWN_FUNCTION(Type.INVALID, "unknown function"),
     UNKNOWN_TYPE(Type.INVALID, "unknown type"),
+    UNKNOWN_DATA_SEGMENT(Type.INVALID, "unknown data segment"),
     START_FUNCTION_RETURN_VALUE(Type.INVALID, "start function"),
     START_FUNCTION_ARGUMENTS(Type.INVALID, "start function"),
     LIMIT_MINIMUM_GREATER_THAN_MAXIMUM(Type.INVALID, "size minimum must not be greater than maximum"),
@@ -85,6 +89,9 @@ public enum Failure {
     LIMIT_EXCEEDED(Type.INVALID, "limit exceeded"),
     MEMORY_SIZE_LIMIT_EXCEEDED(Type.INVALID, "memory size must be at most 65536 pages (4GiB)"),
     ALIGNMENT_LARGER_THAN_NATURAL(Type.INVALID, "alignment must not be larger than natural"),
+    ATOMIC_ALIGNMENT_NOT_NATURAL(Type.INVALID, "alignment must be equal to natural"),
+    SHARED_MEMORY_WITHOUT_MAXIMUM(Type.INVALID, "shared memory must have maximum"),
+    INVALID_LANE_INDEX(Type.INVALID, "invalid lane index"),
     // GraalWasm-specific:
     MODULE_SIZE_LIMIT_EXCEEDED(Type.INVALID, "module size exceeds limit"),
     TYPE_COUNT_LIMIT_EXCEEDED(Type.INVALID, "type count exceeds limit"),
@@ -106,6 +113,8 @@ public enum Failure {
     DATA_SEGMENT_DOES_NOT_FIT(Type.UNLINKABLE, "data segment does not fit"),
     // GraalWasm-specific:
     INVALID_WASI_DIRECTORIES_MAPPING(Type.UNLINKABLE, "invalid wasi directories mapping"),
+    INVALID_WASI_TCP_LISTEN_ADDRESS(Type.UNLINKABLE, "invalid wasi tcp listen address"),
+    EXTERNAL_VECTOR_GLOBAL_NOT_SUPPORTED(Type.UNLINKABLE, "v128 globals cannot be host objects"),
 
     // TODO(mbovel): replace UNSPECIFIED_TRAP usages with appropriate errors.
     UNSPECIFIED_TRAP(Type.TRAP, "unspecified"),
@@ -117,18 +126,24 @@ public enum Failure {
     UNINITIALIZED_ELEMENT(Type.TRAP, "uninitialized element"),
     OUT_OF_BOUNDS_MEMORY_ACCESS(Type.TRAP, "out of bounds memory access"),
     INDIRECT_CALL_TYPE__MISMATCH(Type.TRAP, "indirect call type mismatch"),
+    UNALIGNED_ATOMIC(Type.TRAP, "unaligned atomic"),
+    EXPECTED_SHARED_MEMORY(Type.TRAP, "expected shared memory"),
     // GraalWasm-specific:
     TABLE_INSTANCE_SIZE_LIMIT_EXCEEDED(Type.TRAP, "table instance size exceeds limit"),
     MEMORY_INSTANCE_SIZE_LIMIT_EXCEEDED(Type.TRAP, "memory instance size exceeds limit"),
 
     CALL_STACK_EXHAUSTED(Type.EXHAUSTION, "call stack exhausted"),
 
+    // GraalWasm-specific:
+    PARSING_INTERRUPTED(Type.INTERRUPTED, "parsing interrupted"),
+
     // TODO(mbovel): replace UNSPECIFIED_INTERNAL usages with assertInternal/shouldNotReachHere.
     UNSPECIFIED_INTERNAL(Type.INTERNAL, "unspecified");
 
     public enum Type {
         TRAP("trap"),
         EXHAUSTION("exhaustion"),
+        INTERRUPTED("interrupted"),
         MALFORMED("malformed"),
         INVALID("invalid"),
         UNLINKABLE("unlinkable"),
@@ -105,6 +105,8 @@ public final class WasmException extends AbstractTruffleException {
             case MALFORMED:
             case INVALID:
                 return ExceptionType.PARSE_ERROR;
+            case INTERRUPTED:
+                return ExceptionType.INTERRUPT;
             case UNLINKABLE:
             case INTERNAL:
             case EXHAUSTION:
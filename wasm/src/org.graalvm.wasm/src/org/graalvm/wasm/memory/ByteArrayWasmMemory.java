@@ -46,6 +46,11 @@ import com.oracle.truffle.api.nodes.Node;
 import org.graalvm.wasm.constants.Sizes;
 import org.graalvm.wasm.exception.Failure;
 import org.graalvm.wasm.exception.WasmException;
+import sun.misc.Unsafe;
+
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 
 import static java.lang.Integer.compareUnsigned;
 import static java.lang.StrictMath.addExact;
@@ -55,6 +60,8 @@ import static org.graalvm.wasm.constants.Sizes.MAX_MEMORY_INSTANCE_SIZE;
 import static org.graalvm.wasm.constants.Sizes.MEMORY_PAGE_SIZE;
 
 public final class ByteArrayWasmMemory extends WasmMemory {
+    private static final Unsafe UNSAFE = initUnsafe();
+
     /**
      * @see #declaredMinSize()
      */
@@ -103,14 +110,53 @@ public final class ByteArrayWasmMemory extends WasmMemory {
         return WasmException.create(Failure.OUT_OF_BOUNDS_MEMORY_ACCESS, node, message);
     }
 
+    private void checkBounds(Node node, int address, int n) {
+        if (Integer.toUnsignedLong(address) + Integer.toUnsignedLong(n) > buffer.length) {
+            throw trapOutOfBounds(node, address, Integer.toUnsignedLong(n));
+        }
+    }
+
     @Override
     public void copy(Node node, int src, int dst, int n) {
-        try {
-            System.arraycopy(buffer, src, buffer, dst, n);
-        } catch (final IndexOutOfBoundsException e) {
-            // TODO: out of bounds might be in (dest, dest+n).
-            throw trapOutOfBounds(node, src, n);
-        }
+        checkBounds(node, src, n);
+        checkBounds(node, dst, n);
+        System.arraycopy(buffer, src, buffer, dst, n);
+    }
+
+    @Override
+    public void fill(Node node, int address, int n, byte value) {
+        checkBounds(node, address, n);
+        Arrays.fill(buffer, address, address + n, value);
+    }
+
+    @Override
+    public void initialize(Node node, byte[] source, int sourceOffset, int address, int n) {
+        checkBounds(node, address, n);
+        System.arraycopy(source, sourceOffset, buffer, address, n);
+    }
+
+    @Override
+    public void copyToBuffer(Node node, int address, byte[] target, int targetOffset, int n) {
+        checkBounds(node, address, n);
+        System.arraycopy(buffer, address, target, targetOffset, n);
+    }
+
+    @Override
+    public void initialize(Node node, ByteBuffer source, int address, int n) {
+        checkBounds(node, address, n);
+        source.get(buffer, address, n);
+    }
+
+    @Override
+    public void copyToBuffer(Node node, int address, ByteBuffer target, int n) {
+        checkBounds(node, address, n);
+        target.put(buffer, address, n);
+    }
+
+    @Override
+    public ByteBuffer asByteBuffer(Node node, int address, int n) {
+        checkBounds(node, address, n);
+        return ByteBuffer.wrap(buffer, address, n);
     }
 
     @Override
@@ -156,6 +202,15 @@ public final class ByteArrayWasmMemory extends WasmMemory {
         buffer = new byte[declaredMinSize * MEMORY_PAGE_SIZE];
     }
 
+    /**
+     * Byte array memories are never shared, because {@link #grow growing} them replaces the
+     * buffer, which could lose the writes of other threads.
+     */
+    @Override
+    public boolean isShared() {
+        return false;
+    }
+
     @Override
     public int load_i32(Node node, int address) {
         try {
@@ -370,4 +425,77 @@ public final class ByteArrayWasmMemory extends WasmMemory {
         System.arraycopy(buffer, 0, other.buffer, 0, buffer.length);
         return other;
     }
+
+    @Override
+    public void atomic_fence() {
+        UNSAFE.fullFence();
+    }
+
+    /**
+     * Atomic accesses use the native byte order, which is little-endian on all supported
+     * platforms.
+     */
+    private static long byteOffset(int address) {
+        return Unsafe.ARRAY_BYTE_BASE_OFFSET + address;
+    }
+
+    @Override
+    protected int atomicGetInt(int address) {
+        return UNSAFE.getIntVolatile(buffer, byteOffset(address));
+    }
+
+    @Override
+    protected long atomicGetLong(int address) {
+        return UNSAFE.getLongVolatile(buffer, byteOffset(address));
+    }
+
+    @Override
+    protected void atomicPutInt(int address, int value) {
+        UNSAFE.putIntVolatile(buffer, byteOffset(address), value);
+    }
+
+    @Override
+    protected void atomicPutLong(int address, long value) {
+        UNSAFE.putLongVolatile(buffer, byteOffset(address), value);
+    }
+
+    @Override
+    protected boolean atomicCompareAndSetInt(int address, int expected, int value) {
+        return UNSAFE.compareAndSwapInt(buffer, byteOffset(address), expected, value);
+    }
+
+    @Override
+    protected boolean atomicCompareAndSetLong(int address, long expected, long value) {
+        return UNSAFE.compareAndSwapLong(buffer, byteOffset(address), expected, value);
+    }
+
+    @Override
+    protected int atomicGetAndAddInt(int address, int delta) {
+        return UNSAFE.getAndAddInt(buffer, byteOffset(address), delta);
+    }
+
+    @Override
+    protected long atomicGetAndAddLong(int address, long delta) {
+        return UNSAFE.getAndAddLong(buffer, byteOffset(address), delta);
+    }
+
+    @Override
+    protected int atomicGetAndSetInt(int address, int value) {
+        return UNSAFE.getAndSetInt(buffer, byteOffset(address), value);
+    }
+
+    @Override
+    protected long atomicGetAndSetLong(int address, long value) {
+        return UNSAFE.getAndSetLong(buffer, byteOffset(address), value);
+    }
+
+    private static Unsafe initUnsafe() {
+        try {
+            final Field f = Unsafe.class.getDeclaredField("theUnsafe");
+            f.setAccessible(true);
+            return (Unsafe) f.get(null);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
 }
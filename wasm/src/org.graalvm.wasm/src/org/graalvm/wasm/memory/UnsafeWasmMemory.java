@@ -40,7 +40,11 @@
  */
 package org.graalvm.wasm.memory;
 
+import com.oracle.truffle.api.Assumption;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.nodes.Node;
 import org.graalvm.wasm.constants.Sizes;
 import org.graalvm.wasm.exception.Failure;
@@ -48,6 +52,8 @@ import org.graalvm.wasm.exception.WasmException;
 import sun.misc.Unsafe;
 
 import java.lang.reflect.Field;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
 
 import static java.lang.Integer.compareUnsigned;
 import static java.lang.StrictMath.addExact;
@@ -57,6 +63,21 @@ import static org.graalvm.wasm.constants.Sizes.MAX_MEMORY_INSTANCE_SIZE;
 import static org.graalvm.wasm.constants.Sizes.MEMORY_PAGE_SIZE;
 
 public class UnsafeWasmMemory extends WasmMemory implements AutoCloseable {
+    private static final Unsafe UNSAFE;
+    private static final long BUFFER_ADDRESS_OFFSET;
+
+    static {
+        try {
+            final Field f = Unsafe.class.getDeclaredField("theUnsafe");
+            f.setAccessible(true);
+            UNSAFE = (Unsafe) f.get(null);
+            // The address of a direct buffer is only read, to copy from and to its contents.
+            BUFFER_ADDRESS_OFFSET = UNSAFE.objectFieldOffset(Buffer.class.getDeclaredField("address"));
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     /**
      * @see #declaredMinSize()
      */
@@ -66,10 +87,44 @@ public class UnsafeWasmMemory extends WasmMemory implements AutoCloseable {
      * @see #declaredMaxSize()
      */
     private final int declaredMaxSize;
+
+    /**
+     * @see #isShared()
+     */
+    private final boolean shared;
     private final Unsafe unsafe;
-    private long startAddress;
+
+    /**
+     * The address of the native region backing this memory. It only changes when a memory grows
+     * beyond its {@link #reservedSize reservation} or is freed, so compiled code that sees a
+     * constant memory instance treats it as a constant too, guarded by
+     * {@link #startAddressUnchanged} (see {@link #startAddress()}).
+     */
+    @CompilationFinal private long startAddress;
+    @CompilationFinal private Assumption startAddressUnchanged = Truffle.getRuntime().createAssumption("UnsafeWasmMemory.startAddress");
     private int size;
 
+    /**
+     * The size of the native region backing this memory (measured in number of
+     * {@link Sizes#MEMORY_PAGE_SIZE pages}), which is at least {@link #size}. Growing the memory
+     * within this size only zeroes the new pages, without moving the memory.
+     * <p>
+     * Java 8 has no API to reserve address space and to commit it separately, so the region is
+     * allocated with {@link Unsafe#allocateMemory}, which does not touch it. Large allocations are
+     * backed by anonymous mappings, for which the operating system only commits the pages that are
+     * actually written, that is, the pages within {@link #size}. This relies on memory
+     * overcommit: when the operating system accounts for the whole region upfront (for example
+     * with {@code vm.overcommit_memory=2} on Linux), a large reservation may be refused. The
+     * reservation is then retried with smaller sizes (see {@link #reserve}). A shared memory never
+     * moves, so it cannot grow beyond the reservation it obtained, and {@code memory.grow} fails
+     * instead, as the specification allows.
+     * <p>
+     * By default, a memory that is not shared only reserves a modest size (see
+     * {@link org.graalvm.wasm.WasmOptions#UnsafeMemoryReservationSize}), since a reservation of
+     * the maximum size takes gigabytes of address space and commit charge per memory.
+     */
+    private int reservedSize;
+
     /**
      * The maximum practical size of this memory instance (measured in number of
      * {@link Sizes#MEMORY_PAGE_SIZE pages}).
@@ -82,32 +137,80 @@ public class UnsafeWasmMemory extends WasmMemory implements AutoCloseable {
      */
     private final int maxAllowedSize;
 
-    private UnsafeWasmMemory(int declaredMinSize, int declaredMaxSize, int initialSize, int maxAllowedSize) {
+    private UnsafeWasmMemory(int declaredMinSize, int declaredMaxSize, int initialSize, int maxAllowedSize, int reservedSize, boolean shared) {
         assert compareUnsigned(declaredMinSize, initialSize) <= 0;
         assert compareUnsigned(declaredMaxSize, MAX_MEMORY_DECLARATION_SIZE) <= 0;
         assert compareUnsigned(initialSize, maxAllowedSize) <= 0;
         assert compareUnsigned(maxAllowedSize, MAX_MEMORY_INSTANCE_SIZE) <= 0;
         assert compareUnsigned(maxAllowedSize, declaredMaxSize) <= 0;
 
-        try {
-            final Field f = Unsafe.class.getDeclaredField("theUnsafe");
-            f.setAccessible(true);
-            unsafe = (Unsafe) f.get(null);
-        } catch (Exception e) {
-            throw new RuntimeException(e);
-        }
-
+        this.unsafe = UNSAFE;
         this.declaredMinSize = declaredMinSize;
         this.declaredMaxSize = declaredMaxSize;
-        this.size = declaredMinSize;
+        this.shared = shared;
+        this.size = initialSize;
         this.maxAllowedSize = maxAllowedSize;
-        final long byteSize = byteSize();
-        this.startAddress = unsafe.allocateMemory(byteSize);
-        unsafe.setMemory(startAddress, byteSize, (byte) 0);
+        // A shared memory is accessed by other threads while it grows, so it must never move. It
+        // therefore tries to reserve its maximum size upfront.
+        final int requestedReservation = shared ? maxAllowedSize : Math.max(initialSize, Math.min(reservedSize, maxAllowedSize));
+        this.startAddress = reserve(requestedReservation, initialSize);
+        unsafe.setMemory(startAddress, byteSize(), (byte) 0);
     }
 
+    /**
+     * Creates a memory that reserves its maximum allowed size upfront.
+     */
     public UnsafeWasmMemory(int declaredMinSize, int declaredMaxSize, int maxAllowedSize) {
-        this(declaredMinSize, declaredMaxSize, declaredMinSize, maxAllowedSize);
+        this(declaredMinSize, declaredMaxSize, declaredMinSize, maxAllowedSize, maxAllowedSize, false);
+    }
+
+    /**
+     * Creates a memory that reserves {@code reservedSize} pages upfront, but at least its declared
+     * minimum size and at most its maximum allowed size. Shared memories always reserve their
+     * maximum allowed size.
+     */
+    public UnsafeWasmMemory(int declaredMinSize, int declaredMaxSize, int maxAllowedSize, int reservedSize, boolean shared) {
+        this(declaredMinSize, declaredMaxSize, declaredMinSize, maxAllowedSize, reservedSize, shared);
+    }
+
+    public UnsafeWasmMemory(int declaredMinSize, int declaredMaxSize, int maxAllowedSize, boolean shared) {
+        this(declaredMinSize, declaredMaxSize, declaredMinSize, maxAllowedSize, maxAllowedSize, shared);
+    }
+
+    /**
+     * Allocates a native region of {@code requestedSize} pages or, if the operating system refuses
+     * to reserve that much, of the largest size obtained by halving it that is still at least
+     * {@code minimumSize} pages, and updates {@link #reservedSize}. The region is not initialized.
+     */
+    private long reserve(int requestedSize, int minimumSize) {
+        assert compareUnsigned(minimumSize, requestedSize) <= 0;
+        int attemptedSize = requestedSize;
+        while (true) {
+            try {
+                final long address = unsafe.allocateMemory((long) attemptedSize * MEMORY_PAGE_SIZE);
+                reservedSize = attemptedSize;
+                return address;
+            } catch (OutOfMemoryError e) {
+                if (attemptedSize == minimumSize) {
+                    throw e;
+                }
+                attemptedSize = Math.max(minimumSize, attemptedSize / 2);
+            }
+        }
+    }
+
+    private long startAddress() {
+        if (!startAddressUnchanged.isValid()) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+        }
+        return startAddress;
+    }
+
+    private void setStartAddress(long address) {
+        startAddress = address;
+        final Assumption previous = startAddressUnchanged;
+        startAddressUnchanged = Truffle.getRuntime().createAssumption("UnsafeWasmMemory.startAddress");
+        previous.invalidate();
     }
 
     public void validateAddress(Node node, int address, int offset) {
@@ -122,18 +225,90 @@ public class UnsafeWasmMemory extends WasmMemory implements AutoCloseable {
                         offset, address, address, byteSize());
     }
 
+    private void checkBounds(Node node, int address, int n) {
+        if (Integer.toUnsignedLong(address) + Integer.toUnsignedLong(n) > byteSize()) {
+            throw trapOutOfBounds(node, address, n);
+        }
+    }
+
     @Override
     public void copy(Node node, int src, int dst, int n) {
-        validateAddress(node, src, n);
-        validateAddress(node, dst, n);
-        unsafe.copyMemory(startAddress + src, startAddress + dst, n);
+        checkBounds(node, src, n);
+        checkBounds(node, dst, n);
+        unsafe.copyMemory(startAddress() + src, startAddress() + dst, n);
+    }
+
+    @Override
+    public void fill(Node node, int address, int n, byte value) {
+        checkBounds(node, address, n);
+        unsafe.setMemory(startAddress() + address, n, value);
+    }
+
+    @Override
+    public void initialize(Node node, byte[] source, int sourceOffset, int address, int n) {
+        checkBounds(node, address, n);
+        unsafe.copyMemory(source, Unsafe.ARRAY_BYTE_BASE_OFFSET + sourceOffset, null, startAddress() + address, n);
+    }
+
+    @Override
+    public void copyToBuffer(Node node, int address, byte[] target, int targetOffset, int n) {
+        checkBounds(node, address, n);
+        unsafe.copyMemory(null, startAddress() + address, target, Unsafe.ARRAY_BYTE_BASE_OFFSET + targetOffset, n);
+    }
+
+    @Override
+    public void initialize(Node node, ByteBuffer source, int address, int n) {
+        checkBounds(node, address, n);
+        if (source.isDirect()) {
+            unsafe.copyMemory(bufferAddress(source) + source.position(), startAddress() + address, n);
+            source.position(source.position() + n);
+        } else if (source.hasArray()) {
+            initialize(node, source.array(), source.arrayOffset() + source.position(), address, n);
+            source.position(source.position() + n);
+        } else {
+            for (int i = 0; i < n; i++) {
+                unsafe.putByte(startAddress() + address + i, source.get());
+            }
+        }
+    }
+
+    @Override
+    public void copyToBuffer(Node node, int address, ByteBuffer target, int n) {
+        checkBounds(node, address, n);
+        if (target.isDirect()) {
+            unsafe.copyMemory(startAddress() + address, bufferAddress(target) + target.position(), n);
+            target.position(target.position() + n);
+        } else {
+            copyToBuffer(node, address, target.array(), target.arrayOffset() + target.position(), n);
+            target.position(target.position() + n);
+        }
+    }
+
+    private long bufferAddress(ByteBuffer buffer) {
+        return unsafe.getLong(buffer, BUFFER_ADDRESS_OFFSET);
+    }
+
+    /**
+     * The JDK has no public API to create a direct buffer at the address of the native region, so
+     * this memory offers no view, and the data is copied with
+     * {@link #copyToBuffer(Node, int, ByteBuffer, int)} and
+     * {@link #initialize(Node, ByteBuffer, int, int)} instead. Backing the memory with
+     * {@link ByteBuffer#allocateDirect} would provide a view, but it zeroes, and therefore
+     * commits, the whole {@link #reservedSize reservation} upfront, and it is limited by
+     * {@code -XX:MaxDirectMemorySize}.
+     */
+    @Override
+    public ByteBuffer asByteBuffer(Node node, int address, int n) {
+        checkBounds(node, address, n);
+        return null;
     }
 
     @Override
     public void reset() {
+        // The memory keeps its reservation, and the pages beyond the declared minimum size are
+        // zeroed again when the memory grows.
         size = declaredMinSize;
-        unsafe.freeMemory(startAddress);
-        startAddress = unsafe.allocateMemory(byteSize());
+        unsafe.setMemory(startAddress, byteSize(), (byte) 0);
     }
 
     @Override
@@ -156,21 +331,44 @@ public class UnsafeWasmMemory extends WasmMemory implements AutoCloseable {
         return declaredMaxSize;
     }
 
+    @Override
+    public boolean isShared() {
+        return shared;
+    }
+
     @Override
     @TruffleBoundary
-    public boolean grow(int extraPageSize) {
+    public synchronized boolean grow(int extraPageSize) {
         if (extraPageSize == 0) {
             return true;
         } else if (compareUnsigned(extraPageSize, maxAllowedSize) <= 0 && compareUnsigned(size() + extraPageSize, maxAllowedSize) <= 0) {
             // Condition above and limit on maxPageSize (see ModuleLimits#MAX_MEMORY_SIZE) ensure
             // computation of targetByteSize does not overflow.
-            final int targetByteSize = multiplyExact(addExact(size(), extraPageSize), MEMORY_PAGE_SIZE);
-            final long updatedStartAddress = unsafe.allocateMemory(targetByteSize);
-            unsafe.copyMemory(startAddress, updatedStartAddress, byteSize());
-            unsafe.setMemory(updatedStartAddress + byteSize(), targetByteSize - byteSize(), (byte) 0);
-            unsafe.freeMemory(startAddress);
-            startAddress = updatedStartAddress;
-            size += extraPageSize;
+            final int targetSize = addExact(size(), extraPageSize);
+            final int targetByteSize = multiplyExact(targetSize, MEMORY_PAGE_SIZE);
+            if (compareUnsigned(targetSize, reservedSize) > 0) {
+                if (shared) {
+                    // The operating system refused to reserve the maximum size of this memory,
+                    // which must not move.
+                    return false;
+                }
+                // Move the memory to a region that leaves room for further growth. This is the
+                // only place where the address of a live memory changes.
+                final int requestedReservation = Math.min(maxAllowedSize, Math.max(targetSize, 2 * reservedSize));
+                final long updatedStartAddress;
+                try {
+                    updatedStartAddress = reserve(requestedReservation, targetSize);
+                } catch (OutOfMemoryError e) {
+                    return false;
+                }
+                final long previousStartAddress = startAddress;
+                unsafe.copyMemory(previousStartAddress, updatedStartAddress, byteSize());
+                // Invalidate the code that uses the previous address before releasing it.
+                setStartAddress(updatedStartAddress);
+                unsafe.freeMemory(previousStartAddress);
+            }
+            unsafe.setMemory(startAddress() + byteSize(), targetByteSize - byteSize(), (byte) 0);
+            size = targetSize;
             return true;
         } else {
             return false;
@@ -180,168 +378,224 @@ public class UnsafeWasmMemory extends WasmMemory implements AutoCloseable {
     @Override
     public int load_i32(Node node, int address) {
         validateAddress(node, address, 4);
-        final int value = unsafe.getInt(startAddress + address);
+        final int value = unsafe.getInt(startAddress() + address);
         return value;
     }
 
     @Override
     public long load_i64(Node node, int address) {
         validateAddress(node, address, 8);
-        final long value = unsafe.getLong(startAddress + address);
+        final long value = unsafe.getLong(startAddress() + address);
         return value;
     }
 
     @Override
     public float load_f32(Node node, int address) {
         validateAddress(node, address, 4);
-        final float value = unsafe.getFloat(startAddress + address);
+        final float value = unsafe.getFloat(startAddress() + address);
         return value;
     }
 
     @Override
     public double load_f64(Node node, int address) {
         validateAddress(node, address, 8);
-        final double value = unsafe.getDouble(startAddress + address);
+        final double value = unsafe.getDouble(startAddress() + address);
         return value;
     }
 
     @Override
     public int load_i32_8s(Node node, int address) {
         validateAddress(node, address, 1);
-        final int value = unsafe.getByte(startAddress + address);
+        final int value = unsafe.getByte(startAddress() + address);
         return value;
     }
 
     @Override
     public int load_i32_8u(Node node, int address) {
         validateAddress(node, address, 1);
-        final int value = 0x0000_00ff & unsafe.getByte(startAddress + address);
+        final int value = 0x0000_00ff & unsafe.getByte(startAddress() + address);
         return value;
     }
 
     @Override
     public int load_i32_16s(Node node, int address) {
         validateAddress(node, address, 2);
-        final int value = unsafe.getShort(startAddress + address);
+        final int value = unsafe.getShort(startAddress() + address);
         return value;
     }
 
     @Override
     public int load_i32_16u(Node node, int address) {
         validateAddress(node, address, 2);
-        final int value = 0x0000_ffff & unsafe.getShort(startAddress + address);
+        final int value = 0x0000_ffff & unsafe.getShort(startAddress() + address);
         return value;
     }
 
     @Override
     public long load_i64_8s(Node node, int address) {
         validateAddress(node, address, 1);
-        final long value = unsafe.getByte(startAddress + address);
+        final long value = unsafe.getByte(startAddress() + address);
         return value;
     }
 
     @Override
     public long load_i64_8u(Node node, int address) {
         validateAddress(node, address, 1);
-        final long value = 0x0000_0000_0000_00ffL & unsafe.getByte(startAddress + address);
+        final long value = 0x0000_0000_0000_00ffL & unsafe.getByte(startAddress() + address);
         return value;
     }
 
     @Override
     public long load_i64_16s(Node node, int address) {
         validateAddress(node, address, 2);
-        final long value = unsafe.getShort(startAddress + address);
+        final long value = unsafe.getShort(startAddress() + address);
         return value;
     }
 
     @Override
     public long load_i64_16u(Node node, int address) {
         validateAddress(node, address, 2);
-        final long value = 0x0000_0000_0000_ffffL & unsafe.getShort(startAddress + address);
+        final long value = 0x0000_0000_0000_ffffL & unsafe.getShort(startAddress() + address);
         return value;
     }
 
     @Override
     public long load_i64_32s(Node node, int address) {
         validateAddress(node, address, 4);
-        final long value = unsafe.getInt(startAddress + address);
+        final long value = unsafe.getInt(startAddress() + address);
         return value;
     }
 
     @Override
     public long load_i64_32u(Node node, int address) {
         validateAddress(node, address, 4);
-        final long value = 0x0000_0000_ffff_ffffL & unsafe.getInt(startAddress + address);
+        final long value = 0x0000_0000_ffff_ffffL & unsafe.getInt(startAddress() + address);
         return value;
     }
 
     @Override
     public void store_i32(Node node, int address, int value) {
         validateAddress(node, address, 4);
-        unsafe.putInt(startAddress + address, value);
+        unsafe.putInt(startAddress() + address, value);
     }
 
     @Override
     public void store_i64(Node node, int address, long value) {
         validateAddress(node, address, 8);
-        unsafe.putLong(startAddress + address, value);
+        unsafe.putLong(startAddress() + address, value);
 
     }
 
     @Override
     public void store_f32(Node node, int address, float value) {
         validateAddress(node, address, 4);
-        unsafe.putFloat(startAddress + address, value);
+        unsafe.putFloat(startAddress() + address, value);
 
     }
 
     @Override
     public void store_f64(Node node, int address, double value) {
         validateAddress(node, address, 8);
-        unsafe.putDouble(startAddress + address, value);
+        unsafe.putDouble(startAddress() + address, value);
     }
 
     @Override
     public void store_i32_8(Node node, int address, byte value) {
         validateAddress(node, address, 1);
-        unsafe.putByte(startAddress + address, value);
+        unsafe.putByte(startAddress() + address, value);
     }
 
     @Override
     public void store_i32_16(Node node, int address, short value) {
         validateAddress(node, address, 2);
-        unsafe.putShort(startAddress + address, value);
+        unsafe.putShort(startAddress() + address, value);
     }
 
     @Override
     public void store_i64_8(Node node, int address, byte value) {
         validateAddress(node, address, 1);
-        unsafe.putByte(startAddress + address, value);
+        unsafe.putByte(startAddress() + address, value);
     }
 
     @Override
     public void store_i64_16(Node node, int address, short value) {
         validateAddress(node, address, 2);
-        unsafe.putShort(startAddress + address, value);
+        unsafe.putShort(startAddress() + address, value);
     }
 
     @Override
     public void store_i64_32(Node node, int address, int value) {
         validateAddress(node, address, 4);
-        unsafe.putInt(startAddress + address, value);
+        unsafe.putInt(startAddress() + address, value);
     }
 
     @Override
     public WasmMemory duplicate() {
-        final UnsafeWasmMemory other = new UnsafeWasmMemory(declaredMinSize, declaredMaxSize, size, maxAllowedSize);
+        final UnsafeWasmMemory other = new UnsafeWasmMemory(declaredMinSize, declaredMaxSize, size, maxAllowedSize, reservedSize, shared);
         unsafe.copyMemory(this.startAddress, other.startAddress, this.byteSize());
         return other;
     }
 
+    @Override
+    public void atomic_fence() {
+        unsafe.fullFence();
+    }
+
+    @Override
+    protected int atomicGetInt(int address) {
+        return unsafe.getIntVolatile(null, startAddress() + address);
+    }
+
+    @Override
+    protected long atomicGetLong(int address) {
+        return unsafe.getLongVolatile(null, startAddress() + address);
+    }
+
+    @Override
+    protected void atomicPutInt(int address, int value) {
+        unsafe.putIntVolatile(null, startAddress() + address, value);
+    }
+
+    @Override
+    protected void atomicPutLong(int address, long value) {
+        unsafe.putLongVolatile(null, startAddress() + address, value);
+    }
+
+    @Override
+    protected boolean atomicCompareAndSetInt(int address, int expected, int value) {
+        return unsafe.compareAndSwapInt(null, startAddress() + address, expected, value);
+    }
+
+    @Override
+    protected boolean atomicCompareAndSetLong(int address, long expected, long value) {
+        return unsafe.compareAndSwapLong(null, startAddress() + address, expected, value);
+    }
+
+    @Override
+    protected int atomicGetAndAddInt(int address, int delta) {
+        return unsafe.getAndAddInt(null, startAddress() + address, delta);
+    }
+
+    @Override
+    protected long atomicGetAndAddLong(int address, long delta) {
+        return unsafe.getAndAddLong(null, startAddress() + address, delta);
+    }
+
+    @Override
+    protected int atomicGetAndSetInt(int address, int value) {
+        return unsafe.getAndSetInt(null, startAddress() + address, value);
+    }
+
+    @Override
+    protected long atomicGetAndSetLong(int address, long value) {
+        return unsafe.getAndSetLong(null, startAddress() + address, value);
+    }
+
     public void free() {
         unsafe.freeMemory(this.startAddress);
-        startAddress = 0;
+        setStartAddress(0);
         size = 0;
+        reservedSize = 0;
     }
 
     public boolean freed() {
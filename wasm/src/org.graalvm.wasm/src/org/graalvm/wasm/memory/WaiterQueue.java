@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.graalvm.wasm.memory;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The threads that are suspended in {@link WasmMemory#atomic_wait} on a shared memory, grouped by
+ * address. All operations synchronize on the queue, so that comparing the expected value and
+ * suspending a thread is atomic with respect to {@link WasmMemory#atomic_notify}.
+ */
+final class WaiterQueue {
+    private static final int OK = 0;
+    private static final int NOT_EQUAL = 1;
+    private static final int TIMED_OUT = 2;
+
+    private static final class Waiter {
+        boolean notified;
+    }
+
+    private final HashMap<Integer, ArrayDeque<Waiter>> waiters = new HashMap<>();
+
+    @TruffleBoundary
+    synchronized int await(WasmMemory memory, int address, int width, long expected, long timeout) {
+        final long value = width == 8 ? memory.atomicGetLong(address) : memory.atomicGetInt(address);
+        if (value != (width == 8 ? expected : (int) expected)) {
+            return NOT_EQUAL;
+        }
+        final Waiter waiter = new Waiter();
+        final ArrayDeque<Waiter> queue = waiters.computeIfAbsent(address, a -> new ArrayDeque<>());
+        queue.addLast(waiter);
+        final long deadline = timeout < 0 ? 0 : System.nanoTime() + timeout;
+        try {
+            while (!waiter.notified) {
+                if (timeout < 0) {
+                    wait();
+                } else {
+                    final long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        remove(address, queue, waiter);
+                        return TIMED_OUT;
+                    }
+                    TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                }
+            }
+            return OK;
+        } catch (InterruptedException e) {
+            // The thread is being cancelled, so it must not remain in the queue.
+            remove(address, queue, waiter);
+            Thread.currentThread().interrupt();
+            return TIMED_OUT;
+        }
+    }
+
+    @TruffleBoundary
+    synchronized int notify(int address, int count) {
+        final ArrayDeque<Waiter> queue = waiters.get(address);
+        if (queue == null) {
+            return 0;
+        }
+        final long maxCount = Integer.toUnsignedLong(count);
+        int woken = 0;
+        for (Iterator<Waiter> iterator = queue.iterator(); iterator.hasNext() && woken < maxCount;) {
+            iterator.next().notified = true;
+            iterator.remove();
+            woken++;
+        }
+        if (queue.isEmpty()) {
+            waiters.remove(address);
+        }
+        if (woken > 0) {
+            notifyAll();
+        }
+        return woken;
+    }
+
+    private void remove(int address, ArrayDeque<Waiter> queue, Waiter waiter) {
+        queue.remove(waiter);
+        if (queue.isEmpty()) {
+            waiters.remove(address, queue);
+        }
+    }
+}
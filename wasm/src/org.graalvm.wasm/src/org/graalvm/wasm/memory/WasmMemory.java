@@ -52,8 +52,11 @@ import com.oracle.truffle.api.library.ExportMessage;
 import com.oracle.truffle.api.nodes.Node;
 import org.graalvm.wasm.collection.ByteArrayList;
 import org.graalvm.wasm.constants.Sizes;
+import org.graalvm.wasm.exception.Failure;
+import org.graalvm.wasm.exception.WasmException;
 import org.graalvm.wasm.nodes.WasmNode;
 
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 
 import static com.oracle.truffle.api.CompilerDirectives.transferToInterpreter;
@@ -62,8 +65,86 @@ import static java.lang.Math.toIntExact;
 @ExportLibrary(InteropLibrary.class)
 public abstract class WasmMemory implements TruffleObject {
 
+    public static final int RMW_ADD = 0;
+    public static final int RMW_SUB = 1;
+    public static final int RMW_AND = 2;
+    public static final int RMW_OR = 3;
+    public static final int RMW_XOR = 4;
+    public static final int RMW_XCHG = 5;
+
+    private final WaiterQueue waiterQueue = new WaiterQueue();
+
+    /**
+     * Copies {@code n} bytes from the address {@code src} to the address {@code dst} of this
+     * memory. The two regions may overlap. All arguments are unsigned.
+     *
+     * @throws WasmException if one of the regions is out of bounds, in which case the memory is
+     *             left unchanged
+     */
     public abstract void copy(Node node, int src, int dst, int n);
 
+    /**
+     * Sets the {@code n} bytes starting at {@code address} to {@code value}. All arguments except
+     * {@code value} are unsigned.
+     *
+     * @throws WasmException if the region is out of bounds, in which case the memory is left
+     *             unchanged
+     */
+    public abstract void fill(Node node, int address, int n, byte value);
+
+    /**
+     * Copies {@code n} bytes starting at {@code sourceOffset} in {@code source} to this memory,
+     * starting at {@code address}. The caller is responsible for the bounds of {@code source}.
+     *
+     * @throws WasmException if the destination region is out of bounds, in which case the memory
+     *             is left unchanged
+     */
+    public abstract void initialize(Node node, byte[] source, int sourceOffset, int address, int n);
+
+    /**
+     * Copies {@code n} bytes starting at {@code address} in this memory to {@code target}, starting
+     * at {@code targetOffset}. The caller is responsible for the bounds of {@code target}.
+     *
+     * @throws WasmException if the source region is out of bounds
+     */
+    public abstract void copyToBuffer(Node node, int address, byte[] target, int targetOffset, int n);
+
+    /**
+     * Like {@link #initialize(Node, byte[], int, int, int)}, but copies {@code n} bytes of
+     * {@code source}, starting at its position, which is advanced by {@code n}. A direct buffer is
+     * copied without an intermediate array. The caller is responsible for {@code source} having
+     * {@code n} remaining bytes.
+     *
+     * @throws WasmException if the destination region is out of bounds, in which case the memory
+     *             is left unchanged
+     */
+    public abstract void initialize(Node node, ByteBuffer source, int address, int n);
+
+    /**
+     * Like {@link #copyToBuffer(Node, int, byte[], int, int)}, but copies to {@code target},
+     * starting at its position, which is advanced by {@code n}. A direct buffer is filled without
+     * an intermediate array. The caller is responsible for {@code target} having {@code n}
+     * remaining bytes.
+     *
+     * @throws WasmException if the source region is out of bounds
+     */
+    public abstract void copyToBuffer(Node node, int address, ByteBuffer target, int n);
+
+    /**
+     * Returns a heap {@link ByteBuffer} that shares its content with the {@code n} bytes starting
+     * at {@code address} in this memory, with its position and limit delimiting these bytes, so
+     * that channels transfer data from and to the memory without intermediate copies. Returns
+     * {@code null} if this memory is not backed by an array. The JDK has no public API to create a
+     * direct buffer at a given native address, so a memory backed by native memory cannot offer a
+     * view; its data must be copied with {@link #copyToBuffer(Node, int, ByteBuffer, int)} and
+     * {@link #initialize(Node, ByteBuffer, int, int)}, preferably through a direct buffer.
+     * <p>
+     * The buffer must not be used after the memory grows or is freed.
+     *
+     * @throws WasmException if the region is out of bounds
+     */
+    public abstract ByteBuffer asByteBuffer(Node node, int address, int n);
+
     /**
      * The current size of this memory instance (measured in number of {@link Sizes#MEMORY_PAGE_SIZE
      * pages}).
@@ -97,6 +178,12 @@ public abstract class WasmMemory implements TruffleObject {
 
     public abstract boolean grow(int extraPageSize);
 
+    /**
+     * Whether this memory was declared as {@code shared}, i.e. may be accessed by multiple threads
+     * at the same time. Only shared memories support {@link #atomic_wait waiting}.
+     */
+    public abstract boolean isShared();
+
     /**
      * Shrinks this memory's size to its {@link #declaredMinSize()} initial size}, and sets all
      * bytes to 0.
@@ -152,8 +239,262 @@ public abstract class WasmMemory implements TruffleObject {
     public abstract void store_i64_16(Node node, int address, short value);
 
     public abstract void store_i64_32(Node node, int address, int value);
+
+    public abstract void atomic_fence();
+
+    /**
+     * Atomically loads the {@code width}-byte value at {@code address}, zero-extended to a
+     * {@code long}.
+     */
+    public final long atomic_load(Node node, int address, int width) {
+        checkAtomicAddress(node, address, width);
+        switch (width) {
+            case 8:
+                return atomicGetLong(address);
+            case 4:
+                return Integer.toUnsignedLong(atomicGetInt(address));
+            default:
+                return subwordValue(atomicGetInt(address & ~3), address, width);
+        }
+    }
+
+    /**
+     * Atomically stores the lowest {@code width} bytes of {@code value} at {@code address}.
+     */
+    public final void atomic_store(Node node, int address, int width, long value) {
+        checkAtomicAddress(node, address, width);
+        switch (width) {
+            case 8:
+                atomicPutLong(address, value);
+                break;
+            case 4:
+                atomicPutInt(address, (int) value);
+                break;
+            default:
+                atomic_rmw_subword(address, width, RMW_XCHG, value);
+                break;
+        }
+    }
+
+    /**
+     * Atomically applies the read-modify-write {@code operation} (one of the {@code RMW_*}
+     * constants) with the {@code operand} to the {@code width}-byte value at {@code address}.
+     *
+     * @return the previous value, zero-extended to a {@code long}
+     */
+    public final long atomic_rmw(Node node, int address, int width, int operation, long operand) {
+        checkAtomicAddress(node, address, width);
+        switch (width) {
+            case 8:
+                if (operation == RMW_ADD) {
+                    return atomicGetAndAddLong(address, operand);
+                } else if (operation == RMW_XCHG) {
+                    return atomicGetAndSetLong(address, operand);
+                } else {
+                    long previous;
+                    do {
+                        previous = atomicGetLong(address);
+                    } while (!atomicCompareAndSetLong(address, previous, apply(operation, previous, operand)));
+                    return previous;
+                }
+            case 4:
+                if (operation == RMW_ADD) {
+                    return Integer.toUnsignedLong(atomicGetAndAddInt(address, (int) operand));
+                } else if (operation == RMW_XCHG) {
+                    return Integer.toUnsignedLong(atomicGetAndSetInt(address, (int) operand));
+                } else {
+                    int previous;
+                    do {
+                        previous = atomicGetInt(address);
+                    } while (!atomicCompareAndSetInt(address, previous, (int) apply(operation, previous, operand)));
+                    return Integer.toUnsignedLong(previous);
+                }
+            default:
+                return atomic_rmw_subword(address, width, operation, operand);
+        }
+    }
+
+    /**
+     * Atomically replaces the {@code width}-byte value at {@code address} with the lowest
+     * {@code width} bytes of {@code replacement}, if it is equal to the lowest {@code width} bytes
+     * of {@code expected}.
+     *
+     * @return the previous value, zero-extended to a {@code long}
+     */
+    public final long atomic_cmpxchg(Node node, int address, int width, long expected, long replacement) {
+        checkAtomicAddress(node, address, width);
+        switch (width) {
+            case 8: {
+                long previous;
+                do {
+                    previous = atomicGetLong(address);
+                } while (previous == expected && !atomicCompareAndSetLong(address, expected, replacement));
+                return previous;
+            }
+            case 4: {
+                int previous;
+                do {
+                    previous = atomicGetInt(address);
+                } while (previous == (int) expected && !atomicCompareAndSetInt(address, (int) expected, (int) replacement));
+                return Integer.toUnsignedLong(previous);
+            }
+            default: {
+                final int wordAddress = address & ~3;
+                final long mask = width == 1 ? 0xFFL : 0xFFFFL;
+                while (true) {
+                    final int word = atomicGetInt(wordAddress);
+                    final long previous = subwordValue(word, address, width);
+                    if (previous != (expected & mask) || atomicCompareAndSetInt(wordAddress, word, withSubwordValue(word, address, width, replacement))) {
+                        return previous;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Suspends the current thread until it is notified through {@link #atomic_notify} on the same
+     * {@code address}, or until {@code timeout} nanoseconds have passed. A negative timeout never
+     * expires. The thread is not suspended if the {@code width}-byte value at {@code address} is
+     * not equal to {@code expected}.
+     *
+     * @return 0 if the thread was notified, 1 if the value was not equal to {@code expected}, and
+     *         2 if the timeout expired
+     */
+    public final int atomic_wait(Node node, int address, int width, long expected, long timeout) {
+        checkAtomicAddress(node, address, width);
+        if (!isShared()) {
+            throw WasmException.create(Failure.EXPECTED_SHARED_MEMORY, node);
+        }
+        return waiterQueue.await(this, address, width, expected, timeout);
+    }
+
+    /**
+     * Wakes up at most {@code count} threads that are {@link #atomic_wait waiting} on
+     * {@code address}. The {@code count} is unsigned.
+     *
+     * @return the number of threads that were woken up
+     */
+    public final int atomic_notify(Node node, int address, int count) {
+        checkAtomicAddress(node, address, 4);
+        if (!isShared()) {
+            return 0;
+        }
+        return waiterQueue.notify(address, count);
+    }
     // Checkstyle: resume
 
+    private long atomic_rmw_subword(int address, int width, int operation, long operand) {
+        final int wordAddress = address & ~3;
+        while (true) {
+            final int word = atomicGetInt(wordAddress);
+            final long previous = subwordValue(word, address, width);
+            if (atomicCompareAndSetInt(wordAddress, word, withSubwordValue(word, address, width, apply(operation, previous, operand)))) {
+                return previous;
+            }
+        }
+    }
+
+    /*
+     * Sub-word atomic accesses are implemented on the naturally aligned 4-byte word that contains
+     * them. The memory is little-endian, so the byte at address a is stored in bits 8 * (a % 4) of
+     * its word.
+     */
+
+    private static long subwordValue(int word, int address, int width) {
+        final int shift = (address & 3) << 3;
+        final int mask = width == 1 ? 0xFF : 0xFFFF;
+        return (word >>> shift) & mask;
+    }
+
+    private static int withSubwordValue(int word, int address, int width, long value) {
+        final int shift = (address & 3) << 3;
+        final int mask = (width == 1 ? 0xFF : 0xFFFF) << shift;
+        return (word & ~mask) | (((int) value << shift) & mask);
+    }
+
+    private static long apply(int operation, long previous, long operand) {
+        switch (operation) {
+            case RMW_ADD:
+                return previous + operand;
+            case RMW_SUB:
+                return previous - operand;
+            case RMW_AND:
+                return previous & operand;
+            case RMW_OR:
+                return previous | operand;
+            case RMW_XOR:
+                return previous ^ operand;
+            case RMW_XCHG:
+                return operand;
+            default:
+                throw CompilerDirectives.shouldNotReachHere();
+        }
+    }
+
+    /**
+     * Checks that an access of {@code width} bytes at {@code address} is in bounds, for accesses
+     * that are performed as several smaller loads or stores.
+     *
+     * @throws WasmException if the access is out of bounds
+     */
+    public final void checkAccess(Node node, int address, int width) {
+        if (Integer.toUnsignedLong(address) + width > byteSize()) {
+            throw trapOutOfBoundsAccess(node, address, width);
+        }
+    }
+
+    @CompilerDirectives.TruffleBoundary
+    private WasmException trapOutOfBoundsAccess(Node node, int address, int width) {
+        return WasmException.format(Failure.OUT_OF_BOUNDS_MEMORY_ACCESS, node, "%d-byte memory access at address 0x%016X (%d) is out-of-bounds (memory size %d bytes).",
+                        width, address, address, byteSize());
+    }
+
+    private void checkAtomicAddress(Node node, int address, int width) {
+        if (Integer.toUnsignedLong(address) + width > byteSize()) {
+            throw trapOutOfBoundsAtomic(node, address, width);
+        }
+        if ((address & (width - 1)) != 0) {
+            throw trapUnalignedAtomic(node, address, width);
+        }
+    }
+
+    @CompilerDirectives.TruffleBoundary
+    private WasmException trapOutOfBoundsAtomic(Node node, int address, int width) {
+        return WasmException.format(Failure.OUT_OF_BOUNDS_MEMORY_ACCESS, node, "%d-byte atomic memory access at address 0x%016X (%d) is out-of-bounds (memory size %d bytes).",
+                        width, address, address, byteSize());
+    }
+
+    @CompilerDirectives.TruffleBoundary
+    private static WasmException trapUnalignedAtomic(Node node, int address, int width) {
+        return WasmException.format(Failure.UNALIGNED_ATOMIC, node, "%d-byte atomic memory access at address 0x%016X (%d) is not aligned.", width, address, address);
+    }
+
+    /*
+     * Sequentially consistent accesses to naturally aligned 4-byte and 8-byte values. The address
+     * is already checked by the caller.
+     */
+
+    protected abstract int atomicGetInt(int address);
+
+    protected abstract long atomicGetLong(int address);
+
+    protected abstract void atomicPutInt(int address, int value);
+
+    protected abstract void atomicPutLong(int address, long value);
+
+    protected abstract boolean atomicCompareAndSetInt(int address, int expected, int value);
+
+    protected abstract boolean atomicCompareAndSetLong(int address, long expected, long value);
+
+    protected abstract int atomicGetAndAddInt(int address, int delta);
+
+    protected abstract long atomicGetAndAddLong(int address, long delta);
+
+    protected abstract int atomicGetAndSetInt(int address, int value);
+
+    protected abstract long atomicGetAndSetLong(int address, long value);
+
     public abstract WasmMemory duplicate();
 
     /**
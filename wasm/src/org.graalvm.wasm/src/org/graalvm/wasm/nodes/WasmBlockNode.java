@@ -48,7 +48,6 @@ import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.ExactMath;
 import com.oracle.truffle.api.HostCompilerDirectives.BytecodeInterpreterSwitch;
 import com.oracle.truffle.api.HostCompilerDirectives.BytecodeInterpreterSwitchBoundary;
-import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.TruffleLanguage.ContextReference;
 import com.oracle.truffle.api.frame.FrameSlotTypeException;
 import com.oracle.truffle.api.frame.VirtualFrame;
@@ -59,6 +58,8 @@ import com.oracle.truffle.api.nodes.Node;
 import com.oracle.truffle.api.nodes.RepeatingNode;
 import org.graalvm.wasm.BinaryStreamParser;
 import org.graalvm.wasm.SymbolTable;
+import org.graalvm.wasm.Vector128;
+import org.graalvm.wasm.Vector128Ops;
 import org.graalvm.wasm.WasmCodeEntry;
 import org.graalvm.wasm.WasmContext;
 import org.graalvm.wasm.WasmFunction;
@@ -66,8 +67,10 @@ import org.graalvm.wasm.WasmFunctionInstance;
 import org.graalvm.wasm.WasmInstance;
 import org.graalvm.wasm.WasmLanguage;
 import org.graalvm.wasm.WasmMath;
+import org.graalvm.wasm.WasmModule;
 import org.graalvm.wasm.WasmTable;
 import org.graalvm.wasm.WasmType;
+import org.graalvm.wasm.constants.AtomicInstructions;
 import org.graalvm.wasm.exception.Failure;
 import org.graalvm.wasm.exception.WasmException;
 import org.graalvm.wasm.memory.WasmMemory;
@@ -75,6 +78,7 @@ import org.graalvm.wasm.memory.WasmMemory;
 import static org.graalvm.wasm.BinaryStreamParser.length;
 import static org.graalvm.wasm.BinaryStreamParser.value;
 import static org.graalvm.wasm.WasmMath.addExactUnsigned;
+import static org.graalvm.wasm.constants.Instructions.ATOMIC;
 import static org.graalvm.wasm.constants.Instructions.BLOCK;
 import static org.graalvm.wasm.constants.Instructions.BR;
 import static org.graalvm.wasm.constants.Instructions.BR_IF;
@@ -243,10 +247,157 @@ import static org.graalvm.wasm.constants.Instructions.LOCAL_TEE;
 import static org.graalvm.wasm.constants.Instructions.LOOP;
 import static org.graalvm.wasm.constants.Instructions.MEMORY_GROW;
 import static org.graalvm.wasm.constants.Instructions.MEMORY_SIZE;
+import static org.graalvm.wasm.constants.Instructions.MISC;
 import static org.graalvm.wasm.constants.Instructions.NOP;
 import static org.graalvm.wasm.constants.Instructions.RETURN;
 import static org.graalvm.wasm.constants.Instructions.SELECT;
 import static org.graalvm.wasm.constants.Instructions.UNREACHABLE;
+import static org.graalvm.wasm.constants.Instructions.VECTOR;
+import static org.graalvm.wasm.constants.AtomicInstructions.ATOMIC_FENCE;
+import static org.graalvm.wasm.constants.AtomicInstructions.I32_ATOMIC_RMW_ADD;
+import static org.graalvm.wasm.constants.AtomicInstructions.I64_ATOMIC_LOAD32_U;
+import static org.graalvm.wasm.constants.AtomicInstructions.I64_ATOMIC_RMW32_XCHG_U;
+import static org.graalvm.wasm.constants.AtomicInstructions.I64_ATOMIC_STORE32;
+import static org.graalvm.wasm.constants.AtomicInstructions.MEMORY_ATOMIC_NOTIFY;
+import static org.graalvm.wasm.constants.AtomicInstructions.MEMORY_ATOMIC_WAIT32;
+import static org.graalvm.wasm.constants.AtomicInstructions.MEMORY_ATOMIC_WAIT64;
+import static org.graalvm.wasm.constants.MiscInstructions.DATA_DROP;
+import static org.graalvm.wasm.constants.MiscInstructions.MEMORY_COPY;
+import static org.graalvm.wasm.constants.MiscInstructions.MEMORY_FILL;
+import static org.graalvm.wasm.constants.MiscInstructions.MEMORY_INIT;
+import static org.graalvm.wasm.constants.VectorInstructions.F32X4_ABS;
+import static org.graalvm.wasm.constants.VectorInstructions.F32X4_CEIL;
+import static org.graalvm.wasm.constants.VectorInstructions.F32X4_CONVERT_I32X4_S;
+import static org.graalvm.wasm.constants.VectorInstructions.F32X4_CONVERT_I32X4_U;
+import static org.graalvm.wasm.constants.VectorInstructions.F32X4_DEMOTE_F64X2_ZERO;
+import static org.graalvm.wasm.constants.VectorInstructions.F32X4_EXTRACT_LANE;
+import static org.graalvm.wasm.constants.VectorInstructions.F32X4_FLOOR;
+import static org.graalvm.wasm.constants.VectorInstructions.F32X4_NEAREST;
+import static org.graalvm.wasm.constants.VectorInstructions.F32X4_NEG;
+import static org.graalvm.wasm.constants.VectorInstructions.F32X4_REPLACE_LANE;
+import static org.graalvm.wasm.constants.VectorInstructions.F32X4_SPLAT;
+import static org.graalvm.wasm.constants.VectorInstructions.F32X4_SQRT;
+import static org.graalvm.wasm.constants.VectorInstructions.F32X4_TRUNC;
+import static org.graalvm.wasm.constants.VectorInstructions.F64X2_ABS;
+import static org.graalvm.wasm.constants.VectorInstructions.F64X2_CEIL;
+import static org.graalvm.wasm.constants.VectorInstructions.F64X2_CONVERT_LOW_I32X4_S;
+import static org.graalvm.wasm.constants.VectorInstructions.F64X2_CONVERT_LOW_I32X4_U;
+import static org.graalvm.wasm.constants.VectorInstructions.F64X2_EXTRACT_LANE;
+import static org.graalvm.wasm.constants.VectorInstructions.F64X2_FLOOR;
+import static org.graalvm.wasm.constants.VectorInstructions.F64X2_NEAREST;
+import static org.graalvm.wasm.constants.VectorInstructions.F64X2_NEG;
+import static org.graalvm.wasm.constants.VectorInstructions.F64X2_PROMOTE_LOW_F32X4;
+import static org.graalvm.wasm.constants.VectorInstructions.F64X2_REPLACE_LANE;
+import static org.graalvm.wasm.constants.VectorInstructions.F64X2_SPLAT;
+import static org.graalvm.wasm.constants.VectorInstructions.F64X2_SQRT;
+import static org.graalvm.wasm.constants.VectorInstructions.F64X2_TRUNC;
+import static org.graalvm.wasm.constants.VectorInstructions.I16X8_ABS;
+import static org.graalvm.wasm.constants.VectorInstructions.I16X8_ALL_TRUE;
+import static org.graalvm.wasm.constants.VectorInstructions.I16X8_BITMASK;
+import static org.graalvm.wasm.constants.VectorInstructions.I16X8_EXTADD_PAIRWISE_I8X16_S;
+import static org.graalvm.wasm.constants.VectorInstructions.I16X8_EXTADD_PAIRWISE_I8X16_U;
+import static org.graalvm.wasm.constants.VectorInstructions.I16X8_EXTEND_HIGH_I8X16_S;
+import static org.graalvm.wasm.constants.VectorInstructions.I16X8_EXTEND_HIGH_I8X16_U;
+import static org.graalvm.wasm.constants.VectorInstructions.I16X8_EXTEND_LOW_I8X16_S;
+import static org.graalvm.wasm.constants.VectorInstructions.I16X8_EXTEND_LOW_I8X16_U;
+import static org.graalvm.wasm.constants.VectorInstructions.I16X8_EXTMUL_HIGH_I8X16_S;
+import static org.graalvm.wasm.constants.VectorInstructions.I16X8_EXTMUL_HIGH_I8X16_U;
+import static org.graalvm.wasm.constants.VectorInstructions.I16X8_EXTMUL_LOW_I8X16_S;
+import static org.graalvm.wasm.constants.VectorInstructions.I16X8_EXTMUL_LOW_I8X16_U;
+import static org.graalvm.wasm.constants.VectorInstructions.I16X8_EXTRACT_LANE_S;
+import static org.graalvm.wasm.constants.VectorInstructions.I16X8_EXTRACT_LANE_U;
+import static org.graalvm.wasm.constants.VectorInstructions.I16X8_NARROW_I32X4_S;
+import static org.graalvm.wasm.constants.VectorInstructions.I16X8_NARROW_I32X4_U;
+import static org.graalvm.wasm.constants.VectorInstructions.I16X8_NEG;
+import static org.graalvm.wasm.constants.VectorInstructions.I16X8_REPLACE_LANE;
+import static org.graalvm.wasm.constants.VectorInstructions.I16X8_SHL;
+import static org.graalvm.wasm.constants.VectorInstructions.I16X8_SHR_S;
+import static org.graalvm.wasm.constants.VectorInstructions.I16X8_SHR_U;
+import static org.graalvm.wasm.constants.VectorInstructions.I16X8_SPLAT;
+import static org.graalvm.wasm.constants.VectorInstructions.I32X4_ABS;
+import static org.graalvm.wasm.constants.VectorInstructions.I32X4_ALL_TRUE;
+import static org.graalvm.wasm.constants.VectorInstructions.I32X4_BITMASK;
+import static org.graalvm.wasm.constants.VectorInstructions.I32X4_EXTADD_PAIRWISE_I16X8_S;
+import static org.graalvm.wasm.constants.VectorInstructions.I32X4_EXTADD_PAIRWISE_I16X8_U;
+import static org.graalvm.wasm.constants.VectorInstructions.I32X4_EXTEND_HIGH_I16X8_S;
+import static org.graalvm.wasm.constants.VectorInstructions.I32X4_EXTEND_HIGH_I16X8_U;
+import static org.graalvm.wasm.constants.VectorInstructions.I32X4_EXTEND_LOW_I16X8_S;
+import static org.graalvm.wasm.constants.VectorInstructions.I32X4_EXTEND_LOW_I16X8_U;
+import static org.graalvm.wasm.constants.VectorInstructions.I32X4_EXTMUL_HIGH_I16X8_S;
+import static org.graalvm.wasm.constants.VectorInstructions.I32X4_EXTMUL_HIGH_I16X8_U;
+import static org.graalvm.wasm.constants.VectorInstructions.I32X4_EXTMUL_LOW_I16X8_S;
+import static org.graalvm.wasm.constants.VectorInstructions.I32X4_EXTMUL_LOW_I16X8_U;
+import static org.graalvm.wasm.constants.VectorInstructions.I32X4_EXTRACT_LANE;
+import static org.graalvm.wasm.constants.VectorInstructions.I32X4_NEG;
+import static org.graalvm.wasm.constants.VectorInstructions.I32X4_REPLACE_LANE;
+import static org.graalvm.wasm.constants.VectorInstructions.I32X4_SHL;
+import static org.graalvm.wasm.constants.VectorInstructions.I32X4_SHR_S;
+import static org.graalvm.wasm.constants.VectorInstructions.I32X4_SHR_U;
+import static org.graalvm.wasm.constants.VectorInstructions.I32X4_SPLAT;
+import static org.graalvm.wasm.constants.VectorInstructions.I32X4_TRUNC_SAT_F32X4_S;
+import static org.graalvm.wasm.constants.VectorInstructions.I32X4_TRUNC_SAT_F32X4_U;
+import static org.graalvm.wasm.constants.VectorInstructions.I32X4_TRUNC_SAT_F64X2_S_ZERO;
+import static org.graalvm.wasm.constants.VectorInstructions.I32X4_TRUNC_SAT_F64X2_U_ZERO;
+import static org.graalvm.wasm.constants.VectorInstructions.I64X2_ABS;
+import static org.graalvm.wasm.constants.VectorInstructions.I64X2_ALL_TRUE;
+import static org.graalvm.wasm.constants.VectorInstructions.I64X2_BITMASK;
+import static org.graalvm.wasm.constants.VectorInstructions.I64X2_EXTEND_HIGH_I32X4_S;
+import static org.graalvm.wasm.constants.VectorInstructions.I64X2_EXTEND_HIGH_I32X4_U;
+import static org.graalvm.wasm.constants.VectorInstructions.I64X2_EXTEND_LOW_I32X4_S;
+import static org.graalvm.wasm.constants.VectorInstructions.I64X2_EXTEND_LOW_I32X4_U;
+import static org.graalvm.wasm.constants.VectorInstructions.I64X2_EXTMUL_HIGH_I32X4_S;
+import static org.graalvm.wasm.constants.VectorInstructions.I64X2_EXTMUL_HIGH_I32X4_U;
+import static org.graalvm.wasm.constants.VectorInstructions.I64X2_EXTMUL_LOW_I32X4_S;
+import static org.graalvm.wasm.constants.VectorInstructions.I64X2_EXTMUL_LOW_I32X4_U;
+import static org.graalvm.wasm.constants.VectorInstructions.I64X2_EXTRACT_LANE;
+import static org.graalvm.wasm.constants.VectorInstructions.I64X2_NEG;
+import static org.graalvm.wasm.constants.VectorInstructions.I64X2_REPLACE_LANE;
+import static org.graalvm.wasm.constants.VectorInstructions.I64X2_SHL;
+import static org.graalvm.wasm.constants.VectorInstructions.I64X2_SHR_S;
+import static org.graalvm.wasm.constants.VectorInstructions.I64X2_SHR_U;
+import static org.graalvm.wasm.constants.VectorInstructions.I64X2_SPLAT;
+import static org.graalvm.wasm.constants.VectorInstructions.I8X16_ABS;
+import static org.graalvm.wasm.constants.VectorInstructions.I8X16_ALL_TRUE;
+import static org.graalvm.wasm.constants.VectorInstructions.I8X16_BITMASK;
+import static org.graalvm.wasm.constants.VectorInstructions.I8X16_EXTRACT_LANE_S;
+import static org.graalvm.wasm.constants.VectorInstructions.I8X16_EXTRACT_LANE_U;
+import static org.graalvm.wasm.constants.VectorInstructions.I8X16_NARROW_I16X8_S;
+import static org.graalvm.wasm.constants.VectorInstructions.I8X16_NARROW_I16X8_U;
+import static org.graalvm.wasm.constants.VectorInstructions.I8X16_NEG;
+import static org.graalvm.wasm.constants.VectorInstructions.I8X16_POPCNT;
+import static org.graalvm.wasm.constants.VectorInstructions.I8X16_REPLACE_LANE;
+import static org.graalvm.wasm.constants.VectorInstructions.I8X16_SHL;
+import static org.graalvm.wasm.constants.VectorInstructions.I8X16_SHR_S;
+import static org.graalvm.wasm.constants.VectorInstructions.I8X16_SHR_U;
+import static org.graalvm.wasm.constants.VectorInstructions.I8X16_SHUFFLE;
+import static org.graalvm.wasm.constants.VectorInstructions.I8X16_SPLAT;
+import static org.graalvm.wasm.constants.VectorInstructions.I8X16_SWIZZLE;
+import static org.graalvm.wasm.constants.VectorInstructions.V128_ANY_TRUE;
+import static org.graalvm.wasm.constants.VectorInstructions.V128_BITSELECT;
+import static org.graalvm.wasm.constants.VectorInstructions.V128_CONST;
+import static org.graalvm.wasm.constants.VectorInstructions.V128_LOAD16X4_S;
+import static org.graalvm.wasm.constants.VectorInstructions.V128_LOAD16X4_U;
+import static org.graalvm.wasm.constants.VectorInstructions.V128_LOAD16_LANE;
+import static org.graalvm.wasm.constants.VectorInstructions.V128_LOAD16_SPLAT;
+import static org.graalvm.wasm.constants.VectorInstructions.V128_LOAD32X2_S;
+import static org.graalvm.wasm.constants.VectorInstructions.V128_LOAD32X2_U;
+import static org.graalvm.wasm.constants.VectorInstructions.V128_LOAD32_LANE;
+import static org.graalvm.wasm.constants.VectorInstructions.V128_LOAD32_SPLAT;
+import static org.graalvm.wasm.constants.VectorInstructions.V128_LOAD32_ZERO;
+import static org.graalvm.wasm.constants.VectorInstructions.V128_LOAD64_LANE;
+import static org.graalvm.wasm.constants.VectorInstructions.V128_LOAD64_SPLAT;
+import static org.graalvm.wasm.constants.VectorInstructions.V128_LOAD64_ZERO;
+import static org.graalvm.wasm.constants.VectorInstructions.V128_LOAD8X8_S;
+import static org.graalvm.wasm.constants.VectorInstructions.V128_LOAD8X8_U;
+import static org.graalvm.wasm.constants.VectorInstructions.V128_LOAD8_LANE;
+import static org.graalvm.wasm.constants.VectorInstructions.V128_LOAD8_SPLAT;
+import static org.graalvm.wasm.constants.VectorInstructions.V128_LOAD;
+import static org.graalvm.wasm.constants.VectorInstructions.V128_NOT;
+import static org.graalvm.wasm.constants.VectorInstructions.V128_STORE16_LANE;
+import static org.graalvm.wasm.constants.VectorInstructions.V128_STORE32_LANE;
+import static org.graalvm.wasm.constants.VectorInstructions.V128_STORE64_LANE;
+import static org.graalvm.wasm.constants.VectorInstructions.V128_STORE8_LANE;
+import static org.graalvm.wasm.constants.VectorInstructions.V128_STORE;
 
 public final class WasmBlockNode extends WasmNode implements RepeatingNode {
 
@@ -270,6 +421,8 @@ public final class WasmBlockNode extends WasmNode implements RepeatingNode {
     @CompilationFinal private ContextReference<WasmContext> rawContextReference;
     @Children private Node[] children;
 
+    private static final byte[] EMPTY_DATA_INSTANCE = new byte[0];
+
     private static final float MIN_FLOAT_TRUNCATABLE_TO_INT = Integer.MIN_VALUE;
     private static final float MAX_FLOAT_TRUNCATABLE_TO_INT = 2147483520f;
     private static final float MIN_FLOAT_TRUNCATABLE_TO_U_INT = -0.99999994f;
@@ -290,9 +443,9 @@ public final class WasmBlockNode extends WasmNode implements RepeatingNode {
     private static final double MIN_DOUBLE_TRUNCATABLE_TO_U_LONG = MIN_DOUBLE_TRUNCATABLE_TO_U_INT;
     private static final double MAX_DOUBLE_TRUNCATABLE_TO_U_LONG = 18446744073709550000.0;
 
-    public WasmBlockNode(WasmInstance wasmInstance, WasmCodeEntry codeEntry, int startOffset, byte returnTypeId, int initialStackPointer, int initialIntConstantOffset,
+    public WasmBlockNode(WasmModule wasmModule, WasmCodeEntry codeEntry, int startOffset, byte returnTypeId, int initialStackPointer, int initialIntConstantOffset,
                     int initialBranchTableOffset, int initialProfileOffset) {
-        super(wasmInstance, codeEntry, -1);
+        super(wasmModule, codeEntry, -1);
         this.startOffset = startOffset;
         this.returnTypeId = returnTypeId;
         this.initialStackPointer = initialStackPointer;
@@ -370,6 +523,8 @@ public final class WasmBlockNode extends WasmNode implements RepeatingNode {
         final byte[] data = codeEntry.data();
         final int[] intConstants = codeEntry.intConstants();
         final int[] profileCounters = codeEntry.profileCounters();
+        final boolean usesVectors = codeEntry.usesVectors();
+        final int vectorHighOffset = codeEntry.vectorHighOffset();
         final int blockByteLength = byteLength();
         final int offsetLimit = startOffset + blockByteLength;
         int childrenOffset = 0;
@@ -378,7 +533,8 @@ public final class WasmBlockNode extends WasmNode implements RepeatingNode {
         int stackPointer = numLocals + initialStackPointer;
         int profileOffset = initialProfileOffset;
         int offset = startOffset;
-        WasmMemory memory = instance().memory();
+        final WasmInstance instance = instance(context);
+        WasmMemory memory = instance.memory();
         check(data.length, (1 << 31) - 1);
         check(intConstants.length, (1 << 31) - 1);
         check(profileCounters.length, (1 << 31) - 1);
@@ -563,14 +719,23 @@ public final class WasmBlockNode extends WasmNode implements RepeatingNode {
                         offset += offsetDelta;
                         // endregion
 
-                        WasmFunction function = instance().symbolTable().function(functionIndex);
+                        WasmFunction function = module().symbolTable().function(functionIndex);
                         byte returnType = function.returnType();
                         int numArgs = function.numArguments();
 
                         Object[] args = createArgumentsForCall(stacklocals, function.typeIndex(), numArgs, stackPointer);
                         stackPointer -= args.length;
 
-                        Object result = executeDirectCall(childrenOffset, args);
+                        // The targets of imported functions differ between the instances that
+                        // share this node, so they are called through an inline cache. While the
+                        // module has a single instance, the target is a constant and the cache
+                        // check folds into a direct call.
+                        final Object result;
+                        if (function.isImported()) {
+                            result = executeIndirectCallNode(childrenOffset, instance.target(functionIndex), args);
+                        } else {
+                            result = executeDirectCall(childrenOffset, args);
+                        }
                         childrenOffset++;
 
                         // At the moment, WebAssembly functions may return up to one value.
@@ -597,6 +762,13 @@ public final class WasmBlockNode extends WasmNode implements RepeatingNode {
                                 stackPointer++;
                                 break;
                             }
+                            case WasmType.V128_TYPE: {
+                                final Vector128 vector = (Vector128) result;
+                                push(stacklocals, stackPointer, vector.low());
+                                push(stacklocals, vectorHighOffset + stackPointer, vector.high());
+                                stackPointer++;
+                                break;
+                            }
                             case WasmType.VOID_TYPE: {
                                 // Void return type - do nothing.
                                 break;
@@ -611,8 +783,8 @@ public final class WasmBlockNode extends WasmNode implements RepeatingNode {
                     case CALL_INDIRECT: {
                         // Extract the function object.
                         stackPointer--;
-                        final SymbolTable symtab = instance().symbolTable();
-                        final WasmTable table = instance().table();
+                        final SymbolTable symtab = module().symbolTable();
+                        final WasmTable table = instance.table();
                         final Object[] elements = table.elements();
                         final int elementIndex = popInt(stacklocals, stackPointer);
                         if (elementIndex < 0 || elementIndex >= elements.length) {
@@ -652,11 +824,11 @@ public final class WasmBlockNode extends WasmNode implements RepeatingNode {
                         if (function != null && expectedTypeEquivalenceClass != function.typeEquivalenceClass()) {
                             throw WasmException.format(Failure.INDIRECT_CALL_TYPE__MISMATCH, this,
                                             "Actual (type %d of function %s) and expected (type %d in module %s) types differ in the indirect call.",
-                                            function.typeIndex(), function.name(), expectedFunctionTypeIndex, instance().name());
+                                            function.typeIndex(), function.name(), expectedFunctionTypeIndex, module().name());
                         }
 
                         // Invoke the resolved function.
-                        int numArgs = instance().symbolTable().functionTypeArgumentCount(expectedFunctionTypeIndex);
+                        int numArgs = module().symbolTable().functionTypeArgumentCount(expectedFunctionTypeIndex);
                         Object[] args = createArgumentsForCall(stacklocals, expectedFunctionTypeIndex, numArgs, stackPointer);
                         stackPointer -= args.length;
 
@@ -666,7 +838,7 @@ public final class WasmBlockNode extends WasmNode implements RepeatingNode {
                         // At the moment, WebAssembly functions may return up to one value.
                         // As per the WebAssembly specification, this restriction may be lifted in
                         // the future.
-                        byte returnType = instance().symbolTable().functionTypeReturnType(expectedFunctionTypeIndex);
+                        byte returnType = module().symbolTable().functionTypeReturnType(expectedFunctionTypeIndex);
                         switch (returnType) {
                             case WasmType.I32_TYPE: {
                                 pushInt(stacklocals, stackPointer, (int) result);
@@ -688,6 +860,13 @@ public final class WasmBlockNode extends WasmNode implements RepeatingNode {
                                 stackPointer++;
                                 break;
                             }
+                            case WasmType.V128_TYPE: {
+                                final Vector128 vector = (Vector128) result;
+                                push(stacklocals, stackPointer, vector.low());
+                                push(stacklocals, vectorHighOffset + stackPointer, vector.high());
+                                stackPointer++;
+                                break;
+                            }
                             case WasmType.VOID_TYPE: {
                                 // Void return type - do nothing.
                                 break;
@@ -712,6 +891,11 @@ public final class WasmBlockNode extends WasmNode implements RepeatingNode {
                         stackPointer--;
                         long val1 = pop(stacklocals, stackPointer);
                         push(stacklocals, stackPointer, cond != 0 ? val1 : val2);
+                        if (usesVectors) {
+                            final long high2 = pop(stacklocals, vectorHighOffset + stackPointer + 1);
+                            final long high1 = pop(stacklocals, vectorHighOffset + stackPointer);
+                            push(stacklocals, vectorHighOffset + stackPointer, cond != 0 ? high1 : high2);
+                        }
                         stackPointer++;
                         break;
                     }
@@ -723,6 +907,9 @@ public final class WasmBlockNode extends WasmNode implements RepeatingNode {
                         offset += offsetDelta;
                         // endregion
                         local_get(stacklocals, stackPointer, index);
+                        if (usesVectors) {
+                            local_get(stacklocals, vectorHighOffset + stackPointer, vectorHighOffset + index);
+                        }
                         stackPointer++;
                         break;
                     }
@@ -735,6 +922,9 @@ public final class WasmBlockNode extends WasmNode implements RepeatingNode {
                         // endregion
                         stackPointer--;
                         local_set(stacklocals, stackPointer, index);
+                        if (usesVectors) {
+                            local_set(stacklocals, vectorHighOffset + stackPointer, vectorHighOffset + index);
+                        }
                         break;
                     }
                     case LOCAL_TEE: {
@@ -745,6 +935,9 @@ public final class WasmBlockNode extends WasmNode implements RepeatingNode {
                         offset += offsetDelta;
                         // endregion
                         local_tee(stacklocals, stackPointer - 1, index);
+                        if (usesVectors) {
+                            local_tee(stacklocals, vectorHighOffset + stackPointer - 1, vectorHighOffset + index);
+                        }
                         break;
                     }
                     case GLOBAL_GET: {
@@ -754,7 +947,7 @@ public final class WasmBlockNode extends WasmNode implements RepeatingNode {
                         int offsetDelta = length(valueLength);
                         offset += offsetDelta;
                         // endregion
-                        global_get(context, stacklocals, stackPointer, index);
+                        global_get(context, instance, stacklocals, stackPointer, index);
                         stackPointer++;
                         break;
                     }
@@ -766,7 +959,7 @@ public final class WasmBlockNode extends WasmNode implements RepeatingNode {
                         offset += offsetDelta;
                         // endregion
                         stackPointer--;
-                        global_set(context, stacklocals, stackPointer, index);
+                        global_set(context, instance, stacklocals, stackPointer, index);
                         break;
                     }
                     case I32_LOAD: {
@@ -1363,6 +1556,195 @@ public final class WasmBlockNode extends WasmNode implements RepeatingNode {
                         // and interpreted appropriately upon access), we don't need to do anything
                         // for these instructions.
                         break;
+                    case MISC: {
+                        // region Load LEB128 Unsigned32 -> miscOpcode
+                        long valueLength = unsignedIntConstantAndLength(data, offset);
+                        int miscOpcode = value(valueLength);
+                        int offsetDelta = length(valueLength);
+                        offset += offsetDelta;
+                        // endregion
+                        switch (miscOpcode) {
+                            case MEMORY_INIT: {
+                                // region Load LEB128 Unsigned32 -> dataSegmentIndex
+                                long indexLength = unsignedIntConstantAndLength(data, offset);
+                                int dataSegmentIndex = value(indexLength);
+                                int indexDelta = length(indexLength);
+                                offset += indexDelta;
+                                // endregion
+                                // Skip the 0x00 constant.
+                                offset++;
+                                int n = popInt(stacklocals, stackPointer - 1);
+                                int src = popInt(stacklocals, stackPointer - 2);
+                                int dst = popInt(stacklocals, stackPointer - 3);
+                                stackPointer -= 3;
+                                memoryInit(instance, memory, dataSegmentIndex, src, dst, n);
+                                break;
+                            }
+                            case DATA_DROP: {
+                                // region Load LEB128 Unsigned32 -> dataSegmentIndex
+                                long indexLength = unsignedIntConstantAndLength(data, offset);
+                                int dataSegmentIndex = value(indexLength);
+                                int indexDelta = length(indexLength);
+                                offset += indexDelta;
+                                // endregion
+                                dataDrop(instance, dataSegmentIndex);
+                                break;
+                            }
+                            case MEMORY_COPY: {
+                                // Skip the two 0x00 constants.
+                                offset += 2;
+                                int n = popInt(stacklocals, stackPointer - 1);
+                                int src = popInt(stacklocals, stackPointer - 2);
+                                int dst = popInt(stacklocals, stackPointer - 3);
+                                stackPointer -= 3;
+                                memory.copy(this, src, dst, n);
+                                break;
+                            }
+                            case MEMORY_FILL: {
+                                // Skip the 0x00 constant.
+                                offset++;
+                                int n = popInt(stacklocals, stackPointer - 1);
+                                int value = popInt(stacklocals, stackPointer - 2);
+                                int dst = popInt(stacklocals, stackPointer - 3);
+                                stackPointer -= 3;
+                                memory.fill(this, dst, n, (byte) value);
+                                break;
+                            }
+                            default:
+                                throw CompilerDirectives.shouldNotReachHere();
+                        }
+                        break;
+                    }
+                    case VECTOR: {
+                        // region Load LEB128 Unsigned32 -> vectorOpcode
+                        long valueLength = unsignedIntConstantAndLength(data, offset);
+                        int vectorOpcode = value(valueLength);
+                        int offsetDelta = length(valueLength);
+                        offset += offsetDelta;
+                        // endregion
+                        switch (vectorOpcode) {
+                            case V128_LOAD:
+                            case V128_LOAD8X8_S:
+                            case V128_LOAD8X8_U:
+                            case V128_LOAD16X4_S:
+                            case V128_LOAD16X4_U:
+                            case V128_LOAD32X2_S:
+                            case V128_LOAD32X2_U:
+                            case V128_LOAD8_SPLAT:
+                            case V128_LOAD16_SPLAT:
+                            case V128_LOAD32_SPLAT:
+                            case V128_LOAD64_SPLAT:
+                            case V128_LOAD32_ZERO:
+                            case V128_LOAD64_ZERO:
+                            case V128_STORE: {
+                                /* The memAlign hint is not currently used or taken into account. */
+                                int memAlignOffsetDelta = offsetDelta(data, offset);
+                                offset += memAlignOffsetDelta;
+
+                                // region Load LEB128 Unsigned32 -> memOffset
+                                long memOffsetLength = unsignedIntConstantAndLength(data, offset);
+                                int memOffset = value(memOffsetLength);
+                                int memOffsetDelta = length(memOffsetLength);
+                                offset += memOffsetDelta;
+                                // endregion
+
+                                stackPointer = vectorMemory(memory, stacklocals, stackPointer, vectorHighOffset, vectorOpcode, memOffset);
+                                break;
+                            }
+                            case V128_LOAD8_LANE:
+                            case V128_LOAD16_LANE:
+                            case V128_LOAD32_LANE:
+                            case V128_LOAD64_LANE:
+                            case V128_STORE8_LANE:
+                            case V128_STORE16_LANE:
+                            case V128_STORE32_LANE:
+                            case V128_STORE64_LANE: {
+                                /* The memAlign hint is not currently used or taken into account. */
+                                int memAlignOffsetDelta = offsetDelta(data, offset);
+                                offset += memAlignOffsetDelta;
+
+                                // region Load LEB128 Unsigned32 -> memOffset
+                                long memOffsetLength = unsignedIntConstantAndLength(data, offset);
+                                int memOffset = value(memOffsetLength);
+                                int memOffsetDelta = length(memOffsetLength);
+                                offset += memOffsetDelta;
+                                // endregion
+
+                                int laneIndex = BinaryStreamParser.rawPeek1(data, offset) & 0xFF;
+                                offset++;
+                                stackPointer = vectorLaneMemory(memory, stacklocals, stackPointer, vectorHighOffset, vectorOpcode, memOffset, laneIndex);
+                                break;
+                            }
+                            case V128_CONST: {
+                                push(stacklocals, stackPointer, Vector128Ops.bytes(data, offset));
+                                push(stacklocals, vectorHighOffset + stackPointer, Vector128Ops.bytes(data, offset + 8));
+                                offset += 16;
+                                stackPointer++;
+                                break;
+                            }
+                            case I8X16_SHUFFLE: {
+                                final long yLow = pop(stacklocals, stackPointer - 1);
+                                final long yHigh = pop(stacklocals, vectorHighOffset + stackPointer - 1);
+                                final long xLow = pop(stacklocals, stackPointer - 2);
+                                final long xHigh = pop(stacklocals, vectorHighOffset + stackPointer - 2);
+                                push(stacklocals, stackPointer - 2, Vector128Ops.shuffle(xLow, xHigh, yLow, yHigh, data, offset));
+                                push(stacklocals, vectorHighOffset + stackPointer - 2, Vector128Ops.shuffle(xLow, xHigh, yLow, yHigh, data, offset + 8));
+                                offset += 16;
+                                stackPointer--;
+                                break;
+                            }
+                            case I8X16_EXTRACT_LANE_S:
+                            case I8X16_EXTRACT_LANE_U:
+                            case I8X16_REPLACE_LANE:
+                            case I16X8_EXTRACT_LANE_S:
+                            case I16X8_EXTRACT_LANE_U:
+                            case I16X8_REPLACE_LANE:
+                            case I32X4_EXTRACT_LANE:
+                            case I32X4_REPLACE_LANE:
+                            case I64X2_EXTRACT_LANE:
+                            case I64X2_REPLACE_LANE:
+                            case F32X4_EXTRACT_LANE:
+                            case F32X4_REPLACE_LANE:
+                            case F64X2_EXTRACT_LANE:
+                            case F64X2_REPLACE_LANE: {
+                                int laneIndex = BinaryStreamParser.rawPeek1(data, offset) & 0xFF;
+                                offset++;
+                                stackPointer = vectorLane(stacklocals, stackPointer, vectorHighOffset, vectorOpcode, laneIndex);
+                                break;
+                            }
+                            default:
+                                stackPointer = vector(stacklocals, stackPointer, vectorHighOffset, vectorOpcode);
+                                break;
+                        }
+                        break;
+                    }
+                    case ATOMIC: {
+                        // region Load LEB128 Unsigned32 -> atomicOpcode
+                        long valueLength = unsignedIntConstantAndLength(data, offset);
+                        int atomicOpcode = value(valueLength);
+                        int offsetDelta = length(valueLength);
+                        offset += offsetDelta;
+                        // endregion
+                        if (atomicOpcode == ATOMIC_FENCE) {
+                            // Skip the 0x00 constant.
+                            offset++;
+                            memory.atomic_fence();
+                            break;
+                        }
+                        /* The memAlign immediate is validated, but not used during execution. */
+                        int memAlignOffsetDelta = offsetDelta(data, offset);
+                        offset += memAlignOffsetDelta;
+
+                        // region Load LEB128 Unsigned32 -> memOffset
+                        long memOffsetLength = unsignedIntConstantAndLength(data, offset);
+                        int memOffset = value(memOffsetLength);
+                        int memOffsetDelta = length(memOffsetLength);
+                        offset += memOffsetDelta;
+                        // endregion
+
+                        stackPointer = atomic(memory, stacklocals, stackPointer, atomicOpcode, memOffset);
+                        break;
+                    }
                     default:
                         throw CompilerDirectives.shouldNotReachHere();
                 }
@@ -1381,6 +1763,483 @@ public final class WasmBlockNode extends WasmNode implements RepeatingNode {
         }
     }
 
+    @TruffleBoundary
+    private void memoryInit(WasmInstance instance, WasmMemory memory, int dataSegmentIndex, int src, int dst, int n) {
+        // A dropped segment behaves like an empty segment.
+        final byte[] dataInstance = instance.dataInstance(dataSegmentIndex);
+        final byte[] source = dataInstance != null ? dataInstance : EMPTY_DATA_INSTANCE;
+        if (Integer.toUnsignedLong(src) + Integer.toUnsignedLong(n) > source.length) {
+            throw WasmException.format(Failure.OUT_OF_BOUNDS_MEMORY_ACCESS, this, "%d-byte data segment access at offset %d is out-of-bounds (data segment size %d bytes).",
+                            Integer.toUnsignedLong(n), Integer.toUnsignedLong(src), source.length);
+        }
+        memory.initialize(this, source, src, dst, n);
+    }
+
+    @TruffleBoundary
+    private static void dataDrop(WasmInstance instance, int dataSegmentIndex) {
+        instance.dropDataInstance(dataSegmentIndex);
+    }
+
+    private int effectiveAddress(int memOffset, int baseAddress) {
+        try {
+            return addExactUnsigned(memOffset, baseAddress);
+        } catch (ArithmeticException e) {
+            throw WasmException.create(Failure.OUT_OF_BOUNDS_MEMORY_ACCESS, this);
+        }
+    }
+
+    /**
+     * Executes a load or store instruction with the {@code VECTOR} prefix. The high halves of
+     * the {@code v128} operands are kept at {@code highOffset} slots after their low halves.
+     *
+     * @return the stack pointer after the instruction
+     */
+    private int vectorMemory(WasmMemory memory, long[] stack, int stackPointer, int highOffset, int opcode, int memOffset) {
+        if (opcode == V128_STORE) {
+            final long low = pop(stack, stackPointer - 1);
+            final long high = pop(stack, highOffset + stackPointer - 1);
+            final int address = effectiveAddress(memOffset, popInt(stack, stackPointer - 2));
+            // Check the whole access first, so that a store that is out of bounds has no effect.
+            memory.checkAccess(this, address, 16);
+            memory.store_i64(this, address, low);
+            memory.store_i64(this, address + 8, high);
+            return stackPointer - 2;
+        }
+        final int address = effectiveAddress(memOffset, popInt(stack, stackPointer - 1));
+        final long low;
+        final long high;
+        switch (opcode) {
+            case V128_LOAD: {
+                memory.checkAccess(this, address, 16);
+                low = memory.load_i64(this, address);
+                high = memory.load_i64(this, address + 8);
+                break;
+            }
+            case V128_LOAD8X8_S:
+            case V128_LOAD8X8_U:
+            case V128_LOAD16X4_S:
+            case V128_LOAD16X4_U:
+            case V128_LOAD32X2_S:
+            case V128_LOAD32X2_U: {
+                final long value = memory.load_i64(this, address);
+                final int bits = opcode <= V128_LOAD8X8_U ? 8 : opcode <= V128_LOAD16X4_U ? 16 : 32;
+                final boolean signed = opcode == V128_LOAD8X8_S || opcode == V128_LOAD16X4_S || opcode == V128_LOAD32X2_S;
+                low = Vector128Ops.widen((int) value, bits, signed);
+                high = Vector128Ops.widen((int) (value >>> 32), bits, signed);
+                break;
+            }
+            case V128_LOAD8_SPLAT: {
+                low = Vector128Ops.splat(memory.load_i32_8u(this, address), 8);
+                high = low;
+                break;
+            }
+            case V128_LOAD16_SPLAT: {
+                low = Vector128Ops.splat(memory.load_i32_16u(this, address), 16);
+                high = low;
+                break;
+            }
+            case V128_LOAD32_SPLAT: {
+                low = Vector128Ops.splat(memory.load_i32(this, address), 32);
+                high = low;
+                break;
+            }
+            case V128_LOAD64_SPLAT: {
+                low = memory.load_i64(this, address);
+                high = low;
+                break;
+            }
+            case V128_LOAD32_ZERO: {
+                low = memory.load_i32(this, address) & 0xFFFFFFFFL;
+                high = 0;
+                break;
+            }
+            case V128_LOAD64_ZERO: {
+                low = memory.load_i64(this, address);
+                high = 0;
+                break;
+            }
+            default:
+                throw CompilerDirectives.shouldNotReachHere();
+        }
+        push(stack, stackPointer - 1, low);
+        push(stack, highOffset + stackPointer - 1, high);
+        return stackPointer;
+    }
+
+    /**
+     * Executes a {@code load_lane} or {@code store_lane} instruction, which replaces or stores lane
+     * {@code laneIndex} of the vector on top of the stack.
+     *
+     * @return the stack pointer after the instruction
+     */
+    private int vectorLaneMemory(WasmMemory memory, long[] stack, int stackPointer, int highOffset, int opcode, int memOffset, int laneIndex) {
+        // The loads and the stores are both ordered by increasing lane width.
+        final int bits = 8 << ((opcode - V128_LOAD8_LANE) & 0x3);
+        final int lanesPerHalf = 64 / bits;
+        final boolean inHighHalf = laneIndex >= lanesPerHalf;
+        final int index = laneIndex % lanesPerHalf;
+        final long low = pop(stack, stackPointer - 1);
+        final long high = pop(stack, highOffset + stackPointer - 1);
+        final int address = effectiveAddress(memOffset, popInt(stack, stackPointer - 2));
+        if (opcode <= V128_LOAD64_LANE) {
+            final long value;
+            switch (bits) {
+                case 8:
+                    value = memory.load_i32_8u(this, address);
+                    break;
+                case 16:
+                    value = memory.load_i32_16u(this, address);
+                    break;
+                case 32:
+                    value = memory.load_i32(this, address);
+                    break;
+                default:
+                    value = memory.load_i64(this, address);
+                    break;
+            }
+            push(stack, stackPointer - 2, inHighHalf ? low : Vector128Ops.withLane(low, index, bits, value));
+            push(stack, highOffset + stackPointer - 2, inHighHalf ? Vector128Ops.withLane(high, index, bits, value) : high);
+            return stackPointer - 1;
+        }
+        final long value = Vector128Ops.lane(inHighHalf ? high : low, index, bits);
+        switch (bits) {
+            case 8:
+                memory.store_i32_8(this, address, (byte) value);
+                break;
+            case 16:
+                memory.store_i32_16(this, address, (short) value);
+                break;
+            case 32:
+                memory.store_i32(this, address, (int) value);
+                break;
+            default:
+                memory.store_i64(this, address, value);
+                break;
+        }
+        return stackPointer - 2;
+    }
+
+    /**
+     * Executes an {@code extract_lane} or {@code replace_lane} instruction.
+     *
+     * @return the stack pointer after the instruction
+     */
+    private int vectorLane(long[] stack, int stackPointer, int highOffset, int opcode, int laneIndex) {
+        final int bits;
+        switch (opcode) {
+            case I8X16_EXTRACT_LANE_S:
+            case I8X16_EXTRACT_LANE_U:
+            case I8X16_REPLACE_LANE:
+                bits = 8;
+                break;
+            case I16X8_EXTRACT_LANE_S:
+            case I16X8_EXTRACT_LANE_U:
+            case I16X8_REPLACE_LANE:
+                bits = 16;
+                break;
+            case I32X4_EXTRACT_LANE:
+            case I32X4_REPLACE_LANE:
+            case F32X4_EXTRACT_LANE:
+            case F32X4_REPLACE_LANE:
+                bits = 32;
+                break;
+            default:
+                bits = 64;
+                break;
+        }
+        final int lanesPerHalf = 64 / bits;
+        final boolean inHighHalf = laneIndex >= lanesPerHalf;
+        final int index = laneIndex % lanesPerHalf;
+        switch (opcode) {
+            case I8X16_REPLACE_LANE:
+            case I16X8_REPLACE_LANE:
+            case I32X4_REPLACE_LANE:
+            case I64X2_REPLACE_LANE:
+            case F32X4_REPLACE_LANE:
+            case F64X2_REPLACE_LANE: {
+                final long value = pop(stack, stackPointer - 1);
+                final int slot = (inHighHalf ? highOffset : 0) + stackPointer - 2;
+                stack[slot] = Vector128Ops.withLane(stack[slot], index, bits, value);
+                return stackPointer - 1;
+            }
+            default: {
+                final long low = pop(stack, stackPointer - 1);
+                final long high = pop(stack, highOffset + stackPointer - 1);
+                final long value = Vector128Ops.lane(inHighHalf ? high : low, index, bits);
+                switch (opcode) {
+                    case I8X16_EXTRACT_LANE_U:
+                        pushInt(stack, stackPointer - 1, (int) value & 0xFF);
+                        break;
+                    case I16X8_EXTRACT_LANE_U:
+                        pushInt(stack, stackPointer - 1, (int) value & 0xFFFF);
+                        break;
+                    case I64X2_EXTRACT_LANE:
+                    case F64X2_EXTRACT_LANE:
+                        push(stack, stackPointer - 1, value);
+                        break;
+                    default:
+                        pushInt(stack, stackPointer - 1, (int) value);
+                        break;
+                }
+                return stackPointer;
+            }
+        }
+    }
+
+    /**
+     * Executes an instruction with the {@code VECTOR} prefix that has no immediates.
+     *
+     * @return the stack pointer after the instruction
+     */
+    private int vector(long[] stack, int stackPointer, int highOffset, int opcode) {
+        switch (opcode) {
+            case I8X16_SPLAT:
+            case I16X8_SPLAT:
+            case I32X4_SPLAT:
+            case I64X2_SPLAT:
+            case F32X4_SPLAT:
+            case F64X2_SPLAT: {
+                final int bits = opcode == I8X16_SPLAT ? 8 : opcode == I16X8_SPLAT ? 16 : opcode == I64X2_SPLAT || opcode == F64X2_SPLAT ? 64 : 32;
+                final long half = Vector128Ops.splat(pop(stack, stackPointer - 1), bits);
+                push(stack, stackPointer - 1, half);
+                push(stack, highOffset + stackPointer - 1, half);
+                return stackPointer;
+            }
+            case V128_ANY_TRUE:
+            case I8X16_ALL_TRUE:
+            case I16X8_ALL_TRUE:
+            case I32X4_ALL_TRUE:
+            case I64X2_ALL_TRUE:
+            case I8X16_BITMASK:
+            case I16X8_BITMASK:
+            case I32X4_BITMASK:
+            case I64X2_BITMASK: {
+                final long low = pop(stack, stackPointer - 1);
+                final long high = pop(stack, highOffset + stackPointer - 1);
+                final int result;
+                if (opcode == V128_ANY_TRUE) {
+                    result = (low | high) != 0 ? 1 : 0;
+                } else if (opcode == I8X16_BITMASK || opcode == I16X8_BITMASK || opcode == I32X4_BITMASK || opcode == I64X2_BITMASK) {
+                    result = Vector128Ops.bitmask(opcode, low, high);
+                } else {
+                    result = Vector128Ops.allTrue(opcode, low, high) ? 1 : 0;
+                }
+                pushInt(stack, stackPointer - 1, result);
+                return stackPointer;
+            }
+            case I16X8_EXTEND_LOW_I8X16_S:
+            case I16X8_EXTEND_HIGH_I8X16_S:
+            case I16X8_EXTEND_LOW_I8X16_U:
+            case I16X8_EXTEND_HIGH_I8X16_U:
+            case I32X4_EXTEND_LOW_I16X8_S:
+            case I32X4_EXTEND_HIGH_I16X8_S:
+            case I32X4_EXTEND_LOW_I16X8_U:
+            case I32X4_EXTEND_HIGH_I16X8_U:
+            case I64X2_EXTEND_LOW_I32X4_S:
+            case I64X2_EXTEND_HIGH_I32X4_S:
+            case I64X2_EXTEND_LOW_I32X4_U:
+            case I64X2_EXTEND_HIGH_I32X4_U: {
+                final long low = pop(stack, stackPointer - 1);
+                final long high = pop(stack, highOffset + stackPointer - 1);
+                final long source = Vector128Ops.extendsHighHalf(opcode) ? high : low;
+                push(stack, stackPointer - 1, Vector128Ops.extend(opcode, (int) source));
+                push(stack, highOffset + stackPointer - 1, Vector128Ops.extend(opcode, (int) (source >>> 32)));
+                return stackPointer;
+            }
+            case F32X4_DEMOTE_F64X2_ZERO:
+            case I32X4_TRUNC_SAT_F64X2_S_ZERO:
+            case I32X4_TRUNC_SAT_F64X2_U_ZERO: {
+                final long low = pop(stack, stackPointer - 1);
+                final long high = pop(stack, highOffset + stackPointer - 1);
+                push(stack, stackPointer - 1, (Vector128Ops.narrowDouble(opcode, low) & 0xFFFFFFFFL) | ((long) Vector128Ops.narrowDouble(opcode, high) << 32));
+                push(stack, highOffset + stackPointer - 1, 0L);
+                return stackPointer;
+            }
+            case F64X2_PROMOTE_LOW_F32X4:
+            case F64X2_CONVERT_LOW_I32X4_S:
+            case F64X2_CONVERT_LOW_I32X4_U: {
+                final long low = pop(stack, stackPointer - 1);
+                pop(stack, highOffset + stackPointer - 1);
+                push(stack, stackPointer - 1, Vector128Ops.widenToDouble(opcode, (int) low));
+                push(stack, highOffset + stackPointer - 1, Vector128Ops.widenToDouble(opcode, (int) (low >>> 32)));
+                return stackPointer;
+            }
+            case V128_NOT:
+            case I8X16_ABS:
+            case I8X16_NEG:
+            case I8X16_POPCNT:
+            case I16X8_EXTADD_PAIRWISE_I8X16_S:
+            case I16X8_EXTADD_PAIRWISE_I8X16_U:
+            case I32X4_EXTADD_PAIRWISE_I16X8_S:
+            case I32X4_EXTADD_PAIRWISE_I16X8_U:
+            case I16X8_ABS:
+            case I16X8_NEG:
+            case I32X4_ABS:
+            case I32X4_NEG:
+            case I64X2_ABS:
+            case I64X2_NEG:
+            case F32X4_ABS:
+            case F32X4_NEG:
+            case F32X4_SQRT:
+            case F32X4_CEIL:
+            case F32X4_FLOOR:
+            case F32X4_TRUNC:
+            case F32X4_NEAREST:
+            case F64X2_ABS:
+            case F64X2_NEG:
+            case F64X2_SQRT:
+            case F64X2_CEIL:
+            case F64X2_FLOOR:
+            case F64X2_TRUNC:
+            case F64X2_NEAREST:
+            case I32X4_TRUNC_SAT_F32X4_S:
+            case I32X4_TRUNC_SAT_F32X4_U:
+            case F32X4_CONVERT_I32X4_S:
+            case F32X4_CONVERT_I32X4_U: {
+                push(stack, stackPointer - 1, Vector128Ops.unary(opcode, pop(stack, stackPointer - 1)));
+                push(stack, highOffset + stackPointer - 1, Vector128Ops.unary(opcode, pop(stack, highOffset + stackPointer - 1)));
+                return stackPointer;
+            }
+            case I8X16_SHL:
+            case I8X16_SHR_S:
+            case I8X16_SHR_U:
+            case I16X8_SHL:
+            case I16X8_SHR_S:
+            case I16X8_SHR_U:
+            case I32X4_SHL:
+            case I32X4_SHR_S:
+            case I32X4_SHR_U:
+            case I64X2_SHL:
+            case I64X2_SHR_S:
+            case I64X2_SHR_U: {
+                final int count = popInt(stack, stackPointer - 1);
+                push(stack, stackPointer - 2, Vector128Ops.shift(opcode, pop(stack, stackPointer - 2), count));
+                push(stack, highOffset + stackPointer - 2, Vector128Ops.shift(opcode, pop(stack, highOffset + stackPointer - 2), count));
+                return stackPointer - 1;
+            }
+            case V128_BITSELECT: {
+                final long maskLow = pop(stack, stackPointer - 1);
+                final long maskHigh = pop(stack, highOffset + stackPointer - 1);
+                final long yLow = pop(stack, stackPointer - 2);
+                final long yHigh = pop(stack, highOffset + stackPointer - 2);
+                final long xLow = pop(stack, stackPointer - 3);
+                final long xHigh = pop(stack, highOffset + stackPointer - 3);
+                push(stack, stackPointer - 3, (xLow & maskLow) | (yLow & ~maskLow));
+                push(stack, highOffset + stackPointer - 3, (xHigh & maskHigh) | (yHigh & ~maskHigh));
+                return stackPointer - 2;
+            }
+        }
+        final long yLow = pop(stack, stackPointer - 1);
+        final long yHigh = pop(stack, highOffset + stackPointer - 1);
+        final long xLow = pop(stack, stackPointer - 2);
+        final long xHigh = pop(stack, highOffset + stackPointer - 2);
+        final long low;
+        final long high;
+        switch (opcode) {
+            case I8X16_NARROW_I16X8_S:
+            case I8X16_NARROW_I16X8_U:
+            case I16X8_NARROW_I32X4_S:
+            case I16X8_NARROW_I32X4_U: {
+                low = (Vector128Ops.narrow(opcode, xLow) & 0xFFFFFFFFL) | ((long) Vector128Ops.narrow(opcode, xHigh) << 32);
+                high = (Vector128Ops.narrow(opcode, yLow) & 0xFFFFFFFFL) | ((long) Vector128Ops.narrow(opcode, yHigh) << 32);
+                break;
+            }
+            case I8X16_SWIZZLE: {
+                low = Vector128Ops.swizzle(xLow, xHigh, yLow);
+                high = Vector128Ops.swizzle(xLow, xHigh, yHigh);
+                break;
+            }
+            case I16X8_EXTMUL_LOW_I8X16_S:
+            case I16X8_EXTMUL_HIGH_I8X16_S:
+            case I16X8_EXTMUL_LOW_I8X16_U:
+            case I16X8_EXTMUL_HIGH_I8X16_U:
+            case I32X4_EXTMUL_LOW_I16X8_S:
+            case I32X4_EXTMUL_HIGH_I16X8_S:
+            case I32X4_EXTMUL_LOW_I16X8_U:
+            case I32X4_EXTMUL_HIGH_I16X8_U:
+            case I64X2_EXTMUL_LOW_I32X4_S:
+            case I64X2_EXTMUL_HIGH_I32X4_S:
+            case I64X2_EXTMUL_LOW_I32X4_U:
+            case I64X2_EXTMUL_HIGH_I32X4_U: {
+                final boolean readsHighHalf = Vector128Ops.extmulReadsHighHalf(opcode);
+                final long x = readsHighHalf ? xHigh : xLow;
+                final long y = readsHighHalf ? yHigh : yLow;
+                low = Vector128Ops.extmul(opcode, x, y, false);
+                high = Vector128Ops.extmul(opcode, x, y, true);
+                break;
+            }
+            default: {
+                low = Vector128Ops.binary(opcode, xLow, yLow);
+                high = Vector128Ops.binary(opcode, xHigh, yHigh);
+                break;
+            }
+        }
+        push(stack, stackPointer - 2, low);
+        push(stack, highOffset + stackPointer - 2, high);
+        return stackPointer - 1;
+    }
+
+    /**
+     * Executes an instruction with the {@code ATOMIC} prefix, other than {@code atomic.fence}.
+     *
+     * @return the stack pointer after the instruction
+     */
+    private int atomic(WasmMemory memory, long[] stack, int stackPointer, int opcode, int memOffset) {
+        switch (opcode) {
+            case MEMORY_ATOMIC_NOTIFY: {
+                final int count = popInt(stack, stackPointer - 1);
+                final int address = effectiveAddress(memOffset, popInt(stack, stackPointer - 2));
+                pushInt(stack, stackPointer - 2, memory.atomic_notify(this, address, count));
+                return stackPointer - 1;
+            }
+            case MEMORY_ATOMIC_WAIT32:
+            case MEMORY_ATOMIC_WAIT64: {
+                final long timeout = pop(stack, stackPointer - 1);
+                final long expected = pop(stack, stackPointer - 2);
+                final int address = effectiveAddress(memOffset, popInt(stack, stackPointer - 3));
+                final int width = opcode == MEMORY_ATOMIC_WAIT32 ? 4 : 8;
+                pushInt(stack, stackPointer - 3, memory.atomic_wait(this, address, width, expected, timeout));
+                return stackPointer - 2;
+            }
+        }
+        final int width = AtomicInstructions.accessWidth(opcode);
+        final boolean i64 = AtomicInstructions.isI64Access(opcode);
+        if (opcode <= I64_ATOMIC_LOAD32_U) {
+            final int address = effectiveAddress(memOffset, popInt(stack, stackPointer - 1));
+            final long value = memory.atomic_load(this, address, width);
+            pushAtomicResult(stack, stackPointer - 1, value, i64);
+            return stackPointer;
+        } else if (opcode <= I64_ATOMIC_STORE32) {
+            final long value = pop(stack, stackPointer - 1);
+            final int address = effectiveAddress(memOffset, popInt(stack, stackPointer - 2));
+            memory.atomic_store(this, address, width, value);
+            return stackPointer - 2;
+        } else if (opcode <= I64_ATOMIC_RMW32_XCHG_U) {
+            final long operand = pop(stack, stackPointer - 1);
+            final int address = effectiveAddress(memOffset, popInt(stack, stackPointer - 2));
+            // The read-modify-write groups are in the same order as the WasmMemory.RMW_* constants.
+            final int operation = (opcode - I32_ATOMIC_RMW_ADD) / AtomicInstructions.GROUP_SIZE;
+            final long previous = memory.atomic_rmw(this, address, width, operation, operand);
+            pushAtomicResult(stack, stackPointer - 2, previous, i64);
+            return stackPointer - 1;
+        } else {
+            final long replacement = pop(stack, stackPointer - 1);
+            final long expected = pop(stack, stackPointer - 2);
+            final int address = effectiveAddress(memOffset, popInt(stack, stackPointer - 3));
+            final long previous = memory.atomic_cmpxchg(this, address, width, expected, replacement);
+            pushAtomicResult(stack, stackPointer - 3, previous, i64);
+            return stackPointer - 2;
+        }
+    }
+
+    private void pushAtomicResult(long[] stack, int stackPointer, long value, boolean i64) {
+        if (i64) {
+            push(stack, stackPointer, value);
+        } else {
+            pushInt(stack, stackPointer, (int) value);
+        }
+    }
+
     @BytecodeInterpreterSwitchBoundary
     private int executeLoopNode(int childrenOffset, VirtualFrame frame) {
         final LoopNode loopNode = (LoopNode) children[childrenOffset];
@@ -1547,69 +2406,83 @@ public final class WasmBlockNode extends WasmNode implements RepeatingNode {
 
     // Checkstyle: stop method name check
 
-    private void global_set(WasmContext context, long[] stack, int stackPointer, int index) {
-        byte type = instance().symbolTable().globalValueType(index);
+    private void global_set(WasmContext context, WasmInstance instance, long[] stack, int stackPointer, int index) {
+        byte type = module().symbolTable().globalValueType(index);
         // For global.set, we don't need to make sure that the referenced global is
         // mutable.
         // This is taken care of by validation during wat to wasm compilation.
         switch (type) {
             case WasmType.I32_TYPE: {
                 int value = popInt(stack, stackPointer);
-                int address = instance().globalAddress(index);
+                int address = instance.globalAddress(index);
                 context.globals().storeInt(address, value);
                 break;
             }
             case WasmType.I64_TYPE: {
                 long value = pop(stack, stackPointer);
-                int address = instance().globalAddress(index);
+                int address = instance.globalAddress(index);
                 context.globals().storeLong(address, value);
                 break;
             }
             case WasmType.F32_TYPE: {
                 int value = popInt(stack, stackPointer);
-                int address = instance().globalAddress(index);
+                int address = instance.globalAddress(index);
                 context.globals().storeFloatWithInt(address, value);
                 break;
             }
             case WasmType.F64_TYPE: {
                 long value = pop(stack, stackPointer);
-                int address = instance().globalAddress(index);
+                int address = instance.globalAddress(index);
                 context.globals().storeDoubleWithLong(address, value);
                 break;
             }
+            case WasmType.V128_TYPE: {
+                long low = pop(stack, stackPointer);
+                long high = pop(stack, codeEntry().vectorHighOffset() + stackPointer);
+                int address = instance.globalAddress(index);
+                context.globals().storeLong(address, low);
+                context.globals().storeVectorHigh(address, high);
+                break;
+            }
             default: {
                 throw WasmException.create(Failure.UNSPECIFIED_TRAP, this, "Local variable cannot have the void type.");
             }
         }
     }
 
-    private void global_get(WasmContext context, long[] stack, int stackPointer, int index) {
-        byte type = instance().symbolTable().globalValueType(index);
+    private void global_get(WasmContext context, WasmInstance instance, long[] stack, int stackPointer, int index) {
+        byte type = module().symbolTable().globalValueType(index);
         switch (type) {
             case WasmType.I32_TYPE: {
-                int address = instance().globalAddress(index);
+                int address = instance.globalAddress(index);
                 int value = context.globals().loadAsInt(address);
                 pushInt(stack, stackPointer, value);
                 break;
             }
             case WasmType.I64_TYPE: {
-                int address = instance().globalAddress(index);
+                int address = instance.globalAddress(index);
                 long value = context.globals().loadAsLong(address);
                 push(stack, stackPointer, value);
                 break;
             }
             case WasmType.F32_TYPE: {
-                int address = instance().globalAddress(index);
+                int address = instance.globalAddress(index);
                 int value = context.globals().loadAsInt(address);
                 pushInt(stack, stackPointer, value);
                 break;
             }
             case WasmType.F64_TYPE: {
-                int address = instance().globalAddress(index);
+                int address = instance.globalAddress(index);
                 long value = context.globals().loadAsLong(address);
                 push(stack, stackPointer, value);
                 break;
             }
+            case WasmType.V128_TYPE: {
+                int address = instance.globalAddress(index);
+                push(stack, stackPointer, context.globals().loadAsLong(address));
+                push(stack, codeEntry().vectorHighOffset() + stackPointer, context.globals().loadVectorHigh(address));
+                break;
+            }
             default: {
                 throw WasmException.create(Failure.UNSPECIFIED_TRAP, this, "Local variable cannot have the void type.");
             }
@@ -2818,13 +3691,6 @@ public final class WasmBlockNode extends WasmNode implements RepeatingNode {
         return condition != 0;
     }
 
-    @TruffleBoundary
-    public void resolveCallNode(int childOffset) {
-        final WasmFunction function = ((WasmCallStubNode) children[childOffset]).function();
-        final CallTarget target = instance().target(function.index());
-        children[childOffset] = Truffle.getRuntime().createDirectCallNode(target);
-    }
-
     @ExplodeLoop
     private Object[] createArgumentsForCall(long[] stack, int functionTypeIndex, int numArgs, int stackPointerOffset) {
         CompilerAsserts.partialEvaluationConstant(numArgs);
@@ -2832,7 +3698,7 @@ public final class WasmBlockNode extends WasmNode implements RepeatingNode {
         int stackPointer = stackPointerOffset;
         for (int i = numArgs - 1; i >= 0; --i) {
             stackPointer--;
-            byte type = instance().symbolTable().functionTypeArgumentTypeAt(functionTypeIndex, i);
+            byte type = module().symbolTable().functionTypeArgumentTypeAt(functionTypeIndex, i);
             switch (type) {
                 case WasmType.I32_TYPE:
                     args[i] = popInt(stack, stackPointer);
@@ -2846,6 +3712,9 @@ public final class WasmBlockNode extends WasmNode implements RepeatingNode {
                 case WasmType.F64_TYPE:
                     args[i] = popAsDouble(stack, stackPointer);
                     break;
+                case WasmType.V128_TYPE:
+                    args[i] = new Vector128(pop(stack, stackPointer), pop(stack, codeEntry().vectorHighOffset() + stackPointer));
+                    break;
                 default: {
                     throw formatException("Unknown type: %d", type);
                 }
@@ -2866,6 +3735,11 @@ public final class WasmBlockNode extends WasmNode implements RepeatingNode {
         for (int i = 0; i < returnLength; ++i) {
             long value = pop(stack, stackPointer + i - 1);
             push(stack, continuationStackPointer + i, value);
+            if (codeEntry().usesVectors()) {
+                final int highOffset = codeEntry().vectorHighOffset();
+                long high = pop(stack, highOffset + stackPointer + i - 1);
+                push(stack, highOffset + continuationStackPointer + i, high);
+            }
         }
         for (int i = continuationStackPointer + returnLength; i < stackPointer; ++i) {
             pop(stack, i);
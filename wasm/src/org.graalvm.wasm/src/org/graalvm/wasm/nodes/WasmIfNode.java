@@ -46,7 +46,7 @@ import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.profiles.ConditionProfile;
 import org.graalvm.wasm.WasmCodeEntry;
 import org.graalvm.wasm.WasmContext;
-import org.graalvm.wasm.WasmInstance;
+import org.graalvm.wasm.WasmModule;
 
 public final class WasmIfNode extends WasmNode {
 
@@ -57,8 +57,8 @@ public final class WasmIfNode extends WasmNode {
 
     private final ConditionProfile condition = ConditionProfile.createCountingProfile();
 
-    public WasmIfNode(WasmInstance wasmInstance, WasmCodeEntry codeEntry, WasmBlockNode trueBranch, WasmBlockNode falseBranch, int byteLength, byte returnTypeId, int initialStackPointer) {
-        super(wasmInstance, codeEntry, byteLength);
+    public WasmIfNode(WasmModule wasmModule, WasmCodeEntry codeEntry, WasmBlockNode trueBranch, WasmBlockNode falseBranch, int byteLength, byte returnTypeId, int initialStackPointer) {
+        super(wasmModule, codeEntry, byteLength);
         this.returnTypeId = returnTypeId;
         this.initialStackPointer = initialStackPointer;
         this.trueBranch = trueBranch;
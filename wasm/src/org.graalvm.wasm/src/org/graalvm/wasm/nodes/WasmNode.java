@@ -46,10 +46,10 @@ import com.oracle.truffle.api.nodes.Node;
 import org.graalvm.wasm.WasmCodeEntry;
 import org.graalvm.wasm.WasmContext;
 import org.graalvm.wasm.WasmInstance;
+import org.graalvm.wasm.WasmModule;
 
 public abstract class WasmNode extends Node implements WasmNodeInterface {
-    // TODO: We should not cache the instance in the nodes, only the symbol table.
-    private final WasmInstance wasmInstance;
+    private final WasmModule module;
     private final WasmCodeEntry codeEntry;
 
     /**
@@ -58,8 +58,8 @@ public abstract class WasmNode extends Node implements WasmNodeInterface {
      */
     @CompilationFinal private int byteLength;
 
-    public WasmNode(WasmInstance wasmInstance, WasmCodeEntry codeEntry, int byteLength) {
-        this.wasmInstance = wasmInstance;
+    public WasmNode(WasmModule module, WasmCodeEntry codeEntry, int byteLength) {
+        this.module = module;
         this.codeEntry = codeEntry;
         this.byteLength = byteLength;
     }
@@ -111,8 +111,16 @@ public abstract class WasmNode extends Node implements WasmNodeInterface {
         return codeEntry;
     }
 
-    public final WasmInstance instance() {
-        return wasmInstance;
+    public final WasmModule module() {
+        return module;
+    }
+
+    /**
+     * The nodes are shared by all the instances of a module, so the instance that is executing
+     * this node is looked up in the given context, unless the module has a single instance.
+     */
+    public final WasmInstance instance(WasmContext context) {
+        return module.instance(context);
     }
 
     int byteLength() {
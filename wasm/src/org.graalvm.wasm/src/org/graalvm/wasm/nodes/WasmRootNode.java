@@ -48,10 +48,14 @@ import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.nodes.ExplodeLoop;
 import com.oracle.truffle.api.nodes.NodeInfo;
 import com.oracle.truffle.api.nodes.RootNode;
+import org.graalvm.wasm.BinaryParser;
+import org.graalvm.wasm.Vector128;
 import org.graalvm.wasm.WasmCodeEntry;
 import org.graalvm.wasm.WasmContext;
 import org.graalvm.wasm.WasmInstance;
 import org.graalvm.wasm.WasmLanguage;
+import org.graalvm.wasm.WasmModule;
+import org.graalvm.wasm.WasmOptions;
 import org.graalvm.wasm.WasmType;
 import org.graalvm.wasm.WasmVoidResult;
 import org.graalvm.wasm.exception.Failure;
@@ -60,16 +64,24 @@ import org.graalvm.wasm.exception.WasmException;
 @NodeInfo(language = "wasm", description = "The root node of all WebAssembly functions")
 public class WasmRootNode extends RootNode implements WasmNodeInterface {
 
-    protected final WasmInstance instance;
+    protected final WasmModule module;
     private final WasmCodeEntry codeEntry;
     @CompilationFinal private ContextReference<WasmContext> rawContextReference;
     @Child private WasmNode body;
 
-    public WasmRootNode(TruffleLanguage<?> language, WasmInstance instance, WasmCodeEntry codeEntry) {
+    /**
+     * Offset of the function body in the module binary while the body is not decoded yet, and -1
+     * afterwards (see {@link WasmOptions#LazyFunctionParsing}).
+     */
+    @CompilationFinal private volatile int pendingBodyOffset;
+    private int pendingBodySize;
+
+    public WasmRootNode(TruffleLanguage<?> language, WasmModule module, WasmCodeEntry codeEntry) {
         super(language);
-        this.instance = instance;
+        this.module = module;
         this.codeEntry = codeEntry;
         this.body = null;
+        this.pendingBodyOffset = -1;
     }
 
     protected ContextReference<WasmContext> contextReference() {
@@ -80,10 +92,23 @@ public class WasmRootNode extends RootNode implements WasmNodeInterface {
         return rawContextReference;
     }
 
+    /**
+     * Returns the instance of the module in the given context. The root nodes of a module are
+     * shared by all the contexts of an engine, so the instance is not stored in the node.
+     */
+    protected WasmInstance instance(WasmContext context) {
+        return module.instance(context);
+    }
+
     public void setBody(WasmNode body) {
         this.body = insert(body);
     }
 
+    public void setPendingBody(int bodyOffset, int bodySize) {
+        this.pendingBodySize = bodySize;
+        this.pendingBodyOffset = bodyOffset;
+    }
+
     @Override
     protected boolean isInstrumentable() {
         return false;
@@ -93,16 +118,29 @@ public class WasmRootNode extends RootNode implements WasmNodeInterface {
         // We want to ensure that linking always precedes the running of the WebAssembly code.
         // This linking should be as late as possible, because a WebAssembly context should
         // be able to parse multiple modules before the code gets run.
-        context.linker().tryLink(instance);
+        context.linker().tryLink(instance(context));
     }
 
     @Override
     public final Object execute(VirtualFrame frame) {
         final WasmContext context = contextReference().get();
         tryInitialize(context);
+        if (pendingBodyOffset != -1) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            readPendingBody(context);
+        }
         return executeWithContext(frame, context);
     }
 
+    @CompilerDirectives.TruffleBoundary
+    private synchronized void readPendingBody(WasmContext context) {
+        if (pendingBodyOffset != -1) {
+            final BinaryParser reader = new BinaryParser(context.language(), module);
+            reader.readPendingCodeEntry(context, this, pendingBodyOffset, pendingBodySize);
+            pendingBodyOffset = -1;
+        }
+    }
+
     public Object executeWithContext(VirtualFrame frame, WasmContext context) {
         // WebAssembly structure dictates that a function's arguments are provided to the function
         // as local variables, followed by any additional local variables that the function
@@ -115,9 +153,8 @@ public class WasmRootNode extends RootNode implements WasmNodeInterface {
         // The reason for this is that the operand stack cannot be passed
         // as an argument to the loop-node's execute method,
         // and must be restored at the beginning of the loop body.
-        final int maxStackSize = codeEntry.maxStackSize();
         final int numLocals = body.codeEntry().numLocals();
-        long[] stacklocals = new long[numLocals + maxStackSize];
+        long[] stacklocals = new long[codeEntry.stackLocalsLength()];
         frame.setObject(codeEntry.stackLocalsSlot(), stacklocals);
         moveArgumentsToLocals(frame, stacklocals);
 
@@ -155,6 +192,11 @@ public class WasmRootNode extends RootNode implements WasmNodeInterface {
                 long returnValue = pop(stacklocals, numLocals);
                 return Double.longBitsToDouble(returnValue);
             }
+            case WasmType.V128_TYPE: {
+                long low = pop(stacklocals, numLocals);
+                long high = pop(stacklocals, codeEntry.vectorHighOffset() + numLocals);
+                return new Vector128(low, high);
+            }
             default:
                 throw WasmException.format(Failure.UNSPECIFIED_INTERNAL, this, "Unknown return type id: %d", body.returnTypeId());
         }
@@ -163,7 +205,7 @@ public class WasmRootNode extends RootNode implements WasmNodeInterface {
     @ExplodeLoop
     private void moveArgumentsToLocals(VirtualFrame frame, long[] stacklocals) {
         Object[] args = frame.getArguments();
-        int numArgs = body.instance().symbolTable().function(codeEntry().functionIndex()).numArguments();
+        int numArgs = module.symbolTable().function(codeEntry().functionIndex()).numArguments();
         assert args.length == numArgs : "Expected number of arguments " + numArgs + ", actual " + args.length;
         for (int i = 0; i != numArgs; ++i) {
             final Object arg = args[i];
@@ -181,13 +223,17 @@ public class WasmRootNode extends RootNode implements WasmNodeInterface {
                 case WasmType.F64_TYPE:
                     pushDouble(stacklocals, i, (double) arg);
                     break;
+                case WasmType.V128_TYPE:
+                    push(stacklocals, i, ((Vector128) arg).low());
+                    push(stacklocals, codeEntry.vectorHighOffset() + i, ((Vector128) arg).high());
+                    break;
             }
         }
     }
 
     @ExplodeLoop
     private void initializeLocals(long[] stacklocals) {
-        int numArgs = body.instance().symbolTable().function(codeEntry().functionIndex()).numArguments();
+        int numArgs = module.symbolTable().function(codeEntry().functionIndex()).numArguments();
         for (int i = numArgs; i != body.codeEntry().numLocals(); ++i) {
             byte type = body.codeEntry().localType(i);
             switch (type) {
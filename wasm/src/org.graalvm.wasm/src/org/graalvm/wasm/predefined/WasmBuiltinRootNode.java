@@ -40,6 +40,7 @@
  */
 package org.graalvm.wasm.predefined;
 
+import org.graalvm.wasm.WasmContext;
 import org.graalvm.wasm.WasmInstance;
 import org.graalvm.wasm.WasmLanguage;
 import org.graalvm.wasm.memory.WasmMemory;
@@ -47,8 +48,20 @@ import org.graalvm.wasm.nodes.WasmRootNode;
 
 public abstract class WasmBuiltinRootNode extends WasmRootNode {
 
+    /**
+     * Built-in modules are instantiated separately in each context, so their root nodes can keep
+     * the instance that they belong to.
+     */
+    protected final WasmInstance instance;
+
     public WasmBuiltinRootNode(WasmLanguage language, WasmInstance instance) {
-        super(language, instance, null);
+        super(language, instance.module(), null);
+        this.instance = instance;
+    }
+
+    @Override
+    protected WasmInstance instance(WasmContext context) {
+        return instance;
     }
 
     public abstract String builtinNodeName();
@@ -66,17 +66,19 @@ public final class WasiClockTimeGetNode extends WasmBuiltinRootNode {
         assert args.length == 3;
 
         // TODO(mbovel): handle args[1] "precision"
-        return clockTimeGet((int) args[0], (int) args[2]);
+        return clockTimeGet(context, (int) args[0], (int) args[2]);
     }
 
     @TruffleBoundary
-    private Object clockTimeGet(int clockIdValue, int resultAddress) {
+    private Object clockTimeGet(WasmContext context, int clockIdValue, int resultAddress) {
         final Clockid clockId = Clockid.values()[clockIdValue];
         switch (clockId) {
             case Realtime:
                 memory().store_i64(this, resultAddress, realtimeNow());
                 break;
             case Monotonic:
+                memory().store_i64(this, resultAddress, monotonicNow(context));
+                break;
             case ProcessCputimeId:
             case ThreadCputimeId:
                 throw unimplementedClock(clockId);
@@ -85,10 +87,18 @@ public final class WasiClockTimeGetNode extends WasmBuiltinRootNode {
     }
 
     @TruffleBoundary
-    private static long realtimeNow() {
+    static long realtimeNow() {
         return ChronoUnit.NANOS.between(Instant.EPOCH, Instant.now());
     }
 
+    /**
+     * Returns the time of the monotonic clock of {@code context}, which has the resolution of
+     * {@link System#nanoTime()} and starts at zero when the context is created.
+     */
+    static long monotonicNow(WasmContext context) {
+        return System.nanoTime() - context.monotonicClockOrigin();
+    }
+
     @TruffleBoundary
     private static WasmException unimplementedClock(final Clockid clockId) {
         throw WasmException.create(Failure.UNSPECIFIED_INTERNAL, "Unimplemented ClockID: " + clockId.name());
@@ -0,0 +1,291 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.graalvm.wasm.predefined.wasi;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import org.graalvm.wasm.WasmContext;
+import org.graalvm.wasm.WasmInstance;
+import org.graalvm.wasm.WasmLanguage;
+import org.graalvm.wasm.memory.WasmMemory;
+import org.graalvm.wasm.predefined.WasmBuiltinRootNode;
+import org.graalvm.wasm.predefined.wasi.fd.Fd;
+import org.graalvm.wasm.predefined.wasi.fd.FdManager;
+import org.graalvm.wasm.predefined.wasi.types.Clockid;
+import org.graalvm.wasm.predefined.wasi.types.Errno;
+import org.graalvm.wasm.predefined.wasi.types.Event;
+import org.graalvm.wasm.predefined.wasi.types.EventFdReadwrite;
+import org.graalvm.wasm.predefined.wasi.types.Eventtype;
+import org.graalvm.wasm.predefined.wasi.types.Rights;
+import org.graalvm.wasm.predefined.wasi.types.Subclockflags;
+import org.graalvm.wasm.predefined.wasi.types.Subscription;
+import org.graalvm.wasm.predefined.wasi.types.SubscriptionClock;
+import org.graalvm.wasm.predefined.wasi.types.SubscriptionFdReadwrite;
+import org.graalvm.wasm.predefined.wasi.types.SubscriptionU;
+
+import java.io.IOException;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.util.concurrent.TimeUnit;
+
+import static org.graalvm.wasm.predefined.wasi.FlagUtils.isSet;
+
+/**
+ * Implementation of WASI <a href=
+ * "https://github.com/WebAssembly/WASI/blob/a206794fea66118945a520f6e0af3754cc51860b/phases/snapshot/docs.md#poll_oneoff"><code>poll_oneoff</code></a>:
+ * waits until at least one of the subscribed events occurs.
+ * <p>
+ * File descriptors with a {@link Fd#selectableChannel() selectable channel}, such as sockets, are
+ * waited on with the {@link FdManager#select selector} of the context. The readiness of other file
+ * descriptors is checked with {@link Fd#pollRead()} and {@link Fd#pollWrite()}: regular files and
+ * output streams are always ready, and the standard input is checked every
+ * {@link #POLL_INTERVAL_MILLIS} milliseconds while it is not ready.
+ */
+public final class WasiPollOneoffNode extends WasmBuiltinRootNode {
+
+    private static final long POLL_INTERVAL_MILLIS = 10;
+
+    /** Offset of the {@code u} field in a {@code subscription} structure. */
+    private static final int SUBSCRIPTION_U_OFFSET = 8;
+
+    /** Offset of the {@code fd_readwrite} field in an {@code event} structure. */
+    private static final int EVENT_FD_READWRITE_OFFSET = 16;
+
+    public WasiPollOneoffNode(WasmLanguage language, WasmInstance module) {
+        super(language, module);
+    }
+
+    @Override
+    public Object executeWithContext(VirtualFrame frame, WasmContext context) {
+        final Object[] args = frame.getArguments();
+        return pollOneoff(context, (int) args[0], (int) args[1], (int) args[2], (int) args[3]);
+    }
+
+    @TruffleBoundary
+    private int pollOneoff(WasmContext context, int inAddress, int outAddress, int subscriptionCount, int eventCountAddress) {
+        if (subscriptionCount <= 0) {
+            return Errno.Inval.ordinal();
+        }
+        final WasmMemory memory = memory();
+        final FdManager fdManager = context.fdManager();
+
+        final Eventtype[] types = new Eventtype[subscriptionCount];
+        final Fd[] handles = new Fd[subscriptionCount];
+        final Errno[] errors = new Errno[subscriptionCount];
+        // Deadlines of clock subscriptions, in System.nanoTime() units.
+        final long[] deadlines = new long[subscriptionCount];
+        boolean hasDeadline = false;
+        long earliestDeadline = Long.MAX_VALUE;
+        int selectableCount = 0;
+
+        final long start = System.nanoTime();
+        for (int i = 0; i < subscriptionCount; i++) {
+            final int uAddress = inAddress + i * Subscription.BYTES + SUBSCRIPTION_U_OFFSET;
+            final int contentsAddress = uAddress + SubscriptionU.CONTENTSOFFSET;
+            types[i] = SubscriptionU.readTag(this, memory, uAddress);
+            switch (types[i]) {
+                case Clock: {
+                    final long timeout = SubscriptionClock.readTimeout(this, memory, contentsAddress);
+                    final boolean absolute = isSet(SubscriptionClock.readFlags(this, memory, contentsAddress), Subclockflags.SubscriptionClockAbstime);
+                    final Clockid clockId = SubscriptionClock.readId(this, memory, contentsAddress);
+                    // The timeout is an unsigned 64-bit number of nanoseconds.
+                    switch (clockId) {
+                        case Realtime:
+                            if (absolute) {
+                                final long now = WasiClockTimeGetNode.realtimeNow();
+                                deadlines[i] = Long.compareUnsigned(timeout, now) <= 0 ? start : deadline(start, timeout - now);
+                            } else {
+                                deadlines[i] = deadline(start, timeout);
+                            }
+                            break;
+                        case Monotonic:
+                            // The monotonic clock reads System.nanoTime() relative to the origin of
+                            // the context, see WasiClockTimeGetNode.monotonicNow.
+                            deadlines[i] = deadline(absolute ? context.monotonicClockOrigin() : start, timeout);
+                            break;
+                        default:
+                            errors[i] = Errno.Notsup;
+                            continue;
+                    }
+                    hasDeadline = true;
+                    earliestDeadline = Math.min(earliestDeadline, deadlines[i]);
+                    break;
+                }
+                case FdRead:
+                case FdWrite: {
+                    final Fd handle = fdManager.get(SubscriptionFdReadwrite.readFileDescriptor(this, memory, contentsAddress));
+                    if (handle == null) {
+                        errors[i] = Errno.Badf;
+                    } else if (!handle.hasRight(types[i] == Eventtype.FdRead ? Rights.FdRead : Rights.FdWrite)) {
+                        errors[i] = Errno.Notcapable;
+                    } else {
+                        handles[i] = handle;
+                        if (handle.selectableChannel() != null) {
+                            selectableCount++;
+                        }
+                    }
+                    break;
+                }
+            }
+        }
+
+        final SelectableChannel[] channels = new SelectableChannel[selectableCount];
+        final int[] interestOps = new int[selectableCount];
+        for (int i = 0, j = 0; i < subscriptionCount; i++) {
+            if (handles[i] != null && handles[i].selectableChannel() != null) {
+                final SelectableChannel channel = handles[i].selectableChannel();
+                channels[j] = channel;
+                if (types[i] == Eventtype.FdWrite) {
+                    interestOps[j] = SelectionKey.OP_WRITE & channel.validOps();
+                } else {
+                    interestOps[j] = (SelectionKey.OP_READ | SelectionKey.OP_ACCEPT) & channel.validOps();
+                }
+                j++;
+            }
+        }
+
+        final boolean[] ready = new boolean[subscriptionCount];
+        final long[] availableBytes = new long[subscriptionCount];
+        int eventCount;
+        try {
+            while (true) {
+                eventCount = 0;
+                boolean pendingUnselectable = false;
+                final long now = System.nanoTime();
+                for (int i = 0; i < subscriptionCount; i++) {
+                    if (errors[i] != null) {
+                        ready[i] = true;
+                    } else if (types[i] == Eventtype.Clock) {
+                        ready[i] = now >= deadlines[i];
+                    } else if (handles[i].selectableChannel() == null) {
+                        availableBytes[i] = types[i] == Eventtype.FdRead ? handles[i].pollRead() : handles[i].pollWrite();
+                        ready[i] = availableBytes[i] >= 0;
+                        pendingUnselectable |= !ready[i];
+                    }
+                    if (ready[i]) {
+                        eventCount++;
+                    }
+                }
+
+                // How long to wait for an event: negative to not wait, zero to wait indefinitely.
+                long timeoutMillis;
+                if (eventCount > 0) {
+                    timeoutMillis = -1;
+                } else {
+                    timeoutMillis = hasDeadline ? Math.max(1, ceilMillis(earliestDeadline - now)) : 0;
+                    if (pendingUnselectable) {
+                        timeoutMillis = timeoutMillis == 0 ? POLL_INTERVAL_MILLIS : Math.min(timeoutMillis, POLL_INTERVAL_MILLIS);
+                    }
+                }
+
+                if (selectableCount > 0) {
+                    final int[] readyOps = fdManager.select(channels, interestOps, timeoutMillis);
+                    for (int i = 0, j = 0; i < subscriptionCount; i++) {
+                        if (handles[i] != null && handles[i].selectableChannel() != null) {
+                            if (readyOps[j] != 0) {
+                                ready[i] = true;
+                                eventCount++;
+                            }
+                            j++;
+                        }
+                    }
+                } else if (timeoutMillis > 0) {
+                    Thread.sleep(timeoutMillis);
+                }
+
+                if (eventCount > 0) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            return Errno.Io.ordinal();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Errno.Intr.ordinal();
+        }
+
+        for (int i = 0, k = 0; i < subscriptionCount; i++) {
+            if (ready[i]) {
+                final int eventAddress = outAddress + k * Event.BYTES;
+                Event.writeUserdata(this, memory, eventAddress, Subscription.readUserdata(this, memory, inAddress + i * Subscription.BYTES));
+                Event.writeError(this, memory, eventAddress, errors[i] != null ? errors[i] : Errno.Success);
+                Event.writeType(this, memory, eventAddress, types[i]);
+                EventFdReadwrite.writeNbytes(this, memory, eventAddress + EVENT_FD_READWRITE_OFFSET, availableBytes[i]);
+                EventFdReadwrite.writeFlags(this, memory, eventAddress + EVENT_FD_READWRITE_OFFSET, (short) 0);
+                k++;
+            }
+        }
+        memory.store_i32(this, eventCountAddress, eventCount);
+        return Errno.Success.ordinal();
+    }
+
+    /**
+     * Returns the {@link System#nanoTime()} that is {@code timeout} nanoseconds after
+     * {@code start}, where {@code timeout} is unsigned, or {@link Long#MAX_VALUE} if it is too far
+     * in the future to be represented. Such a deadline is never reached.
+     */
+    private static long deadline(long start, long timeout) {
+        if (timeout < 0) {
+            return Long.MAX_VALUE;
+        }
+        final long deadline = start + timeout;
+        return deadline < start ? Long.MAX_VALUE : deadline;
+    }
+
+    /**
+     * Rounds the positive number of nanoseconds {@code nanos} up to milliseconds. The difference
+     * between a deadline that is not reached and the current time can overflow when the deadline
+     * is saturated, in which case it is treated as the largest possible wait.
+     */
+    private static long ceilMillis(long nanos) {
+        if (nanos < 0) {
+            return TimeUnit.NANOSECONDS.toMillis(Long.MAX_VALUE);
+        }
+        final long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+        return nanos % 1_000_000 == 0 ? millis : millis + 1;
+    }
+
+    @Override
+    public String builtinNodeName() {
+        return "__wasi_poll_oneoff";
+    }
+
+}
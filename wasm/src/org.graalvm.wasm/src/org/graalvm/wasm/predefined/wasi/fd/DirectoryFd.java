@@ -126,7 +126,7 @@ class DirectoryFd extends Fd {
             }
         } else {
             try {
-                final int fd = fdManager.put(new FileFd(hostChildFile, childOflags, childFsRightsBase, childFsRightsInheriting, childFdFlags));
+                final int fd = fdManager.put(new FileFd(hostChildFile, childOflags, childFsRightsBase, childFsRightsInheriting, childFdFlags, fdManager.mappedReadThreshold()));
                 memory.store_i32(node, fdAddress, fd);
                 return Errno.Success;
             } catch (FileAlreadyExistsException e) {
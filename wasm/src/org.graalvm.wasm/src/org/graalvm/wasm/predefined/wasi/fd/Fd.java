@@ -54,6 +54,8 @@ import org.graalvm.wasm.predefined.wasi.types.Whence;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.Selector;
 
 import static org.graalvm.wasm.predefined.wasi.FlagUtils.isSet;
 import static org.graalvm.wasm.predefined.wasi.FlagUtils.isSubsetOf;
@@ -353,6 +355,62 @@ public abstract class Fd implements Closeable {
         return Errno.Acces;
     }
 
+    /**
+     * Returns whether the {@link #fsRightsBase rights} of this file descriptor include
+     * {@code right}.
+     */
+    public boolean hasRight(Rights right) {
+        return isSet(fsRightsBase, right);
+    }
+
+    /**
+     * Implementation of WASI <a href=
+     * "https://github.com/WebAssembly/WASI/blob/main/legacy/preview1/docs.md#sock_accept"><code>sock_accept</code></a>:
+     * accepts a new incoming connection on this listening socket.
+     * <p>
+     * Similar to POSIX <a href="https://linux.die.net/man/2/accept4"><code>accept4</code></a>.
+     *
+     * @param node the calling node, used as location for any thrown {@link WasmException}
+     * @param memory the {@link WasmMemory} from which to read and write
+     * @param fdflags bitmap of {@link Fdflags} of the file descriptor of the accepted connection
+     * @param fdAddress {@code u32*}: the address at which to write the file descriptor of the
+     *            accepted connection
+     * @return {@link Errno#Success} in case of success, or another {@link Errno} in case of error
+     * @throws WasmException if an error happens while writing or reading to {@code memory}
+     */
+    public Errno sockAccept(Node node, WasmMemory memory, short fdflags, int fdAddress) {
+        return Errno.Notsock;
+    }
+
+    /**
+     * Returns the channel on which <code>poll_oneoff</code> waits with a {@link Selector} until
+     * this file descriptor is ready for reading or writing, or {@code null} if {@link #pollRead()}
+     * and {@link #pollWrite()} tell whether it is ready.
+     */
+    public SelectableChannel selectableChannel() {
+        return null;
+    }
+
+    /**
+     * Returns the number of bytes that can be read from this file descriptor without blocking, or
+     * {@code -1} if reading would block. Only used for file descriptors without a
+     * {@link #selectableChannel() selectable channel}. As in POSIX, file descriptors are always
+     * ready by default.
+     */
+    public long pollRead() {
+        return 0;
+    }
+
+    /**
+     * Returns the number of bytes that can be written to this file descriptor without blocking, or
+     * {@code -1} if writing would block. Only used for file descriptors without a
+     * {@link #selectableChannel() selectable channel}. As in POSIX, file descriptors are always
+     * ready by default.
+     */
+    public long pollWrite() {
+        return 0;
+    }
+
     @Override
     public void close() throws IOException {
     }
@@ -49,6 +49,11 @@ import org.graalvm.wasm.exception.WasmException;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ThreadLocalRandom;
@@ -57,42 +62,93 @@ public final class FdManager implements Closeable {
 
     private final Map<Integer, Fd> handles;
 
+    /**
+     * @see WasmOptions#WasiMappedReadThreshold
+     */
+    private final int mappedReadThreshold;
+
+    /**
+     * The selector with which <code>poll_oneoff</code> waits for {@link Fd#selectableChannel()
+     * selectable channels}. It is created on the first such wait, and channels stay registered with
+     * it until they are closed.
+     */
+    private Selector pollSelector;
+
     public FdManager(TruffleLanguage.Env env) {
         handles = new HashMap<>();
+        mappedReadThreshold = WasmOptions.WasiMappedReadThreshold.getValue(env.getOptions());
 
         put(0, new InputStreamFd(env.in()));
         put(1, new OutputStreamFd(env.out()));
         put(2, new OutputStreamFd(env.err()));
 
+        int fd = 3;
         final String preopenedDirs = WasmOptions.WasiMapDirs.getValue(env.getOptions());
-        if (preopenedDirs == null || preopenedDirs.isEmpty()) {
-            return;
+        if (preopenedDirs != null && !preopenedDirs.isEmpty()) {
+            for (final String dir : preopenedDirs.split(",")) {
+                final String[] parts = dir.split("::", 2);
+                if (parts.length > 2) {
+                    throw WasmException.create(Failure.INVALID_WASI_DIRECTORIES_MAPPING,
+                                    String.format("Wasi directory map '%s' is not valid. Syntax: --WasiMapDirs <virtual_path>::<host_path>, or --WasiMapDirs <host_path>", dir));
+                }
+                final String virtualDirPath = parts[0];
+                final String hostDirPath = parts.length == 2 ? parts[1] : parts[0];
+
+                final TruffleFile virtualDir = env.getPublicTruffleFile(virtualDirPath).normalize();
+                final TruffleFile hostDir;
+                try {
+                    // Currently, we follow symbolic links.
+                    hostDir = env.getPublicTruffleFile(hostDirPath).getCanonicalFile();
+                } catch (IOException | SecurityException e) {
+                    throw WasmException.create(Failure.INVALID_WASI_DIRECTORIES_MAPPING);
+                }
+
+                put(fd, new PreopenedDirectoryFd(this, hostDir, virtualDir));
+                ++fd;
+            }
         }
 
-        int fd = 3;
-        for (final String dir : preopenedDirs.split(",")) {
-            final String[] parts = dir.split("::", 2);
-            if (parts.length > 2) {
-                throw WasmException.create(Failure.INVALID_WASI_DIRECTORIES_MAPPING,
-                                String.format("Wasi directory map '%s' is not valid. Syntax: --WasiMapDirs <virtual_path>::<host_path>, or --WasiMapDirs <host_path>", dir));
-            }
-            final String virtualDirPath = parts[0];
-            final String hostDirPath = parts.length == 2 ? parts[1] : parts[0];
-
-            final TruffleFile virtualDir = env.getPublicTruffleFile(virtualDirPath).normalize();
-            final TruffleFile hostDir;
-            try {
-                // Currently, we follow symbolic links.
-                hostDir = env.getPublicTruffleFile(hostDirPath).getCanonicalFile();
-            } catch (IOException | SecurityException e) {
-                throw WasmException.create(Failure.INVALID_WASI_DIRECTORIES_MAPPING);
+        final String listenAddresses = WasmOptions.WasiTcpListen.getValue(env.getOptions());
+        if (listenAddresses != null && !listenAddresses.isEmpty()) {
+            for (final String address : listenAddresses.split(",")) {
+                put(fd, listen(address));
+                ++fd;
             }
+        }
+    }
 
-            put(fd, new PreopenedDirectoryFd(this, hostDir, virtualDir));
-            ++fd;
+    private ServerSocketFd listen(String address) {
+        final int portSeparator = address.lastIndexOf(':');
+        if (portSeparator == -1) {
+            throw WasmException.create(Failure.INVALID_WASI_TCP_LISTEN_ADDRESS,
+                            String.format("Wasi TCP listen address '%s' is not valid. Syntax: --WasiTcpListen <host>:<port>", address));
+        }
+        String host = address.substring(0, portSeparator);
+        if (host.startsWith("[") && host.endsWith("]")) {
+            host = host.substring(1, host.length() - 1);
+        }
+        ServerSocketChannel channel = null;
+        try {
+            final int port = Integer.parseInt(address.substring(portSeparator + 1));
+            channel = ServerSocketChannel.open();
+            channel.bind(new InetSocketAddress(host, port));
+            return new ServerSocketFd(this, channel);
+        } catch (IOException | IllegalArgumentException | SecurityException e) {
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException closeException) {
+                    e.addSuppressed(closeException);
+                }
+            }
+            throw WasmException.create(Failure.INVALID_WASI_TCP_LISTEN_ADDRESS, String.format("Cannot listen on Wasi TCP address '%s': %s", address, e.getMessage()));
         }
     }
 
+    int mappedReadThreshold() {
+        return mappedReadThreshold;
+    }
+
     public synchronized Fd get(int fd) {
         return handles.get(fd);
     }
@@ -129,12 +185,65 @@ public final class FdManager implements Closeable {
         return handles.size();
     }
 
+    /**
+     * Waits until one of {@code channels} is ready for one of the corresponding
+     * {@code interestOps}, which are bitmaps of {@link SelectionKey} operations, or until
+     * {@code timeoutMillis} elapsed. A zero timeout waits indefinitely, and a negative timeout does
+     * not wait. A channel may appear several times.
+     * <p>
+     * Only one thread waits at a time.
+     *
+     * @return the operations for which each channel is ready, among its interest operations
+     */
+    public int[] select(SelectableChannel[] channels, int[] interestOps, long timeoutMillis) throws IOException {
+        final Selector selector = pollSelector();
+        synchronized (selector) {
+            for (SelectionKey key : selector.keys()) {
+                if (key.isValid()) {
+                    key.interestOps(0);
+                }
+            }
+            for (int i = 0; i < channels.length; i++) {
+                final SelectionKey key = channels[i].keyFor(selector);
+                if (key == null) {
+                    channels[i].register(selector, interestOps[i]);
+                } else if (key.isValid()) {
+                    key.interestOps(key.interestOps() | interestOps[i]);
+                }
+            }
+            selector.selectedKeys().clear();
+            if (timeoutMillis < 0) {
+                selector.selectNow();
+            } else {
+                selector.select(timeoutMillis);
+            }
+            final int[] readyOps = new int[channels.length];
+            for (int i = 0; i < channels.length; i++) {
+                final SelectionKey key = channels[i].keyFor(selector);
+                if (key != null && key.isValid() && selector.selectedKeys().contains(key)) {
+                    readyOps[i] = key.readyOps() & interestOps[i];
+                }
+            }
+            return readyOps;
+        }
+    }
+
+    private synchronized Selector pollSelector() throws IOException {
+        if (pollSelector == null) {
+            pollSelector = Selector.open();
+        }
+        return pollSelector;
+    }
+
     @Override
     public synchronized void close() throws IOException {
         for (final Fd handle : handles.values()) {
             handle.close();
         }
         handles.clear();
+        if (pollSelector != null) {
+            pollSelector.close();
+        }
     }
 
 }
@@ -53,6 +53,15 @@ import org.graalvm.wasm.predefined.wasi.types.Iovec;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.NonReadableChannelException;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.ScatteringByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.util.concurrent.TimeUnit;
 
 final class FdUtils {
@@ -61,6 +70,19 @@ final class FdUtils {
 
     }
 
+    /**
+     * The maximal number of bytes copied at once between a memory that is not backed by an array
+     * and a stream or a channel.
+     */
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    /**
+     * A direct buffer per thread, through which data is copied between a memory that is not backed
+     * by an array and a channel. A channel transfers heap buffers through a temporary direct buffer
+     * of its own, so a direct chunk saves one copy.
+     */
+    private static final ThreadLocal<ByteBuffer> DIRECT_CHUNK = ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(CHUNK_SIZE));
+
     static Errno writeToStream(Node node, WasmMemory memory, OutputStream stream, int iovecArrayAddress, int iovecCount, int sizeAddress) {
         if (stream == null) {
             return Errno.Acces;
@@ -68,14 +90,25 @@ final class FdUtils {
 
         int totalBytesWritten = 0;
         try {
+            byte[] chunk = null;
             for (int i = 0; i < iovecCount; i++) {
                 final int iovecAddress = iovecArrayAddress + i * Iovec.BYTES;
                 final int start = Iovec.readBuf(node, memory, iovecAddress);
                 final int len = Iovec.readBufLen(node, memory, iovecAddress);
-                for (int j = 0; j < len; j++) {
-                    stream.write(memory.load_i32_8u(node, start + j));
-                    ++totalBytesWritten;
+                final ByteBuffer buffer = memory.asByteBuffer(node, start, len);
+                if (buffer != null) {
+                    stream.write(buffer.array(), buffer.arrayOffset() + buffer.position(), len);
+                } else {
+                    if (chunk == null) {
+                        chunk = new byte[CHUNK_SIZE];
+                    }
+                    for (int offset = 0; offset < len; offset += chunk.length) {
+                        final int chunkLength = Math.min(chunk.length, len - offset);
+                        memory.copyToBuffer(node, start + offset, chunk, 0, chunkLength);
+                        stream.write(chunk, 0, chunkLength);
+                    }
                 }
+                totalBytesWritten += len;
             }
         } catch (IOException e) {
             return Errno.Io;
@@ -91,19 +124,32 @@ final class FdUtils {
         }
 
         int totalBytesRead = 0;
-        int byteRead = 0;
         try {
-            for (int i = 0; i < iovecCount; i++) {
+            byte[] chunk = null;
+            iovecs: for (int i = 0; i < iovecCount; i++) {
                 final int iovecAddress = iovecArrayAddress + i * Iovec.BYTES;
                 final int start = Iovec.readBuf(node, memory, iovecAddress);
                 final int len = Iovec.readBufLen(node, memory, iovecAddress);
-                for (int j = 0; j < len; j++) {
-                    byteRead = stream.read();
-                    if (byteRead == -1) {
-                        break;
+                final ByteBuffer buffer = memory.asByteBuffer(node, start, len);
+                int offset = 0;
+                while (offset < len) {
+                    final int bytesRead;
+                    if (buffer != null) {
+                        bytesRead = stream.read(buffer.array(), buffer.arrayOffset() + buffer.position() + offset, len - offset);
+                    } else {
+                        if (chunk == null) {
+                            chunk = new byte[CHUNK_SIZE];
+                        }
+                        bytesRead = stream.read(chunk, 0, Math.min(chunk.length, len - offset));
+                        if (bytesRead > 0) {
+                            memory.initialize(node, chunk, 0, start + offset, bytesRead);
+                        }
                     }
-                    memory.store_i32_8(node, start + j, (byte) byteRead);
-                    ++totalBytesRead;
+                    if (bytesRead == -1) {
+                        break iovecs;
+                    }
+                    offset += bytesRead;
+                    totalBytesRead += bytesRead;
                 }
             }
         } catch (IOException e) {
@@ -114,6 +160,276 @@ final class FdUtils {
         return Errno.Success;
     }
 
+    static Errno writeToChannel(Node node, WasmMemory memory, WritableByteChannel channel, int iovecArrayAddress, int iovecCount, int sizeAddress) {
+        if (!iovecArrayFits(memory, iovecArrayAddress, iovecCount)) {
+            return Errno.Fault;
+        }
+        final ByteBuffer[] buffers = iovecBuffers(node, memory, iovecArrayAddress, iovecCount);
+        if (buffers == null) {
+            return writeChunksToChannel(node, memory, channel, iovecArrayAddress, iovecCount, sizeAddress);
+        }
+
+        long totalBytesWritten = 0;
+        boolean wouldBlock = false;
+        try {
+            if (channel instanceof GatheringByteChannel) {
+                final GatheringByteChannel gatheringChannel = (GatheringByteChannel) channel;
+                int first = 0;
+                while (first < buffers.length) {
+                    final long bytesWritten = gatheringChannel.write(buffers, first, buffers.length - first);
+                    if (bytesWritten <= 0 && buffers[first].hasRemaining()) {
+                        wouldBlock = totalBytesWritten == 0;
+                        break;
+                    }
+                    totalBytesWritten += bytesWritten;
+                    while (first < buffers.length && !buffers[first].hasRemaining()) {
+                        first++;
+                    }
+                }
+            } else {
+                buffers: for (ByteBuffer buffer : buffers) {
+                    while (buffer.hasRemaining()) {
+                        final int bytesWritten = channel.write(buffer);
+                        if (bytesWritten <= 0) {
+                            wouldBlock = totalBytesWritten == 0;
+                            break buffers;
+                        }
+                        totalBytesWritten += bytesWritten;
+                    }
+                }
+            }
+        } catch (NonWritableChannelException e) {
+            return Errno.Badf;
+        } catch (IOException e) {
+            return Errno.Io;
+        }
+        if (wouldBlock) {
+            // Only a non-blocking channel writes nothing.
+            return Errno.Again;
+        }
+
+        memory.store_i32(node, sizeAddress, (int) totalBytesWritten);
+        return Errno.Success;
+    }
+
+    /**
+     * Writes to {@code channel} like
+     * {@link #writeToChannel(Node, WasmMemory, WritableByteChannel, int, int, int)}, for a memory
+     * that is not backed by an array, by copying the iovecs chunk by chunk.
+     */
+    private static Errno writeChunksToChannel(Node node, WasmMemory memory, WritableByteChannel channel, int iovecArrayAddress, int iovecCount, int sizeAddress) {
+        final ByteBuffer chunk = DIRECT_CHUNK.get();
+        long totalBytesWritten = 0;
+        boolean wouldBlock = false;
+        try {
+            iovecs: for (int i = 0; i < iovecCount; i++) {
+                final int iovecAddress = iovecArrayAddress + i * Iovec.BYTES;
+                final int start = Iovec.readBuf(node, memory, iovecAddress);
+                final int len = Iovec.readBufLen(node, memory, iovecAddress);
+                memory.checkAccess(node, start, len);
+                for (int offset = 0; offset < len; offset += chunk.capacity()) {
+                    final int chunkLength = Math.min(chunk.capacity(), len - offset);
+                    chunk.clear();
+                    memory.copyToBuffer(node, start + offset, chunk, chunkLength);
+                    chunk.flip();
+                    while (chunk.hasRemaining()) {
+                        final int bytesWritten = channel.write(chunk);
+                        if (bytesWritten <= 0) {
+                            wouldBlock = totalBytesWritten == 0;
+                            break iovecs;
+                        }
+                        totalBytesWritten += bytesWritten;
+                    }
+                }
+            }
+        } catch (NonWritableChannelException e) {
+            return Errno.Badf;
+        } catch (IOException e) {
+            return Errno.Io;
+        }
+        if (wouldBlock) {
+            return Errno.Again;
+        }
+
+        memory.store_i32(node, sizeAddress, (int) totalBytesWritten);
+        return Errno.Success;
+    }
+
+    static Errno readFromChannel(Node node, WasmMemory memory, ReadableByteChannel channel, int iovecArrayAddress, int iovecCount, int sizeAddress) {
+        if (!iovecArrayFits(memory, iovecArrayAddress, iovecCount)) {
+            return Errno.Fault;
+        }
+        final ByteBuffer[] buffers = iovecBuffers(node, memory, iovecArrayAddress, iovecCount);
+        if (buffers == null) {
+            return readChunksFromChannel(node, memory, channel, iovecArrayAddress, iovecCount, sizeAddress);
+        }
+
+        long totalBytesRead = 0;
+        boolean wouldBlock = false;
+        try {
+            if (channel instanceof ScatteringByteChannel) {
+                final ScatteringByteChannel scatteringChannel = (ScatteringByteChannel) channel;
+                int first = 0;
+                while (first < buffers.length) {
+                    final long bytesRead = scatteringChannel.read(buffers, first, buffers.length - first);
+                    if (bytesRead == -1) {
+                        break;
+                    } else if (bytesRead == 0 && buffers[first].hasRemaining()) {
+                        wouldBlock = totalBytesRead == 0;
+                        break;
+                    }
+                    totalBytesRead += bytesRead;
+                    while (first < buffers.length && !buffers[first].hasRemaining()) {
+                        first++;
+                    }
+                }
+            } else {
+                buffers: for (ByteBuffer buffer : buffers) {
+                    while (buffer.hasRemaining()) {
+                        final int bytesRead = channel.read(buffer);
+                        if (bytesRead == -1) {
+                            break buffers;
+                        } else if (bytesRead == 0) {
+                            wouldBlock = totalBytesRead == 0;
+                            break buffers;
+                        }
+                        totalBytesRead += bytesRead;
+                    }
+                }
+            }
+        } catch (NonReadableChannelException e) {
+            return Errno.Badf;
+        } catch (IOException e) {
+            return Errno.Io;
+        }
+        if (wouldBlock) {
+            // Only a non-blocking channel reads nothing before its end.
+            return Errno.Again;
+        }
+
+        memory.store_i32(node, sizeAddress, (int) totalBytesRead);
+        return Errno.Success;
+    }
+
+    /**
+     * Reads from {@code channel} like
+     * {@link #readFromChannel(Node, WasmMemory, ReadableByteChannel, int, int, int)}, for a memory
+     * that is not backed by an array, by copying the data chunk by chunk.
+     */
+    private static Errno readChunksFromChannel(Node node, WasmMemory memory, ReadableByteChannel channel, int iovecArrayAddress, int iovecCount, int sizeAddress) {
+        final ByteBuffer chunk = DIRECT_CHUNK.get();
+        long totalBytesRead = 0;
+        boolean wouldBlock = false;
+        try {
+            iovecs: for (int i = 0; i < iovecCount; i++) {
+                final int iovecAddress = iovecArrayAddress + i * Iovec.BYTES;
+                final int start = Iovec.readBuf(node, memory, iovecAddress);
+                final int len = Iovec.readBufLen(node, memory, iovecAddress);
+                memory.checkAccess(node, start, len);
+                int offset = 0;
+                while (offset < len) {
+                    chunk.clear();
+                    chunk.limit(Math.min(chunk.capacity(), len - offset));
+                    final int bytesRead = channel.read(chunk);
+                    if (bytesRead == -1) {
+                        break iovecs;
+                    } else if (bytesRead == 0) {
+                        wouldBlock = totalBytesRead == 0;
+                        break iovecs;
+                    }
+                    chunk.flip();
+                    memory.initialize(node, chunk, start + offset, bytesRead);
+                    offset += bytesRead;
+                    totalBytesRead += bytesRead;
+                }
+            }
+        } catch (NonReadableChannelException e) {
+            return Errno.Badf;
+        } catch (IOException e) {
+            return Errno.Io;
+        }
+        if (wouldBlock) {
+            return Errno.Again;
+        }
+
+        memory.store_i32(node, sizeAddress, (int) totalBytesRead);
+        return Errno.Success;
+    }
+
+    /**
+     * Reads from the current position of {@code channel} like
+     * {@link #readFromChannel(Node, WasmMemory, ReadableByteChannel, int, int, int)}, but copies the
+     * data from {@code mapping}, a read-only mapping of the whole file, instead of issuing read
+     * system calls.
+     */
+    static Errno readFromMapping(Node node, WasmMemory memory, FileChannel channel, MappedByteBuffer mapping, int iovecArrayAddress, int iovecCount, int sizeAddress) {
+        if (!iovecArrayFits(memory, iovecArrayAddress, iovecCount)) {
+            return Errno.Fault;
+        }
+
+        int totalBytesRead = 0;
+        try {
+            final long position = channel.position();
+            if (position < mapping.capacity()) {
+                final ByteBuffer source = mapping.duplicate();
+                source.position((int) position);
+                for (int i = 0; i < iovecCount && source.hasRemaining(); i++) {
+                    final int iovecAddress = iovecArrayAddress + i * Iovec.BYTES;
+                    final int start = Iovec.readBuf(node, memory, iovecAddress);
+                    final int len = Iovec.readBufLen(node, memory, iovecAddress);
+                    final int bytesRead = Math.min(len, source.remaining());
+                    memory.checkAccess(node, start, len);
+                    // The mapping is a direct buffer, so this is a single copy for any memory.
+                    memory.initialize(node, source, start, bytesRead);
+                    totalBytesRead += bytesRead;
+                }
+                channel.position(position + totalBytesRead);
+            }
+        } catch (NonReadableChannelException e) {
+            return Errno.Badf;
+        } catch (IOException e) {
+            return Errno.Io;
+        }
+
+        memory.store_i32(node, sizeAddress, totalBytesRead);
+        return Errno.Success;
+    }
+
+    /**
+     * Returns the total number of bytes described by the {@code iovecCount} iovecs starting at
+     * {@code iovecArrayAddress}, or -1 if the iovec array does not fit in the memory.
+     */
+    static long iovecLength(Node node, WasmMemory memory, int iovecArrayAddress, int iovecCount) {
+        if (!iovecArrayFits(memory, iovecArrayAddress, iovecCount)) {
+            return -1;
+        }
+        long length = 0;
+        for (int i = 0; i < iovecCount; i++) {
+            length += Integer.toUnsignedLong(Iovec.readBufLen(node, memory, iovecArrayAddress + i * Iovec.BYTES));
+        }
+        return length;
+    }
+
+    /**
+     * Returns views of the buffers described by the {@code iovecCount} iovecs starting at
+     * {@code iovecArrayAddress}, or {@code null} if the memory is not backed by an array.
+     */
+    private static ByteBuffer[] iovecBuffers(Node node, WasmMemory memory, int iovecArrayAddress, int iovecCount) {
+        final ByteBuffer[] buffers = new ByteBuffer[iovecCount];
+        for (int i = 0; i < iovecCount; i++) {
+            final int iovecAddress = iovecArrayAddress + i * Iovec.BYTES;
+            buffers[i] = memory.asByteBuffer(node, Iovec.readBuf(node, memory, iovecAddress), Iovec.readBufLen(node, memory, iovecAddress));
+            if (buffers[i] == null) {
+                return null;
+            }
+        }
+        return buffers;
+    }
+
+    private static boolean iovecArrayFits(WasmMemory memory, int iovecArrayAddress, int iovecCount) {
+        return Integer.toUnsignedLong(iovecArrayAddress) + Integer.toUnsignedLong(iovecCount) * Iovec.BYTES <= memory.byteSize();
+    }
+
     /**
      * Writes an <a href=
      * "https://github.com/WebAssembly/WASI/blob/a206794fea66118945a520f6e0af3754cc51860b/phases/snapshot/docs.md#-fdstat-struct"><code>fdstat</code></a>
@@ -52,6 +52,9 @@ import org.graalvm.wasm.predefined.wasi.types.Oflags;
 import org.graalvm.wasm.predefined.wasi.types.Rights;
 
 import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.NonReadableChannelException;
 import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.OpenOption;
 import java.nio.file.StandardOpenOption;
@@ -69,6 +72,21 @@ class FileFd extends SeekableByteChannelFd {
     private final TruffleFile file;
     private final short oflags;
 
+    /**
+     * Reads of at least this many bytes are copied from a memory mapping of the file, if it is
+     * positive. On Linux and macOS, the mapping shares the page cache with the channel, so it
+     * reflects the writes to the file; it is replaced when the size of the file changes.
+     *
+     * @see org.graalvm.wasm.WasmOptions#WasiMappedReadThreshold
+     */
+    private final int mappedReadThreshold;
+
+    /**
+     * A read-only mapping of the whole file, which is kept across reads and replaced when the size
+     * of the file changes.
+     */
+    private MappedByteBuffer mapping;
+
     /**
      * @throws FileAlreadyExistsException if {@link StandardOpenOption#CREATE_NEW} option is set and
      *             a file already exists on given path
@@ -79,10 +97,11 @@ class FileFd extends SeekableByteChannelFd {
      * @throws SecurityException if the {@link FileSystem} denied the operation
      * @see TruffleFile#newByteChannel(Set, FileAttribute[])
      */
-    FileFd(TruffleFile file, short oflags, long fsRightsBase, long fsRightsInheriting, short fdFlags) throws IOException {
+    FileFd(TruffleFile file, short oflags, long fsRightsBase, long fsRightsInheriting, short fdFlags, int mappedReadThreshold) throws IOException {
         super(file.newByteChannel(parseOptions(oflags, fdFlags)), Filetype.RegularFile, fsRightsBase, fsRightsInheriting, fdFlags);
         this.file = file;
         this.oflags = oflags;
+        this.mappedReadThreshold = mappedReadThreshold;
     }
 
     private static Set<? extends OpenOption> parseOptions(short oflags, short fdFlags) {
@@ -140,6 +159,68 @@ class FileFd extends SeekableByteChannelFd {
         return openOptions;
     }
 
+    @Override
+    public Errno read(Node node, WasmMemory memory, int iovecArrayAddress, int iovecCount, int sizeAddress) {
+        if (isSet(fsRightsBase, Rights.FdRead) && mappedReadThreshold > 0 && channel() instanceof FileChannel &&
+                        FdUtils.iovecLength(node, memory, iovecArrayAddress, iovecCount) >= mappedReadThreshold) {
+            final FileChannel fileChannel = (FileChannel) channel();
+            final MappedByteBuffer currentMapping;
+            try {
+                currentMapping = mapping(fileChannel);
+            } catch (NonReadableChannelException e) {
+                return Errno.Badf;
+            } catch (IOException e) {
+                return Errno.Io;
+            }
+            if (currentMapping != null) {
+                try {
+                    return FdUtils.readFromMapping(node, memory, fileChannel, currentMapping, iovecArrayAddress, iovecCount, sizeAddress);
+                } catch (InternalError e) {
+                    // The file was truncated after it was mapped, so accessing the pages past
+                    // its new end faulted. The position of the channel has not been updated
+                    // yet, so drop the stale mapping and read through the channel instead.
+                    mapping = null;
+                }
+            }
+        }
+        return super.read(node, memory, iovecArrayAddress, iovecCount, sizeAddress);
+    }
+
+    /**
+     * Returns a mapping of the whole file, or {@code null} if the file is too large to be mapped
+     * in one buffer.
+     */
+    private MappedByteBuffer mapping(FileChannel fileChannel) throws IOException {
+        final long size = fileChannel.size();
+        if (size > Integer.MAX_VALUE) {
+            return null;
+        }
+        if (mapping == null || mapping.capacity() != size) {
+            mapping = fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        return mapping;
+    }
+
+    @Override
+    public void close() throws IOException {
+        mapping = null;
+        super.close();
+    }
+
+    /**
+     * Returns the number of bytes between the offset of this file descriptor and the end of the
+     * file.
+     */
+    @Override
+    public long pollRead() {
+        try {
+            return Math.max(0, channel().size() - channel().position());
+        } catch (IOException e) {
+            // Let the read report the error.
+            return 0;
+        }
+    }
+
     @Override
     public Errno filestatGet(Node node, WasmMemory memory, int resultAddress) {
         if (!isSet(fsRightsBase, Rights.FdFilestatGet)) {
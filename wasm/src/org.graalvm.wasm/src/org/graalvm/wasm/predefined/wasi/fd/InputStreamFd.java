@@ -48,6 +48,7 @@ import org.graalvm.wasm.predefined.wasi.types.Fdflags;
 import org.graalvm.wasm.predefined.wasi.types.Filetype;
 import org.graalvm.wasm.predefined.wasi.types.Rights;
 
+import java.io.IOException;
 import java.io.InputStream;
 
 import static org.graalvm.wasm.predefined.wasi.FlagUtils.flags;
@@ -59,7 +60,7 @@ import static org.graalvm.wasm.predefined.wasi.FlagUtils.isSet;
  */
 final class InputStreamFd extends Fd {
 
-    private static final long FS_RIGHTS_BASE = flags(Rights.FdRead);
+    private static final long FS_RIGHTS_BASE = flags(Rights.FdRead, Rights.FdFdstatSetFlags);
     private static final long FS_RIGHTS_INHERITING = 0;
     private static final short FS_FLAGS = flagsShort(Fdflags.Append);
 
@@ -75,7 +76,38 @@ final class InputStreamFd extends Fd {
         if (!isSet(fsRightsBase, Rights.FdRead)) {
             return Errno.Notcapable;
         }
+        if (isSet(fdFlags, Fdflags.Nonblock) && pollRead() == -1) {
+            return Errno.Again;
+        }
         return FdUtils.readFromStream(node, memory, inputStream, iovecArrayAddress, iovecCount, sizeAddress);
     }
 
+    /**
+     * Returns the number of bytes that the stream can provide without blocking, or {@code -1} if it
+     * has none. Streams cannot tell whether they reached their end without blocking, so a stream
+     * at its end is never ready.
+     */
+    @Override
+    public long pollRead() {
+        try {
+            final int available = inputStream.available();
+            return available > 0 ? available : -1;
+        } catch (IOException e) {
+            // Let the read report the error.
+            return 0;
+        }
+    }
+
+    @Override
+    public Errno fdstatSetFlags(Node node, WasmMemory memory, short newFdFlags) {
+        if (!isSet(fsRightsBase, Rights.FdFdstatSetFlags)) {
+            return Errno.Notcapable;
+        }
+        if ((newFdFlags & ~flagsShort(Fdflags.Append, Fdflags.Nonblock)) != 0) {
+            return Errno.Inval;
+        }
+        fdFlags = newFdFlags;
+        return Errno.Success;
+    }
+
 }
@@ -49,21 +49,18 @@ import org.graalvm.wasm.predefined.wasi.types.Rights;
 import org.graalvm.wasm.predefined.wasi.types.Whence;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
-import java.nio.channels.Channels;
 import java.nio.channels.SeekableByteChannel;
 
 import static org.graalvm.wasm.predefined.wasi.FlagUtils.isSet;
 
 /**
- * File descriptor wrapping a {@link SeekableByteChannel}.
+ * File descriptor wrapping a {@link SeekableByteChannel}. Reads and writes transfer the data of
+ * all iovecs directly between the channel and the memory, in a single scattering or gathering
+ * operation if the channel supports it.
  */
 abstract class SeekableByteChannelFd extends Fd {
 
     private SeekableByteChannel channel;
-    private InputStream inputStream;
-    private OutputStream outputStream;
 
     SeekableByteChannelFd(SeekableByteChannel channel, Filetype type, long fsRightsBase, long fsRightsInheriting, short fdFlags) {
         super(type, fsRightsBase, fsRightsInheriting, fdFlags);
@@ -72,8 +69,10 @@ abstract class SeekableByteChannelFd extends Fd {
 
     protected void setChannel(SeekableByteChannel channel) {
         this.channel = channel;
-        this.inputStream = Channels.newInputStream(channel);
-        this.outputStream = Channels.newOutputStream(channel);
+    }
+
+    protected SeekableByteChannel channel() {
+        return channel;
     }
 
     @Override
@@ -86,7 +85,7 @@ abstract class SeekableByteChannelFd extends Fd {
         if (!isSet(fsRightsBase, Rights.FdRead)) {
             return Errno.Notcapable;
         }
-        return FdUtils.readFromStream(node, memory, inputStream, iovecArrayAddress, iovecCount, sizeAddress);
+        return FdUtils.readFromChannel(node, memory, channel, iovecArrayAddress, iovecCount, sizeAddress);
     }
 
     @Override
@@ -94,7 +93,7 @@ abstract class SeekableByteChannelFd extends Fd {
         if (!isSet(fsRightsBase, Rights.FdWrite)) {
             return Errno.Notcapable;
         }
-        return FdUtils.writeToStream(node, memory, outputStream, iovecArrayAddress, iovecCount, sizeAddress);
+        return FdUtils.writeToChannel(node, memory, channel, iovecArrayAddress, iovecCount, sizeAddress);
     }
 
     @Override
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.graalvm.wasm.predefined.wasi.fd;
+
+import com.oracle.truffle.api.nodes.Node;
+import org.graalvm.wasm.memory.WasmMemory;
+import org.graalvm.wasm.predefined.wasi.types.Errno;
+import org.graalvm.wasm.predefined.wasi.types.Fdflags;
+import org.graalvm.wasm.predefined.wasi.types.Filetype;
+import org.graalvm.wasm.predefined.wasi.types.Rights;
+
+import java.io.IOException;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.Selector;
+
+import static org.graalvm.wasm.predefined.wasi.FlagUtils.flagsShort;
+import static org.graalvm.wasm.predefined.wasi.FlagUtils.isSet;
+
+/**
+ * File descriptor wrapping a {@link SelectableChannel}, such as a socket.
+ * <p>
+ * The channel is always in non-blocking mode, so that <code>poll_oneoff</code> can register it
+ * with a {@link Selector}. Unless the {@link Fdflags#Nonblock} flag is set, operations that would
+ * block wait on a selector of their own until the channel is ready, and are then retried.
+ */
+abstract class SelectableChannelFd extends Fd {
+
+    protected final FdManager fdManager;
+    private final SelectableChannel channel;
+
+    /**
+     * The selector on which blocking operations wait. It is created on the first operation that
+     * would block.
+     */
+    private Selector blockingSelector;
+
+    SelectableChannelFd(FdManager fdManager, SelectableChannel channel, Filetype type, long fsRightsBase, long fsRightsInheriting, short fdFlags) throws IOException {
+        super(type, fsRightsBase, fsRightsInheriting, fdFlags);
+        this.fdManager = fdManager;
+        this.channel = channel;
+        channel.configureBlocking(false);
+    }
+
+    @Override
+    public SelectableChannel selectableChannel() {
+        return channel;
+    }
+
+    protected boolean isBlocking() {
+        return !isSet(fdFlags, Fdflags.Nonblock);
+    }
+
+    /**
+     * Waits until the channel is ready for one of the operations in {@code ops}, a bitmap of
+     * {@link java.nio.channels.SelectionKey} operations.
+     *
+     * @throws ClosedChannelException if the file descriptor is closed while waiting
+     */
+    protected void await(int ops) throws IOException {
+        final Selector selector = blockingSelector();
+        try {
+            synchronized (selector) {
+                channel.keyFor(selector).interestOps(ops);
+                selector.select();
+                selector.selectedKeys().clear();
+            }
+        } catch (ClosedSelectorException | CancelledKeyException e) {
+            throw new ClosedChannelException();
+        }
+    }
+
+    private synchronized Selector blockingSelector() throws IOException {
+        if (blockingSelector == null) {
+            blockingSelector = Selector.open();
+            channel.register(blockingSelector, 0);
+        }
+        return blockingSelector;
+    }
+
+    @Override
+    public Errno fdstatSetFlags(Node node, WasmMemory memory, short newFdFlags) {
+        if (!isSet(fsRightsBase, Rights.FdFdstatSetFlags)) {
+            return Errno.Notcapable;
+        }
+        if ((newFdFlags & ~flagsShort(Fdflags.Nonblock)) != 0) {
+            // Only the Nonblock flag applies to sockets.
+            return Errno.Inval;
+        }
+        fdFlags = newFdFlags;
+        return Errno.Success;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+        final Selector selector;
+        synchronized (this) {
+            selector = blockingSelector;
+        }
+        if (selector != null) {
+            // Also wakes up the threads waiting on the selector.
+            selector.close();
+        }
+    }
+
+}